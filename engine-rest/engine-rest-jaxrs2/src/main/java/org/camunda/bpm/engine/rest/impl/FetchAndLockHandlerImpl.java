@@ -17,10 +17,29 @@
 package org.camunda.bpm.engine.rest.impl;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -34,9 +53,15 @@ import org.camunda.bpm.engine.ProcessEngine;
 import org.camunda.bpm.engine.externaltask.ExternalTaskQueryBuilder;
 import org.camunda.bpm.engine.externaltask.LockedExternalTask;
 import org.camunda.bpm.engine.impl.ProcessEngineImpl;
+import org.camunda.bpm.engine.impl.cmd.FetchExternalTasksBatchCmd;
+import org.camunda.bpm.engine.impl.externaltask.ExternalTaskAvailabilityListener;
+import org.camunda.bpm.engine.impl.externaltask.ExternalTaskQueryTopicBuilderImpl;
+import org.camunda.bpm.engine.impl.externaltask.TopicFetchInstruction;
 import org.camunda.bpm.engine.impl.identity.Authentication;
+import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
 import org.camunda.bpm.engine.impl.util.ClockUtil;
 import org.camunda.bpm.engine.impl.util.SingleConsumerCondition;
+import org.camunda.bpm.engine.rest.dto.externaltask.FetchExternalTasksDto.FetchExternalTaskTopicDto;
 import org.camunda.bpm.engine.rest.dto.externaltask.FetchExternalTasksExtendedDto;
 import org.camunda.bpm.engine.rest.dto.externaltask.LockedExternalTaskDto;
 import org.camunda.bpm.engine.rest.exception.InvalidRequestException;
@@ -46,26 +71,49 @@ import org.camunda.bpm.engine.rest.util.EngineUtil;
 
 
 /**
+ * <p>Handles long polling fetch and lock requests.</p>
+ *
+ * <p>Pending requests are indexed by topic. When the engine reports that external tasks
+ * of a topic became available, only the requests waiting for that topic are fetched
+ * again. All pending requests are fetched periodically to pick up tasks created on other
+ * cluster nodes.</p>
+ *
+ * <p>Requests of the same engine and authentication that fetch the same topics are
+ * batched and fetched with a single query. Batches are fetched by a configurable number
+ * of acquisition threads.</p>
+ *
  * @author Tassilo Weidner
  */
-public class FetchAndLockHandlerImpl implements Runnable, FetchAndLockHandler {
+public class FetchAndLockHandlerImpl implements Runnable, FetchAndLockHandler, ExternalTaskAvailabilityListener {
 
   private final static Logger LOG = Logger.getLogger(FetchAndLockHandlerImpl.class.getName());
 
   protected static final String UNIQUE_WORKER_REQUEST_PARAM_NAME = "fetch-and-lock-unique-worker-request";
+  protected static final String ACQUISITION_THREADS_PARAM_NAME = "fetch-and-lock-acquisition-threads";
+  protected static final String QUEUE_CAPACITY_PARAM_NAME = "fetch-and-lock-queue-capacity";
 
   protected static final long PENDING_REQUEST_FETCH_INTERVAL = 30L * 1000;
   protected static final long MAX_BACK_OFF_TIME = Long.MAX_VALUE;
   protected static final long MAX_REQUEST_TIMEOUT = 1800000; // 30 minutes
+  protected static final int DEFAULT_QUEUE_CAPACITY = 200;
 
   protected SingleConsumerCondition condition;
 
-  protected BlockingQueue<FetchAndLockRequest> queue = new ArrayBlockingQueue<>(200);
+  protected BlockingQueue<FetchAndLockRequest> queue = new ArrayBlockingQueue<>(DEFAULT_QUEUE_CAPACITY);
   protected List<FetchAndLockRequest> pendingRequests = new ArrayList<>();
+  protected Map<String, List<FetchAndLockRequest>> pendingRequestsByTopic = new HashMap<>();
   protected List<FetchAndLockRequest> newRequests = new ArrayList<>();
 
+  /** topics of the external tasks that became available since the last acquisition */
+  protected Set<String> availableTopics = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+  protected AtomicBoolean allTopicsAvailable = new AtomicBoolean();
+  protected long nextFetchAllTime = 0;
+
   protected Thread handlerThread = new Thread(this, this.getClass().getSimpleName());
 
+  protected int acquisitionThreads = 1;
+  protected ExecutorService acquisitionExecutor;
+
   protected volatile boolean isRunning = false;
 
   protected boolean isUniqueWorkerRequest = false;
@@ -98,24 +146,23 @@ public class FetchAndLockHandlerImpl implements Runnable, FetchAndLockHandler {
         removeDuplicates();
       }
 
-      pendingRequests.addAll(newRequests);
-      newRequests.clear();
+      for (FetchAndLockRequest newRequest : newRequests) {
+        addToPendingRequests(newRequest);
+      }
     }
 
     LOG.log(Level.FINEST, "Number of pending requests {0}", pendingRequests.size());
 
-    long backoffTime = MAX_BACK_OFF_TIME; //timestamp
-
-    Iterator<FetchAndLockRequest> iterator = pendingRequests.iterator();
-    while (iterator.hasNext()) {
-
-      FetchAndLockRequest pendingRequest = iterator.next();
+    List<FetchAndLockRequest> requestsToFetch = collectRequestsToFetch();
+    newRequests.clear();
 
-      LOG.log(Level.FINEST, "Fetching tasks for request {0}", pendingRequest);
+    Map<FetchAndLockRequest, FetchAndLockResult> results = fetchAndLock(createBatches(requestsToFetch));
 
-      FetchAndLockResult result = tryFetchAndLock(pendingRequest);
+    for (Map.Entry<FetchAndLockRequest, FetchAndLockResult> resultEntry : results.entrySet()) {
+      FetchAndLockRequest pendingRequest = resultEntry.getKey();
+      FetchAndLockResult result = resultEntry.getValue();
 
-      LOG.log(Level.FINEST, "Fetch and lock result: {0}", result);
+      LOG.log(Level.FINEST, "Fetch and lock result for request {0}: {1}", new Object[] { pendingRequest, result });
 
       if (result.wasSuccessful()) {
 
@@ -127,11 +174,7 @@ public class FetchAndLockHandlerImpl implements Runnable, FetchAndLockHandler {
 
           LOG.log(Level.FINEST, "resume and remove request with {0}", lockedTasks);
 
-          iterator.remove();
-        }
-        else {
-          final long msUntilTimeout = pendingRequest.getTimeoutTimestamp() - ClockUtil.getCurrentTime().getTime();
-          backoffTime = Math.min(backoffTime, msUntilTimeout);
+          removeFromPendingRequests(pendingRequest);
         }
       }
       else {
@@ -141,10 +184,18 @@ public class FetchAndLockHandlerImpl implements Runnable, FetchAndLockHandler {
 
         LOG.log(Level.FINEST, "Resume and remove request with error {0}", processEngineException);
 
-        iterator.remove();
+        removeFromPendingRequests(pendingRequest);
       }
     }
 
+    long currentTime = ClockUtil.getCurrentTime().getTime();
+    long backoffTime = MAX_BACK_OFF_TIME; //timestamp
+
+    for (FetchAndLockRequest pendingRequest : pendingRequests) {
+      final long msUntilTimeout = pendingRequest.getTimeoutTimestamp() - currentTime;
+      backoffTime = Math.min(backoffTime, msUntilTimeout);
+    }
+
     final long waitTime = Math.max(0, backoffTime);
 
     if (pendingRequests.isEmpty()) {
@@ -153,43 +204,313 @@ public class FetchAndLockHandlerImpl implements Runnable, FetchAndLockHandler {
     else {
       // if there are pending requests, try fetch periodically to ensure tasks created on other
       // cluster nodes and tasks with expired timeouts can be fetched in a timely manner
-      suspend(Math.min(PENDING_REQUEST_FETCH_INTERVAL, waitTime));
+      suspend(Math.min(nextFetchAllTime - currentTime, waitTime));
+    }
+  }
+
+  /**
+   * Determines the pending requests which are fetched in this acquisition cycle: new requests,
+   * expired requests and requests waiting for a topic that became available. All pending
+   * requests are fetched if the topics are unknown or the periodic fetch interval has elapsed.
+   */
+  protected List<FetchAndLockRequest> collectRequestsToFetch() {
+    long currentTime = ClockUtil.getCurrentTime().getTime();
+
+    boolean fetchAll = allTopicsAvailable.getAndSet(false);
+    if (currentTime >= nextFetchAllTime) {
+      nextFetchAllTime = currentTime + PENDING_REQUEST_FETCH_INTERVAL;
+      fetchAll = true;
+    }
+
+    Set<FetchAndLockRequest> notifiedRequests = Collections.newSetFromMap(new IdentityHashMap<FetchAndLockRequest, Boolean>());
+    Iterator<String> topicIterator = availableTopics.iterator();
+    while (topicIterator.hasNext()) {
+      List<FetchAndLockRequest> requestsForTopic = pendingRequestsByTopic.get(topicIterator.next());
+      if (requestsForTopic != null) {
+        notifiedRequests.addAll(requestsForTopic);
+      }
+      topicIterator.remove();
+    }
+
+    if (fetchAll) {
+      return new ArrayList<>(pendingRequests);
+    }
+
+    notifiedRequests.addAll(newRequests);
+
+    List<FetchAndLockRequest> requestsToFetch = new ArrayList<>();
+    for (FetchAndLockRequest pendingRequest : pendingRequests) {
+      if (notifiedRequests.contains(pendingRequest) || isExpired(pendingRequest)) {
+        requestsToFetch.add(pendingRequest);
+      }
+    }
+
+    return requestsToFetch;
+  }
+
+  /**
+   * Groups the requests which can be fetched with a single query, see {@link #getBatchKey(FetchAndLockRequest)}.
+   */
+  protected Collection<List<FetchAndLockRequest>> createBatches(List<FetchAndLockRequest> requests) {
+    Map<String, List<FetchAndLockRequest>> batches = new LinkedHashMap<>();
+
+    for (FetchAndLockRequest request : requests) {
+      String batchKey = getBatchKey(request);
+
+      List<FetchAndLockRequest> batch = batches.get(batchKey);
+      if (batch == null) {
+        batch = new ArrayList<>();
+        batches.put(batchKey, batch);
+      }
+      batch.add(request);
+    }
+
+    return batches.values();
+  }
+
+  /**
+   * @return a key which is equal for two requests if they fetch the same external tasks
+   *   and can therefore be batched
+   */
+  protected String getBatchKey(FetchAndLockRequest request) {
+    StringBuilder key = new StringBuilder(request.getProcessEngineName());
+
+    Authentication authentication = request.getAuthentication();
+    if (authentication != null) {
+      key.append('|').append(authentication.getUserId())
+        .append('|').append(authentication.getGroupIds())
+        .append('|').append(authentication.getTenantIds());
+    }
+
+    FetchExternalTasksExtendedDto dto = request.getDto();
+    key.append('|').append(dto.isUsePriority());
+
+    if (dto.getTopics() != null) {
+      List<FetchExternalTaskTopicDto> topics = new ArrayList<>(dto.getTopics());
+      Collections.sort(topics, new Comparator<FetchExternalTaskTopicDto>() {
+        public int compare(FetchExternalTaskTopicDto topic1, FetchExternalTaskTopicDto topic2) {
+          return String.valueOf(topic1.getTopicName()).compareTo(String.valueOf(topic2.getTopicName()));
+        }
+      });
+
+      for (FetchExternalTaskTopicDto topic : topics) {
+        key.append("|[").append(topic.getTopicName())
+          .append(',').append(topic.getLockDuration())
+          .append(',').append(topic.getBusinessKey())
+          .append(',').append(topic.getProcessDefinitionId())
+          .append(',').append(toString(topic.getProcessDefinitionIdIn()))
+          .append(',').append(topic.getProcessDefinitionKey())
+          .append(',').append(toString(topic.getProcessDefinitionKeyIn()))
+          .append(',').append(topic.getProcessDefinitionVersionTag())
+          .append(',').append(topic.getVariables())
+          .append(',').append(topic.getProcessVariables() != null ? new TreeMap<>(topic.getProcessVariables()) : null)
+          .append(',').append(topic.isDeserializeValues())
+          .append(',').append(topic.isLocalVariables())
+          .append(',').append(topic.isWithoutTenantId())
+          .append(',').append(toString(topic.getTenantIdIn()))
+          .append(']');
+      }
     }
+
+    return key.toString();
+  }
+
+  protected String toString(String[] values) {
+    return values != null ? Arrays.toString(values) : null;
+  }
+
+  protected Map<FetchAndLockRequest, FetchAndLockResult> fetchAndLock(Collection<List<FetchAndLockRequest>> batches) {
+    Map<FetchAndLockRequest, FetchAndLockResult> results = new LinkedHashMap<>();
+
+    if (acquisitionExecutor == null || batches.size() <= 1) {
+      for (List<FetchAndLockRequest> batch : batches) {
+        results.putAll(tryFetchAndLock(batch));
+      }
+      return results;
+    }
+
+    List<Callable<Map<FetchAndLockRequest, FetchAndLockResult>>> fetchTasks = new ArrayList<>();
+    for (final List<FetchAndLockRequest> batch : batches) {
+      fetchTasks.add(new Callable<Map<FetchAndLockRequest, FetchAndLockResult>>() {
+        public Map<FetchAndLockRequest, FetchAndLockResult> call() {
+          return tryFetchAndLock(batch);
+        }
+      });
+    }
+
+    try {
+      for (Future<Map<FetchAndLockRequest, FetchAndLockResult>> future : acquisitionExecutor.invokeAll(fetchTasks)) {
+        results.putAll(future.get());
+      }
+    }
+    catch (InterruptedException e) {
+      // the requests stay pending and are fetched again once the handler is resumed
+      Thread.currentThread().interrupt();
+    }
+    catch (ExecutionException e) {
+      LOG.log(Level.WARNING, "Fetching a batch of requests failed: {0}", e.getCause());
+    }
+
+    return results;
+  }
+
+  protected Map<FetchAndLockRequest, FetchAndLockResult> tryFetchAndLock(List<FetchAndLockRequest> batch) {
+    Map<FetchAndLockRequest, FetchAndLockResult> results = new LinkedHashMap<>();
+
+    if (batch.size() == 1) {
+      FetchAndLockRequest request = batch.get(0);
+      results.put(request, tryFetchAndLock(request));
+      return results;
+    }
+
+    ProcessEngine processEngine = null;
+    IdentityService identityService = null;
+
+    try {
+      FetchAndLockRequest firstRequest = batch.get(0);
+      processEngine = getProcessEngine(firstRequest);
+
+      ExternalTaskQueryBuilder fetchBuilder = firstRequest.getDto().buildQuery(processEngine);
+      if (!(processEngine instanceof ProcessEngineImpl) || !(fetchBuilder instanceof ExternalTaskQueryTopicBuilderImpl)) {
+        // the engine does not support fetching for several workers at once
+        for (FetchAndLockRequest request : batch) {
+          results.put(request, tryFetchAndLock(request));
+        }
+        return results;
+      }
+
+      identityService = processEngine.getIdentityService();
+      identityService.setAuthentication(firstRequest.getAuthentication());
+
+      Map<String, TopicFetchInstruction> instructions = ((ExternalTaskQueryTopicBuilderImpl) fetchBuilder).getInstructions();
+      List<List<LockedExternalTaskDto>> lockedTasks = executeFetchAndLock(batch, instructions, (ProcessEngineImpl) processEngine);
+
+      for (int i = 0; i < batch.size(); i++) {
+        results.put(batch.get(i), FetchAndLockResult.successful(lockedTasks.get(i)));
+      }
+    }
+    catch (Exception e) {
+      for (FetchAndLockRequest request : batch) {
+        results.put(request, FetchAndLockResult.failed(e));
+      }
+    }
+    finally {
+      if (identityService != null) {
+        identityService.clearAuthentication();
+      }
+    }
+
+    return results;
+  }
+
+  protected List<List<LockedExternalTaskDto>> executeFetchAndLock(List<FetchAndLockRequest> batch, Map<String, TopicFetchInstruction> instructions, ProcessEngineImpl processEngine) {
+    List<String> workerIds = new ArrayList<>();
+    List<Integer> maxTasks = new ArrayList<>();
+    for (FetchAndLockRequest request : batch) {
+      workerIds.add(request.getDto().getWorkerId());
+      maxTasks.add(request.getDto().getMaxTasks());
+    }
+
+    boolean usePriority = batch.get(0).getDto().isUsePriority();
+    CommandExecutor commandExecutor = processEngine.getProcessEngineConfiguration().getCommandExecutorTxRequired();
+    List<List<LockedExternalTask>> externalTasks = commandExecutor.execute(new FetchExternalTasksBatchCmd(workerIds, maxTasks, instructions, usePriority));
+
+    List<List<LockedExternalTaskDto>> lockedTasks = new ArrayList<>();
+    for (List<LockedExternalTask> tasks : externalTasks) {
+      lockedTasks.add(LockedExternalTaskDto.fromLockedExternalTasks(tasks));
+    }
+    return lockedTasks;
+  }
+
+  protected void addToPendingRequests(FetchAndLockRequest request) {
+    pendingRequests.add(request);
+
+    for (String topicName : getTopicNames(request)) {
+      List<FetchAndLockRequest> requestsForTopic = pendingRequestsByTopic.get(topicName);
+      if (requestsForTopic == null) {
+        requestsForTopic = new ArrayList<>();
+        pendingRequestsByTopic.put(topicName, requestsForTopic);
+      }
+      requestsForTopic.add(request);
+    }
+  }
+
+  protected void removeFromPendingRequests(FetchAndLockRequest request) {
+    pendingRequests.remove(request);
+
+    for (String topicName : getTopicNames(request)) {
+      List<FetchAndLockRequest> requestsForTopic = pendingRequestsByTopic.get(topicName);
+      if (requestsForTopic != null) {
+        requestsForTopic.remove(request);
+        if (requestsForTopic.isEmpty()) {
+          pendingRequestsByTopic.remove(topicName);
+        }
+      }
+    }
+  }
+
+  protected List<String> getTopicNames(FetchAndLockRequest request) {
+    List<String> topicNames = new ArrayList<>();
+
+    List<FetchExternalTaskTopicDto> topics = request.getDto().getTopics();
+    if (topics != null) {
+      for (FetchExternalTaskTopicDto topic : topics) {
+        topicNames.add(topic.getTopicName());
+      }
+    }
+
+    return topicNames;
   }
 
   protected void removeDuplicates() {
     for (FetchAndLockRequest newRequest : newRequests) {
       // remove any request from pendingRequests with the same worker id
-      Iterator<FetchAndLockRequest> iterator = pendingRequests.iterator();
+      Iterator<FetchAndLockRequest> iterator = new ArrayList<>(pendingRequests).iterator();
       while (iterator.hasNext()) {
         FetchAndLockRequest pendingRequest = iterator.next();
         if (pendingRequest.getDto().getWorkerId().equals(newRequest.getDto().getWorkerId())) {
           AsyncResponse asyncResponse = pendingRequest.getAsyncResponse();
           asyncResponse.cancel();
 
-          iterator.remove();
+          removeFromPendingRequests(pendingRequest);
         }
       }
 
     }
   }
 
+  @Override
+  public void externalTasksAvailable(Set<String> topicNames) {
+    if (topicNames == null) {
+      allTopicsAvailable.set(true);
+    }
+    else {
+      availableTopics.addAll(topicNames);
+    }
+
+    condition.signal();
+  }
+
   @Override
   public void start() {
     if (isRunning) {
       return;
     }
 
+    if (acquisitionThreads > 1) {
+      acquisitionExecutor = Executors.newFixedThreadPool(acquisitionThreads, new AcquisitionThreadFactory());
+    }
+
     isRunning = true;
     handlerThread.start();
 
-    ProcessEngineImpl.EXT_TASK_CONDITIONS.addConsumer(condition);
+    ProcessEngineImpl.EXT_TASK_AVAILABILITY_NOTIFIER.addListener(this);
   }
 
   @Override
   public void shutdown() {
     try {
-      ProcessEngineImpl.EXT_TASK_CONDITIONS.removeConsumer(condition);
+      ProcessEngineImpl.EXT_TASK_AVAILABILITY_NOTIFIER.removeListener(this);
     }
     finally {
       isRunning = false;
@@ -201,6 +522,10 @@ public class FetchAndLockHandlerImpl implements Runnable, FetchAndLockHandler {
     } catch (InterruptedException e) {
       LOG.log(Level.WARNING, "Shutting down the handler thread failed: {0}", e);
     }
+
+    if (acquisitionExecutor != null) {
+      acquisitionExecutor.shutdownNow();
+    }
   }
 
   protected void suspend(long millis) {
@@ -345,10 +670,26 @@ public class FetchAndLockHandlerImpl implements Runnable, FetchAndLockHandler {
 
       if (servletContext != null) {
         parseUniqueWorkerRequestParam(servletContext.getInitParameter(UNIQUE_WORKER_REQUEST_PARAM_NAME));
+        parseAcquisitionThreadsParam(servletContext.getInitParameter(ACQUISITION_THREADS_PARAM_NAME));
+        parseQueueCapacityParam(servletContext.getInitParameter(QUEUE_CAPACITY_PARAM_NAME));
       }
     }
   }
 
+  protected void parseAcquisitionThreadsParam(String acquisitionThreadsParam) {
+    if (acquisitionThreadsParam != null) {
+      acquisitionThreads = Math.max(1, Integer.parseInt(acquisitionThreadsParam));
+    } else {
+      acquisitionThreads = 1; // default configuration
+    }
+  }
+
+  protected void parseQueueCapacityParam(String queueCapacityParam) {
+    if (queueCapacityParam != null) {
+      queue = new ArrayBlockingQueue<>(Math.max(1, Integer.parseInt(queueCapacityParam)));
+    }
+  }
+
   protected void parseUniqueWorkerRequestParam(String uniqueWorkerRequestParam) {
     if (uniqueWorkerRequestParam != null) {
       isUniqueWorkerRequest = Boolean.valueOf(uniqueWorkerRequestParam);
@@ -360,4 +701,16 @@ public class FetchAndLockHandlerImpl implements Runnable, FetchAndLockHandler {
   public List<FetchAndLockRequest> getPendingRequests() {
     return pendingRequests;
   }
+
+  protected static class AcquisitionThreadFactory implements ThreadFactory {
+
+    protected final AtomicInteger threadNumber = new AtomicInteger();
+
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, FetchAndLockHandlerImpl.class.getSimpleName() + "-acquisition-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+
+  }
 }
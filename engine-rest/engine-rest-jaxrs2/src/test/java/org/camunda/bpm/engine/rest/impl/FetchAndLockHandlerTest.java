@@ -22,6 +22,7 @@ import org.camunda.bpm.engine.ProcessEngine;
 import org.camunda.bpm.engine.ProcessEngineException;
 import org.camunda.bpm.engine.externaltask.ExternalTaskQueryTopicBuilder;
 import org.camunda.bpm.engine.externaltask.LockedExternalTask;
+import org.camunda.bpm.engine.impl.identity.Authentication;
 import org.camunda.bpm.engine.impl.util.ClockUtil;
 import org.camunda.bpm.engine.rest.dto.externaltask.FetchExternalTasksExtendedDto;
 import org.camunda.bpm.engine.rest.exception.InvalidRequestException;
@@ -269,6 +270,7 @@ public class FetchAndLockHandlerTest {
 
     // when
     doThrow(new ProcessEngineException()).when(fetchTopicBuilder).execute();
+    handler.externalTasksAvailable(Collections.singleton("aTopicName"));
     handler.acquire();
 
     // then
@@ -416,11 +418,101 @@ public class FetchAndLockHandlerTest {
     assertThat(argumentCaptor.getValue().getMessage(), is("Request rejected due to shutdown of application server."));
   }
 
+  @Test
+  public void shouldFetchOnlyRequestsOfAvailableTopic() {
+    // given
+    doReturn(Collections.emptyList()).when(fetchTopicBuilder).execute();
+
+    handler.addPendingRequest(createDto(FetchAndLockHandlerImpl.MAX_REQUEST_TIMEOUT, "aWorkerId", "aTopicName"), mock(AsyncResponse.class), processEngine);
+    handler.addPendingRequest(createDto(FetchAndLockHandlerImpl.MAX_REQUEST_TIMEOUT, "anotherWorkerId", "anotherTopicName"), mock(AsyncResponse.class), processEngine);
+    handler.acquire();
+
+    // assume
+    verify(fetchTopicBuilder, times(4)).execute();
+
+    // when
+    handler.externalTasksAvailable(Collections.singleton("aTopicName"));
+    handler.acquire();
+
+    // then
+    verify(fetchTopicBuilder, times(5)).execute();
+    verify(fetchTopicBuilder, times(3)).topic("aTopicName", 12354L);
+    assertThat(handler.getPendingRequests().size(), is(2));
+  }
+
+  @Test
+  public void shouldNotFetchRequestsWithoutAvailableTopic() {
+    // given
+    doReturn(Collections.emptyList()).when(fetchTopicBuilder).execute();
+
+    handler.addPendingRequest(createDto(FetchAndLockHandlerImpl.MAX_REQUEST_TIMEOUT), mock(AsyncResponse.class), processEngine);
+    handler.acquire();
+
+    // when
+    handler.externalTasksAvailable(Collections.singleton("anotherTopicName"));
+    handler.acquire();
+
+    // then
+    verify(fetchTopicBuilder, times(2)).execute();
+  }
+
+  @Test
+  public void shouldFetchAllRequestsWhenTopicsUnknown() {
+    // given
+    doReturn(Collections.emptyList()).when(fetchTopicBuilder).execute();
+
+    handler.addPendingRequest(createDto(FetchAndLockHandlerImpl.MAX_REQUEST_TIMEOUT, "aWorkerId", "aTopicName"), mock(AsyncResponse.class), processEngine);
+    handler.addPendingRequest(createDto(FetchAndLockHandlerImpl.MAX_REQUEST_TIMEOUT, "anotherWorkerId", "anotherTopicName"), mock(AsyncResponse.class), processEngine);
+    handler.acquire();
+
+    // when
+    handler.externalTasksAvailable(null);
+    handler.acquire();
+
+    // then
+    verify(fetchTopicBuilder, times(6)).execute();
+  }
+
+  @Test
+  public void shouldBatchRequestsFetchingSameTopics() {
+    // given
+    FetchAndLockRequest request = createRequest(createDto(5000L, "aWorkerId", "aTopicName"));
+    FetchAndLockRequest requestOfOtherWorker = createRequest(createDto(4000L, "anotherWorkerId", "aTopicName"));
+    FetchAndLockRequest requestOfOtherTopic = createRequest(createDto(5000L, "aWorkerId", "anotherTopicName"));
+
+    // then
+    assertThat(handler.getBatchKey(request), is(handler.getBatchKey(requestOfOtherWorker)));
+    assertThat(handler.getBatchKey(request).equals(handler.getBatchKey(requestOfOtherTopic)), is(false));
+  }
+
+  @Test
+  public void shouldNotBatchRequestsOfDifferentUsers() {
+    // given
+    FetchAndLockRequest request = createRequest(createDto(5000L))
+      .setAuthentication(new Authentication("aUserId", Collections.<String>emptyList()));
+    FetchAndLockRequest requestOfOtherUser = createRequest(createDto(5000L))
+      .setAuthentication(new Authentication("anotherUserId", Collections.<String>emptyList()));
+
+    // then
+    assertThat(handler.getBatchKey(request).equals(handler.getBatchKey(requestOfOtherUser)), is(false));
+  }
+
+  protected FetchAndLockRequest createRequest(FetchExternalTasksExtendedDto dto) {
+    return new FetchAndLockRequest()
+      .setProcessEngineName("default")
+      .setAsyncResponse(mock(AsyncResponse.class))
+      .setDto(dto);
+  }
+
   protected FetchExternalTasksExtendedDto createDto(Long responseTimeout, String workerId) {
+    return createDto(responseTimeout, workerId, "aTopicName");
+  }
+
+  protected FetchExternalTasksExtendedDto createDto(Long responseTimeout, String workerId, String topicName) {
     FetchExternalTasksExtendedDto externalTask = new FetchExternalTasksExtendedDto();
 
     FetchExternalTasksExtendedDto.FetchExternalTaskTopicDto topic = new FetchExternalTasksExtendedDto.FetchExternalTaskTopicDto();
-    topic.setTopicName("aTopicName");
+    topic.setTopicName(topicName);
     topic.setLockDuration(12354L);
 
     externalTask.setMaxTasks(5);
@@ -24,6 +24,7 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.UriInfo;
+import org.camunda.bpm.engine.rest.dto.metrics.CommandStatisticsDto;
 import org.camunda.bpm.engine.rest.dto.metrics.MetricsIntervalResultDto;
 
 import org.camunda.bpm.engine.rest.sub.metrics.MetricsResource;
@@ -43,4 +44,13 @@ public interface MetricsRestService {
   @GET
   @Produces(MediaType.APPLICATION_JSON)
   List<MetricsIntervalResultDto> interval(@Context UriInfo uriInfo);
+
+  /**
+   * Returns the profiles of the sampled commands, ordered by their total execution time.
+   * Empty unless command profiling is enabled in the process engine configuration.
+   */
+  @GET
+  @Path("/command-statistics")
+  @Produces(MediaType.APPLICATION_JSON)
+  List<CommandStatisticsDto> getCommandStatistics();
 }
@@ -0,0 +1,119 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.rest.dto.metrics;
+
+import org.camunda.bpm.engine.management.CommandExecutionStatistics;
+
+public class CommandStatisticsDto {
+
+  protected String commandName;
+
+  protected long count;
+
+  protected long totalDuration;
+
+  protected long meanDuration;
+
+  protected long p95Duration;
+
+  protected long maxDuration;
+
+  protected long dbOperations;
+
+  protected long sqlStatements;
+
+  public CommandStatisticsDto() {
+  }
+
+  public static CommandStatisticsDto fromCommandStatistics(CommandExecutionStatistics statistics) {
+    CommandStatisticsDto dto = new CommandStatisticsDto();
+    dto.commandName = statistics.getCommandName();
+    dto.count = statistics.getCount();
+    dto.totalDuration = statistics.getTotalDuration();
+    dto.meanDuration = statistics.getMeanDuration();
+    dto.p95Duration = statistics.getP95Duration();
+    dto.maxDuration = statistics.getMaxDuration();
+    dto.dbOperations = statistics.getDbOperations();
+    dto.sqlStatements = statistics.getSqlStatements();
+    return dto;
+  }
+
+  public String getCommandName() {
+    return commandName;
+  }
+
+  public void setCommandName(String commandName) {
+    this.commandName = commandName;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public void setCount(long count) {
+    this.count = count;
+  }
+
+  public long getTotalDuration() {
+    return totalDuration;
+  }
+
+  public void setTotalDuration(long totalDuration) {
+    this.totalDuration = totalDuration;
+  }
+
+  public long getMeanDuration() {
+    return meanDuration;
+  }
+
+  public void setMeanDuration(long meanDuration) {
+    this.meanDuration = meanDuration;
+  }
+
+  public long getP95Duration() {
+    return p95Duration;
+  }
+
+  public void setP95Duration(long p95Duration) {
+    this.p95Duration = p95Duration;
+  }
+
+  public long getMaxDuration() {
+    return maxDuration;
+  }
+
+  public void setMaxDuration(long maxDuration) {
+    this.maxDuration = maxDuration;
+  }
+
+  public long getDbOperations() {
+    return dbOperations;
+  }
+
+  public void setDbOperations(long dbOperations) {
+    this.dbOperations = dbOperations;
+  }
+
+  public long getSqlStatements() {
+    return sqlStatements;
+  }
+
+  public void setSqlStatements(long sqlStatements) {
+    this.sqlStatements = sqlStatements;
+  }
+
+}
@@ -26,7 +26,9 @@ import java.util.Date;
 import java.util.List;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.UriInfo;
+import org.camunda.bpm.engine.management.CommandExecutionStatistics;
 import org.camunda.bpm.engine.management.MetricsQuery;
+import org.camunda.bpm.engine.rest.dto.metrics.CommandStatisticsDto;
 import org.camunda.bpm.engine.rest.dto.metrics.MetricsIntervalResultDto;
 import org.camunda.bpm.engine.management.MetricIntervalValue;
 import org.camunda.bpm.engine.rest.dto.converter.DateConverter;
@@ -80,6 +82,18 @@ public class MetricsRestServiceImpl extends AbstractRestProcessEngineAware imple
     return convertToDtos(metrics);
   }
 
+  @Override
+  public List<CommandStatisticsDto> getCommandStatistics() {
+    List<CommandExecutionStatistics> commandStatistics = processEngine.getManagementService()
+      .getCommandExecutionStatistics();
+
+    List<CommandStatisticsDto> statistics = new ArrayList<>();
+    for (CommandExecutionStatistics commandExecutionStatistics : commandStatistics) {
+      statistics.add(CommandStatisticsDto.fromCommandStatistics(commandExecutionStatistics));
+    }
+    return statistics;
+  }
+
   protected void applyQueryParams(MetricsQuery query, MultivaluedMap<String, String> queryParameters) {
 
     DateConverter dateConverter = new DateConverter();
@@ -27,11 +27,18 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
 import javax.ws.rs.core.Response.Status;
 
 
+import org.camunda.bpm.engine.AuthorizationException;
 import org.camunda.bpm.engine.ManagementService;
+import org.camunda.bpm.engine.impl.metrics.CommandExecutionStatisticsImpl;
+import org.camunda.bpm.engine.impl.metrics.CommandProfile;
+import org.camunda.bpm.engine.impl.metrics.MetricsRegistry;
+import org.camunda.bpm.engine.management.CommandExecutionStatistics;
 import org.camunda.bpm.engine.management.Metrics;
 import org.camunda.bpm.engine.management.MetricsQuery;
 import org.camunda.bpm.engine.rest.helper.MockProvider;
@@ -40,6 +47,8 @@ import org.junit.Before;
 import org.junit.ClassRule;
 import org.junit.Test;
 
+import io.restassured.http.ContentType;
+
 /**
  * @author Daniel Meyer
  */
@@ -51,6 +60,7 @@ public class MetricsRestServiceInteractionTest extends AbstractRestServiceTest {
   public static final String METRICS_URL = TEST_RESOURCE_ROOT_PATH + MetricsRestService.PATH;
   public static final String SINGLE_METER_URL = METRICS_URL + "/{name}";
   public static final String SUM_URL = SINGLE_METER_URL + "/sum";
+  public static final String COMMAND_STATISTICS_URL = METRICS_URL + "/command-statistics";
 
   protected ManagementService managementServiceMock;
   private MetricsQuery meterQueryMock;
@@ -318,5 +328,67 @@ public class MetricsRestServiceInteractionTest extends AbstractRestServiceTest {
 
   }
 
+  @Test
+  public void testGetCommandStatistics() {
+    MetricsRegistry metricsRegistry = new MetricsRegistry();
+    metricsRegistry.recordCommandProfile(createCommandProfile("slowCommand", 5000, 3, 7));
+    metricsRegistry.recordCommandProfile(createCommandProfile("fastCommand", 10, 0, 1));
+
+    List<CommandExecutionStatistics> statistics = Arrays.<CommandExecutionStatistics>asList(
+        new CommandExecutionStatisticsImpl(metricsRegistry.getCommandStatistics().get("slowCommand")),
+        new CommandExecutionStatisticsImpl(metricsRegistry.getCommandStatistics().get("fastCommand")));
+    when(managementServiceMock.getCommandExecutionStatistics()).thenReturn(statistics);
+
+    given()
+    .then().expect()
+      .statusCode(Status.OK.getStatusCode())
+      .body("size()", equalTo(2))
+      .body("[0].commandName", equalTo("slowCommand"))
+      .body("[0].count", equalTo(1))
+      .body("[0].totalDuration", equalTo(5000))
+      .body("[0].dbOperations", equalTo(3))
+      .body("[0].sqlStatements", equalTo(7))
+      .body("[1].commandName", equalTo("fastCommand"))
+      .body("[1].dbOperations", equalTo(0))
+    .when()
+      .get(COMMAND_STATISTICS_URL);
+
+    verify(managementServiceMock).getCommandExecutionStatistics();
+  }
+
+  @Test
+  public void testGetCommandStatisticsThrowsAuthorizationException() {
+    String message = "expected authorization exception";
+    when(managementServiceMock.getCommandExecutionStatistics()).thenThrow(new AuthorizationException(message));
+
+    given()
+    .then().expect()
+      .statusCode(Status.FORBIDDEN.getStatusCode())
+      .contentType(ContentType.JSON)
+      .body("type", equalTo(AuthorizationException.class.getSimpleName()))
+      .body("message", equalTo(message))
+    .when()
+      .get(COMMAND_STATISTICS_URL);
+  }
+
+  protected CommandProfile createCommandProfile(String commandName, final long elapsedMicros,
+      int dbOperations, int sqlStatements) {
+    CommandProfile profile = new CommandProfile(commandName) {
+      public long getElapsedMicros() {
+        return elapsedMicros;
+      }
+    };
+    CommandProfile.setCurrent(profile);
+    try {
+      CommandProfile.countDbOperations(dbOperations);
+      for (int i = 0; i < sqlStatements; i++) {
+        CommandProfile.countSqlStatement();
+      }
+    }
+    finally {
+      CommandProfile.setCurrent(null);
+    }
+    return profile;
+  }
 
 }
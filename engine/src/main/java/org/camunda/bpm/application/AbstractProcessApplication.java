@@ -27,6 +27,7 @@ import org.camunda.bpm.engine.impl.ProcessEngineLogger;
 import org.camunda.bpm.engine.impl.javax.el.BeanELResolver;
 import org.camunda.bpm.engine.impl.javax.el.ELResolver;
 import org.camunda.bpm.engine.impl.scripting.ExecutableScript;
+import org.camunda.bpm.engine.impl.scripting.engine.ScriptEnginePool;
 import org.camunda.bpm.engine.impl.util.ClassLoaderUtil;
 import org.camunda.bpm.engine.impl.variable.serializer.VariableSerializers;
 import org.camunda.bpm.engine.repository.DeploymentBuilder;
@@ -200,6 +201,13 @@ public abstract class AbstractProcessApplication implements ProcessApplicationIn
     return getProcessApplicationScriptEnvironment().getScriptEngineForName(name, cache);
   }
 
+  /**
+   * see {@link ProcessApplicationScriptEnvironment#getScriptEnginePoolForName(String, int, long)}
+   */
+  public ScriptEnginePool getScriptEnginePoolForName(String name, int maxSize, long maxWait) {
+    return getProcessApplicationScriptEnvironment().getScriptEnginePoolForName(name, maxSize, maxWait);
+  }
+
   /**
    * see {@link ProcessApplicationScriptEnvironment#getEnvironmentScripts()}
    */
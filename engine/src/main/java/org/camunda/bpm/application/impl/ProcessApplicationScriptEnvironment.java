@@ -25,6 +25,7 @@ import javax.script.ScriptEngineManager;
 
 import org.camunda.bpm.application.ProcessApplicationInterface;
 import org.camunda.bpm.engine.impl.scripting.ExecutableScript;
+import org.camunda.bpm.engine.impl.scripting.engine.ScriptEnginePool;
 import org.camunda.bpm.engine.impl.scripting.engine.ScriptEngineResolver;
 
 /**
@@ -55,6 +56,24 @@ public class ProcessApplicationScriptEnvironment {
    * @return a {@link ScriptEngine}
    */
   public ScriptEngine getScriptEngineForName(String scriptEngineName, boolean cache) {
+    return getProcessApplicationScriptEngineResolver().getScriptEngine(scriptEngineName, cache);
+  }
+
+  /**
+   * <p>Returns the {@link ScriptEnginePool} of the process application for the given
+   * <code>scriptEngineName</code>.</p>
+   *
+   * @param scriptEngineName the name of the {@link ScriptEngine} to return the pool for
+   * @param maxSize the maximum number of script engines if a new pool is created
+   * @param maxWait the time in milliseconds to wait for a script engine of a new pool
+   *
+   * @return the {@link ScriptEnginePool} or null if the script engines are not pooled
+   */
+  public ScriptEnginePool getScriptEnginePoolForName(String scriptEngineName, int maxSize, long maxWait) {
+    return getProcessApplicationScriptEngineResolver().getScriptEnginePool(scriptEngineName, maxSize, maxWait);
+  }
+
+  protected ScriptEngineResolver getProcessApplicationScriptEngineResolver() {
     if(processApplicationScriptEngineResolver == null) {
       synchronized (this) {
         if(processApplicationScriptEngineResolver == null) {
@@ -62,7 +81,7 @@ public class ProcessApplicationScriptEnvironment {
         }
       }
     }
-    return processApplicationScriptEngineResolver.getScriptEngine(scriptEngineName, cache);
+    return processApplicationScriptEngineResolver;
   }
 
   /**
@@ -36,6 +36,8 @@ import org.camunda.bpm.engine.batch.BatchStatisticsQuery;
 import org.camunda.bpm.engine.history.HistoricProcessInstanceQuery;
 import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
 import org.camunda.bpm.engine.management.ActivityStatisticsQuery;
+import org.camunda.bpm.engine.management.CommandExecutionStatistics;
+import org.camunda.bpm.engine.management.DeploymentCacheStatistics;
 import org.camunda.bpm.engine.management.DeploymentStatisticsQuery;
 import org.camunda.bpm.engine.management.JobDefinition;
 import org.camunda.bpm.engine.management.JobDefinitionQuery;
@@ -1123,6 +1125,32 @@ public interface ManagementService {
    */
   Map<String, String> getProperties();
 
+  /**
+   * Returns the hit, miss and eviction statistics of the deployment caches.
+   * Statistics are only recorded by caches that support them, e.g. the caches
+   * built by the {@link org.camunda.bpm.engine.impl.persistence.deploy.cache.TinyLfuCacheFactory}.
+   * Caches without statistics are not part of the result.
+   *
+   * @return the statistics of the deployment caches
+   *
+   * @throws AuthorizationException
+   *          If the user is not a member of the group {@link Groups#CAMUNDA_ADMIN}.
+   */
+  List<DeploymentCacheStatistics> getDeploymentCacheStatistics();
+
+  /**
+   * Returns the profiles of the sampled command executions, ordered by their
+   * total execution time, descending. Commands are only sampled if command
+   * profiling is enabled in the process engine configuration, otherwise the
+   * result is empty.
+   *
+   * @return the statistics of the sampled commands
+   *
+   * @throws AuthorizationException
+   *          If the user is not a member of the group {@link Groups#CAMUNDA_ADMIN}.
+   */
+  List<CommandExecutionStatistics> getCommandExecutionStatistics();
+
   /**
    * Set the value for a property.
    *
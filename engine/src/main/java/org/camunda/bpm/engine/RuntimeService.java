@@ -40,6 +40,7 @@ import org.camunda.bpm.engine.runtime.Execution;
 import org.camunda.bpm.engine.runtime.ExecutionQuery;
 import org.camunda.bpm.engine.runtime.Incident;
 import org.camunda.bpm.engine.runtime.IncidentQuery;
+import org.camunda.bpm.engine.runtime.MessageCorrelationBatchBuilder;
 import org.camunda.bpm.engine.runtime.MessageCorrelationBuilder;
 import org.camunda.bpm.engine.runtime.ModificationBuilder;
 import org.camunda.bpm.engine.runtime.NativeExecutionQuery;
@@ -1874,6 +1875,16 @@ public interface RuntimeService {
    */
   MessageCorrelationBuilder createMessageCorrelation(String messageName);
 
+  /**
+   * Correlate many messages at once using a fluent builder. The messages are defined by
+   * {@link #createMessageCorrelation(String)} and are correlated to a single execution or
+   * process definition each. Several messages share one transaction and a message which
+   * cannot be correlated does not fail the others.
+   *
+   * @return the fluent builder for defining the batch of message correlations.
+   */
+  MessageCorrelationBatchBuilder createMessageCorrelationBatch();
+
   /**
    * Correlates a message to either an execution that is waiting for this message or a process definition
    * that can be started by this message.
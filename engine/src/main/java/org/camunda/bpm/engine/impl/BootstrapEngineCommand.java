@@ -39,6 +39,8 @@ public class BootstrapEngineCommand implements ProcessEngineBootstrapCommand {
 
     checkDeploymentLockExists(commandContext);
 
+    synchronizeCorrelationIndex(commandContext);
+
     if (isHistoryCleanupEnabled(commandContext)) {
       checkHistoryCleanupLockExists(commandContext);
       createHistoryCleanupJob(commandContext);
@@ -80,6 +82,10 @@ public class BootstrapEngineCommand implements ProcessEngineBootstrapCommand {
     }
   }
 
+  protected void synchronizeCorrelationIndex(CommandContext commandContext) {
+    commandContext.getCorrelationKeyManager().synchronizeCorrelationIndex();
+  }
+
   protected boolean isHistoryCleanupEnabled(CommandContext commandContext) {
     return commandContext.getProcessEngineConfiguration()
         .isHistoryCleanupEnabled();
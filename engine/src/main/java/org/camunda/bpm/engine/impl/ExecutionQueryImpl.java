@@ -19,7 +19,9 @@ package org.camunda.bpm.engine.impl;
 import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotNull;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import org.camunda.bpm.engine.impl.event.EventType;
 
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
@@ -45,6 +47,7 @@ public class ExecutionQueryImpl extends AbstractVariableQueryImpl<ExecutionQuery
   protected String executionId;
   protected String processInstanceId;
   protected List<EventSubscriptionQueryValue> eventSubscriptions;
+  protected Map<String, String> correlationKeys;
   protected SuspensionState suspensionState;
   protected String incidentType;
   protected String incidentId;
@@ -140,6 +143,21 @@ public class ExecutionQueryImpl extends AbstractVariableQueryImpl<ExecutionQuery
     return this;
   }
 
+  /**
+   * Only select executions of process instances with the given value of a variable which
+   * is kept in the message correlation index. Unlike {@link #processVariableValueEquals(String, Object)},
+   * the condition is evaluated against the index instead of the variables.
+   */
+  public ExecutionQueryImpl correlationKeyEquals(String variableName, String variableValue) {
+    ensureNotNull("Variable name", variableName);
+    ensureNotNull("Variable value", variableValue);
+    if (correlationKeys == null) {
+      correlationKeys = new LinkedHashMap<String, String>();
+    }
+    correlationKeys.put(variableName, variableValue);
+    return this;
+  }
+
   public ExecutionQuery processVariableValueNotEquals(String variableName, Object variableValue) {
     addVariable(variableName, variableValue, QueryOperator.NOT_EQUALS, false);
     return this;
@@ -267,6 +285,10 @@ public class ExecutionQueryImpl extends AbstractVariableQueryImpl<ExecutionQuery
     return eventSubscriptions;
   }
 
+  public Map<String, String> getCorrelationKeys() {
+    return correlationKeys;
+  }
+
   public void setEventSubscriptions(List<EventSubscriptionQueryValue> eventSubscriptions) {
     this.eventSubscriptions = eventSubscriptions;
   }
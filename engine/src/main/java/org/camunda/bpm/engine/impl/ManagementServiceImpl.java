@@ -38,6 +38,8 @@ import org.camunda.bpm.engine.impl.management.UpdateJobDefinitionSuspensionState
 import org.camunda.bpm.engine.impl.management.UpdateJobSuspensionStateBuilderImpl;
 import org.camunda.bpm.engine.impl.metrics.MetricsQueryImpl;
 import org.camunda.bpm.engine.management.ActivityStatisticsQuery;
+import org.camunda.bpm.engine.management.CommandExecutionStatistics;
+import org.camunda.bpm.engine.management.DeploymentCacheStatistics;
 import org.camunda.bpm.engine.management.DeploymentStatisticsQuery;
 import org.camunda.bpm.engine.management.JobDefinitionQuery;
 import org.camunda.bpm.engine.management.MetricsQuery;
@@ -180,6 +182,14 @@ public class ManagementServiceImpl extends ServiceImpl implements ManagementServ
     return commandExecutor.execute(new GetPropertiesCmd());
   }
 
+  public List<DeploymentCacheStatistics> getDeploymentCacheStatistics() {
+    return commandExecutor.execute(new GetDeploymentCacheStatisticsCmd());
+  }
+
+  public List<CommandExecutionStatistics> getCommandExecutionStatistics() {
+    return commandExecutor.execute(new GetCommandExecutionStatisticsCmd());
+  }
+
   public void setProperty(String name, String value) {
     commandExecutor.execute(new SetPropertyCmd(name, value));
   }
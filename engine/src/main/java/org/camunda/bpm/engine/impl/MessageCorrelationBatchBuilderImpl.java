@@ -0,0 +1,146 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl;
+
+import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureInstanceOf;
+import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotNull;
+import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensurePositive;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.cmd.CommandLogger;
+import org.camunda.bpm.engine.impl.cmd.CorrelateMessageBatchCmd;
+import org.camunda.bpm.engine.impl.cmd.CorrelateMessageCmd;
+import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
+import org.camunda.bpm.engine.impl.runtime.MessageCorrelationBatchResultImpl;
+import org.camunda.bpm.engine.runtime.MessageCorrelationBatchBuilder;
+import org.camunda.bpm.engine.runtime.MessageCorrelationBatchResult;
+import org.camunda.bpm.engine.runtime.MessageCorrelationBuilder;
+import org.camunda.bpm.engine.runtime.MessageCorrelationResult;
+
+public class MessageCorrelationBatchBuilderImpl implements MessageCorrelationBatchBuilder {
+
+  private final static CommandLogger LOG = ProcessEngineLogger.CMD_LOGGER;
+
+  public static final int DEFAULT_CORRELATIONS_PER_TRANSACTION = 100;
+
+  protected CommandExecutor commandExecutor;
+
+  protected List<MessageCorrelationBuilderImpl> correlations = new ArrayList<>();
+  protected int correlationsPerTransaction = DEFAULT_CORRELATIONS_PER_TRANSACTION;
+
+  public MessageCorrelationBatchBuilderImpl(CommandExecutor commandExecutor) {
+    this.commandExecutor = commandExecutor;
+  }
+
+  @Override
+  public MessageCorrelationBatchBuilder correlation(MessageCorrelationBuilder correlation) {
+    ensureNotNull("correlation", correlation);
+    ensureInstanceOf("correlation", correlation, MessageCorrelationBuilderImpl.class);
+    correlations.add((MessageCorrelationBuilderImpl) correlation);
+    return this;
+  }
+
+  @Override
+  public MessageCorrelationBatchBuilder correlations(List<MessageCorrelationBuilder> correlations) {
+    ensureNotNull("correlations", correlations);
+    for (MessageCorrelationBuilder correlation : correlations) {
+      correlation(correlation);
+    }
+    return this;
+  }
+
+  @Override
+  public MessageCorrelationBatchBuilder correlationsPerTransaction(int correlationsPerTransaction) {
+    ensurePositive("correlationsPerTransaction", (long) correlationsPerTransaction);
+    this.correlationsPerTransaction = correlationsPerTransaction;
+    return this;
+  }
+
+  @Override
+  public List<MessageCorrelationBatchResult> correlate() {
+    MessageCorrelationBatchResult[] results = new MessageCorrelationBatchResult[correlations.size()];
+
+    // invalid correlations fail right away, the others are correlated in groups
+    List<CorrelateMessageCmd> commands = new ArrayList<>();
+    List<Integer> commandIndexes = new ArrayList<>();
+    for (int i = 0; i < correlations.size(); i++) {
+      MessageCorrelationBuilderImpl correlation = correlations.get(i);
+      try {
+        commands.add(correlation.createCorrelateMessageCmd());
+        commandIndexes.add(i);
+      } catch (ProcessEngineException e) {
+        results[i] = MessageCorrelationBatchResultImpl.failed(correlation.getMessageName(), e);
+      }
+    }
+
+    for (int from = 0; from < commands.size(); from += correlationsPerTransaction) {
+      int to = Math.min(from + correlationsPerTransaction, commands.size());
+      List<MessageCorrelationBatchResult> transactionResults = correlateInOneTransaction(commands.subList(from, to));
+
+      for (int i = from; i < to; i++) {
+        results[commandIndexes.get(i)] = transactionResults.get(i - from);
+      }
+    }
+
+    return Arrays.asList(results);
+  }
+
+  protected List<MessageCorrelationBatchResult> correlateInOneTransaction(List<CorrelateMessageCmd> commands) {
+    if (commands.size() == 1) {
+      return correlateSeparately(commands);
+    }
+
+    try {
+      return commandExecutor.execute(new CorrelateMessageBatchCmd(commands));
+
+    } catch (RuntimeException e) {
+      // the transaction was rolled back, e.g. because of an optimistic locking exception;
+      // correlate each message on its own so that the failure is limited to the affected message
+      LOG.debugCorrelateMessagesSeparately(commands.size(), e);
+      return correlateSeparately(commands);
+    }
+  }
+
+  protected List<MessageCorrelationBatchResult> correlateSeparately(List<CorrelateMessageCmd> commands) {
+    List<MessageCorrelationBatchResult> results = new ArrayList<>(commands.size());
+
+    for (CorrelateMessageCmd command : commands) {
+      try {
+        MessageCorrelationResult correlationResult = commandExecutor.execute(command);
+        results.add(MessageCorrelationBatchResultImpl.correlated(command.getMessageName(), correlationResult));
+
+      } catch (RuntimeException e) {
+        results.add(MessageCorrelationBatchResultImpl.failed(command.getMessageName(), e));
+      }
+    }
+
+    return results;
+  }
+
+  public List<MessageCorrelationBuilderImpl> getCorrelations() {
+    return correlations;
+  }
+
+  public int getCorrelationsPerTransaction() {
+    return correlationsPerTransaction;
+  }
+
+}
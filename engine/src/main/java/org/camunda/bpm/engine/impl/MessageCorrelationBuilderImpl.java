@@ -214,6 +214,14 @@ public class MessageCorrelationBuilderImpl implements MessageCorrelationBuilder
 
   @Override
   public MessageCorrelationResult correlateWithResult() {
+    return execute(createCorrelateMessageCmd());
+  }
+
+  /**
+   * Validates the correlation criteria and creates the command which correlates
+   * the message to a single execution or process definition.
+   */
+  public CorrelateMessageCmd createCorrelateMessageCmd() {
     if (startMessagesOnly) {
       ensureCorrelationVariablesNotSet();
       ensureProcessDefinitionAndTenantIdNotSet();
@@ -221,7 +229,7 @@ public class MessageCorrelationBuilderImpl implements MessageCorrelationBuilder
       ensureProcessDefinitionIdNotSet();
       ensureProcessInstanceAndTenantIdNotSet();
     }
-    return execute(new CorrelateMessageCmd(this, false, false, startMessagesOnly));
+    return new CorrelateMessageCmd(this, false, false, startMessagesOnly);
   }
 
   @Override
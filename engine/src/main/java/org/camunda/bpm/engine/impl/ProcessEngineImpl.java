@@ -37,11 +37,15 @@ import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
 import org.camunda.bpm.engine.impl.cfg.TransactionContextFactory;
 import org.camunda.bpm.engine.impl.el.ExpressionManager;
 import org.camunda.bpm.engine.impl.history.HistoryLevel;
+import org.camunda.bpm.engine.impl.externaltask.ExternalTaskAvailabilityNotifier;
 import org.camunda.bpm.engine.impl.history.event.SimpleIpBasedProvider;
+import org.camunda.bpm.engine.impl.history.handler.AsyncHistoryEventWriter;
 import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
 import org.camunda.bpm.engine.impl.interceptor.SessionFactory;
 import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
 import org.camunda.bpm.engine.impl.metrics.reporter.DbMetricsReporter;
+import org.camunda.bpm.engine.impl.persistence.deploy.cache.DeploymentCacheInvalidationPoller;
+import org.camunda.bpm.engine.impl.persistence.deploy.cache.DeploymentCacheWarmUp;
 import org.camunda.bpm.engine.impl.util.CompositeCondition;
 
 /**
@@ -52,6 +56,9 @@ public class ProcessEngineImpl implements ProcessEngine {
   /** external task conditions used to signal long polling in rest API */
   public static final CompositeCondition EXT_TASK_CONDITIONS = new CompositeCondition();
 
+  /** notifies long polling in rest API about the topics of available external tasks */
+  public static final ExternalTaskAvailabilityNotifier EXT_TASK_AVAILABILITY_NOTIFIER = new ExternalTaskAvailabilityNotifier();
+
   private final static ProcessEngineLogger LOG = ProcessEngineLogger.INSTANCE;
 
   protected String name;
@@ -115,6 +122,16 @@ public class ProcessEngineImpl implements ProcessEngine {
 
     ProcessEngines.registerProcessEngine(this);
 
+    if (processEngineConfiguration.isDeploymentCacheWarmUpEnabled()) {
+      new DeploymentCacheWarmUp(processEngineConfiguration,
+          processEngineConfiguration.getDeploymentCacheWarmUpParallelism()).warmUp();
+    }
+
+    DeploymentCacheInvalidationPoller deploymentCacheInvalidationPoller = processEngineConfiguration.getDeploymentCacheInvalidationPoller();
+    if (deploymentCacheInvalidationPoller != null) {
+      deploymentCacheInvalidationPoller.start();
+    }
+
     if ((jobExecutor != null)) {
       // register process engine with Job Executor
       jobExecutor.registerProcessEngine(this);
@@ -161,11 +178,22 @@ public class ProcessEngineImpl implements ProcessEngine {
       processEngineConfiguration.getDbMetricsReporter().stop();
     }
 
+    DeploymentCacheInvalidationPoller deploymentCacheInvalidationPoller = processEngineConfiguration.getDeploymentCacheInvalidationPoller();
+    if (deploymentCacheInvalidationPoller != null) {
+      deploymentCacheInvalidationPoller.stop();
+    }
+
     if ((jobExecutor != null)) {
       // unregister process engine with Job Executor
       jobExecutor.unregisterProcessEngine(this);
     }
 
+    AsyncHistoryEventWriter asyncHistoryEventWriter = processEngineConfiguration.getAsyncHistoryEventWriter();
+    if (asyncHistoryEventWriter != null) {
+      // write the pending history events before the schema may be dropped
+      asyncHistoryEventWriter.close();
+    }
+
     commandExecutorSchemaOperations.execute(new SchemaOperationProcessEngineClose());
 
     processEngineConfiguration.close();
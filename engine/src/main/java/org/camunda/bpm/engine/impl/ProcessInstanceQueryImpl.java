@@ -22,14 +22,19 @@ import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotNull;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.camunda.bpm.engine.ProcessEngineException;
 import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
 import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.SuspensionState;
+import org.camunda.bpm.engine.impl.persistence.entity.VariableInstanceEntity;
 import org.camunda.bpm.engine.impl.variable.serializer.VariableSerializers;
 import org.camunda.bpm.engine.runtime.ProcessInstance;
 import org.camunda.bpm.engine.runtime.ProcessInstanceQuery;
@@ -68,6 +73,8 @@ public class ProcessInstanceQueryImpl extends AbstractVariableQueryImpl<ProcessI
   protected String[] activityIds;
   protected boolean isRootProcessInstances;
   protected boolean isLeafProcessInstances;
+  protected boolean withVariables = false;
+  protected String[] variableNamesToFetch;
 
   protected boolean isTenantIdSet = false;
   protected String[] tenantIds;
@@ -227,6 +234,20 @@ public class ProcessInstanceQueryImpl extends AbstractVariableQueryImpl<ProcessI
     return this;
   }
 
+  public ProcessInstanceQuery withVariables(String... variableNames) {
+    if (isOrQueryActive) {
+      throw new ProcessEngineException("Invalid query usage: cannot set withVariables() within 'or' query");
+    }
+
+    if (variableNames != null) {
+      ensureNotNull("variableNames", (Object[]) variableNames);
+    }
+
+    this.withVariables = true;
+    this.variableNamesToFetch = variableNames;
+    return this;
+  }
+
   public ProcessInstanceQuery suspended() {
     this.suspensionState = SuspensionState.SUSPENDED;
     return this;
@@ -323,9 +344,34 @@ public class ProcessInstanceQueryImpl extends AbstractVariableQueryImpl<ProcessI
   public List<ProcessInstance> executeList(CommandContext commandContext, Page page) {
     checkQueryOk();
 
-    return commandContext
+    List<ProcessInstance> processInstances = commandContext
       .getExecutionManager()
       .findProcessInstancesByQueryCriteria(this, page);
+
+    if (withVariables) {
+      fetchVariables(commandContext, processInstances);
+    }
+
+    return processInstances;
+  }
+
+  protected void fetchVariables(CommandContext commandContext, List<ProcessInstance> processInstances) {
+    Map<String, List<VariableInstanceEntity>> variablesByScopeId = Collections.emptyMap();
+
+    if (!processInstances.isEmpty()) {
+      Set<String> processInstanceIds = new HashSet<>();
+      for (ProcessInstance processInstance : processInstances) {
+        processInstanceIds.add(processInstance.getId());
+      }
+
+      variablesByScopeId = commandContext
+        .getVariableInstanceManager()
+        .findVariableInstancesByVariableScopeIds(processInstanceIds, getVariableNamesToFetch());
+    }
+
+    for (ProcessInstance processInstance : processInstances) {
+      ((ExecutionEntity) processInstance).getFetchedVariablesField().initialize(variablesByScopeId, processInstance.getId());
+    }
   }
 
   public List<String> executeIdsList(CommandContext commandContext) {
@@ -475,6 +521,19 @@ public class ProcessInstanceQueryImpl extends AbstractVariableQueryImpl<ProcessI
     return isLeafProcessInstances;
   }
 
+  public boolean isWithVariables() {
+    return withVariables;
+  }
+
+  public List<String> getVariableNamesToFetch() {
+    if (variableNamesToFetch != null && variableNamesToFetch.length > 0) {
+      return Arrays.asList(variableNamesToFetch);
+    }
+    else {
+      return null;
+    }
+  }
+
   public String[] getTenantIds() {
     return tenantIds;
   }
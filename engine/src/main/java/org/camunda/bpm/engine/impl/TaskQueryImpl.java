@@ -31,11 +31,14 @@ import java.util.Set;
 
 import org.camunda.bpm.engine.ProcessEngineException;
 import org.camunda.bpm.engine.identity.Group;
+import org.camunda.bpm.engine.impl.cmmn.entity.runtime.CaseExecutionEntity;
 import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
 import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.SuspensionState;
 import org.camunda.bpm.engine.impl.persistence.entity.TaskEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.VariableInstanceEntity;
 import org.camunda.bpm.engine.impl.util.CompareUtil;
 import org.camunda.bpm.engine.impl.variable.serializer.VariableSerializers;
 import org.camunda.bpm.engine.task.DelegationState;
@@ -144,6 +147,8 @@ public class TaskQueryImpl extends AbstractQuery<TaskQuery, Task> implements Tas
   protected boolean excludeSubtasks = false;
   protected SuspensionState suspensionState;
   protected boolean initializeFormKeys = false;
+  protected boolean withVariables = false;
+  protected String[] variableNamesToFetch;
   protected boolean taskNameCaseInsensitive = false;
   
   protected Boolean variableNamesIgnoreCase;
@@ -956,6 +961,21 @@ public class TaskQueryImpl extends AbstractQuery<TaskQuery, Task> implements Tas
     return this;
   }
 
+  @Override
+  public TaskQuery withVariables(String... variableNames) {
+    if (isOrQueryActive) {
+      throw new ProcessEngineException("Invalid query usage: cannot set withVariables() within 'or' query");
+    }
+
+    if (variableNames != null) {
+      ensureNotNull("variableNames", (Object[]) variableNames);
+    }
+
+    this.withVariables = true;
+    this.variableNamesToFetch = variableNames;
+    return this;
+  }
+
   public TaskQuery taskNameCaseInsensitive() {
     this.taskNameCaseInsensitive = true;
     return this;
@@ -1365,9 +1385,123 @@ public class TaskQueryImpl extends AbstractQuery<TaskQuery, Task> implements Tas
       }
     }
 
+    if (withVariables) {
+      fetchVariables(commandContext, taskList);
+    }
+
     return taskList;
   }
 
+  protected void fetchVariables(CommandContext commandContext, List<Task> taskList) {
+    Map<String, String> parentIdByExecutionId = findParentExecutionIds(commandContext, taskList);
+    Map<String, String> parentIdByCaseExecutionId = findParentCaseExecutionIds(commandContext, taskList);
+
+    Map<String, List<String>> variableScopeIdsByTaskId = new HashMap<>();
+    Set<String> variableScopeIds = new HashSet<>();
+    for (Task task : taskList) {
+      List<String> taskVariableScopeIds = getVariableScopeIds(task, parentIdByExecutionId, parentIdByCaseExecutionId);
+      variableScopeIdsByTaskId.put(task.getId(), taskVariableScopeIds);
+      variableScopeIds.addAll(taskVariableScopeIds);
+    }
+
+    Map<String, List<VariableInstanceEntity>> variablesByScopeId = Collections.emptyMap();
+    if (!variableScopeIds.isEmpty()) {
+      variablesByScopeId = commandContext
+        .getVariableInstanceManager()
+        .findVariableInstancesByVariableScopeIds(variableScopeIds, getVariableNamesToFetch());
+    }
+
+    for (Task task : taskList) {
+      List<String> taskVariableScopeIds = variableScopeIdsByTaskId.get(task.getId());
+      ((TaskEntity) task).getFetchedVariablesField()
+        .initialize(variablesByScopeId, taskVariableScopeIds.toArray(new String[taskVariableScopeIds.size()]));
+    }
+  }
+
+  /**
+   * Selects the executions of all process instances which contain a task that is not
+   * executed by the process instance itself, with one query for the whole result page.
+   *
+   * @return the parent execution ids by execution id
+   */
+  protected Map<String, String> findParentExecutionIds(CommandContext commandContext, List<Task> taskList) {
+    Set<String> processInstanceIds = new HashSet<>();
+    for (Task task : taskList) {
+      if (task.getExecutionId() != null && !task.getExecutionId().equals(task.getProcessInstanceId())) {
+        processInstanceIds.add(task.getProcessInstanceId());
+      }
+    }
+
+    Map<String, String> parentIdByExecutionId = new HashMap<>();
+    if (!processInstanceIds.isEmpty()) {
+      List<ExecutionEntity> executions = commandContext
+        .getExecutionManager()
+        .findExecutionsByProcessInstanceIds(processInstanceIds);
+      for (ExecutionEntity execution : executions) {
+        parentIdByExecutionId.put(execution.getId(), execution.getParentId());
+      }
+    }
+    return parentIdByExecutionId;
+  }
+
+  /**
+   * Selects the case executions of all case instances which contain a task that is not
+   * executed by the case instance itself, with one query for the whole result page.
+   *
+   * @return the parent case execution ids by case execution id
+   */
+  protected Map<String, String> findParentCaseExecutionIds(CommandContext commandContext, List<Task> taskList) {
+    Set<String> caseInstanceIds = new HashSet<>();
+    for (Task task : taskList) {
+      if (task.getCaseExecutionId() != null && !task.getCaseExecutionId().equals(task.getCaseInstanceId())) {
+        caseInstanceIds.add(task.getCaseInstanceId());
+      }
+    }
+
+    Map<String, String> parentIdByCaseExecutionId = new HashMap<>();
+    if (!caseInstanceIds.isEmpty()) {
+      List<CaseExecutionEntity> caseExecutions = commandContext
+        .getCaseExecutionManager()
+        .findCaseExecutionsByCaseInstanceIds(caseInstanceIds);
+      for (CaseExecutionEntity caseExecution : caseExecutions) {
+        parentIdByCaseExecutionId.put(caseExecution.getId(), caseExecution.getParentId());
+      }
+    }
+    return parentIdByCaseExecutionId;
+  }
+
+  /**
+   * @return the ids of the variable scopes visible from the task, from the task itself up to
+   *   its process or case instance including all intermediate scopes (e.g. of embedded
+   *   subprocesses or stages)
+   */
+  protected List<String> getVariableScopeIds(Task task, Map<String, String> parentIdByExecutionId,
+      Map<String, String> parentIdByCaseExecutionId) {
+    // the order is important because the variables of the inner scopes hide those of the outer scopes
+    List<String> variableScopeIds = new ArrayList<>();
+    variableScopeIds.add(task.getId());
+
+    String executionId = task.getExecutionId();
+    while (executionId != null) {
+      variableScopeIds.add(executionId);
+      if (executionId.equals(task.getProcessInstanceId())) {
+        break;
+      }
+      executionId = parentIdByExecutionId.get(executionId);
+    }
+
+    String caseExecutionId = task.getCaseExecutionId();
+    while (caseExecutionId != null) {
+      variableScopeIds.add(caseExecutionId);
+      if (caseExecutionId.equals(task.getCaseInstanceId())) {
+        break;
+      }
+      caseExecutionId = parentIdByCaseExecutionId.get(caseExecutionId);
+    }
+
+    return variableScopeIds;
+  }
+
   @Override
   public long executeCount(CommandContext commandContext) {
     ensureOrExpressionsEvaluated();
@@ -1659,6 +1793,19 @@ public class TaskQueryImpl extends AbstractQuery<TaskQuery, Task> implements Tas
     return initializeFormKeys;
   }
 
+  public boolean isWithVariables() {
+    return withVariables;
+  }
+
+  public List<String> getVariableNamesToFetch() {
+    if (variableNamesToFetch != null && variableNamesToFetch.length > 0) {
+      return Arrays.asList(variableNamesToFetch);
+    }
+    else {
+      return null;
+    }
+  }
+
   public boolean isTaskNameCaseInsensitive() {
     return taskNameCaseInsensitive;
   }
@@ -2122,6 +2269,13 @@ public class TaskQueryImpl extends AbstractQuery<TaskQuery, Task> implements Tas
       extendedQuery.initializeFormKeys();
     }
 
+    if (extendingQuery.isWithVariables()) {
+      extendedQuery.withVariables(extendingQuery.variableNamesToFetch);
+    }
+    else if (this.isWithVariables()) {
+      extendedQuery.withVariables(this.variableNamesToFetch);
+    }
+
     if (extendingQuery.isTaskNameCaseInsensitive() || this.isTaskNameCaseInsensitive()) {
       extendedQuery.taskNameCaseInsensitive();
     }
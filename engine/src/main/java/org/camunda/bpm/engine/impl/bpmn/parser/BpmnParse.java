@@ -2100,6 +2100,7 @@ public class BpmnParse extends Parse {
 
     try {
       ExecutableScript script = ScriptUtil.getScript(language, scriptSource, scriptResource, expressionManager);
+      Context.getProcessEngineConfiguration().getScriptingEnvironment().warmUp(script);
       return new ScriptTaskActivityBehavior(script, resultVariableName);
     } catch (ProcessEngineException e) {
       addError("Unable to process ScriptTask: " + e.getMessage(), scriptElement);
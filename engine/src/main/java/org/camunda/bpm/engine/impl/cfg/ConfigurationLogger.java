@@ -110,4 +110,29 @@ public class ConfigurationLogger extends ProcessEngineLogger {
             "batch type", batchType);
   }
 
+  public void skipLockedAcquisitionNotSupported(String databaseType) {
+    logWarn(
+        "015", "The configuration property 'skipLockedAcquisitionEnabled' is ignored since " +
+            "database type '{}' does not support skipping locked rows", databaseType);
+  }
+
+  public void historyCleanupPartitionDropNotSupported(String databaseType) {
+    logWarn(
+        "016", "The configuration property 'historyCleanupPartitionDropEnabled' is ignored since " +
+            "dropping history partitions is not supported on database type '{}'", databaseType);
+  }
+
+  public void historyPartitioningNotSupported(String databaseType) {
+    logWarn(
+        "017", "The configuration property 'historyPartitioningEnabled' is ignored since " +
+            "a partitioned history schema is not supported on database type '{}'", databaseType);
+  }
+
+  public void skipLockedAcquisitionNotSupportedByVersion(String databaseType, int databaseMajorVersion) {
+    logWarn(
+        "018", "The configuration property 'skipLockedAcquisitionEnabled' is ignored since " +
+            "major version '{}' of database type '{}' does not support skipping locked rows",
+            databaseMajorVersion, databaseType);
+  }
+
 }
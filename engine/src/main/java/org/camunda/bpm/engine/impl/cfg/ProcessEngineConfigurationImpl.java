@@ -20,6 +20,7 @@ package org.camunda.bpm.engine.impl.cfg;
 import static org.camunda.bpm.engine.impl.cmd.HistoryCleanupCmd.MAX_THREADS_NUMBER;
 import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotNull;
 
+import java.io.File;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
@@ -34,6 +35,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -135,11 +137,16 @@ import org.camunda.bpm.engine.impl.cmmn.transformer.CmmnTransformFactory;
 import org.camunda.bpm.engine.impl.cmmn.transformer.CmmnTransformListener;
 import org.camunda.bpm.engine.impl.cmmn.transformer.CmmnTransformer;
 import org.camunda.bpm.engine.impl.cmmn.transformer.DefaultCmmnTransformFactory;
+import org.camunda.bpm.engine.impl.db.AuthorizationCache;
+import org.camunda.bpm.engine.impl.db.DbEntity;
 import org.camunda.bpm.engine.impl.db.DbIdGenerator;
+import org.camunda.bpm.engine.impl.db.StripedDbIdGenerator;
 import org.camunda.bpm.engine.impl.db.entitymanager.DbEntityManagerFactory;
 import org.camunda.bpm.engine.impl.db.entitymanager.cache.DbEntityCacheKeyMapping;
+import org.camunda.bpm.engine.impl.db.entitymanager.cache.SecondLevelEntityCache;
 import org.camunda.bpm.engine.impl.db.sql.DbSqlPersistenceProviderFactory;
 import org.camunda.bpm.engine.impl.db.sql.DbSqlSessionFactory;
+import org.camunda.bpm.engine.impl.db.sql.SqlStatementCountingInterceptor;
 import org.camunda.bpm.engine.impl.delegate.DefaultDelegateInterceptor;
 import org.camunda.bpm.engine.impl.digest.Default16ByteSaltGenerator;
 import org.camunda.bpm.engine.impl.digest.PasswordEncryptor;
@@ -184,10 +191,15 @@ import org.camunda.bpm.engine.impl.history.HistoryLevel;
 import org.camunda.bpm.engine.impl.history.HistoryRemovalTimeProvider;
 import org.camunda.bpm.engine.impl.history.event.HistoricDecisionInstanceManager;
 import org.camunda.bpm.engine.impl.history.event.HostnameProvider;
+import org.camunda.bpm.engine.impl.history.eventlog.HistoryEventLog;
+import org.camunda.bpm.engine.impl.history.eventlog.HistoryEventLogHandler;
+import org.camunda.bpm.engine.impl.history.handler.AsyncDbHistoryEventHandler;
+import org.camunda.bpm.engine.impl.history.handler.AsyncHistoryEventWriter;
 import org.camunda.bpm.engine.impl.history.handler.CompositeDbHistoryEventHandler;
 import org.camunda.bpm.engine.impl.history.handler.CompositeHistoryEventHandler;
 import org.camunda.bpm.engine.impl.history.handler.DbHistoryEventHandler;
 import org.camunda.bpm.engine.impl.history.handler.HistoryEventHandler;
+import org.camunda.bpm.engine.impl.history.handler.HistoryEventStagingSession;
 import org.camunda.bpm.engine.impl.history.parser.HistoryParseListener;
 import org.camunda.bpm.engine.impl.history.producer.CacheAwareCmmnHistoryEventProducer;
 import org.camunda.bpm.engine.impl.history.producer.CacheAwareHistoryEventProducer;
@@ -206,8 +218,10 @@ import org.camunda.bpm.engine.impl.interceptor.CommandContextFactory;
 import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
 import org.camunda.bpm.engine.impl.interceptor.CommandExecutorImpl;
 import org.camunda.bpm.engine.impl.interceptor.CommandInterceptor;
+import org.camunda.bpm.engine.impl.interceptor.CommandProfilingInterceptor;
 import org.camunda.bpm.engine.impl.interceptor.DelegateInterceptor;
 import org.camunda.bpm.engine.impl.interceptor.SessionFactory;
+import org.camunda.bpm.engine.impl.javax.el.ExpressionFactory;
 import org.camunda.bpm.engine.impl.jobexecutor.AsyncContinuationJobHandler;
 import org.camunda.bpm.engine.impl.jobexecutor.DefaultFailedJobCommandFactory;
 import org.camunda.bpm.engine.impl.jobexecutor.DefaultJobExecutor;
@@ -234,6 +248,8 @@ import org.camunda.bpm.engine.impl.jobexecutor.historycleanup.HistoryCleanupBatc
 import org.camunda.bpm.engine.impl.jobexecutor.historycleanup.HistoryCleanupHandler;
 import org.camunda.bpm.engine.impl.jobexecutor.historycleanup.HistoryCleanupHelper;
 import org.camunda.bpm.engine.impl.jobexecutor.historycleanup.HistoryCleanupJobHandler;
+import org.camunda.bpm.engine.impl.juel.CompilingExpressionFactory;
+import org.camunda.bpm.engine.impl.juel.ExpressionFactoryImpl;
 import org.camunda.bpm.engine.impl.metrics.MetricsRegistry;
 import org.camunda.bpm.engine.impl.metrics.MetricsReporterIdProvider;
 import org.camunda.bpm.engine.impl.history.event.SimpleIpBasedProvider;
@@ -276,16 +292,21 @@ import org.camunda.bpm.engine.impl.persistence.GenericManagerFactory;
 import org.camunda.bpm.engine.impl.persistence.deploy.Deployer;
 import org.camunda.bpm.engine.impl.persistence.deploy.cache.CacheFactory;
 import org.camunda.bpm.engine.impl.persistence.deploy.cache.DefaultCacheFactory;
+import org.camunda.bpm.engine.impl.persistence.deploy.cache.DeploymentCacheInvalidationPoller;
 import org.camunda.bpm.engine.impl.persistence.deploy.cache.DeploymentCache;
 import org.camunda.bpm.engine.impl.persistence.entity.AttachmentManager;
+import org.camunda.bpm.engine.impl.persistence.entity.AuthorizationEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.AuthorizationManager;
 import org.camunda.bpm.engine.impl.persistence.entity.BatchManager;
 import org.camunda.bpm.engine.impl.persistence.entity.ByteArrayManager;
+import org.camunda.bpm.engine.impl.persistence.entity.CacheEventManager;
+import org.camunda.bpm.engine.impl.persistence.entity.CorrelationKeyManager;
 import org.camunda.bpm.engine.impl.persistence.entity.CommentManager;
 import org.camunda.bpm.engine.impl.persistence.entity.DeploymentManager;
 import org.camunda.bpm.engine.impl.persistence.entity.EventSubscriptionManager;
 import org.camunda.bpm.engine.impl.persistence.entity.ExecutionManager;
 import org.camunda.bpm.engine.impl.persistence.entity.ExternalTaskManager;
+import org.camunda.bpm.engine.impl.persistence.entity.FilterEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.FilterManager;
 import org.camunda.bpm.engine.impl.persistence.entity.HistoricActivityInstanceManager;
 import org.camunda.bpm.engine.impl.persistence.entity.HistoricBatchManager;
@@ -303,6 +324,7 @@ import org.camunda.bpm.engine.impl.persistence.entity.HistoricVariableInstanceMa
 import org.camunda.bpm.engine.impl.persistence.entity.IdentityInfoManager;
 import org.camunda.bpm.engine.impl.persistence.entity.IdentityLinkManager;
 import org.camunda.bpm.engine.impl.persistence.entity.IncidentManager;
+import org.camunda.bpm.engine.impl.persistence.entity.JobDefinitionEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.JobDefinitionManager;
 import org.camunda.bpm.engine.impl.persistence.entity.JobManager;
 import org.camunda.bpm.engine.impl.persistence.entity.MeterLogManager;
@@ -315,6 +337,7 @@ import org.camunda.bpm.engine.impl.persistence.entity.StatisticsManager;
 import org.camunda.bpm.engine.impl.persistence.entity.TableDataManager;
 import org.camunda.bpm.engine.impl.persistence.entity.TaskManager;
 import org.camunda.bpm.engine.impl.persistence.entity.TaskReportManager;
+import org.camunda.bpm.engine.impl.persistence.entity.TenantEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.TenantManager;
 import org.camunda.bpm.engine.impl.persistence.entity.UserOperationLogManager;
 import org.camunda.bpm.engine.impl.persistence.entity.VariableInstanceManager;
@@ -338,6 +361,7 @@ import org.camunda.bpm.engine.impl.util.ReflectUtil;
 import org.camunda.bpm.engine.impl.variable.ValueTypeResolverImpl;
 import org.camunda.bpm.engine.impl.variable.serializer.BooleanValueSerializer;
 import org.camunda.bpm.engine.impl.variable.serializer.ByteArrayValueSerializer;
+import org.camunda.bpm.engine.impl.variable.serializer.CompactBinaryObjectSerializer;
 import org.camunda.bpm.engine.impl.variable.serializer.DateValueSerializer;
 import org.camunda.bpm.engine.impl.variable.serializer.DefaultVariableSerializers;
 import org.camunda.bpm.engine.impl.variable.serializer.DoubleValueSerializer;
@@ -458,6 +482,33 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
   protected int cacheCapacity = 1000;
   protected boolean enableFetchProcessDefinitionDescription = true;
 
+  /**
+   * If true, the latest version of every definition is parsed into the deployment cache
+   * when the process engine starts.
+   */
+  protected boolean deploymentCacheWarmUpEnabled = false;
+  /**
+   * The number of threads parsing definitions during the warm up of the deployment cache.
+   * If not greater than zero, one thread per available processor is used.
+   */
+  protected int deploymentCacheWarmUpParallelism = 0;
+  /**
+   * If true, removed definitions are recorded in the database, and the process engine polls
+   * these records to evict definitions removed by other process engines from its deployment cache.
+   */
+  protected boolean deploymentCacheInvalidationEnabled = false;
+  /** The interval in milliseconds in which deployment cache invalidations are polled. */
+  protected long deploymentCacheInvalidationPollInterval = 5000;
+  /**
+   * The time in milliseconds after which deployment cache invalidation records are deleted.
+   * An engine misses an invalidation if the record is deleted before the engine polls it,
+   * so the retention must be longer than the poll interval plus the longest transaction
+   * duration (e.g. the transaction timeout) plus the maximum clock difference between the
+   * engines sharing the database.
+   */
+  protected long deploymentCacheInvalidationRetention = 10 * 60 * 1000;
+  protected DeploymentCacheInvalidationPoller deploymentCacheInvalidationPoller;
+
   // JOB EXECUTOR /////////////////////////////////////////////////////////////
 
   protected List<JobHandler> customJobHandlers;
@@ -479,6 +530,11 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
   protected IdGenerator idGenerator;
   protected DataSource idGeneratorDataSource;
   protected String idGeneratorDataSourceJndiName;
+  /**
+   * If greater than zero, a {@link StripedDbIdGenerator} with this number of stripes is used
+   * instead of the {@link DbIdGenerator}.
+   */
+  protected int idGeneratorStripes = 0;
 
   // INCIDENT HANDLER /////////////////////////////////////////////////////////
 
@@ -531,6 +587,32 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
 
   protected String defaultSerializationFormat = Variables.SerializationDataFormats.JAVA.getName();
   protected boolean javaSerializationFormatEnabled = false;
+
+  /**
+   * Object values serialized by the {@link CompactBinaryObjectSerializer} are compressed if
+   * they are at least this large (in bytes). A negative value disables compression.
+   */
+  protected int compactBinarySerializationCompressionThreshold = 1024;
+
+  /**
+   * Names of the {@link org.camunda.bpm.engine.repository.ResourceTypes} (e.g. <code>RUNTIME</code>,
+   * <code>HISTORY</code>) whose byte arrays are stored compressed. Byte arrays are read
+   * transparently regardless of this setting, so it can be changed at any time.
+   */
+  protected Set<String> byteArrayCompressionResourceTypes = new HashSet<>();
+
+  /**
+   * Byte arrays smaller than this size (in bytes) are never compressed.
+   */
+  protected int byteArrayCompressionThreshold = 512;
+
+  /**
+   * If true, the content of file variables is streamed from the database when the
+   * {@link org.camunda.bpm.engine.variable.value.FileValue#getValue() value stream} is read
+   * instead of being loaded into memory with the variable.
+   */
+  protected boolean fileValueStreamingEnabled = false;
+
   protected String defaultCharsetName = null;
   protected Charset defaultCharset = null;
 
@@ -545,6 +627,23 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
   protected boolean enableScriptEngineCaching = true;
   protected boolean enableFetchScriptEngineFromProcessApplication = true;
 
+  /**
+   * If true and script engine caching is enabled, script engines which are not thread-safe
+   * are taken from a bounded pool per script language and process application instead of
+   * being created for each script evaluation. Pooled script engines keep their compiled
+   * scripts and the pools are warmed up when script tasks are deployed.
+   */
+  protected boolean enableScriptEnginePooling = false;
+
+  /** The maximum number of script engines per script engine pool. */
+  protected int scriptEnginePoolSize = 8;
+
+  /**
+   * The time in milliseconds a script evaluation waits for a script engine if all engines
+   * of the pool are in use. Afterwards, the script is evaluated with an engine which is not pooled.
+   */
+  protected long scriptEnginePoolMaxWait = 1000;
+
   protected boolean cmmnEnabled = true;
   protected boolean dmnEnabled = true;
 
@@ -625,6 +724,16 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
 
   protected CorrelationHandler correlationHandler;
 
+  /**
+   * Names of the process variables which are kept in the message correlation index. Messages
+   * correlated with one of these variables as correlation key find their executions through
+   * the index instead of querying the variables. Only string values of up to
+   * {@link org.camunda.bpm.engine.impl.persistence.entity.CorrelationKeyManager#MAX_VALUE_LENGTH} characters
+   * are indexed. The index is rebuilt when the process engine starts with changed names and is
+   * disabled if no names are set. All process engines sharing a database must declare the same names.
+   */
+  protected Set<String> correlationIndexVariableNames = new HashSet<>();
+
   protected ConditionHandler conditionHandler;
 
   /**
@@ -672,6 +781,70 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
    */
   protected boolean enableDefaultDbHistoryEventHandler = true;
 
+  /**
+   * If true, the default database history event handler does not write history events
+   * inside the transaction that produced them. Instead, the events are handed off to
+   * the {@link AsyncHistoryEventWriter} when the transaction is committed and written
+   * in batches by dedicated writer threads, preserving the order of events per process
+   * instance. History becomes eventually consistent: queries may not see the history
+   * of a transaction directly after it has been committed.
+   *
+   * <p><strong>History events can be lost:</strong> the events of a committed transaction
+   * are only held in memory until they are written. They are lost if the process engine
+   * terminates abnormally in between, which covers at most
+   * {@link #asyncHistoryMaxPendingEvents} events, and if they still cannot be written when the
+   * process engine is closed. Events that fail to be written due to a database failure which
+   * may go away (e.g. a lost connection) are retried with an exponential backoff (of up to
+   * 10 seconds) until the process engine is closed. Events that fail for other reasons (e.g.
+   * a constraint violation) are not retried. The ids of lost events are logged as an error.
+   * Configure a {@link #historyEventLogDirectory} to keep a durable copy of all events.</p>
+   */
+  protected boolean isAsyncHistoryEventHandlingEnabled = false;
+
+  /**
+   * The number of threads writing history events if asynchronous history event handling
+   * is enabled. The events of one process instance are always written by the same thread.
+   */
+  protected int asyncHistoryWriterThreads = 2;
+
+  /**
+   * The maximum number of history events a writer thread writes in one transaction.
+   * Events of a single committed transaction are never split.
+   */
+  protected int asyncHistoryWriterBatchSize = 500;
+
+  /**
+   * The number of history events that may be waiting to be written before committing
+   * threads are blocked until the writer threads have caught up.
+   */
+  protected int asyncHistoryMaxPendingEvents = 10000;
+
+  protected AsyncHistoryEventWriter asyncHistoryEventWriter;
+
+  /**
+   * If set, history events are additionally appended to a {@link HistoryEventLog} in
+   * this directory, e.g. to be consumed by analytics jobs instead of the history tables.
+   * Combine with {@link #enableDefaultDbHistoryEventHandler} to write history to the
+   * log only.
+   */
+  protected String historyEventLogDirectory;
+
+  /**
+   * The size in bytes at which the history event log starts a new segment file.
+   */
+  protected long historyEventLogSegmentSize = HistoryEventLog.DEFAULT_SEGMENT_SIZE;
+
+  /**
+   * If true, the history events of a transaction are synced to disk when they are appended
+   * to the history event log. Events are appended after the transaction has been committed
+   * to the database, so the events of the transactions committed last can be missing from
+   * the log if the process engine terminates abnormally, regardless of this setting. If
+   * false, appended events are synced when a segment is completed or the log is closed.
+   */
+  protected boolean historyEventLogSync = true;
+
+  protected HistoryEventLog historyEventLog;
+
   protected PermissionProvider permissionProvider;
 
   protected boolean isExecutionTreePrefetchEnabled = true;
@@ -693,6 +866,86 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
    */
   protected boolean isDbEntityCacheReuseEnabled = false;
 
+  /**
+   * The number of emptied first level entity caches which are kept for reuse by
+   * subsequent commands, which saves rebuilding the cache tables for every command.
+   * By default (0), a new cache is created for every command.
+   */
+  protected int dbEntityCachePoolSize = 0;
+
+  /**
+   * Allows setting whether entities of read-mostly types are cached across commands. The cached
+   * entities are invalidated on writes of this process engine and re-read after
+   * {@link #secondLevelEntityCacheTimeToLive}, which bounds the staleness in a cluster.
+   * Default setting is false.
+   */
+  protected boolean isSecondLevelEntityCacheEnabled = false;
+
+  /**
+   * The entity types cached by the second level entity cache. If not set, job definitions,
+   * tenants, filters and authorizations are cached.
+   */
+  protected List<Class<? extends DbEntity>> secondLevelEntityCacheTypes;
+
+  /** The maximum number of cached entities per entity type. */
+  protected int secondLevelEntityCacheMaxSize = 1000;
+
+  /** The time in milliseconds after which a cached entity is read from the database again. */
+  protected long secondLevelEntityCacheTimeToLive = 10000;
+
+  protected SecondLevelEntityCache secondLevelEntityCache;
+
+  /**
+   * Allows setting whether the results of the queries behind authorization checks are cached
+   * across commands. The cached results are invalidated when this process engine writes
+   * authorizations or memberships and re-read after {@link #authorizationCacheTimeToLive},
+   * which bounds the staleness in a cluster. Default setting is false.
+   */
+  protected boolean isAuthorizationCacheEnabled = false;
+
+  /** The maximum number of cached authorization check results. */
+  protected int authorizationCacheMaxSize = 1000;
+
+  /** The time in milliseconds after which an authorization check result is read from the database again. */
+  protected long authorizationCacheTimeToLive = 10000;
+
+  /**
+   * The maximum number of resource ids a query with a single permission check is restricted to
+   * with an IN clause instead of a join of the authorizations. Only used if the authorization
+   * cache is enabled; set it to 0 to always join the authorizations.
+   */
+  protected int authorizationCacheInListThreshold = 100;
+
+  protected AuthorizationCache authorizationCache;
+
+  /**
+   * Allows setting whether frequently evaluated expressions are compiled instead of
+   * interpreting their parse tree on every evaluation. Only has an effect if the
+   * expression manager uses the built-in expression factory. Default setting is false.
+   */
+  protected boolean isExpressionCompilationEnabled = false;
+
+  /** The number of evaluations after which an expression is compiled. */
+  protected int expressionCompilationThreshold = 100;
+
+  /**
+   * Allows setting whether consecutive INSERTs of the same entity type are combined into
+   * multi-row INSERT statements. Only has an effect if jdbc batch processing is enabled and
+   * for entity types that provide a multi-row insert mapping (e.g. the most frequent history entities).
+   */
+  protected boolean isJdbcMultiRowInsertEnabled = false;
+
+  /**
+   * Allows setting whether the job executor and external task fetching lock the selected
+   * candidates with <code>SELECT ... FOR UPDATE SKIP LOCKED</code> (or the database specific
+   * equivalent) before updating them. Concurrent acquirers then receive disjoint sets of
+   * jobs and external tasks instead of failing with optimistic locking exceptions.
+   * Supported on PostgreSQL, Oracle, MySQL 8 and Microsoft SQL Server. On other databases
+   * (including H2 and MySQL servers older than 8.0, detected from the JDBC metadata) the
+   * property is ignored and a warning is logged.
+   */
+  protected boolean isSkipLockedAcquisitionEnabled = false;
+
   protected boolean isInvokeCustomVariableListeners = true;
 
   /**
@@ -717,6 +970,26 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
   protected boolean isMetricsEnabled = true;
   protected boolean isDbMetricsReporterActivate = true;
 
+  /**
+   * If true, the distributions of job execution durations, command execution durations
+   * and executed decision elements per evaluation are recorded in histograms. Their
+   * percentiles are reported to the meter log together with the other metrics.
+   */
+  protected boolean isMetricsHistogramsEnabled = false;
+
+  /**
+   * If true, a sample of the executed commands is profiled: their execution time and the
+   * number of flushed db operations and executed sql statements are aggregated per command
+   * in the {@link MetricsRegistry}.
+   */
+  protected boolean isCommandProfilingEnabled = false;
+
+  /**
+   * The share of the commands that are profiled if command profiling is enabled, between
+   * <code>0</code> and <code>1</code>. Can be changed while the engine is running.
+   */
+  protected double commandProfilingSampleRate = 0.01;
+
   protected MetricsReporterIdProvider metricsReporterIdProvider;
 
   /**
@@ -837,6 +1110,33 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
    */
   protected boolean historyCleanupEnabled = true;
 
+  /**
+   * If true and the removal time based history cleanup strategy is used, history cleanup
+   * deletes whole removal time ranges per table instead of minute-filtered batches. The
+   * upper bound of each range is found by a keyset scan over <code>REMOVAL_TIME_</code>.
+   */
+  protected boolean historyCleanupRangeDeleteEnabled = false;
+
+  /**
+   * If true, range based history cleanup also drops expired partitions of history tables
+   * which are range-partitioned by removal time (PostgreSQL and Oracle only). Partitions
+   * must be named <code>&lt;TABLE&gt;_P&lt;yyyyMMdd&gt;</code> where the date is the
+   * exclusive upper bound of the partition.
+   */
+  protected boolean historyCleanupPartitionDropEnabled = false;
+
+  /**
+   * If true, the history schema is created in its range-partitioned variant (PostgreSQL and
+   * Oracle only) and range based history cleanup with partition dropping maintains monthly
+   * partitions of the partitioned history tables ahead of time.
+   */
+  protected boolean historyPartitioningEnabled = false;
+
+  /**
+   * Number of monthly history partitions which are created ahead of the current month.
+   */
+  protected int historyPartitionPrecreateMonths = 6;
+
   private int failedJobListenerMaxRetries = DEFAULT_FAILED_JOB_LISTENER_MAX_RETRIES;
 
   protected String failedJobRetryTimeCycle;
@@ -894,6 +1194,7 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     initIdGenerator();
     initFailedJobCommandFactory();
     initDeployers();
+    initDeploymentCacheInvalidation();
     initJobProvider();
     initExternalTaskPriorityProvider();
     initBatchHandlers();
@@ -902,6 +1203,8 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     initTransactionFactory();
     initSqlSessionFactory();
     initIdentityProviderSessionFactory();
+    initSecondLevelEntityCache();
+    initAuthorizationCache();
     initSessionFactories();
     initValueTypeResolver();
     initTypeValidator();
@@ -996,6 +1299,11 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
           "History cleanup batch threshold cannot be negative.");
     }
 
+    if (historyCleanupPartitionDropEnabled && !DbSqlSessionFactory.isPartitionDropSupported(databaseType)) {
+      LOG.historyCleanupPartitionDropNotSupported(databaseType);
+      historyCleanupPartitionDropEnabled = false;
+    }
+
     initHistoryTimeToLive();
 
     initBatchOperationsHistoryTimeToLive();
@@ -1255,6 +1563,9 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
       } else {
         commandInterceptorsTxRequired = new ArrayList<>();
       }
+      if (isCommandProfilingEnabled) {
+        commandInterceptorsTxRequired.add(0, new CommandProfilingInterceptor(this));
+      }
       commandInterceptorsTxRequired.addAll(getDefaultCommandInterceptorsTxRequired());
       if (customPostCommandInterceptorsTxRequired != null) {
         commandInterceptorsTxRequired.addAll(customPostCommandInterceptorsTxRequired);
@@ -1270,6 +1581,9 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
       } else {
         commandInterceptorsTxRequiresNew = new ArrayList<>();
       }
+      if (isCommandProfilingEnabled) {
+        commandInterceptorsTxRequiresNew.add(0, new CommandProfilingInterceptor(this));
+      }
       commandInterceptorsTxRequiresNew.addAll(getDefaultCommandInterceptorsTxRequiresNew());
       if (customPostCommandInterceptorsTxRequiresNew != null) {
         commandInterceptorsTxRequiresNew.addAll(customPostCommandInterceptorsTxRequiresNew);
@@ -1449,6 +1763,30 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     }
   }
 
+  /**
+   * @return the major version of the database server as reported by the JDBC driver,
+   * or <code>Integer.MAX_VALUE</code> if it cannot be determined
+   */
+  protected int getDatabaseMajorVersion() {
+    Connection connection = null;
+    try {
+      connection = dataSource.getConnection();
+      return connection.getMetaData().getDatabaseMajorVersion();
+
+    } catch (SQLException e) {
+      LOG.databaseConnectionAccessException(e);
+      return Integer.MAX_VALUE;
+    } finally {
+      try {
+        if (connection != null) {
+          connection.close();
+        }
+      } catch (SQLException e) {
+        LOG.databaseConnectionCloseException(e);
+      }
+    }
+  }
+
   /**
    * The product name of mariadb is still 'MySQL'. This method
    * tries if it can find some evidence for mariadb. If it is successful
@@ -1530,6 +1868,10 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
             configuration.setDefaultExecutorType(ExecutorType.BATCH);
           }
 
+          if (isCommandProfilingEnabled) {
+            configuration.addInterceptor(new SqlStatementCountingInterceptor());
+          }
+
           sqlSessionFactory = new DefaultSqlSessionFactory(configuration);
 
           if (isUseSharedSqlSessionFactory) {
@@ -1588,6 +1930,9 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
 
       properties.put("collationForCaseSensitivity", DbSqlSessionFactory.databaseSpecificCollationForCaseSensitivity.get(databaseType));
 
+      properties.put("skipLockedTableHint", DbSqlSessionFactory.databaseSpecificSkipLockedTableHint.get(databaseType));
+      properties.put("skipLockedClause", DbSqlSessionFactory.databaseSpecificSkipLockedClause.get(databaseType));
+
       Map<String, String> constants = DbSqlSessionFactory.dbSpecificConstants.get(databaseType);
       for (Entry<String, String> entry : constants.entrySet()) {
         properties.put(entry.getKey(), entry.getValue());
@@ -1607,13 +1952,38 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     }
   }
 
+  protected void initSecondLevelEntityCache() {
+    if (isSecondLevelEntityCacheEnabled && secondLevelEntityCache == null) {
+      if (secondLevelEntityCacheTypes == null) {
+        secondLevelEntityCacheTypes = getDefaultSecondLevelEntityCacheTypes();
+      }
+      secondLevelEntityCache = new SecondLevelEntityCache(dbEntityCacheKeyMapping, secondLevelEntityCacheTypes,
+          secondLevelEntityCacheMaxSize, secondLevelEntityCacheTimeToLive);
+    }
+  }
+
+  protected void initAuthorizationCache() {
+    if (isAuthorizationCacheEnabled && authorizationCache == null) {
+      authorizationCache = new AuthorizationCache(authorizationCacheMaxSize, authorizationCacheTimeToLive);
+    }
+  }
+
+  protected List<Class<? extends DbEntity>> getDefaultSecondLevelEntityCacheTypes() {
+    List<Class<? extends DbEntity>> types = new ArrayList<>();
+    types.add(JobDefinitionEntity.class);
+    types.add(TenantEntity.class);
+    types.add(FilterEntity.class);
+    types.add(AuthorizationEntity.class);
+    return types;
+  }
+
   protected void initSessionFactories() {
     if (sessionFactories == null) {
       sessionFactories = new HashMap<>();
 
       initPersistenceProviders();
 
-      addSessionFactory(new DbEntityManagerFactory(idGenerator));
+      addSessionFactory(new DbEntityManagerFactory(idGenerator, dbEntityCachePoolSize));
 
       addSessionFactory(new GenericManagerFactory(AttachmentManager.class));
       addSessionFactory(new GenericManagerFactory(CommentManager.class));
@@ -1650,6 +2020,8 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
       addSessionFactory(new GenericManagerFactory(AuthorizationManager.class));
       addSessionFactory(new GenericManagerFactory(FilterManager.class));
       addSessionFactory(new GenericManagerFactory(MeterLogManager.class));
+      addSessionFactory(new GenericManagerFactory(CacheEventManager.class));
+      addSessionFactory(new GenericManagerFactory(CorrelationKeyManager.class));
       addSessionFactory(new GenericManagerFactory(ExternalTaskManager.class));
       addSessionFactory(new GenericManagerFactory(ReportManager.class));
       addSessionFactory(new GenericManagerFactory(BatchManager.class));
@@ -1667,6 +2039,10 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
 
       addSessionFactory(new GenericManagerFactory(OptimizeManager.class));
 
+      if (asyncHistoryEventWriter != null) {
+        addSessionFactory(new GenericManagerFactory(HistoryEventStagingSession.class));
+      }
+
       sessionFactories.put(ReadOnlyIdentityProvider.class, identityProviderSessionFactory);
 
       // check whether identityProviderSessionFactory implements WritableIdentityProvider
@@ -1694,6 +2070,26 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     dbSqlSessionFactory.setCmmnEnabled(cmmnEnabled);
     dbSqlSessionFactory.setDmnEnabled(dmnEnabled);
     dbSqlSessionFactory.setDatabaseTablePrefix(databaseTablePrefix);
+    dbSqlSessionFactory.setJdbcMultiRowInsertEnabled(isJdbcMultiRowInsertEnabled);
+
+    if (historyPartitioningEnabled && !DbSqlSessionFactory.isPartitionDropSupported(databaseType)) {
+      LOG.historyPartitioningNotSupported(databaseType);
+      historyPartitioningEnabled = false;
+    }
+    dbSqlSessionFactory.setHistoryPartitioningEnabled(historyPartitioningEnabled);
+
+    if (isSkipLockedAcquisitionEnabled) {
+      if (!DbSqlSessionFactory.isSkipLockedSupported(databaseType)) {
+        LOG.skipLockedAcquisitionNotSupported(databaseType);
+        isSkipLockedAcquisitionEnabled = false;
+      } else {
+        int databaseMajorVersion = getDatabaseMajorVersion();
+        if (!DbSqlSessionFactory.isSkipLockedSupported(databaseType, databaseMajorVersion)) {
+          LOG.skipLockedAcquisitionNotSupportedByVersion(databaseType, databaseMajorVersion);
+          isSkipLockedAcquisitionEnabled = false;
+        }
+      }
+    }
 
     //hack for the case when schema is defined via databaseTablePrefix parameter and not via databaseSchema parameter
     if (databaseTablePrefix != null && databaseSchema == null && databaseTablePrefix.contains(".")) {
@@ -1825,6 +2221,14 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     }
   }
 
+  protected void initDeploymentCacheInvalidation() {
+    if (deploymentCacheInvalidationEnabled && deploymentCacheInvalidationPoller == null) {
+      deploymentCacheInvalidationPoller = new DeploymentCacheInvalidationPoller(commandExecutorTxRequired, deploymentCache);
+      deploymentCacheInvalidationPoller.setPollIntervalInMillis(deploymentCacheInvalidationPollInterval);
+      deploymentCacheInvalidationPoller.setRetentionInMillis(deploymentCacheInvalidationRetention);
+    }
+  }
+
   protected Collection<? extends Deployer> getDefaultDeployers() {
     List<Deployer> defaultDeployers = new ArrayList<>();
 
@@ -2095,7 +2499,14 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
         idGeneratorCommandExecutor = commandExecutorTxRequiresNew;
       }
 
-      DbIdGenerator dbIdGenerator = new DbIdGenerator();
+      DbIdGenerator dbIdGenerator;
+      if (idGeneratorStripes > 0) {
+        StripedDbIdGenerator stripedDbIdGenerator = new StripedDbIdGenerator();
+        stripedDbIdGenerator.setStripes(idGeneratorStripes);
+        dbIdGenerator = stripedDbIdGenerator;
+      } else {
+        dbIdGenerator = new DbIdGenerator();
+      }
       dbIdGenerator.setIdBlockSize(idBlockSize);
       dbIdGenerator.setCommandExecutor(idGeneratorCommandExecutor);
       idGenerator = dbIdGenerator;
@@ -2141,6 +2552,10 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
 
       initDefaultMetrics(metricsRegistry);
 
+      if (idGenerator instanceof StripedDbIdGenerator) {
+        ((StripedDbIdGenerator) idGenerator).setMetricsRegistry(metricsRegistry);
+      }
+
       if (dbMetricsReporter == null) {
         dbMetricsReporter = new DbMetricsReporter(metricsRegistry, commandExecutorTxRequired);
       }
@@ -2169,6 +2584,31 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     metricsRegistry.createMeter(Metrics.JOB_EXECUTION_REJECTED);
 
     metricsRegistry.createMeter(Metrics.EXECUTED_DECISION_ELEMENTS);
+
+    if (idGeneratorStripes > 0) {
+      metricsRegistry.createMeter(Metrics.ID_BLOCK_FETCH);
+      metricsRegistry.createMeter(Metrics.ID_GENERATOR_CONTENTION);
+    }
+
+    if (asyncHistoryEventWriter != null) {
+      metricsRegistry.createMeter(Metrics.HISTORY_EVENTS_WRITTEN);
+      metricsRegistry.createMeter(Metrics.HISTORY_WRITE_BACKPRESSURE);
+    }
+
+    if (enableScriptEnginePooling) {
+      metricsRegistry.createMeter(Metrics.SCRIPT_ENGINE_POOL_WAITS);
+      metricsRegistry.createMeter(Metrics.SCRIPT_COMPILATIONS);
+    }
+
+    if (isMetricsHistogramsEnabled) {
+      metricsRegistry.createHistogram(Metrics.JOB_EXECUTION_DURATION);
+      metricsRegistry.createHistogram(Metrics.COMMAND_EXECUTION_DURATION);
+      metricsRegistry.createHistogram(Metrics.EXECUTED_DECISION_ELEMENTS_PER_EVALUATION);
+
+      if (asyncHistoryEventWriter != null) {
+        metricsRegistry.createHistogram(Metrics.HISTORY_WRITE_LAG);
+      }
+    }
   }
 
   protected void initSerialization() {
@@ -2192,7 +2632,8 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
       variableSerializers.addSerializer(new DoubleValueSerializer());
       variableSerializers.addSerializer(new ByteArrayValueSerializer());
       variableSerializers.addSerializer(new JavaObjectSerializer());
-      variableSerializers.addSerializer(new FileValueSerializer());
+      variableSerializers.addSerializer(new CompactBinaryObjectSerializer(compactBinarySerializationCompressionThreshold));
+      variableSerializers.addSerializer(new FileValueSerializer(fileValueStreamingEnabled));
 
       if (customPostVariableSerializers != null) {
         for (TypedValueSerializer<?> customVariableType : customPostVariableSerializers) {
@@ -2264,6 +2705,9 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     if (scriptingEngines == null) {
       scriptingEngines = new ScriptingEngines(new ScriptBindingsFactory(resolverFactories));
       scriptingEngines.setEnableScriptEngineCaching(enableScriptEngineCaching);
+      scriptingEngines.setEnableScriptEnginePooling(enableScriptEnginePooling);
+      scriptingEngines.setScriptEnginePoolSize(scriptEnginePoolSize);
+      scriptingEngines.setScriptEnginePoolMaxWait(scriptEnginePoolMaxWait);
     }
     if (scriptFactory == null) {
       scriptFactory = new ScriptFactory();
@@ -2303,6 +2747,12 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
       expressionManager = new ExpressionManager(beans);
     }
 
+    ExpressionFactory expressionFactory = expressionManager.getExpressionFactory();
+    if (isExpressionCompilationEnabled && expressionFactory instanceof ExpressionFactoryImpl) {
+      expressionManager.setExpressionFactory(
+          new CompilingExpressionFactory((ExpressionFactoryImpl) expressionFactory, expressionCompilationThreshold));
+    }
+
     // add function mapper for command context (eg currentUser(), currentUserGroups())
     expressionManager.addFunctionMapper(new CommandContextFunctionMapper());
     // add function mapper for date time (eg now(), dateTime())
@@ -2444,10 +2894,26 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
 
   protected void initHistoryEventHandler() {
     if (historyEventHandler == null) {
-      if (enableDefaultDbHistoryEventHandler) {
-        historyEventHandler = new CompositeDbHistoryEventHandler(customHistoryEventHandlers);
+      List<HistoryEventHandler> historyEventHandlers = customHistoryEventHandlers;
+
+      if (historyEventLogDirectory != null) {
+        historyEventLog = new HistoryEventLog(new File(historyEventLogDirectory), historyEventLogSegmentSize, historyEventLogSync);
+
+        historyEventHandlers = new ArrayList<>(customHistoryEventHandlers);
+        historyEventHandlers.add(new HistoryEventLogHandler(historyEventLog));
+      }
+
+      if (enableDefaultDbHistoryEventHandler && isAsyncHistoryEventHandlingEnabled) {
+        asyncHistoryEventWriter = new AsyncHistoryEventWriter(this);
+
+        historyEventHandlers = new ArrayList<>(historyEventHandlers);
+        historyEventHandlers.add(new AsyncDbHistoryEventHandler());
+        historyEventHandler = new CompositeHistoryEventHandler(historyEventHandlers);
+
+      } else if (enableDefaultDbHistoryEventHandler) {
+        historyEventHandler = new CompositeDbHistoryEventHandler(historyEventHandlers);
       } else {
-        historyEventHandler = new CompositeHistoryEventHandler(customHistoryEventHandlers);
+        historyEventHandler = new CompositeHistoryEventHandler(historyEventHandlers);
       }
     }
   }
@@ -2905,10 +3371,68 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     this.cacheFactory = cacheFactory;
   }
 
+  public int getCacheCapacity() {
+    return cacheCapacity;
+  }
+
   public void setCacheCapacity(int cacheCapacity) {
     this.cacheCapacity = cacheCapacity;
   }
 
+  public boolean isDeploymentCacheWarmUpEnabled() {
+    return deploymentCacheWarmUpEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setDeploymentCacheWarmUpEnabled(boolean deploymentCacheWarmUpEnabled) {
+    this.deploymentCacheWarmUpEnabled = deploymentCacheWarmUpEnabled;
+    return this;
+  }
+
+  public int getDeploymentCacheWarmUpParallelism() {
+    return deploymentCacheWarmUpParallelism;
+  }
+
+  public ProcessEngineConfigurationImpl setDeploymentCacheWarmUpParallelism(int deploymentCacheWarmUpParallelism) {
+    this.deploymentCacheWarmUpParallelism = deploymentCacheWarmUpParallelism;
+    return this;
+  }
+
+  public boolean isDeploymentCacheInvalidationEnabled() {
+    return deploymentCacheInvalidationEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setDeploymentCacheInvalidationEnabled(boolean deploymentCacheInvalidationEnabled) {
+    this.deploymentCacheInvalidationEnabled = deploymentCacheInvalidationEnabled;
+    return this;
+  }
+
+  public long getDeploymentCacheInvalidationPollInterval() {
+    return deploymentCacheInvalidationPollInterval;
+  }
+
+  public ProcessEngineConfigurationImpl setDeploymentCacheInvalidationPollInterval(long deploymentCacheInvalidationPollInterval) {
+    this.deploymentCacheInvalidationPollInterval = deploymentCacheInvalidationPollInterval;
+    return this;
+  }
+
+  public long getDeploymentCacheInvalidationRetention() {
+    return deploymentCacheInvalidationRetention;
+  }
+
+  public ProcessEngineConfigurationImpl setDeploymentCacheInvalidationRetention(long deploymentCacheInvalidationRetention) {
+    this.deploymentCacheInvalidationRetention = deploymentCacheInvalidationRetention;
+    return this;
+  }
+
+  public DeploymentCacheInvalidationPoller getDeploymentCacheInvalidationPoller() {
+    return deploymentCacheInvalidationPoller;
+  }
+
+  public ProcessEngineConfigurationImpl setDeploymentCacheInvalidationPoller(DeploymentCacheInvalidationPoller deploymentCacheInvalidationPoller) {
+    this.deploymentCacheInvalidationPoller = deploymentCacheInvalidationPoller;
+    return this;
+  }
+
   public void setEnableFetchProcessDefinitionDescription(boolean enableFetchProcessDefinitionDescription){
     this.enableFetchProcessDefinitionDescription = enableFetchProcessDefinitionDescription;
   }
@@ -3408,6 +3932,15 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     this.idGeneratorDataSourceJndiName = idGeneratorDataSourceJndiName;
   }
 
+  public int getIdGeneratorStripes() {
+    return idGeneratorStripes;
+  }
+
+  public ProcessEngineConfigurationImpl setIdGeneratorStripes(int idGeneratorStripes) {
+    this.idGeneratorStripes = idGeneratorStripes;
+    return this;
+  }
+
   public ProcessApplicationManager getProcessApplicationManager() {
     return processApplicationManager;
   }
@@ -3432,6 +3965,19 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     this.correlationHandler = correlationHandler;
   }
 
+  public Set<String> getCorrelationIndexVariableNames() {
+    return correlationIndexVariableNames;
+  }
+
+  public ProcessEngineConfigurationImpl setCorrelationIndexVariableNames(Set<String> correlationIndexVariableNames) {
+    this.correlationIndexVariableNames = correlationIndexVariableNames;
+    return this;
+  }
+
+  public boolean isCorrelationIndexEnabled() {
+    return correlationIndexVariableNames != null && !correlationIndexVariableNames.isEmpty();
+  }
+
   public ConditionHandler getConditionHandler() {
     return conditionHandler;
   }
@@ -3465,6 +4011,77 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     this.customHistoryEventHandlers = customHistoryEventHandlers;
   }
 
+  public boolean isAsyncHistoryEventHandlingEnabled() {
+    return isAsyncHistoryEventHandlingEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setAsyncHistoryEventHandlingEnabled(boolean isAsyncHistoryEventHandlingEnabled) {
+    this.isAsyncHistoryEventHandlingEnabled = isAsyncHistoryEventHandlingEnabled;
+    return this;
+  }
+
+  public int getAsyncHistoryWriterThreads() {
+    return asyncHistoryWriterThreads;
+  }
+
+  public ProcessEngineConfigurationImpl setAsyncHistoryWriterThreads(int asyncHistoryWriterThreads) {
+    this.asyncHistoryWriterThreads = asyncHistoryWriterThreads;
+    return this;
+  }
+
+  public int getAsyncHistoryWriterBatchSize() {
+    return asyncHistoryWriterBatchSize;
+  }
+
+  public ProcessEngineConfigurationImpl setAsyncHistoryWriterBatchSize(int asyncHistoryWriterBatchSize) {
+    this.asyncHistoryWriterBatchSize = asyncHistoryWriterBatchSize;
+    return this;
+  }
+
+  public int getAsyncHistoryMaxPendingEvents() {
+    return asyncHistoryMaxPendingEvents;
+  }
+
+  public ProcessEngineConfigurationImpl setAsyncHistoryMaxPendingEvents(int asyncHistoryMaxPendingEvents) {
+    this.asyncHistoryMaxPendingEvents = asyncHistoryMaxPendingEvents;
+    return this;
+  }
+
+  public AsyncHistoryEventWriter getAsyncHistoryEventWriter() {
+    return asyncHistoryEventWriter;
+  }
+
+  public String getHistoryEventLogDirectory() {
+    return historyEventLogDirectory;
+  }
+
+  public ProcessEngineConfigurationImpl setHistoryEventLogDirectory(String historyEventLogDirectory) {
+    this.historyEventLogDirectory = historyEventLogDirectory;
+    return this;
+  }
+
+  public long getHistoryEventLogSegmentSize() {
+    return historyEventLogSegmentSize;
+  }
+
+  public ProcessEngineConfigurationImpl setHistoryEventLogSegmentSize(long historyEventLogSegmentSize) {
+    this.historyEventLogSegmentSize = historyEventLogSegmentSize;
+    return this;
+  }
+
+  public boolean isHistoryEventLogSync() {
+    return historyEventLogSync;
+  }
+
+  public ProcessEngineConfigurationImpl setHistoryEventLogSync(boolean historyEventLogSync) {
+    this.historyEventLogSync = historyEventLogSync;
+    return this;
+  }
+
+  public HistoryEventLog getHistoryEventLog() {
+    return historyEventLog;
+  }
+
   public IncidentHandler getIncidentHandler(String incidentType) {
     return incidentHandlers.get(incidentType);
   }
@@ -3815,6 +4432,42 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     this.javaSerializationFormatEnabled = javaSerializationFormatEnabled;
   }
 
+  public int getCompactBinarySerializationCompressionThreshold() {
+    return compactBinarySerializationCompressionThreshold;
+  }
+
+  public ProcessEngineConfigurationImpl setCompactBinarySerializationCompressionThreshold(int compactBinarySerializationCompressionThreshold) {
+    this.compactBinarySerializationCompressionThreshold = compactBinarySerializationCompressionThreshold;
+    return this;
+  }
+
+  public Set<String> getByteArrayCompressionResourceTypes() {
+    return byteArrayCompressionResourceTypes;
+  }
+
+  public ProcessEngineConfigurationImpl setByteArrayCompressionResourceTypes(Set<String> byteArrayCompressionResourceTypes) {
+    this.byteArrayCompressionResourceTypes = byteArrayCompressionResourceTypes;
+    return this;
+  }
+
+  public int getByteArrayCompressionThreshold() {
+    return byteArrayCompressionThreshold;
+  }
+
+  public ProcessEngineConfigurationImpl setByteArrayCompressionThreshold(int byteArrayCompressionThreshold) {
+    this.byteArrayCompressionThreshold = byteArrayCompressionThreshold;
+    return this;
+  }
+
+  public boolean isFileValueStreamingEnabled() {
+    return fileValueStreamingEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setFileValueStreamingEnabled(boolean fileValueStreamingEnabled) {
+    this.fileValueStreamingEnabled = fileValueStreamingEnabled;
+    return this;
+  }
+
   public ProcessEngineConfigurationImpl setDefaultCharsetName(String defaultCharsetName) {
     this.defaultCharsetName = defaultCharsetName;
     return this;
@@ -3838,6 +4491,141 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     return this;
   }
 
+  public int getDbEntityCachePoolSize() {
+    return dbEntityCachePoolSize;
+  }
+
+  public ProcessEngineConfigurationImpl setDbEntityCachePoolSize(int dbEntityCachePoolSize) {
+    this.dbEntityCachePoolSize = dbEntityCachePoolSize;
+    return this;
+  }
+
+  public boolean isSecondLevelEntityCacheEnabled() {
+    return isSecondLevelEntityCacheEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setSecondLevelEntityCacheEnabled(boolean isSecondLevelEntityCacheEnabled) {
+    this.isSecondLevelEntityCacheEnabled = isSecondLevelEntityCacheEnabled;
+    return this;
+  }
+
+  public List<Class<? extends DbEntity>> getSecondLevelEntityCacheTypes() {
+    return secondLevelEntityCacheTypes;
+  }
+
+  public ProcessEngineConfigurationImpl setSecondLevelEntityCacheTypes(List<Class<? extends DbEntity>> secondLevelEntityCacheTypes) {
+    this.secondLevelEntityCacheTypes = secondLevelEntityCacheTypes;
+    return this;
+  }
+
+  public int getSecondLevelEntityCacheMaxSize() {
+    return secondLevelEntityCacheMaxSize;
+  }
+
+  public ProcessEngineConfigurationImpl setSecondLevelEntityCacheMaxSize(int secondLevelEntityCacheMaxSize) {
+    this.secondLevelEntityCacheMaxSize = secondLevelEntityCacheMaxSize;
+    return this;
+  }
+
+  public long getSecondLevelEntityCacheTimeToLive() {
+    return secondLevelEntityCacheTimeToLive;
+  }
+
+  public ProcessEngineConfigurationImpl setSecondLevelEntityCacheTimeToLive(long secondLevelEntityCacheTimeToLive) {
+    this.secondLevelEntityCacheTimeToLive = secondLevelEntityCacheTimeToLive;
+    return this;
+  }
+
+  public SecondLevelEntityCache getSecondLevelEntityCache() {
+    return secondLevelEntityCache;
+  }
+
+  public ProcessEngineConfigurationImpl setSecondLevelEntityCache(SecondLevelEntityCache secondLevelEntityCache) {
+    this.secondLevelEntityCache = secondLevelEntityCache;
+    return this;
+  }
+
+  public boolean isAuthorizationCacheEnabled() {
+    return isAuthorizationCacheEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setAuthorizationCacheEnabled(boolean isAuthorizationCacheEnabled) {
+    this.isAuthorizationCacheEnabled = isAuthorizationCacheEnabled;
+    return this;
+  }
+
+  public int getAuthorizationCacheMaxSize() {
+    return authorizationCacheMaxSize;
+  }
+
+  public ProcessEngineConfigurationImpl setAuthorizationCacheMaxSize(int authorizationCacheMaxSize) {
+    this.authorizationCacheMaxSize = authorizationCacheMaxSize;
+    return this;
+  }
+
+  public long getAuthorizationCacheTimeToLive() {
+    return authorizationCacheTimeToLive;
+  }
+
+  public ProcessEngineConfigurationImpl setAuthorizationCacheTimeToLive(long authorizationCacheTimeToLive) {
+    this.authorizationCacheTimeToLive = authorizationCacheTimeToLive;
+    return this;
+  }
+
+  public int getAuthorizationCacheInListThreshold() {
+    return authorizationCacheInListThreshold;
+  }
+
+  public ProcessEngineConfigurationImpl setAuthorizationCacheInListThreshold(int authorizationCacheInListThreshold) {
+    this.authorizationCacheInListThreshold = authorizationCacheInListThreshold;
+    return this;
+  }
+
+  public AuthorizationCache getAuthorizationCache() {
+    return authorizationCache;
+  }
+
+  public ProcessEngineConfigurationImpl setAuthorizationCache(AuthorizationCache authorizationCache) {
+    this.authorizationCache = authorizationCache;
+    return this;
+  }
+
+  public boolean isExpressionCompilationEnabled() {
+    return isExpressionCompilationEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setExpressionCompilationEnabled(boolean isExpressionCompilationEnabled) {
+    this.isExpressionCompilationEnabled = isExpressionCompilationEnabled;
+    return this;
+  }
+
+  public int getExpressionCompilationThreshold() {
+    return expressionCompilationThreshold;
+  }
+
+  public ProcessEngineConfigurationImpl setExpressionCompilationThreshold(int expressionCompilationThreshold) {
+    this.expressionCompilationThreshold = expressionCompilationThreshold;
+    return this;
+  }
+
+  public boolean isJdbcMultiRowInsertEnabled() {
+    return isJdbcMultiRowInsertEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setJdbcMultiRowInsertEnabled(boolean isJdbcMultiRowInsertEnabled) {
+    this.isJdbcMultiRowInsertEnabled = isJdbcMultiRowInsertEnabled;
+    return this;
+  }
+
+  public boolean isSkipLockedAcquisitionEnabled() {
+    return isSkipLockedAcquisitionEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setSkipLockedAcquisitionEnabled(boolean isSkipLockedAcquisitionEnabled) {
+    this.isSkipLockedAcquisitionEnabled = isSkipLockedAcquisitionEnabled;
+    return this;
+  }
+
   public DbEntityCacheKeyMapping getDbEntityCacheKeyMapping() {
     return dbEntityCacheKeyMapping;
   }
@@ -3870,6 +4658,14 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
   }
 
   public void close() {
+    if (idGenerator instanceof StripedDbIdGenerator) {
+      ((StripedDbIdGenerator) idGenerator).close();
+    }
+
+    if (historyEventLog != null) {
+      historyEventLog.close();
+    }
+
     if (forceCloseMybatisConnectionPool
         && dataSource instanceof PooledDataSource) {
 
@@ -3896,6 +4692,33 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     return isMetricsEnabled;
   }
 
+  public boolean isMetricsHistogramsEnabled() {
+    return isMetricsHistogramsEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setMetricsHistogramsEnabled(boolean isMetricsHistogramsEnabled) {
+    this.isMetricsHistogramsEnabled = isMetricsHistogramsEnabled;
+    return this;
+  }
+
+  public boolean isCommandProfilingEnabled() {
+    return isCommandProfilingEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setCommandProfilingEnabled(boolean isCommandProfilingEnabled) {
+    this.isCommandProfilingEnabled = isCommandProfilingEnabled;
+    return this;
+  }
+
+  public double getCommandProfilingSampleRate() {
+    return commandProfilingSampleRate;
+  }
+
+  public ProcessEngineConfigurationImpl setCommandProfilingSampleRate(double commandProfilingSampleRate) {
+    this.commandProfilingSampleRate = commandProfilingSampleRate;
+    return this;
+  }
+
   public DbMetricsReporter getDbMetricsReporter() {
     return dbMetricsReporter;
   }
@@ -3958,6 +4781,33 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     return this;
   }
 
+  public boolean isEnableScriptEnginePooling() {
+    return enableScriptEnginePooling;
+  }
+
+  public ProcessEngineConfigurationImpl setEnableScriptEnginePooling(boolean enableScriptEnginePooling) {
+    this.enableScriptEnginePooling = enableScriptEnginePooling;
+    return this;
+  }
+
+  public int getScriptEnginePoolSize() {
+    return scriptEnginePoolSize;
+  }
+
+  public ProcessEngineConfigurationImpl setScriptEnginePoolSize(int scriptEnginePoolSize) {
+    this.scriptEnginePoolSize = scriptEnginePoolSize;
+    return this;
+  }
+
+  public long getScriptEnginePoolMaxWait() {
+    return scriptEnginePoolMaxWait;
+  }
+
+  public ProcessEngineConfigurationImpl setScriptEnginePoolMaxWait(long scriptEnginePoolMaxWait) {
+    this.scriptEnginePoolMaxWait = scriptEnginePoolMaxWait;
+    return this;
+  }
+
   public boolean isEnableFetchScriptEngineFromProcessApplication() {
     return enableFetchScriptEngineFromProcessApplication;
   }
@@ -4372,6 +5222,42 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     return this;
   }
 
+  public boolean isHistoryCleanupRangeDeleteEnabled() {
+    return historyCleanupRangeDeleteEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setHistoryCleanupRangeDeleteEnabled(boolean historyCleanupRangeDeleteEnabled) {
+    this.historyCleanupRangeDeleteEnabled = historyCleanupRangeDeleteEnabled;
+    return this;
+  }
+
+  public boolean isHistoryCleanupPartitionDropEnabled() {
+    return historyCleanupPartitionDropEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setHistoryCleanupPartitionDropEnabled(boolean historyCleanupPartitionDropEnabled) {
+    this.historyCleanupPartitionDropEnabled = historyCleanupPartitionDropEnabled;
+    return this;
+  }
+
+  public boolean isHistoryPartitioningEnabled() {
+    return historyPartitioningEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setHistoryPartitioningEnabled(boolean historyPartitioningEnabled) {
+    this.historyPartitioningEnabled = historyPartitioningEnabled;
+    return this;
+  }
+
+  public int getHistoryPartitionPrecreateMonths() {
+    return historyPartitionPrecreateMonths;
+  }
+
+  public ProcessEngineConfigurationImpl setHistoryPartitionPrecreateMonths(int historyPartitionPrecreateMonths) {
+    this.historyPartitionPrecreateMonths = historyPartitionPrecreateMonths;
+    return this;
+  }
+
   public String getHistoryTimeToLive() {
     return historyTimeToLive;
   }
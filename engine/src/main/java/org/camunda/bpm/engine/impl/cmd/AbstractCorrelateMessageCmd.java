@@ -128,6 +128,10 @@ public abstract class AbstractCorrelateMessageCmd {
     return execution;
   }
 
+  public String getMessageName() {
+    return messageName;
+  }
+
   protected VariableMap resolveStartVariables() {
     VariableMap mergedVariables = Variables.createVariables();
     mergedVariables.putAll(builder.getPayloadProcessInstanceVariables());
@@ -302,4 +302,11 @@ public class CommandLogger extends ProcessEngineLogger {
       "Propagation of escalation {} failed. ",
       escalationCode), cause);
   }
+
+  public void debugCorrelateMessagesSeparately(int numberOfMessages, Throwable cause) {
+    logDebug(
+        "045",
+        "Correlating {} messages in one transaction failed, correlating them in separate transactions: {}",
+        numberOfMessages, cause.getMessage());
+  }
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.cmd;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.camunda.bpm.engine.AuthorizationException;
+import org.camunda.bpm.engine.MismatchingMessageCorrelationException;
+import org.camunda.bpm.engine.impl.db.entitymanager.DbEntityManager;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.runtime.CorrelationHandlerResult;
+import org.camunda.bpm.engine.impl.runtime.MessageCorrelationBatchResultImpl;
+import org.camunda.bpm.engine.runtime.MessageCorrelationBatchResult;
+import org.camunda.bpm.engine.runtime.MessageCorrelationResult;
+
+/**
+ * Correlates several messages in one command context. The target of each message is
+ * resolved and authorized before it is triggered. A message which does not match or
+ * which the user is not authorized to correlate is reported as failed without affecting
+ * the other messages, since nothing has been changed at that point. Any other exception,
+ * and any exception raised while a target is triggered (even a mismatching correlation
+ * thrown by a delegate), fails the whole command.
+ */
+public class CorrelateMessageBatchCmd implements Command<List<MessageCorrelationBatchResult>> {
+
+  protected final List<CorrelateMessageCmd> correlations;
+
+  public CorrelateMessageBatchCmd(List<CorrelateMessageCmd> correlations) {
+    this.correlations = correlations;
+  }
+
+  public List<MessageCorrelationBatchResult> execute(CommandContext commandContext) {
+    List<MessageCorrelationBatchResult> results = new ArrayList<>(correlations.size());
+    DbEntityManager dbEntityManager = commandContext.getDbEntityManager();
+
+    for (CorrelateMessageCmd correlation : correlations) {
+      CorrelationHandlerResult handlerResult;
+      try {
+        handlerResult = correlation.resolveCorrelation(commandContext);
+
+      } catch (MismatchingMessageCorrelationException | AuthorizationException e) {
+        results.add(MessageCorrelationBatchResultImpl.failed(correlation.getMessageName(), e));
+        continue;
+      }
+
+      // the execution may have been changed partially if triggering fails, so the exception is not caught
+      MessageCorrelationResult correlationResult = correlation.trigger(commandContext, handlerResult);
+
+      // queries do not see changes which are only in the entity cache; flush them so that
+      // the next message is correlated against the same state as in a separate transaction
+      dbEntityManager.flush();
+
+      results.add(MessageCorrelationBatchResultImpl.correlated(correlation.getMessageName(), correlationResult));
+    }
+
+    return results;
+  }
+
+}
@@ -56,6 +56,15 @@ public class CorrelateMessageCmd extends AbstractCorrelateMessageCmd implements
   }
 
   public MessageCorrelationResultImpl execute(final CommandContext commandContext) {
+    CorrelationHandlerResult correlationResult = resolveCorrelation(commandContext);
+    return trigger(commandContext, correlationResult);
+  }
+
+  /**
+   * Resolves the target of the message and checks the authorization to correlate it.
+   * Nothing is changed, so a failure leaves the command context untouched.
+   */
+  public CorrelationHandlerResult resolveCorrelation(final CommandContext commandContext) {
     ensureAtLeastOneNotNull(
         "At least one of the following correlation criteria has to be present: " + "messageName, businessKey, correlationKeys, processInstanceId", messageName,
         builder.getBusinessKey(), builder.getCorrelationProcessInstanceVariables(), builder.getProcessInstanceId());
@@ -92,6 +101,13 @@ public class CorrelateMessageCmd extends AbstractCorrelateMessageCmd implements
     // check authorization
     checkAuthorization(correlationResult);
 
+    return correlationResult;
+  }
+
+  /**
+   * Triggers the resolved target, i.e. continues the execution or starts the process instance.
+   */
+  public MessageCorrelationResultImpl trigger(CommandContext commandContext, CorrelationHandlerResult correlationResult) {
     return createMessageCorrelationResult(commandContext, correlationResult);
   }
 }
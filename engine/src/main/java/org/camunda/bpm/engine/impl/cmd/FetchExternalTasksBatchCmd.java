@@ -0,0 +1,138 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.cmd;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.camunda.bpm.engine.externaltask.LockedExternalTask;
+import org.camunda.bpm.engine.impl.db.DbEntity;
+import org.camunda.bpm.engine.impl.db.entitymanager.OptimisticLockingListener;
+import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbEntityOperation;
+import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbOperation;
+import org.camunda.bpm.engine.impl.externaltask.LockedExternalTaskImpl;
+import org.camunda.bpm.engine.impl.externaltask.TopicFetchInstruction;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.ExternalTaskEntity;
+import org.camunda.bpm.engine.impl.util.EnsureUtil;
+
+/**
+ * Fetches and locks external tasks for several workers that share the same fetch
+ * instructions with a single query. The selected tasks are handed out to the workers
+ * in the given order, each worker receiving at most its maximum number of tasks.
+ */
+public class FetchExternalTasksBatchCmd implements Command<List<List<LockedExternalTask>>> {
+
+  protected List<String> workerIds;
+  protected List<Integer> maxResults;
+  protected boolean usePriority;
+  protected Map<String, TopicFetchInstruction> fetchInstructions;
+
+  public FetchExternalTasksBatchCmd(List<String> workerIds, List<Integer> maxResults, Map<String, TopicFetchInstruction> instructions, boolean usePriority) {
+    this.workerIds = workerIds;
+    this.maxResults = maxResults;
+    this.fetchInstructions = instructions;
+    this.usePriority = usePriority;
+  }
+
+  @Override
+  public List<List<LockedExternalTask>> execute(CommandContext commandContext) {
+    validateInput();
+
+    for (TopicFetchInstruction instruction : fetchInstructions.values()) {
+      instruction.ensureVariablesInitialized();
+    }
+
+    int totalResults = 0;
+    for (Integer maxResult : maxResults) {
+      totalResults += maxResult;
+    }
+
+    List<ExternalTaskEntity> externalTasks = commandContext
+      .getExternalTaskManager()
+      .selectExternalTasksForTopics(fetchInstructions.values(), totalResults, usePriority);
+
+    final List<List<LockedExternalTask>> results = new ArrayList<List<LockedExternalTask>>();
+    Iterator<ExternalTaskEntity> taskIterator = externalTasks.iterator();
+
+    for (int i = 0; i < workerIds.size(); i++) {
+      List<LockedExternalTask> result = new ArrayList<LockedExternalTask>();
+
+      while (result.size() < maxResults.get(i) && taskIterator.hasNext()) {
+        ExternalTaskEntity entity = taskIterator.next();
+
+        TopicFetchInstruction fetchInstruction = fetchInstructions.get(entity.getTopicName());
+        entity.lock(workerIds.get(i), fetchInstruction.getLockDuration());
+
+        result.add(LockedExternalTaskImpl.fromEntity(entity, fetchInstruction.getVariablesToFetch(),
+            fetchInstruction.isLocalVariables(), fetchInstruction.isDeserializeVariables()));
+      }
+
+      results.add(result);
+    }
+
+    filterOnOptimisticLockingFailure(commandContext, results);
+
+    return results;
+  }
+
+  protected void filterOnOptimisticLockingFailure(CommandContext commandContext, final List<List<LockedExternalTask>> results) {
+    commandContext.getDbEntityManager().registerOptimisticLockingListener(new OptimisticLockingListener() {
+
+      public Class<? extends DbEntity> getEntityType() {
+        return ExternalTaskEntity.class;
+      }
+
+      public void failedOperation(DbOperation operation) {
+        if (operation instanceof DbEntityOperation) {
+          DbEntity dbEntity = ((DbEntityOperation) operation).getEntity();
+
+          for (List<LockedExternalTask> result : results) {
+            Iterator<LockedExternalTask> it = result.iterator();
+            while (it.hasNext()) {
+              if (it.next().getId().equals(dbEntity.getId())) {
+                it.remove();
+                return;
+              }
+            }
+          }
+
+          throw FetchExternalTasksCmd.LOG.concurrentUpdateDbEntityException(operation);
+        }
+      }
+    });
+  }
+
+  protected void validateInput() {
+    EnsureUtil.ensureNotEmpty("workerIds", workerIds);
+    EnsureUtil.ensureNotNull("maxResults", maxResults);
+    EnsureUtil.ensureEquals("number of maxResults", maxResults.size(), workerIds.size());
+
+    for (int i = 0; i < workerIds.size(); i++) {
+      EnsureUtil.ensureNotNull("workerId", workerIds.get(i));
+      EnsureUtil.ensureGreaterThanOrEqual("maxResults", maxResults.get(i), 0);
+    }
+
+    for (TopicFetchInstruction instruction : fetchInstructions.values()) {
+      EnsureUtil.ensureNotNull("topicName", instruction.getTopicName());
+      EnsureUtil.ensurePositive("lockTime", instruction.getLockDuration());
+    }
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.cmd;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.metrics.CommandExecutionStatisticsImpl;
+import org.camunda.bpm.engine.impl.metrics.CommandStatistics;
+import org.camunda.bpm.engine.impl.metrics.MetricsRegistry;
+import org.camunda.bpm.engine.management.CommandExecutionStatistics;
+
+public class GetCommandExecutionStatisticsCmd implements Command<List<CommandExecutionStatistics>>, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  public List<CommandExecutionStatistics> execute(CommandContext commandContext) {
+    commandContext.getAuthorizationManager().checkCamundaAdmin();
+
+    List<CommandExecutionStatistics> statistics = new ArrayList<>();
+    MetricsRegistry metricsRegistry = commandContext.getProcessEngineConfiguration().getMetricsRegistry();
+    if (metricsRegistry != null) {
+      for (CommandStatistics commandStatistics : metricsRegistry.getCommandStatistics().values()) {
+        statistics.add(new CommandExecutionStatisticsImpl(commandStatistics));
+      }
+    }
+
+    Collections.sort(statistics, new Comparator<CommandExecutionStatistics>() {
+      public int compare(CommandExecutionStatistics first, CommandExecutionStatistics second) {
+        return Long.compare(second.getTotalDuration(), first.getTotalDuration());
+      }
+    });
+    return statistics;
+  }
+
+}
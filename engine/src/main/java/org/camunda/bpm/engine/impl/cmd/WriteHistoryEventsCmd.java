@@ -0,0 +1,44 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.cmd;
+
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.history.handler.HistoryEventHandler;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+
+/**
+ * Writes history events that were produced by other, already committed transactions.
+ */
+public class WriteHistoryEventsCmd implements Command<Void> {
+
+  protected HistoryEventHandler historyEventHandler;
+  protected List<HistoryEvent> historyEvents;
+
+  public WriteHistoryEventsCmd(HistoryEventHandler historyEventHandler, List<HistoryEvent> historyEvents) {
+    this.historyEventHandler = historyEventHandler;
+    this.historyEvents = historyEvents;
+  }
+
+  public Void execute(CommandContext commandContext) {
+    historyEventHandler.handleEvents(historyEvents);
+    return null;
+  }
+
+}
@@ -16,7 +16,9 @@
  */
 package org.camunda.bpm.engine.impl.cmmn.entity.runtime;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 
 import org.camunda.bpm.engine.BadUserRequestException;
@@ -130,6 +132,11 @@ public class CaseExecutionManager extends AbstractManager {
     return getDbEntityManager().selectList("selectCaseExecutionsByCaseInstanceId", caseInstanceId);
   }
 
+  @SuppressWarnings("unchecked")
+  public List<CaseExecutionEntity> findCaseExecutionsByCaseInstanceIds(Collection<String> caseInstanceIds) {
+    return getDbEntityManager().selectList("selectCaseExecutionsByCaseInstanceIds", new ArrayList<String>(caseInstanceIds));
+  }
+
   protected void configureTenantCheck(AbstractQuery<?, ?> query) {
     getTenantManager().configureQuery(query);
   }
@@ -28,6 +28,7 @@ import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbBulkOperation;
 import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbEntityOperation;
 import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbOperation;
 import org.camunda.bpm.engine.impl.history.HistoryLevel;
+import org.camunda.bpm.engine.impl.util.CollectionUtil;
 
 /**
  * @author Sebastian Menski
@@ -37,6 +38,11 @@ public abstract class AbstractPersistenceSession implements PersistenceSession {
   protected static final EnginePersistenceLogger LOG = ProcessEngineLogger.PERSISTENCE_LOGGER;
   protected List<EntityLoadListener> listeners = new ArrayList<>(1);
 
+  public List<List<DbOperation>> partitionDbOperations(List<DbOperation> operations, int statementsPerPartition) {
+    // one statement per operation
+    return CollectionUtil.partition(operations, statementsPerPartition);
+  }
+
   public void executeDbOperation(DbOperation operation) {
     switch(operation.getOperationType()) {
 
@@ -0,0 +1,118 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.db;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.camunda.commons.utils.cache.Cache;
+import org.camunda.commons.utils.cache.ConcurrentLruCache;
+
+/**
+ * <p>A cache shared by all commands of a process engine for the results of the
+ * queries behind authorization checks, i.e. the groups for which authorizations exist,
+ * whether revoke authorizations are in use, the results of checks for single resources
+ * and the ids of the resources a user or its groups are granted a permission on.</p>
+ *
+ * <p>Every write of authorizations, memberships or tenant memberships by a command of
+ * this engine invalidates the complete cache, once when the command flushes and again
+ * when its transaction has ended. Each entry remembers the generation of the cache the
+ * result was read in, so that results read before an invalidation are never returned
+ * after it. Writes of other cluster nodes are only noticed after the time to live of an
+ * entry has passed.</p>
+ */
+public class AuthorizationCache {
+
+  protected Cache<Object, CacheEntry> cachedResults;
+
+  protected AtomicLong generation = new AtomicLong();
+
+  protected long timeToLive;
+
+  /**
+   * @param maxSize the maximum number of cached results
+   * @param timeToLive the time in milliseconds after which a result is read from the database again
+   */
+  public AuthorizationCache(int maxSize, long timeToLive) {
+    this.cachedResults = new ConcurrentLruCache<Object, CacheEntry>(maxSize);
+    this.timeToLive = timeToLive;
+  }
+
+  /**
+   * @return the current generation of the cache, to be obtained before the cached result is
+   * read from the database and passed to {@link #put(long, Object, Object)}
+   */
+  public long getGeneration() {
+    return generation.get();
+  }
+
+  /**
+   * @return the cached result for the given key or null if no valid result is cached
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key) {
+    CacheEntry entry = cachedResults.get(key);
+    if (entry == null) {
+      return null;
+    }
+
+    if (entry.generation != generation.get() || ClockUtil.getCurrentTime().getTime() > entry.expirationTime) {
+      cachedResults.remove(key);
+      return null;
+    }
+
+    return (T) entry.value;
+  }
+
+  /**
+   * Caches a result, which must not be modified afterwards.
+   *
+   * @param generation the generation obtained before the result was read
+   */
+  public void put(long generation, Object key, Object value) {
+    if (generation == this.generation.get()) {
+      long expirationTime = ClockUtil.getCurrentTime().getTime() + timeToLive;
+      cachedResults.put(key, new CacheEntry(generation, expirationTime, value));
+    }
+  }
+
+  /**
+   * Invalidates all cached results, including the ones which are currently read.
+   */
+  public void invalidate() {
+    generation.incrementAndGet();
+    cachedResults.clear();
+  }
+
+  public int size() {
+    return cachedResults.size();
+  }
+
+  protected static class CacheEntry {
+
+    protected final long generation;
+    protected final long expirationTime;
+    protected final Object value;
+
+    public CacheEntry(long generation, long expirationTime, Object value) {
+      this.generation = generation;
+      this.expirationTime = expirationTime;
+      this.value = value;
+    }
+  }
+
+}
@@ -62,6 +62,13 @@ public class AuthorizationCheck implements Serializable {
 
   protected CompositePermissionCheck permissionChecks = new CompositePermissionCheck();
 
+  /**
+   * If not null, the ids of the resources the user or its groups are granted the
+   * single permission check on. Queries then check the resource id against this
+   * list instead of joining the authorizations.
+   */
+  protected List<String> authorizedResourceIds;
+
   public AuthorizationCheck() {
   }
 
@@ -153,4 +160,12 @@ public class AuthorizationCheck implements Serializable {
     this.isRevokeAuthorizationCheckEnabled = isRevokeAuthorizationCheckEnabled;
   }
 
+  public List<String> getAuthorizedResourceIds() {
+    return authorizedResourceIds;
+  }
+
+  public void setAuthorizedResourceIds(List<String> authorizedResourceIds) {
+    this.authorizedResourceIds = authorizedResourceIds;
+  }
+
 }
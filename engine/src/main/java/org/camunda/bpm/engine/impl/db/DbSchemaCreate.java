@@ -16,20 +16,38 @@
  */
 package org.camunda.bpm.engine.impl.db;
 
+import java.util.Arrays;
+
 import org.camunda.bpm.engine.ProcessEngineConfiguration;
 import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
 
 
 /**
+ * Creates the database schema. Pass {@value #PARTITIONED_HISTORY_ARGUMENT} to create
+ * the range-partitioned history schema variant (PostgreSQL and Oracle only).
+ *
  * @author Tom Baeyens
  */
 public class DbSchemaCreate {
 
+  public static final String PARTITIONED_HISTORY_ARGUMENT = "--partitioned-history";
+
   public static void main(String[] args) {
-    ProcessEngineConfiguration
-      .createProcessEngineConfigurationFromResourceDefault()
-      .setDatabaseSchemaUpdate(ProcessEngineConfigurationImpl.DB_SCHEMA_UPDATE_CREATE)
+    ProcessEngineConfiguration configuration = ProcessEngineConfiguration
+      .createProcessEngineConfigurationFromResourceDefault();
+
+    configure((ProcessEngineConfigurationImpl) configuration, args)
       .buildProcessEngine();
   }
 
+  public static ProcessEngineConfigurationImpl configure(ProcessEngineConfigurationImpl configuration, String[] args) {
+    configuration.setDatabaseSchemaUpdate(ProcessEngineConfigurationImpl.DB_SCHEMA_UPDATE_CREATE);
+
+    if (Arrays.asList(args).contains(PARTITIONED_HISTORY_ARGUMENT)) {
+      configuration.setHistoryPartitioningEnabled(true);
+    }
+
+    return configuration;
+  }
+
 }
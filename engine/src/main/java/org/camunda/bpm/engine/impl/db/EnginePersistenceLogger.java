@@ -34,6 +34,7 @@ import org.camunda.bpm.engine.WrongDbException;
 import org.camunda.bpm.engine.exception.NotValidException;
 import org.camunda.bpm.engine.impl.ProcessEngineLogger;
 import org.camunda.bpm.engine.impl.db.entitymanager.cache.CachedDbEntity;
+import org.camunda.bpm.engine.impl.db.entitymanager.cache.DbEntityCache;
 import org.camunda.bpm.engine.impl.db.entitymanager.cache.DbEntityState;
 import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbOperation;
 import org.camunda.bpm.engine.impl.history.HistoryLevel;
@@ -139,9 +140,9 @@ public class EnginePersistenceLogger extends ProcessEngineLogger {
     ));
   }
 
-  public void flushedCacheState(List<CachedDbEntity> cachedEntities) {
+  public void flushedCacheState(DbEntityCache dbEntityCache) {
     if(isDebugEnabled()) {
-      logDebug("006", "Cache state after flush: {}", buildStringFromList(cachedEntities));
+      logDebug("006", "Cache state after flush: {}", buildStringFromList(dbEntityCache.getCachedEntities()));
     }
 
   }
@@ -743,4 +744,174 @@ public class EnginePersistenceLogger extends ProcessEngineLogger {
         + "Failed operation: {}",
         operation));
   }
+
+  public void deploymentCacheWarmedUp(int numberOfDefinitions, long durationInMillis) {
+    logInfo(
+        "090",
+        "Warmed up the deployment cache with {} definitions in {} ms",
+        numberOfDefinitions, durationInMillis);
+  }
+
+  public void deploymentCacheWarmUpFailure(String definitionId, Exception e) {
+    logWarn(
+        "091",
+        "Could not warm up the deployment cache with definition '{}'. Reason: '{}'",
+        definitionId, e.getMessage(), e);
+  }
+
+  public void deploymentCacheInvalidationPollingFailure(Exception e) {
+    logWarn(
+        "092",
+        "Could not poll the deployment cache invalidation events. Reason: '{}'",
+        e.getMessage(), e);
+  }
+
+  public void evictDefinitionFromDeploymentCache(String type, String definitionId) {
+    logDebug(
+        "093",
+        "Evicting {} with id '{}' from the deployment cache since it was removed from the database",
+        type, definitionId);
+  }
+
+  public BadUserRequestException uninitializedFetchedVariablesException() {
+    return new BadUserRequestException(exceptionMessage(
+      "094",
+      "The variables are not fetched. You must call withVariables() on the query before you can " +
+      "retrieve the fetched variables."
+    ));
+  }
+
+  public void asyncHistoryEventWriteRetry(int numberOfTransactions, Exception e) {
+    logWarn(
+        "095",
+        "Could not write the history events of {} transactions at once, writing them transaction by transaction. Reason: '{}'",
+        numberOfTransactions, e.getMessage(), e);
+  }
+
+  public void asyncHistoryEventWriteFailure(int failedAttempts, List<String> eventIds, Exception e) {
+    logError(
+        "096",
+        "Could not write the history events of a committed transaction in {} attempts, the events are lost. " +
+        "Ids of the lost events: {}. Reason: '{}'",
+        failedAttempts, eventIds, e.getMessage(), e);
+  }
+
+  public void asyncHistoryEventWriterStopped(int pendingEvents) {
+    logWarn(
+        "097",
+        "Stopped writing history events with {} events still pending",
+        pendingEvents);
+  }
+
+  public ProcessEngineException historyEventEncodingException(String eventType, Exception cause) {
+    return new ProcessEngineException(exceptionMessage(
+      "098",
+      "Cannot encode history event of type '{}'",
+      eventType), cause);
+  }
+
+  public ProcessEngineException historyEventDecodingException(Exception cause) {
+    return new ProcessEngineException(exceptionMessage(
+      "099",
+      "Cannot decode history event from the history event log. Reason: {}",
+      cause.getMessage()), cause);
+  }
+
+  public ProcessEngineException historyEventLogException(String operation, String path, Exception cause) {
+    return new ProcessEngineException(exceptionMessage(
+      "100",
+      "Cannot {} history event log segment '{}'. Reason: {}",
+      operation, path, cause.getMessage()), cause);
+  }
+
+  public void historyEventLogTruncated(String path, long position) {
+    logWarn(
+        "101",
+        "Truncating incomplete record at position {} of history event log segment '{}'",
+        position, path);
+  }
+
+  public void historyEventLogReplayed(long numberOfEvents, long nextSequence) {
+    logInfo(
+        "102",
+        "Replayed {} history events from the history event log, next sequence number is {}",
+        numberOfEvents, nextSequence);
+  }
+
+  public ProcessEngineException byteArrayNotFoundException(String byteArrayId) {
+    return new ProcessEngineException(exceptionMessage(
+      "103",
+      "Cannot stream the content of byte array '{}': it does not exist",
+      byteArrayId));
+  }
+
+  public ProcessEngineException byteArrayStreamException(String byteArrayId, Exception cause) {
+    return new ProcessEngineException(exceptionMessage(
+      "104",
+      "Cannot stream the content of byte array '{}'. Reason: {}",
+      byteArrayId, cause.getMessage()), cause);
+  }
+
+  public void secondLevelCacheSnapshotFailed(DbEntity entity, Exception cause) {
+    logDebug(
+      "105",
+      "Cannot put entity '{}' into the second level cache. Reason: {}",
+      entity, cause.getMessage());
+  }
+
+  public void secondLevelCacheCopyFailed(Class<?> entityType, String id, Exception cause) {
+    logWarn(
+      "106",
+      "Cannot copy entity of type '{}' with id '{}' from the second level cache. Reason: {}",
+      entityType.getName(), id, cause.getMessage());
+  }
+
+  public void rebuildingCorrelationIndex(String variableNames) {
+    logInfo(
+      "107",
+      "Rebuilding the message correlation index for the variables '{}'",
+      variableNames);
+  }
+
+  public void removingCorrelationIndex() {
+    logInfo(
+      "108",
+      "Removing the message correlation index since no correlation index variables are configured");
+  }
+
+  public void asyncHistoryEventWriteRetryScheduled(int numberOfEvents, int failedAttempts, long backoffMillis, Exception e) {
+    logWarn(
+        "109",
+        "Could not write {} history events of a committed transaction in {} attempts, retrying in {} ms. Reason: '{}'",
+        numberOfEvents, failedAttempts, backoffMillis, e.getMessage(), e);
+  }
+
+  public void unclosedByteArrayStreamReleased(String byteArrayId) {
+    logWarn(
+        "110",
+        "Releasing the connection of a stream over byte array '{}' which was neither read to its end nor closed",
+        byteArrayId);
+  }
+
+  public void unclosedByteArrayStreamReleaseFailed(String byteArrayId, Exception cause) {
+    logWarn(
+        "111",
+        "Cannot release the connection of a stream over byte array '{}'. Reason: {}",
+        byteArrayId, cause.getMessage(), cause);
+  }
+
+  public void historyEventStagedAfterCommit(String eventId) {
+    logWarn(
+        "112",
+        "History event '{}' was produced after its transaction was committed, writing it in a separate transaction",
+        eventId);
+  }
+
+  public void historyEventStagedAfterRollback(String eventId) {
+    logWarn(
+        "113",
+        "History event '{}' was produced after its transaction was rolled back, discarding it",
+        eventId);
+  }
+
 }
@@ -54,6 +54,13 @@ public interface PersistenceSession extends Session {
    */
   FlushResult executeDbOperations(List<DbOperation> operations);
 
+  /**
+   * Splits the operations of a flush into the lists which are passed to
+   * {@link #executeDbOperations(List)} one after another, so that each list is
+   * executed with at most the given number of statements.
+   */
+  List<List<DbOperation>> partitionDbOperations(List<DbOperation> operations, int statementsPerPartition);
+
   void flushOperations();
 
   List<?> selectList(String statement, Object parameter);
@@ -0,0 +1,240 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.db;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.cmd.GetNextIdBlockCmd;
+import org.camunda.bpm.engine.impl.metrics.MetricsRegistry;
+import org.camunda.bpm.engine.management.Metrics;
+
+/**
+ * <p>{@link DbIdGenerator} that hands out ids without a global monitor.</p>
+ *
+ * <p>Threads are mapped to a fixed number of stripes, each owning its own block of
+ * ids. Ids are taken from a block with a single atomic increment. Once half of a block
+ * is used up, the next block is fetched in the background, so that threads usually do
+ * not wait for the database when a block runs out.</p>
+ *
+ * <p>All blocks are fetched by a single background thread, so that the stripes of one
+ * generator never compete for the id property in the database.</p>
+ */
+public class StripedDbIdGenerator extends DbIdGenerator {
+
+  protected int stripes;
+
+  protected IdStripe[] idStripes;
+
+  protected ExecutorService fetchExecutor;
+
+  protected MetricsRegistry metricsRegistry;
+
+  @Override
+  public String getNextId() {
+    IdStripe stripe = getStripe();
+
+    while (true) {
+      IdRange range = stripe.current;
+      long id = range.nextId.getAndIncrement();
+
+      if (id <= range.lastId) {
+        if (id == range.prefetchId) {
+          prefetchBlock(stripe);
+        }
+        return Long.toString(id);
+      }
+
+      refill(stripe, range);
+    }
+  }
+
+  protected IdStripe getStripe() {
+    IdStripe[] currentStripes = idStripes;
+    int index = (int) (Thread.currentThread().getId() % currentStripes.length);
+    return currentStripes[index];
+  }
+
+  protected void prefetchBlock(IdStripe stripe) {
+    FutureTask<IdBlock> fetchTask = new FutureTask<>(createFetchCallable());
+    if (stripe.nextBlock.compareAndSet(null, fetchTask)) {
+      getFetchExecutor().execute(fetchTask);
+    }
+  }
+
+  protected void refill(IdStripe stripe, IdRange exhaustedRange) {
+    ReentrantLock lock = stripe.lock;
+    if (!lock.tryLock()) {
+      markOccurrence(Metrics.ID_GENERATOR_CONTENTION);
+      lock.lock();
+    }
+
+    try {
+      if (stripe.current != exhaustedRange) {
+        // another thread has already refilled the stripe
+        return;
+      }
+
+      Future<IdBlock> nextBlock = stripe.nextBlock.getAndSet(null);
+      if (nextBlock == null) {
+        nextBlock = getFetchExecutor().submit(createFetchCallable());
+      }
+
+      IdBlock idBlock = awaitBlock(nextBlock);
+      stripe.current = new IdRange(idBlock);
+
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  protected IdBlock awaitBlock(Future<IdBlock> nextBlock) {
+    try {
+      return nextBlock.get();
+
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ProcessEngineException("Interrupted while waiting for the next block of ids", e);
+
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else {
+        throw new ProcessEngineException("Could not fetch the next block of ids", cause);
+      }
+    }
+  }
+
+  protected Callable<IdBlock> createFetchCallable() {
+    return new Callable<IdBlock>() {
+      public IdBlock call() {
+        IdBlock idBlock = commandExecutor.execute(new GetNextIdBlockCmd(idBlockSize));
+        markOccurrence(Metrics.ID_BLOCK_FETCH);
+        return idBlock;
+      }
+    };
+  }
+
+  protected synchronized ExecutorService getFetchExecutor() {
+    if (fetchExecutor == null) {
+      ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60L, TimeUnit.SECONDS,
+          new LinkedBlockingQueue<Runnable>(), new IdBlockFetchThreadFactory());
+      executor.allowCoreThreadTimeOut(true);
+      fetchExecutor = executor;
+    }
+    return fetchExecutor;
+  }
+
+  protected void markOccurrence(String name) {
+    if (metricsRegistry != null) {
+      metricsRegistry.markOccurrence(name);
+    }
+  }
+
+  /**
+   * Reset inner state so that all stripes fetch a new block of IDs from the database
+   * when the next ID generation request is received. Prefetched blocks are discarded.
+   */
+  @Override
+  public void reset() {
+    super.reset();
+
+    int numberOfStripes = stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors();
+    IdStripe[] newStripes = new IdStripe[numberOfStripes];
+    for (int i = 0; i < numberOfStripes; i++) {
+      newStripes[i] = new IdStripe();
+    }
+    idStripes = newStripes;
+  }
+
+  /**
+   * Stops the background thread fetching blocks of ids.
+   */
+  public synchronized void close() {
+    if (fetchExecutor != null) {
+      fetchExecutor.shutdownNow();
+      fetchExecutor = null;
+    }
+  }
+
+  public int getStripes() {
+    return stripes;
+  }
+
+  public void setStripes(int stripes) {
+    this.stripes = stripes;
+    reset();
+  }
+
+  public MetricsRegistry getMetricsRegistry() {
+    return metricsRegistry;
+  }
+
+  public void setMetricsRegistry(MetricsRegistry metricsRegistry) {
+    this.metricsRegistry = metricsRegistry;
+  }
+
+  protected static class IdStripe {
+
+    protected final ReentrantLock lock = new ReentrantLock();
+
+    protected volatile IdRange current = IdRange.EXHAUSTED;
+
+    protected final AtomicReference<Future<IdBlock>> nextBlock = new AtomicReference<>();
+
+  }
+
+  protected static class IdRange {
+
+    protected static final IdRange EXHAUSTED = new IdRange(new IdBlock(0, -1));
+
+    protected final AtomicLong nextId;
+    protected final long lastId;
+    /** the id on which the next block is prefetched */
+    protected final long prefetchId;
+
+    public IdRange(IdBlock idBlock) {
+      this.nextId = new AtomicLong(idBlock.getNextId());
+      this.lastId = idBlock.getLastId();
+      this.prefetchId = idBlock.getNextId() + (idBlock.getLastId() - idBlock.getNextId()) / 2;
+    }
+
+  }
+
+  protected static class IdBlockFetchThreadFactory implements ThreadFactory {
+
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, "camunda-id-block-fetcher");
+      thread.setDaemon(true);
+      return thread;
+    }
+
+  }
+
+}
@@ -30,7 +30,10 @@ import static org.camunda.bpm.engine.impl.db.entitymanager.operation.DbOperation
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Queue;
+import java.util.Set;
 
 import org.camunda.bpm.engine.OptimisticLockingException;
 import org.camunda.bpm.engine.ProcessEngineException;
@@ -54,6 +57,7 @@ import org.camunda.bpm.engine.impl.cfg.IdGenerator;
 import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
 import org.camunda.bpm.engine.impl.cmmn.entity.repository.CaseDefinitionQueryImpl;
 import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.db.AuthorizationCache;
 import org.camunda.bpm.engine.impl.db.DbEntity;
 import org.camunda.bpm.engine.impl.db.DbEntityLifecycleAware;
 import org.camunda.bpm.engine.impl.db.EnginePersistenceLogger;
@@ -65,6 +69,8 @@ import org.camunda.bpm.engine.impl.db.PersistenceSession;
 import org.camunda.bpm.engine.impl.db.entitymanager.cache.CachedDbEntity;
 import org.camunda.bpm.engine.impl.db.entitymanager.cache.DbEntityCache;
 import org.camunda.bpm.engine.impl.db.entitymanager.cache.DbEntityState;
+import org.camunda.bpm.engine.impl.db.entitymanager.cache.SecondLevelEntityCache;
+import org.camunda.bpm.engine.impl.db.entitymanager.cache.SecondLevelEntityCache.CacheEntry;
 import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbBulkOperation;
 import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbEntityOperation;
 import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbOperation;
@@ -73,10 +79,14 @@ import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbOperationManager
 import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbOperationType;
 import org.camunda.bpm.engine.impl.identity.db.DbGroupQueryImpl;
 import org.camunda.bpm.engine.impl.identity.db.DbUserQueryImpl;
+import org.camunda.bpm.engine.impl.interceptor.CommandInvocationContext;
 import org.camunda.bpm.engine.impl.interceptor.Session;
 import org.camunda.bpm.engine.impl.jobexecutor.JobExecutorContext;
+import org.camunda.bpm.engine.impl.metrics.CommandProfile;
+import org.camunda.bpm.engine.impl.persistence.entity.AuthorizationEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.ByteArrayEntity;
-import org.camunda.bpm.engine.impl.util.CollectionUtil;
+import org.camunda.bpm.engine.impl.persistence.entity.MembershipEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.TenantMembershipEntity;
 import org.camunda.bpm.engine.impl.util.EnsureUtil;
 import org.camunda.bpm.engine.repository.ResourceTypes;
 
@@ -98,19 +108,77 @@ public class DbEntityManager implements Session, EntityLoadListener {
 
   protected DbEntityCache dbEntityCache;
 
+  /**
+   * Pool the entity cache is taken from and returned to on close, null if the
+   * cache is not pooled (e.g. because it is reused by the job executor).
+   */
+  protected Queue<DbEntityCache> dbEntityCachePool;
+
+  /**
+   * The cache shared with other commands, null if disabled.
+   */
+  protected SecondLevelEntityCache secondLevelEntityCache;
+
+  /**
+   * Snapshots of entities loaded by this session, put into the second level
+   * cache when the session is closed without failure.
+   */
+  protected List<CacheEntry> secondLevelCacheCandidates;
+
+  /**
+   * The generation of the second level cache obtained before this session read any
+   * entity; candidates invalidated since are not put into the cache.
+   */
+  protected long secondLevelCacheGeneration;
+
+  /**
+   * Entities and entity types written by this session, invalidated in the second
+   * level cache on flush and again when the session is closed.
+   */
+  protected List<DbEntity> secondLevelCacheWrittenEntities;
+  protected Set<Class<?>> secondLevelCacheWrittenTypes;
+
+  /**
+   * The cache of authorization check results, null if disabled.
+   */
+  protected AuthorizationCache authorizationCache;
+
+  /**
+   * Whether this session wrote authorizations or memberships, which invalidates
+   * the authorization cache on flush and again when the session is closed.
+   */
+  protected boolean authorizationsWritten;
+
   protected DbOperationManager dbOperationManager;
 
   protected PersistenceSession persistenceSession;
   protected boolean isIgnoreForeignKeysForNextFlush;
 
   public DbEntityManager(IdGenerator idGenerator, PersistenceSession persistenceSession) {
+    this(idGenerator, persistenceSession, null);
+  }
+
+  public DbEntityManager(IdGenerator idGenerator, PersistenceSession persistenceSession, Queue<DbEntityCache> dbEntityCachePool) {
     this.idGenerator = idGenerator;
+    this.dbEntityCachePool = dbEntityCachePool;
     this.persistenceSession = persistenceSession;
     if (persistenceSession != null) {
       this.persistenceSession.addEntityLoadListener(this);
     }
     initializeEntityCache();
     initializeOperationManager();
+    initializeSecondLevelEntityCache();
+  }
+
+  protected void initializeSecondLevelEntityCache() {
+    ProcessEngineConfigurationImpl processEngineConfiguration = Context.getProcessEngineConfiguration();
+    if (processEngineConfiguration != null) {
+      secondLevelEntityCache = processEngineConfiguration.getSecondLevelEntityCache();
+      if (secondLevelEntityCache != null) {
+        secondLevelCacheGeneration = secondLevelEntityCache.getGeneration();
+      }
+      authorizationCache = processEngineConfiguration.getAuthorizationCache();
+    }
   }
 
   protected void initializeOperationManager() {
@@ -132,9 +200,19 @@ public class DbEntityManager implements Session, EntityLoadListener {
         jobExecutorContext.setEntityCache(dbEntityCache);
       }
 
+      // never hand out the job executor's cache to other commands
+      dbEntityCachePool = null;
+
     } else {
 
-      if (processEngineConfiguration != null) {
+      if (dbEntityCachePool != null && processEngineConfiguration != null) {
+        dbEntityCache = dbEntityCachePool.poll();
+      }
+
+      if (dbEntityCache != null) {
+        // the key mapping may have been changed since the cache was pooled
+        dbEntityCache.setCacheKeyMapping(processEngineConfiguration.getDbEntityCacheKeyMapping());
+      } else if (processEngineConfiguration != null) {
         dbEntityCache = new DbEntityCache(processEngineConfiguration.getDbEntityCacheKeyMapping());
       } else {
         dbEntityCache = new DbEntityCache();
@@ -207,6 +285,14 @@ public class DbEntityManager implements Session, EntityLoadListener {
       return persistentObject;
     }
 
+    if (secondLevelEntityCache != null && secondLevelEntityCache.isCached(entityClass)) {
+      persistentObject = secondLevelEntityCache.get(entityClass, id);
+      if (persistentObject != null) {
+        putLoadedEntity(persistentObject);
+        return persistentObject;
+      }
+    }
+
     persistentObject = persistenceSession.selectById(entityClass, id);
 
     if (persistentObject==null) {
@@ -256,16 +342,35 @@ public class DbEntityManager implements Session, EntityLoadListener {
     // we get a callback when the persistence session loads an object from the database
     DbEntity cachedPersistentObject = dbEntityCache.get(entity.getClass(), entity.getId());
     if(cachedPersistentObject == null) {
+      // snapshot the state as loaded, before postLoad() can change it
+      if (secondLevelEntityCache != null && secondLevelEntityCache.isCached(entity.getClass())) {
+        addSecondLevelCacheCandidate(entity);
+      }
+
       // only put into the cache if not already present
-      dbEntityCache.putPersistent(entity);
+      putLoadedEntity(entity);
+    }
 
-      // invoke postLoad() lifecycle method
-      if (entity instanceof DbEntityLifecycleAware) {
-        DbEntityLifecycleAware lifecycleAware = (DbEntityLifecycleAware) entity;
-        lifecycleAware.postLoad();
-      }
+  }
+
+  protected void putLoadedEntity(DbEntity entity) {
+    dbEntityCache.putPersistent(entity);
+
+    // invoke postLoad() lifecycle method
+    if (entity instanceof DbEntityLifecycleAware) {
+      DbEntityLifecycleAware lifecycleAware = (DbEntityLifecycleAware) entity;
+      lifecycleAware.postLoad();
     }
+  }
 
+  protected void addSecondLevelCacheCandidate(DbEntity entity) {
+    CacheEntry entry = secondLevelEntityCache.createEntry(entity);
+    if (entry != null) {
+      if (secondLevelCacheCandidates == null) {
+        secondLevelCacheCandidates = new ArrayList<>();
+      }
+      secondLevelCacheCandidates.add(entry);
+    }
   }
 
   public void lock(String statement) {
@@ -307,6 +412,15 @@ public class DbEntityManager implements Session, EntityLoadListener {
     }
 
     LOG.databaseFlushSummary(operationsToFlush);
+    CommandProfile.countDbOperations(operationsToFlush.size());
+
+    if (secondLevelEntityCache != null) {
+      invalidateSecondLevelCache(operationsToFlush);
+    }
+
+    if (authorizationCache != null) {
+      invalidateAuthorizationCache(operationsToFlush);
+    }
 
     // If we want to delete all table data as bulk operation, on tables which have self references,
     // We need to turn the foreign key check off on MySQL and MariaDB.
@@ -317,7 +431,7 @@ public class DbEntityManager implements Session, EntityLoadListener {
     }
 
     try {
-      final List<List<DbOperation>> batches = CollectionUtil.partition(operationsToFlush, BATCH_SIZE);
+      final List<List<DbOperation>> batches = persistenceSession.partitionDbOperations(operationsToFlush, BATCH_SIZE);
       for (List<DbOperation> batch : batches) {
         flushDbOperations(batch, operationsToFlush);
       }
@@ -432,7 +546,7 @@ public class DbEntityManager implements Session, EntityLoadListener {
     }
 
     // log cache state after flush
-    LOG.flushedCacheState(dbEntityCache.getCachedEntities());
+    LOG.flushedCacheState(dbEntityCache);
   }
 
   protected void flushCachedEntity(CachedDbEntity cachedDbEntity) {
@@ -445,15 +559,30 @@ public class DbEntityManager implements Session, EntityLoadListener {
       // mark PERSISTENT
       cachedDbEntity.setEntityState(PERSISTENT);
 
-    } else if(cachedDbEntity.getEntityState() == PERSISTENT && cachedDbEntity.isDirty()) {
-      // object is dirty -> perform UPDATE
-      performEntityOperation(cachedDbEntity, UPDATE);
+      // make a new copy
+      cachedDbEntity.makeCopy();
+      // update cached references
+      cachedDbEntity.determineEntityReferences();
+
+    } else if(cachedDbEntity.getEntityState() == PERSISTENT) {
+      // compares the persistent state with the copy and takes the new copy in one step
+      if (cachedDbEntity.updateCopy()) {
+        // object is dirty -> perform UPDATE
+        performEntityOperation(cachedDbEntity, UPDATE);
+        // update cached references
+        cachedDbEntity.determineEntityReferences();
+      }
+      // an unchanged object needs neither a new copy nor new references
 
     } else if(cachedDbEntity.getEntityState() == MERGED) {
       // perform UPDATE
       performEntityOperation(cachedDbEntity, UPDATE);
       // mark PERSISTENT
       cachedDbEntity.setEntityState(PERSISTENT);
+      // make a new copy
+      cachedDbEntity.makeCopy();
+      // update cached references
+      cachedDbEntity.determineEntityReferences();
 
     } else if(cachedDbEntity.getEntityState() == DELETED_TRANSIENT) {
       // remove from cache
@@ -467,14 +596,6 @@ public class DbEntityManager implements Session, EntityLoadListener {
       dbEntityCache.remove(cachedDbEntity);
 
     }
-
-    // if object is PERSISTENT after flush
-    if(cachedDbEntity.getEntityState() == PERSISTENT) {
-      // make a new copy
-      cachedDbEntity.makeCopy();
-      // update cached references
-      cachedDbEntity.determineEntityReferences();
-    }
   }
 
   public void insert(DbEntity dbEntity) {
@@ -587,8 +708,102 @@ public class DbEntityManager implements Session, EntityLoadListener {
     dbOperationManager.addOperation(dbOperation);
   }
 
+  /**
+   * Removes the written entities from the second level cache and remembers them,
+   * so that they are invalidated again once the transaction has ended.
+   */
+  protected void invalidateSecondLevelCache(List<DbOperation> operations) {
+    for (DbOperation operation : operations) {
+      Class<? extends DbEntity> entityType = operation.getEntityType();
+      if (!secondLevelEntityCache.isCached(entityType)) {
+        continue;
+      }
+
+      if (operation instanceof DbEntityOperation) {
+        DbEntity entity = ((DbEntityOperation) operation).getEntity();
+        secondLevelEntityCache.invalidate(entityType, entity.getId());
+        if (secondLevelCacheWrittenEntities == null) {
+          secondLevelCacheWrittenEntities = new ArrayList<>();
+        }
+        secondLevelCacheWrittenEntities.add(entity);
+      }
+      else {
+        secondLevelEntityCache.invalidateAll(entityType);
+        if (secondLevelCacheWrittenTypes == null) {
+          secondLevelCacheWrittenTypes = new HashSet<>();
+        }
+        secondLevelCacheWrittenTypes.add(entityType);
+      }
+    }
+  }
+
+  /**
+   * Invalidates the authorization cache if authorizations, memberships or tenant
+   * memberships are written.
+   */
+  protected void invalidateAuthorizationCache(List<DbOperation> operations) {
+    for (DbOperation operation : operations) {
+      Class<? extends DbEntity> entityType = operation.getEntityType();
+      if (AuthorizationEntity.class.isAssignableFrom(entityType)
+          || MembershipEntity.class.isAssignableFrom(entityType)
+          || TenantMembershipEntity.class.isAssignableFrom(entityType)) {
+        authorizationCache.invalidate();
+        authorizationsWritten = true;
+        return;
+      }
+    }
+  }
+
+  /**
+   * Puts the entities loaded by this session into the second level cache if the
+   * command succeeded and they have not been invalidated by another command in the
+   * meantime. Written entities are invalidated again, since other commands may have
+   * cached their previous state before this transaction ended.
+   */
+  protected void closeSecondLevelCache() {
+    CommandInvocationContext commandInvocationContext = Context.getCommandInvocationContext();
+    boolean succeeded = commandInvocationContext == null || commandInvocationContext.getThrowable() == null;
+
+    if (succeeded && secondLevelCacheCandidates != null) {
+      for (CacheEntry candidate : secondLevelCacheCandidates) {
+        secondLevelEntityCache.put(secondLevelCacheGeneration, candidate);
+      }
+    }
+
+    if (secondLevelCacheWrittenEntities != null) {
+      for (DbEntity entity : secondLevelCacheWrittenEntities) {
+        secondLevelEntityCache.invalidate(entity.getClass(), entity.getId());
+      }
+    }
+
+    if (secondLevelCacheWrittenTypes != null) {
+      for (Class<?> entityType : secondLevelCacheWrittenTypes) {
+        secondLevelEntityCache.invalidateAll(entityType);
+      }
+    }
+
+    secondLevelCacheCandidates = null;
+    secondLevelCacheWrittenEntities = null;
+    secondLevelCacheWrittenTypes = null;
+  }
+
   public void close() {
+    if (secondLevelEntityCache != null) {
+      closeSecondLevelCache();
+    }
 
+    if (authorizationsWritten) {
+      // other commands may have cached results read before this transaction ended
+      authorizationCache.invalidate();
+      authorizationsWritten = false;
+    }
+
+    if (dbEntityCachePool != null && dbEntityCache != null) {
+      dbEntityCache.clear();
+      // the cache is dropped if the pool is full
+      dbEntityCachePool.offer(dbEntityCache);
+      dbEntityCache = null;
+    }
   }
 
   public boolean isDeleted(DbEntity object) {
@@ -636,6 +851,8 @@ public class DbEntityManager implements Session, EntityLoadListener {
 
   public void setDbEntityCache(DbEntityCache dbEntityCache) {
     this.dbEntityCache = dbEntityCache;
+    // a cache provided from outside is not owned by this session
+    this.dbEntityCachePool = null;
   }
 
   // query factory methods ////////////////////////////////////////////////////
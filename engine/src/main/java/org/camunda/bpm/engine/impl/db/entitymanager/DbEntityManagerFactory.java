@@ -16,9 +16,13 @@
  */
 package org.camunda.bpm.engine.impl.db.entitymanager;
 
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+
 import org.camunda.bpm.engine.impl.cfg.IdGenerator;
 import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.db.PersistenceSession;
+import org.camunda.bpm.engine.impl.db.entitymanager.cache.DbEntityCache;
 import org.camunda.bpm.engine.impl.interceptor.SessionFactory;
 
 /**
@@ -28,8 +32,20 @@ public class DbEntityManagerFactory implements SessionFactory {
 
   protected IdGenerator idGenerator;
 
+  /**
+   * Emptied entity caches of closed sessions, null if caches are not reused.
+   */
+  protected Queue<DbEntityCache> entityCachePool;
+
   public DbEntityManagerFactory(IdGenerator idGenerator) {
+    this(idGenerator, 0);
+  }
+
+  public DbEntityManagerFactory(IdGenerator idGenerator, int entityCachePoolSize) {
     this.idGenerator = idGenerator;
+    if (entityCachePoolSize > 0) {
+      this.entityCachePool = new ArrayBlockingQueue<DbEntityCache>(entityCachePoolSize);
+    }
   }
 
   public Class<?> getSessionType() {
@@ -38,7 +54,7 @@ public class DbEntityManagerFactory implements SessionFactory {
 
   public DbEntityManager openSession() {
     PersistenceSession persistenceSession = Context.getCommandContext().getSession(PersistenceSession.class);
-    return new DbEntityManager(idGenerator, persistenceSession);
+    return new DbEntityManager(idGenerator, persistenceSession, entityCachePool);
   }
 
 }
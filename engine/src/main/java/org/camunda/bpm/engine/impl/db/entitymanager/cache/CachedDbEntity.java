@@ -66,6 +66,23 @@ public class CachedDbEntity implements Recyclable {
     copy = dbEntity.getPersistentState();
   }
 
+  /**
+   * Takes a new copy if the entity is dirty. Unlike calling {@link #isDirty()} and
+   * {@link #makeCopy()} in sequence, the persistent state is only computed once.
+   *
+   * @return true if the entity was dirty
+   */
+  public boolean updateCopy() {
+    Object persistentState = dbEntity.getPersistentState();
+    if (persistentState.equals(copy)) {
+      return false;
+    }
+    else {
+      copy = persistentState;
+      return true;
+    }
+  }
+
   public String toString() {
     return entityState + " " + dbEntity.getClass().getSimpleName() + "["+dbEntity.getId()+"]";
   }
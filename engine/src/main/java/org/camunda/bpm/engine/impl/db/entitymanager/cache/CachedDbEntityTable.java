@@ -0,0 +1,235 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.db.entitymanager.cache;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The cached entities of one entity type, indexed by id (which may be null, like a key of a HashMap).
+ *
+ * <p>The entities are kept in a dense array in insertion order. Lookups go through an
+ * open addressing (linear probing) table of indexes into that array, so neither lookups
+ * nor puts of new entities allocate per entry, and the table can be cleared and reused
+ * for another command.</p>
+ *
+ * @see DbEntityCache
+ */
+public class CachedDbEntityTable {
+
+  protected static final int INITIAL_CAPACITY = 8;
+
+  /** tables which have grown larger than this are not kept when cleared */
+  protected static final int MAX_RETAINED_CAPACITY = 1024;
+
+  /** index + 1 of the entry in {@link #entries}, 0 marks an empty slot */
+  protected int[] slots;
+
+  protected CachedDbEntity[] entries;
+  protected String[] ids;
+  protected int[] hashes;
+
+  /** number of used positions in {@link #entries}, including those of removed entries */
+  protected int length;
+
+  /** number of entries */
+  protected int size;
+
+  public CachedDbEntityTable() {
+    allocate(INITIAL_CAPACITY);
+  }
+
+  public CachedDbEntity get(String id) {
+    int hash = hash(id);
+    int mask = slots.length - 1;
+
+    for (int slot = hash & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+      int entry = slots[slot] - 1;
+      if (hashes[entry] == hash && sameId(ids[entry], id)) {
+        return entries[entry];
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Adds the given entity or replaces the entity with the same id.
+   */
+  public void put(String id, CachedDbEntity cachedDbEntity) {
+    int hash = hash(id);
+    int mask = slots.length - 1;
+
+    int slot = hash & mask;
+    for (; slots[slot] != 0; slot = (slot + 1) & mask) {
+      int entry = slots[slot] - 1;
+      if (hashes[entry] == hash && sameId(ids[entry], id)) {
+        entries[entry] = cachedDbEntity;
+        return;
+      }
+    }
+
+    if (length == entries.length || (size + 1) * 2 > slots.length) {
+      // make room and retry, the slot may have moved
+      resize();
+      put(id, cachedDbEntity);
+      return;
+    }
+
+    entries[length] = cachedDbEntity;
+    ids[length] = id;
+    hashes[length] = hash;
+    slots[slot] = ++length;
+    size++;
+  }
+
+  /**
+   * @return the removed entity or null if there was no entity with the given id
+   */
+  public CachedDbEntity remove(String id) {
+    int hash = hash(id);
+    int mask = slots.length - 1;
+
+    for (int slot = hash & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+      int entry = slots[slot] - 1;
+      if (hashes[entry] == hash && sameId(ids[entry], id)) {
+        CachedDbEntity removed = entries[entry];
+        entries[entry] = null;
+        ids[entry] = null;
+        size--;
+        deleteSlot(slot);
+        return removed;
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Adds all entities to the given list, in insertion order.
+   */
+  public void addEntitiesTo(List<CachedDbEntity> target) {
+    for (int entry = 0; entry < length; entry++) {
+      if (entries[entry] != null) {
+        target.add(entries[entry]);
+      }
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public void clear() {
+    if (entries.length > MAX_RETAINED_CAPACITY) {
+      allocate(INITIAL_CAPACITY);
+    }
+    else {
+      Arrays.fill(slots, 0);
+      Arrays.fill(entries, 0, length, null);
+      Arrays.fill(ids, 0, length, null);
+    }
+    length = 0;
+    size = 0;
+  }
+
+  /**
+   * Backward shift deletion: moves subsequent entries of the probe sequence into the
+   * freed slot, so that lookups never stop early at a hole.
+   */
+  protected void deleteSlot(int freeSlot) {
+    int mask = slots.length - 1;
+    int slot = freeSlot;
+
+    while (true) {
+      slot = (slot + 1) & mask;
+      if (slots[slot] == 0) {
+        break;
+      }
+
+      int home = hashes[slots[slot] - 1] & mask;
+      // the entry stays if its home slot lies cyclically within (freeSlot, slot]
+      boolean stays = freeSlot <= slot
+          ? freeSlot < home && home <= slot
+          : freeSlot < home || home <= slot;
+
+      if (!stays) {
+        slots[freeSlot] = slots[slot];
+        freeSlot = slot;
+      }
+    }
+
+    slots[freeSlot] = 0;
+  }
+
+  /**
+   * Compacts the entries, dropping those which have been removed, and doubles
+   * the capacity if the table is at least half full.
+   */
+  protected void resize() {
+    CachedDbEntity[] oldEntries = entries;
+    String[] oldIds = ids;
+    int[] oldHashes = hashes;
+    int oldLength = length;
+
+    int capacity = entries.length;
+    if (size * 2 >= capacity) {
+      capacity *= 2;
+    }
+    allocate(capacity);
+
+    length = 0;
+    int mask = slots.length - 1;
+    for (int entry = 0; entry < oldLength; entry++) {
+      if (oldEntries[entry] != null) {
+        int slot = oldHashes[entry] & mask;
+        while (slots[slot] != 0) {
+          slot = (slot + 1) & mask;
+        }
+        entries[length] = oldEntries[entry];
+        ids[length] = oldIds[entry];
+        hashes[length] = oldHashes[entry];
+        slots[slot] = ++length;
+      }
+    }
+  }
+
+  protected void allocate(int capacity) {
+    // at most half of the slots are used
+    slots = new int[capacity * 2];
+    entries = new CachedDbEntity[capacity];
+    ids = new String[capacity];
+    hashes = new int[capacity];
+  }
+
+  protected static int hash(String id) {
+    if (id == null) {
+      return 0;
+    }
+    int hash = id.hashCode();
+    return hash ^ (hash >>> 16);
+  }
+
+  protected static boolean sameId(String cachedId, String id) {
+    return cachedId == null ? id == null : cachedId.equals(id);
+  }
+
+}
@@ -24,10 +24,10 @@ import static org.camunda.bpm.engine.impl.db.entitymanager.cache.DbEntityState.P
 import static org.camunda.bpm.engine.impl.db.entitymanager.cache.DbEntityState.TRANSIENT;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.camunda.bpm.engine.ProcessEngineException;
 import org.camunda.bpm.engine.impl.ProcessEngineLogger;
@@ -45,17 +45,37 @@ public class DbEntityCache {
 
   protected static final EnginePersistenceLogger LOG = ProcessEngineLogger.PERSISTENCE_LOGGER;
 
+  protected static final AtomicInteger TYPE_INDEX_COUNTER = new AtomicInteger();
+
+  /**
+   * Assigns every entity type (cache key) a process wide index into {@link #cachedEntities}.
+   */
+  protected static final ClassValue<Integer> TYPE_INDEX = new ClassValue<Integer>() {
+    protected Integer computeValue(Class<?> type) {
+      return TYPE_INDEX_COUNTER.getAndIncrement();
+    }
+  };
+
   /**
-   * The cache itself: maps entity types (classes) to maps indexed by id (primary key).
+   * The cache itself: holds a table indexed by id (primary key) per entity type (class),
+   * at the index of the type.
    *
    * The motivation for indexing by type (class) is
    *
    * a) multiple entities of different types could have the same value as primary key. In the
    *    process engine, TaskEntity and HistoricTaskEntity have the same id value.
    *
-   * b) performance (?)
+   * b) performance: the table of a type is found by array access and the tables do
+   *    not allocate per entry.
    */
-  protected Map<Class<?>, Map<String, CachedDbEntity>> cachedEntites = new HashMap<Class<?>, Map<String, CachedDbEntity>>();
+  protected CachedDbEntityTable[] cachedEntities = new CachedDbEntityTable[32];
+
+  /**
+   * The indexes of the types in {@link #cachedEntities}, in the order in which their
+   * tables were first used.
+   */
+  protected int[] usedTypeIndexes = new int[16];
+  protected int usedTypes;
 
   protected DbEntityCacheKeyMapping cacheKeyMapping;
 
@@ -97,12 +117,15 @@ public class DbEntityCache {
   @SuppressWarnings("unchecked")
   public <T extends DbEntity> List<T> getEntitiesByType(Class<T> type) {
     Class<?> cacheKey = cacheKeyMapping.getEntityCacheKey(type);
-    Map<String, CachedDbEntity> entities = cachedEntites.get(cacheKey);
-    List<T> result = new ArrayList<T>();
+    CachedDbEntityTable entities = getTable(cacheKey);
     if(entities == null) {
       return Collections.emptyList();
     } else {
-      for (CachedDbEntity cachedEntity : entities.values()) {
+      List<CachedDbEntity> cachedEntitiesOfType = new ArrayList<CachedDbEntity>(entities.size());
+      entities.addEntitiesTo(cachedEntitiesOfType);
+
+      List<T> result = new ArrayList<T>(cachedEntitiesOfType.size());
+      for (CachedDbEntity cachedEntity : cachedEntitiesOfType) {
         if (type != cacheKey) {
           // if the cacheKey of this type differs from the actual type,
           // not all cached entities with the key should be returned.
@@ -128,7 +151,7 @@ public class DbEntityCache {
    */
   public CachedDbEntity getCachedEntity(Class<?> type, String id) {
     Class<?> cacheKey = cacheKeyMapping.getEntityCacheKey(type);
-    Map<String, CachedDbEntity> entitiesByType = cachedEntites.get(cacheKey);
+    CachedDbEntityTable entitiesByType = getTable(cacheKey);
     if(entitiesByType != null) {
       return entitiesByType.get(id);
     } else {
@@ -191,11 +214,7 @@ public class DbEntityCache {
     Class<? extends DbEntity> type = entityToAdd.getEntity().getClass();
     Class<?> cacheKey = cacheKeyMapping.getEntityCacheKey(type);
 
-    Map<String, CachedDbEntity> map = cachedEntites.get(cacheKey);
-    if(map == null) {
-      map = new HashMap<String, CachedDbEntity>();
-      cachedEntites.put(cacheKey, map);
-    }
+    CachedDbEntityTable map = getOrCreateTable(cacheKey);
 
     // check whether this object is already present in the cache
     CachedDbEntity existingCachedEntity = map.get(entityToAdd.getEntity().getId());
@@ -266,7 +285,7 @@ public class DbEntityCache {
    */
   public boolean remove(DbEntity e) {
     Class<?> cacheKey = cacheKeyMapping.getEntityCacheKey(e.getClass());
-    Map<String, CachedDbEntity> typeMap = cachedEntites.get(cacheKey);
+    CachedDbEntityTable typeMap = getTable(cacheKey);
     if(typeMap != null) {
       return typeMap.remove(e.getId()) != null;
     } else {
@@ -345,13 +364,57 @@ public class DbEntityCache {
   }
 
   public List<CachedDbEntity> getCachedEntities() {
-    List<CachedDbEntity> result = new ArrayList<CachedDbEntity>();
-    for (Map<String, CachedDbEntity> typeCache : cachedEntites.values()) {
-      result.addAll(typeCache.values());
+    int size = 0;
+    for (int i = 0; i < usedTypes; i++) {
+      size += cachedEntities[usedTypeIndexes[i]].size();
+    }
+
+    List<CachedDbEntity> result = new ArrayList<CachedDbEntity>(size);
+    for (int i = 0; i < usedTypes; i++) {
+      cachedEntities[usedTypeIndexes[i]].addEntitiesTo(result);
     }
     return result;
   }
 
+  /**
+   * Removes all entities from the cache. The tables are kept, so that the cache
+   * can be reused without allocating them again.
+   */
+  public void clear() {
+    for (int i = 0; i < usedTypes; i++) {
+      cachedEntities[usedTypeIndexes[i]].clear();
+    }
+  }
+
+  protected CachedDbEntityTable getTable(Class<?> cacheKey) {
+    int typeIndex = TYPE_INDEX.get(cacheKey);
+    if (typeIndex < cachedEntities.length) {
+      return cachedEntities[typeIndex];
+    }
+    else {
+      return null;
+    }
+  }
+
+  protected CachedDbEntityTable getOrCreateTable(Class<?> cacheKey) {
+    int typeIndex = TYPE_INDEX.get(cacheKey);
+    if (typeIndex >= cachedEntities.length) {
+      cachedEntities = Arrays.copyOf(cachedEntities, Math.max(typeIndex + 1, cachedEntities.length * 2));
+    }
+
+    CachedDbEntityTable table = cachedEntities[typeIndex];
+    if (table == null) {
+      table = new CachedDbEntityTable();
+      cachedEntities[typeIndex] = table;
+
+      if (usedTypes == usedTypeIndexes.length) {
+        usedTypeIndexes = Arrays.copyOf(usedTypeIndexes, usedTypes * 2);
+      }
+      usedTypeIndexes[usedTypes++] = typeIndex;
+    }
+    return table;
+  }
+
   /**
    * Sets an object to a deleted state. It will not be removed from the cache but
    * transition to one of the DELETED states, depending on it's current state.
@@ -380,6 +443,14 @@ public class DbEntityCache {
     }
   }
 
+  public DbEntityCacheKeyMapping getCacheKeyMapping() {
+    return cacheKeyMapping;
+  }
+
+  public void setCacheKeyMapping(DbEntityCacheKeyMapping cacheKeyMapping) {
+    this.cacheKeyMapping = cacheKeyMapping;
+  }
+
   public void undoDelete(DbEntity dbEntity) {
     CachedDbEntity cachedEntity = getCachedEntity(dbEntity);
     if (cachedEntity.getEntityState() == DbEntityState.DELETED_TRANSIENT) {
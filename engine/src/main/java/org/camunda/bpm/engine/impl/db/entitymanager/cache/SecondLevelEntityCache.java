@@ -0,0 +1,299 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.db.entitymanager.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.db.DbEntity;
+import org.camunda.bpm.engine.impl.db.EnginePersistenceLogger;
+import org.camunda.bpm.engine.impl.db.HasDbRevision;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.camunda.commons.utils.cache.Cache;
+import org.camunda.commons.utils.cache.ConcurrentLruCache;
+
+/**
+ * <p>A cache shared by all commands of a process engine for read-mostly entity types,
+ * consulted by the {@link org.camunda.bpm.engine.impl.db.entitymanager.DbEntityManager}
+ * when an entity is selected by id and is not in the first level cache.</p>
+ *
+ * <p>The cache holds a serialized snapshot of every entity together with its revision,
+ * and every lookup returns a new copy, so commands never share entity instances.
+ * The entity types are grouped by the keys of the {@link DbEntityCacheKeyMapping}.</p>
+ *
+ * <p>Entities written by a command of this engine are invalidated. Every invalidation is
+ * stamped with a new generation of the cache, per entity type and (striped) id. A snapshot
+ * is only put into the cache if it has not been invalidated since the generation which was
+ * obtained before the snapshot was read, so that a command which read an entity before
+ * another command committed an update of it cannot publish the previous state.</p>
+ *
+ * <p>Writes of other cluster nodes are only noticed after the time to live of an entry
+ * has passed; an update of an entity read from a stale entry fails with an optimistic
+ * locking exception due to the revision check.</p>
+ */
+public class SecondLevelEntityCache {
+
+  protected static final EnginePersistenceLogger LOG = ProcessEngineLogger.PERSISTENCE_LOGGER;
+
+  protected DbEntityCacheKeyMapping cacheKeyMapping;
+
+  /** the cached entities per cache key, the map itself is never modified after construction */
+  protected Map<Class<?>, Cache<String, CacheEntry>> cachedEntities = new HashMap<Class<?>, Cache<String, CacheEntry>>();
+
+  /** number of stripes the ids of an entity type are hashed to for invalidation stamps */
+  protected static final int INVALIDATION_STRIPES = 1024;
+
+  protected AtomicLong generation = new AtomicLong();
+
+  /** the generation of the last invalidation per cache key and id stripe, never modified after construction */
+  protected Map<Class<?>, AtomicLongArray> idInvalidations = new HashMap<Class<?>, AtomicLongArray>();
+
+  /** the generation of the last invalidation of all entities per cache key, never modified after construction */
+  protected Map<Class<?>, AtomicLong> typeInvalidations = new HashMap<Class<?>, AtomicLong>();
+
+  protected long timeToLive;
+
+  /**
+   * @param cacheKeyMapping the mapping of entity types to cache keys
+   * @param entityTypes the entity types to cache, must be {@link Serializable}
+   * @param maxSize the maximum number of cached entities per entity type
+   * @param timeToLive the time in milliseconds after which a cached entity is read from the database again
+   */
+  public SecondLevelEntityCache(DbEntityCacheKeyMapping cacheKeyMapping, Collection<Class<? extends DbEntity>> entityTypes,
+      int maxSize, long timeToLive) {
+    this.cacheKeyMapping = cacheKeyMapping;
+    this.timeToLive = timeToLive;
+
+    for (Class<? extends DbEntity> entityType : entityTypes) {
+      Class<?> cacheKey = cacheKeyMapping.getEntityCacheKey(entityType);
+      if (!cachedEntities.containsKey(cacheKey)) {
+        cachedEntities.put(cacheKey, new ConcurrentLruCache<String, CacheEntry>(maxSize));
+        idInvalidations.put(cacheKey, new AtomicLongArray(INVALIDATION_STRIPES));
+        typeInvalidations.put(cacheKey, new AtomicLong());
+      }
+    }
+  }
+
+  /**
+   * @return true if entities of the given type are cached
+   */
+  public boolean isCached(Class<?> entityType) {
+    return getCache(entityType) != null;
+  }
+
+  /**
+   * @return the current generation of the cache, to be obtained before the entities
+   * which are put into the cache later on are read from the database
+   */
+  public long getGeneration() {
+    return generation.get();
+  }
+
+  /**
+   * @return a new copy of the cached entity or null if the entity is not cached or has expired
+   */
+  @SuppressWarnings("unchecked")
+  public <T extends DbEntity> T get(Class<T> entityType, String id) {
+    Cache<String, CacheEntry> cache = getCache(entityType);
+    if (cache == null || id == null) {
+      return null;
+    }
+
+    CacheEntry entry = cache.get(id);
+    if (entry == null) {
+      return null;
+    }
+
+    if (entry.isExpired(now())) {
+      cache.remove(id);
+      return null;
+    }
+
+    DbEntity entity = entry.copyEntity();
+    if (entity == null || !entityType.isInstance(entity)) {
+      return null;
+    }
+
+    return (T) entity;
+  }
+
+  /**
+   * Takes a snapshot of the given entity as it is now. The snapshot can be put
+   * into the cache later on, e.g. once the transaction which loaded the entity has ended.
+   *
+   * @return the snapshot or null if the entity cannot be cached
+   */
+  public CacheEntry createEntry(DbEntity entity) {
+    if (!(entity instanceof Serializable) || entity.getId() == null) {
+      return null;
+    }
+
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      ObjectOutputStream out = new ObjectOutputStream(bytes);
+      out.writeObject(entity);
+      out.close();
+
+      int revision = entity instanceof HasDbRevision ? ((HasDbRevision) entity).getRevision() : 0;
+      return new CacheEntry(entity.getClass(), entity.getId(), revision, bytes.toByteArray(), now() + timeToLive);
+
+    } catch (Exception e) {
+      LOG.secondLevelCacheSnapshotFailed(entity, e);
+      return null;
+    }
+  }
+
+  /**
+   * Puts the given snapshot into the cache, unless the entity has been invalidated since
+   * the given generation or a snapshot of a newer revision is cached.
+   *
+   * @param generation the generation obtained before the snapshot was read
+   */
+  public void put(long generation, CacheEntry entry) {
+    Cache<String, CacheEntry> cache = getCache(entry.getEntityType());
+    if (cache == null || isInvalidatedSince(entry.getEntityType(), entry.getId(), generation)) {
+      return;
+    }
+
+    CacheEntry existingEntry = cache.get(entry.getId());
+    if (existingEntry == null || existingEntry.getRevision() <= entry.getRevision()) {
+      cache.put(entry.getId(), entry);
+
+      // an invalidation may have happened between the check and the put
+      if (isInvalidatedSince(entry.getEntityType(), entry.getId(), generation)) {
+        cache.remove(entry.getId());
+      }
+    }
+  }
+
+  public void invalidate(Class<?> entityType, String id) {
+    Cache<String, CacheEntry> cache = getCache(entityType);
+    if (cache != null && id != null) {
+      // stamp before removing, see put()
+      final long invalidation = generation.incrementAndGet();
+      getIdInvalidations(entityType).accumulateAndGet(getStripe(id), invalidation, Math::max);
+      cache.remove(id);
+    }
+  }
+
+  public void invalidateAll(Class<?> entityType) {
+    Cache<String, CacheEntry> cache = getCache(entityType);
+    if (cache != null) {
+      final long invalidation = generation.incrementAndGet();
+      getTypeInvalidations(entityType).accumulateAndGet(invalidation, Math::max);
+      cache.clear();
+    }
+  }
+
+  protected boolean isInvalidatedSince(Class<?> entityType, String id, long generation) {
+    return getTypeInvalidations(entityType).get() > generation
+        || getIdInvalidations(entityType).get(getStripe(id)) > generation;
+  }
+
+  protected int getStripe(String id) {
+    return (id.hashCode() & Integer.MAX_VALUE) % INVALIDATION_STRIPES;
+  }
+
+  protected AtomicLongArray getIdInvalidations(Class<?> entityType) {
+    return idInvalidations.get(cacheKeyMapping.getEntityCacheKey(entityType));
+  }
+
+  protected AtomicLong getTypeInvalidations(Class<?> entityType) {
+    return typeInvalidations.get(cacheKeyMapping.getEntityCacheKey(entityType));
+  }
+
+  public void clear() {
+    for (Cache<String, CacheEntry> cache : cachedEntities.values()) {
+      cache.clear();
+    }
+  }
+
+  public int size(Class<?> entityType) {
+    Cache<String, CacheEntry> cache = getCache(entityType);
+    return cache != null ? cache.size() : 0;
+  }
+
+  protected Cache<String, CacheEntry> getCache(Class<?> entityType) {
+    return cachedEntities.get(cacheKeyMapping.getEntityCacheKey(entityType));
+  }
+
+  protected long now() {
+    return ClockUtil.getCurrentTime().getTime();
+  }
+
+  /**
+   * An immutable snapshot of an entity.
+   */
+  public static class CacheEntry {
+
+    protected final Class<?> entityType;
+    protected final String id;
+    protected final int revision;
+    protected final byte[] serializedEntity;
+    protected final long expirationTime;
+
+    public CacheEntry(Class<?> entityType, String id, int revision, byte[] serializedEntity, long expirationTime) {
+      this.entityType = entityType;
+      this.id = id;
+      this.revision = revision;
+      this.serializedEntity = serializedEntity;
+      this.expirationTime = expirationTime;
+    }
+
+    public Class<?> getEntityType() {
+      return entityType;
+    }
+
+    public String getId() {
+      return id;
+    }
+
+    public int getRevision() {
+      return revision;
+    }
+
+    public boolean isExpired(long now) {
+      return now >= expirationTime;
+    }
+
+    protected DbEntity copyEntity() {
+      try {
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serializedEntity));
+        try {
+          return (DbEntity) in.readObject();
+        } finally {
+          in.close();
+        }
+
+      } catch (Exception e) {
+        LOG.secondLevelCacheCopyFailed(entityType, id, e);
+        return null;
+      }
+    }
+
+  }
+
+}
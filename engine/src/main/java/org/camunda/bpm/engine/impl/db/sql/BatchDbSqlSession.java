@@ -34,7 +34,6 @@ import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbBulkOperation;
 import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbEntityOperation;
 import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbOperation;
 import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbOperationType;
-import org.camunda.bpm.engine.impl.util.CollectionUtil;
 import org.camunda.bpm.engine.impl.util.EnsureUtil;
 import org.camunda.bpm.engine.impl.util.ExceptionUtil;
 
@@ -54,12 +53,18 @@ public class BatchDbSqlSession extends DbSqlSession {
 
   @Override
   public FlushResult executeDbOperations(List<DbOperation> operations) {
-    for (int i = 0; i < operations.size(); i++) {
+    List<List<DbOperation>> statementGroups = groupOperationsByStatement(operations);
 
-      DbOperation operation = operations.get(i);
+    for (int i = 0; i < statementGroups.size(); i++) {
+
+      List<DbOperation> statementGroup = statementGroups.get(i);
 
       // stages all operations
-      executeDbOperation(operation);
+      if (statementGroup.size() == 1) {
+        executeDbOperation(statementGroup.get(0));
+      } else {
+        insertEntities(statementGroup);
+      }
     }
 
     List<BatchResult> batchResults;
@@ -67,30 +72,108 @@ public class BatchDbSqlSession extends DbSqlSession {
       // applies all operations
       batchResults = flushBatchOperations();
     } catch (RuntimeException e) {
-      return postProcessBatchFailure(operations, e);
+      return postProcessBatchFailure(operations, statementGroups, e);
+    }
+
+    return postProcessBatchSuccess(operations, statementGroups, batchResults);
+  }
+
+  /**
+   * Partitions by statements instead of operations, so that the rows of a
+   * multi-row INSERT are not split by the partition size.
+   */
+  @Override
+  public List<List<DbOperation>> partitionDbOperations(List<DbOperation> operations, int statementsPerPartition) {
+    List<List<DbOperation>> partitions = new ArrayList<>();
+
+    List<DbOperation> currentPartition = null;
+    int statementsInPartition = 0;
+
+    for (List<DbOperation> statementGroup : groupOperationsByStatement(operations)) {
+      if (currentPartition == null || statementsInPartition == statementsPerPartition) {
+        currentPartition = new ArrayList<>();
+        partitions.add(currentPartition);
+        statementsInPartition = 0;
+      }
+      currentPartition.addAll(statementGroup);
+      statementsInPartition++;
+    }
+
+    return partitions;
+  }
+
+  /**
+   * Groups the operations by the JDBC statement that applies them. Consecutive INSERTs
+   * of the same entity type are grouped into one multi-row INSERT if the entity type
+   * supports it (see {@link DbSqlSessionFactory#getMultiRowInsertLimit(DbEntity)}).
+   * All other operations form a group of their own.
+   */
+  protected List<List<DbOperation>> groupOperationsByStatement(List<DbOperation> operations) {
+    List<List<DbOperation>> statementGroups = new ArrayList<>();
+
+    List<DbOperation> currentGroup = null;
+    int currentGroupLimit = 0;
+
+    for (DbOperation operation : operations) {
+      if (currentGroup != null
+          && currentGroup.size() < currentGroupLimit
+          && isInsertOfSameType(currentGroup.get(0), operation)) {
+        currentGroup.add(operation);
+
+      } else {
+        currentGroup = new ArrayList<>();
+        currentGroup.add(operation);
+        statementGroups.add(currentGroup);
+
+        if (operation.getOperationType() == DbOperationType.INSERT) {
+          currentGroupLimit = dbSqlSessionFactory.getMultiRowInsertLimit(((DbEntityOperation) operation).getEntity());
+        } else {
+          currentGroupLimit = 1;
+        }
+      }
     }
 
-    return postProcessBatchSuccess(operations, batchResults);
+    return statementGroups;
   }
 
-  protected FlushResult postProcessBatchSuccess(List<DbOperation> operations, List<BatchResult> batchResults) {
-    Iterator<DbOperation> operationsIt = operations.iterator();
+  protected boolean isInsertOfSameType(DbOperation groupOperation, DbOperation operation) {
+    return groupOperation.getOperationType() == DbOperationType.INSERT
+        && operation.getOperationType() == DbOperationType.INSERT
+        && groupOperation.getEntityType() == operation.getEntityType();
+  }
+
+  protected void insertEntities(List<DbOperation> operations) {
+    List<DbEntity> entities = new ArrayList<>();
+    for (DbOperation operation : operations) {
+      DbEntity dbEntity = ((DbEntityOperation) operation).getEntity();
+      LOG.executeDatabaseOperation("INSERT", dbEntity);
+      entities.add(dbEntity);
+    }
+
+    String multiRowInsertStatement = dbSqlSessionFactory.getMultiRowInsertStatement(entities.get(0));
+    multiRowInsertStatement = dbSqlSessionFactory.mapStatement(multiRowInsertStatement);
+
+    sqlSession.insert(multiRowInsertStatement, entities);
+  }
+
+  protected FlushResult postProcessBatchSuccess(List<DbOperation> operations, List<List<DbOperation>> statementGroups, List<BatchResult> batchResults) {
+    Iterator<List<DbOperation>> statementGroupsIt = statementGroups.iterator();
     List<DbOperation> failedOperations = new ArrayList<>();
     for (BatchResult successfulBatch : batchResults) {
       // even if all batches are successful, there can be concurrent modification failures
       // (e.g. 0 rows updated)
-      postProcessJdbcBatchResult(operationsIt, successfulBatch.getUpdateCounts(), null, failedOperations);
+      postProcessJdbcBatchResult(statementGroupsIt, successfulBatch.getUpdateCounts(), null, failedOperations);
     }
 
     // there should be no more operations remaining
-    if (operationsIt.hasNext()) {
+    if (statementGroupsIt.hasNext()) {
       throw LOG.wrongBatchResultsSizeException(operations);
     }
 
     return FlushResult.withFailures(failedOperations);
   }
 
-  protected FlushResult postProcessBatchFailure(List<DbOperation> operations, RuntimeException e) {
+  protected FlushResult postProcessBatchFailure(List<DbOperation> operations, List<List<DbOperation>> statementGroups, RuntimeException e) {
     BatchExecutorException batchExecutorException = ExceptionUtil.findBatchExecutorException(e);
 
     if (batchExecutorException == null) {
@@ -101,17 +184,20 @@ public class BatchDbSqlSession extends DbSqlSession {
     List<BatchResult> successfulBatches = batchExecutorException.getSuccessfulBatchResults();
     BatchUpdateException cause = batchExecutorException.getBatchUpdateException();
 
-    Iterator<DbOperation> operationsIt = operations.iterator();
+    Iterator<List<DbOperation>> statementGroupsIt = statementGroups.iterator();
     List<DbOperation> failedOperations = new ArrayList<>();
 
     for (BatchResult successfulBatch : successfulBatches) {
-      postProcessJdbcBatchResult(operationsIt, successfulBatch.getUpdateCounts(), null, failedOperations);
+      postProcessJdbcBatchResult(statementGroupsIt, successfulBatch.getUpdateCounts(), null, failedOperations);
     }
 
     int[] failedBatchUpdateCounts = cause.getUpdateCounts();
-    postProcessJdbcBatchResult(operationsIt, failedBatchUpdateCounts, e, failedOperations);
+    postProcessJdbcBatchResult(statementGroupsIt, failedBatchUpdateCounts, e, failedOperations);
 
-    List<DbOperation> remainingOperations = CollectionUtil.collectInList(operationsIt);
+    List<DbOperation> remainingOperations = new ArrayList<>();
+    while (statementGroupsIt.hasNext()) {
+      remainingOperations.addAll(statementGroupsIt.next());
+    }
     return FlushResult.withFailuresAndRemaining(failedOperations, remainingOperations);
   }
 
@@ -132,10 +218,13 @@ public class BatchDbSqlSession extends DbSqlSession {
    * <p>See {@link BatchUpdateException#getUpdateCounts()} for the specification
    * of cases 2 and 3.
    *
+   * <p>Each statement result belongs to one group of operations, i.e. to a single
+   * operation or to all INSERTs of a multi-row INSERT statement.
+   *
    * @return all failed operations
    */
   protected void postProcessJdbcBatchResult(
-      Iterator<DbOperation> operationsIt,
+      Iterator<List<DbOperation>> statementGroupsIt,
       int[] statementResults,
       Exception failure,
       List<DbOperation> failedOperations) {
@@ -145,53 +234,72 @@ public class BatchDbSqlSession extends DbSqlSession {
       int statementResult = statementResults[i];
 
       EnsureUtil.ensureTrue("More batch results than scheduled operations detected. This indicates a bug",
-          operationsIt.hasNext());
+          statementGroupsIt.hasNext());
 
-      DbOperation operation = operationsIt.next();
-
-      if (statementResult == Statement.SUCCESS_NO_INFO) {
-
-        if (requiresAffectedRows(operation.getOperationType())) {
-          throw LOG.batchingNotSupported(operation);
-        } else {
-          postProcessOperationPerformed(operation, 1, null);
-        }
+      List<DbOperation> statementGroup = statementGroupsIt.next();
 
-      } else if (statementResult == Statement.EXECUTE_FAILED) {
-
-        /*
-         * All operations are marked with the root failure exception; this is not quite
-         * correct and leads to the situation that we treat all failed operations in the
-         * same way, whereas they might fail for different reasons.
-         *
-         * More precise would be to use BatchUpdateException#getNextException.
-         * E.g. if we have three failed statements in a batch, #getNextException can be used to
-         * access each operation's individual failure. However, this behavior is not
-         * guaranteed by the java.sql javadocs (it doesn't specify that the number
-         * and order of next exceptions matches the number of failures, unlike for row counts),
-         * so we decided to not rely on it.
-         */
-        postProcessOperationPerformed(operation, 0, failure);
+      if (statementResult == Statement.EXECUTE_FAILED) {
         failureHandled = true;
-      } else { // it is the number of affected rows
-        postProcessOperationPerformed(operation, statementResult, null);
       }
 
-      if (operation.isFailed()) {
-        failedOperations.add(operation);
+      if (statementGroup.size() == 1) {
+        postProcessStatementResult(statementGroup.get(0), statementResult, failure, failedOperations);
+
+      } else {
+        // multi-row insert: affected rows are not required for INSERTs, so every
+        // operation of the group shares the outcome of the statement
+        int rowResult = statementResult > 0 ? 1 : statementResult;
+        for (DbOperation operation : statementGroup) {
+          postProcessStatementResult(operation, rowResult, failure, failedOperations);
+        }
       }
     }
 
     /*
-     * case 2: The next operation is the one that failed
+     * case 2: The next statement is the one that failed
      */
     if (failure != null && !failureHandled) {
       EnsureUtil.ensureTrue("More batch results than scheduled operations detected. This indicates a bug",
-          operationsIt.hasNext());
+          statementGroupsIt.hasNext());
+
+      List<DbOperation> failedStatementGroup = statementGroupsIt.next();
+      for (DbOperation failedOperation : failedStatementGroup) {
+        postProcessOperationPerformed(failedOperation, 0, failure);
+        failedOperations.add(failedOperation);
+      }
+    }
+  }
+
+  protected void postProcessStatementResult(DbOperation operation, int statementResult, Exception failure, List<DbOperation> failedOperations) {
+    if (statementResult == Statement.SUCCESS_NO_INFO) {
+
+      if (requiresAffectedRows(operation.getOperationType())) {
+        throw LOG.batchingNotSupported(operation);
+      } else {
+        postProcessOperationPerformed(operation, 1, null);
+      }
+
+    } else if (statementResult == Statement.EXECUTE_FAILED) {
+
+      /*
+       * All operations are marked with the root failure exception; this is not quite
+       * correct and leads to the situation that we treat all failed operations in the
+       * same way, whereas they might fail for different reasons.
+       *
+       * More precise would be to use BatchUpdateException#getNextException.
+       * E.g. if we have three failed statements in a batch, #getNextException can be used to
+       * access each operation's individual failure. However, this behavior is not
+       * guaranteed by the java.sql javadocs (it doesn't specify that the number
+       * and order of next exceptions matches the number of failures, unlike for row counts),
+       * so we decided to not rely on it.
+       */
+      postProcessOperationPerformed(operation, 0, failure);
+    } else { // it is the number of affected rows
+      postProcessOperationPerformed(operation, statementResult, null);
+    }
 
-      DbOperation failedOperation = operationsIt.next();
-      postProcessOperationPerformed(failedOperation, 0, failure);
-      failedOperations.add(failedOperation);
+    if (operation.isFailed()) {
+      failedOperations.add(operation);
     }
   }
 
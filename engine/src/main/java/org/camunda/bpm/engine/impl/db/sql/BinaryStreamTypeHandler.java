@@ -0,0 +1,58 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.db.sql;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+
+/**
+ * Writes an {@link InputStream} parameter with {@link PreparedStatement#setBinaryStream(int, InputStream)},
+ * which, unlike the default handler for streams, works for binary columns of all supported databases
+ * (e.g. <code>BYTEA</code> on PostgreSQL). The stream is consumed by the driver. Results of
+ * callable statements are materialized since they cannot be streamed portably.
+ */
+public class BinaryStreamTypeHandler extends BaseTypeHandler<InputStream> {
+
+  @Override
+  public void setNonNullParameter(PreparedStatement ps, int i, InputStream parameter, JdbcType jdbcType) throws SQLException {
+    ps.setBinaryStream(i, parameter);
+  }
+
+  @Override
+  public InputStream getNullableResult(ResultSet rs, String columnName) throws SQLException {
+    return rs.getBinaryStream(columnName);
+  }
+
+  @Override
+  public InputStream getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+    return rs.getBinaryStream(columnIndex);
+  }
+
+  @Override
+  public InputStream getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+    byte[] bytes = cs.getBytes(columnIndex);
+    return bytes == null ? null : new ByteArrayInputStream(bytes);
+  }
+
+}
@@ -388,7 +388,11 @@ public abstract class DbSqlSession extends AbstractPersistenceSession {
 
   @Override
   protected void dbSchemaCreateHistory() {
-    executeMandatorySchemaResource("create", "history");
+    if (dbSqlSessionFactory.isHistoryPartitioningEnabled()) {
+      executeMandatorySchemaResource("create", "history.partitioned");
+    } else {
+      executeMandatorySchemaResource("create", "history");
+    }
   }
 
   @Override
@@ -456,7 +460,7 @@ public abstract class DbSqlSession extends AbstractPersistenceSession {
     executeSchemaResource(operation, component, getResourceForDbOperation(operation, operation, component), false);
   }
 
-  public static String[] JDBC_METADATA_TABLE_TYPES = {"TABLE"};
+  public static String[] JDBC_METADATA_TABLE_TYPES = {"TABLE", "PARTITIONED TABLE"};
 
   @Override
   public boolean isEngineTablePresent(){
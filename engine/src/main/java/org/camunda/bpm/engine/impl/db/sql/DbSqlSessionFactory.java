@@ -22,6 +22,8 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.camunda.bpm.engine.impl.cfg.IdGenerator;
 import org.camunda.bpm.engine.impl.db.DbEntity;
@@ -92,6 +94,13 @@ public class DbSqlSessionFactory implements SessionFactory {
 
   public static final Map<String, String> databaseSpecificCollationForCaseSensitivity = new HashMap<>();
 
+  // row locking for acquisition, see ProcessEngineConfigurationImpl#skipLockedAcquisitionEnabled
+  /** MySQL supports <code>SKIP LOCKED</code> since version 8.0 */
+  public static final int MYSQL_SKIP_LOCKED_MIN_MAJOR_VERSION = 8;
+
+  public static final Map<String, String> databaseSpecificSkipLockedTableHint = new HashMap<>();
+  public static final Map<String, String> databaseSpecificSkipLockedClause = new HashMap<>();
+
   /*
    * On SQL server, the overall maximum number of parameters in a prepared statement
    * is 2100.
@@ -145,6 +154,10 @@ public class DbSqlSessionFactory implements SessionFactory {
 
     databaseSpecificCollationForCaseSensitivity.put(H2, "");
 
+    // no SKIP LOCKED in h2
+    databaseSpecificSkipLockedTableHint.put(H2, "");
+    databaseSpecificSkipLockedClause.put(H2, "");
+
     HashMap<String, String> constants = new HashMap<>();
     constants.put("constant.event", "'event'");
     constants.put("constant.op_message", "NEW_VALUE_ || '_|_' || PROPERTY_");
@@ -198,6 +211,10 @@ public class DbSqlSessionFactory implements SessionFactory {
 
       databaseSpecificCollationForCaseSensitivity.put(mysqlLikeDatabase, "");
 
+      databaseSpecificSkipLockedTableHint.put(mysqlLikeDatabase, "");
+      // SKIP LOCKED requires MySQL 8, see isSkipLockedSupported(String, int)
+      databaseSpecificSkipLockedClause.put(mysqlLikeDatabase, MYSQL.equals(mysqlLikeDatabase) ? "FOR UPDATE SKIP LOCKED" : "");
+
       addDatabaseSpecificStatement(mysqlLikeDatabase, "toggleForeignKey", "toggleForeignKey_mysql");
       addDatabaseSpecificStatement(mysqlLikeDatabase, "selectProcessDefinitionsByQueryCriteria", "selectProcessDefinitionsByQueryCriteria_mysql");
       addDatabaseSpecificStatement(mysqlLikeDatabase, "selectProcessDefinitionCountByQueryCriteria", "selectProcessDefinitionCountByQueryCriteria_mysql");
@@ -236,6 +253,7 @@ public class DbSqlSessionFactory implements SessionFactory {
 
       // related to CAM-10664
       addDatabaseSpecificStatement(mysqlLikeDatabase, "updateOperationLogAnnotationByOperationId", "updateOperationLogAnnotationByOperationId_mysql");
+      addDatabaseSpecificStatement(mysqlLikeDatabase, "insertCorrelationKeysOfVariables", "insertCorrelationKeysOfVariables_mysql");
 
       constants = new HashMap<>();
       constants.put("constant.event", "'event'");
@@ -288,6 +306,9 @@ public class DbSqlSessionFactory implements SessionFactory {
 
     databaseSpecificCollationForCaseSensitivity.put(POSTGRES, "");
 
+    databaseSpecificSkipLockedTableHint.put(POSTGRES, "");
+    databaseSpecificSkipLockedClause.put(POSTGRES, "FOR UPDATE SKIP LOCKED");
+
     addDatabaseSpecificStatement(POSTGRES, "insertByteArray", "insertByteArray_postgres");
     addDatabaseSpecificStatement(POSTGRES, "updateByteArray", "updateByteArray_postgres");
     addDatabaseSpecificStatement(POSTGRES, "selectByteArray", "selectByteArray_postgres");
@@ -381,6 +402,9 @@ public class DbSqlSessionFactory implements SessionFactory {
 
     databaseSpecificCollationForCaseSensitivity.put(ORACLE, "");
 
+    databaseSpecificSkipLockedTableHint.put(ORACLE, "");
+    databaseSpecificSkipLockedClause.put(ORACLE, "FOR UPDATE SKIP LOCKED");
+
     addDatabaseSpecificStatement(ORACLE, "selectHistoricProcessInstanceDurationReport", "selectHistoricProcessInstanceDurationReport_oracle");
     addDatabaseSpecificStatement(ORACLE, "selectHistoricTaskInstanceDurationReport", "selectHistoricTaskInstanceDurationReport_oracle");
     addDatabaseSpecificStatement(ORACLE, "selectHistoricTaskInstanceCountByTaskNameReport", "selectHistoricTaskInstanceCountByTaskNameReport_oracle");
@@ -407,6 +431,16 @@ public class DbSqlSessionFactory implements SessionFactory {
     addDatabaseSpecificStatement(ORACLE, "deleteUserOperationLogByRemovalTime", "deleteUserOperationLogByRemovalTime_oracle");
     addDatabaseSpecificStatement(ORACLE, "deleteByteArraysByRemovalTime", "deleteByteArraysByRemovalTime_oracle");
     addDatabaseSpecificStatement(ORACLE, "deleteHistoricBatchesByRemovalTime", "deleteHistoricBatchesByRemovalTime_oracle");
+    addDatabaseSpecificStatement(ORACLE, "selectHistoryCleanupRemovalTimes", "selectHistoryCleanupRemovalTimes_oracle");
+    addDatabaseSpecificStatement(ORACLE, "selectHistoryCleanupPartitions", "selectHistoryCleanupPartitions_oracle");
+    addDatabaseSpecificStatement(ORACLE, "dropHistoryCleanupPartition", "dropHistoryCleanupPartition_oracle");
+    addDatabaseSpecificStatement(ORACLE, "selectHistoryCleanupPartitionActiveRowCount", "selectHistoryCleanupPartitionActiveRowCount_oracle");
+    addDatabaseSpecificStatement(ORACLE, "createHistoryCleanupPartition", "createHistoryCleanupPartition_oracle");
+
+    // oracle does not support multi-row VALUES clauses
+    addDatabaseSpecificStatement(ORACLE, "bulkInsertHistoricActivityInstanceEvent", "bulkInsertHistoricActivityInstanceEvent_oracle");
+    addDatabaseSpecificStatement(ORACLE, "bulkInsertHistoricVariableInstance", "bulkInsertHistoricVariableInstance_oracle");
+    addDatabaseSpecificStatement(ORACLE, "bulkInsertHistoricVariableUpdateEvent", "bulkInsertHistoricVariableUpdateEvent_oracle");
 
     constants = new HashMap<>();
     constants.put("constant.event", "cast('event' as nvarchar2(255))");
@@ -460,6 +494,9 @@ public class DbSqlSessionFactory implements SessionFactory {
 
     databaseSpecificCollationForCaseSensitivity.put(DB2, "");
 
+    databaseSpecificSkipLockedTableHint.put(DB2, "");
+    databaseSpecificSkipLockedClause.put(DB2, "");
+
     addDatabaseSpecificStatement(DB2, "selectMeterLogAggregatedByTimeInterval", "selectMeterLogAggregatedByTimeInterval_db2_or_mssql");
     addDatabaseSpecificStatement(DB2, "selectExecutionByNativeQuery", "selectExecutionByNativeQuery_mssql_or_db2");
     addDatabaseSpecificStatement(DB2, "selectHistoricActivityInstanceByNativeQuery", "selectHistoricActivityInstanceByNativeQuery_mssql_or_db2");
@@ -490,6 +527,7 @@ public class DbSqlSessionFactory implements SessionFactory {
     addDatabaseSpecificStatement(DB2, "deleteUserOperationLogByRemovalTime", "deleteUserOperationLogByRemovalTime_postgres_or_db2");
     addDatabaseSpecificStatement(DB2, "deleteByteArraysByRemovalTime", "deleteByteArraysByRemovalTime_postgres_or_db2");
     addDatabaseSpecificStatement(DB2, "deleteHistoricBatchesByRemovalTime", "deleteHistoricBatchesByRemovalTime_postgres_or_db2");
+    addDatabaseSpecificStatement(DB2, "insertCorrelationKeysOfVariables", "insertCorrelationKeysOfVariables_db2");
 
     constants = new HashMap<>();
     constants.put("constant.event", "'event'");
@@ -543,6 +581,9 @@ public class DbSqlSessionFactory implements SessionFactory {
 
     databaseSpecificCollationForCaseSensitivity.put(MSSQL, "COLLATE Latin1_General_CS_AS");
 
+    databaseSpecificSkipLockedTableHint.put(MSSQL, "WITH (UPDLOCK, ROWLOCK, READPAST)");
+    databaseSpecificSkipLockedClause.put(MSSQL, "");
+
     addDatabaseSpecificStatement(MSSQL, "selectMeterLogAggregatedByTimeInterval", "selectMeterLogAggregatedByTimeInterval_db2_or_mssql");
     addDatabaseSpecificStatement(MSSQL, "selectExecutionByNativeQuery", "selectExecutionByNativeQuery_mssql_or_db2");
     addDatabaseSpecificStatement(MSSQL, "selectHistoricActivityInstanceByNativeQuery", "selectHistoricActivityInstanceByNativeQuery_mssql_or_db2");
@@ -559,6 +600,7 @@ public class DbSqlSessionFactory implements SessionFactory {
     addDatabaseSpecificStatement(MSSQL, "selectEventSubscriptionsByNameAndExecution", "selectEventSubscriptionsByNameAndExecution_mssql");
     addDatabaseSpecificStatement(MSSQL, "selectEventSubscriptionsByExecutionAndType", "selectEventSubscriptionsByExecutionAndType_mssql");
     addDatabaseSpecificStatement(MSSQL, "selectHistoricDecisionInstancesByNativeQuery", "selectHistoricDecisionInstancesByNativeQuery_mssql_or_db2");
+    addDatabaseSpecificStatement(MSSQL, "insertCorrelationKeysOfVariables", "insertCorrelationKeysOfVariables_mssql");
 
     constants = new HashMap<>();
     constants.put("constant.event", "'event'");
@@ -589,12 +631,16 @@ public class DbSqlSessionFactory implements SessionFactory {
   protected Map<Class<?>,String>  updateStatements = new ConcurrentHashMap<>();
   protected Map<Class<?>,String>  deleteStatements = new ConcurrentHashMap<>();
   protected Map<Class<?>,String>  selectStatements = new ConcurrentHashMap<>();
+  protected Map<Class<?>,String>  multiRowInsertStatements = new ConcurrentHashMap<>();
+  protected Map<Class<?>,Integer> multiRowInsertLimits = new ConcurrentHashMap<>();
   protected boolean isDbIdentityUsed = true;
   protected boolean isDbHistoryUsed = true;
   protected boolean cmmnEnabled = true;
   protected boolean dmnEnabled = true;
+  protected boolean historyPartitioningEnabled = false;
 
   protected boolean jdbcBatchProcessing;
+  protected boolean jdbcMultiRowInsertEnabled;
 
   public DbSqlSessionFactory(boolean jdbcBatchProcessing) {
     this.jdbcBatchProcessing = jdbcBatchProcessing;
@@ -632,6 +678,44 @@ public class DbSqlSessionFactory implements SessionFactory {
     return getStatement(persistentObjectClass, selectStatements, "select");
   }
 
+  public String getMultiRowInsertStatement(DbEntity object) {
+    return getStatement(object.getClass(), multiRowInsertStatements, "bulkInsert");
+  }
+
+  /**
+   * @return the maximum number of rows of the given entity type that can be inserted
+   * with a single multi-row INSERT statement; <code>1</code> if multi-row inserts are disabled
+   * or there is no <code>bulkInsert</code> mapping for the entity type.
+   */
+  public int getMultiRowInsertLimit(DbEntity object) {
+    if (!jdbcBatchProcessing || !jdbcMultiRowInsertEnabled) {
+      return 1;
+    }
+
+    Integer limit = multiRowInsertLimits.get(object.getClass());
+    if (limit == null) {
+      limit = calculateMultiRowInsertLimit(object);
+      multiRowInsertLimits.put(object.getClass(), limit);
+    }
+    return limit;
+  }
+
+  protected int calculateMultiRowInsertLimit(DbEntity object) {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+
+    String multiRowInsertStatement = mapStatement(getMultiRowInsertStatement(object));
+    if (!configuration.hasStatement(multiRowInsertStatement)) {
+      return 1;
+    }
+
+    // stay below the maximum number of parameters per prepared statement
+    String insertStatement = mapStatement(getInsertStatement(object));
+    MappedStatement mappedStatement = configuration.getMappedStatement(insertStatement);
+    int parametersPerRow = mappedStatement.getBoundSql(object).getParameterMappings().size();
+
+    return Math.max(1, MAXIMUM_NUMBER_PARAMS / Math.max(1, parametersPerRow));
+  }
+
   private String getStatement(Class<?> persistentObjectClass, Map<Class<?>,String> cachedStatements, String prefix) {
     String statement = cachedStatements.get(persistentObjectClass);
     if (statement!=null) {
@@ -645,6 +729,30 @@ public class DbSqlSessionFactory implements SessionFactory {
 
   // db specific mappings /////////////////////////////////////////////////////
 
+  /**
+   * @return true if rows selected for acquisition can be locked on the given database type
+   */
+  public static boolean isSkipLockedSupported(String databaseType) {
+    String tableHint = databaseSpecificSkipLockedTableHint.get(databaseType);
+    String clause = databaseSpecificSkipLockedClause.get(databaseType);
+    return (tableHint != null && !tableHint.isEmpty()) || (clause != null && !clause.isEmpty());
+  }
+
+  /**
+   * @return true if rows selected for acquisition can be locked on the given database type
+   * in the given major version of the database server
+   */
+  public static boolean isSkipLockedSupported(String databaseType, int databaseMajorVersion) {
+    if (MYSQL.equals(databaseType) && databaseMajorVersion < MYSQL_SKIP_LOCKED_MIN_MAJOR_VERSION) {
+      return false;
+    }
+    return isSkipLockedSupported(databaseType);
+  }
+
+  public static boolean isPartitionDropSupported(String databaseType) {
+    return POSTGRES.equals(databaseType) || ORACLE.equals(databaseType);
+  }
+
   protected static void addDatabaseSpecificStatement(String databaseType, String activitiStatement, String ibatisStatement) {
     Map<String, String> specificStatements = databaseSpecificStatements.get(databaseType);
     if (specificStatements == null) {
@@ -774,6 +882,22 @@ public class DbSqlSessionFactory implements SessionFactory {
     this.dmnEnabled = dmnEnabled;
   }
 
+  public boolean isHistoryPartitioningEnabled() {
+    return historyPartitioningEnabled;
+  }
+
+  public void setHistoryPartitioningEnabled(boolean historyPartitioningEnabled) {
+    this.historyPartitioningEnabled = historyPartitioningEnabled;
+  }
+
+  public boolean isJdbcMultiRowInsertEnabled() {
+    return jdbcMultiRowInsertEnabled;
+  }
+
+  public void setJdbcMultiRowInsertEnabled(boolean jdbcMultiRowInsertEnabled) {
+    this.jdbcMultiRowInsertEnabled = jdbcMultiRowInsertEnabled;
+  }
+
   public void setDatabaseTablePrefix(String databaseTablePrefix) {
     this.databaseTablePrefix = databaseTablePrefix;
   }
@@ -82,6 +82,10 @@ public class ExpressionManager {
     return expressionFactory.createValueExpression(parsingElContext, expression, Object.class);
   }
 
+  public ExpressionFactory getExpressionFactory() {
+    return expressionFactory;
+  }
+
   public void setExpressionFactory(ExpressionFactory expressionFactory) {
     this.expressionFactory = expressionFactory;
   }
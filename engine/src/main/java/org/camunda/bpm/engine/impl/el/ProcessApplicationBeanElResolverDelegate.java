@@ -26,17 +26,19 @@ import org.camunda.bpm.engine.impl.javax.el.ELResolver;
 
 /**
  * <p>Resolves a {@link BeanELResolver} from the current process application.
- * This allows to cache resolvers on the process application level. Such a resolver
- * cannot be cached globally as {@link BeanELResolver} keeps a cache of classes
- * involved in expressions.</p>
+ * This allows to cache resolvers on the process application level.</p>
  *
  * <p>If resolution is attempted outside the context of a process application,
- * then always a new resolver instance is returned (i.e. no caching in these cases).</p>
+ * then a resolver shared by all such resolutions is returned. The {@link BeanELResolver}
+ * stores its cached bean properties with the bean classes, so sharing it does not
+ * prevent the classes of a process application from being unloaded.</p>
  *
  * @author Thorben Lindhauer
  */
 public class ProcessApplicationBeanElResolverDelegate extends AbstractElResolverDelegate {
 
+  protected BeanELResolver beanElResolver = new BeanELResolver();
+
   protected ELResolver getElResolverDelegate() {
 
     ProcessApplicationReference processApplicationReference = Context.getCurrentProcessApplication();
@@ -51,7 +53,7 @@ public class ProcessApplicationBeanElResolverDelegate extends AbstractElResolver
       }
 
     } else {
-      return new BeanELResolver();
+      return beanElResolver;
     }
 
   }
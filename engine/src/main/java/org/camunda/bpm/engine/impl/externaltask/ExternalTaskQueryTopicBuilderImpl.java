@@ -130,6 +130,14 @@ public class ExternalTaskQueryTopicBuilderImpl implements ExternalTaskQueryTopic
     return this;
   }
 
+  /**
+   * @return the fetch instructions by topic name, including the topic currently being built
+   */
+  public Map<String, TopicFetchInstruction> getInstructions() {
+    submitCurrentInstruction();
+    return instructions;
+  }
+
   protected void submitCurrentInstruction() {
     if (currentInstruction != null) {
       this.instructions.put(currentInstruction.getTopicName(), currentInstruction);
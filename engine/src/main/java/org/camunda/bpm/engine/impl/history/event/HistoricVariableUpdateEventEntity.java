@@ -39,6 +39,8 @@ public class HistoricVariableUpdateEventEntity extends HistoricDetailEventEntity
   protected String textValue;
   protected String textValue2;
   protected byte[] byteValue;
+  /** byte array whose content is copied within the database if there is no byte value in memory */
+  protected String sourceByteArrayId;
 
   protected String byteArrayId;
 
@@ -86,6 +88,12 @@ public class HistoricVariableUpdateEventEntity extends HistoricDetailEventEntity
   public void setByteValue(byte[] byteValue) {
     this.byteValue = byteValue;
   }
+  public String getSourceByteArrayId() {
+    return sourceByteArrayId;
+  }
+  public void setSourceByteArrayId(String sourceByteArrayId) {
+    this.sourceByteArrayId = sourceByteArrayId;
+  }
   public int getRevision() {
     return revision;
   }
@@ -0,0 +1,352 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.history.eventlog;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.db.EnginePersistenceLogger;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.util.ClassLoaderUtil;
+import org.camunda.bpm.engine.impl.util.ReflectUtil;
+
+/**
+ * <p>Compact binary encoding of {@link HistoryEvent}s for the {@link HistoryEventLog}.</p>
+ *
+ * <p>An event is encoded as its class name followed by its non-null fields, each as
+ * field name, type tag and value. Numbers are encoded as variable-length integers.
+ * Fields of nested history events and lists of them, as used by decision evaluation
+ * events, are encoded recursively. Fields of other types hold derived state and are
+ * skipped. Since fields are matched by name, events remain readable when fields are
+ * added to or removed from the event classes.</p>
+ */
+public class HistoryEventCodec {
+
+  protected static final EnginePersistenceLogger LOG = ProcessEngineLogger.PERSISTENCE_LOGGER;
+
+  protected static final byte NULL = 0;
+  protected static final byte STRING = 1;
+  protected static final byte LONG = 2;
+  protected static final byte INTEGER = 3;
+  protected static final byte SHORT = 4;
+  protected static final byte DOUBLE = 5;
+  protected static final byte TRUE = 6;
+  protected static final byte FALSE = 7;
+  protected static final byte DATE = 8;
+  protected static final byte BYTES = 9;
+  protected static final byte EVENT = 10;
+  protected static final byte LIST = 11;
+
+  protected Map<Class<?>, Map<String, Field>> fieldsByClass = new ConcurrentHashMap<>();
+
+  public byte[] encode(HistoryEvent historyEvent) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+    DataOutputStream out = new DataOutputStream(bytes);
+    try {
+      writeEvent(out, historyEvent);
+      out.flush();
+    } catch (IOException e) {
+      // cannot happen when writing to a byte array
+      throw LOG.historyEventEncodingException(historyEvent.getClass().getName(), e);
+    }
+    return bytes.toByteArray();
+  }
+
+  public HistoryEvent decode(byte[] bytes) {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+    try {
+      return readEvent(in);
+    } catch (IOException e) {
+      throw LOG.historyEventDecodingException(e);
+    }
+  }
+
+  protected void writeEvent(DataOutputStream out, HistoryEvent historyEvent) throws IOException {
+    out.writeUTF(historyEvent.getClass().getName());
+
+    Map<String, Field> fields = getFields(historyEvent.getClass());
+    for (Field field : fields.values()) {
+      Object value = getFieldValue(field, historyEvent);
+      if (value != null && isSupportedValue(value)) {
+        out.writeUTF(field.getName());
+        writeValue(out, value);
+      }
+    }
+
+    // end of fields
+    out.writeUTF("");
+  }
+
+  protected HistoryEvent readEvent(DataInputStream in) throws IOException {
+    Class<?> eventClass = loadEventClass(in.readUTF());
+    HistoryEvent historyEvent = (HistoryEvent) ReflectUtil.instantiate(eventClass);
+
+    Map<String, Field> fields = getFields(eventClass);
+    String fieldName = in.readUTF();
+    while (!fieldName.isEmpty()) {
+      Object value = readValue(in);
+
+      Field field = fields.get(fieldName);
+      if (field != null && isAssignable(field, value)) {
+        setFieldValue(field, historyEvent, value);
+      }
+
+      fieldName = in.readUTF();
+    }
+
+    return historyEvent;
+  }
+
+  /**
+   * Loads the class without initializing it, so that no code of a class named in a
+   * corrupted or forged log is run unless the class is a history event.
+   */
+  protected Class<?> loadEventClass(String className) throws IOException {
+    Class<?> eventClass = null;
+    for (ClassLoader classLoader : new ClassLoader[] { ClassLoaderUtil.getContextClassloader(), HistoryEvent.class.getClassLoader() }) {
+      if (classLoader != null && eventClass == null) {
+        try {
+          eventClass = Class.forName(className, false, classLoader);
+        } catch (ClassNotFoundException e) {
+          // try the next class loader
+        }
+      }
+    }
+
+    if (eventClass == null) {
+      throw new IOException("Cannot find history event class '" + className + "'");
+    }
+    if (!HistoryEvent.class.isAssignableFrom(eventClass)) {
+      throw new IOException("Class '" + className + "' is not a history event");
+    }
+    return eventClass;
+  }
+
+  protected void writeValue(DataOutputStream out, Object value) throws IOException {
+    if (value == null) {
+      out.writeByte(NULL);
+    } else if (value instanceof String) {
+      out.writeByte(STRING);
+      writeString(out, (String) value);
+    } else if (value instanceof Long) {
+      out.writeByte(LONG);
+      writeVarLong(out, (Long) value);
+    } else if (value instanceof Integer) {
+      out.writeByte(INTEGER);
+      writeVarLong(out, (Integer) value);
+    } else if (value instanceof Short) {
+      out.writeByte(SHORT);
+      writeVarLong(out, (Short) value);
+    } else if (value instanceof Double) {
+      out.writeByte(DOUBLE);
+      out.writeDouble((Double) value);
+    } else if (value instanceof Boolean) {
+      out.writeByte((Boolean) value ? TRUE : FALSE);
+    } else if (value instanceof Date) {
+      out.writeByte(DATE);
+      writeVarLong(out, ((Date) value).getTime());
+    } else if (value instanceof byte[]) {
+      out.writeByte(BYTES);
+      byte[] bytes = (byte[]) value;
+      writeVarLong(out, bytes.length);
+      out.write(bytes);
+    } else if (value instanceof HistoryEvent) {
+      out.writeByte(EVENT);
+      writeEvent(out, (HistoryEvent) value);
+    } else {
+      Collection<?> elements = (Collection<?>) value;
+      out.writeByte(LIST);
+      writeVarLong(out, elements.size());
+      for (Object element : elements) {
+        writeValue(out, isSupportedValue(element) ? element : null);
+      }
+    }
+  }
+
+  protected Object readValue(DataInputStream in) throws IOException {
+    byte tag = in.readByte();
+    switch (tag) {
+    case NULL:
+      return null;
+    case STRING:
+      return readString(in);
+    case LONG:
+      return readVarLong(in);
+    case INTEGER:
+      return (int) readVarLong(in);
+    case SHORT:
+      return (short) readVarLong(in);
+    case DOUBLE:
+      return in.readDouble();
+    case TRUE:
+      return Boolean.TRUE;
+    case FALSE:
+      return Boolean.FALSE;
+    case DATE:
+      return new Date(readVarLong(in));
+    case BYTES:
+      byte[] bytes = new byte[(int) readVarLong(in)];
+      in.readFully(bytes);
+      return bytes;
+    case EVENT:
+      return readEvent(in);
+    case LIST:
+      int size = (int) readVarLong(in);
+      List<Object> elements = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        elements.add(readValue(in));
+      }
+      return elements;
+    default:
+      throw new IOException("Unknown type tag " + tag);
+    }
+  }
+
+  protected boolean isSupportedValue(Object value) {
+    return value == null
+        || value instanceof String
+        || value instanceof Long
+        || value instanceof Integer
+        || value instanceof Short
+        || value instanceof Double
+        || value instanceof Boolean
+        || value instanceof Date
+        || value instanceof byte[]
+        || value instanceof HistoryEvent
+        || value instanceof Collection;
+  }
+
+  protected boolean isAssignable(Field field, Object value) {
+    if (value == null) {
+      return !field.getType().isPrimitive();
+    }
+    Class<?> fieldType = field.getType();
+    if (fieldType.isPrimitive()) {
+      return (fieldType == long.class && value instanceof Long)
+          || (fieldType == int.class && value instanceof Integer)
+          || (fieldType == short.class && value instanceof Short)
+          || (fieldType == double.class && value instanceof Double)
+          || (fieldType == boolean.class && value instanceof Boolean);
+    }
+    return fieldType.isInstance(value);
+  }
+
+  /**
+   * Strings are encoded as UTF-8 with a variable-length size, which unlike
+   * {@link DataOutputStream#writeUTF(String)} is not limited to 64 KB.
+   */
+  protected void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    writeVarLong(out, bytes.length);
+    out.write(bytes);
+  }
+
+  protected String readString(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[(int) readVarLong(in)];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /** zig-zag encoded, seven bits per byte */
+  protected void writeVarLong(DataOutputStream out, long value) throws IOException {
+    long zigZag = (value << 1) ^ (value >> 63);
+    while ((zigZag & ~0x7FL) != 0) {
+      out.writeByte((int) ((zigZag & 0x7F) | 0x80));
+      zigZag >>>= 7;
+    }
+    out.writeByte((int) zigZag);
+  }
+
+  protected long readVarLong(DataInputStream in) throws IOException {
+    long zigZag = 0;
+    int shift = 0;
+    byte b;
+    do {
+      b = in.readByte();
+      zigZag |= (long) (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    return (zigZag >>> 1) ^ -(zigZag & 1);
+  }
+
+  protected Map<String, Field> getFields(Class<?> eventClass) {
+    Map<String, Field> fields = fieldsByClass.get(eventClass);
+    if (fields == null) {
+      fields = new LinkedHashMap<>();
+
+      for (Class<?> type = eventClass; type != Object.class; type = type.getSuperclass()) {
+        for (Field field : type.getDeclaredFields()) {
+          int modifiers = field.getModifiers();
+          if (!Modifier.isStatic(modifiers)
+              && !Modifier.isTransient(modifiers)
+              && !fields.containsKey(field.getName())
+              && isSupportedType(field.getType())) {
+            field.setAccessible(true);
+            fields.put(field.getName(), field);
+          }
+        }
+      }
+
+      fieldsByClass.put(eventClass, fields);
+    }
+    return fields;
+  }
+
+  protected boolean isSupportedType(Class<?> type) {
+    return type.isPrimitive()
+        || type == String.class
+        || Number.class.isAssignableFrom(type)
+        || type == Boolean.class
+        || Date.class.isAssignableFrom(type)
+        || type == byte[].class
+        || HistoryEvent.class.isAssignableFrom(type)
+        || type == List.class
+        || type == Collection.class
+        || type == ArrayList.class;
+  }
+
+  protected Object getFieldValue(Field field, Object object) {
+    try {
+      return field.get(object);
+    } catch (IllegalAccessException e) {
+      throw LOG.historyEventEncodingException(object.getClass().getName(), e);
+    }
+  }
+
+  protected void setFieldValue(Field field, Object object, Object value) {
+    try {
+      field.set(object, value);
+    } catch (IllegalAccessException e) {
+      throw LOG.historyEventDecodingException(e);
+    }
+  }
+
+}
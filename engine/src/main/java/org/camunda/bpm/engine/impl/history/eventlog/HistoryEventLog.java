@@ -0,0 +1,418 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.history.eventlog;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.db.EnginePersistenceLogger;
+
+/**
+ * <p>Append-only log of encoded history events, split into segment files.</p>
+ *
+ * <p>Each segment file is named after the sequence number of its first record and
+ * starts with a magic number. A record consists of the length of its payload, the
+ * CRC32 checksum of the payload and the payload itself. The records of one append
+ * are written with a single write from a direct buffer.</p>
+ *
+ * <p>If {@link #isSync() sync} is enabled, {@link #append(List)} returns once the
+ * records are on disk. Concurrent appends share one <code>fsync</code>: the thread that
+ * syncs the segment covers all records appended before it started.</p>
+ *
+ * <p>When the log is opened, an incomplete record at the end of the last segment, left
+ * behind by a crash, is truncated.</p>
+ *
+ * @see HistoryEventLogReader
+ */
+public class HistoryEventLog {
+
+  protected static final EnginePersistenceLogger LOG = ProcessEngineLogger.PERSISTENCE_LOGGER;
+
+  public static final long DEFAULT_SEGMENT_SIZE = 64L * 1024 * 1024;
+
+  protected static final String SEGMENT_SUFFIX = ".hlog";
+  protected static final int SEGMENT_MAGIC = 0x48455631;
+  protected static final int SEGMENT_HEADER_SIZE = 4;
+  protected static final int RECORD_HEADER_SIZE = 8;
+
+  protected File directory;
+  protected long segmentSize;
+  protected boolean sync;
+
+  protected final ReentrantLock writeLock = new ReentrantLock();
+
+  // guarded by the write lock
+  protected FileChannel segmentChannel;
+  protected File segmentFile;
+  protected long segmentPosition;
+  protected long nextSequence;
+  protected ByteBuffer writeBuffer = ByteBuffer.allocateDirect(64 * 1024);
+  protected CRC32 checksum = new CRC32();
+
+  // guarded by the sync monitor
+  protected final Object syncMonitor = new Object();
+  protected long syncedSequence;
+
+  public HistoryEventLog(File directory) {
+    this(directory, DEFAULT_SEGMENT_SIZE, true);
+  }
+
+  public HistoryEventLog(File directory, long segmentSize, boolean sync) {
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    this.sync = sync;
+    open();
+  }
+
+  protected void open() {
+    directory.mkdirs();
+
+    File[] segments = listSegments(directory);
+    if (segments.length == 0) {
+      openSegment(0);
+    } else {
+      recoverSegment(segments[segments.length - 1]);
+    }
+
+    syncedSequence = nextSequence;
+  }
+
+  /**
+   * Appends the given payloads as consecutive records.
+   *
+   * @return the sequence number of the first appended record
+   */
+  public long append(List<byte[]> payloads) {
+    long firstSequence;
+    long endSequence;
+
+    writeLock.lock();
+    try {
+      firstSequence = nextSequence;
+
+      for (byte[] payload : payloads) {
+        int recordSize = RECORD_HEADER_SIZE + payload.length;
+        if (segmentPosition + recordSize > segmentSize && segmentPosition > SEGMENT_HEADER_SIZE) {
+          writeBufferToSegment();
+          rollSegment();
+        }
+        bufferRecord(payload);
+        segmentPosition += recordSize;
+        nextSequence++;
+      }
+
+      writeBufferToSegment();
+      endSequence = nextSequence;
+
+    } finally {
+      writeLock.unlock();
+    }
+
+    if (sync) {
+      awaitSynced(endSequence);
+    }
+
+    return firstSequence;
+  }
+
+  protected void bufferRecord(byte[] payload) {
+    int recordSize = RECORD_HEADER_SIZE + payload.length;
+    if (writeBuffer.remaining() < recordSize) {
+      writeBufferToSegment();
+      if (writeBuffer.capacity() < recordSize) {
+        writeBuffer = ByteBuffer.allocateDirect(recordSize);
+      }
+    }
+
+    checksum.reset();
+    checksum.update(payload, 0, payload.length);
+
+    writeBuffer.putInt(payload.length);
+    writeBuffer.putInt((int) checksum.getValue());
+    writeBuffer.put(payload);
+  }
+
+  protected void writeBufferToSegment() {
+    writeBuffer.flip();
+    try {
+      while (writeBuffer.hasRemaining()) {
+        segmentChannel.write(writeBuffer);
+      }
+    } catch (IOException e) {
+      throw LOG.historyEventLogException("write", segmentFile.getPath(), e);
+    } finally {
+      writeBuffer.clear();
+    }
+  }
+
+  /**
+   * Waits until all records before the given sequence number are on disk. Threads
+   * appending while a sync is in progress are covered by the next sync.
+   */
+  protected void awaitSynced(long sequence) {
+    synchronized (syncMonitor) {
+      if (syncedSequence < sequence) {
+        syncedSequence = Math.max(syncedSequence, syncCurrentSegment());
+      }
+    }
+  }
+
+  /**
+   * @return the sequence number up to which records are synced
+   */
+  protected long syncCurrentSegment() {
+    FileChannel channel;
+    long sequence;
+    String path;
+
+    writeLock.lock();
+    try {
+      channel = segmentChannel;
+      sequence = nextSequence;
+      path = segmentFile.getPath();
+    } finally {
+      writeLock.unlock();
+    }
+
+    try {
+      channel.force(false);
+    } catch (ClosedChannelException e) {
+      // the segment was rolled, which syncs it
+    } catch (IOException e) {
+      throw LOG.historyEventLogException("sync", path, e);
+    }
+
+    return sequence;
+  }
+
+  protected void rollSegment() {
+    closeSegment();
+    openSegment(nextSequence);
+  }
+
+  protected void openSegment(long firstSequence) {
+    segmentFile = new File(directory, getSegmentName(firstSequence));
+    try {
+      segmentChannel = FileChannel.open(segmentFile.toPath(),
+          StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+
+      ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_SIZE);
+      header.putInt(SEGMENT_MAGIC);
+      header.flip();
+      while (header.hasRemaining()) {
+        segmentChannel.write(header);
+      }
+
+    } catch (IOException e) {
+      throw LOG.historyEventLogException("create", segmentFile.getPath(), e);
+    }
+
+    segmentPosition = SEGMENT_HEADER_SIZE;
+    nextSequence = firstSequence;
+  }
+
+  protected void recoverSegment(File segment) {
+    segmentFile = segment;
+    try {
+      segmentChannel = FileChannel.open(segment.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+      SegmentScanner scanner = new SegmentScanner(segmentChannel);
+      long recordCount = 0;
+      while (scanner.next() != null) {
+        recordCount++;
+      }
+
+      if (scanner.getPosition() < segmentChannel.size()) {
+        LOG.historyEventLogTruncated(segment.getPath(), scanner.getPosition());
+        segmentChannel.truncate(scanner.getPosition());
+      }
+
+      segmentChannel.position(scanner.getPosition());
+      segmentPosition = scanner.getPosition();
+      nextSequence = getFirstSequence(segment) + recordCount;
+
+    } catch (IOException e) {
+      throw LOG.historyEventLogException("recover", segment.getPath(), e);
+    }
+  }
+
+  protected void closeSegment() {
+    if (segmentChannel != null) {
+      try {
+        segmentChannel.force(false);
+        segmentChannel.close();
+      } catch (IOException e) {
+        throw LOG.historyEventLogException("close", segmentFile.getPath(), e);
+      }
+      segmentChannel = null;
+    }
+  }
+
+  /**
+   * Syncs and closes the current segment.
+   */
+  public void close() {
+    writeLock.lock();
+    try {
+      closeSegment();
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * @return the sequence number the next appended record will get
+   */
+  public long getNextSequence() {
+    writeLock.lock();
+    try {
+      return nextSequence;
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  public File getDirectory() {
+    return directory;
+  }
+
+  public long getSegmentSize() {
+    return segmentSize;
+  }
+
+  public boolean isSync() {
+    return sync;
+  }
+
+  // segment files ///////////////////////////////////////////////////////////
+
+  protected static String getSegmentName(long firstSequence) {
+    return String.format("%020d", firstSequence) + SEGMENT_SUFFIX;
+  }
+
+  protected static long getFirstSequence(File segment) {
+    String name = segment.getName();
+    return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+  }
+
+  /**
+   * @return the segment files of the directory, ordered by their first sequence number
+   */
+  protected static File[] listSegments(File directory) {
+    File[] segments = directory.listFiles(new FilenameFilter() {
+      public boolean accept(File dir, String name) {
+        return name.endsWith(SEGMENT_SUFFIX);
+      }
+    });
+
+    if (segments == null) {
+      return new File[0];
+    }
+
+    // names are zero-padded, so lexical order is sequence order
+    Arrays.sort(segments);
+    return segments;
+  }
+
+  /**
+   * Reads the records of a segment one by one, stopping at the end of the segment or
+   * at the first incomplete or corrupt record.
+   */
+  protected static class SegmentScanner {
+
+    protected final ByteBuffer buffer;
+    protected final CRC32 checksum = new CRC32();
+
+    public SegmentScanner(FileChannel channel) throws IOException {
+      this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+      if (buffer.remaining() < SEGMENT_HEADER_SIZE || buffer.getInt() != SEGMENT_MAGIC) {
+        throw new IOException("Not a history event log segment");
+      }
+    }
+
+    /**
+     * Continues scanning at the given position, which must be the start of a record
+     * as returned by {@link #getPosition()}.
+     */
+    public SegmentScanner(FileChannel channel, long position) throws IOException {
+      this(channel);
+      if (position > SEGMENT_HEADER_SIZE) {
+        buffer.position((int) Math.min(position, buffer.limit()));
+      }
+    }
+
+    /**
+     * @return the payload of the next record or <code>null</code> if there is none
+     */
+    public byte[] next() {
+      if (buffer.remaining() < RECORD_HEADER_SIZE) {
+        return null;
+      }
+
+      int start = buffer.position();
+      int length = buffer.getInt();
+      int expectedChecksum = buffer.getInt();
+
+      if (length < 0 || buffer.remaining() < length) {
+        buffer.position(start);
+        return null;
+      }
+
+      byte[] payload = new byte[length];
+      buffer.get(payload);
+
+      checksum.reset();
+      checksum.update(payload, 0, length);
+      if ((int) checksum.getValue() != expectedChecksum) {
+        buffer.position(start);
+        return null;
+      }
+
+      return payload;
+    }
+
+    public long getPosition() {
+      return buffer.position();
+    }
+
+  }
+
+  protected static List<File> segmentsFrom(File directory, long fromSequence) {
+    File[] segments = listSegments(directory);
+    List<File> result = new ArrayList<>();
+    for (int i = 0; i < segments.length; i++) {
+      boolean containsSequence = i + 1 == segments.length || getFirstSequence(segments[i + 1]) > fromSequence;
+      if (containsSequence) {
+        result.add(segments[i]);
+      }
+    }
+    return result;
+  }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.history.eventlog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.camunda.bpm.engine.impl.cfg.TransactionListener;
+import org.camunda.bpm.engine.impl.cfg.TransactionState;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.history.handler.CompositeHistoryEventHandler;
+import org.camunda.bpm.engine.impl.history.handler.HistoryEventHandler;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+
+/**
+ * <p>History event handler that appends history events to a {@link HistoryEventLog}.
+ * Can be used next to or instead of the database history event handler, e.g. in a
+ * {@link CompositeHistoryEventHandler}.</p>
+ *
+ * <p>Events are encoded when they are produced, since the producer may update an event
+ * object later in the same transaction. The encoded events of a transaction are
+ * appended to the log once the transaction is committed, so the log contains the
+ * events of committed transactions only.</p>
+ */
+public class HistoryEventLogHandler implements HistoryEventHandler {
+
+  protected HistoryEventLog historyEventLog;
+  protected HistoryEventCodec codec;
+
+  protected Map<CommandContext, List<byte[]>> stagedEvents = new ConcurrentHashMap<>();
+
+  public HistoryEventLogHandler(HistoryEventLog historyEventLog) {
+    this(historyEventLog, new HistoryEventCodec());
+  }
+
+  public HistoryEventLogHandler(HistoryEventLog historyEventLog, HistoryEventCodec codec) {
+    this.historyEventLog = historyEventLog;
+    this.codec = codec;
+  }
+
+  public void handleEvent(HistoryEvent historyEvent) {
+    byte[] payload = codec.encode(historyEvent);
+
+    CommandContext commandContext = Context.getCommandContext();
+    if (commandContext == null) {
+      historyEventLog.append(Collections.singletonList(payload));
+    } else {
+      getStagedEvents(commandContext).add(payload);
+    }
+  }
+
+  public void handleEvents(List<HistoryEvent> historyEvents) {
+    for (HistoryEvent historyEvent : historyEvents) {
+      handleEvent(historyEvent);
+    }
+  }
+
+  protected List<byte[]> getStagedEvents(final CommandContext commandContext) {
+    List<byte[]> events = stagedEvents.get(commandContext);
+
+    if (events == null) {
+      events = new ArrayList<>();
+      stagedEvents.put(commandContext, events);
+
+      commandContext.getTransactionContext().addTransactionListener(TransactionState.COMMITTED, new TransactionListener() {
+        public void execute(CommandContext context) {
+          List<byte[]> committedEvents = stagedEvents.remove(commandContext);
+          if (committedEvents != null && !committedEvents.isEmpty()) {
+            historyEventLog.append(committedEvents);
+          }
+        }
+      });
+      commandContext.getTransactionContext().addTransactionListener(TransactionState.ROLLED_BACK, new TransactionListener() {
+        public void execute(CommandContext context) {
+          stagedEvents.remove(commandContext);
+        }
+      });
+    }
+
+    return events;
+  }
+
+  public HistoryEventLog getHistoryEventLog() {
+    return historyEventLog;
+  }
+
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.history.eventlog;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.db.EnginePersistenceLogger;
+import org.camunda.bpm.engine.impl.history.eventlog.HistoryEventLog.SegmentScanner;
+
+/**
+ * <p>Reads history events from the segments of a {@link HistoryEventLog}. The segments
+ * are memory-mapped for reading. Reading is safe while the log is appended to; records
+ * that are not completely written yet are not returned.</p>
+ *
+ * <p>The reader remembers where the last read stopped, so that a read continuing at
+ * the next sequence number, like the reads of a replay, does not scan the segment
+ * from its start again. Instances are not thread-safe.</p>
+ */
+public class HistoryEventLogReader {
+
+  protected static final EnginePersistenceLogger LOG = ProcessEngineLogger.PERSISTENCE_LOGGER;
+
+  protected File directory;
+  protected HistoryEventCodec codec;
+
+  /** the segment, position in the segment and sequence number of the record following the last read */
+  protected File cursorSegment;
+  protected long cursorPosition;
+  protected long cursorSequence;
+
+  public HistoryEventLogReader(File directory) {
+    this(directory, new HistoryEventCodec());
+  }
+
+  public HistoryEventLogReader(File directory, HistoryEventCodec codec) {
+    this.directory = directory;
+    this.codec = codec;
+  }
+
+  /**
+   * @param fromSequence the sequence number of the first record to read
+   * @param maxRecords the maximum number of records to read
+   *
+   * @return the records in sequence order, empty if there are no more records
+   */
+  public List<HistoryEventLogRecord> read(long fromSequence, int maxRecords) {
+    List<HistoryEventLogRecord> records = new ArrayList<>();
+
+    for (File segment : HistoryEventLog.segmentsFrom(directory, fromSequence)) {
+      long sequence = HistoryEventLog.getFirstSequence(segment);
+      long position = 0;
+      if (segment.equals(cursorSegment) && cursorSequence <= fromSequence) {
+        sequence = cursorSequence;
+        position = cursorPosition;
+      }
+
+      try (FileChannel channel = FileChannel.open(segment.toPath(), StandardOpenOption.READ)) {
+        SegmentScanner scanner = new SegmentScanner(channel, position);
+
+        while (records.size() < maxRecords) {
+          byte[] payload = scanner.next();
+          if (payload == null) {
+            break;
+          }
+          if (sequence >= fromSequence) {
+            records.add(new HistoryEventLogRecord(sequence, codec.decode(payload)));
+          }
+          sequence++;
+        }
+
+        cursorSegment = segment;
+        cursorPosition = scanner.getPosition();
+        cursorSequence = sequence;
+
+      } catch (IOException e) {
+        throw LOG.historyEventLogException("read", segment.getPath(), e);
+      }
+
+      if (records.size() >= maxRecords) {
+        break;
+      }
+    }
+
+    return records;
+  }
+
+}
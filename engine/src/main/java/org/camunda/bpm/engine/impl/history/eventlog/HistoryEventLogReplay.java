@@ -0,0 +1,119 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.history.eventlog;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.cmd.WriteHistoryEventsCmd;
+import org.camunda.bpm.engine.impl.db.EnginePersistenceLogger;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.history.handler.BatchDbHistoryEventHandler;
+import org.camunda.bpm.engine.impl.history.handler.HistoryEventHandler;
+
+/**
+ * <p>Rebuilds the history tables from a {@link HistoryEventLog} by writing the logged
+ * events to the database of a process engine, in batches of consecutive events.</p>
+ *
+ * <p>The events are written as if they were produced by the engine, i.e. the history
+ * tables are expected not to contain the history of the replayed events yet. Content
+ * that producers store in byte arrays of their own, like exception stacktraces of
+ * the job log, is not part of the log and is not restored.</p>
+ *
+ * <p>Can be run from the command line with the log directory and, optionally, the
+ * resource of the process engine configuration (default <code>camunda.cfg.xml</code>)
+ * as arguments.</p>
+ */
+public class HistoryEventLogReplay {
+
+  protected static final EnginePersistenceLogger LOG = ProcessEngineLogger.PERSISTENCE_LOGGER;
+
+  public static final int DEFAULT_BATCH_SIZE = 500;
+
+  protected ProcessEngineConfigurationImpl processEngineConfiguration;
+  protected HistoryEventLogReader reader;
+  protected HistoryEventHandler historyEventHandler = new BatchDbHistoryEventHandler();
+  protected int batchSize = DEFAULT_BATCH_SIZE;
+
+  public HistoryEventLogReplay(ProcessEngineConfigurationImpl processEngineConfiguration, File directory) {
+    this.processEngineConfiguration = processEngineConfiguration;
+    this.reader = new HistoryEventLogReader(directory);
+  }
+
+  /**
+   * Writes the logged events starting with the given sequence number.
+   *
+   * @return the sequence number of the first event that was not replayed, which can
+   * be used to continue the replay once more events are logged
+   */
+  public long replay(long fromSequence) {
+    long nextSequence = fromSequence;
+    long replayedEvents = 0;
+
+    List<HistoryEventLogRecord> records = reader.read(nextSequence, batchSize);
+    while (!records.isEmpty()) {
+      List<HistoryEvent> historyEvents = new ArrayList<>(records.size());
+      for (HistoryEventLogRecord record : records) {
+        historyEvents.add(record.getHistoryEvent());
+      }
+
+      processEngineConfiguration.getCommandExecutorTxRequired()
+        .execute(new WriteHistoryEventsCmd(historyEventHandler, historyEvents));
+
+      replayedEvents += records.size();
+      nextSequence = records.get(records.size() - 1).getSequence() + 1;
+      records = reader.read(nextSequence, batchSize);
+    }
+
+    LOG.historyEventLogReplayed(replayedEvents, nextSequence);
+    return nextSequence;
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public HistoryEventLogReplay setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+    return this;
+  }
+
+  public static void main(String[] args) {
+    if (args.length < 1) {
+      throw new IllegalArgumentException("Usage: HistoryEventLogReplay <log directory> [<configuration resource>]");
+    }
+
+    String configurationResource = args.length > 1 ? args[1] : "camunda.cfg.xml";
+    ProcessEngineConfigurationImpl configuration = (ProcessEngineConfigurationImpl) ProcessEngineConfiguration
+        .createProcessEngineConfigurationFromResource(configurationResource);
+    configuration.setJobExecutorActivate(false);
+    configuration.setHistoryEventLogDirectory(null);
+
+    ProcessEngine processEngine = configuration.buildProcessEngine();
+    try {
+      new HistoryEventLogReplay(configuration, new File(args[0])).replay(0);
+    } finally {
+      processEngine.close();
+    }
+  }
+
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.history.handler;
+
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+
+/**
+ * <p>History event handler that stages history events in the current transaction
+ * instead of writing them to the database. The staged events are handed off to the
+ * {@link AsyncHistoryEventWriter} once the transaction is committed.</p>
+ *
+ * @see HistoryEventStagingSession
+ */
+public class AsyncDbHistoryEventHandler implements HistoryEventHandler {
+
+  public void handleEvent(HistoryEvent historyEvent) {
+    getStagingSession().stage(historyEvent);
+  }
+
+  public void handleEvents(List<HistoryEvent> historyEvents) {
+    HistoryEventStagingSession stagingSession = getStagingSession();
+    for (HistoryEvent historyEvent : historyEvents) {
+      stagingSession.stage(historyEvent);
+    }
+  }
+
+  protected HistoryEventStagingSession getStagingSession() {
+    return Context.getCommandContext().getSession(HistoryEventStagingSession.class);
+  }
+
+}
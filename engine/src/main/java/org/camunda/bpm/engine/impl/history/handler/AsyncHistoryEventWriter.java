@@ -0,0 +1,554 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.history.handler;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.camunda.bpm.engine.OptimisticLockingException;
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.cmd.WriteHistoryEventsCmd;
+import org.camunda.bpm.engine.impl.db.EnginePersistenceLogger;
+import org.camunda.bpm.engine.impl.history.event.HistoricVariableUpdateEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.metrics.MetricsRegistry;
+import org.camunda.bpm.engine.impl.util.CollectionUtil;
+import org.camunda.bpm.engine.impl.util.ExceptionUtil;
+import org.camunda.bpm.engine.management.Metrics;
+
+/**
+ * <p>Writes the history events of committed transactions to the database in batches.</p>
+ *
+ * <p>Events are assigned to lanes by their root process instance, so that all events of
+ * a process instance are written by the same thread, in the order in which their
+ * transactions were committed. Each lane writes the events of several consecutive
+ * transactions in one transaction of its own.</p>
+ *
+ * <p>If more than the configured number of events are waiting to be written, committing
+ * threads are blocked until the lanes have caught up. If the events of a transaction
+ * cannot be written due to a database failure that may go away (e.g. a lost connection),
+ * the lane retries them with an exponential backoff until they are written or the writer
+ * is closed; later events of the lane wait meanwhile. Pending events are written when
+ * the writer is closed. Events that still cannot be written then, or that fail for other
+ * reasons (e.g. a constraint violation), are logged as lost with their ids. Events that
+ * were handed off but not written yet are also lost if the process engine terminates
+ * abnormally.</p>
+ */
+public class AsyncHistoryEventWriter {
+
+  protected static final EnginePersistenceLogger LOG = ProcessEngineLogger.PERSISTENCE_LOGGER;
+
+  protected static final long CLOSE_TIMEOUT_MILLIS = 30000;
+
+  protected static final long RETRY_INITIAL_BACKOFF_MILLIS = 100;
+  protected static final long RETRY_MAX_BACKOFF_MILLIS = 10000;
+
+  protected ProcessEngineConfigurationImpl processEngineConfiguration;
+
+  protected HistoryEventHandler historyEventHandler = new BatchDbHistoryEventHandler();
+
+  protected int batchSize;
+  protected int maxPendingEvents;
+
+  protected WriterLane[] lanes;
+
+  /** number of events handed off but not written yet */
+  protected final AtomicInteger pendingEvents = new AtomicInteger();
+  protected final Object pendingEventsMonitor = new Object();
+  protected final Object retryMonitor = new Object();
+
+  protected volatile boolean closed = false;
+
+  public AsyncHistoryEventWriter(ProcessEngineConfigurationImpl processEngineConfiguration) {
+    this.processEngineConfiguration = processEngineConfiguration;
+    this.batchSize = processEngineConfiguration.getAsyncHistoryWriterBatchSize();
+    this.maxPendingEvents = processEngineConfiguration.getAsyncHistoryMaxPendingEvents();
+
+    int numberOfLanes = Math.max(1, processEngineConfiguration.getAsyncHistoryWriterThreads());
+    lanes = new WriterLane[numberOfLanes];
+    for (int i = 0; i < numberOfLanes; i++) {
+      lanes[i] = new WriterLane(i);
+    }
+  }
+
+  /**
+   * Reserves the place of the given events in the lanes. Must be called before the
+   * transaction producing the events commits.
+   */
+  public Reservation reserve(List<HistoryEvent> historyEvents) {
+    Map<WriterLane, List<HistoryEvent>> eventsByLane = new LinkedHashMap<>();
+    for (HistoryEvent historyEvent : historyEvents) {
+      CollectionUtil.addToMapOfLists(eventsByLane, getLane(historyEvent), historyEvent);
+    }
+
+    Reservation reservation = new Reservation();
+    for (Entry<WriterLane, List<HistoryEvent>> laneEvents : eventsByLane.entrySet()) {
+      StagedBatch batch = new StagedBatch(laneEvents.getKey(), laneEvents.getValue());
+      laneEvents.getKey().enqueue(batch);
+      reservation.batches.add(batch);
+    }
+
+    return reservation;
+  }
+
+  /**
+   * Releases the reserved events for writing once their transaction is committed.
+   * Blocks while too many events are waiting to be written.
+   */
+  public void handOff(Reservation reservation) {
+    long handOffTime = System.currentTimeMillis();
+
+    for (StagedBatch batch : reservation.batches) {
+      pendingEvents.addAndGet(batch.events.size());
+      batch.handOffTime = handOffTime;
+      batch.lane.resolve(batch, StagedBatch.READY);
+    }
+
+    awaitCapacity();
+  }
+
+  /**
+   * Discards the reserved events since their transaction was rolled back.
+   */
+  public void discard(Reservation reservation) {
+    for (StagedBatch batch : reservation.batches) {
+      batch.lane.resolve(batch, StagedBatch.DISCARDED);
+    }
+  }
+
+  /**
+   * Writes the given events right away in a transaction of their own, bypassing the
+   * lanes. Used for events produced after their transaction was committed, which
+   * can't take a place in the lanes anymore.
+   */
+  public void writeNow(List<HistoryEvent> historyEvents) {
+    processEngineConfiguration.getCommandExecutorTxRequiresNew()
+      .execute(new WriteHistoryEventsCmd(historyEventHandler, historyEvents));
+    markOccurrence(Metrics.HISTORY_EVENTS_WRITTEN, historyEvents.size());
+  }
+
+  protected void awaitCapacity() {
+    if (maxPendingEvents <= 0 || pendingEvents.get() <= maxPendingEvents || closed) {
+      return;
+    }
+
+    markOccurrence(Metrics.HISTORY_WRITE_BACKPRESSURE, 1);
+
+    synchronized (pendingEventsMonitor) {
+      while (pendingEvents.get() > maxPendingEvents && !closed) {
+        try {
+          pendingEventsMonitor.wait(100);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Waits until all events handed off so far have been written.
+   *
+   * @return <code>true</code> if all events have been written within the timeout
+   */
+  public boolean awaitWritten(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + unit.toMillis(timeout);
+
+    synchronized (pendingEventsMonitor) {
+      while (pendingEvents.get() > 0) {
+        long remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0) {
+          return false;
+        }
+        pendingEventsMonitor.wait(Math.min(remaining, 100));
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Writes the pending events and stops the writer threads.
+   */
+  public void close() {
+    closed = true;
+
+    synchronized (retryMonitor) {
+      retryMonitor.notifyAll();
+    }
+    for (WriterLane lane : lanes) {
+      lane.wakeUp();
+    }
+
+    long deadline = System.currentTimeMillis() + CLOSE_TIMEOUT_MILLIS;
+    for (WriterLane lane : lanes) {
+      lane.join(deadline);
+    }
+
+    int remainingEvents = pendingEvents.get();
+    if (remainingEvents > 0) {
+      LOG.asyncHistoryEventWriterStopped(remainingEvents);
+    }
+  }
+
+  /**
+   * @return the number of events which were handed off but not written yet
+   */
+  public int getPendingEventCount() {
+    return pendingEvents.get();
+  }
+
+  protected WriterLane getLane(HistoryEvent historyEvent) {
+    String laneKey = getLaneKey(historyEvent);
+    if (laneKey == null) {
+      return lanes[0];
+    }
+    return lanes[(laneKey.hashCode() & Integer.MAX_VALUE) % lanes.length];
+  }
+
+  /**
+   * All events of a process instance tree must share a lane, so that they are written
+   * in order.
+   */
+  protected String getLaneKey(HistoryEvent historyEvent) {
+    if (historyEvent.getRootProcessInstanceId() != null) {
+      return historyEvent.getRootProcessInstanceId();
+    } else if (historyEvent.getProcessInstanceId() != null) {
+      return historyEvent.getProcessInstanceId();
+    } else if (historyEvent.getCaseInstanceId() != null) {
+      return historyEvent.getCaseInstanceId();
+    } else if (historyEvent instanceof HistoricVariableUpdateEventEntity) {
+      return ((HistoricVariableUpdateEventEntity) historyEvent).getVariableInstanceId();
+    } else {
+      return historyEvent.getId();
+    }
+  }
+
+  protected void write(List<StagedBatch> batches) {
+    List<HistoryEvent> historyEvents = new ArrayList<>();
+    for (StagedBatch batch : batches) {
+      historyEvents.addAll(batch.events);
+    }
+
+    int writtenEvents = 0;
+    try {
+      execute(historyEvents);
+      writtenEvents = historyEvents.size();
+
+    } catch (Exception e) {
+      if (batches.size() == 1) {
+        writtenEvents = writeWithRetries(batches.get(0), e);
+
+      } else {
+        LOG.asyncHistoryEventWriteRetry(batches.size(), e);
+
+        for (StagedBatch batch : batches) {
+          writtenEvents += writeWithRetries(batch, null);
+        }
+      }
+    }
+
+    long now = System.currentTimeMillis();
+    for (StagedBatch batch : batches) {
+      recordValue(Metrics.HISTORY_WRITE_LAG, now - batch.handOffTime);
+    }
+    markOccurrence(Metrics.HISTORY_EVENTS_WRITTEN, writtenEvents);
+
+    pendingEvents.addAndGet(-historyEvents.size());
+    synchronized (pendingEventsMonitor) {
+      pendingEventsMonitor.notifyAll();
+    }
+  }
+
+  /**
+   * Writes the events of a single transaction, retrying with an exponential backoff
+   * until they are written. Once the writer is closed, or if the failure is not
+   * retryable, the events are discarded.
+   *
+   * @param failure the failure of a previous attempt, or <code>null</code> if the
+   *   events were not written on their own yet
+   *
+   * @return the number of written events
+   */
+  protected int writeWithRetries(StagedBatch batch, Exception failure) {
+    int failedAttempts = failure != null ? 1 : 0;
+    long backoff = RETRY_INITIAL_BACKOFF_MILLIS;
+
+    while (true) {
+      if (failure == null) {
+        try {
+          execute(batch.events);
+          return batch.events.size();
+
+        } catch (Exception e) {
+          failure = e;
+          failedAttempts++;
+        }
+      }
+
+      if (closed || !isRetryable(failure)) {
+        LOG.asyncHistoryEventWriteFailure(failedAttempts, getEventIds(batch.events), failure);
+        return 0;
+      }
+
+      LOG.asyncHistoryEventWriteRetryScheduled(batch.events.size(), failedAttempts, backoff, failure);
+      awaitRetry(backoff);
+      backoff = Math.min(backoff * 2, RETRY_MAX_BACKOFF_MILLIS);
+      failure = null;
+    }
+  }
+
+  /**
+   * Failures of the database, like a lost connection or a deadlock, may go away and are
+   * retried. Other failures, like a constraint violation or a missing process definition,
+   * would occur again.
+   */
+  protected boolean isRetryable(Exception failure) {
+    if (failure instanceof OptimisticLockingException) {
+      return true;
+    }
+    if (ExceptionUtil.findRelatedSqlExceptions(failure).isEmpty()) {
+      return false;
+    }
+    if (failure instanceof ProcessEngineException) {
+      ProcessEngineException processEngineException = (ProcessEngineException) failure;
+      return !ExceptionUtil.checkConstraintViolationException(processEngineException)
+          && !ExceptionUtil.checkValueTooLongException(processEngineException);
+    }
+    return true;
+  }
+
+  protected void awaitRetry(long backoff) {
+    synchronized (retryMonitor) {
+      if (!closed) {
+        try {
+          retryMonitor.wait(backoff);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+  }
+
+  protected List<String> getEventIds(List<HistoryEvent> historyEvents) {
+    List<String> eventIds = new ArrayList<>(historyEvents.size());
+    for (HistoryEvent historyEvent : historyEvents) {
+      eventIds.add(historyEvent.getId());
+    }
+    return eventIds;
+  }
+
+  protected void execute(List<HistoryEvent> historyEvents) {
+    processEngineConfiguration.getCommandExecutorTxRequired()
+      .execute(new WriteHistoryEventsCmd(historyEventHandler, historyEvents));
+  }
+
+  protected void markOccurrence(String name, long times) {
+    MetricsRegistry metricsRegistry = getMetricsRegistry();
+    if (metricsRegistry != null) {
+      metricsRegistry.markOccurrence(name, times);
+    }
+  }
+
+  protected void recordValue(String name, long value) {
+    MetricsRegistry metricsRegistry = getMetricsRegistry();
+    if (metricsRegistry != null) {
+      metricsRegistry.recordValue(name, value);
+    }
+  }
+
+  protected MetricsRegistry getMetricsRegistry() {
+    if (processEngineConfiguration.isMetricsEnabled()) {
+      return processEngineConfiguration.getMetricsRegistry();
+    }
+    return null;
+  }
+
+  /**
+   * The batches a transaction has reserved in the lanes.
+   */
+  public static class Reservation {
+
+    protected List<StagedBatch> batches = new ArrayList<>();
+
+  }
+
+  /**
+   * The events of one transaction in one lane.
+   */
+  protected static class StagedBatch {
+
+    protected static final int PENDING = 0;
+    protected static final int READY = 1;
+    protected static final int DISCARDED = 2;
+
+    protected final WriterLane lane;
+    protected final List<HistoryEvent> events;
+
+    /** guarded by the lock of the lane */
+    protected int state = PENDING;
+    protected long handOffTime;
+
+    public StagedBatch(WriterLane lane, List<HistoryEvent> events) {
+      this.lane = lane;
+      this.events = events;
+    }
+
+  }
+
+  /**
+   * A queue of batches in commit order, written by a single thread.
+   */
+  protected class WriterLane implements Runnable {
+
+    protected final int index;
+
+    protected final ReentrantLock lock = new ReentrantLock();
+    protected final Condition stateChanged = lock.newCondition();
+    protected final ArrayDeque<StagedBatch> queue = new ArrayDeque<>();
+
+    protected Thread thread;
+
+    public WriterLane(int index) {
+      this.index = index;
+    }
+
+    public void enqueue(StagedBatch batch) {
+      lock.lock();
+      try {
+        queue.add(batch);
+        if (thread == null) {
+          thread = new Thread(this, "camunda-history-writer-" + index);
+          thread.setDaemon(true);
+          thread.start();
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    public void resolve(StagedBatch batch, int state) {
+      lock.lock();
+      try {
+        batch.state = state;
+        stateChanged.signal();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    public void wakeUp() {
+      lock.lock();
+      try {
+        stateChanged.signal();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    public void join(long deadline) {
+      Thread writerThread;
+      lock.lock();
+      try {
+        writerThread = thread;
+      } finally {
+        lock.unlock();
+      }
+
+      if (writerThread != null) {
+        try {
+          writerThread.join(Math.max(1, deadline - System.currentTimeMillis()));
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+
+    public void run() {
+      try {
+        List<StagedBatch> batches = takeBatches();
+        while (batches != null) {
+          write(batches);
+          batches = takeBatches();
+        }
+
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    /**
+     * Takes the consecutive committed batches from the head of the queue, up to the
+     * batch size. Returns <code>null</code> once the writer is closed and nothing is
+     * left to write.
+     */
+    protected List<StagedBatch> takeBatches() throws InterruptedException {
+      lock.lock();
+      try {
+        while (true) {
+          removeDiscardedBatches();
+
+          if (!queue.isEmpty() && queue.peek().state == StagedBatch.READY) {
+            break;
+          }
+          if (closed) {
+            return null;
+          }
+
+          stateChanged.await();
+        }
+
+        List<StagedBatch> batches = new ArrayList<>();
+        int numberOfEvents = 0;
+
+        while (!queue.isEmpty()
+            && queue.peek().state == StagedBatch.READY
+            && (batches.isEmpty() || numberOfEvents + queue.peek().events.size() <= batchSize)) {
+
+          StagedBatch batch = queue.poll();
+          batches.add(batch);
+          numberOfEvents += batch.events.size();
+
+          removeDiscardedBatches();
+        }
+
+        return batches;
+
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    protected void removeDiscardedBatches() {
+      while (!queue.isEmpty() && queue.peek().state == StagedBatch.DISCARDED) {
+        queue.poll();
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.history.handler;
+
+import static org.camunda.bpm.engine.ProcessEngineConfiguration.HISTORY_REMOVAL_TIME_STRATEGY_END;
+import static org.camunda.bpm.engine.ProcessEngineConfiguration.HISTORY_REMOVAL_TIME_STRATEGY_START;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.db.entitymanager.DbEntityManager;
+import org.camunda.bpm.engine.impl.history.event.HistoricDecisionEvaluationEvent;
+import org.camunda.bpm.engine.impl.history.event.HistoricProcessInstanceEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoricScopeInstanceEvent;
+import org.camunda.bpm.engine.impl.history.event.HistoricVariableUpdateEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.history.event.HistoryEventTypes;
+import org.camunda.bpm.engine.repository.ProcessDefinition;
+
+/**
+ * <p>{@link DbHistoryEventHandler} that writes the history events of several committed
+ * transactions in a single transaction. Used by the {@link AsyncHistoryEventWriter}.</p>
+ *
+ * <p>Since the events are not produced in the transaction that writes them, the entity
+ * cache can't be used to combine the initial event of a history entity with its later
+ * updates. Instead, events for the same history entity are combined before they are
+ * written, keeping the insert of the initial event and the state of the latest one.</p>
+ *
+ * <p>The removal time is calculated in the producing transaction from history that may
+ * not have been written yet. It is therefore completed when the events are written.</p>
+ */
+public class BatchDbHistoryEventHandler extends DbHistoryEventHandler {
+
+  public void handleEvents(List<HistoryEvent> historyEvents) {
+    Set<HistoryEvent> inserts = Collections.newSetFromMap(new IdentityHashMap<HistoryEvent, Boolean>());
+    List<HistoryEvent> events = combineEvents(historyEvents, inserts);
+
+    DbEntityManager dbEntityManager = getDbEntityManager();
+
+    for (HistoryEvent historyEvent : events) {
+      provideRemovalTime(historyEvent);
+
+      if (historyEvent instanceof HistoricVariableUpdateEventEntity
+          || historyEvent instanceof HistoricDecisionEvaluationEvent) {
+        handleEvent(historyEvent);
+
+      } else if (inserts.contains(historyEvent)) {
+        dbEntityManager.insert(historyEvent);
+
+      } else if (historyEvent.getId() != null) {
+        update(historyEvent);
+
+      }
+    }
+
+    for (HistoryEvent historyEvent : events) {
+      if (isRootProcessInstanceEnd(historyEvent)) {
+        addRemovalTimeToRootProcessInstance((HistoricProcessInstanceEventEntity) historyEvent);
+      }
+    }
+  }
+
+  /**
+   * Replaces events for the same history entity by the latest one, at the position of
+   * the first one. Collects the events that must be inserted.
+   */
+  protected List<HistoryEvent> combineEvents(List<HistoryEvent> historyEvents, Set<HistoryEvent> inserts) {
+    List<HistoryEvent> events = new ArrayList<>();
+    Map<String, Integer> positions = new HashMap<>();
+
+    for (HistoryEvent historyEvent : historyEvents) {
+      if (historyEvent instanceof HistoricVariableUpdateEventEntity
+          || historyEvent instanceof HistoricDecisionEvaluationEvent
+          || historyEvent.getId() == null) {
+        if (isInitialEvent(historyEvent)) {
+          inserts.add(historyEvent);
+        }
+        events.add(historyEvent);
+        continue;
+      }
+
+      String key = historyEvent.getClass().getName() + ":" + historyEvent.getId();
+      Integer position = positions.get(key);
+
+      if (position == null) {
+        positions.put(key, events.size());
+        events.add(historyEvent);
+        if (isInitialEvent(historyEvent)) {
+          inserts.add(historyEvent);
+        }
+
+      } else {
+        HistoryEvent previousEvent = events.set(position, historyEvent);
+        if (inserts.remove(previousEvent) || isInitialEvent(historyEvent)) {
+          inserts.add(historyEvent);
+        }
+        if (historyEvent instanceof HistoricScopeInstanceEvent) {
+          ((HistoricScopeInstanceEvent) historyEvent).setStartTime(((HistoricScopeInstanceEvent) previousEvent).getStartTime());
+        }
+      }
+    }
+
+    return events;
+  }
+
+  protected void update(HistoryEvent historyEvent) {
+    DbEntityManager dbEntityManager = getDbEntityManager();
+
+    if (historyEvent instanceof HistoricScopeInstanceEvent) {
+      // if this is a scope, get start time from existing event in DB
+      HistoricScopeInstanceEvent existingEvent = (HistoricScopeInstanceEvent) dbEntityManager.selectById(historyEvent.getClass(), historyEvent.getId());
+      if (existingEvent != null && existingEvent != historyEvent) {
+        ((HistoricScopeInstanceEvent) historyEvent).setStartTime(existingEvent.getStartTime());
+      }
+    }
+
+    dbEntityManager.merge(historyEvent);
+  }
+
+  protected void provideRemovalTime(HistoryEvent historyEvent) {
+    String rootProcessInstanceId = historyEvent.getRootProcessInstanceId();
+
+    if (historyEvent.getRemovalTime() == null
+        && rootProcessInstanceId != null
+        && !rootProcessInstanceId.equals(historyEvent.getId())
+        && HISTORY_REMOVAL_TIME_STRATEGY_START.equals(getProcessEngineConfiguration().getHistoryRemovalTimeStrategy())) {
+
+      HistoricProcessInstanceEventEntity historicRootProcessInstance = getDbEntityManager()
+        .selectById(HistoricProcessInstanceEventEntity.class, rootProcessInstanceId);
+
+      if (historicRootProcessInstance != null) {
+        historyEvent.setRemovalTime(historicRootProcessInstance.getRemovalTime());
+      }
+    }
+  }
+
+  protected boolean isRootProcessInstanceEnd(HistoryEvent historyEvent) {
+    return historyEvent instanceof HistoricProcessInstanceEventEntity
+        && historyEvent.isEventOfType(HistoryEventTypes.PROCESS_INSTANCE_END)
+        && historyEvent.getProcessInstanceId() != null
+        && historyEvent.getProcessInstanceId().equals(historyEvent.getRootProcessInstanceId())
+        && HISTORY_REMOVAL_TIME_STRATEGY_END.equals(getProcessEngineConfiguration().getHistoryRemovalTimeStrategy());
+  }
+
+  /**
+   * The producing transaction has already set the removal time to the history of the
+   * ended root process instance, but not to the history that has been written since.
+   */
+  protected void addRemovalTimeToRootProcessInstance(HistoricProcessInstanceEventEntity historicRootProcessInstance) {
+    ProcessEngineConfigurationImpl processEngineConfiguration = getProcessEngineConfiguration();
+
+    ProcessDefinition processDefinition = processEngineConfiguration
+      .getDeploymentCache()
+      .findDeployedProcessDefinitionById(historicRootProcessInstance.getProcessDefinitionId());
+
+    Date removalTime = processEngineConfiguration
+      .getHistoryRemovalTimeProvider()
+      .calculateRemovalTime(historicRootProcessInstance, processDefinition);
+
+    if (removalTime != null) {
+      historicRootProcessInstance.setRemovalTime(removalTime);
+
+      String rootProcessInstanceId = historicRootProcessInstance.getRootProcessInstanceId();
+
+      Context.getCommandContext()
+        .getHistoricProcessInstanceManager()
+        .addRemovalTimeToProcessInstancesByRootProcessInstanceId(rootProcessInstanceId, removalTime);
+
+      if (processEngineConfiguration.isDmnEnabled()) {
+        Context.getCommandContext()
+          .getHistoricDecisionInstanceManager()
+          .addRemovalTimeToDecisionsByRootProcessInstanceId(rootProcessInstanceId, removalTime);
+      }
+    }
+  }
+
+  protected ProcessEngineConfigurationImpl getProcessEngineConfiguration() {
+    return Context.getProcessEngineConfiguration();
+  }
+
+}
@@ -93,8 +93,11 @@ public class DbHistoryEventHandler implements HistoryEventHandler {
 
       // insert byte array entity (if applicable)
       byte[] byteValue = historyEvent.getByteValue();
-      if(byteValue != null) {
+      if(byteValue != null || historyEvent.getSourceByteArrayId() != null) {
         ByteArrayEntity byteArrayEntity = new ByteArrayEntity(historyEvent.getVariableName(), byteValue, ResourceTypes.HISTORY);
+        if (byteValue == null) {
+          byteArrayEntity.setSourceByteArrayId(historyEvent.getSourceByteArrayId());
+        }
         byteArrayEntity.setRootProcessInstanceId(historyEvent.getRootProcessInstanceId());
         byteArrayEntity.setRemovalTime(historyEvent.getRemovalTime());
 
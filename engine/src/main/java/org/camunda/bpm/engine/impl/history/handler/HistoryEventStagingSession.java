@@ -0,0 +1,139 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.history.handler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.cfg.TransactionListener;
+import org.camunda.bpm.engine.impl.cfg.TransactionState;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.db.EnginePersistenceLogger;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.history.handler.AsyncHistoryEventWriter.Reservation;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.interceptor.Session;
+
+/**
+ * <p>Collects the history events of a transaction for the {@link AsyncHistoryEventWriter}.</p>
+ *
+ * <p>The events are reserved a place in the queues of the writer when the transaction is
+ * committing, so that the events of transactions touching the same process instance are
+ * written in commit order. They are handed off to the writer once the transaction is
+ * committed and discarded if it is rolled back. Events staged after the transaction
+ * was committed are written right away in a transaction of their own.</p>
+ */
+public class HistoryEventStagingSession implements Session {
+
+  protected static final EnginePersistenceLogger LOG = ProcessEngineLogger.PERSISTENCE_LOGGER;
+
+  protected AsyncHistoryEventWriter writer;
+
+  protected List<HistoryEvent> stagedEvents = new ArrayList<>();
+
+  /** the reservations made for this transaction, <code>null</code> until it is committing */
+  protected List<Reservation> reservations;
+
+  /** the outcome of the transaction, <code>null</code> until it is completed */
+  protected TransactionState completedState;
+
+  public HistoryEventStagingSession() {
+    this(Context.getProcessEngineConfiguration().getAsyncHistoryEventWriter());
+  }
+
+  public HistoryEventStagingSession(AsyncHistoryEventWriter writer) {
+    this.writer = writer;
+    registerTransactionListeners(Context.getCommandContext());
+  }
+
+  public void stage(HistoryEvent historyEvent) {
+    if (stagedEvents != null) {
+      stagedEvents.add(historyEvent);
+
+    } else if (reservations != null) {
+      // the transaction is already committing, so the event can't join the reserved batches
+      List<HistoryEvent> lateEvents = new ArrayList<>();
+      lateEvents.add(historyEvent);
+      reservations.add(writer.reserve(lateEvents));
+
+    } else if (completedState == TransactionState.COMMITTED) {
+      LOG.historyEventStagedAfterCommit(historyEvent.getId());
+      List<HistoryEvent> lateEvents = new ArrayList<>();
+      lateEvents.add(historyEvent);
+      writer.writeNow(lateEvents);
+
+    } else {
+      LOG.historyEventStagedAfterRollback(historyEvent.getId());
+    }
+  }
+
+  protected void registerTransactionListeners(CommandContext commandContext) {
+    commandContext.getTransactionContext().addTransactionListener(TransactionState.COMMITTING, new TransactionListener() {
+      public void execute(CommandContext commandContext) {
+        reserve();
+      }
+    });
+    commandContext.getTransactionContext().addTransactionListener(TransactionState.COMMITTED, new TransactionListener() {
+      public void execute(CommandContext commandContext) {
+        handOff();
+      }
+    });
+    commandContext.getTransactionContext().addTransactionListener(TransactionState.ROLLED_BACK, new TransactionListener() {
+      public void execute(CommandContext commandContext) {
+        discard();
+      }
+    });
+  }
+
+  protected void reserve() {
+    reservations = new ArrayList<>();
+    if (!stagedEvents.isEmpty()) {
+      reservations.add(writer.reserve(stagedEvents));
+    }
+    stagedEvents = null;
+  }
+
+  protected void handOff() {
+    completedState = TransactionState.COMMITTED;
+    if (reservations != null) {
+      for (Reservation reservation : reservations) {
+        writer.handOff(reservation);
+      }
+      reservations = null;
+    }
+  }
+
+  protected void discard() {
+    completedState = TransactionState.ROLLED_BACK;
+    if (reservations != null) {
+      for (Reservation reservation : reservations) {
+        writer.discard(reservation);
+      }
+      reservations = null;
+    }
+    stagedEvents = null;
+  }
+
+  public void flush() {
+    // events are written by the writer after the transaction is committed
+  }
+
+  public void close() {
+  }
+
+}
@@ -311,7 +311,12 @@ public class DefaultHistoryEventProducer implements HistoryEventProducer {
     evt.setDoubleValue(variableInstance.getDoubleValue());
     evt.setLongValue(variableInstance.getLongValue());
     if (variableInstance.getByteArrayValueId() != null) {
-      evt.setByteValue(variableInstance.getByteArrayValue());
+      byte[] byteValue = variableInstance.getByteArrayValue();
+      evt.setByteValue(byteValue);
+      if (byteValue == null) {
+        // the value has been written from a stream and is not available in memory
+        evt.setSourceByteArrayId(variableInstance.getByteArrayValueId());
+      }
     }
   }
 
@@ -57,7 +57,9 @@ import org.camunda.bpm.engine.impl.persistence.entity.AttachmentManager;
 import org.camunda.bpm.engine.impl.persistence.entity.AuthorizationManager;
 import org.camunda.bpm.engine.impl.persistence.entity.BatchManager;
 import org.camunda.bpm.engine.impl.persistence.entity.ByteArrayManager;
+import org.camunda.bpm.engine.impl.persistence.entity.CacheEventManager;
 import org.camunda.bpm.engine.impl.persistence.entity.CommentManager;
+import org.camunda.bpm.engine.impl.persistence.entity.CorrelationKeyManager;
 import org.camunda.bpm.engine.impl.persistence.entity.DeploymentManager;
 import org.camunda.bpm.engine.impl.persistence.entity.EventSubscriptionManager;
 import org.camunda.bpm.engine.impl.persistence.entity.ExecutionManager;
@@ -328,6 +330,14 @@ public class CommandContext {
     return getSession(MeterLogManager.class);
   }
 
+  public CacheEventManager getCacheEventManager() {
+    return getSession(CacheEventManager.class);
+  }
+
+  public CorrelationKeyManager getCorrelationKeyManager() {
+    return getSession(CorrelationKeyManager.class);
+  }
+
   public IdentityLinkManager getIdentityLinkManager() {
     return getSession(IdentityLinkManager.class);
   }
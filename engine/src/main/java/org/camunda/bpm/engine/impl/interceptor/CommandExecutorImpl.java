@@ -16,7 +16,13 @@
  */
 package org.camunda.bpm.engine.impl.interceptor;
 
+import java.util.concurrent.TimeUnit;
+
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
 import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.metrics.HistogramMeter;
+import org.camunda.bpm.engine.impl.metrics.MetricsRegistry;
+import org.camunda.bpm.engine.management.Metrics;
 
 
 /**
@@ -25,6 +31,25 @@ import org.camunda.bpm.engine.impl.context.Context;
 public class CommandExecutorImpl extends CommandInterceptor {
 
   public <T> T execute(Command<T> command) {
-    return command.execute(Context.getCommandContext());
+    HistogramMeter durationHistogram = getCommandDurationHistogram();
+    if (durationHistogram == null) {
+      return command.execute(Context.getCommandContext());
+    }
+
+    long startTime = System.nanoTime();
+    try {
+      return command.execute(Context.getCommandContext());
+    } finally {
+      durationHistogram.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startTime));
+    }
+  }
+
+  protected HistogramMeter getCommandDurationHistogram() {
+    ProcessEngineConfigurationImpl processEngineConfiguration = Context.getProcessEngineConfiguration();
+    if (processEngineConfiguration == null) {
+      return null;
+    }
+    MetricsRegistry metricsRegistry = processEngineConfiguration.getMetricsRegistry();
+    return metricsRegistry != null ? metricsRegistry.getHistogramByName(Metrics.COMMAND_EXECUTION_DURATION) : null;
   }
 }
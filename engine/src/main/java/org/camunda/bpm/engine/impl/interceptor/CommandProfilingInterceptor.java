@@ -0,0 +1,71 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.interceptor;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.metrics.CommandProfile;
+import org.camunda.bpm.engine.impl.metrics.MetricsRegistry;
+
+/**
+ * <p>Profiles a sample of the executed commands: the wall time, the number of flushed
+ * db operations and the number of executed sql statements are aggregated per command
+ * class in the {@link MetricsRegistry}. The sample rate is read from the process engine
+ * configuration on each command, so that it can be changed at runtime.</p>
+ *
+ * <p>Only commands started outside of another command are sampled; nested commands
+ * count towards the outer command.</p>
+ */
+public class CommandProfilingInterceptor extends CommandInterceptor {
+
+  protected ProcessEngineConfigurationImpl processEngineConfiguration;
+
+  public CommandProfilingInterceptor(ProcessEngineConfigurationImpl processEngineConfiguration) {
+    this.processEngineConfiguration = processEngineConfiguration;
+  }
+
+  public <T> T execute(Command<T> command) {
+    if (CommandProfile.getCurrent() != null || Context.getCommandContext() != null || !isSampled()) {
+      return next.execute(command);
+    }
+
+    CommandProfile profile = new CommandProfile(command.getClass().getName());
+    CommandProfile.setCurrent(profile);
+    try {
+      return next.execute(command);
+    }
+    finally {
+      CommandProfile.setCurrent(null);
+      recordProfile(profile);
+    }
+  }
+
+  protected boolean isSampled() {
+    double sampleRate = processEngineConfiguration.getCommandProfilingSampleRate();
+    return sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+  }
+
+  protected void recordProfile(CommandProfile profile) {
+    MetricsRegistry metricsRegistry = processEngineConfiguration.getMetricsRegistry();
+    if (metricsRegistry != null) {
+      metricsRegistry.recordCommandProfile(profile);
+    }
+  }
+
+}
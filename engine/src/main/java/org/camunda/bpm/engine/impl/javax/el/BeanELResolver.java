@@ -127,7 +127,27 @@ public class BeanELResolver extends ELResolver {
 	}
 
 	private final boolean readOnly;
-	private final ConcurrentHashMap<Class<?>, BeanProperties> cache;
+
+	/**
+	 * The bean properties by bean class. Entries are stored with the classes themselves, so
+	 * that the cache does not prevent classes from being unloaded.
+	 */
+	private final ClassValue<BeanProperties> cache = new ClassValue<BeanProperties>() {
+		@Override
+		protected BeanProperties computeValue(Class<?> type) {
+			return new BeanProperties(type);
+		}
+	};
+
+	/**
+	 * The methods invoked by name and number of parameters, by bean class.
+	 */
+	private final ClassValue<ConcurrentHashMap<String, Method>> methodCache = new ClassValue<ConcurrentHashMap<String, Method>>() {
+		@Override
+		protected ConcurrentHashMap<String, Method> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<String, Method>();
+		}
+	};
 	
 	private ExpressionFactory defaultFactory;
 
@@ -143,7 +163,6 @@ public class BeanELResolver extends ELResolver {
 	 */
 	public BeanELResolver(boolean readOnly) {
 		this.readOnly = readOnly;
-		this.cache = new ConcurrentHashMap<Class<?>, BeanProperties>();
 	}
 
 	/**
@@ -306,6 +325,7 @@ public class BeanELResolver extends ELResolver {
 			} catch (Exception e) {
 				throw new ELException(e);
 			}
+			context.setResolvedMethod(base, property, method);
 			context.setPropertyResolved(true);
 		}
 		return result;
@@ -482,6 +502,7 @@ public class BeanELResolver extends ELResolver {
 			} catch (IllegalAccessException e) {
 				throw new ELException(e);
 			}
+			context.setResolvedMethod(base, method, target);
 			context.setPropertyResolved(true);
 		}
 		return result;
@@ -495,6 +516,19 @@ public class BeanELResolver extends ELResolver {
 				return null;
 			}
 		}
+		ConcurrentHashMap<String, Method> methods = methodCache.get(base.getClass());
+		String key = name + "/" + paramCount;
+		Method method = methods.get(key);
+		if (method == null) {
+			method = findMethod(base, name, paramCount);
+			if (method != null) {
+				methods.put(key, method);
+			}
+		}
+		return method;
+	}
+
+	private Method findMethod(Object base, String name, int paramCount) {
 		Method varArgsMethod = null;
 		for (Method method : base.getClass().getMethods()) {
 			if (method.getName().equals(name)) {
@@ -609,13 +643,6 @@ public class BeanELResolver extends ELResolver {
 	 */
 	private final BeanProperty toBeanProperty(Object base, Object property) {
 		BeanProperties beanProperties = cache.get(base.getClass());
-		if (beanProperties == null) {
-			BeanProperties newBeanProperties = new BeanProperties(base.getClass());
-			beanProperties = cache.putIfAbsent(base.getClass(), newBeanProperties);
-			if (beanProperties == null) { // put succeeded, use new value
-				beanProperties = newBeanProperties;
-			}
-		}
 		BeanProperty beanProperty = property == null ? null : beanProperties.getBeanProperty(property.toString());
 		if (beanProperty == null) {
 			throw new PropertyNotFoundException("Could not find property " + property + " in " + base.getClass());
@@ -628,18 +655,14 @@ public class BeanELResolver extends ELResolver {
 	 * class to remove entries from the cache when the beans are being unloaded.
 	 * 
 	 * Note: this method is present in the reference implementation, so we're adding it here to ease
-	 * migration.
+	 * migration. The cache entries are stored with the bean classes and released together with
+	 * them, so there is nothing to remove.
 	 * 
 	 * @param classloader
 	 *            The classLoader used to load the beans.
 	 */
 	@SuppressWarnings("unused")
 	private final void purgeBeanClasses(ClassLoader loader) {
-		Iterator<Class<?>> classes = cache.keySet().iterator();
-		while (classes.hasNext()) {
-			if (loader == classes.next().getClassLoader()) {
-				classes.remove();
-			}
-		}
+		// nothing to do
 	}
 }
@@ -15,6 +15,7 @@
  */
 package org.camunda.bpm.engine.impl.javax.el;
 
+import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
@@ -47,6 +48,10 @@ public abstract class ELContext {
 	private Locale locale;
 	private boolean resolved;
 
+	private Object resolvedBase;
+	private Object resolvedProperty;
+	private Method resolvedMethod;
+
 	/**
 	 * Returns the context object associated with the given key. The ELContext maintains a
 	 * collection of context objects relevant to the evaluation of an expression. These context
@@ -160,4 +165,51 @@ public abstract class ELContext {
 	public void setPropertyResolved(boolean resolved) {
 		this.resolved = resolved;
 	}
+
+	/**
+	 * Returns the base object of the last (base, property) pair which has been resolved by invoking
+	 * a bean method, as recorded by {@link #setResolvedMethod(Object, Object, Method)}.
+	 * 
+	 * @return The base object, or null if no method resolution has been recorded.
+	 */
+	public Object getResolvedBase() {
+		return resolvedBase;
+	}
+
+	/**
+	 * Returns the property (or method name) of the last (base, property) pair which has been
+	 * resolved by invoking a bean method.
+	 * 
+	 * @return The property, or null if no method resolution has been recorded.
+	 */
+	public Object getResolvedProperty() {
+		return resolvedProperty;
+	}
+
+	/**
+	 * Returns the bean method invoked to resolve the last recorded (base, property) pair.
+	 * 
+	 * @return The method, or null if no method resolution has been recorded.
+	 */
+	public Method getResolvedMethod() {
+		return resolvedMethod;
+	}
+
+	/**
+	 * Called by an ELResolver which resolved a (base, property) pair by invoking the given method
+	 * on the base object. Compiled expressions use this information to invoke the method directly
+	 * on subsequent evaluations. Callers reset the recorded values by passing null arguments.
+	 * 
+	 * @param base
+	 *            The base object the method has been invoked on.
+	 * @param property
+	 *            The resolved property or method name.
+	 * @param method
+	 *            The method which has been invoked.
+	 */
+	public void setResolvedMethod(Object base, Object property, Method method) {
+		this.resolvedBase = base;
+		this.resolvedProperty = property;
+		this.resolvedMethod = method;
+	}
 }
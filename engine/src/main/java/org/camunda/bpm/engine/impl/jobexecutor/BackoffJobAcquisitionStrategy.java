@@ -164,7 +164,7 @@ public class BackoffJobAcquisitionStrategy implements JobAcquisitionStrategy {
     reconfigureIdleLevel(context);
     reconfigureBackoffLevel(context);
     reconfigureNumberOfJobsToAcquire(context);
-    executionSaturated = allSubmittedJobsRejected(context);
+    executionSaturated = allSubmittedJobsRejected(context) || context.getAvailableExecutionCapacity() == 0;
   }
 
   /**
@@ -244,6 +244,11 @@ public class BackoffJobAcquisitionStrategy implements JobAcquisitionStrategy {
       if (rejectedJobBatchesForEngine != null) {
         numJobsToAcquire -= rejectedJobBatchesForEngine.size();
       }
+      // do not acquire more jobs than the job executor can execute right away
+      int availableExecutionCapacity = context.getAvailableExecutionCapacity();
+      if (availableExecutionCapacity >= 0) {
+        numJobsToAcquire = Math.min(numJobsToAcquire, availableExecutionCapacity);
+      }
       numJobsToAcquire = Math.max(0, numJobsToAcquire);
 
       jobsToAcquire.put(engineName, numJobsToAcquire);
@@ -16,6 +16,8 @@
  */
 package org.camunda.bpm.engine.impl.jobexecutor;
 
+import java.util.concurrent.TimeUnit;
+
 import org.camunda.bpm.engine.OptimisticLockingException;
 import org.camunda.bpm.engine.impl.ProcessEngineLogger;
 import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
@@ -23,6 +25,7 @@ import org.camunda.bpm.engine.impl.cmd.ExecuteJobsCmd;
 import org.camunda.bpm.engine.impl.interceptor.Command;
 import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
 import org.camunda.bpm.engine.impl.interceptor.ProcessDataContext;
+import org.camunda.bpm.engine.management.Metrics;
 
 public class ExecuteJobHelper {
 
@@ -53,6 +56,7 @@ public class ExecuteJobHelper {
 
   public static void executeJob(String nextJobId, CommandExecutor commandExecutor, JobFailureCollector jobFailureCollector, Command<Void> cmd,
       ProcessEngineConfigurationImpl configuration) {
+    long startTime = System.nanoTime();
     try {
       commandExecutor.execute(cmd);
     } catch (RuntimeException exception) {
@@ -64,6 +68,8 @@ public class ExecuteJobHelper {
       // wrap the exception and throw it to indicate the ExecuteJobCmd failed
       throw LOG.wrapJobExecutionFailure(jobFailureCollector, exception);
     } finally {
+      recordJobExecutionDuration(configuration, startTime);
+
       // preserve MDC properties before listener invocation and clear MDC for job listener
       ProcessDataContext processDataContext = null;
       if (configuration != null) {
@@ -84,6 +90,13 @@ public class ExecuteJobHelper {
     }
   }
 
+  protected static void recordJobExecutionDuration(ProcessEngineConfigurationImpl configuration, long startTime) {
+    if (configuration != null && configuration.isMetricsEnabled()) {
+      configuration.getMetricsRegistry()
+        .recordValue(Metrics.JOB_EXECUTION_DURATION, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startTime));
+    }
+  }
+
   protected static void invokeJobListener(CommandExecutor commandExecutor, JobFailureCollector jobFailureCollector) {
     if(jobFailureCollector.getJobId() != null) {
       if (jobFailureCollector.getFailure() != null) {
@@ -34,6 +34,7 @@ public class JobAcquisitionContext {
   protected Exception acquisitionException;
   protected long acquisitionTime;
   protected boolean isJobAdded;
+  protected int availableExecutionCapacity = -1;
 
   public JobAcquisitionContext() {
     this.rejectedJobBatchesByEngine = new HashMap<String, List<List<String>>>();
@@ -65,6 +66,7 @@ public class JobAcquisitionContext {
     acquisitionException = null;
     acquisitionTime = 0;
     isJobAdded = false;
+    availableExecutionCapacity = -1;
   }
 
   /**
@@ -146,4 +148,17 @@ public class JobAcquisitionContext {
   public boolean isJobAdded() {
     return isJobAdded;
   }
+
+  /**
+   * @return the number of jobs (not batches of jobs) the job executor could execute right away
+   *   at the end of the acquisition cycle, or a negative value if unknown
+   */
+  public int getAvailableExecutionCapacity() {
+    return availableExecutionCapacity;
+  }
+
+  public void setAvailableExecutionCapacity(int availableExecutionCapacity) {
+    this.availableExecutionCapacity = availableExecutionCapacity;
+  }
+
 }
@@ -144,6 +144,15 @@ public abstract class JobExecutor {
     }
   }
 
+  /**
+   * @return the number of jobs (not batches of jobs) which can currently be passed to
+   *   {@link #executeJobs(List, ProcessEngineImpl)} and are executed right away, or a negative
+   *   value if this job executor does not track it
+   */
+  public int getAvailableExecutionCapacity() {
+    return -1;
+  }
+
   public void logAcquisitionAttempt(ProcessEngineImpl engine) {
     if (engine.getProcessEngineConfiguration().isMetricsEnabled()) {
       engine.getProcessEngineConfiguration()
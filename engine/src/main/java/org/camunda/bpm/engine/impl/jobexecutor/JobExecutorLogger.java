@@ -192,4 +192,28 @@ public class JobExecutorLogger extends ProcessEngineLogger {
       "Batch window for history cleanup was not calculated. History cleanup job(s) will be suspended.");
   }
 
+  public void virtualThreadsNotAvailable() {
+    logInfo(
+      "029",
+      "Virtual threads are not available on this Java runtime. Jobs are executed on platform threads.");
+  }
+
+  public void historyCleanupRangeDeleted(String table, long rows, long duration) {
+    logDebug(
+      "030",
+      "History cleanup removed {} rows from table {} in a run of {} ms", rows, table, duration);
+  }
+
+  public void historyCleanupPartitionDropped(String table, String partition) {
+    logInfo(
+      "031",
+      "History cleanup dropped expired partition {} of table {}", partition, table);
+  }
+
+  public void historyCleanupPartitionCreated(String table, String partition) {
+    logInfo(
+      "032",
+      "History cleanup created partition {} of table {}", partition, table);
+  }
+
 }
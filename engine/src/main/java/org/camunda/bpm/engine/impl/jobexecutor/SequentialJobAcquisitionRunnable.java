@@ -83,6 +83,7 @@ public class SequentialJobAcquisitionRunnable extends AcquireJobsRunnable {
       }
 
       acquisitionContext.setJobAdded(isJobAdded);
+      acquisitionContext.setAvailableExecutionCapacity(jobExecutor.getAvailableExecutionCapacity());
       configureNextAcquisitionCycle(acquisitionContext, acquisitionStrategy);
       //The clear had to be done after the configuration, since a hint can be
       //appear in the suspend and the flag shouldn't be cleaned in this case.
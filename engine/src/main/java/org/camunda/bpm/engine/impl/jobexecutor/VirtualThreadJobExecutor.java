@@ -0,0 +1,182 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.jobexecutor;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.camunda.bpm.engine.impl.ProcessEngineImpl;
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+
+/**
+ * <p>{@link JobExecutor} that runs every batch of jobs on its own virtual thread.</p>
+ *
+ * <p>Instead of a bounded thread pool with core size, max size and queue, the number of
+ * concurrently executed jobs is limited by a semaphore of {@link #maxConcurrentJobs}
+ * permits. A batch of jobs takes one permit per job for as long as the batch is executed
+ * (but never more than <code>maxConcurrentJobs</code> permits, so that a batch larger than
+ * the limit is still executed once all other jobs are done). Jobs blocking on I/O (e.g.
+ * delegates calling slow remote services) therefore do not occupy a scarce platform thread.
+ * Acquisition is limited to the free permits, see {@link #getAvailableExecutionCapacity()}.</p>
+ *
+ * <p>Virtual threads require Java 21 or later. On older runtimes, jobs are executed on
+ * platform threads which are created on demand, still limited by the semaphore.</p>
+ */
+public class VirtualThreadJobExecutor extends JobExecutor {
+
+  private final static JobExecutorLogger LOG = ProcessEngineLogger.JOB_EXECUTOR_LOGGER;
+
+  protected int maxConcurrentJobs = 100;
+
+  protected Semaphore concurrencyPermits;
+  protected ExecutorService executorService;
+
+  protected void startExecutingJobs() {
+    if (concurrencyPermits == null) {
+      concurrencyPermits = new Semaphore(maxConcurrentJobs);
+    }
+    if (executorService == null || executorService.isShutdown()) {
+      executorService = createExecutorService();
+    }
+
+    startJobAcquisitionThread();
+  }
+
+  protected void stopExecutingJobs() {
+    stopJobAcquisitionThread();
+
+    executorService.shutdown();
+
+    // Waits for 1 minute to finish all currently executing jobs
+    try {
+      if (!executorService.awaitTermination(60L, TimeUnit.SECONDS)) {
+        LOG.timeoutDuringShutdown();
+      }
+    } catch (InterruptedException e) {
+      LOG.interruptedWhileShuttingDownjobExecutor(e);
+    }
+  }
+
+  public void executeJobs(List<String> jobIds, ProcessEngineImpl processEngine) {
+    int permits = getRequiredPermits(jobIds);
+    if (!concurrencyPermits.tryAcquire(permits)) {
+      rejectJobs(jobIds, processEngine);
+      return;
+    }
+
+    try {
+      executorService.execute(new PermitReleasingRunnable(getExecuteJobsRunnable(jobIds, processEngine), permits));
+
+    } catch (RejectedExecutionException e) {
+      concurrencyPermits.release(permits);
+      rejectJobs(jobIds, processEngine);
+    }
+  }
+
+  protected int getRequiredPermits(List<String> jobIds) {
+    return Math.max(1, Math.min(jobIds.size(), maxConcurrentJobs));
+  }
+
+  protected void rejectJobs(List<String> jobIds, ProcessEngineImpl processEngine) {
+    logRejectedExecution(processEngine, jobIds.size());
+    rejectedJobsHandler.jobsRejected(jobIds, processEngine, this);
+  }
+
+  /**
+   * @return the number of free permits, i.e. the number of jobs which can be
+   *   executed right away
+   */
+  public int getAvailableExecutionCapacity() {
+    if (concurrencyPermits == null) {
+      return maxConcurrentJobs;
+    }
+    return concurrencyPermits.availablePermits();
+  }
+
+  protected ExecutorService createExecutorService() {
+    try {
+      Method newVirtualThreadPerTaskExecutor = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return (ExecutorService) newVirtualThreadPerTaskExecutor.invoke(null);
+
+    } catch (Exception e) {
+      LOG.virtualThreadsNotAvailable();
+      return Executors.newCachedThreadPool(new JobExecutionThreadFactory());
+    }
+  }
+
+  // getters and setters //////////////////////////////////////////////////////
+
+  public int getMaxConcurrentJobs() {
+    return maxConcurrentJobs;
+  }
+
+  /**
+   * Sets the maximum number of jobs executed at the same time. Must be set before this
+   * job executor is started for the first time.
+   */
+  public void setMaxConcurrentJobs(int maxConcurrentJobs) {
+    this.maxConcurrentJobs = maxConcurrentJobs;
+  }
+
+  public ExecutorService getExecutorService() {
+    return executorService;
+  }
+
+  public void setExecutorService(ExecutorService executorService) {
+    this.executorService = executorService;
+  }
+
+  protected class PermitReleasingRunnable implements Runnable {
+
+    protected Runnable delegate;
+    protected int permits;
+
+    public PermitReleasingRunnable(Runnable delegate, int permits) {
+      this.delegate = delegate;
+      this.permits = permits;
+    }
+
+    public void run() {
+      try {
+        delegate.run();
+      } finally {
+        concurrencyPermits.release(permits);
+      }
+    }
+
+  }
+
+  protected static class JobExecutionThreadFactory implements ThreadFactory {
+
+    protected final AtomicInteger threadNumber = new AtomicInteger(1);
+
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, "camunda-job-execution-" + threadNumber.getAndIncrement());
+      thread.setDaemon(true);
+      return thread;
+    }
+
+  }
+
+}
@@ -53,7 +53,11 @@ public class HistoryCleanupJobHandler implements JobHandler<HistoryCleanupJobHan
     HistoryCleanupHandler cleanupHandler = null;
 
     if (isHistoryCleanupStrategyRemovalTimeBased(commandContext)) {
-      cleanupHandler = new HistoryCleanupRemovalTime();
+      if (commandContext.getProcessEngineConfiguration().isHistoryCleanupRangeDeleteEnabled()) {
+        cleanupHandler = new HistoryCleanupRemovalTimeRange();
+      } else {
+        cleanupHandler = new HistoryCleanupRemovalTime();
+      }
     } else {
       cleanupHandler = new HistoryCleanupBatch();
     }
@@ -0,0 +1,479 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.jobexecutor.historycleanup;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.batch.history.HistoricBatchEntity;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.db.DbEntity;
+import org.camunda.bpm.engine.impl.db.ListQueryParameterObject;
+import org.camunda.bpm.engine.impl.db.entitymanager.DbEntityManager;
+import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbOperation;
+import org.camunda.bpm.engine.impl.db.sql.DbSqlSessionFactory;
+import org.camunda.bpm.engine.impl.history.event.HistoricDecisionInputInstanceEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoricDecisionInstanceEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoricDecisionOutputInstanceEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoricDetailEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoricExternalTaskLogEntity;
+import org.camunda.bpm.engine.impl.history.event.UserOperationLogEntryEventEntity;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutorLogger;
+import org.camunda.bpm.engine.impl.persistence.entity.AttachmentEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.ByteArrayEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.CommentEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.HistoricActivityInstanceEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.HistoricIdentityLinkLogEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.HistoricIncidentEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.HistoricJobLogEventEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.HistoricProcessInstanceEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.HistoricTaskInstanceEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.HistoricVariableInstanceEntity;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.camunda.bpm.engine.management.Metrics;
+
+/**
+ * Removal time based history cleanup which deletes whole removal time ranges per table.
+ *
+ * <p>For each table the upper bound of the next range is found by a keyset scan over the
+ * <code>REMOVAL_TIME_</code> index (the removal time and id of the batch size-th expired
+ * row, ordered by removal time and id), and all rows up to that bound are removed by a
+ * single delete statement. Breaking ties on the id keeps a range within the batch size
+ * even if many rows share the same removal time. Instead of
+ * filtering rows by the minute of their removal time, parallel cleanup jobs split the
+ * history tables among themselves.</p>
+ *
+ * <p>If enabled, expired partitions of tables which are range-partitioned by removal
+ * time are dropped before the range is deleted. Partitions are expected to be named
+ * <code>&lt;TABLE&gt;_P&lt;yyyyMMdd&gt;</code>, the date being the exclusive upper bound
+ * of the partition.</p>
+ *
+ * <p>If the history schema is partitioned as well (see
+ * {@link org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl#isHistoryPartitioningEnabled()}),
+ * monthly partitions are created ahead of time. Partitions of tables which are partitioned
+ * by start time are only dropped once none of their rows is still awaiting its removal time.</p>
+ */
+public class HistoryCleanupRemovalTimeRange extends HistoryCleanupRemovalTime {
+
+  protected final static JobExecutorLogger LOG = ProcessEngineLogger.JOB_EXECUTOR_LOGGER;
+
+  protected static final String PARTITION_SUFFIX = "_P";
+  protected static final String PARTITION_DATE_FORMAT = "yyyyMMdd";
+  protected static final String PARTITION_BOUND_FORMAT = "yyyy-MM-dd";
+
+  protected static final String START_TIME = "START_TIME_";
+  protected static final String REMOVAL_TIME = "REMOVAL_TIME_";
+
+  protected static final Map<String, Class<? extends DbEntity>> TABLES = new LinkedHashMap<>();
+  protected static final List<String> DMN_TABLES = new ArrayList<>();
+
+  /** partition keys of the tables which are range-partitioned in the partitioned history schema */
+  protected static final Map<String, String> PARTITION_KEYS = new HashMap<>();
+
+  static {
+    TABLES.put("ACT_HI_ACTINST", HistoricActivityInstanceEntity.class);
+    TABLES.put("ACT_HI_TASKINST", HistoricTaskInstanceEntity.class);
+    TABLES.put("ACT_HI_VARINST", HistoricVariableInstanceEntity.class);
+    TABLES.put("ACT_HI_DETAIL", HistoricDetailEventEntity.class);
+    TABLES.put("ACT_HI_INCIDENT", HistoricIncidentEntity.class);
+    TABLES.put("ACT_HI_EXT_TASK_LOG", HistoricExternalTaskLogEntity.class);
+    TABLES.put("ACT_HI_JOB_LOG", HistoricJobLogEventEntity.class);
+    TABLES.put("ACT_HI_OP_LOG", UserOperationLogEntryEventEntity.class);
+    TABLES.put("ACT_HI_IDENTITYLINK", HistoricIdentityLinkLogEntity.class);
+    TABLES.put("ACT_HI_COMMENT", CommentEntity.class);
+    TABLES.put("ACT_HI_ATTACHMENT", AttachmentEntity.class);
+    TABLES.put("ACT_GE_BYTEARRAY", ByteArrayEntity.class);
+    TABLES.put("ACT_HI_PROCINST", HistoricProcessInstanceEntity.class);
+    TABLES.put("ACT_HI_DEC_IN", HistoricDecisionInputInstanceEntity.class);
+    TABLES.put("ACT_HI_DEC_OUT", HistoricDecisionOutputInstanceEntity.class);
+    TABLES.put("ACT_HI_DECINST", HistoricDecisionInstanceEntity.class);
+    TABLES.put("ACT_HI_BATCH", HistoricBatchEntity.class);
+
+    DMN_TABLES.add("ACT_HI_DEC_IN");
+    DMN_TABLES.add("ACT_HI_DEC_OUT");
+    DMN_TABLES.add("ACT_HI_DECINST");
+
+    PARTITION_KEYS.put("ACT_HI_PROCINST", START_TIME);
+    PARTITION_KEYS.put("ACT_HI_ACTINST", START_TIME);
+    PARTITION_KEYS.put("ACT_HI_TASKINST", REMOVAL_TIME);
+    PARTITION_KEYS.put("ACT_HI_VARINST", REMOVAL_TIME);
+    PARTITION_KEYS.put("ACT_HI_DETAIL", REMOVAL_TIME);
+    PARTITION_KEYS.put("ACT_HI_JOB_LOG", REMOVAL_TIME);
+    PARTITION_KEYS.put("ACT_HI_OP_LOG", REMOVAL_TIME);
+  }
+
+  protected Map<String, DbOperation> rangeDeleteOperations = new LinkedHashMap<>();
+  protected Map<String, List<String>> droppedPartitions = new LinkedHashMap<>();
+  protected Map<String, List<String>> createdPartitions = new LinkedHashMap<>();
+  protected long startTime;
+
+  public void performCleanup() {
+    startTime = System.currentTimeMillis();
+
+    Date removalTime = ClockUtil.getCurrentTime();
+    int batchSize = getBatchSize();
+
+    for (Map.Entry<String, Class<? extends DbEntity>> table : getTables().entrySet()) {
+      String tableName = table.getKey();
+      Class<? extends DbEntity> entityType = table.getValue();
+
+      if (isPartitionDropEnabled()) {
+        dropExpiredPartitions(tableName, entityType, removalTime);
+      }
+
+      Map<String, Object> upperBound = findRangeUpperBound(tableName, removalTime, batchSize);
+      if (upperBound != null) {
+        rangeDeleteOperations.put(tableName, deleteRange(tableName, entityType, upperBound));
+      }
+    }
+  }
+
+  /**
+   * @return the tables cleaned up by this job; with a degree of parallelism greater
+   * than one, the tables are distributed round robin among the cleanup jobs
+   */
+  protected Map<String, Class<? extends DbEntity>> getTables() {
+    int degreeOfParallelism = getDegreeOfParallelism();
+    int jobIndex = getJobIndex(degreeOfParallelism);
+    boolean isDmnEnabled = isDmnEnabled();
+
+    Map<String, Class<? extends DbEntity>> tables = new LinkedHashMap<>();
+
+    int tableIndex = 0;
+    for (Map.Entry<String, Class<? extends DbEntity>> table : TABLES.entrySet()) {
+      if (!isDmnEnabled && DMN_TABLES.contains(table.getKey())) {
+        continue;
+      }
+
+      if (tableIndex++ % degreeOfParallelism == jobIndex) {
+        tables.put(table.getKey(), table.getValue());
+      }
+    }
+
+    return tables;
+  }
+
+  protected int getJobIndex(int degreeOfParallelism) {
+    int[][] minuteChunks = HistoryCleanupHelper.listMinuteChunks(degreeOfParallelism);
+    for (int i = 0; i < minuteChunks.length; i++) {
+      if (minuteChunks[i][0] == configuration.getMinuteFrom()) {
+        return i;
+      }
+    }
+
+    return 0;
+  }
+
+  /**
+   * @return the removal time (<code>removalTime</code>) and id (<code>id</code>) of the last
+   * row of the next range or <code>null</code> if no row is expired
+   */
+  @SuppressWarnings("unchecked")
+  protected Map<String, Object> findRangeUpperBound(String table, Date removalTime, int batchSize) {
+    Map<String, Object> parameters = new HashMap<>();
+    parameters.put("table", table);
+    parameters.put("removalTime", removalTime);
+
+    List<Map<String, Object>> bounds = getDbEntityManager()
+      .selectList("selectHistoryCleanupRemovalTimes", new ListQueryParameterObject(parameters, 0, batchSize));
+
+    if (bounds.isEmpty()) {
+      return null;
+    }
+
+    return bounds.get(bounds.size() - 1);
+  }
+
+  protected DbOperation deleteRange(String table, Class<? extends DbEntity> entityType, Map<String, Object> upperBound) {
+    Map<String, Object> parameters = new HashMap<>();
+    parameters.put("table", table);
+    parameters.put("removalTime", upperBound.get("removalTime"));
+    parameters.put("id", upperBound.get("id"));
+
+    return getDbEntityManager()
+      .deletePreserveOrder(entityType, "deleteHistoryCleanupRemovalTimeRange", parameters);
+  }
+
+  @SuppressWarnings("unchecked")
+  protected void dropExpiredPartitions(String table, Class<? extends DbEntity> entityType, Date removalTime) {
+    Map<String, Object> parameters = new HashMap<>();
+    parameters.put("table", table);
+
+    List<String> partitions = getDbEntityManager().selectList("selectHistoryCleanupPartitions", parameters);
+
+    for (String partition : partitions) {
+      Date partitionUpperBound = parsePartitionUpperBound(table, partition);
+
+      if (partitionUpperBound != null && !partitionUpperBound.after(removalTime)
+          && !hasActiveRows(table, partition, removalTime)) {
+        Map<String, Object> dropParameters = new HashMap<>();
+        dropParameters.put("table", table);
+        dropParameters.put("partition", partition);
+
+        getDbEntityManager().deletePreserveOrder(entityType, "dropHistoryCleanupPartition", dropParameters);
+        addPartition(droppedPartitions, table, partition);
+      }
+    }
+
+    if (isHistoryPartitioningEnabled() && PARTITION_KEYS.containsKey(table)) {
+      createPartitions(table, entityType, partitions, removalTime);
+    }
+  }
+
+  /**
+   * A start time partition may hold rows which are not yet expired (e.g. of instances
+   * which are still running); such a partition must not be dropped.
+   */
+  protected boolean hasActiveRows(String table, String partition, Date removalTime) {
+    if (!START_TIME.equals(PARTITION_KEYS.get(table))) {
+      return false;
+    }
+
+    Map<String, Object> parameters = new HashMap<>();
+    parameters.put("table", table);
+    parameters.put("partition", partition);
+    parameters.put("removalTime", removalTime);
+
+    Long count = (Long) getDbEntityManager().selectOne("selectHistoryCleanupPartitionActiveRowCount", parameters);
+    return count != null && count > 0;
+  }
+
+  /**
+   * Creates the monthly partitions following the highest existing partition up to
+   * {@link org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl#getHistoryPartitionPrecreateMonths()}
+   * months ahead of the current month.
+   */
+  protected void createPartitions(String table, Class<? extends DbEntity> entityType, List<String> partitions, Date now) {
+    Date lowerBound = findLastPartitionUpperBound(table, partitions);
+
+    for (Date upperBound : getMissingPartitionUpperBounds(lowerBound, now)) {
+      String partition = table + PARTITION_SUFFIX + new SimpleDateFormat(PARTITION_DATE_FORMAT).format(upperBound);
+
+      Map<String, Object> parameters = new HashMap<>();
+      parameters.put("table", table);
+      parameters.put("partition", partition);
+      parameters.put("partitionKey", PARTITION_KEYS.get(table));
+      parameters.put("lowerBound", lowerBound);
+      parameters.put("upperBound", upperBound);
+      parameters.put("lowerBoundLiteral", lowerBound == null ? null : formatPartitionBound(lowerBound));
+      parameters.put("upperBoundLiteral", formatPartitionBound(upperBound));
+
+      getDbEntityManager().updatePreserveOrder(entityType, "createHistoryCleanupPartition", parameters);
+
+      if (!DbSqlSessionFactory.ORACLE.equals(getDatabaseType())) {
+        // rows of the new range have been written to the default partition so far
+        getDbEntityManager().updatePreserveOrder(entityType, "moveHistoryCleanupPartitionRows", parameters);
+        getDbEntityManager().deletePreserveOrder(entityType, "deleteHistoryCleanupPartitionRows", parameters);
+        getDbEntityManager().updatePreserveOrder(entityType, "attachHistoryCleanupPartition", parameters);
+      }
+
+      addPartition(createdPartitions, table, partition);
+
+      lowerBound = upperBound;
+    }
+  }
+
+  /**
+   * @return the highest upper bound of the given partitions or <code>null</code> if none
+   * of them follows the partition naming convention
+   */
+  protected Date findLastPartitionUpperBound(String table, List<String> partitions) {
+    Date lastUpperBound = null;
+    for (String partition : partitions) {
+      Date partitionUpperBound = parsePartitionUpperBound(table, partition);
+      if (partitionUpperBound != null && (lastUpperBound == null || partitionUpperBound.after(lastUpperBound))) {
+        lastUpperBound = partitionUpperBound;
+      }
+    }
+
+    return lastUpperBound;
+  }
+
+  /**
+   * @return the ascending upper bounds of the monthly partitions to create after the given
+   * upper bound of the last existing partition; without an existing partition, the first
+   * created partition ends with the current month
+   */
+  protected List<Date> getMissingPartitionUpperBounds(Date lastUpperBound, Date now) {
+    Date currentMonth = truncateToMonth(now);
+    Date horizon = addMonths(currentMonth, getPartitionPrecreateMonths() + 1);
+    Date upperBound = lastUpperBound == null ? addMonths(currentMonth, 1) : addMonths(lastUpperBound, 1);
+
+    List<Date> upperBounds = new ArrayList<>();
+    while (!upperBound.after(horizon)) {
+      upperBounds.add(upperBound);
+      upperBound = addMonths(upperBound, 1);
+    }
+
+    return upperBounds;
+  }
+
+  protected void addPartition(Map<String, List<String>> partitionsByTable, String table, String partition) {
+    List<String> tablePartitions = partitionsByTable.get(table);
+    if (tablePartitions == null) {
+      tablePartitions = new ArrayList<>();
+      partitionsByTable.put(table, tablePartitions);
+    }
+    tablePartitions.add(partition);
+  }
+
+  protected Date truncateToMonth(Date date) {
+    Calendar calendar = Calendar.getInstance();
+    calendar.setTime(date);
+    calendar.set(Calendar.DAY_OF_MONTH, 1);
+    calendar.set(Calendar.HOUR_OF_DAY, 0);
+    calendar.set(Calendar.MINUTE, 0);
+    calendar.set(Calendar.SECOND, 0);
+    calendar.set(Calendar.MILLISECOND, 0);
+    return calendar.getTime();
+  }
+
+  protected Date addMonths(Date date, int months) {
+    Calendar calendar = Calendar.getInstance();
+    calendar.setTime(date);
+    calendar.add(Calendar.MONTH, months);
+    return calendar.getTime();
+  }
+
+  protected String formatPartitionBound(Date date) {
+    return new SimpleDateFormat(PARTITION_BOUND_FORMAT).format(date);
+  }
+
+  /**
+   * @return the exclusive upper bound of the given partition or <code>null</code>
+   * if the partition name does not follow the <code>&lt;TABLE&gt;_P&lt;yyyyMMdd&gt;</code> convention
+   */
+  protected Date parsePartitionUpperBound(String table, String partition) {
+    String prefix = table + PARTITION_SUFFIX;
+    if (partition == null
+        || partition.length() != prefix.length() + PARTITION_DATE_FORMAT.length()
+        || !partition.toUpperCase().startsWith(prefix)) {
+      return null;
+    }
+
+    SimpleDateFormat dateFormat = new SimpleDateFormat(PARTITION_DATE_FORMAT);
+    dateFormat.setLenient(false);
+
+    try {
+      return dateFormat.parse(partition.substring(prefix.length()));
+
+    } catch (ParseException e) {
+      return null;
+
+    }
+  }
+
+  protected Map<String, Long> reportMetrics() {
+    Map<String, Long> reports = new HashMap<>();
+    long duration = System.currentTimeMillis() - startTime;
+
+    for (Map.Entry<String, List<String>> tablePartitions : createdPartitions.entrySet()) {
+      for (String partition : tablePartitions.getValue()) {
+        LOG.historyCleanupPartitionCreated(tablePartitions.getKey(), partition);
+      }
+    }
+
+    for (Map.Entry<String, List<String>> tablePartitions : droppedPartitions.entrySet()) {
+      for (String partition : tablePartitions.getValue()) {
+        LOG.historyCleanupPartitionDropped(tablePartitions.getKey(), partition);
+      }
+    }
+
+    for (Map.Entry<String, DbOperation> deleteOperation : rangeDeleteOperations.entrySet()) {
+      String table = deleteOperation.getKey();
+      long rowsAffected = deleteOperation.getValue().getRowsAffected();
+
+      LOG.historyCleanupRangeDeleted(table, rowsAffected, duration);
+      reports.put(getRemovedRowsMetricName(table), rowsAffected);
+
+      Class<? extends DbEntity> entityType = TABLES.get(table);
+      if (HistoricProcessInstanceEntity.class.equals(entityType)) {
+        reports.put(Metrics.HISTORY_CLEANUP_REMOVED_PROCESS_INSTANCES, rowsAffected);
+
+      } else if (HistoricDecisionInstanceEntity.class.equals(entityType)) {
+        reports.put(Metrics.HISTORY_CLEANUP_REMOVED_DECISION_INSTANCES, rowsAffected);
+
+      } else if (HistoricBatchEntity.class.equals(entityType)) {
+        reports.put(Metrics.HISTORY_CLEANUP_REMOVED_BATCH_OPERATIONS, rowsAffected);
+
+      }
+    }
+
+    return reports;
+  }
+
+  protected boolean shouldRescheduleNow() {
+    int batchSize = getBatchSize();
+
+    for (DbOperation deleteOperation : rangeDeleteOperations.values()) {
+      if (deleteOperation.getRowsAffected() >= batchSize) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  public static String getRemovedRowsMetricName(String table) {
+    return Metrics.HISTORY_CLEANUP_REMOVED_ROWS + "." + table.toLowerCase();
+  }
+
+  protected boolean isPartitionDropEnabled() {
+    return Context
+        .getProcessEngineConfiguration()
+        .isHistoryCleanupPartitionDropEnabled();
+  }
+
+  protected boolean isHistoryPartitioningEnabled() {
+    return Context
+        .getProcessEngineConfiguration()
+        .isHistoryPartitioningEnabled();
+  }
+
+  protected int getPartitionPrecreateMonths() {
+    return Context
+        .getProcessEngineConfiguration()
+        .getHistoryPartitionPrecreateMonths();
+  }
+
+  protected String getDatabaseType() {
+    return Context
+        .getProcessEngineConfiguration()
+        .getDatabaseType();
+  }
+
+  protected int getDegreeOfParallelism() {
+    return Context
+        .getProcessEngineConfiguration()
+        .getHistoryCleanupDegreeOfParallelism();
+  }
+
+  protected DbEntityManager getDbEntityManager() {
+    return Context
+        .getCommandContext()
+        .getDbEntityManager();
+  }
+
+}
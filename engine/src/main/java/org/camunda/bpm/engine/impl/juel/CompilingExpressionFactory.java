@@ -0,0 +1,83 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.juel;
+
+import org.camunda.bpm.engine.impl.javax.el.ELContext;
+import org.camunda.bpm.engine.impl.javax.el.ExpressionFactory;
+import org.camunda.bpm.engine.impl.javax.el.MethodExpression;
+import org.camunda.bpm.engine.impl.javax.el.ValueExpression;
+
+/**
+ * Expression factory which compiles hot value expressions.
+ * 
+ * Value expressions are parsed by a wrapped {@link ExpressionFactoryImpl} and interpreted
+ * until they have been evaluated a configurable number of times. Afterwards, the parse tree
+ * is compiled by the {@link ExpressionCompiler} and subsequent evaluations no longer walk the
+ * tree.
+ */
+public class CompilingExpressionFactory extends ExpressionFactory {
+
+	protected final ExpressionFactoryImpl delegate;
+	protected final int compilationThreshold;
+
+	/**
+	 * Create a new compiling factory wrapping a default {@link ExpressionFactoryImpl}.
+	 * @param compilationThreshold number of evaluations after which an expression is compiled
+	 */
+	public CompilingExpressionFactory(int compilationThreshold) {
+		this(new ExpressionFactoryImpl(), compilationThreshold);
+	}
+
+	/**
+	 * Create a new compiling factory.
+	 * @param delegate factory used to parse expressions
+	 * @param compilationThreshold number of evaluations after which an expression is compiled
+	 */
+	public CompilingExpressionFactory(ExpressionFactoryImpl delegate, int compilationThreshold) {
+		this.delegate = delegate;
+		this.compilationThreshold = compilationThreshold;
+	}
+
+	@Override
+	public Object coerceToType(Object obj, Class<?> targetType) {
+		return delegate.coerceToType(obj, targetType);
+	}
+
+	@Override
+	public MethodExpression createMethodExpression(ELContext context, String expression, Class<?> expectedReturnType, Class<?>[] expectedParamTypes) {
+		return delegate.createMethodExpression(context, expression, expectedReturnType, expectedParamTypes);
+	}
+
+	@Override
+	public ValueExpression createValueExpression(ELContext context, String expression, Class<?> expectedType) {
+		TreeValueExpression treeExpression = delegate.createValueExpression(context, expression, expectedType);
+		if (treeExpression.isLiteralText()) {
+			// nothing to gain
+			return treeExpression;
+		}
+		return new CompilingValueExpression(treeExpression, compilationThreshold);
+	}
+
+	@Override
+	public ValueExpression createValueExpression(Object instance, Class<?> expectedType) {
+		return delegate.createValueExpression(instance, expectedType);
+	}
+
+	public int getCompilationThreshold() {
+		return compilationThreshold;
+	}
+}
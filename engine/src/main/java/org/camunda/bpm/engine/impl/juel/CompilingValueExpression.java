@@ -0,0 +1,140 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.juel;
+
+import org.camunda.bpm.engine.impl.javax.el.ELContext;
+import org.camunda.bpm.engine.impl.javax.el.ELException;
+import org.camunda.bpm.engine.impl.javax.el.ValueExpression;
+import org.camunda.bpm.engine.impl.javax.el.ValueReference;
+
+/**
+ * A value expression wrapping a {@link TreeValueExpression} which interprets its parse tree
+ * until it has been evaluated a given number of times and compiles it afterwards using the
+ * {@link ExpressionCompiler}. If the tree cannot be compiled, the expression keeps
+ * interpreting it.
+ * 
+ * Only {@link #getValue(ELContext)} uses the compiled form; all other operations are
+ * delegated to the tree expression.
+ */
+public class CompilingValueExpression extends ValueExpression {
+	private static final long serialVersionUID = 1L;
+
+	private final TreeValueExpression treeExpression;
+	private final int compilationThreshold;
+
+	// updated without synchronization: the counter only needs to be roughly accurate
+	private transient int evaluations;
+	private transient volatile ExpressionCompiler.CompiledNode compiledNode;
+	private transient volatile boolean compilationFailed;
+
+	public CompilingValueExpression(TreeValueExpression treeExpression, int compilationThreshold) {
+		this.treeExpression = treeExpression;
+		this.compilationThreshold = compilationThreshold;
+	}
+
+	@Override
+	public Object getValue(ELContext context) throws ELException {
+		ExpressionCompiler.CompiledNode compiled = compiledNode;
+		if (compiled == null) {
+			if (compilationFailed || evaluations < compilationThreshold) {
+				evaluations++;
+				return treeExpression.getValue(context);
+			}
+			compiled = compile();
+			if (compiled == null) {
+				return treeExpression.getValue(context);
+			}
+		}
+		return treeExpression.getBindings().convert(compiled.eval(context), treeExpression.getExpectedType());
+	}
+
+	protected synchronized ExpressionCompiler.CompiledNode compile() {
+		if (compiledNode == null && !compilationFailed) {
+			try {
+				compiledNode = new ExpressionCompiler(treeExpression.getBindings()).compile(treeExpression.getNode());
+			} catch (RuntimeException e) {
+				// keep interpreting
+			}
+			compilationFailed = compiledNode == null;
+		}
+		return compiledNode;
+	}
+
+	/**
+	 * Answer <code>true</code> if this expression has been compiled.
+	 */
+	public boolean isCompiled() {
+		return compiledNode != null;
+	}
+
+	public TreeValueExpression getTreeExpression() {
+		return treeExpression;
+	}
+
+	@Override
+	public Class<?> getExpectedType() {
+		return treeExpression.getExpectedType();
+	}
+
+	@Override
+	public Class<?> getType(ELContext context) {
+		return treeExpression.getType(context);
+	}
+
+	@Override
+	public boolean isReadOnly(ELContext context) {
+		return treeExpression.isReadOnly(context);
+	}
+
+	@Override
+	public void setValue(ELContext context, Object value) {
+		treeExpression.setValue(context, value);
+	}
+
+	@Override
+	public ValueReference getValueReference(ELContext context) {
+		return treeExpression.getValueReference(context);
+	}
+
+	@Override
+	public String getExpressionString() {
+		return treeExpression.getExpressionString();
+	}
+
+	@Override
+	public boolean isLiteralText() {
+		return treeExpression.isLiteralText();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj != null && obj.getClass() == getClass()) {
+			return treeExpression.equals(((CompilingValueExpression) obj).treeExpression);
+		}
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		return treeExpression.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return "CompilingValueExpression(" + getExpressionString() + ")";
+	}
+}
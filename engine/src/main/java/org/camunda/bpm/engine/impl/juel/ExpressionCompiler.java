@@ -0,0 +1,615 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.juel;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.camunda.bpm.engine.impl.javax.el.ELContext;
+import org.camunda.bpm.engine.impl.javax.el.ELException;
+import org.camunda.bpm.engine.impl.javax.el.ELResolver;
+import org.camunda.bpm.engine.impl.javax.el.ExpressionFactory;
+import org.camunda.bpm.engine.impl.javax.el.MethodNotFoundException;
+import org.camunda.bpm.engine.impl.javax.el.PropertyNotFoundException;
+import org.camunda.bpm.engine.impl.javax.el.ValueExpression;
+
+/**
+ * Compiles the parse tree of a value expression into a tree of {@link CompiledNode}s.
+ * 
+ * Compared to interpreting the parse tree, a compiled expression
+ * <ul>
+ * <li>folds literals and operations on literals into constants,</li>
+ * <li>binds operators, variables and property names once instead of on every evaluation and</li>
+ * <li>invokes bean getters and methods through {@link MethodHandle}s remembered by an
+ * {@link InlineCache} per node, as soon as a (base class, property) pair has been resolved by
+ * invoking a bean method (see {@link ELContext#setResolvedMethod(Object, Object, Method)}) and
+ * the same resolver is used with a base of the same class again.</li>
+ * </ul>
+ * The inline caches reference the methods they remember weakly. The methods are kept with
+ * the classes of the bases they have been resolved for, such that compiled expressions
+ * never prevent the classes of a process application from being unloaded.
+ * Nodes the compiler has no support for (e.g. functions or nodes of custom tree builders)
+ * are evaluated by the interpreter.
+ */
+public class ExpressionCompiler {
+
+	private static final Object[] NO_ARGUMENTS = new Object[0];
+	private static final MethodType BEAN_METHOD_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+	/**
+	 * The maximum number of bean methods an inline cache remembers. Nodes evaluated with bases
+	 * of more classes (or whose resolutions cannot be cached) go through the resolver chain.
+	 */
+	public static final int MAX_INLINE_CACHE_SIZE = 4;
+
+	/**
+	 * The bean methods resolved for the bases of a class, stored with the class itself.
+	 */
+	private static final ClassValue<ConcurrentMap<Method, BeanMethod>> BEAN_METHODS = new ClassValue<ConcurrentMap<Method, BeanMethod>>() {
+		@Override
+		protected ConcurrentMap<Method, BeanMethod> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<Method, BeanMethod>();
+		}
+	};
+
+	private final Bindings bindings;
+
+	public ExpressionCompiler(Bindings bindings) {
+		this.bindings = bindings;
+	}
+
+	/**
+	 * Compile the given parse tree.
+	 * @return the compiled tree or <code>null</code> if the root node cannot be compiled
+	 */
+	public CompiledNode compile(ExpressionNode root) {
+		if (root instanceof AstNode) {
+			return compileNode((AstNode) root);
+		}
+		return null;
+	}
+
+	protected CompiledNode compileNode(Node child) {
+		AstNode node = (AstNode) child;
+		Class<?> nodeClass = node.getClass();
+		if (node instanceof AstLiteral || nodeClass == AstText.class) {
+			return new ConstantNode(node.eval(bindings, null));
+		}
+		if (nodeClass == AstEval.class || nodeClass == AstNested.class) {
+			return compileNode(node.getChild(0));
+		}
+		if (nodeClass == AstIdentifier.class) {
+			return compileIdentifier((AstIdentifier) node);
+		}
+		if (nodeClass == AstDot.class || nodeClass == AstBracket.class) {
+			return compileProperty((AstProperty) node);
+		}
+		if (nodeClass == AstMethod.class) {
+			return compileMethod((AstMethod) node);
+		}
+		if (nodeClass == AstUnary.class) {
+			return compileUnary((AstUnary) node);
+		}
+		if (nodeClass == AstBinary.class) {
+			return compileBinary((AstBinary) node);
+		}
+		if (nodeClass == AstChoice.class) {
+			return fold(new ChoiceNode(compileNode(node.getChild(0)), compileNode(node.getChild(1)), compileNode(node.getChild(2))));
+		}
+		if (nodeClass == AstComposite.class) {
+			CompiledNode[] children = compileChildren(node);
+			return fold(new CompositeNode(children), children);
+		}
+		return new InterpretedNode(node);
+	}
+
+	protected CompiledNode compileIdentifier(AstIdentifier node) {
+		ValueExpression variable = bindings.getVariable(node.getIndex());
+		if (variable != null) {
+			return new VariableNode(variable);
+		}
+		return new IdentifierNode(node.getName());
+	}
+
+	protected CompiledNode compileProperty(AstProperty node) {
+		CompiledNode prefix = compileNode(node.getPrefix());
+		CompiledNode property;
+		if (node instanceof AstDot) {
+			property = new ConstantNode(((AstDot) node).property);
+		} else {
+			property = compileNode(((AstBracket) node).property);
+		}
+		return new PropertyNode(prefix, property, node.strict);
+	}
+
+	protected CompiledNode compileMethod(AstMethod node) {
+		AstProperty property = (AstProperty) node.getChild(0);
+		if (property.getClass() != AstDot.class && property.getClass() != AstBracket.class) {
+			return new InterpretedNode(node);
+		}
+		CompiledNode prefix = compileNode(property.getPrefix());
+		CompiledNode name;
+		if (property instanceof AstDot) {
+			name = new ConstantNode(((AstDot) property).property);
+		} else {
+			name = compileNode(((AstBracket) property).property);
+		}
+		CompiledNode[] params = compileChildren(node.getChild(1));
+		return new MethodNode(property.getPrefix(), prefix, name, params);
+	}
+
+	protected CompiledNode compileUnary(AstUnary node) {
+		if (!(node.getOperator() instanceof AstUnary.SimpleOperator)) {
+			return new InterpretedNode(node);
+		}
+		CompiledNode child = compileNode(node.getChild(0));
+		return fold(new UnaryNode((AstUnary.SimpleOperator) node.getOperator(), child), child);
+	}
+
+	protected CompiledNode compileBinary(AstBinary node) {
+		AstBinary.Operator operator = node.getOperator();
+		CompiledNode left = compileNode(node.getChild(0));
+		CompiledNode right = compileNode(node.getChild(1));
+		CompiledNode compiled;
+		if (operator == AstBinary.AND) {
+			compiled = new AndNode(left, right);
+		} else if (operator == AstBinary.OR) {
+			compiled = new OrNode(left, right);
+		} else if (operator instanceof AstBinary.SimpleOperator) {
+			compiled = new BinaryNode((AstBinary.SimpleOperator) operator, left, right);
+		} else {
+			return new InterpretedNode(node);
+		}
+		return fold(compiled, left, right);
+	}
+
+	protected CompiledNode[] compileChildren(Node node) {
+		CompiledNode[] children = new CompiledNode[node.getCardinality()];
+		for (int i = 0; i < children.length; i++) {
+			children[i] = compileNode(node.getChild(i));
+		}
+		return children;
+	}
+
+	/**
+	 * Replace the compiled node by a constant if all of its operands are constants.
+	 */
+	protected CompiledNode fold(CompiledNode compiled, CompiledNode... operands) {
+		for (CompiledNode operand : operands) {
+			if (!(operand instanceof ConstantNode)) {
+				return compiled;
+			}
+		}
+		try {
+			return new ConstantNode(compiled.eval(null));
+		} catch (RuntimeException e) {
+			// fails on every evaluation, let it fail at evaluation time
+			return compiled;
+		}
+	}
+
+	/**
+	 * A compiled node of a parse tree.
+	 */
+	public static abstract class CompiledNode {
+		public abstract Object eval(ELContext context);
+	}
+
+	protected static class ConstantNode extends CompiledNode {
+		protected final Object value;
+		protected ConstantNode(Object value) {
+			this.value = value;
+		}
+		public Object eval(ELContext context) {
+			return value;
+		}
+	}
+
+	protected class InterpretedNode extends CompiledNode {
+		protected final AstNode node;
+		protected InterpretedNode(AstNode node) {
+			this.node = node;
+		}
+		public Object eval(ELContext context) {
+			return node.eval(bindings, context);
+		}
+	}
+
+	protected static class VariableNode extends CompiledNode {
+		protected final ValueExpression variable;
+		protected VariableNode(ValueExpression variable) {
+			this.variable = variable;
+		}
+		public Object eval(ELContext context) {
+			return variable.getValue(context);
+		}
+	}
+
+	protected static class IdentifierNode extends CompiledNode {
+		protected final String name;
+		protected IdentifierNode(String name) {
+			this.name = name;
+		}
+		public Object eval(ELContext context) {
+			context.setPropertyResolved(false);
+			Object result = context.getELResolver().getValue(context, null, name);
+			if (!context.isPropertyResolved()) {
+				throw new PropertyNotFoundException(LocalMessages.get("error.identifier.property.notfound", name));
+			}
+			return result;
+		}
+	}
+
+	protected class UnaryNode extends CompiledNode {
+		protected final AstUnary.SimpleOperator operator;
+		protected final CompiledNode child;
+		protected UnaryNode(AstUnary.SimpleOperator operator, CompiledNode child) {
+			this.operator = operator;
+			this.child = child;
+		}
+		public Object eval(ELContext context) {
+			return operator.apply(bindings, child.eval(context));
+		}
+	}
+
+	protected class BinaryNode extends CompiledNode {
+		protected final AstBinary.SimpleOperator operator;
+		protected final CompiledNode left, right;
+		protected BinaryNode(AstBinary.SimpleOperator operator, CompiledNode left, CompiledNode right) {
+			this.operator = operator;
+			this.left = left;
+			this.right = right;
+		}
+		public Object eval(ELContext context) {
+			return operator.apply(bindings, left.eval(context), right.eval(context));
+		}
+	}
+
+	protected class AndNode extends CompiledNode {
+		protected final CompiledNode left, right;
+		protected AndNode(CompiledNode left, CompiledNode right) {
+			this.left = left;
+			this.right = right;
+		}
+		public Object eval(ELContext context) {
+			Boolean l = bindings.convert(left.eval(context), Boolean.class);
+			return Boolean.TRUE.equals(l) ? bindings.convert(right.eval(context), Boolean.class) : Boolean.FALSE;
+		}
+	}
+
+	protected class OrNode extends CompiledNode {
+		protected final CompiledNode left, right;
+		protected OrNode(CompiledNode left, CompiledNode right) {
+			this.left = left;
+			this.right = right;
+		}
+		public Object eval(ELContext context) {
+			Boolean l = bindings.convert(left.eval(context), Boolean.class);
+			return Boolean.TRUE.equals(l) ? Boolean.TRUE : bindings.convert(right.eval(context), Boolean.class);
+		}
+	}
+
+	protected class ChoiceNode extends CompiledNode {
+		protected final CompiledNode question, yes, no;
+		protected ChoiceNode(CompiledNode question, CompiledNode yes, CompiledNode no) {
+			this.question = question;
+			this.yes = yes;
+			this.no = no;
+		}
+		public Object eval(ELContext context) {
+			Boolean value = bindings.convert(question.eval(context), Boolean.class);
+			return value.booleanValue() ? yes.eval(context) : no.eval(context);
+		}
+	}
+
+	protected class CompositeNode extends CompiledNode {
+		protected final CompiledNode[] nodes;
+		protected CompositeNode(CompiledNode[] nodes) {
+			this.nodes = nodes;
+		}
+		public Object eval(ELContext context) {
+			StringBuilder b = new StringBuilder(16);
+			for (CompiledNode node : nodes) {
+				b.append(bindings.convert(node.eval(context), String.class));
+			}
+			return b.toString();
+		}
+	}
+
+	/**
+	 * Property access <code>base.property</code> or <code>base[property]</code>. If the property is
+	 * a constant, bean getters are cached.
+	 */
+	protected class PropertyNode extends CompiledNode {
+		protected final CompiledNode prefix;
+		protected final CompiledNode property;
+		protected final boolean strict;
+		protected final InlineCache getters = new InlineCache();
+
+		protected PropertyNode(CompiledNode prefix, CompiledNode property, boolean strict) {
+			this.prefix = prefix;
+			this.property = property;
+			this.strict = strict;
+		}
+
+		public Object eval(ELContext context) {
+			Object base = prefix.eval(context);
+			if (base == null) {
+				return null;
+			}
+			Object property = this.property.eval(context);
+			if (property == null && strict) {
+				return null;
+			}
+			ELResolver resolver = context.getELResolver();
+			BeanMethod getter = getters.lookup(resolver, base.getClass());
+			if (getter != null) {
+				context.setPropertyResolved(true);
+				return getter.invoke(base, NO_ARGUMENTS);
+			}
+			boolean learn = property != null && this.property instanceof ConstantNode && getters.isLearning();
+			if (learn) {
+				context.setResolvedMethod(null, null, null);
+			}
+			context.setPropertyResolved(false);
+			Object result = resolver.getValue(context, base, property);
+			if (!context.isPropertyResolved()) {
+				throw new PropertyNotFoundException(LocalMessages.get("error.property.property.notfound", property, base));
+			}
+			if (learn) {
+				getters.learn(resolver, BeanMethod.create(context, base, property, 0));
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Method invocation <code>base.method(params)</code>. If the method name is a constant, the
+	 * invoked bean methods are cached.
+	 */
+	protected class MethodNode extends CompiledNode {
+		protected final AstNode prefixNode;
+		protected final CompiledNode prefix;
+		protected final CompiledNode name;
+		protected final CompiledNode[] params;
+		protected final InlineCache methods = new InlineCache();
+
+		protected MethodNode(AstNode prefixNode, CompiledNode prefix, CompiledNode name, CompiledNode[] params) {
+			this.prefixNode = prefixNode;
+			this.prefix = prefix;
+			this.name = name;
+			this.params = params;
+		}
+
+		public Object eval(ELContext context) {
+			Object base = prefix.eval(context);
+			if (base == null) {
+				throw new PropertyNotFoundException(LocalMessages.get("error.property.base.null", prefixNode));
+			}
+			Object method = name.eval(context);
+			if (method == null) {
+				throw new PropertyNotFoundException(LocalMessages.get("error.property.method.notfound", "null", base));
+			}
+			String name = bindings.convert(method, String.class);
+			Object[] paramValues = new Object[params.length];
+			for (int i = 0; i < paramValues.length; i++) {
+				paramValues[i] = params[i].eval(context);
+			}
+
+			ELResolver resolver = context.getELResolver();
+			BeanMethod cachedMethod = methods.lookup(resolver, base.getClass());
+			if (cachedMethod != null) {
+				Object factory = context.getContext(ExpressionFactory.class);
+				if (factory instanceof ExpressionFactory) {
+					Object result = cachedMethod.invoke(base, cachedMethod.coerceParams((ExpressionFactory) factory, paramValues));
+					context.setPropertyResolved(true);
+					return result;
+				}
+			}
+			boolean learn = cachedMethod == null && this.name instanceof ConstantNode && methods.isLearning();
+			if (learn) {
+				context.setResolvedMethod(null, null, null);
+			}
+			context.setPropertyResolved(false);
+			Object result = resolver.invoke(context, base, name, null, paramValues);
+			if (!context.isPropertyResolved()) {
+				throw new MethodNotFoundException(LocalMessages.get("error.property.method.notfound", name, base.getClass()));
+			}
+			if (learn) {
+				methods.learn(resolver, BeanMethod.create(context, base, name, paramValues.length));
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * A polymorphic inline cache of the bean methods a node has been resolved to, by resolver,
+	 * base class and context class loader. The latter keeps the resolutions performed in the
+	 * context of different process applications apart.
+	 */
+	protected static class InlineCache {
+		private static final InlineCacheEntry[] NO_ENTRIES = new InlineCacheEntry[0];
+
+		private volatile InlineCacheEntry[] entries = NO_ENTRIES;
+		private volatile int failedResolutions;
+
+		/**
+		 * @return the bean method cached for the given resolver and base class or <code>null</code>
+		 */
+		protected BeanMethod lookup(ELResolver resolver, Class<?> baseClass) {
+			InlineCacheEntry[] entries = this.entries;
+			if (entries.length == 0) {
+				return null;
+			}
+			ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+			for (InlineCacheEntry entry : entries) {
+				BeanMethod method = entry.getMethod(resolver, baseClass, contextClassLoader);
+				if (method != null) {
+					return method;
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Answer <code>true</code> if the next resolution should be recorded, i.e. the cache is
+		 * neither full nor evaluated with bases whose resolution cannot be cached.
+		 */
+		protected boolean isLearning() {
+			if (failedResolutions >= MAX_INLINE_CACHE_SIZE) {
+				return false;
+			}
+			InlineCacheEntry[] entries = this.entries;
+			if (entries.length < MAX_INLINE_CACHE_SIZE) {
+				return true;
+			}
+			for (InlineCacheEntry entry : entries) {
+				if (!entry.isAlive()) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Remember a resolution.
+		 * @param method the resolved bean method or <code>null</code> if the resolution cannot be cached
+		 */
+		protected synchronized void learn(ELResolver resolver, BeanMethod method) {
+			if (method == null) {
+				failedResolutions++;
+				return;
+			}
+			List<InlineCacheEntry> newEntries = new ArrayList<InlineCacheEntry>(MAX_INLINE_CACHE_SIZE);
+			for (InlineCacheEntry entry : entries) {
+				if (entry.isAlive()) {
+					newEntries.add(entry);
+				}
+			}
+			if (newEntries.size() < MAX_INLINE_CACHE_SIZE) {
+				newEntries.add(new InlineCacheEntry(resolver, method, Thread.currentThread().getContextClassLoader()));
+			}
+			entries = newEntries.toArray(NO_ENTRIES);
+		}
+
+		protected int size() {
+			return entries.length;
+		}
+	}
+
+	protected static class InlineCacheEntry {
+		protected final ELResolver resolver;
+		protected final WeakReference<BeanMethod> method;
+		protected final WeakReference<ClassLoader> contextClassLoader;
+		protected final boolean hasContextClassLoader;
+
+		protected InlineCacheEntry(ELResolver resolver, BeanMethod method, ClassLoader contextClassLoader) {
+			this.resolver = resolver;
+			this.method = new WeakReference<BeanMethod>(method);
+			this.contextClassLoader = new WeakReference<ClassLoader>(contextClassLoader);
+			this.hasContextClassLoader = contextClassLoader != null;
+		}
+
+		protected BeanMethod getMethod(ELResolver resolver, Class<?> baseClass, ClassLoader contextClassLoader) {
+			if (this.resolver != resolver || this.contextClassLoader.get() != contextClassLoader) {
+				return null;
+			}
+			BeanMethod method = this.method.get();
+			return method != null && method.baseClass == baseClass ? method : null;
+		}
+
+		protected boolean isAlive() {
+			return method.get() != null && (!hasContextClassLoader || contextClassLoader.get() != null);
+		}
+	}
+
+	/**
+	 * A bean method resolved for bases of a given class, invoked through a method handle taking
+	 * the base and an argument array.
+	 */
+	protected static class BeanMethod {
+		protected final Class<?> baseClass;
+		protected final Class<?>[] parameterTypes;
+		protected final MethodHandle handle;
+
+		protected BeanMethod(Class<?> baseClass, Class<?>[] parameterTypes, MethodHandle handle) {
+			this.baseClass = baseClass;
+			this.parameterTypes = parameterTypes;
+			this.handle = handle;
+		}
+
+		/**
+		 * Get the bean method for the method resolution recorded in the context if it has been
+		 * recorded for the given base and property.
+		 * @return the bean method or <code>null</code> if the resolution cannot be cached
+		 */
+		protected static BeanMethod create(ELContext context, Object base, Object property, int paramCount) {
+			Method method = context.getResolvedMethod();
+			if (method == null || context.getResolvedBase() != base || !property.equals(context.getResolvedProperty())) {
+				return null;
+			}
+			Class<?>[] parameterTypes = method.getParameterTypes();
+			if (method.isVarArgs() || parameterTypes.length != paramCount) {
+				return null;
+			}
+			ConcurrentMap<Method, BeanMethod> methods = BEAN_METHODS.get(base.getClass());
+			BeanMethod beanMethod = methods.get(method);
+			if (beanMethod == null) {
+				try {
+					MethodHandle handle = MethodHandles.publicLookup().unreflect(method)
+							.asSpreader(Object[].class, paramCount)
+							.asType(BEAN_METHOD_TYPE);
+					beanMethod = new BeanMethod(base.getClass(), parameterTypes, handle);
+				} catch (IllegalAccessException e) {
+					return null;
+				}
+				BeanMethod existingMethod = methods.putIfAbsent(method, beanMethod);
+				if (existingMethod != null) {
+					beanMethod = existingMethod;
+				}
+			}
+			return beanMethod;
+		}
+
+		protected Object[] coerceParams(ExpressionFactory factory, Object[] params) {
+			Object[] args = new Object[params.length];
+			for (int i = 0; i < args.length; i++) {
+				Object value = params[i];
+				Class<?> type = parameterTypes[i];
+				if (value != null || type.isPrimitive()) {
+					args[i] = factory.coerceToType(value, type);
+				}
+			}
+			return args;
+		}
+
+		protected Object invoke(Object base, Object[] args) {
+			try {
+				return (Object) handle.invokeExact(base, args);
+			} catch (Throwable e) {
+				throw new ELException(e);
+			}
+		}
+	}
+}
@@ -80,6 +80,20 @@ public final class TreeValueExpression extends org.camunda.bpm.engine.impl.javax
 		return structure;
 	}
 	
+	/**
+	 * Answer the root node of the parse tree.
+	 */
+	ExpressionNode getNode() {
+		return node;
+	}
+
+	/**
+	 * Answer the function and variable bindings of this expression.
+	 */
+	Bindings getBindings() {
+		return bindings;
+	}
+
 	@Override
 	public Class<?> getExpectedType() {
 		return type;
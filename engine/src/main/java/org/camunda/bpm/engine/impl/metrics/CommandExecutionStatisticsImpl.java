@@ -0,0 +1,92 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.metrics;
+
+import org.camunda.bpm.engine.management.CommandExecutionStatistics;
+
+/**
+ * Snapshot of a {@link CommandStatistics}.
+ */
+public class CommandExecutionStatisticsImpl implements CommandExecutionStatistics {
+
+  protected String commandName;
+  protected long count;
+  protected long totalDuration;
+  protected long meanDuration;
+  protected long p95Duration;
+  protected long maxDuration;
+  protected long dbOperations;
+  protected long sqlStatements;
+
+  public CommandExecutionStatisticsImpl(CommandStatistics statistics) {
+    HistogramSnapshot duration = statistics.getDuration();
+
+    this.commandName = statistics.getCommandName();
+    this.count = duration.getCount();
+    this.totalDuration = duration.getSum();
+    this.meanDuration = duration.getMean();
+    this.p95Duration = duration.getValueAtPercentile(95);
+    this.maxDuration = duration.getMax();
+    this.dbOperations = statistics.getDbOperations();
+    this.sqlStatements = statistics.getSqlStatements();
+  }
+
+  public String getCommandName() {
+    return commandName;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public long getTotalDuration() {
+    return totalDuration;
+  }
+
+  public long getMeanDuration() {
+    return meanDuration;
+  }
+
+  public long getP95Duration() {
+    return p95Duration;
+  }
+
+  public long getMaxDuration() {
+    return maxDuration;
+  }
+
+  public long getDbOperations() {
+    return dbOperations;
+  }
+
+  public long getSqlStatements() {
+    return sqlStatements;
+  }
+
+  @Override
+  public String toString() {
+    return "CommandExecutionStatisticsImpl [commandName=" + commandName
+        + ", count=" + count
+        + ", totalDuration=" + totalDuration
+        + ", meanDuration=" + meanDuration
+        + ", p95Duration=" + p95Duration
+        + ", maxDuration=" + maxDuration
+        + ", dbOperations=" + dbOperations
+        + ", sqlStatements=" + sqlStatements + "]";
+  }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.metrics;
+
+/**
+ * <p>Collects the database work of one sampled command execution.</p>
+ *
+ * <p>The profile is bound to the executing thread while the command runs, so that the
+ * persistence layer can count flushed operations and executed statements without
+ * access to the command. Nested commands are attributed to the outermost command.</p>
+ */
+public class CommandProfile {
+
+  protected static ThreadLocal<CommandProfile> currentProfile = new ThreadLocal<CommandProfile>();
+
+  protected String commandName;
+  protected long startTime;
+  protected int dbOperations;
+  protected int sqlStatements;
+
+  public CommandProfile(String commandName) {
+    this.commandName = commandName;
+    this.startTime = System.nanoTime();
+  }
+
+  public static CommandProfile getCurrent() {
+    return currentProfile.get();
+  }
+
+  public static void setCurrent(CommandProfile profile) {
+    if (profile != null) {
+      currentProfile.set(profile);
+    } else {
+      currentProfile.remove();
+    }
+  }
+
+  /**
+   * Counts flushed db operations for the command profiled on the current thread, if any.
+   */
+  public static void countDbOperations(int operations) {
+    CommandProfile profile = currentProfile.get();
+    if (profile != null) {
+      profile.dbOperations += operations;
+    }
+  }
+
+  /**
+   * Counts an executed sql statement for the command profiled on the current thread, if any.
+   */
+  public static void countSqlStatement() {
+    CommandProfile profile = currentProfile.get();
+    if (profile != null) {
+      profile.sqlStatements++;
+    }
+  }
+
+  public String getCommandName() {
+    return commandName;
+  }
+
+  /**
+   * @return the time since the profile was started, in microseconds
+   */
+  public long getElapsedMicros() {
+    return (System.nanoTime() - startTime) / 1000;
+  }
+
+  public int getDbOperations() {
+    return dbOperations;
+  }
+
+  public int getSqlStatements() {
+    return sqlStatements;
+  }
+
+}
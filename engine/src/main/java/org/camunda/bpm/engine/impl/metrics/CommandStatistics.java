@@ -0,0 +1,69 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregated profiles of the sampled executions of one command class.
+ *
+ * @see CommandProfile
+ */
+public class CommandStatistics {
+
+  protected String commandName;
+  protected HistogramMeter duration;
+  protected LongAdder dbOperations = new LongAdder();
+  protected LongAdder sqlStatements = new LongAdder();
+
+  public CommandStatistics(String commandName) {
+    this.commandName = commandName;
+    this.duration = new HistogramMeter(commandName);
+  }
+
+  public void record(CommandProfile profile) {
+    duration.record(profile.getElapsedMicros());
+    dbOperations.add(profile.getDbOperations());
+    sqlStatements.add(profile.getSqlStatements());
+  }
+
+  public String getCommandName() {
+    return commandName;
+  }
+
+  /**
+   * @return the distribution of the execution time of the sampled executions, in microseconds
+   */
+  public HistogramSnapshot getDuration() {
+    return duration.get();
+  }
+
+  /**
+   * @return the number of db operations flushed by the sampled executions
+   */
+  public long getDbOperations() {
+    return dbOperations.sum();
+  }
+
+  /**
+   * @return the number of sql statements executed by the sampled executions
+   */
+  public long getSqlStatements() {
+    return sqlStatements.sum();
+  }
+
+}
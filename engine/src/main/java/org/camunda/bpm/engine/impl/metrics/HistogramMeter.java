@@ -0,0 +1,128 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>A Meter recording the distribution of values, e.g. durations.</p>
+ *
+ * <p>Values are counted in logarithmic buckets: every power of two is divided into
+ * {@value #SUB_BUCKET_COUNT} linear sub-buckets. Values below {@value #SUB_BUCKET_COUNT}
+ * are counted exactly, larger values with a relative error of at most 1/{@value #SUB_BUCKET_COUNT}.
+ * Recording a value does not allocate and does not lock.</p>
+ *
+ * @see HistogramSnapshot
+ */
+public class HistogramMeter {
+
+  protected static final int SUB_BUCKET_BITS = 4;
+  protected static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  protected static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+  protected AtomicReference<Recorder> recorder = new AtomicReference<Recorder>(new Recorder());
+
+  protected String name;
+
+  public HistogramMeter(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Records a value. Negative values are recorded as 0.
+   */
+  public void record(long value) {
+    recorder.get().record(Math.max(0, value));
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  /**
+   * @return the values recorded since the last time the meter was cleared
+   */
+  public HistogramSnapshot get() {
+    return recorder.get().snapshot();
+  }
+
+  /**
+   * Returns the values recorded so far and starts recording from scratch. Values
+   * recorded concurrently to clearing the meter may be lost.
+   */
+  public HistogramSnapshot getAndClear() {
+    return recorder.getAndSet(new Recorder()).snapshot();
+  }
+
+  protected static int bucketIndex(long value) {
+    if (value < SUB_BUCKET_COUNT) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int shift = exponent - SUB_BUCKET_BITS;
+    int subBucket = (int) (value >>> shift) & (SUB_BUCKET_COUNT - 1);
+    return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+  }
+
+  /**
+   * @return the highest value counted in the bucket with the given index
+   */
+  protected static long highestValueInBucket(int index) {
+    if (index < SUB_BUCKET_COUNT) {
+      return index;
+    }
+    int shift = index / SUB_BUCKET_COUNT - 1;
+    long lowestValue = (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift;
+    return lowestValue + (1L << shift) - 1;
+  }
+
+  protected static class Recorder {
+
+    protected final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    protected final LongAdder count = new LongAdder();
+    protected final LongAdder sum = new LongAdder();
+    protected final AtomicLong max = new AtomicLong();
+
+    public void record(long value) {
+      buckets.incrementAndGet(bucketIndex(value));
+      count.increment();
+      sum.add(value);
+
+      long currentMax = max.get();
+      while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+        currentMax = max.get();
+      }
+    }
+
+    public HistogramSnapshot snapshot() {
+      long[] bucketCounts = new long[BUCKET_COUNT];
+      for (int i = 0; i < BUCKET_COUNT; i++) {
+        bucketCounts[i] = buckets.get(i);
+      }
+      return new HistogramSnapshot(bucketCounts, sum.sum(), max.get());
+    }
+
+  }
+
+}
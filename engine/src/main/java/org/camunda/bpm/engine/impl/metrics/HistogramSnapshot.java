@@ -0,0 +1,78 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.metrics;
+
+/**
+ * Immutable state of a {@link HistogramMeter} at a point in time.
+ */
+public class HistogramSnapshot {
+
+  protected long[] bucketCounts;
+  protected long count;
+  protected long sum;
+  protected long max;
+
+  public HistogramSnapshot(long[] bucketCounts, long sum, long max) {
+    this.bucketCounts = bucketCounts;
+    this.sum = sum;
+    this.max = max;
+
+    for (long bucketCount : bucketCounts) {
+      count += bucketCount;
+    }
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public long getSum() {
+    return sum;
+  }
+
+  public long getMax() {
+    return max;
+  }
+
+  public long getMean() {
+    return count > 0 ? sum / count : 0;
+  }
+
+  /**
+   * @param percentile the percentile, between 0 and 100
+   * @return the highest value of the bucket containing the given percentile, but not more
+   *   than the maximum recorded value; 0 if no values were recorded
+   */
+  public long getValueAtPercentile(double percentile) {
+    if (count == 0) {
+      return 0;
+    }
+
+    double boundedPercentile = Math.min(Math.max(percentile, 0), 100);
+    long countAtPercentile = Math.max(1, (long) Math.ceil(boundedPercentile / 100 * count));
+
+    long countedValues = 0;
+    for (int i = 0; i < bucketCounts.length; i++) {
+      countedValues += bucketCounts[i];
+      if (countedValues >= countAtPercentile) {
+        return Math.min(HistogramMeter.highestValueInBucket(i), max);
+      }
+    }
+    return max;
+  }
+
+}
@@ -16,17 +16,18 @@
  */
 package org.camunda.bpm.engine.impl.metrics;
 
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * A Meter implementation based on AtomicLong
+ * A Meter implementation based on LongAdder, so that concurrent threads
+ * marking the same meter do not contend on a single counter
  *
  * @author Daniel Meyer
  *
  */
 public class Meter {
 
-  protected AtomicLong counter = new AtomicLong(0);
+  protected LongAdder counter = new LongAdder();
 
   protected String name;
 
@@ -35,11 +36,11 @@ public class Meter {
   }
 
   public void mark() {
-    counter.incrementAndGet();
+    counter.increment();
   }
 
   public void markTimes(long times) {
-    counter.addAndGet(times);
+    counter.add(times);
   }
 
   public String getName() {
@@ -51,11 +52,14 @@ public class Meter {
   }
 
   public long getAndClear() {
-    return counter.getAndSet(0);
+    // subtract instead of reset, so that concurrent marks are kept for the next call
+    long value = counter.sum();
+    counter.add(-value);
+    return value;
   }
 
   public long get() {
-    return counter.get();
+    return counter.sum();
   }
 
 }
@@ -18,6 +18,7 @@ package org.camunda.bpm.engine.impl.metrics;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author Daniel Meyer
@@ -26,6 +27,8 @@ import java.util.Map;
 public class MetricsRegistry {
 
   protected Map<String, Meter> meters = new HashMap<String, Meter>();
+  protected Map<String, HistogramMeter> histograms = new HashMap<String, HistogramMeter>();
+  protected Map<String, CommandStatistics> commandStatistics = new ConcurrentHashMap<String, CommandStatistics>();
 
   public Meter getMeterByName(String name) {
     return meters.get(name);
@@ -53,4 +56,42 @@ public class MetricsRegistry {
     return meter;
   }
 
+  public HistogramMeter getHistogramByName(String name) {
+    return histograms.get(name);
+  }
+
+  public Map<String, HistogramMeter> getHistograms() {
+    return histograms;
+  }
+
+  public void recordValue(String name, long value) {
+    HistogramMeter histogram = histograms.get(name);
+
+    if (histogram != null) {
+      histogram.record(value);
+    }
+  }
+
+  public HistogramMeter createHistogram(String name) {
+    HistogramMeter histogram = new HistogramMeter(name);
+    histograms.put(name, histogram);
+    return histogram;
+  }
+
+  public void recordCommandProfile(CommandProfile profile) {
+    CommandStatistics statistics = commandStatistics.get(profile.getCommandName());
+    if (statistics == null) {
+      statistics = commandStatistics.computeIfAbsent(profile.getCommandName(), CommandStatistics::new);
+    }
+    statistics.record(profile);
+  }
+
+  public Map<String, CommandStatistics> getCommandStatistics() {
+    return commandStatistics;
+  }
+
+  public void clearCommandStatistics() {
+    commandStatistics.clear();
+  }
+
 }
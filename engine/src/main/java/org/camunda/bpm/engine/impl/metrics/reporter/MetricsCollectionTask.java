@@ -17,6 +17,7 @@
 package org.camunda.bpm.engine.impl.metrics.reporter;
 
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.TimerTask;
 
@@ -24,11 +25,14 @@ import org.camunda.bpm.engine.impl.ProcessEngineLogger;
 import org.camunda.bpm.engine.impl.interceptor.Command;
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
 import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
+import org.camunda.bpm.engine.impl.metrics.HistogramMeter;
+import org.camunda.bpm.engine.impl.metrics.HistogramSnapshot;
 import org.camunda.bpm.engine.impl.metrics.Meter;
 import org.camunda.bpm.engine.impl.metrics.MetricsLogger;
 import org.camunda.bpm.engine.impl.metrics.MetricsRegistry;
 import org.camunda.bpm.engine.impl.persistence.entity.MeterLogEntity;
 import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.camunda.bpm.engine.management.Metrics;
 
 /**
  *
@@ -73,6 +77,10 @@ public class MetricsCollectionTask extends TimerTask {
 
     }
 
+    for (HistogramMeter histogram : metricsRegistry.getHistograms().values()) {
+      collectHistogram(histogram, logs);
+    }
+
     commandExecutor.execute(new Command<Void>() {
 
       public Void execute(CommandContext commandContext) {
@@ -84,6 +92,25 @@ public class MetricsCollectionTask extends TimerTask {
     });
   }
 
+  /**
+   * Reports the aggregates of a histogram as separate meter log entries. Histograms without
+   * recorded values are not reported.
+   */
+  protected void collectHistogram(HistogramMeter histogram, List<MeterLogEntity> logs) {
+    HistogramSnapshot snapshot = histogram.getAndClear();
+    if (snapshot.getCount() == 0) {
+      return;
+    }
+
+    Date timestamp = ClockUtil.getCurrentTime();
+    String name = histogram.getName();
+    logs.add(new MeterLogEntity(name + Metrics.HISTOGRAM_COUNT_SUFFIX, reporterId, snapshot.getCount(), timestamp));
+    logs.add(new MeterLogEntity(name + Metrics.HISTOGRAM_P50_SUFFIX, reporterId, snapshot.getValueAtPercentile(50), timestamp));
+    logs.add(new MeterLogEntity(name + Metrics.HISTOGRAM_P95_SUFFIX, reporterId, snapshot.getValueAtPercentile(95), timestamp));
+    logs.add(new MeterLogEntity(name + Metrics.HISTOGRAM_P99_SUFFIX, reporterId, snapshot.getValueAtPercentile(99), timestamp));
+    logs.add(new MeterLogEntity(name + Metrics.HISTOGRAM_MAX_SUFFIX, reporterId, snapshot.getMax(), timestamp));
+  }
+
   public String getReporter() {
     return reporterId;
   }
@@ -37,6 +37,8 @@ import org.camunda.bpm.engine.impl.interceptor.Session;
 import org.camunda.bpm.engine.impl.persistence.entity.AttachmentManager;
 import org.camunda.bpm.engine.impl.persistence.entity.AuthorizationEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.AuthorizationManager;
+import org.camunda.bpm.engine.impl.persistence.entity.CacheEventManager;
+import org.camunda.bpm.engine.impl.persistence.entity.CorrelationKeyManager;
 import org.camunda.bpm.engine.impl.persistence.entity.BatchManager;
 import org.camunda.bpm.engine.impl.persistence.entity.ByteArrayManager;
 import org.camunda.bpm.engine.impl.persistence.entity.DeploymentManager;
@@ -60,6 +62,7 @@ import org.camunda.bpm.engine.impl.persistence.entity.IdentityLinkManager;
 import org.camunda.bpm.engine.impl.persistence.entity.JobDefinitionManager;
 import org.camunda.bpm.engine.impl.persistence.entity.JobManager;
 import org.camunda.bpm.engine.impl.persistence.entity.ProcessDefinitionManager;
+import org.camunda.bpm.engine.impl.persistence.entity.PropertyManager;
 import org.camunda.bpm.engine.impl.persistence.entity.ResourceManager;
 import org.camunda.bpm.engine.impl.persistence.entity.TaskManager;
 import org.camunda.bpm.engine.impl.persistence.entity.TaskReportManager;
@@ -234,6 +237,18 @@ public abstract class AbstractManager implements Session {
     return getSession(HistoricBatchManager.class);
   }
 
+  protected CacheEventManager getCacheEventManager() {
+    return getSession(CacheEventManager.class);
+  }
+
+  protected CorrelationKeyManager getCorrelationKeyManager() {
+    return getSession(CorrelationKeyManager.class);
+  }
+
+  protected PropertyManager getPropertyManager() {
+    return getSession(PropertyManager.class);
+  }
+
   protected TenantManager getTenantManager() {
     return getSession(TenantManager.class);
   }
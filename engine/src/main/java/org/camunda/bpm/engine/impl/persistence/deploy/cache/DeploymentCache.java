@@ -26,6 +26,7 @@ import org.camunda.bpm.engine.impl.dmn.entity.repository.DecisionRequirementsDef
 import org.camunda.bpm.engine.impl.persistence.deploy.Deployer;
 import org.camunda.bpm.engine.impl.persistence.entity.DeploymentEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.ProcessDefinitionEntity;
+import org.camunda.bpm.engine.management.DeploymentCacheStatistics;
 import org.camunda.bpm.engine.repository.DecisionDefinition;
 import org.camunda.bpm.engine.repository.DecisionRequirementsDefinition;
 import org.camunda.bpm.model.bpmn.BpmnModelInstance;
@@ -33,6 +34,7 @@ import org.camunda.bpm.model.cmmn.CmmnModelInstance;
 import org.camunda.bpm.model.dmn.DmnModelInstance;
 import org.camunda.commons.utils.cache.Cache;
 
+import java.util.ArrayList;
 import java.util.List;
 
 
@@ -383,4 +385,26 @@ public class DeploymentCache {
     return result;
   }
 
+  /**
+   * @return the statistics of all deployment caches that record statistics,
+   *   see {@link StatisticsCache}
+   */
+  public List<DeploymentCacheStatistics> getCacheStatistics() {
+    List<DeploymentCacheStatistics> statistics = new ArrayList<DeploymentCacheStatistics>();
+    addCacheStatistics(statistics, CachePurgeReport.PROCESS_DEF_CACHE, getProcessDefinitionCache());
+    addCacheStatistics(statistics, CachePurgeReport.BPMN_MODEL_INST_CACHE, getBpmnModelInstanceCache());
+    addCacheStatistics(statistics, CachePurgeReport.CASE_DEF_CACHE, getCaseDefinitionCache());
+    addCacheStatistics(statistics, CachePurgeReport.CASE_MODEL_INST_CACHE, getCmmnModelInstanceCache());
+    addCacheStatistics(statistics, CachePurgeReport.DMN_DEF_CACHE, getDecisionDefinitionCache());
+    addCacheStatistics(statistics, CachePurgeReport.DMN_MODEL_INST_CACHE, getDmnDefinitionCache());
+    addCacheStatistics(statistics, CachePurgeReport.DMN_REQ_DEF_CACHE, getDecisionRequirementsDefinitionCache());
+    return statistics;
+  }
+
+  protected void addCacheStatistics(List<DeploymentCacheStatistics> statistics, String cacheName, Cache<String, ?> cache) {
+    if (cache instanceof StatisticsCache) {
+      statistics.add(new DeploymentCacheStatisticsImpl(cacheName, (StatisticsCache<String, ?>) cache));
+    }
+  }
+
 }
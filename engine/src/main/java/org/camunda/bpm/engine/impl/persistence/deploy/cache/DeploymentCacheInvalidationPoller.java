@@ -0,0 +1,164 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.deploy.cache;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Timer;
+import java.util.TimerTask;
+
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.db.EnginePersistenceLogger;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
+import org.camunda.bpm.engine.impl.persistence.entity.CacheEventEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.CacheEventManager;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+
+/**
+ * <p>Polls the cache events written by the engines sharing the database and removes
+ * the definitions named by the events from the local {@link DeploymentCache}, so that
+ * only the changed definitions are evicted.</p>
+ *
+ * <p>Each poll reads all events in the table and processes the ones it has not seen
+ * before, so that the detection of new events depends neither on the clocks of the
+ * engines nor on the time at which the writing transaction commits. Events are
+ * processed only once.</p>
+ *
+ * <p>Events older than the {@link #setRetentionInMillis(long) retention period} are
+ * deleted, measured by the clock of the deleting engine against the time at which the
+ * writing engine created the event. An engine misses an event only if it is deleted
+ * before the engine polls it, so the retention period must be longer than the poll
+ * interval plus the longest transaction duration (e.g. the transaction timeout) plus
+ * the maximum clock difference between the engines.</p>
+ */
+public class DeploymentCacheInvalidationPoller {
+
+  protected static final EnginePersistenceLogger LOG = ProcessEngineLogger.PERSISTENCE_LOGGER;
+
+  protected CommandExecutor commandExecutor;
+  protected DeploymentCache deploymentCache;
+
+  protected long pollIntervalInMillis = 5000;
+  protected long retentionInMillis = 10 * 60 * 1000;
+
+  /** ids of the processed events which were still present in the last poll */
+  protected Set<String> processedEvents = new HashSet<String>();
+  protected long lastCleanup;
+
+  protected Timer timer;
+
+  public DeploymentCacheInvalidationPoller(CommandExecutor commandExecutor, DeploymentCache deploymentCache) {
+    this.commandExecutor = commandExecutor;
+    this.deploymentCache = deploymentCache;
+  }
+
+  public synchronized void start() {
+    if (timer == null) {
+      lastCleanup = ClockUtil.getCurrentTime().getTime();
+
+      timer = new Timer("Camunda Deployment Cache Invalidation", true);
+      timer.schedule(new TimerTask() {
+        public void run() {
+          try {
+            poll();
+          } catch (Exception e) {
+            LOG.deploymentCacheInvalidationPollingFailure(e);
+          }
+        }
+      }, pollIntervalInMillis, pollIntervalInMillis);
+    }
+  }
+
+  public synchronized void stop() {
+    if (timer != null) {
+      timer.cancel();
+      timer = null;
+    }
+  }
+
+  /**
+   * Removes the definitions named by new cache events from the deployment cache.
+   */
+  public synchronized void poll() {
+    commandExecutor.execute(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        CacheEventManager cacheEventManager = commandContext.getCacheEventManager();
+        long now = ClockUtil.getCurrentTime().getTime();
+
+        Set<String> presentEvents = new HashSet<String>();
+        for (CacheEventEntity event : cacheEventManager.findCacheEvents()) {
+          presentEvents.add(event.getId());
+          if (!processedEvents.contains(event.getId())) {
+            evict(event);
+          }
+        }
+        // deleted events cannot be returned again
+        processedEvents = presentEvents;
+
+        if (now - lastCleanup >= getCleanupIntervalInMillis()) {
+          cacheEventManager.deleteCacheEventsBefore(now - retentionInMillis);
+          lastCleanup = now;
+        }
+
+        return null;
+      }
+    });
+  }
+
+  protected void evict(CacheEventEntity event) {
+    String type = event.getType();
+    String definitionId = event.getDefinitionId();
+    LOG.evictDefinitionFromDeploymentCache(type, definitionId);
+
+    if (CacheEventEntity.PROCESS_DEFINITION.equals(type)) {
+      deploymentCache.removeProcessDefinition(definitionId);
+
+    } else if (CacheEventEntity.CASE_DEFINITION.equals(type)) {
+      deploymentCache.removeCaseDefinition(definitionId);
+
+    } else if (CacheEventEntity.DECISION_DEFINITION.equals(type)) {
+      deploymentCache.removeDecisionDefinition(definitionId);
+
+    } else if (CacheEventEntity.DECISION_REQUIREMENTS_DEFINITION.equals(type)) {
+      deploymentCache.removeDecisionRequirementsDefinition(definitionId);
+    }
+  }
+
+  protected long getCleanupIntervalInMillis() {
+    return Math.max(pollIntervalInMillis, retentionInMillis / 10);
+  }
+
+  public long getPollIntervalInMillis() {
+    return pollIntervalInMillis;
+  }
+
+  public void setPollIntervalInMillis(long pollIntervalInMillis) {
+    this.pollIntervalInMillis = pollIntervalInMillis;
+  }
+
+  public long getRetentionInMillis() {
+    return retentionInMillis;
+  }
+
+  public void setRetentionInMillis(long retentionInMillis) {
+    this.retentionInMillis = retentionInMillis;
+  }
+
+}
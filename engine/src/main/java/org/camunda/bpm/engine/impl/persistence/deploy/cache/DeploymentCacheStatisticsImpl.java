@@ -0,0 +1,76 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.deploy.cache;
+
+import org.camunda.bpm.engine.management.DeploymentCacheStatistics;
+
+/**
+ * Snapshot of the statistics of a {@link StatisticsCache}.
+ */
+public class DeploymentCacheStatisticsImpl implements DeploymentCacheStatistics {
+
+  protected String cacheName;
+  protected int size;
+  protected long weightedSize;
+  protected long hitCount;
+  protected long missCount;
+  protected long evictionCount;
+
+  public DeploymentCacheStatisticsImpl(String cacheName, StatisticsCache<?, ?> cache) {
+    this.cacheName = cacheName;
+    this.size = cache.size();
+    this.weightedSize = cache.getWeightedSize();
+    this.hitCount = cache.getHitCount();
+    this.missCount = cache.getMissCount();
+    this.evictionCount = cache.getEvictionCount();
+  }
+
+  public String getCacheName() {
+    return cacheName;
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  public long getWeightedSize() {
+    return weightedSize;
+  }
+
+  public long getHitCount() {
+    return hitCount;
+  }
+
+  public long getMissCount() {
+    return missCount;
+  }
+
+  public long getEvictionCount() {
+    return evictionCount;
+  }
+
+  @Override
+  public String toString() {
+    return "DeploymentCacheStatisticsImpl [cacheName=" + cacheName
+        + ", size=" + size
+        + ", weightedSize=" + weightedSize
+        + ", hitCount=" + hitCount
+        + ", missCount=" + missCount
+        + ", evictionCount=" + evictionCount + "]";
+  }
+
+}
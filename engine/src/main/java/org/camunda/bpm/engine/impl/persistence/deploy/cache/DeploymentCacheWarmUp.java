@@ -0,0 +1,157 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.deploy.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.cmmn.entity.repository.CaseDefinitionQueryImpl;
+import org.camunda.bpm.engine.impl.db.EnginePersistenceLogger;
+import org.camunda.bpm.engine.impl.dmn.entity.repository.DecisionDefinitionQueryImpl;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
+import org.camunda.bpm.engine.impl.ProcessDefinitionQueryImpl;
+import org.camunda.bpm.engine.repository.CaseDefinition;
+import org.camunda.bpm.engine.repository.DecisionDefinition;
+import org.camunda.bpm.engine.repository.ProcessDefinition;
+
+/**
+ * <p>Parses the latest version of every process, case and decision definition into
+ * the {@link DeploymentCache} when the process engine starts, so that the first
+ * request using a definition does not have to parse it.</p>
+ *
+ * <p>The definitions are parsed in parallel on a {@link ForkJoinPool}, each one in its
+ * own command. At most as many definitions of a kind are parsed as fit into the cache.
+ * Definitions that cannot be parsed are logged and skipped.</p>
+ */
+public class DeploymentCacheWarmUp {
+
+  protected static final EnginePersistenceLogger LOG = ProcessEngineLogger.PERSISTENCE_LOGGER;
+
+  protected ProcessEngineConfigurationImpl processEngineConfiguration;
+  protected CommandExecutor commandExecutor;
+  protected int parallelism;
+
+  public DeploymentCacheWarmUp(ProcessEngineConfigurationImpl processEngineConfiguration, int parallelism) {
+    this.processEngineConfiguration = processEngineConfiguration;
+    this.commandExecutor = processEngineConfiguration.getCommandExecutorTxRequired();
+    this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+  }
+
+  public void warmUp() {
+    long start = System.currentTimeMillis();
+
+    List<Callable<Void>> tasks = commandExecutor.execute(new Command<List<Callable<Void>>>() {
+      public List<Callable<Void>> execute(CommandContext commandContext) {
+        return createWarmUpTasks();
+      }
+    });
+
+    final AtomicInteger warmedUp = new AtomicInteger();
+    List<Callable<Void>> countingTasks = new ArrayList<Callable<Void>>();
+    for (final Callable<Void> task : tasks) {
+      countingTasks.add(new Callable<Void>() {
+        public Void call() throws Exception {
+          task.call();
+          warmedUp.incrementAndGet();
+          return null;
+        }
+      });
+    }
+
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      pool.invokeAll(countingTasks);
+    } finally {
+      pool.shutdown();
+    }
+
+    LOG.deploymentCacheWarmedUp(warmedUp.get(), System.currentTimeMillis() - start);
+  }
+
+  protected List<Callable<Void>> createWarmUpTasks() {
+    int maxResults = processEngineConfiguration.getCacheCapacity();
+    List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+
+    List<ProcessDefinition> processDefinitions = new ProcessDefinitionQueryImpl()
+        .latestVersion()
+        .listPage(0, maxResults);
+    for (final ProcessDefinition processDefinition : processDefinitions) {
+      tasks.add(createWarmUpTask(processDefinition.getId(), new Command<Void>() {
+        public Void execute(CommandContext commandContext) {
+          getDeploymentCache(commandContext).findDeployedProcessDefinitionById(processDefinition.getId());
+          return null;
+        }
+      }));
+    }
+
+    if (processEngineConfiguration.isCmmnEnabled()) {
+      List<CaseDefinition> caseDefinitions = new CaseDefinitionQueryImpl()
+          .latestVersion()
+          .listPage(0, maxResults);
+      for (final CaseDefinition caseDefinition : caseDefinitions) {
+        tasks.add(createWarmUpTask(caseDefinition.getId(), new Command<Void>() {
+          public Void execute(CommandContext commandContext) {
+            getDeploymentCache(commandContext).findDeployedCaseDefinitionById(caseDefinition.getId());
+            return null;
+          }
+        }));
+      }
+    }
+
+    if (processEngineConfiguration.isDmnEnabled()) {
+      List<DecisionDefinition> decisionDefinitions = new DecisionDefinitionQueryImpl()
+          .latestVersion()
+          .listPage(0, maxResults);
+      for (final DecisionDefinition decisionDefinition : decisionDefinitions) {
+        tasks.add(createWarmUpTask(decisionDefinition.getId(), new Command<Void>() {
+          public Void execute(CommandContext commandContext) {
+            getDeploymentCache(commandContext).findDeployedDecisionDefinitionById(decisionDefinition.getId());
+            return null;
+          }
+        }));
+      }
+    }
+
+    return tasks;
+  }
+
+  protected Callable<Void> createWarmUpTask(final String definitionId, final Command<Void> command) {
+    return new Callable<Void>() {
+      public Void call() {
+        try {
+          commandExecutor.execute(command);
+        } catch (Exception e) {
+          LOG.deploymentCacheWarmUpFailure(definitionId, e);
+          throw e;
+        }
+        return null;
+      }
+    };
+  }
+
+  protected DeploymentCache getDeploymentCache(CommandContext commandContext) {
+    return commandContext.getProcessEngineConfiguration().getDeploymentCache();
+  }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.deploy.cache;
+
+import java.util.Arrays;
+
+/**
+ * <p>Estimates how often a key was accessed recently, using a count-min sketch
+ * with four rows of 4-bit counters.</p>
+ *
+ * <p>Each row has four counters per expected key. Once the number of recorded accesses
+ * reaches ten times the number of expected keys, all counters are halved, so that keys which were popular a long time ago lose
+ * their weight.</p>
+ *
+ * <p>This class is not thread-safe.</p>
+ */
+public class FrequencySketch {
+
+  protected static final int DEPTH = 4;
+  protected static final int MAX_COUNT = 15;
+  protected static final long[] SEEDS = {
+    0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+  };
+
+  protected final byte[][] table;
+  protected final int mask;
+  protected final int sampleSize;
+  protected int additions;
+
+  /**
+   * @param expectedNumberOfKeys the number of keys the sketch should distinguish
+   */
+  public FrequencySketch(int expectedNumberOfKeys) {
+    int keys = Math.min(Math.max(16, expectedNumberOfKeys), 1 << 20);
+    int width = Integer.highestOneBit(keys - 1) << 3;
+
+    table = new byte[DEPTH][width];
+    mask = width - 1;
+    sampleSize = keys * 10;
+  }
+
+  public void increment(Object key) {
+    int hash = spread(key.hashCode());
+    boolean added = false;
+
+    for (int i = 0; i < DEPTH; i++) {
+      int index = indexOf(hash, i);
+      if (table[i][index] < MAX_COUNT) {
+        table[i][index]++;
+        added = true;
+      }
+    }
+
+    if (added && ++additions >= sampleSize) {
+      reset();
+    }
+  }
+
+  /**
+   * @return the estimated number of recent accesses of the key, at most 15
+   */
+  public int frequency(Object key) {
+    int hash = spread(key.hashCode());
+    int frequency = MAX_COUNT;
+
+    for (int i = 0; i < DEPTH; i++) {
+      frequency = Math.min(frequency, table[i][indexOf(hash, i)]);
+    }
+    return frequency;
+  }
+
+  public void clear() {
+    for (byte[] row : table) {
+      Arrays.fill(row, (byte) 0);
+    }
+    additions = 0;
+  }
+
+  protected void reset() {
+    for (byte[] row : table) {
+      for (int j = 0; j < row.length; j++) {
+        row[j] = (byte) (row[j] >>> 1);
+      }
+    }
+    additions /= 2;
+  }
+
+  protected int indexOf(int hash, int row) {
+    long value = (hash + SEEDS[row]) * SEEDS[row];
+    value += value >>> 32;
+    return ((int) value) & mask;
+  }
+
+  protected int spread(int hash) {
+    hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+    hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+    return (hash >>> 16) ^ hash;
+  }
+
+}
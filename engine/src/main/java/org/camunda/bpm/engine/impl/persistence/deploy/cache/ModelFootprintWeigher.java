@@ -0,0 +1,93 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.deploy.cache;
+
+import java.util.List;
+
+import org.camunda.bpm.dmn.engine.DmnDecisionLogic;
+import org.camunda.bpm.dmn.engine.impl.DmnDecisionImpl;
+import org.camunda.bpm.dmn.engine.impl.DmnDecisionTableImpl;
+import org.camunda.bpm.engine.impl.core.model.CoreActivity;
+import org.camunda.bpm.model.xml.ModelInstance;
+import org.camunda.bpm.model.xml.instance.DomDocument;
+import org.camunda.bpm.model.xml.instance.DomElement;
+
+/**
+ * <p>Weighs deployment cache entries by the size of the parsed model:</p>
+ *
+ * <ul>
+ *   <li>process and case definitions by the number of activities they contain,</li>
+ *   <li>model instances by the number of XML elements of the model,</li>
+ *   <li>decision tables by the number of inputs, outputs and rules.</li>
+ * </ul>
+ *
+ * <p>All other values weigh 1.</p>
+ */
+public class ModelFootprintWeigher implements CacheEntryWeigher {
+
+  @Override
+  public int weigh(Object value) {
+    long weight = 1;
+
+    if (value instanceof CoreActivity) {
+      weight = countActivities((CoreActivity) value);
+
+    } else if (value instanceof ModelInstance) {
+      DomDocument document = ((ModelInstance) value).getDocument();
+      weight = countElements(document.getRootElement());
+
+    } else if (value instanceof DmnDecisionImpl) {
+      weight = weighDecision((DmnDecisionImpl) value);
+    }
+
+    return (int) Math.max(1, Math.min(weight, Integer.MAX_VALUE));
+  }
+
+  protected long countActivities(CoreActivity scope) {
+    long count = 1;
+    List<? extends CoreActivity> activities = scope.getActivities();
+    for (CoreActivity activity : activities) {
+      count += countActivities(activity);
+    }
+    return count;
+  }
+
+  protected long countElements(DomElement element) {
+    if (element == null) {
+      return 1;
+    }
+
+    long count = 1;
+    for (DomElement childElement : element.getChildElements()) {
+      count += countElements(childElement);
+    }
+    return count;
+  }
+
+  protected long weighDecision(DmnDecisionImpl decision) {
+    DmnDecisionLogic decisionLogic = decision.getDecisionLogic();
+    if (decisionLogic instanceof DmnDecisionTableImpl) {
+      DmnDecisionTableImpl decisionTable = (DmnDecisionTableImpl) decisionLogic;
+      return 1 + decisionTable.getInputs().size()
+          + decisionTable.getOutputs().size()
+          + decisionTable.getRules().size();
+    } else {
+      return 1;
+    }
+  }
+
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.deploy.cache;
+
+import org.camunda.commons.utils.cache.Cache;
+
+/**
+ * <p>A {@link Cache} that records how it is used. The {@link DeploymentCache} reports
+ * these numbers for every deployment cache that implements this interface.</p>
+ */
+public interface StatisticsCache<K, V> extends Cache<K, V> {
+
+  /**
+   * @return the number of lookups that found a cached value
+   */
+  long getHitCount();
+
+  /**
+   * @return the number of lookups that did not find a cached value
+   */
+  long getMissCount();
+
+  /**
+   * @return the number of entries that were removed to respect the capacity of the cache
+   */
+  long getEvictionCount();
+
+  /**
+   * @return the sum of the weights of all cached entries
+   */
+  long getWeightedSize();
+
+}
@@ -0,0 +1,415 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.deploy.cache;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <p>Weight bounded cache with a W-TinyLFU eviction policy.</p>
+ *
+ * <p>New entries are put into a small LRU window (1% of the capacity). Entries that
+ * leave the window compete with the least recently used entry of the main area: the
+ * entry that was accessed more often recently, as estimated by a {@link FrequencySketch},
+ * stays in the cache. The main area is split into a probation and a protected segment
+ * (80% of the main area). Entries are promoted to the protected segment when they are
+ * accessed on probation.</p>
+ *
+ * <p>This way, a scan over many entries that are used only once does not evict the
+ * entries that are used frequently.</p>
+ *
+ * <p>The most recently added entry is never evicted, so that a value can always be
+ * read right after it was put into the cache.</p>
+ *
+ * <p>Reads do not block: the entries are looked up in a concurrent map and the
+ * accesses are recorded in a buffer. The buffer is applied to the frequency sketch and
+ * the segments under a lock, by the reader that fills it or by the next write. If the
+ * buffer is full because the lock is busy, further accesses are not recorded, which only
+ * makes the eviction policy less precise. Writes are serialized by the lock, but the
+ * weight of a value is calculated before the lock is taken.</p>
+ */
+public class TinyLfuCache<K, V> implements StatisticsCache<K, V> {
+
+  protected static final int WINDOW_PERCENTAGE = 1;
+  protected static final int PROTECTED_PERCENTAGE = 80;
+
+  protected static final int READ_BUFFER_DRAIN_THRESHOLD = 32;
+  protected static final int READ_BUFFER_MAXIMUM_SIZE = 256;
+
+  protected final long maximumWeight;
+  protected final long windowMaximumWeight;
+  protected final long protectedMaximumWeight;
+  protected final CacheEntryWeigher weigher;
+  protected final FrequencySketch sketch;
+
+  protected final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<K, Node<K, V>>();
+  protected final ReentrantLock evictionLock = new ReentrantLock();
+
+  // accessed keys, not yet applied to the sketch and the segments
+  protected final Queue<K> readBuffer = new ConcurrentLinkedQueue<K>();
+  protected final AtomicInteger readBufferSize = new AtomicInteger();
+
+  protected final LinkedHashMap<K, Node<K, V>> window = new LinkedHashMap<K, Node<K, V>>();
+  protected final LinkedHashMap<K, Node<K, V>> probation = new LinkedHashMap<K, Node<K, V>>();
+  protected final LinkedHashMap<K, Node<K, V>> protectedSegment = new LinkedHashMap<K, Node<K, V>>();
+
+  protected long windowWeight;
+  protected long probationWeight;
+  protected long protectedWeight;
+
+  protected final AtomicLong hitCount = new AtomicLong();
+  protected final AtomicLong missCount = new AtomicLong();
+  protected final AtomicLong evictionCount = new AtomicLong();
+
+  /**
+   * @param maximumWeight the maximum sum of the weights of all entries
+   * @param expectedNumberOfEntries the number of entries used to size the frequency sketch
+   * @param weigher calculates the weight of a value
+   */
+  public TinyLfuCache(long maximumWeight, int expectedNumberOfEntries, CacheEntryWeigher weigher) {
+    if (maximumWeight <= 0) {
+      throw new IllegalArgumentException("Maximum weight must be greater than 0");
+    }
+
+    this.maximumWeight = maximumWeight;
+    this.windowMaximumWeight = Math.max(1, maximumWeight * WINDOW_PERCENTAGE / 100);
+    this.protectedMaximumWeight = (maximumWeight - windowMaximumWeight) * PROTECTED_PERCENTAGE / 100;
+    this.weigher = weigher;
+    this.sketch = new FrequencySketch(expectedNumberOfEntries);
+  }
+
+  @Override
+  public V get(K key) {
+    if (key == null) {
+      throw new NullPointerException();
+    }
+
+    Node<K, V> node = data.get(key);
+    if (node == null) {
+      missCount.incrementAndGet();
+    } else {
+      hitCount.incrementAndGet();
+    }
+
+    recordRead(key);
+    return node != null ? node.value : null;
+  }
+
+  @Override
+  public void put(K key, V value) {
+    if (key == null || value == null) {
+      throw new NullPointerException();
+    }
+
+    // the weigher may be expensive, e.g. walk a model, so it is not called under the lock
+    int weight = Math.max(1, weigher.weigh(value));
+
+    evictionLock.lock();
+    try {
+      drainReadBuffer();
+
+      sketch.increment(key);
+      Node<K, V> node = data.get(key);
+
+      if (node != null) {
+        node.value = value;
+        addWeight(node.segment, weight - node.weight);
+        node.weight = weight;
+        onAccess(node);
+      } else {
+        node = new Node<K, V>(key, value, weight);
+        data.put(key, node);
+        addToSegment(node, Segment.WINDOW);
+      }
+
+      evictEntries(node);
+
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public void remove(K key) {
+    evictionLock.lock();
+    try {
+      Node<K, V> node = data.remove(key);
+      if (node != null) {
+        removeFromSegment(node);
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public void clear() {
+    evictionLock.lock();
+    try {
+      data.clear();
+      window.clear();
+      probation.clear();
+      protectedSegment.clear();
+      windowWeight = 0;
+      probationWeight = 0;
+      protectedWeight = 0;
+      sketch.clear();
+      readBuffer.clear();
+      readBufferSize.set(0);
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public Set<K> keySet() {
+    return new HashSet<K>(data.keySet());
+  }
+
+  @Override
+  public int size() {
+    return data.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return data.isEmpty();
+  }
+
+  @Override
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  @Override
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  @Override
+  public long getEvictionCount() {
+    return evictionCount.get();
+  }
+
+  @Override
+  public long getWeightedSize() {
+    evictionLock.lock();
+    try {
+      return getWeightedSizeInternal();
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  public long getMaximumWeight() {
+    return maximumWeight;
+  }
+
+  protected long getWeightedSizeInternal() {
+    return windowWeight + probationWeight + protectedWeight;
+  }
+
+  protected void recordRead(K key) {
+    if (readBufferSize.get() >= READ_BUFFER_MAXIMUM_SIZE) {
+      // drop the access rather than wait for the lock
+      tryDrainReadBuffer();
+      return;
+    }
+
+    readBuffer.offer(key);
+    if (readBufferSize.incrementAndGet() >= READ_BUFFER_DRAIN_THRESHOLD) {
+      tryDrainReadBuffer();
+    }
+  }
+
+  protected void tryDrainReadBuffer() {
+    if (evictionLock.tryLock()) {
+      try {
+        drainReadBuffer();
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Applies the recorded reads to the sketch and the segments. Must be called under the lock.
+   */
+  protected void drainReadBuffer() {
+    K key;
+    while ((key = readBuffer.poll()) != null) {
+      readBufferSize.decrementAndGet();
+      sketch.increment(key);
+
+      // the entry may have been removed or replaced since it was read
+      Node<K, V> node = data.get(key);
+      if (node != null) {
+        onAccess(node);
+      }
+    }
+  }
+
+  protected void onAccess(Node<K, V> node) {
+    if (node.segment == Segment.PROBATION) {
+      removeFromSegment(node);
+      addToSegment(node, Segment.PROTECTED);
+      demoteProtectedEntries();
+
+    } else {
+      // move the entry to the most recently used position of its segment
+      LinkedHashMap<K, Node<K, V>> segment = getSegment(node.segment);
+      segment.remove(node.key);
+      segment.put(node.key, node);
+    }
+  }
+
+  protected void demoteProtectedEntries() {
+    while (protectedWeight > protectedMaximumWeight && protectedSegment.size() > 1) {
+      Node<K, V> eldest = eldest(protectedSegment, null);
+      removeFromSegment(eldest);
+      addToSegment(eldest, Segment.PROBATION);
+    }
+  }
+
+  /**
+   * Moves entries that overflow the window to the main area and lets them compete
+   * for admission. Never evicts the given entry.
+   */
+  protected void evictEntries(Node<K, V> retained) {
+    while (windowWeight > windowMaximumWeight && window.size() > 1) {
+      Node<K, V> candidate = eldest(window, retained);
+      removeFromSegment(candidate);
+      addToSegment(candidate, Segment.PROBATION);
+      admit(candidate, retained);
+    }
+
+    while (getWeightedSizeInternal() > maximumWeight) {
+      Node<K, V> victim = eldest(probation, retained);
+      if (victim == null) {
+        victim = eldest(protectedSegment, retained);
+      }
+      if (victim == null) {
+        victim = eldest(window, retained);
+      }
+      if (victim == null) {
+        // only the retained entry is left
+        break;
+      }
+      evict(victim);
+    }
+  }
+
+  protected void admit(Node<K, V> candidate, Node<K, V> retained) {
+    while (getWeightedSizeInternal() > maximumWeight) {
+      Node<K, V> victim = eldestExcept(probation, candidate, retained);
+      if (victim == null) {
+        victim = eldest(protectedSegment, retained);
+      }
+
+      if (victim == null || sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+        evict(candidate);
+        return;
+      }
+
+      evict(victim);
+    }
+  }
+
+  protected void evict(Node<K, V> node) {
+    data.remove(node.key);
+    removeFromSegment(node);
+    evictionCount.incrementAndGet();
+  }
+
+  protected Node<K, V> eldest(LinkedHashMap<K, Node<K, V>> segment, Node<K, V> excluded) {
+    return eldestExcept(segment, excluded, null);
+  }
+
+  protected Node<K, V> eldestExcept(LinkedHashMap<K, Node<K, V>> segment, Node<K, V> first, Node<K, V> second) {
+    Iterator<Node<K, V>> nodes = segment.values().iterator();
+    while (nodes.hasNext()) {
+      Node<K, V> node = nodes.next();
+      if (node != first && node != second) {
+        return node;
+      }
+    }
+    return null;
+  }
+
+  protected void addToSegment(Node<K, V> node, Segment segment) {
+    node.segment = segment;
+    getSegment(segment).put(node.key, node);
+    addWeight(segment, node.weight);
+  }
+
+  protected void removeFromSegment(Node<K, V> node) {
+    getSegment(node.segment).remove(node.key);
+    addWeight(node.segment, -node.weight);
+  }
+
+  protected void addWeight(Segment segment, long weight) {
+    switch (segment) {
+      case WINDOW:
+        windowWeight += weight;
+        break;
+      case PROBATION:
+        probationWeight += weight;
+        break;
+      default:
+        protectedWeight += weight;
+    }
+  }
+
+  protected LinkedHashMap<K, Node<K, V>> getSegment(Segment segment) {
+    switch (segment) {
+      case WINDOW:
+        return window;
+      case PROBATION:
+        return probation;
+      default:
+        return protectedSegment;
+    }
+  }
+
+  protected enum Segment {
+    WINDOW, PROBATION, PROTECTED
+  }
+
+  protected static class Node<K, V> {
+
+    protected final K key;
+    protected volatile V value;
+    protected int weight;
+    protected Segment segment;
+
+    public Node(K key, V value, int weight) {
+      this.key = key;
+      this.value = value;
+      this.weight = weight;
+    }
+
+  }
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.deploy.cache;
+
+import org.camunda.commons.utils.cache.Cache;
+
+/**
+ * <p>Builds {@link TinyLfuCache}s for the deployment caches, see {@link DeploymentCache}.
+ * Compared to the {@link DefaultCacheFactory}, frequently used definitions are not evicted
+ * by a scan over many definitions that are used only once.</p>
+ *
+ * <p>Entries are weighed by a {@link CacheEntryWeigher}, by default by the size of the
+ * parsed model (see {@link ModelFootprintWeigher}). The maximum weight of a cache is the
+ * configured cache capacity multiplied by the {@link #setAverageEntryWeight(int) average entry weight},
+ * i.e. the capacity still denotes the number of average sized models a cache can hold.</p>
+ */
+public class TinyLfuCacheFactory implements CacheFactory {
+
+  public static final int DEFAULT_AVERAGE_ENTRY_WEIGHT = 50;
+
+  protected CacheEntryWeigher weigher = new ModelFootprintWeigher();
+  protected int averageEntryWeight = DEFAULT_AVERAGE_ENTRY_WEIGHT;
+
+  @Override
+  public <T> Cache<String, T> createCache(int maxNumberOfElementsInCache) {
+    long maximumWeight = (long) maxNumberOfElementsInCache * averageEntryWeight;
+    return new TinyLfuCache<String, T>(maximumWeight, maxNumberOfElementsInCache, weigher);
+  }
+
+  public CacheEntryWeigher getWeigher() {
+    return weigher;
+  }
+
+  public void setWeigher(CacheEntryWeigher weigher) {
+    this.weigher = weigher;
+  }
+
+  public int getAverageEntryWeight() {
+    return averageEntryWeight;
+  }
+
+  public void setAverageEntryWeight(int averageEntryWeight) {
+    this.averageEntryWeight = averageEntryWeight;
+  }
+
+}
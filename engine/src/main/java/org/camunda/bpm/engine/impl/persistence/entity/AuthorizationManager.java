@@ -37,6 +37,7 @@ import static org.camunda.bpm.engine.authorization.Resources.PROCESS_INSTANCE;
 import static org.camunda.bpm.engine.authorization.Resources.TASK;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -83,6 +84,7 @@ import org.camunda.bpm.engine.impl.batch.BatchQueryImpl;
 import org.camunda.bpm.engine.impl.batch.BatchStatisticsQueryImpl;
 import org.camunda.bpm.engine.impl.batch.history.HistoricBatchQueryImpl;
 import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.db.AuthorizationCache;
 import org.camunda.bpm.engine.impl.db.AuthorizationCheck;
 import org.camunda.bpm.engine.impl.db.CompositePermissionCheck;
 import org.camunda.bpm.engine.impl.db.DbEntity;
@@ -268,7 +270,7 @@ public class AuthorizationManager extends AbstractManager {
     boolean isRevokeAuthorizationCheckEnabled = isRevokeAuthCheckEnabled(userId, groupIds);
     CompositePermissionCheck compositePermissionCheck = createCompositePermissionCheck(permissionCheck);
     AuthorizationCheck authCheck = new AuthorizationCheck(userId, filteredGroupIds, compositePermissionCheck, isRevokeAuthorizationCheckEnabled);
-    return getDbEntityManager().selectBoolean("isUserAuthorizedForResource", authCheck);
+    return selectAuthorized(authCheck);
   }
 
   protected boolean isRevokeAuthCheckEnabled(String userId, List<String> groupIds) {
@@ -286,10 +288,7 @@ public class AuthorizationManager extends AbstractManager {
         isRevokeAuthCheckEnabled = false;
       }
       else {
-        final Map<String, Object> params = new HashMap<String, Object>();
-        params.put("userId", userId);
-        params.put("authGroupIds", filterAuthenticatedGroupIds(groupIds));
-        isRevokeAuthCheckEnabled = getDbEntityManager().selectBoolean("selectRevokeAuthorization", params);
+        isRevokeAuthCheckEnabled = selectRevokeAuthorization(userId, filterAuthenticatedGroupIds(groupIds));
       }
       this.isRevokeAuthCheckUsed = isRevokeAuthCheckEnabled;
     }
@@ -297,6 +296,102 @@ public class AuthorizationManager extends AbstractManager {
     return isRevokeAuthCheckEnabled;
   }
 
+  protected boolean selectRevokeAuthorization(String userId, List<String> filteredGroupIds) {
+    AuthorizationCache authorizationCache = getAuthorizationCache();
+    List<Object> cacheKey = null;
+
+    if (authorizationCache != null) {
+      cacheKey = Arrays.<Object>asList("revokeAuthorization", userId, sorted(filteredGroupIds));
+      Boolean cachedResult = authorizationCache.get(cacheKey);
+      if (cachedResult != null) {
+        return cachedResult;
+      }
+    }
+
+    long generation = authorizationCache != null ? authorizationCache.getGeneration() : 0;
+    final Map<String, Object> params = new HashMap<String, Object>();
+    params.put("userId", userId);
+    params.put("authGroupIds", filteredGroupIds);
+    boolean isRevokeAuthorizationUsed = getDbEntityManager().selectBoolean("selectRevokeAuthorization", params);
+
+    if (authorizationCache != null) {
+      authorizationCache.put(generation, cacheKey, isRevokeAuthorizationUsed);
+    }
+    return isRevokeAuthorizationUsed;
+  }
+
+  protected boolean selectAuthorized(AuthorizationCheck authCheck) {
+    AuthorizationCache authorizationCache = getAuthorizationCache();
+    List<Object> cacheKey = null;
+
+    if (authorizationCache != null) {
+      cacheKey = createCacheKey(authCheck);
+      if (cacheKey != null) {
+        Boolean cachedResult = authorizationCache.get(cacheKey);
+        if (cachedResult != null) {
+          return cachedResult;
+        }
+      }
+    }
+
+    long generation = authorizationCache != null ? authorizationCache.getGeneration() : 0;
+    boolean isAuthorized = getDbEntityManager().selectBoolean("isUserAuthorizedForResource", authCheck);
+
+    if (cacheKey != null) {
+      authorizationCache.put(generation, cacheKey, isAuthorized);
+    }
+    return isAuthorized;
+  }
+
+  /**
+   * @return the key of the result of the given check in the authorization cache or null if the
+   * result cannot be cached because it depends on the columns of a query
+   */
+  protected List<Object> createCacheKey(AuthorizationCheck authCheck) {
+    List<Object> permissionChecksKey = createCacheKey(authCheck.getPermissionChecks());
+    if (permissionChecksKey == null) {
+      return null;
+    }
+    return Arrays.<Object>asList("authorized", authCheck.getAuthUserId(), sorted(authCheck.getAuthGroupIds()),
+        authCheck.isRevokeAuthorizationCheckEnabled(), permissionChecksKey);
+  }
+
+  protected List<Object> createCacheKey(CompositePermissionCheck compositePermissionCheck) {
+    List<Object> key = new ArrayList<Object>();
+    key.add(compositePermissionCheck.isDisjunctive());
+
+    for (PermissionCheck permissionCheck : compositePermissionCheck.getAtomicChecks()) {
+      if (permissionCheck.getResourceIdQueryParam() != null) {
+        return null;
+      }
+      key.add(Arrays.<Object>asList(permissionCheck.getResourceType(), permissionCheck.getPerms(),
+          permissionCheck.getResourceId(), permissionCheck.getAuthorizationNotFoundReturnValue()));
+    }
+
+    for (CompositePermissionCheck compositeCheck : compositePermissionCheck.getCompositeChecks()) {
+      List<Object> compositeKey = createCacheKey(compositeCheck);
+      if (compositeKey == null) {
+        return null;
+      }
+      key.add(compositeKey);
+    }
+
+    return key;
+  }
+
+  protected List<String> sorted(List<String> ids) {
+    if (ids == null) {
+      return null;
+    }
+    List<String> sortedIds = new ArrayList<String>(ids);
+    Collections.sort(sortedIds);
+    return sortedIds;
+  }
+
+  protected AuthorizationCache getAuthorizationCache() {
+    return Context.getProcessEngineConfiguration().getAuthorizationCache();
+  }
+
   protected CompositePermissionCheck createCompositePermissionCheck(PermissionCheck permissionCheck) {
     CompositePermissionCheck compositePermissionCheck = new CompositePermissionCheck();
     compositePermissionCheck.setAtomicChecks(Arrays.asList(permissionCheck));
@@ -313,7 +408,7 @@ public class AuthorizationManager extends AbstractManager {
 
     boolean isRevokeAuthorizationCheckEnabled = isRevokeAuthCheckEnabled(userId, groupIds);
     AuthorizationCheck authCheck = new AuthorizationCheck(userId, filteredGroupIds, compositePermissionCheck, isRevokeAuthorizationCheckEnabled);
-    return getDbEntityManager().selectBoolean("isUserAuthorizedForResource", authCheck);
+    return selectAuthorized(authCheck);
   }
 
   public boolean isAuthorized(CompositePermissionCheck compositePermissionCheck) {
@@ -351,6 +446,7 @@ public class AuthorizationManager extends AbstractManager {
 
     AuthorizationCheck authCheck = query.getAuthCheck();
     authCheck.getPermissionChecks().clear();
+    authCheck.setAuthorizedResourceIds(null);
 
     if(isAuthCheckExecuted()) {
       Authentication currentAuthentication = getCurrentAuthentication();
@@ -422,6 +518,67 @@ public class AuthorizationManager extends AbstractManager {
     }
   }
 
+  /**
+   * Resolves the resources the user or its groups are granted the single permission check of the
+   * query on if the authorization cache is enabled. A grant on all resources disables the check,
+   * since it would not filter any row. Otherwise, if <code>restrictToResourceIds</code> is true and
+   * there are not more resources than the in list threshold, the query is restricted to these
+   * resource ids instead of joining the authorizations.
+   *
+   * Must only be used for queries whose mapping performs no further checks if the check is
+   * disabled and, for <code>restrictToResourceIds</code>, which use the <code>authCheckJoin</code>.
+   */
+  protected void resolveAuthorizedResources(AbstractQuery<?, ?> query, boolean restrictToResourceIds) {
+    AuthorizationCache authorizationCache = getAuthorizationCache();
+    AuthorizationCheck authCheck = query.getAuthCheck();
+
+    if (authorizationCache == null
+        || !authCheck.getShouldPerformAuthorizatioCheck()
+        || authCheck.getAuthUserId() == null
+        || authCheck.isRevokeAuthorizationCheckEnabled()) {
+      return;
+    }
+
+    CompositePermissionCheck permissionChecks = authCheck.getPermissionChecks();
+    if (permissionChecks.getAtomicChecks().size() != 1 || !permissionChecks.getCompositeChecks().isEmpty()) {
+      return;
+    }
+
+    List<String> resourceIds = selectAuthorizedResourceIds(authorizationCache, authCheck);
+
+    if (resourceIds.contains(Authorization.ANY)) {
+      authCheck.setAuthorizationCheckEnabled(false);
+    }
+    else if (restrictToResourceIds
+        && resourceIds.size() <= Context.getProcessEngineConfiguration().getAuthorizationCacheInListThreshold()) {
+      // MyBatis evaluates methods of the list reflectively, which fails for the
+      // unmodifiable cache entry on Java 16+ since its class is not accessible
+      authCheck.setAuthorizedResourceIds(new ArrayList<String>(resourceIds));
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  protected List<String> selectAuthorizedResourceIds(AuthorizationCache authorizationCache, AuthorizationCheck authCheck) {
+    PermissionCheck permissionCheck = authCheck.getPermissionChecks().getAtomicChecks().get(0);
+    List<Object> cacheKey = Arrays.<Object>asList("authorizedResourceIds", authCheck.getAuthUserId(),
+        sorted(authCheck.getAuthGroupIds()), permissionCheck.getResourceType(), permissionCheck.getPerms());
+
+    List<String> resourceIds = authorizationCache.get(cacheKey);
+    if (resourceIds == null) {
+      long generation = authorizationCache.getGeneration();
+
+      final Map<String, Object> params = new HashMap<String, Object>();
+      params.put("userId", authCheck.getAuthUserId());
+      params.put("authGroupIds", authCheck.getAuthGroupIds());
+      params.put("resourceType", permissionCheck.getResourceType());
+      params.put("perms", permissionCheck.getPerms());
+      resourceIds = Collections.unmodifiableList((List<String>) getDbEntityManager().selectList("selectAuthorizedResourceIds", params));
+
+      authorizationCache.put(generation, cacheKey, resourceIds);
+    }
+    return resourceIds;
+  }
+
   // delete authorizations //////////////////////////////////////////////////
 
   public void deleteAuthorizationsByResourceId(Resource resource, String resourceId) {
@@ -527,6 +684,7 @@ public class AuthorizationManager extends AbstractManager {
 
   public void configureDeploymentQuery(DeploymentQueryImpl query) {
     configureQuery(query, DEPLOYMENT);
+    resolveAuthorizedResources(query, true);
   }
 
   // process definition query ////////////////////////////////
@@ -554,6 +712,9 @@ public class AuthorizationManager extends AbstractManager {
       }
 
     }
+    else {
+      resolveAuthorizedResources(query, false);
+    }
 
   }
 
@@ -650,6 +811,7 @@ public class AuthorizationManager extends AbstractManager {
 
   public void configureJobDefinitionQuery(JobDefinitionQueryImpl query) {
     configureQuery(query, PROCESS_DEFINITION, "RES.PROC_DEF_KEY_");
+    resolveAuthorizedResources(query, false);
   }
 
   // job query //////////////////////////////////////////////////////////
@@ -670,18 +832,21 @@ public class AuthorizationManager extends AbstractManager {
 
   public void configureHistoricProcessInstanceQuery(HistoricProcessInstanceQueryImpl query) {
     configureQuery(query, PROCESS_DEFINITION, "SELF.PROC_DEF_KEY_", READ_HISTORY);
+    resolveAuthorizedResources(query, false);
   }
 
   // historic activity instance query /////////////////////////////////
 
   public void configureHistoricActivityInstanceQuery(HistoricActivityInstanceQueryImpl query) {
     configureQuery(query, PROCESS_DEFINITION, "RES.PROC_DEF_KEY_", READ_HISTORY);
+    resolveAuthorizedResources(query, false);
   }
 
   // historic task instance query ////////////////////////////////////
 
   public void configureHistoricTaskInstanceQuery(HistoricTaskInstanceQueryImpl query) {
     configureQuery(query, PROCESS_DEFINITION, "RES.PROC_DEF_KEY_", READ_HISTORY);
+    resolveAuthorizedResources(query, false);
   }
 
   // historic variable instance query ////////////////////////////////
@@ -692,40 +857,47 @@ public class AuthorizationManager extends AbstractManager {
       readPermission = READ_HISTORY_VARIABLE;
     }
     configureQuery(query, PROCESS_DEFINITION, "RES.PROC_DEF_KEY_",  readPermission);
+    resolveAuthorizedResources(query, false);
   }
 
   // historic detail query ////////////////////////////////
 
   public void configureHistoricDetailQuery(HistoricDetailQueryImpl query) {
     configureQuery(query, PROCESS_DEFINITION, "RES.PROC_DEF_KEY_", READ_HISTORY);
+    resolveAuthorizedResources(query, false);
   }
 
   // historic job log query ////////////////////////////////
 
   public void configureHistoricJobLogQuery(HistoricJobLogQueryImpl query) {
     configureQuery(query, PROCESS_DEFINITION, "RES.PROCESS_DEF_KEY_", READ_HISTORY);
+    resolveAuthorizedResources(query, false);
   }
 
   // historic incident query ////////////////////////////////
 
   public void configureHistoricIncidentQuery(HistoricIncidentQueryImpl query) {
     configureQuery(query, PROCESS_DEFINITION, "RES.PROC_DEF_KEY_", READ_HISTORY);
+    resolveAuthorizedResources(query, false);
   }
 
   //historic identity link query ////////////////////////////////
 
   public void configureHistoricIdentityLinkQuery(HistoricIdentityLinkLogQueryImpl query) {
    configureQuery(query, PROCESS_DEFINITION, "RES.PROC_DEF_KEY_", READ_HISTORY);
+   resolveAuthorizedResources(query, false);
   }
 
   public void configureHistoricDecisionInstanceQuery(HistoricDecisionInstanceQueryImpl query) {
     configureQuery(query, DECISION_DEFINITION, "RES.DEC_DEF_KEY_", READ_HISTORY);
+    resolveAuthorizedResources(query, false);
   }
 
   // historic external task log query /////////////////////////////////
 
   public void configureHistoricExternalTaskLogQuery(HistoricExternalTaskLogQueryImpl query) {
     configureQuery(query, PROCESS_DEFINITION, "RES.PROC_DEF_KEY_", READ_HISTORY);
+    resolveAuthorizedResources(query, false);
   }
 
   // user operation log query ///////////////////////////////
@@ -744,6 +916,7 @@ public class AuthorizationManager extends AbstractManager {
 
   public void configureHistoricBatchQuery(HistoricBatchQueryImpl query) {
     configureQuery(query, BATCH, "RES.ID_", READ_HISTORY);
+    resolveAuthorizedResources(query, true);
   }
 
   /* STATISTICS QUERY */
@@ -873,14 +1046,17 @@ public class AuthorizationManager extends AbstractManager {
 
   public void configureDecisionDefinitionQuery(DecisionDefinitionQueryImpl query) {
     configureQuery(query, DECISION_DEFINITION, "RES.KEY_");
+    resolveAuthorizedResources(query, false);
   }
 
   public void configureDecisionRequirementsDefinitionQuery(DecisionRequirementsDefinitionQueryImpl query) {
     configureQuery(query, DECISION_REQUIREMENTS_DEFINITION, "RES.KEY_");
+    resolveAuthorizedResources(query, false);
   }
 
   public void configureBatchQuery(BatchQueryImpl query) {
     configureQuery(query, BATCH, "RES.ID_", READ);
+    resolveAuthorizedResources(query, true);
   }
 
   public void configureBatchStatisticsQuery(BatchStatisticsQueryImpl query) {
@@ -893,7 +1069,7 @@ public class AuthorizationManager extends AbstractManager {
     }
     else {
       if(availableAuthorizedGroupIds == null) {
-        availableAuthorizedGroupIds = new HashSet<String>(getDbEntityManager().selectList("selectAuthorizedGroupIds"));
+        availableAuthorizedGroupIds = selectAuthorizedGroupIds();
       }
       Set<String> copy = new HashSet<String>(availableAuthorizedGroupIds);
       copy.retainAll(authenticatedGroupIds);
@@ -901,6 +1077,21 @@ public class AuthorizationManager extends AbstractManager {
     }
   }
 
+  protected Set<String> selectAuthorizedGroupIds() {
+    AuthorizationCache authorizationCache = getAuthorizationCache();
+    if (authorizationCache == null) {
+      return new HashSet<String>(getDbEntityManager().selectList("selectAuthorizedGroupIds"));
+    }
+
+    Set<String> groupIds = authorizationCache.get("authorizedGroupIds");
+    if (groupIds == null) {
+      long generation = authorizationCache.getGeneration();
+      groupIds = Collections.unmodifiableSet(new HashSet<String>(getDbEntityManager().selectList("selectAuthorizedGroupIds")));
+      authorizationCache.put(generation, "authorizedGroupIds", groupIds);
+    }
+    return groupIds;
+  }
+
   protected boolean isAuthCheckExecuted() {
 
     Authentication currentAuthentication = getCurrentAuthentication();
@@ -16,17 +16,23 @@
  */
 package org.camunda.bpm.engine.impl.persistence.entity;
 
+import java.io.InputStream;
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Map;
+import java.util.Set;
 
+import org.camunda.bpm.engine.impl.db.HasDbReferences;
 import org.camunda.bpm.engine.impl.db.HasDbRevision;
+import org.camunda.bpm.engine.impl.persistence.entity.util.ByteArrayCompression;
 import org.camunda.bpm.engine.repository.ResourceType;
 import org.camunda.bpm.engine.impl.db.DbEntity;
 
 /**
  * @author Tom Baeyens
  */
-public class ByteArrayEntity implements Serializable, DbEntity, HasDbRevision {
+public class ByteArrayEntity implements Serializable, DbEntity, HasDbRevision, HasDbReferences {
 
   private static final long serialVersionUID = 1L;
 
@@ -43,6 +49,14 @@ public class ByteArrayEntity implements Serializable, DbEntity, HasDbRevision {
   protected String rootProcessInstanceId;
   protected Date removalTime;
 
+  // the bytes as written to the database (possibly compressed) and the bytes they were computed from
+  protected transient byte[] persistedBytes;
+  protected transient byte[] persistedBytesSource;
+
+  // alternative sources of the content on insert which avoid holding it in memory
+  protected transient InputStream bytesStream;
+  protected transient String sourceByteArrayId;
+
   public ByteArrayEntity() {
   }
 
@@ -71,6 +85,56 @@ public class ByteArrayEntity implements Serializable, DbEntity, HasDbRevision {
     return bytes;
   }
 
+  /**
+   * @return the bytes as written to the database, compressed if compression is
+   * enabled for the type of this byte array
+   */
+  public byte[] getPersistedBytes() {
+    if (bytes == null) {
+      return null;
+    }
+
+    if (persistedBytesSource != bytes) {
+      persistedBytes = ByteArrayCompression.compressIfEnabled(bytes, type);
+      persistedBytesSource = bytes;
+    }
+
+    return persistedBytes;
+  }
+
+  /**
+   * Sets the bytes as read from the database, decompressing them if necessary.
+   */
+  public void setPersistedBytes(byte[] persistedBytes) {
+    this.bytes = ByteArrayCompression.decompress(persistedBytes);
+    this.persistedBytes = persistedBytes;
+    this.persistedBytesSource = this.bytes;
+  }
+
+  /**
+   * @return the stream which provides the content on insert, if the content is
+   * not given as byte array
+   */
+  public InputStream getBytesStream() {
+    return bytesStream;
+  }
+
+  public void setBytesStream(InputStream bytesStream) {
+    this.bytesStream = bytesStream;
+  }
+
+  /**
+   * @return the id of the byte array whose content is copied within the database
+   * on insert, if the content is neither given as byte array nor as stream
+   */
+  public String getSourceByteArrayId() {
+    return sourceByteArrayId;
+  }
+
+  public void setSourceByteArrayId(String sourceByteArrayId) {
+    this.sourceByteArrayId = sourceByteArrayId;
+  }
+
   public Object getPersistentState() {
     return (bytes != null ? bytes : PERSISTENTSTATE_NULL);
   }
@@ -79,6 +143,26 @@ public class ByteArrayEntity implements Serializable, DbEntity, HasDbRevision {
     return revision+1;
   }
 
+  /**
+   * A byte array copied within the database references its source,
+   * so that it is inserted after the source.
+   */
+  @Override
+  public Set<String> getReferencedEntityIds() {
+    if (sourceByteArrayId != null) {
+      return Collections.singleton(sourceByteArrayId);
+    }
+    return Collections.emptySet();
+  }
+
+  @Override
+  public Map<String, Class> getReferencedEntitiesIdAndClass() {
+    if (sourceByteArrayId != null) {
+      return Collections.<String, Class>singletonMap(sourceByteArrayId, ByteArrayEntity.class);
+    }
+    return Collections.emptyMap();
+  }
+
   // getters and setters //////////////////////////////////////////////////////
 
   public String getId() {
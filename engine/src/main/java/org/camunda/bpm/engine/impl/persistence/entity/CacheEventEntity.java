@@ -0,0 +1,111 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.entity;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import org.camunda.bpm.engine.impl.db.DbEntity;
+import org.camunda.bpm.engine.impl.db.HasDbReferences;
+
+/**
+ * Records that a definition was removed from the deployment cache, so that the
+ * other engines sharing the database can remove it from their caches as well.
+ */
+public class CacheEventEntity implements DbEntity, HasDbReferences, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  public static final String PROCESS_DEFINITION = "process-definition";
+  public static final String CASE_DEFINITION = "case-definition";
+  public static final String DECISION_DEFINITION = "decision-definition";
+  public static final String DECISION_REQUIREMENTS_DEFINITION = "decision-requirements-definition";
+
+  protected String id;
+  protected String type;
+  protected String definitionId;
+  protected long milliseconds;
+
+  public CacheEventEntity() {
+  }
+
+  public CacheEventEntity(String type, String definitionId, long milliseconds) {
+    this.type = type;
+    this.definitionId = definitionId;
+    this.milliseconds = milliseconds;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public void setId(String id) {
+    this.id = id;
+  }
+
+  public String getType() {
+    return type;
+  }
+
+  public void setType(String type) {
+    this.type = type;
+  }
+
+  public String getDefinitionId() {
+    return definitionId;
+  }
+
+  public void setDefinitionId(String definitionId) {
+    this.definitionId = definitionId;
+  }
+
+  public long getMilliseconds() {
+    return milliseconds;
+  }
+
+  public void setMilliseconds(long milliseconds) {
+    this.milliseconds = milliseconds;
+  }
+
+  public Object getPersistentState() {
+    // immutable
+    return CacheEventEntity.class;
+  }
+
+  @Override
+  public Set<String> getReferencedEntityIds() {
+    return Collections.emptySet();
+  }
+
+  @Override
+  public Map<String, Class> getReferencedEntitiesIdAndClass() {
+    return Collections.emptyMap();
+  }
+
+  @Override
+  public String toString() {
+    return this.getClass().getSimpleName()
+           + "[id=" + id
+           + ", type=" + type
+           + ", definitionId=" + definitionId
+           + ", milliseconds=" + milliseconds
+           + "]";
+  }
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.entity;
+
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.persistence.AbstractManager;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+
+/**
+ * Manages the events which notify the engines sharing a database about definitions
+ * removed from the deployment cache.
+ */
+public class CacheEventManager extends AbstractManager {
+
+  public static final String SELECT_CACHE_EVENTS = "selectCacheEvents";
+  public static final String DELETE_CACHE_EVENTS_BEFORE = "deleteCacheEventsBefore";
+
+  /**
+   * Records the removal of a definition if deployment cache invalidation
+   * is enabled, see {@link ProcessEngineConfigurationImpl#isDeploymentCacheInvalidationEnabled()}.
+   */
+  public void addDefinitionRemovedEvent(String type, String definitionId) {
+    ProcessEngineConfigurationImpl processEngineConfiguration = Context.getProcessEngineConfiguration();
+    if (processEngineConfiguration.isDeploymentCacheInvalidationEnabled()) {
+      long now = ClockUtil.getCurrentTime().getTime();
+      getDbEntityManager().insert(new CacheEventEntity(type, definitionId, now));
+    }
+  }
+
+  /**
+   * @return all events which have not been deleted yet, oldest first
+   */
+  @SuppressWarnings("unchecked")
+  public List<CacheEventEntity> findCacheEvents() {
+    return getDbEntityManager().selectList(SELECT_CACHE_EVENTS);
+  }
+
+  public void deleteCacheEventsBefore(long milliseconds) {
+    getDbEntityManager().delete(CacheEventEntity.class, DELETE_CACHE_EVENTS_BEFORE, milliseconds);
+  }
+
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.entity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.db.EnginePersistenceLogger;
+import org.camunda.bpm.engine.impl.db.entitymanager.DbEntityManager;
+import org.camunda.bpm.engine.impl.persistence.AbstractManager;
+import org.camunda.bpm.engine.variable.type.ValueType;
+
+/**
+ * Maintains the message correlation index, which maps the values of the process variables
+ * declared in {@link ProcessEngineConfigurationImpl#getCorrelationIndexVariableNames()} to
+ * their process instances.
+ */
+public class CorrelationKeyManager extends AbstractManager {
+
+  private final static EnginePersistenceLogger LOG = ProcessEngineLogger.PERSISTENCE_LOGGER;
+
+  /** The maximum length of an indexed variable value. */
+  public static final int MAX_VALUE_LENGTH = 64;
+
+  /** The property which records the names of the variables the index was built for. */
+  public static final String CORRELATION_INDEX_PROPERTY = "correlation.index.variable.names";
+
+  public static final String DELETE_ALL_CORRELATION_KEYS = "deleteAllCorrelationKeys";
+  public static final String INSERT_CORRELATION_KEYS_OF_VARIABLES = "insertCorrelationKeysOfVariables";
+
+  /**
+   * @return true if the correlation index is enabled and contains the given variable value,
+   * i.e. if correlating a message with this value as correlation key can use the index
+   */
+  public static boolean isIndexed(String variableName, Object value) {
+    ProcessEngineConfigurationImpl processEngineConfiguration = Context.getProcessEngineConfiguration();
+    return processEngineConfiguration.isCorrelationIndexEnabled()
+        && processEngineConfiguration.getCorrelationIndexVariableNames().contains(variableName)
+        && value instanceof String
+        && isIndexedValue((String) value);
+  }
+
+  protected static boolean isIndexedValue(String value) {
+    return value != null && !value.isEmpty() && value.length() <= MAX_VALUE_LENGTH;
+  }
+
+  public void onVariableCreated(VariableInstanceEntity variable) {
+    if (isIndexed(variable)) {
+      getDbEntityManager().insert(createCorrelationKey(variable));
+    }
+  }
+
+  public void onVariableUpdated(VariableInstanceEntity variable) {
+    if (!isIndexEnabled()) {
+      return;
+    }
+
+    DbEntityManager dbEntityManager = getDbEntityManager();
+    CorrelationKeyEntity correlationKey = dbEntityManager.selectById(CorrelationKeyEntity.class, variable.getId());
+
+    if (isIndexed(variable)) {
+      if (correlationKey == null) {
+        dbEntityManager.insert(createCorrelationKey(variable));
+      }
+      else {
+        if (dbEntityManager.isDeleted(correlationKey)) {
+          // the variable is set again after it was removed in the same command
+          dbEntityManager.undoDelete(correlationKey);
+        }
+        correlationKey.setValue(variable.getTextValue());
+      }
+    }
+    else if (correlationKey != null && !dbEntityManager.isDeleted(correlationKey)) {
+      dbEntityManager.delete(correlationKey);
+    }
+  }
+
+  public void onVariableDeleted(VariableInstanceEntity variable) {
+    if (isIndexEnabled()
+        && isIndexedVariableName(variable.getName())
+        && !variable.isTransient()
+        && variable.getTaskId() == null) {
+      CorrelationKeyEntity correlationKey = getDbEntityManager().selectById(CorrelationKeyEntity.class, variable.getId());
+      if (correlationKey != null) {
+        getDbEntityManager().delete(correlationKey);
+      }
+    }
+  }
+
+  /**
+   * Rebuilds the index from the process variables if the configured variable names
+   * differ from the ones the index was built for, and removes it if no names are configured.
+   * Must be called when the process engine starts.
+   */
+  public void synchronizeCorrelationIndex() {
+    String variableNames = getConfiguredVariableNames();
+
+    PropertyEntity property = getPropertyManager().findPropertyById(CORRELATION_INDEX_PROPERTY);
+    if (isSynchronized(property, variableNames)) {
+      return;
+    }
+
+    // check again while holding the lock, another engine may just have rebuilt the index
+    getPropertyManager().acquireExclusiveLockForStartup();
+    if (property != null) {
+      getDbEntityManager().getDbEntityCache().remove(property);
+    }
+    property = getPropertyManager().findPropertyById(CORRELATION_INDEX_PROPERTY);
+    if (isSynchronized(property, variableNames)) {
+      return;
+    }
+
+    getDbEntityManager().deletePreserveOrder(CorrelationKeyEntity.class, DELETE_ALL_CORRELATION_KEYS, null);
+
+    if (variableNames != null) {
+      LOG.rebuildingCorrelationIndex(variableNames);
+
+      Map<String, Object> parameters = new HashMap<>();
+      parameters.put("names", new ArrayList<>(getCorrelationIndexVariableNames()));
+      parameters.put("maxValueLength", MAX_VALUE_LENGTH);
+      getDbEntityManager().updatePreserveOrder(CorrelationKeyEntity.class, INSERT_CORRELATION_KEYS_OF_VARIABLES, parameters);
+
+      if (property == null) {
+        getDbEntityManager().insert(new PropertyEntity(CORRELATION_INDEX_PROPERTY, variableNames));
+      }
+      else {
+        property.setValue(variableNames);
+      }
+    }
+    else {
+      LOG.removingCorrelationIndex();
+      getDbEntityManager().delete(property);
+    }
+  }
+
+  protected boolean isSynchronized(PropertyEntity property, String variableNames) {
+    String indexedVariableNames = property != null ? property.getValue() : null;
+    return variableNames == null ? indexedVariableNames == null : variableNames.equals(indexedVariableNames);
+  }
+
+  protected String getConfiguredVariableNames() {
+    if (!isIndexEnabled()) {
+      return null;
+    }
+    return String.join(",", new TreeSet<>(getCorrelationIndexVariableNames()));
+  }
+
+  protected boolean isIndexed(VariableInstanceEntity variable) {
+    return isIndexEnabled()
+        && isIndexedVariableName(variable.getName())
+        && !variable.isTransient()
+        && variable.getTaskId() == null
+        && variable.getExecutionId() != null
+        && variable.getProcessInstanceId() != null
+        && ValueType.STRING.getName().equals(variable.getSerializerName())
+        && isIndexedValue(variable.getTextValue());
+  }
+
+  protected CorrelationKeyEntity createCorrelationKey(VariableInstanceEntity variable) {
+    return new CorrelationKeyEntity(variable.getId(), variable.getProcessInstanceId(), variable.getName(), variable.getTextValue());
+  }
+
+  protected boolean isIndexEnabled() {
+    return Context.getProcessEngineConfiguration().isCorrelationIndexEnabled();
+  }
+
+  protected boolean isIndexedVariableName(String variableName) {
+    return getCorrelationIndexVariableNames().contains(variableName);
+  }
+
+  protected Set<String> getCorrelationIndexVariableNames() {
+    return Context.getProcessEngineConfiguration().getCorrelationIndexVariableNames();
+  }
+
+}
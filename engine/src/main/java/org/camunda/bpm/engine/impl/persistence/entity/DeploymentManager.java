@@ -164,6 +164,8 @@ public class DeploymentManager extends AbstractManager {
           .getProcessEngineConfiguration()
           .getDeploymentCache()
           .removeCaseDefinition(processDefinitionId);
+        getCacheEventManager()
+          .addDefinitionRemovedEvent(CacheEventEntity.CASE_DEFINITION, processDefinitionId);
       }
     }
   }
@@ -193,6 +195,8 @@ public class DeploymentManager extends AbstractManager {
         // remove decision definitions from cache:
         deploymentCache
           .removeDecisionDefinition(decisionDefinitionId);
+        getCacheEventManager()
+          .addDefinitionRemovedEvent(CacheEventEntity.DECISION_DEFINITION, decisionDefinitionId);
       }
     }
   }
@@ -214,6 +218,8 @@ public class DeploymentManager extends AbstractManager {
 
         // remove decision requirements definitions from cache:
         deploymentCache.removeDecisionRequirementsDefinition(decisionDefinitionId);
+        getCacheEventManager()
+          .addDefinitionRemovedEvent(CacheEventEntity.DECISION_REQUIREMENTS_DEFINITION, decisionDefinitionId);
       }
     }
   }
@@ -59,6 +59,7 @@ import org.camunda.bpm.engine.impl.history.producer.HistoryEventProducer;
 import org.camunda.bpm.engine.impl.interceptor.AtomicOperationInvocation;
 import org.camunda.bpm.engine.impl.jobexecutor.MessageJobDeclaration;
 import org.camunda.bpm.engine.impl.jobexecutor.TimerDeclarationImpl;
+import org.camunda.bpm.engine.impl.persistence.entity.util.FetchedVariablesField;
 import org.camunda.bpm.engine.impl.persistence.entity.util.FormPropertyStartContext;
 import org.camunda.bpm.engine.impl.pvm.PvmActivity;
 import org.camunda.bpm.engine.impl.pvm.PvmProcessDefinition;
@@ -162,6 +163,8 @@ public class ExecutionEntity extends PvmExecutionImpl implements Execution, Proc
   protected transient VariableStore<VariableInstanceEntity> variableStore =
       new VariableStore<>(this, new ExecutionEntityReferencer(this));
 
+  protected transient FetchedVariablesField fetchedVariablesField = new FetchedVariablesField();
+
 
   // replaced by //////////////////////////////////////////////////////////////
 
@@ -1921,6 +1924,15 @@ public class ExecutionEntity extends PvmExecutionImpl implements Execution, Proc
     return suspensionState == SuspensionState.SUSPENDED.getStateCode();
   }
 
+  public FetchedVariablesField getFetchedVariablesField() {
+    return fetchedVariablesField;
+  }
+
+  @Override
+  public VariableMap getFetchedVariables() {
+    return fetchedVariablesField.getVariables();
+  }
+
   @Override
   public ProcessInstanceStartContext getProcessInstanceStartContext() {
     if (isProcessInstanceExecution()) {
@@ -16,6 +16,7 @@
  */
 package org.camunda.bpm.engine.impl.persistence.entity;
 
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -298,7 +299,8 @@ public class ExternalTaskEntity implements ExternalTask, DbEntity, HasDbRevision
       errorDetailsByteArrayId = byteArray.getId();
       errorDetailsByteArray = byteArray;
     }
-    else {
+    else if (!Arrays.equals(byteArray.getBytes(), exceptionBytes)) {
+      // the same error details of a failed retry are not written again
       byteArray.setBytes(exceptionBytes);
     }
   }
@@ -492,7 +494,7 @@ public class ExternalTaskEntity implements ExternalTask, DbEntity, HasDbRevision
 
     Context.getCommandContext()
       .getExternalTaskManager()
-      .fireExternalTaskAvailableEvent();
+      .fireExternalTaskAvailableEvent(topicName);
   }
 
   public static ExternalTaskEntity createAndInsert(ExecutionEntity execution, String topic, long priority) {
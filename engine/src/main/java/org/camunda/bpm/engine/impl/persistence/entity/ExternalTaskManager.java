@@ -18,9 +18,12 @@ package org.camunda.bpm.engine.impl.persistence.entity;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.camunda.bpm.engine.externaltask.ExternalTask;
 import org.camunda.bpm.engine.impl.Direction;
@@ -46,13 +49,16 @@ public class ExternalTaskManager extends AbstractManager {
 
   public static QueryOrderingProperty EXT_TASK_PRIORITY_ORDERING_PROPERTY = new QueryOrderingProperty(ExternalTaskQueryProperty.PRIORITY, Direction.DESCENDING);
 
+  /** topics of the external tasks made available in the current transaction */
+  protected Set<String> availableTopics;
+
   public ExternalTaskEntity findExternalTaskById(String id) {
     return getDbEntityManager().selectById(ExternalTaskEntity.class, id);
   }
 
   public void insert(ExternalTaskEntity externalTask) {
     getDbEntityManager().insert(externalTask);
-    fireExternalTaskAvailableEvent();
+    fireExternalTaskAvailableEvent(externalTask.getTopicName());
   }
 
   public void delete(ExternalTaskEntity externalTask) {
@@ -74,9 +80,10 @@ public class ExternalTaskManager extends AbstractManager {
       return new ArrayList<ExternalTaskEntity>();
     }
 
+    Date now = ClockUtil.getCurrentTime();
     Map<String, Object> parameters = new HashMap<String, Object>();
     parameters.put("topics", queryFilters);
-    parameters.put("now", ClockUtil.getCurrentTime());
+    parameters.put("now", now);
     parameters.put("applyOrdering", usePriority);
     List<QueryOrderingProperty> orderingProperties = new ArrayList<QueryOrderingProperty>();
     orderingProperties.add(EXT_TASK_PRIORITY_ORDERING_PROPERTY);
@@ -86,7 +93,38 @@ public class ExternalTaskManager extends AbstractManager {
     configureQuery(parameter);
 
     DbEntityManager manager = getDbEntityManager();
-    return manager.selectList("selectExternalTasksForTopics", parameter);
+    List<ExternalTaskEntity> externalTasks = manager.selectList("selectExternalTasksForTopics", parameter);
+
+    if (Context.getProcessEngineConfiguration().isSkipLockedAcquisitionEnabled() && !externalTasks.isEmpty()) {
+      externalTasks = filterLockableExternalTasks(externalTasks, now);
+    }
+
+    return externalTasks;
+  }
+
+  /**
+   * Locks the rows of the given external tasks and returns the tasks which could be locked. Tasks
+   * locked by concurrent fetches are skipped, so that they do not fail with an optimistic locking exception.
+   */
+  @SuppressWarnings("unchecked")
+  protected List<ExternalTaskEntity> filterLockableExternalTasks(List<ExternalTaskEntity> externalTasks, Date now) {
+    List<String> externalTaskIds = new ArrayList<String>();
+    for (ExternalTaskEntity externalTask : externalTasks) {
+      externalTaskIds.add(externalTask.getId());
+    }
+
+    Map<String, Object> parameters = new HashMap<String, Object>();
+    parameters.put("ids", externalTaskIds);
+    parameters.put("now", now);
+    Set<String> lockedExternalTaskIds = new HashSet<String>(getDbEntityManager().selectList("selectLockableExternalTaskIds", parameters));
+
+    List<ExternalTaskEntity> lockedExternalTasks = new ArrayList<ExternalTaskEntity>();
+    for (ExternalTaskEntity externalTask : externalTasks) {
+      if (lockedExternalTaskIds.contains(externalTask.getId())) {
+        lockedExternalTasks.add(externalTask);
+      }
+    }
+    return lockedExternalTasks;
   }
 
   public List<ExternalTask> findExternalTasksByQueryCriteria(ExternalTaskQueryImpl externalTaskQuery) {
@@ -156,15 +194,33 @@ public class ExternalTaskManager extends AbstractManager {
   }
 
   public void fireExternalTaskAvailableEvent() {
-    Context.getCommandContext()
-      .getTransactionContext()
-      .addTransactionListener(TransactionState.COMMITTED, new TransactionListener() {
-        @Override
-        public void execute(CommandContext commandContext) {
-          ProcessEngineImpl.EXT_TASK_CONDITIONS.signalAll();
-        }
-      });
+    fireExternalTaskAvailableEvent(null);
+  }
+
+  /**
+   * Signals the external task conditions and notifies the availability listeners once the
+   * transaction is committed. All topics made available in the same transaction are
+   * reported with a single notification.
+   *
+   * @param topicName the topic of the available external task, or <code>null</code> if unknown
+   */
+  public void fireExternalTaskAvailableEvent(String topicName) {
+    if (availableTopics == null) {
+      availableTopics = new HashSet<String>();
+
+      Context.getCommandContext()
+        .getTransactionContext()
+        .addTransactionListener(TransactionState.COMMITTED, new TransactionListener() {
+          @Override
+          public void execute(CommandContext commandContext) {
+            ProcessEngineImpl.EXT_TASK_CONDITIONS.signalAll();
+
+            Set<String> topicNames = availableTopics.contains(null) ? null : availableTopics;
+            ProcessEngineImpl.EXT_TASK_AVAILABILITY_NOTIFIER.notifyListeners(topicNames);
+          }
+        });
+    }
+
+    availableTopics.add(topicName);
   }
 }
-
-
@@ -16,6 +16,7 @@
  */
 package org.camunda.bpm.engine.impl.persistence.entity;
 
+import java.io.InputStream;
 import java.util.Date;
 
 import org.camunda.bpm.engine.history.HistoricVariableUpdate;
@@ -27,8 +28,8 @@ import org.camunda.bpm.engine.impl.db.entitymanager.DbEntityManager;
 import org.camunda.bpm.engine.impl.history.event.HistoricVariableUpdateEventEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.util.ByteArrayField;
 import org.camunda.bpm.engine.impl.persistence.entity.util.TypedValueField;
+import org.camunda.bpm.engine.impl.variable.serializer.StreamingValueFields;
 import org.camunda.bpm.engine.impl.variable.serializer.TypedValueSerializer;
-import org.camunda.bpm.engine.impl.variable.serializer.ValueFields;
 import org.camunda.bpm.engine.repository.ResourceTypes;
 import org.camunda.bpm.engine.variable.value.TypedValue;
 
@@ -36,7 +37,7 @@ import org.camunda.bpm.engine.variable.value.TypedValue;
 /**
  * @author Tom Baeyens
  */
-public class HistoricDetailVariableInstanceUpdateEntity extends HistoricVariableUpdateEventEntity implements ValueFields, HistoricVariableUpdate, DbEntityLifecycleAware {
+public class HistoricDetailVariableInstanceUpdateEntity extends HistoricVariableUpdateEventEntity implements StreamingValueFields, HistoricVariableUpdate, DbEntityLifecycleAware {
 
   private static final long serialVersionUID = 1L;
   protected static final EnginePersistenceLogger LOG = ProcessEngineLogger.PERSISTENCE_LOGGER;
@@ -103,6 +104,10 @@ public class HistoricDetailVariableInstanceUpdateEntity extends HistoricVariable
     byteArrayField.setByteArrayValue(bytes);
   }
 
+  public void setByteArrayValue(InputStream stream) {
+    byteArrayField.setByteArrayValue(stream, false);
+  }
+
   public String getName() {
     return getVariableName();
   }
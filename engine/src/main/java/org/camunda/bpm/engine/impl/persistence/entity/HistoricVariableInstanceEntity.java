@@ -16,6 +16,7 @@
  */
 package org.camunda.bpm.engine.impl.persistence.entity;
 
+import java.io.InputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Date;
@@ -32,15 +33,15 @@ import org.camunda.bpm.engine.impl.db.HistoricEntity;
 import org.camunda.bpm.engine.impl.history.event.HistoricVariableUpdateEventEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.util.ByteArrayField;
 import org.camunda.bpm.engine.impl.persistence.entity.util.TypedValueField;
+import org.camunda.bpm.engine.impl.variable.serializer.StreamingValueFields;
 import org.camunda.bpm.engine.impl.variable.serializer.TypedValueSerializer;
-import org.camunda.bpm.engine.impl.variable.serializer.ValueFields;
 import org.camunda.bpm.engine.repository.ResourceTypes;
 import org.camunda.bpm.engine.variable.value.TypedValue;
 
 /**
  * @author Christian Lipphardt (camunda)
  */
-public class HistoricVariableInstanceEntity implements ValueFields, HistoricVariableInstance, DbEntity, HasDbRevision, HistoricEntity, Serializable, DbEntityLifecycleAware {
+public class HistoricVariableInstanceEntity implements StreamingValueFields, HistoricVariableInstance, DbEntity, HasDbRevision, HistoricEntity, Serializable, DbEntityLifecycleAware {
 
   private static final long serialVersionUID = 1L;
   protected static final EnginePersistenceLogger LOG = ProcessEngineLogger.PERSISTENCE_LOGGER;
@@ -117,6 +118,11 @@ public class HistoricVariableInstanceEntity implements ValueFields, HistoricVari
       byteArrayField.setRemovalTime(removalTime);
       setByteArrayValue(historyEvent.getByteValue());
     }
+    else if (historyEvent.getSourceByteArrayId() != null) {
+      byteArrayField.setRootProcessInstanceId(rootProcessInstanceId);
+      byteArrayField.setRemovalTime(removalTime);
+      byteArrayField.copyByteArrayValue(historyEvent.getSourceByteArrayId());
+    }
 
   }
 
@@ -183,6 +189,10 @@ public class HistoricVariableInstanceEntity implements ValueFields, HistoricVari
     byteArrayField.setByteArrayValue(bytes);
   }
 
+  public void setByteArrayValue(InputStream stream) {
+    byteArrayField.setByteArrayValue(stream, false);
+  }
+
   // entity lifecycle /////////////////////////////////////////////////////////
 
   public void postLoad() {
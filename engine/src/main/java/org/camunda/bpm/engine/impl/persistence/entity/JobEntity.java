@@ -21,6 +21,7 @@ import static org.camunda.bpm.engine.impl.util.ExceptionUtil.createJobExceptionB
 import static org.camunda.bpm.engine.impl.util.StringUtil.toByteArray;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -419,7 +420,8 @@ public abstract class JobEntity extends AcquirableJobEntity implements Serializa
       exceptionByteArrayId = byteArray.getId();
       exceptionByteArray = byteArray;
     }
-    else {
+    else if (!Arrays.equals(byteArray.getBytes(), exceptionBytes)) {
+      // the same stack trace of a failed retry is not written again
       byteArray.setBytes(exceptionBytes);
     }
   }
@@ -199,7 +199,38 @@ public class JobManager extends AbstractManager {
     // don't apply default sorting
     params.put("applyOrdering", !orderingProperties.isEmpty());
 
-    return getDbEntityManager().selectList("selectNextJobsToExecute", params, page);
+    List<AcquirableJobEntity> jobs = getDbEntityManager().selectList("selectNextJobsToExecute", params, page);
+
+    if (engineConfiguration.isSkipLockedAcquisitionEnabled() && !jobs.isEmpty()) {
+      jobs = filterLockableJobs(jobs, now);
+    }
+
+    return jobs;
+  }
+
+  /**
+   * Locks the rows of the given jobs and returns the jobs which could be locked. Jobs locked by
+   * concurrent acquisitions are skipped, so that they do not fail with an optimistic locking exception.
+   */
+  @SuppressWarnings("unchecked")
+  protected List<AcquirableJobEntity> filterLockableJobs(List<AcquirableJobEntity> jobs, Date now) {
+    List<String> jobIds = new ArrayList<>();
+    for (AcquirableJobEntity job : jobs) {
+      jobIds.add(job.getId());
+    }
+
+    Map<String, Object> params = new HashMap<>();
+    params.put("ids", jobIds);
+    params.put("now", now);
+    Set<String> lockedJobIds = new HashSet<>(getDbEntityManager().selectList("selectLockableJobIds", params));
+
+    List<AcquirableJobEntity> lockedJobs = new ArrayList<>();
+    for (AcquirableJobEntity job : jobs) {
+      if (lockedJobIds.contains(job.getId())) {
+        lockedJobs.add(job);
+      }
+    }
+    return lockedJobs;
   }
 
   @SuppressWarnings("unchecked")
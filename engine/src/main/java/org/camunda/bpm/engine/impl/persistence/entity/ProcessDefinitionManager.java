@@ -372,6 +372,8 @@ public class ProcessDefinitionManager extends AbstractManager implements Abstrac
       .getProcessEngineConfiguration()
       .getDeploymentCache()
       .removeProcessDefinition(processDefinitionId);
+    getCacheEventManager()
+      .addDefinitionRemovedEvent(CacheEventEntity.PROCESS_DEFINITION, processDefinitionId);
 
     deleteSubscriptionsForProcessDefinition(processDefinitionId);
 
@@ -86,4 +86,9 @@ public class ProcessInstanceWithVariablesImpl implements ProcessInstanceWithVari
   public String getTenantId() {
     return executionEntity.getTenantId();
   }
+
+  @Override
+  public VariableMap getFetchedVariables() {
+    return executionEntity.getFetchedVariables();
+  }
 }
@@ -89,6 +89,8 @@ public class TableDataManager extends AbstractManager {
     persistentObjectToTableNameMap.put(FilterEntity.class, "ACT_RU_FILTER");
 
     persistentObjectToTableNameMap.put(MeterLogEntity.class, "ACT_RU_METER_LOG");
+    persistentObjectToTableNameMap.put(CacheEventEntity.class, "ACT_RU_CACHE_EVENT");
+    persistentObjectToTableNameMap.put(CorrelationKeyEntity.class, "ACT_RU_CORRELATION_KEY");
     // repository
     persistentObjectToTableNameMap.put(DeploymentEntity.class, "ACT_RE_DEPLOYMENT");
     persistentObjectToTableNameMap.put(ProcessDefinitionEntity.class, "ACT_RE_PROCDEF");
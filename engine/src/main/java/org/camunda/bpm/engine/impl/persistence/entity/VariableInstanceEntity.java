@@ -16,6 +16,7 @@
  */
 package org.camunda.bpm.engine.impl.persistence.entity;
 
+import java.io.InputStream;
 import java.io.Serializable;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -39,8 +40,8 @@ import org.camunda.bpm.engine.impl.db.HasDbRevision;
 import org.camunda.bpm.engine.impl.persistence.entity.util.ByteArrayField;
 import org.camunda.bpm.engine.impl.persistence.entity.util.TypedValueField;
 import org.camunda.bpm.engine.impl.persistence.entity.util.TypedValueUpdateListener;
+import org.camunda.bpm.engine.impl.variable.serializer.StreamingValueFields;
 import org.camunda.bpm.engine.impl.variable.serializer.TypedValueSerializer;
-import org.camunda.bpm.engine.impl.variable.serializer.ValueFields;
 import org.camunda.bpm.engine.repository.ResourceTypes;
 import org.camunda.bpm.engine.runtime.VariableInstance;
 import org.camunda.bpm.engine.variable.value.TypedValue;
@@ -48,7 +49,7 @@ import org.camunda.bpm.engine.variable.value.TypedValue;
 /**
  * @author Tom Baeyens
  */
-public class VariableInstanceEntity implements VariableInstance, CoreVariableInstance, ValueFields, DbEntity, DbEntityLifecycleAware, TypedValueUpdateListener, HasDbRevision,
+public class VariableInstanceEntity implements VariableInstance, CoreVariableInstance, StreamingValueFields, DbEntity, DbEntityLifecycleAware, TypedValueUpdateListener, HasDbRevision,
   HasDbReferences, Serializable {
 
   protected static final EnginePersistenceLogger LOG = ProcessEngineLogger.PERSISTENCE_LOGGER;
@@ -251,6 +252,10 @@ public class VariableInstanceEntity implements VariableInstance, CoreVariableIns
     byteArrayField.setByteArrayValue(bytes, isTransient);
   }
 
+  public void setByteArrayValue(InputStream stream) {
+    byteArrayField.setByteArrayValue(stream, isTransient);
+  }
+
   protected void deleteByteArrayValue() {
     byteArrayField.deleteByteArrayValue();
   }
@@ -16,6 +16,7 @@
  */
 package org.camunda.bpm.engine.impl.persistence.entity;
 
+import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.core.variable.scope.AbstractVariableScope;
 import org.camunda.bpm.engine.impl.core.variable.scope.VariableInstanceLifecycleListener;
 
@@ -30,15 +31,22 @@ public class VariableInstanceEntityPersistenceListener implements VariableInstan
   @Override
   public void onCreate(VariableInstanceEntity variable, AbstractVariableScope sourceScope) {
     VariableInstanceEntity.insert(variable);
+    getCorrelationKeyManager().onVariableCreated(variable);
   }
 
   @Override
   public void onDelete(VariableInstanceEntity variable, AbstractVariableScope sourceScope) {
+    getCorrelationKeyManager().onVariableDeleted(variable);
     variable.delete();
   }
 
   @Override
   public void onUpdate(VariableInstanceEntity variable, AbstractVariableScope sourceScope) {
+    getCorrelationKeyManager().onVariableUpdated(variable);
+  }
+
+  protected CorrelationKeyManager getCorrelationKeyManager() {
+    return Context.getCommandContext().getCorrelationKeyManager();
   }
 
 }
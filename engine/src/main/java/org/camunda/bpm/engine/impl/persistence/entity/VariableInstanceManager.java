@@ -16,6 +16,7 @@
  */
 package org.camunda.bpm.engine.impl.persistence.entity;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -23,7 +24,9 @@ import java.util.Map;
 
 import org.camunda.bpm.engine.impl.Page;
 import org.camunda.bpm.engine.impl.VariableInstanceQueryImpl;
+import org.camunda.bpm.engine.impl.db.sql.DbSqlSessionFactory;
 import org.camunda.bpm.engine.impl.persistence.AbstractManager;
+import org.camunda.bpm.engine.impl.util.CollectionUtil;
 import org.camunda.bpm.engine.runtime.VariableInstance;
 
 
@@ -73,6 +76,46 @@ public class VariableInstanceManager extends AbstractManager {
     return getDbEntityManager().selectList("selectVariablesByCaseExecutionId", parameter);
   }
 
+  /**
+   * Fetches the variables of many variable scopes at once, e.g. for a page of query results.
+   * The byte arrays of the variables are loaded into the cache with them, so that they
+   * are not selected one by one when the values are read.
+   *
+   * @param variableNames the names of the variables to fetch or <code>null</code> to fetch all variables
+   * @return the variable instances grouped by the id of their variable scope
+   */
+  @SuppressWarnings("unchecked")
+  public Map<String, List<VariableInstanceEntity>> findVariableInstancesByVariableScopeIds(Collection<String> variableScopeIds,
+      Collection<String> variableNames) {
+
+    Map<String, List<VariableInstanceEntity>> variablesByScopeId = new HashMap<String, List<VariableInstanceEntity>>();
+    List<String> byteArrayIds = new ArrayList<String>();
+
+    List<List<String>> partitions = CollectionUtil.partition(new ArrayList<String>(variableScopeIds), DbSqlSessionFactory.MAXIMUM_NUMBER_PARAMS);
+    for (List<String> partition : partitions) {
+      Map<String, Object> parameter = new HashMap<String, Object>();
+      parameter.put("variableScopeIds", partition);
+      parameter.put("variableNames", variableNames);
+
+      List<VariableInstanceEntity> variableInstances = getDbEntityManager().selectList("selectVariablesByVariableScopeIds", parameter);
+      for (VariableInstanceEntity variableInstance : variableInstances) {
+        CollectionUtil.addToMapOfLists(variablesByScopeId, variableInstance.getVariableScopeId(), variableInstance);
+
+        if (variableInstance.getByteArrayValueId() != null) {
+          byteArrayIds.add(variableInstance.getByteArrayValueId());
+        }
+      }
+    }
+
+    if (!byteArrayIds.isEmpty()) {
+      for (List<String> partition : CollectionUtil.partition(byteArrayIds, DbSqlSessionFactory.MAXIMUM_NUMBER_PARAMS)) {
+        getDbEntityManager().selectList("selectByteArrays", partition);
+      }
+    }
+
+    return variablesByScopeId;
+  }
+
   public void deleteVariableInstanceByTask(TaskEntity task) {
     List<VariableInstanceEntity> variableInstances = task.variableStore.getVariables();
     for (VariableInstanceEntity variableInstance: variableInstances) {
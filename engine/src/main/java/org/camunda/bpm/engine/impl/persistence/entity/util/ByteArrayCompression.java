@@ -0,0 +1,230 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.entity.util;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.repository.ResourceTypes;
+
+/**
+ * Transparent compression of the payload of byte array entities.
+ *
+ * <p>A compressed payload starts with a header consisting of the magic bytes, the
+ * compression algorithm, the uncompressed length and the CRC32 checksum of the
+ * uncompressed content. Payloads which do not start with the header (e.g. rows written
+ * before compression was enabled) or whose content does not match the header are
+ * read as they are.</p>
+ *
+ * <p>Identical payloads are not shared between rows: each byte array is owned by the
+ * entity referencing it and is deleted with it, also in bulk by the history cleanup and
+ * by removal time. Only identical stack traces of failed job and external task retries
+ * are not written again to the row of the job or external task. Each historic job or
+ * external task log entry still gets its own byte array.</p>
+ */
+public class ByteArrayCompression {
+
+  protected static final byte[] MAGIC = { (byte) 0xCA, (byte) 0x3D, (byte) 0xBA, (byte) 0x7A };
+
+  protected static final byte ALGORITHM_DEFLATE = 1;
+
+  protected static final int HEADER_LENGTH = MAGIC.length + 1 + 4 + 4;
+
+  /** upper bound of the deflate compression ratio, guards against implausible lengths */
+  protected static final int MAX_COMPRESSION_RATIO = 1032;
+
+  /**
+   * @return the compressed payload if compression is enabled for the given resource type,
+   * the payload is at least as large as the configured threshold and compression reduces
+   * its size; the given payload otherwise
+   */
+  public static byte[] compressIfEnabled(byte[] bytes, Integer resourceType) {
+    if (bytes == null || resourceType == null) {
+      return bytes;
+    }
+
+    ProcessEngineConfigurationImpl configuration = Context.getProcessEngineConfiguration();
+    if (configuration == null) {
+      return bytes;
+    }
+
+    Set<String> compressedResourceTypes = configuration.getByteArrayCompressionResourceTypes();
+    if (compressedResourceTypes == null
+        || compressedResourceTypes.isEmpty()
+        || bytes.length < configuration.getByteArrayCompressionThreshold()
+        || !compressedResourceTypes.contains(getResourceTypeName(resourceType))) {
+      return bytes;
+    }
+
+    return compress(bytes);
+  }
+
+  /**
+   * @return the compressed payload or the given payload if compression does not reduce its size
+   */
+  public static byte[] compress(byte[] bytes) {
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      deflater.setInput(bytes);
+      deflater.finish();
+
+      ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2 + HEADER_LENGTH);
+      out.write(MAGIC, 0, MAGIC.length);
+      out.write(ALGORITHM_DEFLATE);
+      writeInt(out, bytes.length);
+      writeInt(out, (int) checksum(bytes, 0, bytes.length));
+
+      byte[] buffer = new byte[4096];
+      while (!deflater.finished()) {
+        int count = deflater.deflate(buffer);
+        out.write(buffer, 0, count);
+
+        if (out.size() >= bytes.length) {
+          return bytes;
+        }
+      }
+
+      return out.toByteArray();
+
+    } finally {
+      deflater.end();
+
+    }
+  }
+
+  /**
+   * @return the uncompressed payload if the given payload is compressed, the given payload otherwise
+   */
+  public static byte[] decompress(byte[] bytes) {
+    if (!isCompressed(bytes)) {
+      return bytes;
+    }
+
+    int length = readInt(bytes, MAGIC.length + 1);
+    int checksum = readInt(bytes, MAGIC.length + 5);
+    if (length < 0 || length > (long) (bytes.length - HEADER_LENGTH) * MAX_COMPRESSION_RATIO) {
+      return bytes;
+    }
+
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+
+      byte[] result = new byte[length];
+      int position = 0;
+      while (position < length && !inflater.finished()) {
+        int count = inflater.inflate(result, position, length - position);
+        if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        position += count;
+      }
+
+      if (position != length || (int) checksum(result, 0, length) != checksum) {
+        // not a compressed payload but content which happens to start with the magic bytes
+        return bytes;
+      }
+
+      return result;
+
+    } catch (DataFormatException e) {
+      return bytes;
+
+    } finally {
+      inflater.end();
+
+    }
+  }
+
+  /**
+   * @return a stream of the uncompressed payload if the given stream provides a compressed
+   * payload, a stream of the given payload otherwise. Unlike {@link #decompress(byte[])}, the
+   * content is not verified against the checksum of the header.
+   */
+  public static InputStream decompress(InputStream stream) throws IOException {
+    BufferedInputStream bufferedStream = new BufferedInputStream(stream);
+    bufferedStream.mark(HEADER_LENGTH);
+
+    byte[] header = new byte[HEADER_LENGTH];
+    int position = 0;
+    int count = 0;
+    while (position < HEADER_LENGTH && (count = bufferedStream.read(header, position, HEADER_LENGTH - position)) != -1) {
+      position += count;
+    }
+
+    if (position == HEADER_LENGTH && isCompressed(header)) {
+      return new InflaterInputStream(bufferedStream);
+    }
+
+    bufferedStream.reset();
+    return bufferedStream;
+  }
+
+  public static boolean isCompressed(byte[] bytes) {
+    if (bytes == null || bytes.length < HEADER_LENGTH || bytes[MAGIC.length] != ALGORITHM_DEFLATE) {
+      return false;
+    }
+
+    for (int i = 0; i < MAGIC.length; i++) {
+      if (bytes[i] != MAGIC[i]) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  protected static String getResourceTypeName(Integer resourceType) {
+    for (ResourceTypes type : ResourceTypes.values()) {
+      if (type.getValue().equals(resourceType)) {
+        return type.getName();
+      }
+    }
+    return null;
+  }
+
+  protected static long checksum(byte[] bytes, int offset, int length) {
+    CRC32 crc = new CRC32();
+    crc.update(bytes, offset, length);
+    return crc.getValue();
+  }
+
+  protected static void writeInt(ByteArrayOutputStream out, int value) {
+    out.write(value >>> 24);
+    out.write(value >>> 16);
+    out.write(value >>> 8);
+    out.write(value);
+  }
+
+  protected static int readInt(byte[] bytes, int offset) {
+    return ((bytes[offset] & 0xff) << 24)
+        | ((bytes[offset + 1] & 0xff) << 16)
+        | ((bytes[offset + 2] & 0xff) << 8)
+        | (bytes[offset + 3] & 0xff);
+  }
+
+}
@@ -22,6 +22,7 @@ import org.camunda.bpm.engine.impl.persistence.entity.Nameable;
 import org.camunda.bpm.engine.impl.variable.serializer.ValueFields;
 import org.camunda.bpm.engine.repository.ResourceType;
 
+import java.io.InputStream;
 import java.util.Date;
 
 /**
@@ -123,6 +124,44 @@ public class ByteArrayField {
 
   }
 
+  /**
+   * Stores the content of the given stream in a new byte array. The stream is
+   * consumed when the byte array is inserted, without reading it into memory.
+   */
+  public void setByteArrayValue(InputStream stream, boolean isTransient) {
+    deleteByteArrayValue();
+
+    byteArrayValue = new ByteArrayEntity(nameProvider.getName(), null, type, rootProcessInstanceId, removalTime);
+    byteArrayValue.setBytesStream(stream);
+
+    // avoid insert of byte array value for a transient variable
+    if (!isTransient) {
+      insertByteArrayValue();
+    }
+  }
+
+  /**
+   * Stores a copy of the byte array with the given id. The content is copied
+   * within the database, without reading it into memory.
+   */
+  public void copyByteArrayValue(String sourceByteArrayId) {
+    deleteByteArrayValue();
+
+    byteArrayValue = new ByteArrayEntity(nameProvider.getName(), null, type, rootProcessInstanceId, removalTime);
+    byteArrayValue.setSourceByteArrayId(sourceByteArrayId);
+
+    insertByteArrayValue();
+  }
+
+  protected void insertByteArrayValue() {
+    Context
+      .getCommandContext()
+      .getByteArrayManager()
+      .insertByteArray(byteArrayValue);
+
+    byteArrayId = byteArrayValue.getId();
+  }
+
   public void deleteByteArrayValue() {
     if (byteArrayId != null) {
       // the next apparently useless line is probably to ensure consistency in the DbSqlSession cache,
@@ -0,0 +1,106 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.entity.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.db.EnginePersistenceLogger;
+import org.camunda.bpm.engine.impl.persistence.entity.VariableInstanceEntity;
+import org.camunda.bpm.engine.variable.VariableMap;
+import org.camunda.bpm.engine.variable.impl.VariableMapImpl;
+
+/**
+ * Holds the variables that were fetched together with the result of a query, e.g. by
+ * {@link org.camunda.bpm.engine.task.TaskQuery#withVariables(String...)}.
+ *
+ * <p>The variable instances are resolved while the query is executed. Their values are
+ * only read, and object values deserialized, once the variables are accessed, which may
+ * happen after the query command has completed.</p>
+ */
+public class FetchedVariablesField {
+
+  protected static final EnginePersistenceLogger LOG = ProcessEngineLogger.PERSISTENCE_LOGGER;
+
+  protected List<VariableInstanceEntity> variableInstances;
+  protected VariableMap variables;
+
+  /**
+   * Sets the variables visible from the given variable scopes. If a variable is defined in
+   * several scopes, the instance of the first scope wins, so that the scopes must be passed
+   * from the innermost to the outermost one.
+   *
+   * @param variablesByScopeId the fetched variable instances grouped by the id of their variable scope
+   */
+  public void initialize(Map<String, List<VariableInstanceEntity>> variablesByScopeId, String... variableScopeIds) {
+    Map<String, VariableInstanceEntity> visibleVariables = new LinkedHashMap<String, VariableInstanceEntity>();
+
+    for (String variableScopeId : variableScopeIds) {
+      if (variableScopeId == null) {
+        continue;
+      }
+
+      List<VariableInstanceEntity> scopeVariables = variablesByScopeId.get(variableScopeId);
+      if (scopeVariables != null) {
+        for (VariableInstanceEntity variableInstance : scopeVariables) {
+          if (!visibleVariables.containsKey(variableInstance.getName())) {
+            visibleVariables.put(variableInstance.getName(), variableInstance);
+          }
+        }
+      }
+    }
+
+    setVariableInstances(visibleVariables.values());
+  }
+
+  public void setVariableInstances(Collection<VariableInstanceEntity> variableInstances) {
+    for (VariableInstanceEntity variableInstance : variableInstances) {
+      // resolve everything that needs a command context,
+      // so that the value can be read after the command has completed
+      variableInstance.getSerializer();
+      variableInstance.getByteArrayValue();
+    }
+
+    this.variableInstances = new ArrayList<VariableInstanceEntity>(variableInstances);
+    this.variables = null;
+  }
+
+  public boolean isInitialized() {
+    return variableInstances != null;
+  }
+
+  public VariableMap getVariables() {
+    if (!isInitialized()) {
+      throw LOG.uninitializedFetchedVariablesException();
+    }
+
+    if (variables == null) {
+      VariableMap fetchedVariables = new VariableMapImpl();
+      for (VariableInstanceEntity variableInstance : variableInstances) {
+        fetchedVariables.putValueTyped(variableInstance.getName(), variableInstance.getTypedValue(true));
+      }
+      variables = fetchedVariables;
+    }
+
+    return variables;
+  }
+
+}
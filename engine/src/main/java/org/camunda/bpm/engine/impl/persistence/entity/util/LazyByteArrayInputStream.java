@@ -0,0 +1,293 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.entity.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.db.EnginePersistenceLogger;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+
+/**
+ * Stream of the content of a byte array which is fetched from the database when it is
+ * read for the first time. The content is streamed from the result set without loading
+ * it into memory (as far as the JDBC driver allows).
+ *
+ * <p>Within a command of the same process engine, the connection of the command is used,
+ * so the stream must be consumed before the command completes. Outside of such a command,
+ * a connection of the data source is held until the stream is read to its end or closed.
+ * If a stream becomes unreachable before, its connection is released in the background.</p>
+ */
+public class LazyByteArrayInputStream extends InputStream {
+
+  protected static final EnginePersistenceLogger LOG = ProcessEngineLogger.PERSISTENCE_LOGGER;
+
+  protected static final ReferenceQueue<LazyByteArrayInputStream> UNREACHABLE_STREAMS = new ReferenceQueue<LazyByteArrayInputStream>();
+
+  /** keeps the resources of open streams with their own connection reachable until they are released */
+  protected static final Set<StreamResources> OPEN_RESOURCES = Collections.newSetFromMap(new ConcurrentHashMap<StreamResources, Boolean>());
+
+  protected static Thread resourceReleaser;
+
+  protected final ProcessEngineConfigurationImpl processEngineConfiguration;
+  protected final String byteArrayId;
+
+  protected StreamResources resources;
+  protected InputStream content;
+  protected boolean isClosed;
+
+  public LazyByteArrayInputStream(ProcessEngineConfigurationImpl processEngineConfiguration, String byteArrayId) {
+    this.processEngineConfiguration = processEngineConfiguration;
+    this.byteArrayId = byteArrayId;
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (isClosed) {
+      return -1;
+    }
+
+    int result = getContent().read();
+    if (result == -1) {
+      close();
+    }
+    return result;
+  }
+
+  @Override
+  public int read(byte[] buffer, int offset, int length) throws IOException {
+    if (isClosed) {
+      return -1;
+    }
+
+    int result = getContent().read(buffer, offset, length);
+    if (result == -1) {
+      close();
+    }
+    return result;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    if (isClosed) {
+      return 0;
+    }
+    return getContent().skip(n);
+  }
+
+  @Override
+  public int available() throws IOException {
+    if (isClosed || content == null) {
+      return 0;
+    }
+    return content.available();
+  }
+
+  @Override
+  public void close() throws IOException {
+    isClosed = true;
+
+    InputStream content = this.content;
+    StreamResources resources = this.resources;
+    this.content = null;
+    this.resources = null;
+
+    try {
+      if (content != null) {
+        content.close();
+      }
+
+    } finally {
+      if (resources != null) {
+        try {
+          resources.release();
+
+        } catch (SQLException e) {
+          throw new IOException(e);
+
+        }
+      }
+
+    }
+  }
+
+  protected InputStream getContent() throws IOException {
+    if (content == null) {
+      open();
+    }
+    return content;
+  }
+
+  protected void open() throws IOException {
+    CommandContext commandContext = Context.getCommandContext();
+    if (commandContext != null && Context.getProcessEngineConfiguration() == processEngineConfiguration) {
+      Connection connection = commandContext.getDbSqlSession().getSqlSession().getConnection();
+      resources = new StreamResources(this, null, byteArrayId, connection, false);
+    }
+    else {
+      openOwnConnection();
+    }
+
+    openContent();
+  }
+
+  protected void openOwnConnection() throws IOException {
+    Connection connection;
+    try {
+      connection = processEngineConfiguration.getDataSource().getConnection();
+
+    } catch (SQLException e) {
+      throw LOG.byteArrayStreamException(byteArrayId, e);
+
+    }
+
+    resources = new StreamResources(this, UNREACHABLE_STREAMS, byteArrayId, connection, true);
+    OPEN_RESOURCES.add(resources);
+    ensureResourceReleaserStarted();
+  }
+
+  protected void openContent() throws IOException {
+    try {
+      resources.statement = prepareSelect(resources.connection);
+      resources.resultSet = resources.statement.executeQuery();
+
+      if (!resources.resultSet.next()) {
+        close();
+        throw LOG.byteArrayNotFoundException(byteArrayId);
+      }
+
+      InputStream bytes = resources.resultSet.getBinaryStream(1);
+      if (bytes == null) {
+        bytes = new ByteArrayInputStream(new byte[0]);
+      }
+      content = ByteArrayCompression.decompress(bytes);
+
+    } catch (SQLException e) {
+      close();
+      throw LOG.byteArrayStreamException(byteArrayId, e);
+
+    } catch (IOException e) {
+      close();
+      throw e;
+
+    }
+  }
+
+  protected PreparedStatement prepareSelect(Connection connection) throws SQLException {
+    String tablePrefix = processEngineConfiguration.getDatabaseTablePrefix();
+    PreparedStatement select = connection.prepareStatement("select BYTES_ from " + tablePrefix + "ACT_GE_BYTEARRAY where ID_ = ?");
+    select.setString(1, byteArrayId);
+    return select;
+  }
+
+  protected static synchronized void ensureResourceReleaserStarted() {
+    if (resourceReleaser == null) {
+      resourceReleaser = new Thread(new UnreachableStreamReleaser(), "camunda-byte-array-stream-releaser");
+      resourceReleaser.setDaemon(true);
+      resourceReleaser.start();
+    }
+  }
+
+  /**
+   * The statement, result set and connection of a stream. They are released when the
+   * stream is closed, or, for a connection of the stream's own, when the stream has become
+   * unreachable without being closed.
+   */
+  protected static class StreamResources extends PhantomReference<LazyByteArrayInputStream> {
+
+    protected final String byteArrayId;
+    protected final Connection connection;
+    protected final boolean isOwnConnection;
+
+    protected PreparedStatement statement;
+    protected ResultSet resultSet;
+    protected boolean isReleased;
+
+    public StreamResources(LazyByteArrayInputStream stream, ReferenceQueue<LazyByteArrayInputStream> queue,
+        String byteArrayId, Connection connection, boolean isOwnConnection) {
+      super(stream, queue);
+      this.byteArrayId = byteArrayId;
+      this.connection = connection;
+      this.isOwnConnection = isOwnConnection;
+    }
+
+    public synchronized void release() throws SQLException {
+      if (isReleased) {
+        return;
+      }
+      isReleased = true;
+      clear();
+      OPEN_RESOURCES.remove(this);
+
+      try {
+        if (resultSet != null) {
+          resultSet.close();
+        }
+        if (statement != null) {
+          statement.close();
+        }
+
+      } finally {
+        if (isOwnConnection) {
+          connection.close();
+        }
+
+      }
+    }
+
+  }
+
+  protected static class UnreachableStreamReleaser implements Runnable {
+
+    public void run() {
+      while (true) {
+        StreamResources resources;
+        try {
+          resources = (StreamResources) UNREACHABLE_STREAMS.remove();
+
+        } catch (InterruptedException e) {
+          return;
+
+        }
+
+        LOG.unclosedByteArrayStreamReleased(resources.byteArrayId);
+        try {
+          resources.release();
+
+        } catch (Exception e) {
+          LOG.unclosedByteArrayStreamReleaseFailed(resources.byteArrayId, e);
+
+        }
+      }
+    }
+
+  }
+
+}
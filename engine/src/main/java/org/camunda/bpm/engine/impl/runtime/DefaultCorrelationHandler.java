@@ -28,6 +28,7 @@ import org.camunda.bpm.engine.impl.cmd.CommandLogger;
 import org.camunda.bpm.engine.impl.event.EventType;
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
 import org.camunda.bpm.engine.impl.persistence.deploy.cache.DeploymentCache;
+import org.camunda.bpm.engine.impl.persistence.entity.CorrelationKeyManager;
 import org.camunda.bpm.engine.impl.persistence.entity.EventSubscriptionEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.EventSubscriptionManager;
 import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
@@ -87,7 +88,11 @@ public class DefaultCorrelationHandler implements CorrelationHandler {
     Map<String, Object> correlationKeys = correlationSet.getCorrelationKeys();
     if (correlationKeys != null) {
       for (Map.Entry<String, Object> correlationKey : correlationKeys.entrySet()) {
-        query.processVariableValueEquals(correlationKey.getKey(), correlationKey.getValue());
+        if (CorrelationKeyManager.isIndexed(correlationKey.getKey(), correlationKey.getValue())) {
+          query.correlationKeyEquals(correlationKey.getKey(), (String) correlationKey.getValue());
+        } else {
+          query.processVariableValueEquals(correlationKey.getKey(), correlationKey.getValue());
+        }
       }
     }
 
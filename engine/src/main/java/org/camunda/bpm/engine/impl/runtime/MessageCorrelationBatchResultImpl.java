@@ -0,0 +1,62 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.runtime;
+
+import org.camunda.bpm.engine.runtime.MessageCorrelationBatchResult;
+import org.camunda.bpm.engine.runtime.MessageCorrelationResult;
+
+public class MessageCorrelationBatchResultImpl implements MessageCorrelationBatchResult {
+
+  protected final String messageName;
+  protected final MessageCorrelationResult correlationResult;
+  protected final RuntimeException exception;
+
+  protected MessageCorrelationBatchResultImpl(String messageName, MessageCorrelationResult correlationResult, RuntimeException exception) {
+    this.messageName = messageName;
+    this.correlationResult = correlationResult;
+    this.exception = exception;
+  }
+
+  public static MessageCorrelationBatchResultImpl correlated(String messageName, MessageCorrelationResult correlationResult) {
+    return new MessageCorrelationBatchResultImpl(messageName, correlationResult, null);
+  }
+
+  public static MessageCorrelationBatchResultImpl failed(String messageName, RuntimeException exception) {
+    return new MessageCorrelationBatchResultImpl(messageName, null, exception);
+  }
+
+  @Override
+  public String getMessageName() {
+    return messageName;
+  }
+
+  @Override
+  public boolean isSuccessful() {
+    return exception == null;
+  }
+
+  @Override
+  public MessageCorrelationResult getCorrelationResult() {
+    return correlationResult;
+  }
+
+  @Override
+  public RuntimeException getException() {
+    return exception;
+  }
+
+}
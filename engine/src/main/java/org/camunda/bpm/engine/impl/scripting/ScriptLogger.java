@@ -39,4 +39,15 @@ public class ScriptLogger extends ProcessEngineLogger {
         "001", "Evaluating non-compiled script {}", scriptSource);
   }
 
+  public void warnScriptEnginePoolExhausted(String language, int poolSize, long maxWait) {
+    logWarn(
+        "003", "All {} script engines of the pool for script language '{}' were in use for {} ms. "
+            + "Evaluating the script with a script engine which is not pooled.", poolSize, language, maxWait);
+  }
+
+  public void warnScriptEnginePoolWarmUpFailed(String language, Exception cause) {
+    logWarn(
+        "004", "Unable to warm up the script engine pool for script language '{}': {}", language, cause.getMessage(), cause);
+  }
+
 }
@@ -29,6 +29,7 @@ import org.camunda.bpm.engine.delegate.VariableScope;
 import org.camunda.bpm.engine.impl.ProcessEngineLogger;
 import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
 import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.management.Metrics;
 
 /**
  * A script which is provided as source code.
@@ -61,15 +62,39 @@ public class SourceExecutableScript extends CompiledExecutableScript {
       return super.evaluate(engine, variableScope, bindings);
     }
     else {
-      try {
-        return evaluateScript(engine, bindings);
-      } catch (ScriptException e) {
-        if (e.getCause() instanceof BpmnError) {
-          throw (BpmnError) e.getCause();
-        }
-        String activityIdMessage = getActivityIdExceptionMessage(variableScope);
-        throw new ScriptEvaluationException("Unable to evaluate script" + activityIdMessage + ":" + e.getMessage(), e);
+      return evaluateSource(engine, variableScope, bindings);
+    }
+  }
+
+  /**
+   * <p>Evaluates the script using the provided engine, bindings and compilation of the script
+   * instead of the compilation cached by this script. Script engines which are not thread-safe
+   * use this to evaluate their own compilation of the script.</p>
+   *
+   * @param scriptEngine the script engine to use for evaluating the script.
+   * @param compiledScript the compilation of the script or null to evaluate the script source.
+   * @param variableScope the variable scope of the execution
+   * @param bindings the bindings to use for evaluating the script.
+   * @return the result of the script evaluation
+   */
+  public Object execute(ScriptEngine scriptEngine, CompiledScript compiledScript, VariableScope variableScope, Bindings bindings) {
+    if (compiledScript != null) {
+      return evaluateCompiledScript(compiledScript, variableScope, bindings);
+    }
+    else {
+      return evaluateSource(scriptEngine, variableScope, bindings);
+    }
+  }
+
+  protected Object evaluateSource(ScriptEngine engine, VariableScope variableScope, Bindings bindings) {
+    try {
+      return evaluateScript(engine, bindings);
+    } catch (ScriptException e) {
+      if (e.getCause() instanceof BpmnError) {
+        throw (BpmnError) e.getCause();
       }
+      String activityIdMessage = getActivityIdExceptionMessage(variableScope);
+      throw new ScriptEvaluationException("Unable to evaluate script" + activityIdMessage + ":" + e.getMessage(), e);
     }
   }
 
@@ -106,6 +131,11 @@ public class SourceExecutableScript extends CompiledExecutableScript {
 
         LOG.debugCompiledScriptUsing(language);
 
+        ProcessEngineConfigurationImpl processEngineConfiguration = Context.getProcessEngineConfiguration();
+        if (processEngineConfiguration != null && processEngineConfiguration.isMetricsEnabled()) {
+          processEngineConfiguration.getMetricsRegistry().markOccurrence(Metrics.SCRIPT_COMPILATIONS);
+        }
+
         return compiledScript;
 
       } catch (ScriptException e) {
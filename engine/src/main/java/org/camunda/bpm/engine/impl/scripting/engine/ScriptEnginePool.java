@@ -0,0 +1,279 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.scripting.engine;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.script.Bindings;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.delegate.VariableScope;
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.scripting.ExecutableScript;
+import org.camunda.bpm.engine.impl.scripting.ScriptLogger;
+import org.camunda.bpm.engine.impl.scripting.SourceExecutableScript;
+import org.camunda.bpm.engine.management.Metrics;
+
+/**
+ * <p>A bounded pool of {@link ScriptEngine ScriptEngines} of one script language
+ * which are not thread-safe.</p>
+ *
+ * <p>A script engine borrowed from the pool is used by a single thread until it is
+ * returned. If all script engines are in use, the borrowing thread waits up to
+ * {@link #maxWait} milliseconds for a script engine to be returned. If none is
+ * returned in time, the script is evaluated with a new script engine which is not
+ * pooled, so that scripts which trigger the evaluation of further scripts on the same
+ * thread cannot exhaust the pool.</p>
+ *
+ * <p>Each pooled script engine keeps its own compilation of the scripts it
+ * evaluated, since a {@link CompiledScript} can only be evaluated by the script
+ * engine which compiled it. The script engines of a pool are created by the same
+ * script engine factory, which allows engines like GraalJS to share their
+ * code cache between the script engines of the pool.</p>
+ */
+public class ScriptEnginePool {
+
+  private final static ScriptLogger LOG = ProcessEngineLogger.SCRIPT_LOGGER;
+
+  protected final ScriptEngineResolver scriptEngineResolver;
+  protected final String language;
+  protected final int maxSize;
+  protected final long maxWait;
+
+  protected final AtomicInteger size = new AtomicInteger();
+  protected final BlockingQueue<ScriptEngine> idleScriptEngines = new LinkedBlockingQueue<ScriptEngine>();
+
+  /** the compiled scripts per pooled script engine; only accessed by the thread which borrowed the engine */
+  protected final Map<ScriptEngine, Map<SourceExecutableScript, CompiledScript>> compiledScripts =
+      Collections.synchronizedMap(new IdentityHashMap<ScriptEngine, Map<SourceExecutableScript, CompiledScript>>());
+
+  public ScriptEnginePool(ScriptEngineResolver scriptEngineResolver, String language, int maxSize, long maxWait) {
+    this.scriptEngineResolver = scriptEngineResolver;
+    this.language = language;
+    this.maxSize = Math.max(1, maxSize);
+    this.maxWait = maxWait;
+  }
+
+  /**
+   * Borrows a script engine from the pool. The script engine must be returned to the
+   * pool using {@link #returnScriptEngine(ScriptEngine)} once the script is evaluated.
+   *
+   * @return a script engine which is not used by other threads until it is returned
+   */
+  public ScriptEngine borrowScriptEngine() {
+    ScriptEngine scriptEngine = idleScriptEngines.poll();
+
+    if (scriptEngine == null) {
+      scriptEngine = createPooledScriptEngine();
+    }
+
+    if (scriptEngine == null) {
+      markOccurrence(Metrics.SCRIPT_ENGINE_POOL_WAITS);
+      try {
+        scriptEngine = idleScriptEngines.poll(maxWait, TimeUnit.MILLISECONDS);
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    if (scriptEngine == null) {
+      LOG.warnScriptEnginePoolExhausted(language, maxSize, maxWait);
+      scriptEngine = createScriptEngine();
+    }
+
+    return scriptEngine;
+  }
+
+  /**
+   * Returns a script engine to the pool. Script engines which were created because
+   * the pool was exhausted are discarded.
+   */
+  public void returnScriptEngine(ScriptEngine scriptEngine) {
+    if (isPooled(scriptEngine)) {
+      idleScriptEngines.offer(scriptEngine);
+    }
+  }
+
+  /**
+   * Executes the script with a script engine borrowed from this pool. Pooled script
+   * engines compile each script at most once and evaluate their own compilation
+   * afterwards.
+   */
+  public Object execute(ExecutableScript script, ScriptEngine scriptEngine, VariableScope scope, Bindings bindings) {
+    if (script instanceof SourceExecutableScript && isCompilationEnabled()) {
+      SourceExecutableScript sourceScript = (SourceExecutableScript) script;
+
+      if (sourceScript.getScriptSource() != null) {
+        CompiledScript compiledScript = null;
+
+        Map<SourceExecutableScript, CompiledScript> engineScripts = compiledScripts.get(scriptEngine);
+        if (engineScripts != null) {
+          compiledScript = getCompiledScript(engineScripts, sourceScript, scriptEngine);
+        }
+
+        return sourceScript.execute(scriptEngine, compiledScript, scope, bindings);
+      }
+    }
+
+    return script.execute(scriptEngine, scope, bindings);
+  }
+
+  /**
+   * Warms up the pool for the given script: makes sure that the pool contains a script
+   * engine and compiles the script with the idle script engines of the pool.
+   */
+  public void warmUp(ExecutableScript script) {
+    ScriptEngine scriptEngine = idleScriptEngines.poll();
+    if (scriptEngine == null) {
+      scriptEngine = createPooledScriptEngine();
+    }
+    if (scriptEngine == null) {
+      // all engines are in use, the script is compiled when it is evaluated
+      return;
+    }
+
+    try {
+      if (script instanceof SourceExecutableScript && isCompilationEnabled()) {
+        SourceExecutableScript sourceScript = (SourceExecutableScript) script;
+
+        if (sourceScript.getScriptSource() != null) {
+          getCompiledScript(compiledScripts.get(scriptEngine), sourceScript, scriptEngine);
+        }
+      }
+    }
+    finally {
+      returnScriptEngine(scriptEngine);
+    }
+  }
+
+  protected CompiledScript getCompiledScript(Map<SourceExecutableScript, CompiledScript> engineScripts,
+      SourceExecutableScript script, ScriptEngine scriptEngine) {
+
+    if (!engineScripts.containsKey(script)) {
+      // scripts which cannot be compiled are remembered as well
+      engineScripts.put(script, script.compile(scriptEngine, language, script.getScriptSource()));
+    }
+    return engineScripts.get(script);
+  }
+
+  /**
+   * Adds an idle script engine to the pool, unless the pool is full.
+   *
+   * @return true if the script engine was added to the pool
+   */
+  protected boolean addScriptEngine(ScriptEngine scriptEngine) {
+    if (!reserve()) {
+      return false;
+    }
+    compiledScripts.put(scriptEngine, new WeakHashMap<SourceExecutableScript, CompiledScript>());
+    idleScriptEngines.offer(scriptEngine);
+    return true;
+  }
+
+  protected ScriptEngine createPooledScriptEngine() {
+    if (!reserve()) {
+      return null;
+    }
+
+    ScriptEngine scriptEngine = null;
+    try {
+      scriptEngine = createScriptEngine();
+    }
+    finally {
+      if (scriptEngine == null) {
+        size.decrementAndGet();
+      }
+    }
+
+    compiledScripts.put(scriptEngine, new WeakHashMap<SourceExecutableScript, CompiledScript>());
+    return scriptEngine;
+  }
+
+  protected boolean reserve() {
+    int currentSize;
+    do {
+      currentSize = size.get();
+      if (currentSize >= maxSize) {
+        return false;
+      }
+    } while (!size.compareAndSet(currentSize, currentSize + 1));
+    return true;
+  }
+
+  protected ScriptEngine createScriptEngine() {
+    ScriptEngine scriptEngine = scriptEngineResolver.createScriptEngine(language);
+    if (scriptEngine == null) {
+      throw new ProcessEngineException("Can't create script engine for '" + language + "'");
+    }
+    return scriptEngine;
+  }
+
+  protected boolean isPooled(ScriptEngine scriptEngine) {
+    return compiledScripts.containsKey(scriptEngine);
+  }
+
+  protected boolean isCompilationEnabled() {
+    ProcessEngineConfigurationImpl processEngineConfiguration = Context.getProcessEngineConfiguration();
+    return processEngineConfiguration != null && processEngineConfiguration.isEnableScriptCompilation();
+  }
+
+  protected void markOccurrence(String name) {
+    ProcessEngineConfigurationImpl processEngineConfiguration = Context.getProcessEngineConfiguration();
+    if (processEngineConfiguration != null && processEngineConfiguration.isMetricsEnabled()) {
+      processEngineConfiguration.getMetricsRegistry().markOccurrence(name);
+    }
+  }
+
+  public String getLanguage() {
+    return language;
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  public long getMaxWait() {
+    return maxWait;
+  }
+
+  /**
+   * @return the number of pooled script engines, including the ones currently in use
+   */
+  public int getSize() {
+    return size.get();
+  }
+
+  /**
+   * @return the number of pooled script engines which are currently not in use
+   */
+  public int getIdleSize() {
+    return idleScriptEngines.size();
+  }
+
+}
@@ -18,6 +18,7 @@ package org.camunda.bpm.engine.impl.scripting.engine;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
@@ -30,10 +31,14 @@ import javax.script.ScriptEngineManager;
  */
 public class ScriptEngineResolver {
 
+  public static final String GRAAL_JS_ENGINE_NAME = "Graal.js";
+
   protected final ScriptEngineManager scriptEngineManager;
 
   protected Map<String, ScriptEngine> cachedEngines = new HashMap<String, ScriptEngine>();
 
+  protected Map<String, ScriptEnginePool> scriptEnginePools = new ConcurrentHashMap<String, ScriptEnginePool>();
+
   public ScriptEngineResolver(ScriptEngineManager scriptEngineManager) {
     this.scriptEngineManager = scriptEngineManager;
   }
@@ -61,18 +66,10 @@ public class ScriptEngineResolver {
       scriptEngine = cachedEngines.get(language);
 
       if(scriptEngine == null) {
-        scriptEngine = scriptEngineManager.getEngineByName(language);
-
-        if(scriptEngine != null) {
-
-          if(ScriptingEngines.GROOVY_SCRIPTING_LANGUAGE.equals(language)) {
-            configureGroovyScriptEngine(scriptEngine);
-          }
-
-          if(isCachable(scriptEngine)) {
-            cachedEngines.put(language, scriptEngine);
-          }
+        scriptEngine = createScriptEngine(language);
 
+        if(scriptEngine != null && isCachable(scriptEngine)) {
+          cachedEngines.put(language, scriptEngine);
         }
 
       }
@@ -84,6 +81,62 @@ public class ScriptEngineResolver {
     return scriptEngine;
   }
 
+  /**
+   * Creates a new, configured script engine for the given language.
+   *
+   * @param language the language (such as 'groovy' for the script engine)
+   * @return the new engine or null if no script engine can be created for the given language
+   */
+  public ScriptEngine createScriptEngine(String language) {
+    ScriptEngine scriptEngine = scriptEngineManager.getEngineByName(language);
+
+    if(scriptEngine != null) {
+
+      if(ScriptingEngines.GROOVY_SCRIPTING_LANGUAGE.equals(language)) {
+        configureGroovyScriptEngine(scriptEngine);
+      }
+
+      if(isGraalJsScriptEngine(scriptEngine)) {
+        configureGraalJsScriptEngine(scriptEngine);
+      }
+
+    }
+
+    return scriptEngine;
+  }
+
+  /**
+   * Returns the pool of script engines for the given language. Only script engines which
+   * cannot be cached are pooled.
+   *
+   * @param language the language (such as 'groovy' for the script engine)
+   * @param maxSize the maximum number of script engines of a new pool
+   * @param maxWait the time in milliseconds to wait for a script engine of a new pool if all are in use
+   * @return the pool or null if the script engines of the given language are cached or no script
+   * engine can be created for the given language
+   */
+  public ScriptEnginePool getScriptEnginePool(String language, int maxSize, long maxWait) {
+    ScriptEnginePool scriptEnginePool = scriptEnginePools.get(language);
+
+    if (scriptEnginePool == null && !cachedEngines.containsKey(language)) {
+      synchronized (scriptEnginePools) {
+        scriptEnginePool = scriptEnginePools.get(language);
+
+        if (scriptEnginePool == null) {
+          ScriptEngine scriptEngine = getScriptEngine(language, true);
+
+          if (scriptEngine != null && !isCachable(scriptEngine)) {
+            scriptEnginePool = new ScriptEnginePool(this, language, maxSize, maxWait);
+            scriptEnginePool.addScriptEngine(scriptEngine);
+            scriptEnginePools.put(language, scriptEnginePool);
+          }
+        }
+      }
+    }
+
+    return scriptEnginePool;
+  }
+
   /**
    * Allows checking whether the script engine can be cached.
    *
@@ -106,5 +159,26 @@ public class ScriptEngineResolver {
     scriptEngine.getContext().setAttribute("#jsr223.groovy.engine.keep.globals", "weak", ScriptContext.ENGINE_SCOPE);
   }
 
+  /**
+   * Allows checking whether the script engine is a GraalJS script engine.
+   *
+   * @param scriptEngine the script engine to check.
+   * @return true if the script engine is provided by GraalJS.
+   */
+  protected boolean isGraalJsScriptEngine(ScriptEngine scriptEngine) {
+    return GRAAL_JS_ENGINE_NAME.equalsIgnoreCase(scriptEngine.getFactory().getEngineName());
+  }
+
+  /**
+   * Allows providing custom configuration for the GraalJS script engine.
+   * @param scriptEngine the GraalJS script engine to configure.
+   */
+  protected void configureGraalJsScriptEngine(ScriptEngine scriptEngine) {
+
+    // make sure scripts can access the variables and beans passed as java objects
+    scriptEngine.getContext().setAttribute("polyglot.js.allowHostAccess", true, ScriptContext.ENGINE_SCOPE);
+    scriptEngine.getContext().setAttribute("polyglot.js.allowHostClassLookup", true, ScriptContext.ENGINE_SCOPE);
+  }
+
 
 }
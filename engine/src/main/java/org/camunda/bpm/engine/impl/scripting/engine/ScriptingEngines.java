@@ -42,6 +42,12 @@ import org.camunda.bpm.engine.impl.context.Context;
  * the class will attempt to cache 'cachable' script engines. We assume a {@link ScriptEngine} is
  * 'cachable' if it declares to be threadsafe (see {@link #isCachable(ScriptEngine)})</p>
  *
+ * <p><strong>Pooling script engines:</strong>
+ * If the configuration option {@link #enableScriptEnginePooling} is set to true as well, script engines
+ * which are not 'cachable' are taken from a bounded {@link ScriptEnginePool} per language and process
+ * application instead of creating a new script engine for each script evaluation
+ * (see {@link #getScriptEnginePool(String)}).</p>
+ *
  * <p><strong>Custom Bindings:</strong> this class supports custom {@link Bindings}
  * implementations through the {@link #scriptBindingsFactory}. See {@link ScriptBindingsFactory}.</p>
  * </p>
@@ -59,6 +65,10 @@ public class ScriptingEngines implements DmnScriptEngineResolver {
 
   protected boolean enableScriptEngineCaching = true;
 
+  protected boolean enableScriptEnginePooling = false;
+  protected int scriptEnginePoolSize = 8;
+  protected long scriptEnginePoolMaxWait = 1000;
+
   public ScriptingEngines(ScriptBindingsFactory scriptBindingsFactory) {
     this(new ScriptEngineManager());
     this.scriptBindingsFactory = scriptBindingsFactory;
@@ -76,6 +86,30 @@ public class ScriptingEngines implements DmnScriptEngineResolver {
     this.enableScriptEngineCaching = enableScriptEngineCaching;
   }
 
+  public boolean isEnableScriptEnginePooling() {
+    return enableScriptEnginePooling;
+  }
+
+  public void setEnableScriptEnginePooling(boolean enableScriptEnginePooling) {
+    this.enableScriptEnginePooling = enableScriptEnginePooling;
+  }
+
+  public int getScriptEnginePoolSize() {
+    return scriptEnginePoolSize;
+  }
+
+  public void setScriptEnginePoolSize(int scriptEnginePoolSize) {
+    this.scriptEnginePoolSize = scriptEnginePoolSize;
+  }
+
+  public long getScriptEnginePoolMaxWait() {
+    return scriptEnginePoolMaxWait;
+  }
+
+  public void setScriptEnginePoolMaxWait(long scriptEnginePoolMaxWait) {
+    this.scriptEnginePoolMaxWait = scriptEnginePoolMaxWait;
+  }
+
   public ScriptEngineManager getScriptEngineManager() {
     return scriptEngineResolver.getScriptEngineManager();
   }
@@ -131,6 +165,54 @@ public class ScriptingEngines implements DmnScriptEngineResolver {
     }
   }
 
+  /**
+   * Returns the pool of script engines for the given language. Resolves the pool of the current
+   * process application if the process application provides a script engine for the language.
+   *
+   * @param language the name of the script language to lookup the pool for
+   * @return the pool or null if pooling is disabled, the script engine of the language is cached
+   * or no script engine can be found for the language.
+   */
+  public ScriptEnginePool getScriptEnginePool(String language) {
+    if (!enableScriptEnginePooling || !enableScriptEngineCaching) {
+      return null;
+    }
+
+    if (language != null) {
+      language = language.toLowerCase();
+    }
+
+    ProcessApplicationReference pa = Context.getCurrentProcessApplication();
+    ProcessEngineConfigurationImpl config = Context.getProcessEngineConfiguration();
+
+    if (config.isEnableFetchScriptEngineFromProcessApplication()) {
+      if(pa != null) {
+        ScriptEnginePool pool = getPaScriptEnginePool(language, pa);
+        if (pool != null || getPaScriptEngine(language, pa) != null) {
+          return pool;
+        }
+      }
+    }
+
+    return scriptEngineResolver.getScriptEnginePool(language, scriptEnginePoolSize, scriptEnginePoolMaxWait);
+  }
+
+  protected ScriptEnginePool getPaScriptEnginePool(String language, ProcessApplicationReference pa) {
+    try {
+      ProcessApplicationInterface processApplication = pa.getProcessApplication();
+      ProcessApplicationInterface rawObject = processApplication.getRawObject();
+
+      if (rawObject instanceof AbstractProcessApplication) {
+        AbstractProcessApplication abstractProcessApplication = (AbstractProcessApplication) rawObject;
+        return abstractProcessApplication.getScriptEnginePoolForName(language, scriptEnginePoolSize, scriptEnginePoolMaxWait);
+      }
+      return null;
+    }
+    catch (ProcessApplicationUnavailableException e) {
+      throw new ProcessEngineException("Process Application is unavailable.", e);
+    }
+  }
+
   protected ScriptEngine getGlobalScriptEngine(String language) {
 
     ScriptEngine scriptEngine = scriptEngineResolver.getScriptEngine(language, enableScriptEngineCaching);
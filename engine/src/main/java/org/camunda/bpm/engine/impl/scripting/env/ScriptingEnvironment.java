@@ -30,10 +30,13 @@ import org.camunda.bpm.application.ProcessApplicationReference;
 import org.camunda.bpm.application.ProcessApplicationUnavailableException;
 import org.camunda.bpm.engine.ProcessEngineException;
 import org.camunda.bpm.engine.delegate.VariableScope;
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
 import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
 import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.scripting.ExecutableScript;
 import org.camunda.bpm.engine.impl.scripting.ScriptFactory;
+import org.camunda.bpm.engine.impl.scripting.ScriptLogger;
+import org.camunda.bpm.engine.impl.scripting.engine.ScriptEnginePool;
 import org.camunda.bpm.engine.impl.scripting.engine.ScriptingEngines;
 
 /**
@@ -51,6 +54,8 @@ import org.camunda.bpm.engine.impl.scripting.engine.ScriptingEngines;
  */
 public class ScriptingEnvironment {
 
+  private final static ScriptLogger LOG = ProcessEngineLogger.SCRIPT_LOGGER;
+
   /** the cached environment scripts per script language */
   protected Map<String, List<ExecutableScript>> env = new HashMap<String, List<ExecutableScript>>();
 
@@ -78,6 +83,12 @@ public class ScriptingEnvironment {
    */
   public Object execute(ExecutableScript script, VariableScope scope) {
 
+    // use a pooled script engine if the engines of the language are pooled
+    ScriptEnginePool scriptEnginePool = scriptingEngines.getScriptEnginePool(script.getLanguage());
+    if (scriptEnginePool != null) {
+      return execute(script, scope, scriptEnginePool);
+    }
+
     // get script engine
     ScriptEngine scriptEngine = scriptingEngines.getScriptEngineForLanguage(script.getLanguage());
 
@@ -101,6 +112,43 @@ public class ScriptingEnvironment {
     return script.execute(scriptEngine, scope, bindings);
   }
 
+  protected Object execute(ExecutableScript script, VariableScope scope, ScriptEnginePool scriptEnginePool) {
+
+    ScriptEngine scriptEngine = scriptEnginePool.borrowScriptEngine();
+    try {
+      Bindings bindings = scriptingEngines.createBindings(scriptEngine, scope);
+
+      List<ExecutableScript> envScripts = getEnvScripts(script.getLanguage());
+      for (ExecutableScript envScript : envScripts) {
+        scriptEnginePool.execute(envScript, scriptEngine, scope, bindings);
+      }
+
+      return scriptEnginePool.execute(script, scriptEngine, scope, bindings);
+    }
+    finally {
+      scriptEnginePool.returnScriptEngine(scriptEngine);
+    }
+  }
+
+  /**
+   * Warms up the script engine pool for a given script, e.g. when the script is deployed.
+   * Does nothing if the script engines of the script language are not pooled. Failures
+   * are logged, the script fails when it is executed instead.
+   *
+   * @param script the {@link ExecutableScript} to prepare the execution of
+   */
+  public void warmUp(ExecutableScript script) {
+    try {
+      ScriptEnginePool scriptEnginePool = scriptingEngines.getScriptEnginePool(script.getLanguage());
+      if (scriptEnginePool != null) {
+        scriptEnginePool.warmUp(script);
+      }
+    }
+    catch (RuntimeException e) {
+      LOG.warnScriptEnginePoolWarmUpFailed(script.getLanguage(), e);
+    }
+  }
+
   protected Map<String, List<ExecutableScript>> getEnv(String language) {
     ProcessEngineConfigurationImpl config = Context.getProcessEngineConfiguration();
     ProcessApplicationReference processApplication = Context.getCurrentProcessApplication();
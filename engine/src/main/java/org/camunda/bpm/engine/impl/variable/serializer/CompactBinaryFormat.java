@@ -0,0 +1,571 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.variable.serializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compact, self-describing binary encoding of object trees based on a subset of
+ * CBOR (RFC 8949).
+ *
+ * <p>Supported values are <code>null</code>, {@link Boolean}, {@link Byte}, {@link Short},
+ * {@link Integer}, {@link Long}, {@link Float}, {@link Double}, {@link String},
+ * <code>byte[]</code>, {@link Date}, the collections {@link ArrayList}, {@link LinkedList},
+ * {@link HashSet}, {@link LinkedHashSet} and {@link TreeSet} as well as the maps
+ * {@link LinkedHashMap}, {@link HashMap} and {@link TreeMap} with string keys (nested
+ * arbitrarily). Sorted collections and maps are supported with their natural ordering only.
+ * Values are read back with exactly the type they were written with: types which the
+ * plain CBOR encoding does not distinguish are marked by a tag.</p>
+ *
+ * <p>Every payload starts with a two byte header: the format version and a flags byte.
+ * If the encoded value exceeds the compression threshold and compression reduces its
+ * size, the body is deflated and prefixed with its uncompressed length.</p>
+ */
+public class CompactBinaryFormat {
+
+  public static final byte FORMAT_VERSION = 1;
+
+  public static final byte FLAG_COMPRESSED = 0x01;
+
+  protected static final int MAJOR_TYPE_UNSIGNED = 0;
+  protected static final int MAJOR_TYPE_NEGATIVE = 1;
+  protected static final int MAJOR_TYPE_BYTES = 2;
+  protected static final int MAJOR_TYPE_TEXT = 3;
+  protected static final int MAJOR_TYPE_ARRAY = 4;
+  protected static final int MAJOR_TYPE_MAP = 5;
+  protected static final int MAJOR_TYPE_TAG = 6;
+  protected static final int MAJOR_TYPE_SIMPLE = 7;
+
+  protected static final int SIMPLE_FALSE = 20;
+  protected static final int SIMPLE_TRUE = 21;
+  protected static final int SIMPLE_NULL = 22;
+  protected static final int SIMPLE_FLOAT = 26;
+  protected static final int SIMPLE_DOUBLE = 27;
+
+  /** tag for dates, the tagged value is the number of milliseconds since the epoch */
+  protected static final long TAG_EPOCH_MILLIS = 1001;
+
+  /**
+   * tags for integral numbers which are not read back as {@link Integer} otherwise;
+   * longs out of the integer range are read back as longs without a tag
+   */
+  protected static final long TAG_LONG = 1002;
+  protected static final long TAG_SHORT = 1003;
+  protected static final long TAG_BYTE = 1004;
+
+  /** tags for collections and maps; {@link ArrayList} and {@link LinkedHashMap} are not tagged */
+  protected static final long TAG_LINKED_LIST = 1010;
+  protected static final long TAG_HASH_SET = 1011;
+  protected static final long TAG_LINKED_HASH_SET = 1012;
+  protected static final long TAG_TREE_SET = 1013;
+  protected static final long TAG_HASH_MAP = 1020;
+  protected static final long TAG_TREE_MAP = 1021;
+
+  protected static final long NO_TAG = -1;
+
+  protected int compressionThreshold;
+
+  /**
+   * @param compressionThreshold encoded values of at least this size (in bytes) are
+   * compressed; a negative value disables compression
+   */
+  public CompactBinaryFormat(int compressionThreshold) {
+    this.compressionThreshold = compressionThreshold;
+  }
+
+  /**
+   * @return true if the value consists of supported values only, i.e. if it is
+   * read back with the same types as it is written
+   */
+  public boolean canEncode(Object value) {
+    if (value == null
+        || value instanceof Boolean
+        || value instanceof String
+        || value instanceof byte[]
+        || value.getClass() == Date.class
+        || isIntegral(value)
+        || value instanceof Double
+        || value instanceof Float) {
+      return true;
+    }
+
+    if (getCollectionTag(value) != null) {
+      for (Object element : (Collection<?>) value) {
+        if (!canEncode(element)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    if (getMapTag(value) != null) {
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        if (!(entry.getKey() instanceof String) || !canEncode(entry.getValue())) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    return false;
+  }
+
+  public byte[] encode(Object value) throws IOException {
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    writeValue(new DataOutputStream(body), value);
+    byte[] bodyBytes = body.toByteArray();
+
+    if (compressionThreshold >= 0 && bodyBytes.length >= compressionThreshold) {
+      byte[] compressed = deflate(bodyBytes);
+      if (compressed.length + 4 < bodyBytes.length) {
+        ByteArrayOutputStream result = new ByteArrayOutputStream(compressed.length + 6);
+        DataOutputStream out = new DataOutputStream(result);
+        out.writeByte(FORMAT_VERSION);
+        out.writeByte(FLAG_COMPRESSED);
+        out.writeInt(bodyBytes.length);
+        out.write(compressed);
+        return result.toByteArray();
+      }
+    }
+
+    byte[] result = new byte[bodyBytes.length + 2];
+    result[0] = FORMAT_VERSION;
+    result[1] = 0;
+    System.arraycopy(bodyBytes, 0, result, 2, bodyBytes.length);
+    return result;
+  }
+
+  public Object decode(byte[] bytes) throws IOException {
+    if (bytes.length < 2) {
+      throw new IOException("Invalid compact binary value: missing header");
+    }
+    if (bytes[0] != FORMAT_VERSION) {
+      throw new IOException("Unsupported compact binary format version " + bytes[0]);
+    }
+
+    byte[] body;
+    if ((bytes[1] & FLAG_COMPRESSED) != 0) {
+      int length = ((bytes[2] & 0xff) << 24) | ((bytes[3] & 0xff) << 16) | ((bytes[4] & 0xff) << 8) | (bytes[5] & 0xff);
+      body = inflate(bytes, 6, length);
+    } else {
+      body = new byte[bytes.length - 2];
+      System.arraycopy(bytes, 2, body, 0, body.length);
+    }
+
+    return readValue(new DataInputStream(new ByteArrayInputStream(body)));
+  }
+
+  /**
+   * @return true if the given bytes carry a compressed body
+   */
+  public static boolean isCompressed(byte[] bytes) {
+    return bytes.length > 1 && (bytes[1] & FLAG_COMPRESSED) != 0;
+  }
+
+  // encoding ////////////////////////////////////////
+
+  protected void writeValue(DataOutputStream out, Object value) throws IOException {
+    if (value == null) {
+      out.writeByte(MAJOR_TYPE_SIMPLE << 5 | SIMPLE_NULL);
+
+    } else if (value instanceof Boolean) {
+      out.writeByte(MAJOR_TYPE_SIMPLE << 5 | ((Boolean) value ? SIMPLE_TRUE : SIMPLE_FALSE));
+
+    } else if (isIntegral(value)) {
+      writeTag(out, getIntegralTag(value));
+      writeIntegral(out, ((Number) value).longValue());
+
+    } else if (value instanceof Float) {
+      out.writeByte(MAJOR_TYPE_SIMPLE << 5 | SIMPLE_FLOAT);
+      out.writeFloat((Float) value);
+
+    } else if (value instanceof Double) {
+      out.writeByte(MAJOR_TYPE_SIMPLE << 5 | SIMPLE_DOUBLE);
+      out.writeDouble((Double) value);
+
+    } else if (value instanceof String) {
+      byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+      writeHead(out, MAJOR_TYPE_TEXT, bytes.length);
+      out.write(bytes);
+
+    } else if (value instanceof byte[]) {
+      byte[] bytes = (byte[]) value;
+      writeHead(out, MAJOR_TYPE_BYTES, bytes.length);
+      out.write(bytes);
+
+    } else if (value.getClass() == Date.class) {
+      writeHead(out, MAJOR_TYPE_TAG, TAG_EPOCH_MILLIS);
+      writeIntegral(out, ((Date) value).getTime());
+
+    } else if (getCollectionTag(value) != null) {
+      Collection<?> collection = (Collection<?>) value;
+      writeTag(out, getCollectionTag(value));
+      writeHead(out, MAJOR_TYPE_ARRAY, collection.size());
+      for (Object element : collection) {
+        writeValue(out, element);
+      }
+
+    } else if (getMapTag(value) != null) {
+      Map<?, ?> map = (Map<?, ?>) value;
+      writeTag(out, getMapTag(value));
+      writeHead(out, MAJOR_TYPE_MAP, map.size());
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        writeValue(out, entry.getKey());
+        writeValue(out, entry.getValue());
+      }
+
+    } else {
+      throw new IOException("Unsupported value of type " + value.getClass().getName());
+
+    }
+  }
+
+  protected void writeIntegral(DataOutputStream out, long number) throws IOException {
+    if (number >= 0) {
+      writeHead(out, MAJOR_TYPE_UNSIGNED, number);
+    } else {
+      writeHead(out, MAJOR_TYPE_NEGATIVE, -1 - number);
+    }
+  }
+
+  protected void writeTag(DataOutputStream out, long tag) throws IOException {
+    if (tag != NO_TAG) {
+      writeHead(out, MAJOR_TYPE_TAG, tag);
+    }
+  }
+
+  protected void writeHead(DataOutputStream out, int majorType, long argument) throws IOException {
+    int type = majorType << 5;
+    if (argument < 24) {
+      out.writeByte(type | (int) argument);
+    } else if (argument <= 0xffL) {
+      out.writeByte(type | 24);
+      out.writeByte((int) argument);
+    } else if (argument <= 0xffffL) {
+      out.writeByte(type | 25);
+      out.writeShort((int) argument);
+    } else if (argument <= 0xffffffffL) {
+      out.writeByte(type | 26);
+      out.writeInt((int) argument);
+    } else {
+      out.writeByte(type | 27);
+      out.writeLong(argument);
+    }
+  }
+
+  // decoding ////////////////////////////////////////
+
+  protected Object readValue(DataInputStream in) throws IOException {
+    int initialByte = in.read();
+    if (initialByte < 0) {
+      throw new EOFException("Unexpected end of compact binary value");
+    }
+
+    int majorType = initialByte >>> 5;
+    int additionalInfo = initialByte & 0x1f;
+
+    if (majorType == MAJOR_TYPE_SIMPLE) {
+      switch (additionalInfo) {
+        case SIMPLE_FALSE: return Boolean.FALSE;
+        case SIMPLE_TRUE: return Boolean.TRUE;
+        case SIMPLE_NULL: return null;
+        case SIMPLE_FLOAT: return in.readFloat();
+        case SIMPLE_DOUBLE: return in.readDouble();
+        default: throw new IOException("Unsupported simple value " + additionalInfo);
+      }
+    }
+
+    long argument = readArgument(in, additionalInfo);
+
+    switch (majorType) {
+      case MAJOR_TYPE_UNSIGNED:
+        return toNumber(argument);
+
+      case MAJOR_TYPE_NEGATIVE:
+        return toNumber(-1 - argument);
+
+      case MAJOR_TYPE_BYTES:
+        return readBytes(in, argument);
+
+      case MAJOR_TYPE_TEXT:
+        return new String(readBytes(in, argument), StandardCharsets.UTF_8);
+
+      case MAJOR_TYPE_ARRAY:
+        List<Object> list = new ArrayList<>(toLength(argument));
+        for (long i = 0; i < argument; i++) {
+          list.add(readValue(in));
+        }
+        return list;
+
+      case MAJOR_TYPE_MAP:
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (long i = 0; i < argument; i++) {
+          Object key = readValue(in);
+          if (!(key instanceof String)) {
+            throw new IOException("Unsupported map key " + key);
+          }
+          map.put((String) key, readValue(in));
+        }
+        return map;
+
+      case MAJOR_TYPE_TAG:
+        return readTaggedValue(in, argument);
+
+      default:
+        throw new IOException("Unsupported major type " + majorType);
+    }
+  }
+
+  protected Object readTaggedValue(DataInputStream in, long tag) throws IOException {
+    Object value = readValue(in);
+
+    if (tag == TAG_EPOCH_MILLIS) {
+      return new Date(toIntegral(value, tag).longValue());
+
+    } else if (tag == TAG_LONG) {
+      return toIntegral(value, tag).longValue();
+
+    } else if (tag == TAG_SHORT) {
+      return toIntegral(value, tag).shortValue();
+
+    } else if (tag == TAG_BYTE) {
+      return toIntegral(value, tag).byteValue();
+
+    } else if (tag == TAG_LINKED_LIST) {
+      return new LinkedList<>(toList(value, tag));
+
+    } else if (tag == TAG_HASH_SET) {
+      return new HashSet<>(toList(value, tag));
+
+    } else if (tag == TAG_LINKED_HASH_SET) {
+      return new LinkedHashSet<>(toList(value, tag));
+
+    } else if (tag == TAG_TREE_SET) {
+      return new TreeSet<>(toList(value, tag));
+
+    } else if (tag == TAG_HASH_MAP) {
+      return new HashMap<>(toMap(value, tag));
+
+    } else if (tag == TAG_TREE_MAP) {
+      return new TreeMap<>(toMap(value, tag));
+
+    } else {
+      throw new IOException("Unsupported tag " + tag);
+
+    }
+  }
+
+  protected Number toIntegral(Object value, long tag) throws IOException {
+    if (!(value instanceof Integer || value instanceof Long)) {
+      throw new IOException("Invalid value " + value + " for tag " + tag);
+    }
+    return (Number) value;
+  }
+
+  protected List<?> toList(Object value, long tag) throws IOException {
+    // an untagged array is read as array list
+    if (value == null || value.getClass() != ArrayList.class) {
+      throw new IOException("Invalid value " + value + " for tag " + tag);
+    }
+    return (List<?>) value;
+  }
+
+  @SuppressWarnings("unchecked")
+  protected Map<String, Object> toMap(Object value, long tag) throws IOException {
+    // an untagged map is read as linked hash map
+    if (value == null || value.getClass() != LinkedHashMap.class) {
+      throw new IOException("Invalid value " + value + " for tag " + tag);
+    }
+    return (Map<String, Object>) value;
+  }
+
+  protected long readArgument(DataInputStream in, int additionalInfo) throws IOException {
+    if (additionalInfo < 24) {
+      return additionalInfo;
+    }
+    switch (additionalInfo) {
+      case 24: return in.readUnsignedByte();
+      case 25: return in.readUnsignedShort();
+      case 26: return in.readInt() & 0xffffffffL;
+      case 27: return in.readLong();
+      default: throw new IOException("Unsupported argument encoding " + additionalInfo);
+    }
+  }
+
+  protected byte[] readBytes(DataInputStream in, long length) throws IOException {
+    byte[] bytes = new byte[toLength(length)];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  protected int toLength(long length) throws IOException {
+    if (length < 0 || length > Integer.MAX_VALUE) {
+      throw new IOException("Invalid length " + length);
+    }
+    return (int) length;
+  }
+
+  protected Object toNumber(long number) {
+    if (number >= Integer.MIN_VALUE && number <= Integer.MAX_VALUE) {
+      return (int) number;
+    }
+    return number;
+  }
+
+  protected boolean isIntegral(Object value) {
+    return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+  }
+
+  protected long getIntegralTag(Object value) {
+    if (value instanceof Long) {
+      long number = (Long) value;
+      // a long out of the integer range is read back as long anyway
+      return number >= Integer.MIN_VALUE && number <= Integer.MAX_VALUE ? TAG_LONG : NO_TAG;
+
+    } else if (value instanceof Short) {
+      return TAG_SHORT;
+
+    } else if (value instanceof Byte) {
+      return TAG_BYTE;
+
+    } else {
+      return NO_TAG;
+
+    }
+  }
+
+  /**
+   * @return the tag of a supported collection ({@link #NO_TAG} for an {@link ArrayList})
+   * or <code>null</code> if the value is no supported collection
+   */
+  protected Long getCollectionTag(Object value) {
+    Class<?> type = value.getClass();
+    if (type == ArrayList.class) {
+      return NO_TAG;
+
+    } else if (type == LinkedList.class) {
+      return TAG_LINKED_LIST;
+
+    } else if (type == HashSet.class) {
+      return TAG_HASH_SET;
+
+    } else if (type == LinkedHashSet.class) {
+      return TAG_LINKED_HASH_SET;
+
+    } else if (type == TreeSet.class && ((TreeSet<?>) value).comparator() == null) {
+      return TAG_TREE_SET;
+
+    } else {
+      return null;
+
+    }
+  }
+
+  /**
+   * @return the tag of a supported map ({@link #NO_TAG} for a {@link LinkedHashMap})
+   * or <code>null</code> if the value is no supported map
+   */
+  protected Long getMapTag(Object value) {
+    Class<?> type = value.getClass();
+    if (type == LinkedHashMap.class) {
+      return NO_TAG;
+
+    } else if (type == HashMap.class) {
+      return TAG_HASH_MAP;
+
+    } else if (type == TreeMap.class && ((TreeMap<?, ?>) value).comparator() == null) {
+      return TAG_TREE_MAP;
+
+    } else {
+      return null;
+
+    }
+  }
+
+  // compression /////////////////////////////////////
+
+  protected byte[] deflate(byte[] bytes) {
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      deflater.setInput(bytes);
+      deflater.finish();
+
+      ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2);
+      byte[] buffer = new byte[4096];
+      while (!deflater.finished()) {
+        int count = deflater.deflate(buffer);
+        out.write(buffer, 0, count);
+      }
+      return out.toByteArray();
+
+    } finally {
+      deflater.end();
+
+    }
+  }
+
+  protected byte[] inflate(byte[] bytes, int offset, int length) throws IOException {
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(bytes, offset, bytes.length - offset);
+
+      byte[] result = new byte[length];
+      int position = 0;
+      while (position < length && !inflater.finished()) {
+        int count = inflater.inflate(result, position, length - position);
+        if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        position += count;
+      }
+
+      if (position != length) {
+        throw new IOException("Invalid compressed compact binary value");
+      }
+      return result;
+
+    } catch (DataFormatException e) {
+      throw new IOException("Invalid compressed compact binary value", e);
+
+    } finally {
+      inflater.end();
+
+    }
+  }
+
+}
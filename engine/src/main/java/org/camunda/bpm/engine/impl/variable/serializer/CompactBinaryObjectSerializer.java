@@ -0,0 +1,64 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.variable.serializer;
+
+/**
+ * Serializes object values of maps, collections and simple values (see {@link CompactBinaryFormat})
+ * in a compact binary format. Unlike Java serialization, deserializing a value never
+ * instantiates application classes.
+ *
+ * <p>Use it by requesting the {@link #DATA_FORMAT} serialization data format for an object
+ * value or by making it the default serialization format of the engine.</p>
+ */
+public class CompactBinaryObjectSerializer extends AbstractObjectValueSerializer {
+
+  public static final String NAME = "compact-binary";
+
+  public static final String DATA_FORMAT = "application/x-camunda-compact-binary";
+
+  protected CompactBinaryFormat format;
+
+  public CompactBinaryObjectSerializer(int compressionThreshold) {
+    super(DATA_FORMAT);
+    this.format = new CompactBinaryFormat(compressionThreshold);
+  }
+
+  public String getName() {
+    return NAME;
+  }
+
+  protected boolean isSerializationTextBased() {
+    return false;
+  }
+
+  protected Object deserializeFromByteArray(byte[] bytes, String objectTypeName) throws Exception {
+    return format.decode(bytes);
+  }
+
+  protected byte[] serializeToByteArray(Object deserializedObject) throws Exception {
+    return format.encode(deserializedObject);
+  }
+
+  protected String getTypeNameForDeserialized(Object deserializedObject) {
+    return deserializedObject.getClass().getName();
+  }
+
+  protected boolean canSerializeValue(Object value) {
+    return format.canEncode(value);
+  }
+
+}
@@ -18,13 +18,15 @@ package org.camunda.bpm.engine.impl.variable.serializer;
 
 import java.util.Arrays;
 
-import org.camunda.bpm.engine.variable.Variables;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.ByteArrayEntity;
+import org.camunda.bpm.engine.impl.util.IoUtil;
 import org.camunda.bpm.engine.variable.impl.value.FileValueImpl;
 import org.camunda.bpm.engine.variable.impl.value.UntypedValueImpl;
 import org.camunda.bpm.engine.variable.type.ValueType;
 import org.camunda.bpm.engine.variable.value.FileValue;
 import org.camunda.bpm.engine.variable.value.TypedValue;
-import org.camunda.bpm.engine.variable.value.builder.FileValueBuilder;
 
 /**
  * @author Ronny Bräunlich
@@ -44,14 +46,36 @@ public class FileValueSerializer extends AbstractTypedValueSerializer<FileValue>
    */
   protected static final String MIMETYPE_ENCODING_SEPARATOR = "#";
 
+  /**
+   * Whether file values are read with a {@link LazyFileValueImpl} which streams
+   * the content from the database.
+   */
+  protected boolean streamingEnabled;
+
   public FileValueSerializer() {
+    this(false);
+  }
+
+  public FileValueSerializer(boolean streamingEnabled) {
     super(ValueType.FILE);
+    this.streamingEnabled = streamingEnabled;
   }
 
   @Override
   public void writeValue(FileValue value, ValueFields valueFields) {
-    byte[] data = ((FileValueImpl) value).getByteArray();
-    valueFields.setByteArrayValue(data);
+    FileValueImpl fileValue = (FileValueImpl) value;
+    byte[] data = fileValue.getByteArray();
+    if (data == null && fileValue.getStream() != null) {
+      if (valueFields instanceof StreamingValueFields) {
+        ((StreamingValueFields) valueFields).setByteArrayValue(fileValue.getStream());
+      }
+      else {
+        valueFields.setByteArrayValue(IoUtil.readInputStream(fileValue.getStream(), value.getFilename()));
+      }
+    }
+    else {
+      valueFields.setByteArrayValue(data);
+    }
     valueFields.setTextValue(value.getFilename());
     if (value.getMimeType() == null && value.getEncoding() != null) {
       valueFields.setTextValue2(MIMETYPE_ENCODING_SEPARATOR + value.getEncoding());
@@ -74,9 +98,14 @@ public class FileValueSerializer extends AbstractTypedValueSerializer<FileValue>
       // ensure file name is not null
       fileName = "";
     }
-    FileValueBuilder builder = Variables.fileValue(fileName);
-    if (valueFields.getByteArrayValue() != null) {
-      builder.file(valueFields.getByteArrayValue());
+    FileValueImpl fileValue;
+    String lazyByteArrayId = getLazyByteArrayId(valueFields);
+    if (lazyByteArrayId != null) {
+      fileValue = new LazyFileValueImpl(ValueType.FILE, fileName, lazyByteArrayId, Context.getProcessEngineConfiguration());
+    }
+    else {
+      fileValue = new FileValueImpl(ValueType.FILE, fileName);
+      fileValue.setValue(valueFields.getByteArrayValue());
     }
     // to ensure the same array size all the time
     if (valueFields.getTextValue2() != null) {
@@ -85,13 +114,32 @@ public class FileValueSerializer extends AbstractTypedValueSerializer<FileValue>
       String mimeType = returnNullIfEmptyString(split[0]);
       String encoding = returnNullIfEmptyString(split[1]);
 
-      builder.mimeType(mimeType);
-      builder.encoding(encoding);
+      fileValue.setMimeType(mimeType);
+      fileValue.setEncoding(encoding);
+    }
+
+    fileValue.setTransient(asTransientValue);
+
+    return fileValue;
+  }
+
+  /**
+   * @return the id of the byte array holding the content if it is to be streamed, i.e.
+   * streaming is enabled and the byte array has not been loaded in the current command
+   */
+  protected String getLazyByteArrayId(ValueFields valueFields) {
+    CommandContext commandContext = Context.getCommandContext();
+    if (!streamingEnabled || commandContext == null || !(valueFields instanceof StreamingValueFields)) {
+      return null;
     }
 
-    builder.setTransient(asTransientValue);
+    String byteArrayId = ((StreamingValueFields) valueFields).getByteArrayValueId();
+    if (byteArrayId == null
+        || commandContext.getDbEntityManager().getCachedEntity(ByteArrayEntity.class, byteArrayId) != null) {
+      return null;
+    }
 
-    return builder.create();
+    return byteArrayId;
   }
 
   protected String returnNullIfEmptyString(String s) {
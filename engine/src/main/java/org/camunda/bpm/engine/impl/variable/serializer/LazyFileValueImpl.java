@@ -0,0 +1,84 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.variable.serializer;
+
+import java.io.InputStream;
+
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.persistence.entity.util.LazyByteArrayInputStream;
+import org.camunda.bpm.engine.impl.util.IoUtil;
+import org.camunda.bpm.engine.variable.impl.value.FileValueImpl;
+import org.camunda.bpm.engine.variable.type.FileValueType;
+
+/**
+ * A file value whose content is streamed from the database each time
+ * {@link #getValue()} is read, instead of being held in memory.
+ *
+ * @see ProcessEngineConfigurationImpl#isFileValueStreamingEnabled()
+ */
+public class LazyFileValueImpl extends FileValueImpl {
+
+  private static final long serialVersionUID = 1L;
+
+  protected transient ProcessEngineConfigurationImpl processEngineConfiguration;
+  protected String byteArrayId;
+
+  public LazyFileValueImpl(FileValueType type, String filename, String byteArrayId, ProcessEngineConfigurationImpl processEngineConfiguration) {
+    super(type, filename);
+    this.byteArrayId = byteArrayId;
+    this.processEngineConfiguration = processEngineConfiguration;
+  }
+
+  public String getByteArrayId() {
+    return byteArrayId;
+  }
+
+  @Override
+  public InputStream getValue() {
+    return new LazyByteArrayInputStream(processEngineConfiguration, byteArrayId);
+  }
+
+  /**
+   * Reads the whole content into memory.
+   */
+  @Override
+  public byte[] getByteArray() {
+    InputStream stream = getValue();
+    try {
+      return IoUtil.readInputStream(stream, filename);
+    }
+    finally {
+      IoUtil.closeSilently(stream);
+    }
+  }
+
+  /**
+   * Serializes the value with its content, since it cannot be streamed from
+   * the database after deserialization.
+   */
+  protected Object writeReplace() {
+    FileValueImpl fileValue = new FileValueImpl(getByteArray(), type, filename, mimeType, encoding);
+    fileValue.setTransient(isTransient);
+    return fileValue;
+  }
+
+  @Override
+  public String toString() {
+    return "LazyFileValueImpl [mimeType=" + mimeType + ", filename=" + filename + ", type=" + type + ", byteArrayId=" + byteArrayId + ", isTransient=" + isTransient + "]";
+  }
+
+}
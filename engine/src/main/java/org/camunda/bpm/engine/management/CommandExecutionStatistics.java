@@ -0,0 +1,65 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.management;
+
+/**
+ * Represents the aggregated profiles of the sampled executions of one
+ * command class. All durations are in microseconds.
+ */
+public interface CommandExecutionStatistics {
+
+  /**
+   * Returns the class name of the command.
+   */
+  String getCommandName();
+
+  /**
+   * Returns the number of sampled executions.
+   */
+  long getCount();
+
+  /**
+   * Returns the sum of the execution times of the sampled executions.
+   */
+  long getTotalDuration();
+
+  /**
+   * Returns the mean execution time of the sampled executions.
+   */
+  long getMeanDuration();
+
+  /**
+   * Returns the 95th percentile of the execution times of the sampled executions.
+   */
+  long getP95Duration();
+
+  /**
+   * Returns the longest execution time of the sampled executions.
+   */
+  long getMaxDuration();
+
+  /**
+   * Returns the number of db operations flushed by the sampled executions.
+   */
+  long getDbOperations();
+
+  /**
+   * Returns the number of sql statements executed by the sampled executions.
+   */
+  long getSqlStatements();
+
+}
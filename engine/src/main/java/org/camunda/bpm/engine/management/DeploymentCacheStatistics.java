@@ -0,0 +1,55 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.management;
+
+/**
+ * Represents the usage statistics of one of the deployment caches
+ * of the process engine.
+ */
+public interface DeploymentCacheStatistics {
+
+  /**
+   * Returns the name of the cache, e.g. <code>PROC_DEF_CACHE</code>.
+   */
+  String getCacheName();
+
+  /**
+   * Returns the number of entries in the cache.
+   */
+  int getSize();
+
+  /**
+   * Returns the sum of the weights of all entries in the cache.
+   */
+  long getWeightedSize();
+
+  /**
+   * Returns the number of lookups that found a cached entry.
+   */
+  long getHitCount();
+
+  /**
+   * Returns the number of lookups that did not find a cached entry.
+   */
+  long getMissCount();
+
+  /**
+   * Returns the number of entries that were evicted to respect the capacity of the cache.
+   */
+  long getEvictionCount();
+
+}
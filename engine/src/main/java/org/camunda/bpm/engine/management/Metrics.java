@@ -67,4 +67,79 @@ public class Metrics {
   public final static String HISTORY_CLEANUP_REMOVED_CASE_INSTANCES = "history-cleanup-removed-case-instances";
   public final static String HISTORY_CLEANUP_REMOVED_DECISION_INSTANCES = "history-cleanup-removed-decision-instances";
   public final static String HISTORY_CLEANUP_REMOVED_BATCH_OPERATIONS = "history-cleanup-removed-batch-operations";
+
+  /**
+   * Prefix of the per table number of rows removed by range based history cleanup.
+   * The metric name is completed by <code>.</code> and the table name.
+   */
+  public final static String HISTORY_CLEANUP_REMOVED_ROWS = "history-cleanup-removed-rows";
+
+  /**
+   * Number of blocks of ids fetched from the database by the id generator.
+   */
+  public final static String ID_BLOCK_FETCH = "id-block-fetch";
+
+  /**
+   * Number of times a thread had to wait for another thread while the id generator
+   * replaced an exhausted block of ids.
+   */
+  public final static String ID_GENERATOR_CONTENTION = "id-generator-contention";
+
+  /**
+   * Number of history events written by the asynchronous history event writer.
+   */
+  public final static String HISTORY_EVENTS_WRITTEN = "history-events-written";
+
+  /**
+   * Number of times a committing thread had to wait because too many history events
+   * were waiting to be written by the asynchronous history event writer.
+   */
+  public final static String HISTORY_WRITE_BACKPRESSURE = "history-write-backpressure";
+
+  /**
+   * Number of times a script evaluation had to wait because all script engines
+   * of a script engine pool were in use.
+   */
+  public final static String SCRIPT_ENGINE_POOL_WAITS = "script-engine-pool-waits";
+
+  /**
+   * Number of scripts compiled by script engines. Only reported if script engine
+   * pooling is enabled in the process engine configuration.
+   */
+  public final static String SCRIPT_COMPILATIONS = "script-compilations";
+
+  /**
+   * Distribution of the time it takes to execute a job, in microseconds. Only recorded
+   * if histograms are enabled in the process engine configuration.
+   */
+  public final static String JOB_EXECUTION_DURATION = "job-execution-duration";
+
+  /**
+   * Distribution of the time it takes to execute a command, in microseconds. Only recorded
+   * if histograms are enabled in the process engine configuration.
+   */
+  public final static String COMMAND_EXECUTION_DURATION = "command-execution-duration";
+
+  /**
+   * Distribution of the number of decision elements executed per decision evaluation. Only
+   * recorded if histograms are enabled in the process engine configuration.
+   */
+  public final static String EXECUTED_DECISION_ELEMENTS_PER_EVALUATION = "executed-decision-elements-per-evaluation";
+
+  /**
+   * Distribution of the time between the commit of a transaction and the write of its
+   * history events by the asynchronous history event writer, in milliseconds. Only
+   * recorded if histograms are enabled in the process engine configuration.
+   */
+  public final static String HISTORY_WRITE_LAG = "history-write-lag";
+
+  /**
+   * Suffixes of the names under which the aggregates of a histogram are reported,
+   * e.g. <code>job-execution-duration.p95</code>.
+   */
+  public final static String HISTOGRAM_COUNT_SUFFIX = ".count";
+  public final static String HISTOGRAM_P50_SUFFIX = ".p50";
+  public final static String HISTOGRAM_P95_SUFFIX = ".p95";
+  public final static String HISTOGRAM_P99_SUFFIX = ".p99";
+  public final static String HISTOGRAM_MAX_SUFFIX = ".max";
 }
@@ -0,0 +1,73 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.runtime;
+
+import java.util.List;
+
+import org.camunda.bpm.engine.AuthorizationException;
+import org.camunda.bpm.engine.MismatchingMessageCorrelationException;
+import org.camunda.bpm.engine.OptimisticLockingException;
+
+/**
+ * <p>A fluent builder to correlate many messages at once. Each message is defined by a
+ * {@link MessageCorrelationBuilder} and is correlated like with
+ * {@link MessageCorrelationBuilder#correlateWithResult()}.</p>
+ *
+ * <p>The messages are correlated in the given order. Several of them share one
+ * transaction, so that the costs of opening a command context and of committing a
+ * transaction are paid only once per group of messages. A message that cannot be
+ * correlated does not fail the other messages of the batch. If a transaction fails,
+ * for example because of an {@link OptimisticLockingException}, the messages of this
+ * transaction are correlated again, each one in a separate transaction.</p>
+ */
+public interface MessageCorrelationBatchBuilder {
+
+  /**
+   * Adds a message correlation to the batch.
+   *
+   * @param correlation the correlation created by
+   *          {@link org.camunda.bpm.engine.RuntimeService#createMessageCorrelation(String)}
+   */
+  MessageCorrelationBatchBuilder correlation(MessageCorrelationBuilder correlation);
+
+  /**
+   * Adds message correlations to the batch.
+   *
+   * @param correlations the correlations created by
+   *          {@link org.camunda.bpm.engine.RuntimeService#createMessageCorrelation(String)}
+   */
+  MessageCorrelationBatchBuilder correlations(List<MessageCorrelationBuilder> correlations);
+
+  /**
+   * Sets the number of messages which are correlated in one transaction. The default is 100.
+   * Larger values save transactions but keep locks on the database longer and increase
+   * the work which is repeated when a transaction fails.
+   *
+   * @param correlationsPerTransaction a positive number
+   */
+  MessageCorrelationBatchBuilder correlationsPerTransaction(int correlationsPerTransaction);
+
+  /**
+   * Executes the message correlations.
+   *
+   * @return one result per message correlation in the order in which they were added.
+   *   A result holds the exception of a failed correlation, for example a
+   *   {@link MismatchingMessageCorrelationException} or an {@link AuthorizationException}.
+   */
+  List<MessageCorrelationBatchResult> correlate();
+
+}
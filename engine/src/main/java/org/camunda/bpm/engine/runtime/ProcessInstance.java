@@ -16,7 +16,9 @@
  */
 package org.camunda.bpm.engine.runtime;
 
+import org.camunda.bpm.engine.BadUserRequestException;
 import org.camunda.bpm.engine.repository.ProcessDefinition;
+import org.camunda.bpm.engine.variable.VariableMap;
 
 /**
  * Represents one execution of a  {@link ProcessDefinition}.
@@ -52,4 +54,16 @@ public interface ProcessInstance extends Execution {
    */
   boolean isSuspended();
 
+  /**
+   * Provides the variables fetched together with the process instance.
+   *
+   * <p><strong>NOTE:</strong> This property is only populated in case the process instance is obtained
+   * through a query on which {@link ProcessInstanceQuery#withVariables(String...)} is called. Otherwise,
+   * it will throw a {@link BadUserRequestException}.</p>
+   *
+   * @return the variables of the process instance scope, restricted to the requested names
+   * @throws BadUserRequestException in case the variables are not fetched.
+   */
+  VariableMap getFetchedVariables();
+
 }
@@ -203,6 +203,22 @@ public interface ProcessInstanceQuery extends Query<ProcessInstanceQuery, Proces
    */
   ProcessInstanceQuery active();
 
+  /**
+   * If called, the variables of the fetched process instances are fetched together with them
+   * and {@link ProcessInstance#getFetchedVariables()} will return them. The variables of the
+   * whole result are selected at once, which is cheaper than fetching the variables of each
+   * process instance separately. Only variables of the process instance scope are fetched.
+   *
+   * @param variableNames the names of the variables to fetch; if none are given, all variables
+   *   of the process instances are fetched
+   *
+   * @throws ProcessEngineException
+   *   When method has been executed within "or query". Method must be executed on the base query.
+   *
+   * @return the query itself
+   */
+  ProcessInstanceQuery withVariables(String... variableNames);
+
   /**
    * Only selects process instances with at least one incident.
    */
@@ -20,6 +20,7 @@ import java.util.Date;
 
 import org.camunda.bpm.engine.BadUserRequestException;
 import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.engine.variable.VariableMap;
 
 
 
@@ -168,4 +169,16 @@ public interface Task {
    */
   void setTenantId(String tenantId);
 
+  /**
+   * Provides the variables fetched together with the task.
+   *
+   * <p><strong>NOTE:</strong> This property is only populated in case the task instance is obtained
+   * through a query on which {@link TaskQuery#withVariables(String...)} is called. Otherwise, it will
+   * throw a {@link BadUserRequestException}.</p>
+   *
+   * @return the variables visible from the task, restricted to the requested names
+   * @throws BadUserRequestException in case the variables are not fetched.
+   */
+  VariableMap getFetchedVariables();
+
 }
@@ -800,6 +800,26 @@ public interface TaskQuery extends Query<TaskQuery, Task>{
    */
   TaskQuery initializeFormKeys();
 
+  /**
+   * If called, the variables visible from the fetched tasks are fetched together with them
+   * and {@link Task#getFetchedVariables()} will return them. The variables of the whole result
+   * are selected at once, which is cheaper than fetching the variables of each task separately.
+   *
+   * <p>The variables of the task, its execution, all parent executions (e.g. of embedded
+   * subprocesses) and its process instance (or its case execution, parent case executions
+   * and case instance) are considered. Variables of inner scopes take precedence, starting
+   * with the variables of the task.</p>
+   *
+   * @param variableNames the names of the variables to fetch; if none are given, all visible
+   *   variables are fetched
+   *
+   * @throws ProcessEngineException
+   *   When method has been executed within "or query". Method must be executed on the base query.
+   *
+   * @return the query itself
+   */
+  TaskQuery withVariables(String... variableNames);
+
   /** Only select tasks with one of the given tenant ids. */
   TaskQuery tenantIdIn(String... tenantIds);
 
@@ -286,6 +286,22 @@ create table ACT_RU_METER_LOG (
   primary key (ID_)
 );
 
+create table ACT_RU_CACHE_EVENT (
+  ID_ NVARCHAR2(64) not null,
+  TYPE_ NVARCHAR2(64) not null,
+  DEFINITION_ID_ NVARCHAR2(64) not null,
+  MILLISECONDS_ NUMBER(19,0) not null,
+  primary key (ID_)
+);
+
+create table ACT_RU_CORRELATION_KEY (
+  ID_ NVARCHAR2(64) not null,
+  PROC_INST_ID_ NVARCHAR2(64) not null,
+  NAME_ NVARCHAR2(255) not null,
+  VALUE_ NVARCHAR2(255) not null,
+  primary key (ID_)
+);
+
 create table ACT_RU_EXT_TASK (
   ID_ NVARCHAR2(64) not null,
   REV_ integer not null,
@@ -355,6 +371,10 @@ CREATE INDEX ACT_IDX_METER_LOG_REPORT ON ACT_RU_METER_LOG(NAME_, REPORTER_, MILL
 CREATE INDEX ACT_IDX_METER_LOG_TIME ON ACT_RU_METER_LOG(TIMESTAMP_);
 CREATE INDEX ACT_IDX_METER_LOG ON ACT_RU_METER_LOG(NAME_, TIMESTAMP_);
 
+CREATE INDEX ACT_IDX_CACHE_EVENT_MS ON ACT_RU_CACHE_EVENT(MILLISECONDS_);
+
+CREATE INDEX ACT_IDX_CORR_KEY_VALUE ON ACT_RU_CORRELATION_KEY(NAME_, VALUE_);
+
 create index ACT_IDX_EXT_TASK_TOPIC on ACT_RU_EXT_TASK(TOPIC_NAME_);
 create index ACT_IDX_EXT_TASK_TENANT_ID on ACT_RU_EXT_TASK(TENANT_ID_, 0);
 create index ACT_IDX_EXT_TASK_PRIORITY ON ACT_RU_EXT_TASK(PRIORITY_);
@@ -542,7 +562,7 @@ create index ACT_IDX_EXT_TASK_EXEC on ACT_RU_EXT_TASK(EXECUTION_ID_);
 
 -- indexes to improve deployment
 create index ACT_IDX_BYTEARRAY_ROOT_PI on ACT_GE_BYTEARRAY(ROOT_PROC_INST_ID_);
-create index ACT_IDX_BYTEARRAY_RM_TIME on ACT_GE_BYTEARRAY(REMOVAL_TIME_);
+create index ACT_IDX_BYTEARRAY_RM_TIME on ACT_GE_BYTEARRAY(REMOVAL_TIME_, ID_);
 create index ACT_IDX_BYTEARRAY_NAME on ACT_GE_BYTEARRAY(NAME_);
 create index ACT_IDX_DEPLOYMENT_NAME on ACT_RE_DEPLOYMENT(NAME_);
 create index ACT_IDX_DEPLOYMENT_TENANT_ID on ACT_RE_DEPLOYMENT(TENANT_ID_, 0);
@@ -0,0 +1,478 @@
+--
+-- Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+-- under one or more contributor license agreements. See the NOTICE file
+-- distributed with this work for additional information regarding copyright
+-- ownership. Camunda licenses this file to you under the Apache License,
+-- Version 2.0; you may not use this file except in compliance with the License.
+-- You may obtain a copy of the License at
+--
+--     http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+--
+-- History schema variant which range-partitions the biggest history tables:
+--
+--   * ACT_HI_PROCINST and ACT_HI_ACTINST are partitioned by START_TIME_
+--   * ACT_HI_TASKINST, ACT_HI_VARINST, ACT_HI_DETAIL, ACT_HI_JOB_LOG and
+--     ACT_HI_OP_LOG are partitioned by REMOVAL_TIME_ (with row movement)
+--
+-- Each partitioned table starts with a single partition <TABLE>_PMAX.
+-- Monthly partitions named <TABLE>_P<yyyyMMdd> (the date being the exclusive
+-- upper bound) are split off <TABLE>_PMAX and dropped by the history cleanup
+-- when historyCleanupPartitionDropEnabled is set.
+--
+-- Primary keys are backed by global indexes, all other indexes are local.
+--
+
+create table ACT_HI_PROCINST (
+    ID_ NVARCHAR2(64) not null,
+    PROC_INST_ID_ NVARCHAR2(64) not null,
+    BUSINESS_KEY_ NVARCHAR2(255),
+    PROC_DEF_KEY_ NVARCHAR2(255),
+    PROC_DEF_ID_ NVARCHAR2(64) not null,
+    START_TIME_ TIMESTAMP(6) not null,
+    END_TIME_ TIMESTAMP(6),
+    REMOVAL_TIME_ TIMESTAMP(6),
+    DURATION_ NUMBER(19,0),
+    START_USER_ID_ NVARCHAR2(255),
+    START_ACT_ID_ NVARCHAR2(255),
+    END_ACT_ID_ NVARCHAR2(255),
+    SUPER_PROCESS_INSTANCE_ID_ NVARCHAR2(64),
+    ROOT_PROC_INST_ID_ NVARCHAR2(64),
+    SUPER_CASE_INSTANCE_ID_ NVARCHAR2(64),
+    CASE_INST_ID_ NVARCHAR2(64),
+    DELETE_REASON_ NVARCHAR2(2000),
+    TENANT_ID_ NVARCHAR2(64),
+    STATE_ NVARCHAR2(255),
+    primary key (ID_),
+    unique (PROC_INST_ID_)
+)
+partition by range (START_TIME_) (
+    partition ACT_HI_PROCINST_PMAX values less than (MAXVALUE)
+);
+
+create table ACT_HI_ACTINST (
+    ID_ NVARCHAR2(64) not null,
+    PARENT_ACT_INST_ID_ NVARCHAR2(64),
+    PROC_DEF_KEY_ NVARCHAR2(255),
+    PROC_DEF_ID_ NVARCHAR2(64) not null,
+    ROOT_PROC_INST_ID_ NVARCHAR2(64),
+    PROC_INST_ID_ NVARCHAR2(64) not null,
+    EXECUTION_ID_ NVARCHAR2(64) not null,
+    ACT_ID_ NVARCHAR2(255) not null,
+    TASK_ID_ NVARCHAR2(64),
+    CALL_PROC_INST_ID_ NVARCHAR2(64),
+    CALL_CASE_INST_ID_ NVARCHAR2(64),
+    ACT_NAME_ NVARCHAR2(255),
+    ACT_TYPE_ NVARCHAR2(255) not null,
+    ASSIGNEE_ NVARCHAR2(64),
+    START_TIME_ TIMESTAMP(6) not null,
+    END_TIME_ TIMESTAMP(6),
+    DURATION_ NUMBER(19,0),
+    ACT_INST_STATE_ INTEGER,
+    SEQUENCE_COUNTER_ NUMBER(19,0),
+    TENANT_ID_ NVARCHAR2(64),
+    REMOVAL_TIME_ TIMESTAMP(6),
+    primary key (ID_)
+)
+partition by range (START_TIME_) (
+    partition ACT_HI_ACTINST_PMAX values less than (MAXVALUE)
+);
+
+create table ACT_HI_TASKINST (
+    ID_ NVARCHAR2(64) not null,
+    TASK_DEF_KEY_ NVARCHAR2(255),
+    PROC_DEF_KEY_ NVARCHAR2(255),
+    PROC_DEF_ID_ NVARCHAR2(64),
+    ROOT_PROC_INST_ID_ NVARCHAR2(64),
+    PROC_INST_ID_ NVARCHAR2(64),
+    EXECUTION_ID_ NVARCHAR2(64),
+    CASE_DEF_KEY_ NVARCHAR2(255),
+    CASE_DEF_ID_ NVARCHAR2(64),
+    CASE_INST_ID_ NVARCHAR2(64),
+    CASE_EXECUTION_ID_ NVARCHAR2(64),
+    ACT_INST_ID_ NVARCHAR2(64),
+    PARENT_TASK_ID_ NVARCHAR2(64),
+    NAME_ NVARCHAR2(255),
+    DESCRIPTION_ NVARCHAR2(2000),
+    OWNER_ NVARCHAR2(255),
+    ASSIGNEE_ NVARCHAR2(255),
+    START_TIME_ TIMESTAMP(6) not null,
+    END_TIME_ TIMESTAMP(6),
+    DURATION_ NUMBER(19,0),
+    DELETE_REASON_ NVARCHAR2(2000),
+    PRIORITY_ INTEGER,
+    DUE_DATE_ TIMESTAMP(6),
+    FOLLOW_UP_DATE_ TIMESTAMP(6),
+    TENANT_ID_ NVARCHAR2(64),
+    REMOVAL_TIME_ TIMESTAMP(6),
+    primary key (ID_)
+)
+partition by range (REMOVAL_TIME_) (
+    partition ACT_HI_TASKINST_PMAX values less than (MAXVALUE)
+)
+enable row movement;
+
+create table ACT_HI_VARINST (
+    ID_ NVARCHAR2(64) not null,
+    PROC_DEF_KEY_ NVARCHAR2(255),
+    PROC_DEF_ID_ NVARCHAR2(64),
+    ROOT_PROC_INST_ID_ NVARCHAR2(64),
+    PROC_INST_ID_ NVARCHAR2(64),
+    EXECUTION_ID_ NVARCHAR2(64),
+    ACT_INST_ID_ NVARCHAR2(64),
+    CASE_DEF_KEY_ NVARCHAR2(255),
+    CASE_DEF_ID_ NVARCHAR2(64),
+    CASE_INST_ID_ NVARCHAR2(64),
+    CASE_EXECUTION_ID_ NVARCHAR2(64),
+    TASK_ID_ NVARCHAR2(64),
+    NAME_ NVARCHAR2(255) not null,
+    VAR_TYPE_ NVARCHAR2(100),
+    CREATE_TIME_ TIMESTAMP(6),
+    REV_ INTEGER,
+    BYTEARRAY_ID_ NVARCHAR2(64),
+    DOUBLE_ NUMBER(*,10),
+    LONG_ NUMBER(19,0),
+    TEXT_ NVARCHAR2(2000),
+    TEXT2_ NVARCHAR2(2000),
+    TENANT_ID_ NVARCHAR2(64),
+    STATE_ NVARCHAR2(20),
+    REMOVAL_TIME_ TIMESTAMP(6),
+    primary key (ID_)
+)
+partition by range (REMOVAL_TIME_) (
+    partition ACT_HI_VARINST_PMAX values less than (MAXVALUE)
+)
+enable row movement;
+
+create table ACT_HI_DETAIL (
+    ID_ NVARCHAR2(64) not null,
+    TYPE_ NVARCHAR2(255) not null,
+    PROC_DEF_KEY_ NVARCHAR2(255),
+    PROC_DEF_ID_ NVARCHAR2(64),
+    ROOT_PROC_INST_ID_ NVARCHAR2(64),
+    PROC_INST_ID_ NVARCHAR2(64),
+    EXECUTION_ID_ NVARCHAR2(64),
+    CASE_DEF_KEY_ NVARCHAR2(255),
+    CASE_DEF_ID_ NVARCHAR2(64),
+    CASE_INST_ID_ NVARCHAR2(64),
+    CASE_EXECUTION_ID_ NVARCHAR2(64),
+    TASK_ID_ NVARCHAR2(64),
+    ACT_INST_ID_ NVARCHAR2(64),
+    VAR_INST_ID_ NVARCHAR2(64),
+    NAME_ NVARCHAR2(255) not null,
+    VAR_TYPE_ NVARCHAR2(64),
+    REV_ INTEGER,
+    TIME_ TIMESTAMP(6) not null,
+    BYTEARRAY_ID_ NVARCHAR2(64),
+    DOUBLE_ NUMBER(*,10),
+    LONG_ NUMBER(19,0),
+    TEXT_ NVARCHAR2(2000),
+    TEXT2_ NVARCHAR2(2000),
+    SEQUENCE_COUNTER_ NUMBER(19,0),
+    TENANT_ID_ NVARCHAR2(64),
+    OPERATION_ID_ NVARCHAR2(64),
+    REMOVAL_TIME_ TIMESTAMP(6),
+    primary key (ID_)
+)
+partition by range (REMOVAL_TIME_) (
+    partition ACT_HI_DETAIL_PMAX values less than (MAXVALUE)
+)
+enable row movement;
+
+create table ACT_HI_IDENTITYLINK (
+    ID_ NVARCHAR2(64) not null,
+    TIMESTAMP_ TIMESTAMP(6) not null,
+    TYPE_ NVARCHAR2(255),
+    USER_ID_ NVARCHAR2(255),
+    GROUP_ID_ NVARCHAR2(255),
+    TASK_ID_ NVARCHAR2(64),
+    ROOT_PROC_INST_ID_ NVARCHAR2(64),
+    PROC_DEF_ID_ NVARCHAR2(64),
+    OPERATION_TYPE_ NVARCHAR2(64),
+    ASSIGNER_ID_ NVARCHAR2(64),
+    PROC_DEF_KEY_ NVARCHAR2(255),
+    TENANT_ID_ NVARCHAR2(64),
+    REMOVAL_TIME_ TIMESTAMP(6),
+    primary key (ID_)
+);
+
+create table ACT_HI_COMMENT (
+    ID_ NVARCHAR2(64) not null,
+    TYPE_ NVARCHAR2(255),
+    TIME_ TIMESTAMP(6) not null,
+    USER_ID_ NVARCHAR2(255),
+    TASK_ID_ NVARCHAR2(64),
+    ROOT_PROC_INST_ID_ NVARCHAR2(64),
+    PROC_INST_ID_ NVARCHAR2(64),
+    ACTION_ NVARCHAR2(255),
+    MESSAGE_ NVARCHAR2(2000),
+    FULL_MSG_ BLOB,
+    TENANT_ID_ NVARCHAR2(64),
+    REMOVAL_TIME_ TIMESTAMP(6),
+    primary key (ID_)
+);
+
+create table ACT_HI_ATTACHMENT (
+    ID_ NVARCHAR2(64) not null,
+    REV_ INTEGER,
+    USER_ID_ NVARCHAR2(255),
+    NAME_ NVARCHAR2(255),
+    DESCRIPTION_ NVARCHAR2(2000),
+    TYPE_ NVARCHAR2(255),
+    TASK_ID_ NVARCHAR2(64),
+    ROOT_PROC_INST_ID_ NVARCHAR2(64),
+    PROC_INST_ID_ NVARCHAR2(64),
+    URL_ NVARCHAR2(2000),
+    CONTENT_ID_ NVARCHAR2(64),
+    TENANT_ID_ NVARCHAR2(64),
+    CREATE_TIME_ TIMESTAMP(6),
+    REMOVAL_TIME_ TIMESTAMP(6),
+    primary key (ID_)
+);
+
+create table ACT_HI_OP_LOG (
+    ID_ NVARCHAR2(64) not null,
+    DEPLOYMENT_ID_ NVARCHAR2(64),
+    PROC_DEF_ID_ NVARCHAR2(64),
+    PROC_DEF_KEY_ NVARCHAR2(255),
+    ROOT_PROC_INST_ID_ NVARCHAR2(64),
+    PROC_INST_ID_ NVARCHAR2(64),
+    EXECUTION_ID_ NVARCHAR2(64),
+    CASE_DEF_ID_ NVARCHAR2(64),
+    CASE_INST_ID_ NVARCHAR2(64),
+    CASE_EXECUTION_ID_ NVARCHAR2(64),
+    TASK_ID_ NVARCHAR2(64),
+    JOB_ID_ NVARCHAR2(64),
+    JOB_DEF_ID_ NVARCHAR2(64),
+    BATCH_ID_ NVARCHAR2(64),
+    USER_ID_ NVARCHAR2(255),
+    TIMESTAMP_ TIMESTAMP(6) not null,
+    OPERATION_TYPE_ NVARCHAR2(255),
+    OPERATION_ID_ NVARCHAR2(64),
+    ENTITY_TYPE_ NVARCHAR2(30),
+    PROPERTY_ NVARCHAR2(64),
+    ORG_VALUE_ NVARCHAR2(2000),
+    NEW_VALUE_ NVARCHAR2(2000),
+    TENANT_ID_ NVARCHAR2(64),
+    REMOVAL_TIME_ TIMESTAMP(6),
+	CATEGORY_ NVARCHAR2(64),
+	EXTERNAL_TASK_ID_ NVARCHAR2(64),
+	ANNOTATION_ NVARCHAR2(2000),
+    primary key (ID_)
+)
+partition by range (REMOVAL_TIME_) (
+    partition ACT_HI_OP_LOG_PMAX values less than (MAXVALUE)
+)
+enable row movement;
+
+create table ACT_HI_INCIDENT (
+  ID_ NVARCHAR2(64) not null,
+  PROC_DEF_KEY_ NVARCHAR2(255),
+  PROC_DEF_ID_ NVARCHAR2(64),
+  ROOT_PROC_INST_ID_ NVARCHAR2(64),
+  PROC_INST_ID_ NVARCHAR2(64),
+  EXECUTION_ID_ NVARCHAR2(64),
+  CREATE_TIME_ TIMESTAMP(6) not null,
+  END_TIME_ TIMESTAMP(6),
+  INCIDENT_MSG_ NVARCHAR2(2000),
+  INCIDENT_TYPE_ NVARCHAR2(255) not null,
+  ACTIVITY_ID_ NVARCHAR2(255),
+  FAILED_ACTIVITY_ID_ NVARCHAR2(255),
+  CAUSE_INCIDENT_ID_ NVARCHAR2(64),
+  ROOT_CAUSE_INCIDENT_ID_ NVARCHAR2(64),
+  CONFIGURATION_ NVARCHAR2(255),
+  HISTORY_CONFIGURATION_ NVARCHAR2(255),
+  INCIDENT_STATE_ INTEGER,
+  TENANT_ID_ NVARCHAR2(64),
+  JOB_DEF_ID_ NVARCHAR2(64),
+  REMOVAL_TIME_ TIMESTAMP(6),
+  primary key (ID_)
+);
+
+create table ACT_HI_JOB_LOG (
+    ID_ NVARCHAR2(64) not null,
+    TIMESTAMP_ TIMESTAMP(6) not null,
+    JOB_ID_ NVARCHAR2(64) not null,
+    JOB_DUEDATE_ TIMESTAMP(6),
+    JOB_RETRIES_ INTEGER,
+    JOB_PRIORITY_ NUMBER(19,0) DEFAULT 0 NOT NULL,
+    JOB_EXCEPTION_MSG_ NVARCHAR2(2000),
+    JOB_EXCEPTION_STACK_ID_ NVARCHAR2(64),
+    JOB_STATE_ INTEGER,
+    JOB_DEF_ID_ NVARCHAR2(64),
+    JOB_DEF_TYPE_ NVARCHAR2(255),
+    JOB_DEF_CONFIGURATION_ NVARCHAR2(255),
+    ACT_ID_ NVARCHAR2(255),
+    FAILED_ACT_ID_ NVARCHAR2(255),
+    EXECUTION_ID_ NVARCHAR2(64),
+    ROOT_PROC_INST_ID_ NVARCHAR2(64),
+    PROCESS_INSTANCE_ID_ NVARCHAR2(64),
+    PROCESS_DEF_ID_ NVARCHAR2(64),
+    PROCESS_DEF_KEY_ NVARCHAR2(255),
+    DEPLOYMENT_ID_ NVARCHAR2(64),
+    SEQUENCE_COUNTER_ NUMBER(19,0),
+    TENANT_ID_ NVARCHAR2(64),
+    HOSTNAME_ NVARCHAR2(255),
+    REMOVAL_TIME_ TIMESTAMP(6),
+    primary key (ID_)
+)
+partition by range (REMOVAL_TIME_) (
+    partition ACT_HI_JOB_LOG_PMAX values less than (MAXVALUE)
+)
+enable row movement;
+
+create table ACT_HI_BATCH (
+    ID_ NVARCHAR2(64) not null,
+    TYPE_ NVARCHAR2(255),
+    TOTAL_JOBS_ INTEGER,
+    JOBS_PER_SEED_ INTEGER,
+    INVOCATIONS_PER_JOB_ INTEGER,
+    SEED_JOB_DEF_ID_ NVARCHAR2(64),
+    MONITOR_JOB_DEF_ID_ NVARCHAR2(64),
+    BATCH_JOB_DEF_ID_ NVARCHAR2(64),
+    TENANT_ID_  NVARCHAR2(64),
+    CREATE_USER_ID_ NVARCHAR2(255),
+    START_TIME_ TIMESTAMP(6) NOT NULL,
+    END_TIME_ TIMESTAMP(6),
+    REMOVAL_TIME_ TIMESTAMP(6),
+    primary key (ID_)
+);
+
+create table ACT_HI_EXT_TASK_LOG (
+    ID_ NVARCHAR2(64) not null,
+    TIMESTAMP_ TIMESTAMP(6) not null,
+    EXT_TASK_ID_ NVARCHAR2(64) not null,
+    RETRIES_ integer,
+    TOPIC_NAME_ NVARCHAR2(255),
+    WORKER_ID_ NVARCHAR2(255),
+    PRIORITY_ NUMBER(19,0) DEFAULT 0 NOT NULL,
+    ERROR_MSG_ NVARCHAR2(2000),
+    ERROR_DETAILS_ID_ NVARCHAR2(64),
+    ACT_ID_ NVARCHAR2(255),
+    ACT_INST_ID_ NVARCHAR2(64),
+    EXECUTION_ID_ NVARCHAR2(64),
+    ROOT_PROC_INST_ID_ NVARCHAR2(64),
+    PROC_INST_ID_ NVARCHAR2(64),
+    PROC_DEF_ID_ NVARCHAR2(64),
+    PROC_DEF_KEY_ NVARCHAR2(255),
+    TENANT_ID_ NVARCHAR2(64),
+    STATE_ INTEGER,
+    REMOVAL_TIME_ TIMESTAMP(6),
+    primary key (ID_)
+);
+
+create index ACT_IDX_HI_PRO_INST_END on ACT_HI_PROCINST(END_TIME_) local;
+create index ACT_IDX_HI_PRO_I_BUSKEY on ACT_HI_PROCINST(BUSINESS_KEY_) local;
+create index ACT_IDX_HI_PRO_INST_TENANT_ID on ACT_HI_PROCINST(TENANT_ID_, 0) local;
+create index ACT_IDX_HI_PRO_INST_PROC_KEY on ACT_HI_PROCINST(PROC_DEF_KEY_) local;
+create index ACT_IDX_HI_PRO_INST_PROC_TIME on ACT_HI_PROCINST(START_TIME_, END_TIME_) local;
+create index ACT_IDX_HI_PI_PDEFID_END_TIME on ACT_HI_PROCINST(PROC_DEF_ID_, END_TIME_) local;
+create index ACT_IDX_HI_PRO_INST_ROOT_PI on ACT_HI_PROCINST(ROOT_PROC_INST_ID_) local;
+create index ACT_IDX_HI_PRO_INST_RM_TIME on ACT_HI_PROCINST(REMOVAL_TIME_, ID_) local;
+
+create index ACT_IDX_HI_ACTINST_ROOT_PI on ACT_HI_ACTINST(ROOT_PROC_INST_ID_) local;
+create index ACT_IDX_HI_ACT_INST_START_END on ACT_HI_ACTINST(START_TIME_, END_TIME_) local;
+create index ACT_IDX_HI_ACT_INST_END on ACT_HI_ACTINST(END_TIME_) local;
+create index ACT_IDX_HI_ACT_INST_PROCINST on ACT_HI_ACTINST(PROC_INST_ID_, ACT_ID_) local;
+create index ACT_IDX_HI_ACT_INST_COMP on ACT_HI_ACTINST(EXECUTION_ID_, ACT_ID_, END_TIME_, ID_) local;
+create index ACT_IDX_HI_ACT_INST_STATS on ACT_HI_ACTINST(PROC_DEF_ID_, PROC_INST_ID_, ACT_ID_, END_TIME_, ACT_INST_STATE_) local;
+create index ACT_IDX_HI_ACT_INST_TENANT_ID on ACT_HI_ACTINST(TENANT_ID_, 0) local;
+create index ACT_IDX_HI_ACT_INST_PROC_KEY on ACT_HI_ACTINST(PROC_DEF_KEY_) local;
+create index ACT_IDX_HI_AI_PDEFID_END_TIME on ACT_HI_ACTINST(PROC_DEF_ID_, END_TIME_) local;
+create index ACT_IDX_HI_ACT_INST_RM_TIME on ACT_HI_ACTINST(REMOVAL_TIME_, ID_) local;
+
+create index ACT_IDX_HI_TASKINST_ROOT_PI on ACT_HI_TASKINST(ROOT_PROC_INST_ID_) local;
+create index ACT_IDX_HI_TASK_INST_TENANT_ID on ACT_HI_TASKINST(TENANT_ID_, 0) local;
+create index ACT_IDX_HI_TASK_INST_PROC_KEY on ACT_HI_TASKINST(PROC_DEF_KEY_) local;
+create index ACT_IDX_HI_TASKINST_PROCINST on ACT_HI_TASKINST(PROC_INST_ID_) local;
+create index ACT_IDX_HI_TASKINSTID_PROCINST on ACT_HI_TASKINST(ID_,PROC_INST_ID_) local;
+create index ACT_IDX_HI_TASK_INST_RM_TIME on ACT_HI_TASKINST(REMOVAL_TIME_, ID_) local;
+create index ACT_IDX_HI_TASK_INST_START on ACT_HI_TASKINST(START_TIME_) local;
+create index ACT_IDX_HI_TASK_INST_END on ACT_HI_TASKINST(END_TIME_) local;
+
+create index ACT_IDX_HI_DETAIL_ROOT_PI on ACT_HI_DETAIL(ROOT_PROC_INST_ID_) local;
+create index ACT_IDX_HI_DETAIL_PROC_INST on ACT_HI_DETAIL(PROC_INST_ID_) local;
+create index ACT_IDX_HI_DETAIL_ACT_INST on ACT_HI_DETAIL(ACT_INST_ID_) local;
+create index ACT_IDX_HI_DETAIL_CASE_INST on ACT_HI_DETAIL(CASE_INST_ID_) local;
+create index ACT_IDX_HI_DETAIL_CASE_EXEC on ACT_HI_DETAIL(CASE_EXECUTION_ID_) local;
+create index ACT_IDX_HI_DETAIL_TIME on ACT_HI_DETAIL(TIME_) local;
+create index ACT_IDX_HI_DETAIL_NAME on ACT_HI_DETAIL(NAME_) local;
+create index ACT_IDX_HI_DETAIL_TASK_ID on ACT_HI_DETAIL(TASK_ID_) local;
+create index ACT_IDX_HI_DETAIL_TENANT_ID on ACT_HI_DETAIL(TENANT_ID_, 0) local;
+create index ACT_IDX_HI_DETAIL_PROC_KEY on ACT_HI_DETAIL(PROC_DEF_KEY_) local;
+create index ACT_IDX_HI_DETAIL_BYTEAR on ACT_HI_DETAIL(BYTEARRAY_ID_) local;
+create index ACT_IDX_HI_DETAIL_RM_TIME on ACT_HI_DETAIL(REMOVAL_TIME_, ID_) local;
+create index ACT_IDX_HI_DETAIL_TASK_BYTEAR on ACT_HI_DETAIL(BYTEARRAY_ID_, TASK_ID_) local;
+create index ACT_IDX_HI_DETAIL_VAR_INST_ID on ACT_HI_DETAIL(VAR_INST_ID_) local;
+
+create index ACT_IDX_HI_IDENT_LNK_ROOT_PI on ACT_HI_IDENTITYLINK(ROOT_PROC_INST_ID_);
+create index ACT_IDX_HI_IDENT_LNK_USER on ACT_HI_IDENTITYLINK(USER_ID_);
+create index ACT_IDX_HI_IDENT_LNK_GROUP on ACT_HI_IDENTITYLINK(GROUP_ID_);
+create index ACT_IDX_HI_IDENT_LNK_TENANT_ID on ACT_HI_IDENTITYLINK(TENANT_ID_, 0);
+create index ACT_IDX_HI_IDENT_LNK_PROC_KEY on ACT_HI_IDENTITYLINK(PROC_DEF_KEY_);
+create index ACT_IDX_HI_IDENT_LINK_TASK on ACT_HI_IDENTITYLINK(TASK_ID_);
+create index ACT_IDX_HI_IDENT_LINK_RM_TIME on ACT_HI_IDENTITYLINK(REMOVAL_TIME_, ID_);
+create index ACT_IDX_HI_IDENT_LNK_TIMESTAMP on ACT_HI_IDENTITYLINK(TIMESTAMP_);
+
+create index ACT_IDX_HI_VARINST_ROOT_PI on ACT_HI_VARINST(ROOT_PROC_INST_ID_) local;
+create index ACT_IDX_HI_PROCVAR_PROC_INST on ACT_HI_VARINST(PROC_INST_ID_) local;
+create index ACT_IDX_HI_PROCVAR_NAME_TYPE on ACT_HI_VARINST(NAME_, VAR_TYPE_) local;
+create index ACT_IDX_HI_CASEVAR_CASE_INST on ACT_HI_VARINST(CASE_INST_ID_) local;
+create index ACT_IDX_HI_VAR_INST_TENANT_ID on ACT_HI_VARINST(TENANT_ID_, 0) local;
+create index ACT_IDX_HI_VAR_INST_PROC_KEY on ACT_HI_VARINST(PROC_DEF_KEY_) local;
+create index ACT_IDX_HI_VARINST_BYTEAR on ACT_HI_VARINST(BYTEARRAY_ID_) local;
+create index ACT_IDX_HI_VARINST_RM_TIME on ACT_HI_VARINST(REMOVAL_TIME_, ID_) local;
+create index ACT_IDX_HI_VAR_PI_NAME_TYPE on ACT_HI_VARINST(PROC_INST_ID_, NAME_, VAR_TYPE_) local;
+
+create index ACT_IDX_HI_INCIDENT_TENANT_ID on ACT_HI_INCIDENT(TENANT_ID_, 0);
+create index ACT_IDX_HI_INCIDENT_PROC_KEY on ACT_HI_INCIDENT(PROC_DEF_KEY_);
+create index ACT_IDX_HI_INCIDENT_ROOT_PI on ACT_HI_INCIDENT(ROOT_PROC_INST_ID_);
+create index ACT_IDX_HI_INCIDENT_PROCINST on ACT_HI_INCIDENT(PROC_INST_ID_);
+create index ACT_IDX_HI_INCIDENT_RM_TIME on ACT_HI_INCIDENT(REMOVAL_TIME_, ID_);
+
+create index ACT_IDX_HI_JOB_LOG_ROOT_PI on ACT_HI_JOB_LOG(ROOT_PROC_INST_ID_) local;
+create index ACT_IDX_HI_JOB_LOG_PROCINST on ACT_HI_JOB_LOG(PROCESS_INSTANCE_ID_) local;
+create index ACT_IDX_HI_JOB_LOG_PROCDEF on ACT_HI_JOB_LOG(PROCESS_DEF_ID_) local;
+create index ACT_IDX_HI_JOB_LOG_TENANT_ID on ACT_HI_JOB_LOG(TENANT_ID_, 0) local;
+create index ACT_IDX_HI_JOB_LOG_JOB_DEF_ID on ACT_HI_JOB_LOG(JOB_DEF_ID_) local;
+create index ACT_IDX_HI_JOB_LOG_PROC_KEY on ACT_HI_JOB_LOG(PROCESS_DEF_KEY_) local;
+create index ACT_IDX_HI_JOB_LOG_EX_STACK on ACT_HI_JOB_LOG(JOB_EXCEPTION_STACK_ID_) local;
+create index ACT_IDX_HI_JOB_LOG_RM_TIME on ACT_HI_JOB_LOG(REMOVAL_TIME_, ID_) local;
+create index ACT_IDX_HI_JOB_LOG_JOB_CONF on ACT_HI_JOB_LOG(JOB_DEF_CONFIGURATION_) local;
+
+create index ACT_HI_BAT_RM_TIME on ACT_HI_BATCH(REMOVAL_TIME_, ID_);
+
+create index ACT_HI_EXT_TASK_LOG_ROOT_PI on ACT_HI_EXT_TASK_LOG(ROOT_PROC_INST_ID_);
+create index ACT_HI_EXT_TASK_LOG_PROCINST on ACT_HI_EXT_TASK_LOG(PROC_INST_ID_);
+create index ACT_HI_EXT_TASK_LOG_PROCDEF on ACT_HI_EXT_TASK_LOG(PROC_DEF_ID_);
+create index ACT_HI_EXT_TASK_LOG_PROC_KEY on ACT_HI_EXT_TASK_LOG(PROC_DEF_KEY_);
+create index ACT_HI_EXT_TASK_LOG_TENANT_ID on ACT_HI_EXT_TASK_LOG(TENANT_ID_);
+create index ACT_IDX_HI_EXTTASKLOG_ERRORDET on ACT_HI_EXT_TASK_LOG(ERROR_DETAILS_ID_);
+create index ACT_HI_EXT_TASK_LOG_RM_TIME on ACT_HI_EXT_TASK_LOG(REMOVAL_TIME_, ID_);
+
+create index ACT_IDX_HI_OP_LOG_ROOT_PI on ACT_HI_OP_LOG(ROOT_PROC_INST_ID_) local;
+create index ACT_IDX_HI_OP_LOG_PROCINST on ACT_HI_OP_LOG(PROC_INST_ID_) local;
+create index ACT_IDX_HI_OP_LOG_PROCDEF on ACT_HI_OP_LOG(PROC_DEF_ID_) local;
+create index ACT_IDX_HI_OP_LOG_TASK on ACT_HI_OP_LOG(TASK_ID_) local;
+create index ACT_IDX_HI_OP_LOG_RM_TIME on ACT_HI_OP_LOG(REMOVAL_TIME_, ID_) local;
+create index ACT_IDX_HI_OP_LOG_TIMESTAMP on ACT_HI_OP_LOG(TIMESTAMP_) local;
+create index ACT_IDX_HI_OP_LOG_USER_ID on ACT_HI_OP_LOG(USER_ID_) local;
+create index ACT_IDX_HI_OP_LOG_OP_TYPE on ACT_HI_OP_LOG(OPERATION_TYPE_) local;
+create index ACT_IDX_HI_OP_LOG_ENTITY_TYPE on ACT_HI_OP_LOG(ENTITY_TYPE_) local;
+
+create index ACT_IDX_HI_COMMENT_TASK on ACT_HI_COMMENT(TASK_ID_);
+create index ACT_IDX_HI_COMMENT_ROOT_PI on ACT_HI_COMMENT(ROOT_PROC_INST_ID_);
+create index ACT_IDX_HI_COMMENT_PROCINST on ACT_HI_COMMENT(PROC_INST_ID_);
+create index ACT_IDX_HI_COMMENT_RM_TIME on ACT_HI_COMMENT(REMOVAL_TIME_, ID_);
+
+create index ACT_IDX_HI_ATTACHMENT_CONTENT on ACT_HI_ATTACHMENT(CONTENT_ID_);
+create index ACT_IDX_HI_ATTACHMENT_ROOT_PI on ACT_HI_ATTACHMENT(ROOT_PROC_INST_ID_);
+create index ACT_IDX_HI_ATTACHMENT_PROCINST on ACT_HI_ATTACHMENT(PROC_INST_ID_);
+create index ACT_IDX_HI_ATTACHMENT_TASK on ACT_HI_ATTACHMENT(TASK_ID_);
+create index ACT_IDX_HI_ATTACHMENT_RM_TIME on ACT_HI_ATTACHMENT(REMOVAL_TIME_, ID_);
@@ -134,6 +134,8 @@ DROP INDEX ACT_IDX_METER_LOG_REPORT;
 -- old metric timestamp column
 DROP INDEX ACT_IDX_METER_LOG_TIME;
 DROP INDEX ACT_IDX_METER_LOG;
+DROP INDEX ACT_IDX_CACHE_EVENT_MS;
+DROP INDEX ACT_IDX_CORR_KEY_VALUE;
 
 drop index ACT_IDX_AUTH_RESOURCE_ID;
 drop index ACT_IDX_EXT_TASK_TOPIC;
@@ -184,6 +186,8 @@ drop table ACT_RU_INCIDENT if exists;
 drop table ACT_RU_AUTHORIZATION if exists;
 drop table ACT_RU_FILTER if exists;
 drop table ACT_RU_METER_LOG if exists;
+drop table ACT_RU_CACHE_EVENT if exists;
+drop table ACT_RU_CORRELATION_KEY if exists;
 drop table ACT_RU_EXT_TASK if exists;
 drop table ACT_RU_BATCH if exists;
 drop table ACT_GE_SCHEMA_LOG if exists;
@@ -40,6 +40,8 @@ DROP INDEX ACT_RU_METER_LOG.ACT_IDX_METER_LOG_REPORT;
 -- old metric timestamp column
 DROP INDEX ACT_RU_METER_LOG.ACT_IDX_METER_LOG_TIME;
 DROP INDEX ACT_RU_METER_LOG.ACT_IDX_METER_LOG;
+DROP INDEX ACT_RU_CACHE_EVENT.ACT_IDX_CACHE_EVENT_MS;
+DROP INDEX ACT_RU_CORRELATION_KEY.ACT_IDX_CORR_KEY_VALUE;
 
 
 -- indexes for concurrency problems - https://app.camunda.com/jira/browse/CAM-1646 --
@@ -192,6 +194,8 @@ if exists (select TABLE_NAME from INFORMATION_SCHEMA.TABLES where TABLE_NAME = '
 if exists (select TABLE_NAME from INFORMATION_SCHEMA.TABLES where TABLE_NAME = 'ACT_RU_AUTHORIZATION') drop table ACT_RU_AUTHORIZATION;
 if exists (select TABLE_NAME from INFORMATION_SCHEMA.TABLES where TABLE_NAME = 'ACT_RU_FILTER') drop table ACT_RU_FILTER;
 if exists (select TABLE_NAME from INFORMATION_SCHEMA.TABLES where TABLE_NAME = 'ACT_RU_METER_LOG') drop table ACT_RU_METER_LOG;
+if exists (select TABLE_NAME from INFORMATION_SCHEMA.TABLES where TABLE_NAME = 'ACT_RU_CACHE_EVENT') drop table ACT_RU_CACHE_EVENT;
+if exists (select TABLE_NAME from INFORMATION_SCHEMA.TABLES where TABLE_NAME = 'ACT_RU_CORRELATION_KEY') drop table ACT_RU_CORRELATION_KEY;
 if exists (select TABLE_NAME from INFORMATION_SCHEMA.TABLES where TABLE_NAME = 'ACT_RU_EXT_TASK') drop table ACT_RU_EXT_TASK;
 if exists (select TABLE_NAME from INFORMATION_SCHEMA.TABLES where TABLE_NAME = 'ACT_RU_BATCH') drop table ACT_RU_BATCH;
 if exists (select TABLE_NAME from INFORMATION_SCHEMA.TABLES where TABLE_NAME = 'ACT_GE_SCHEMA_LOG') drop table ACT_GE_SCHEMA_LOG;
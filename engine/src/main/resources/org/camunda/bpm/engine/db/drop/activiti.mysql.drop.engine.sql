@@ -36,6 +36,8 @@ DROP INDEX ACT_IDX_METER_LOG_REPORT ON ACT_RU_METER_LOG;
 -- old metric timestamp column
 DROP INDEX ACT_IDX_METER_LOG_TIME ON ACT_RU_METER_LOG;
 DROP INDEX ACT_IDX_METER_LOG ON ACT_RU_METER_LOG;
+DROP INDEX ACT_IDX_CACHE_EVENT_MS ON ACT_RU_CACHE_EVENT;
+DROP INDEX ACT_IDX_CORR_KEY_VALUE ON ACT_RU_CORRELATION_KEY;
 
 drop index ACT_IDX_EXT_TASK_TOPIC on ACT_RU_EXT_TASK;
 
@@ -175,6 +177,8 @@ drop table if exists ACT_RU_INCIDENT;
 drop table if exists ACT_RU_AUTHORIZATION;
 drop table if exists ACT_RU_FILTER;
 drop table if exists ACT_RU_METER_LOG;
+drop table if exists ACT_RU_CACHE_EVENT;
+drop table if exists ACT_RU_CORRELATION_KEY;
 drop table if exists ACT_RU_EXT_TASK;
 drop table if exists ACT_RU_BATCH;
 drop table if exists ACT_GE_SCHEMA_LOG;
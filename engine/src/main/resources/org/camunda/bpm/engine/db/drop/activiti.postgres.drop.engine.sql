@@ -50,6 +50,8 @@ DROP INDEX ACT_IDX_METER_LOG_REPORT;
 -- old metric timestamp column
 DROP INDEX ACT_IDX_METER_LOG_TIME;
 DROP INDEX ACT_IDX_METER_LOG;
+DROP INDEX ACT_IDX_CACHE_EVENT_MS;
+DROP INDEX ACT_IDX_CORR_KEY_VALUE;
 
 drop index ACT_IDX_EXT_TASK_TOPIC;
 
@@ -199,6 +201,8 @@ drop table ACT_RU_INCIDENT;
 drop table ACT_RU_AUTHORIZATION;
 drop table ACT_RU_FILTER;
 drop table ACT_RU_METER_LOG;
+drop table ACT_RU_CACHE_EVENT;
+drop table ACT_RU_CORRELATION_KEY;
 drop table ACT_RU_EXT_TASK;
 drop table ACT_RU_BATCH;
 drop table ACT_GE_SCHEMA_LOG;
@@ -38,3 +38,61 @@ ALTER TABLE ACT_RU_INCIDENT
 
 ALTER TABLE ACT_HI_INCIDENT
   ADD FAILED_ACTIVITY_ID_ nvarchar(255);
+
+-- deployment cache invalidation events
+create table ACT_RU_CACHE_EVENT (
+  ID_ nvarchar(64) not null,
+  TYPE_ nvarchar(64) not null,
+  DEFINITION_ID_ nvarchar(64) not null,
+  MILLISECONDS_ numeric(19,0) not null,
+  primary key (ID_)
+);
+
+CREATE INDEX ACT_IDX_CACHE_EVENT_MS ON ACT_RU_CACHE_EVENT(MILLISECONDS_);
+
+-- message correlation index
+create table ACT_RU_CORRELATION_KEY (
+  ID_ nvarchar(64) not null,
+  PROC_INST_ID_ nvarchar(64) not null,
+  NAME_ nvarchar(255) not null,
+  VALUE_ nvarchar(255) not null,
+  primary key (ID_)
+);
+
+CREATE INDEX ACT_IDX_CORR_KEY_VALUE ON ACT_RU_CORRELATION_KEY(NAME_, VALUE_);
+
+-- removal time indexes include the id, which breaks ties in history cleanup ranges
+drop index ACT_HI_DECINST.ACT_IDX_HI_DEC_INST_RM_TIME;
+create index ACT_IDX_HI_DEC_INST_RM_TIME on ACT_HI_DECINST(REMOVAL_TIME_, ID_);
+drop index ACT_HI_DEC_IN.ACT_IDX_HI_DEC_IN_RM_TIME;
+create index ACT_IDX_HI_DEC_IN_RM_TIME on ACT_HI_DEC_IN(REMOVAL_TIME_, ID_);
+drop index ACT_HI_DEC_OUT.ACT_IDX_HI_DEC_OUT_RM_TIME;
+create index ACT_IDX_HI_DEC_OUT_RM_TIME on ACT_HI_DEC_OUT(REMOVAL_TIME_, ID_);
+drop index ACT_GE_BYTEARRAY.ACT_IDX_BYTEARRAY_RM_TIME;
+create index ACT_IDX_BYTEARRAY_RM_TIME on ACT_GE_BYTEARRAY(REMOVAL_TIME_, ID_);
+drop index ACT_HI_PROCINST.ACT_IDX_HI_PRO_INST_RM_TIME;
+create index ACT_IDX_HI_PRO_INST_RM_TIME on ACT_HI_PROCINST(REMOVAL_TIME_, ID_);
+drop index ACT_HI_ACTINST.ACT_IDX_HI_ACT_INST_RM_TIME;
+create index ACT_IDX_HI_ACT_INST_RM_TIME on ACT_HI_ACTINST(REMOVAL_TIME_, ID_);
+drop index ACT_HI_DETAIL.ACT_IDX_HI_DETAIL_RM_TIME;
+create index ACT_IDX_HI_DETAIL_RM_TIME on ACT_HI_DETAIL(REMOVAL_TIME_, ID_);
+drop index ACT_HI_IDENTITYLINK.ACT_IDX_HI_IDENT_LINK_RM_TIME;
+create index ACT_IDX_HI_IDENT_LINK_RM_TIME on ACT_HI_IDENTITYLINK(REMOVAL_TIME_, ID_);
+drop index ACT_HI_TASKINST.ACT_IDX_HI_TASK_INST_RM_TIME;
+create index ACT_IDX_HI_TASK_INST_RM_TIME on ACT_HI_TASKINST(REMOVAL_TIME_, ID_);
+drop index ACT_HI_VARINST.ACT_IDX_HI_VARINST_RM_TIME;
+create index ACT_IDX_HI_VARINST_RM_TIME on ACT_HI_VARINST(REMOVAL_TIME_, ID_);
+drop index ACT_HI_INCIDENT.ACT_IDX_HI_INCIDENT_RM_TIME;
+create index ACT_IDX_HI_INCIDENT_RM_TIME on ACT_HI_INCIDENT(REMOVAL_TIME_, ID_);
+drop index ACT_HI_JOB_LOG.ACT_IDX_HI_JOB_LOG_RM_TIME;
+create index ACT_IDX_HI_JOB_LOG_RM_TIME on ACT_HI_JOB_LOG(REMOVAL_TIME_, ID_);
+drop index ACT_HI_BATCH.ACT_HI_BAT_RM_TIME;
+create index ACT_HI_BAT_RM_TIME on ACT_HI_BATCH(REMOVAL_TIME_, ID_);
+drop index ACT_HI_EXT_TASK_LOG.ACT_HI_EXT_TASK_LOG_RM_TIME;
+create index ACT_HI_EXT_TASK_LOG_RM_TIME on ACT_HI_EXT_TASK_LOG(REMOVAL_TIME_, ID_);
+drop index ACT_HI_OP_LOG.ACT_IDX_HI_OP_LOG_RM_TIME;
+create index ACT_IDX_HI_OP_LOG_RM_TIME on ACT_HI_OP_LOG(REMOVAL_TIME_, ID_);
+drop index ACT_HI_COMMENT.ACT_IDX_HI_COMMENT_RM_TIME;
+create index ACT_IDX_HI_COMMENT_RM_TIME on ACT_HI_COMMENT(REMOVAL_TIME_, ID_);
+drop index ACT_HI_ATTACHMENT.ACT_IDX_HI_ATTACHMENT_RM_TIME;
+create index ACT_IDX_HI_ATTACHMENT_RM_TIME on ACT_HI_ATTACHMENT(REMOVAL_TIME_, ID_);
@@ -0,0 +1,156 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.jobexecutor.historycleanup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class HistoryCleanupPartitionBoundsTest {
+
+  protected static final String TABLE = "ACT_HI_VARINST";
+
+  protected HistoryCleanupRemovalTimeRange cleanup;
+
+  @Before
+  public void init() {
+    cleanup = new HistoryCleanupRemovalTimeRange() {
+      protected int getPartitionPrecreateMonths() {
+        return 2;
+      }
+    };
+  }
+
+  @Test
+  public void shouldParsePartitionUpperBound() {
+    assertThat(cleanup.parsePartitionUpperBound(TABLE, "ACT_HI_VARINST_P20240301")).isEqualTo(date(2024, 3, 1));
+  }
+
+  @Test
+  public void shouldParseLowerCasePartitionUpperBound() {
+    // PostgreSQL reports unquoted identifiers in lower case
+    assertThat(cleanup.parsePartitionUpperBound(TABLE, "act_hi_varinst_p20240301")).isEqualTo(date(2024, 3, 1));
+  }
+
+  @Test
+  public void shouldNotParseUpperBoundOfForeignPartition() {
+    assertThat(cleanup.parsePartitionUpperBound(TABLE, "ACT_HI_DETAIL_P20240301")).isNull();
+    assertThat(cleanup.parsePartitionUpperBound(TABLE, "ACT_HI_VARINST_DEFAULT")).isNull();
+    assertThat(cleanup.parsePartitionUpperBound(TABLE, "ACT_HI_VARINST_MAX")).isNull();
+    assertThat(cleanup.parsePartitionUpperBound(TABLE, null)).isNull();
+  }
+
+  @Test
+  public void shouldNotParseMalformedPartitionUpperBound() {
+    assertThat(cleanup.parsePartitionUpperBound(TABLE, "ACT_HI_VARINST_P2024031")).isNull();
+    assertThat(cleanup.parsePartitionUpperBound(TABLE, "ACT_HI_VARINST_P202403011")).isNull();
+    assertThat(cleanup.parsePartitionUpperBound(TABLE, "ACT_HI_VARINST_P2024AB01")).isNull();
+    assertThat(cleanup.parsePartitionUpperBound(TABLE, "ACT_HI_VARINST_P20241301")).isNull();
+    assertThat(cleanup.parsePartitionUpperBound(TABLE, "ACT_HI_VARINST_X20240301")).isNull();
+  }
+
+  @Test
+  public void shouldFindLastPartitionUpperBound() {
+    List<String> partitions = Arrays.asList(
+        "ACT_HI_VARINST_P20240401",
+        "ACT_HI_VARINST_DEFAULT",
+        "ACT_HI_VARINST_P20240501",
+        "ACT_HI_VARINST_P20240301");
+
+    assertThat(cleanup.findLastPartitionUpperBound(TABLE, partitions)).isEqualTo(date(2024, 5, 1));
+  }
+
+  @Test
+  public void shouldNotFindLastPartitionUpperBoundWithoutMonthlyPartition() {
+    List<String> partitions = Collections.singletonList("ACT_HI_VARINST_DEFAULT");
+
+    assertThat(cleanup.findLastPartitionUpperBound(TABLE, partitions)).isNull();
+  }
+
+  @Test
+  public void shouldCreatePartitionsFromCurrentMonth() {
+    // when
+    List<Date> upperBounds = cleanup.getMissingPartitionUpperBounds(null, dateTime(2024, 3, 17, 14, 30));
+
+    // then
+    assertThat(upperBounds).containsExactly(
+        date(2024, 4, 1),
+        date(2024, 5, 1),
+        date(2024, 6, 1));
+  }
+
+  @Test
+  public void shouldCreatePartitionsFollowingLastPartition() {
+    // when
+    List<Date> upperBounds = cleanup.getMissingPartitionUpperBounds(date(2024, 4, 1), date(2024, 3, 1));
+
+    // then
+    assertThat(upperBounds).containsExactly(
+        date(2024, 5, 1),
+        date(2024, 6, 1));
+  }
+
+  @Test
+  public void shouldCreatePartitionsAcrossYearBoundary() {
+    // when
+    List<Date> upperBounds = cleanup.getMissingPartitionUpperBounds(date(2024, 12, 1), date(2024, 11, 30));
+
+    // then
+    assertThat(upperBounds).containsExactly(
+        date(2025, 1, 1),
+        date(2025, 2, 1));
+  }
+
+  @Test
+  public void shouldNotCreatePartitionsBeyondHorizon() {
+    // when
+    List<Date> upperBounds = cleanup.getMissingPartitionUpperBounds(date(2024, 6, 1), date(2024, 3, 31));
+
+    // then
+    assertThat(upperBounds).isEmpty();
+  }
+
+  @Test
+  public void shouldCatchUpOnMissedMonths() {
+    // when
+    List<Date> upperBounds = cleanup.getMissingPartitionUpperBounds(date(2024, 1, 1), date(2024, 3, 5));
+
+    // then
+    assertThat(upperBounds).containsExactly(
+        date(2024, 2, 1),
+        date(2024, 3, 1),
+        date(2024, 4, 1),
+        date(2024, 5, 1),
+        date(2024, 6, 1));
+  }
+
+  protected static Date date(int year, int month, int day) {
+    return dateTime(year, month, day, 0, 0);
+  }
+
+  protected static Date dateTime(int year, int month, int day, int hour, int minute) {
+    return new GregorianCalendar(year, month - 1, day, hour, minute).getTime();
+  }
+
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.cfg;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.camunda.bpm.engine.authorization.Authorization.ANY;
+import static org.camunda.bpm.engine.authorization.Authorization.AUTH_TYPE_GRANT;
+import static org.camunda.bpm.engine.authorization.Permissions.READ;
+import static org.camunda.bpm.engine.authorization.Resources.DEPLOYMENT;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.camunda.bpm.engine.AuthorizationService;
+import org.camunda.bpm.engine.IdentityService;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.RepositoryService;
+import org.camunda.bpm.engine.authorization.Authorization;
+import org.camunda.bpm.engine.authorization.Resource;
+import org.camunda.bpm.engine.identity.Group;
+import org.camunda.bpm.engine.identity.User;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.camunda.bpm.engine.repository.Deployment;
+import org.camunda.bpm.engine.test.util.ProcessEngineBootstrapRule;
+import org.camunda.bpm.engine.test.util.ProvidedProcessEngineRule;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class AuthorizationCacheTest {
+
+  protected static final String USER_ID = "user";
+
+  @ClassRule
+  public static ProcessEngineBootstrapRule bootstrapRule = new ProcessEngineBootstrapRule() {
+    @Override
+    public ProcessEngineConfiguration configureEngine(ProcessEngineConfigurationImpl configuration) {
+      configuration.setAuthorizationCacheEnabled(true);
+      configuration.setAuthorizationCacheTimeToLive(60000);
+      return configuration;
+    }
+  };
+
+  @Rule
+  public ProvidedProcessEngineRule engineRule = new ProvidedProcessEngineRule(bootstrapRule);
+
+  protected ProcessEngineConfigurationImpl processEngineConfiguration;
+  protected AuthorizationService authorizationService;
+  protected IdentityService identityService;
+  protected RepositoryService repositoryService;
+
+  protected Deployment firstDeployment;
+  protected Deployment secondDeployment;
+
+  @Before
+  public void setUp() {
+    processEngineConfiguration = engineRule.getProcessEngineConfiguration();
+    authorizationService = engineRule.getAuthorizationService();
+    identityService = engineRule.getIdentityService();
+    repositoryService = engineRule.getRepositoryService();
+
+    firstDeployment = deploy();
+    secondDeployment = deploy();
+
+    processEngineConfiguration.setAuthorizationEnabled(true);
+  }
+
+  @After
+  public void tearDown() {
+    identityService.clearAuthentication();
+    processEngineConfiguration.setAuthorizationEnabled(false);
+
+    for (Authorization authorization : authorizationService.createAuthorizationQuery().list()) {
+      authorizationService.deleteAuthorization(authorization.getId());
+    }
+    for (User user : identityService.createUserQuery().list()) {
+      identityService.deleteUser(user.getId());
+    }
+    for (Group group : identityService.createGroupQuery().list()) {
+      identityService.deleteGroup(group.getId());
+    }
+    for (Deployment deployment : repositoryService.createDeploymentQuery().list()) {
+      repositoryService.deleteDeployment(deployment.getId(), true);
+    }
+
+    ClockUtil.reset();
+  }
+
+  @Test
+  public void shouldCacheResultUntilTimeToLiveHasPassed() {
+    // given
+    grant(DEPLOYMENT, firstDeployment.getId());
+    assertThat(isAuthorized(firstDeployment.getId())).isTrue();
+
+    // when
+    deleteAuthorizationsInDatabase();
+
+    // then
+    assertThat(isAuthorized(firstDeployment.getId())).isTrue();
+
+    // when
+    ClockUtil.setCurrentTime(new Date(ClockUtil.getCurrentTime().getTime() + 60001));
+
+    // then
+    assertThat(isAuthorized(firstDeployment.getId())).isFalse();
+  }
+
+  @Test
+  public void shouldInvalidateOnAuthorizationWrite() {
+    // given
+    assertThat(isAuthorized(firstDeployment.getId())).isFalse();
+
+    // when
+    grant(DEPLOYMENT, firstDeployment.getId());
+
+    // then
+    assertThat(isAuthorized(firstDeployment.getId())).isTrue();
+  }
+
+  @Test
+  public void shouldInvalidateOnMembershipWrite() {
+    // given
+    isAuthorized(firstDeployment.getId());
+    assertThat(processEngineConfiguration.getAuthorizationCache().size()).isGreaterThan(0);
+
+    processEngineConfiguration.setAuthorizationEnabled(false);
+    identityService.saveUser(identityService.newUser(USER_ID));
+    identityService.saveGroup(identityService.newGroup("group"));
+
+    // when
+    identityService.createMembership(USER_ID, "group");
+
+    // then
+    assertThat(processEngineConfiguration.getAuthorizationCache().size()).isEqualTo(0);
+  }
+
+  @Test
+  public void shouldRestrictQueryToAuthorizedResourceIds() {
+    // given
+    grant(DEPLOYMENT, firstDeployment.getId());
+
+    // when
+    List<Deployment> deployments = queryDeployments();
+
+    // then
+    assertThat(deployments).extracting("id").containsExactly(firstDeployment.getId());
+    assertThat(countDeployments()).isEqualTo(1);
+
+    // when
+    grant(DEPLOYMENT, secondDeployment.getId());
+
+    // then
+    assertThat(queryDeployments()).extracting("id")
+      .containsExactlyInAnyOrder(firstDeployment.getId(), secondDeployment.getId());
+  }
+
+  @Test
+  public void shouldNotFindResourcesWithoutGrant() {
+    // given no grant
+
+    // when
+    List<Deployment> deployments = queryDeployments();
+
+    // then
+    assertThat(deployments).isEmpty();
+  }
+
+  @Test
+  public void shouldFindAllResourcesWithGrantOnAnyResource() {
+    // given
+    grant(DEPLOYMENT, ANY);
+
+    // when
+    List<Deployment> deployments = queryDeployments();
+
+    // then
+    assertThat(deployments).extracting("id")
+      .containsExactlyInAnyOrder(firstDeployment.getId(), secondDeployment.getId());
+  }
+
+  @Test
+  public void shouldJoinAuthorizationsAboveInListThreshold() {
+    // given
+    processEngineConfiguration.setAuthorizationCacheInListThreshold(1);
+    grant(DEPLOYMENT, firstDeployment.getId());
+    grant(DEPLOYMENT, secondDeployment.getId());
+
+    try {
+      // when
+      List<Deployment> deployments = queryDeployments();
+
+      // then
+      assertThat(deployments).extracting("id")
+        .containsExactlyInAnyOrder(firstDeployment.getId(), secondDeployment.getId());
+
+    } finally {
+      processEngineConfiguration.setAuthorizationCacheInListThreshold(100);
+    }
+  }
+
+  protected Deployment deploy() {
+    return repositoryService.createDeployment()
+        .addModelInstance("process.bpmn", Bpmn.createExecutableProcess("process").startEvent().endEvent().done())
+        .deploy();
+  }
+
+  protected void grant(Resource resource, String resourceId) {
+    Authorization authorization = authorizationService.createNewAuthorization(AUTH_TYPE_GRANT);
+    authorization.setUserId(USER_ID);
+    authorization.setResource(resource);
+    authorization.setResourceId(resourceId);
+    authorization.addPermission(READ);
+    authorizationService.saveAuthorization(authorization);
+  }
+
+  protected boolean isAuthorized(String deploymentId) {
+    return authorizationService.isUserAuthorized(USER_ID, Collections.<String>emptyList(), READ, DEPLOYMENT, deploymentId);
+  }
+
+  protected List<Deployment> queryDeployments() {
+    identityService.setAuthenticatedUserId(USER_ID);
+    try {
+      return repositoryService.createDeploymentQuery().list();
+    } finally {
+      identityService.clearAuthentication();
+    }
+  }
+
+  protected long countDeployments() {
+    identityService.setAuthenticatedUserId(USER_ID);
+    try {
+      return repositoryService.createDeploymentQuery().count();
+    } finally {
+      identityService.clearAuthentication();
+    }
+  }
+
+  /**
+   * Deletes the authorizations bypassing the process engine, like another cluster node would.
+   */
+  protected void deleteAuthorizationsInDatabase() {
+    processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        try {
+          Connection connection = commandContext.getDbSqlSession().getSqlSession().getConnection();
+          PreparedStatement statement = connection.prepareStatement("delete from ACT_RU_AUTHORIZATION");
+          statement.executeUpdate();
+          statement.close();
+          return null;
+
+        } catch (Exception e) {
+          throw new RuntimeException(e);
+        }
+      }
+    });
+  }
+
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.cfg;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.camunda.bpm.engine.ExternalTaskService;
+import org.camunda.bpm.engine.ManagementService;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.externaltask.LockedExternalTask;
+import org.camunda.bpm.engine.impl.persistence.entity.ExternalTaskEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.JobEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.VariableInstanceEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.util.ByteArrayCompression;
+import org.camunda.bpm.engine.runtime.Job;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.test.api.mgmt.AlwaysFailingDelegate;
+import org.camunda.bpm.engine.test.util.ProcessEngineBootstrapRule;
+import org.camunda.bpm.engine.test.util.ProcessEngineTestRule;
+import org.camunda.bpm.engine.test.util.ProvidedProcessEngineRule;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+public class ByteArrayCompressionTest {
+
+  protected static final Set<String> COMPRESSED_RESOURCE_TYPES = new HashSet<>(Arrays.asList("RUNTIME", "HISTORY"));
+
+  @ClassRule
+  public static ProcessEngineBootstrapRule bootstrapRule = new ProcessEngineBootstrapRule() {
+    @Override
+    public ProcessEngineConfiguration configureEngine(ProcessEngineConfigurationImpl configuration) {
+      configuration.setByteArrayCompressionResourceTypes(COMPRESSED_RESOURCE_TYPES);
+      configuration.setByteArrayCompressionThreshold(64);
+      return configuration;
+    }
+  };
+
+  public ProvidedProcessEngineRule engineRule = new ProvidedProcessEngineRule(bootstrapRule);
+  public ProcessEngineTestRule testRule = new ProcessEngineTestRule(engineRule);
+
+  @Rule
+  public RuleChain ruleChain = RuleChain.outerRule(engineRule).around(testRule);
+
+  protected ProcessEngineConfigurationImpl configuration;
+  protected RuntimeService runtimeService;
+  protected ManagementService managementService;
+
+  @Before
+  public void init() {
+    configuration = engineRule.getProcessEngineConfiguration();
+    runtimeService = engineRule.getRuntimeService();
+    managementService = engineRule.getManagementService();
+  }
+
+  @After
+  public void resetConfiguration() {
+    configuration.setByteArrayCompressionResourceTypes(COMPRESSED_RESOURCE_TYPES);
+  }
+
+  @Test
+  public void shouldCompressByteArrayVariable() throws Exception {
+    // given
+    testRule.deploy(Bpmn.createExecutableProcess("process").startEvent().userTask().endEvent().done());
+    byte[] bytes = createCompressibleBytes(4096);
+
+    // when
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("process",
+        Collections.<String, Object>singletonMap("bytes", bytes));
+
+    // then
+    byte[] persistedBytes = selectPersistedBytes(getByteArrayId(processInstance, "bytes"));
+    assertThat(ByteArrayCompression.isCompressed(persistedBytes)).isTrue();
+    assertThat(persistedBytes.length).isLessThan(bytes.length);
+    assertThat((byte[]) runtimeService.getVariable(processInstance.getId(), "bytes")).isEqualTo(bytes);
+  }
+
+  @Test
+  public void shouldNotCompressSmallByteArray() throws Exception {
+    // given
+    testRule.deploy(Bpmn.createExecutableProcess("process").startEvent().userTask().endEvent().done());
+    byte[] bytes = createCompressibleBytes(32);
+
+    // when
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("process",
+        Collections.<String, Object>singletonMap("bytes", bytes));
+
+    // then
+    assertThat(selectPersistedBytes(getByteArrayId(processInstance, "bytes"))).isEqualTo(bytes);
+  }
+
+  @Test
+  public void shouldReadUncompressedByteArrayAfterEnablingCompression() throws Exception {
+    // given
+    testRule.deploy(Bpmn.createExecutableProcess("process").startEvent().userTask().endEvent().done());
+    byte[] bytes = createCompressibleBytes(4096);
+
+    configuration.setByteArrayCompressionResourceTypes(Collections.<String>emptySet());
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("process",
+        Collections.<String, Object>singletonMap("bytes", bytes));
+    assertThat(selectPersistedBytes(getByteArrayId(processInstance, "bytes"))).isEqualTo(bytes);
+
+    // when
+    configuration.setByteArrayCompressionResourceTypes(COMPRESSED_RESOURCE_TYPES);
+
+    // then
+    assertThat((byte[]) runtimeService.getVariable(processInstance.getId(), "bytes")).isEqualTo(bytes);
+  }
+
+  @Test
+  public void shouldNotRewriteIdenticalJobExceptionStacktrace() throws Exception {
+    // given
+    testRule.deploy(Bpmn.createExecutableProcess("process")
+        .startEvent()
+        .serviceTask()
+          .camundaAsyncBefore()
+          .camundaClass(AlwaysFailingDelegate.class.getName())
+        .endEvent()
+        .done());
+    runtimeService.startProcessInstanceByKey("process");
+    Job job = managementService.createJobQuery().singleResult();
+
+    String byteArrayId = null;
+    int revision = 0;
+
+    // when
+    for (int i = 0; i < 2; i++) {
+      // the same call site produces the same stack trace
+      executeFailingJob(job);
+
+      if (byteArrayId == null) {
+        byteArrayId = ((JobEntity) managementService.createJobQuery().singleResult()).getExceptionByteArrayId();
+        revision = selectRevision(byteArrayId);
+      }
+    }
+
+    // then
+    JobEntity failedJob = (JobEntity) managementService.createJobQuery().singleResult();
+    assertThat(failedJob.getRetries()).isEqualTo(1);
+    assertThat(failedJob.getExceptionByteArrayId()).isEqualTo(byteArrayId);
+    assertThat(selectRevision(byteArrayId)).isEqualTo(revision);
+    assertThat(ByteArrayCompression.isCompressed(selectPersistedBytes(byteArrayId))).isTrue();
+    assertThat(managementService.getJobExceptionStacktrace(job.getId())).contains(AlwaysFailingDelegate.MESSAGE);
+  }
+
+  @Test
+  public void shouldNotRewriteIdenticalExternalTaskErrorDetails() throws Exception {
+    // given
+    testRule.deploy(Bpmn.createExecutableProcess("process")
+        .startEvent()
+        .serviceTask().camundaExternalTask("topic")
+        .endEvent()
+        .done());
+    runtimeService.startProcessInstanceByKey("process");
+    ExternalTaskService externalTaskService = engineRule.getExternalTaskService();
+    String errorDetails = new String(createCompressibleBytes(1024));
+
+    String byteArrayId = null;
+    int revision = 0;
+
+    // when
+    for (int i = 0; i < 2; i++) {
+      LockedExternalTask task = externalTaskService.fetchAndLock(1, "worker").topic("topic", 1000).execute().get(0);
+      externalTaskService.handleFailure(task.getId(), "worker", "failure", errorDetails, 1, 0);
+
+      if (byteArrayId == null) {
+        byteArrayId = ((ExternalTaskEntity) externalTaskService.createExternalTaskQuery().singleResult()).getErrorDetailsByteArrayId();
+        revision = selectRevision(byteArrayId);
+      }
+    }
+
+    // then
+    ExternalTaskEntity failedTask = (ExternalTaskEntity) externalTaskService.createExternalTaskQuery().singleResult();
+    assertThat(failedTask.getErrorDetailsByteArrayId()).isEqualTo(byteArrayId);
+    assertThat(selectRevision(byteArrayId)).isEqualTo(revision);
+    assertThat(externalTaskService.getExternalTaskErrorDetails(failedTask.getId())).isEqualTo(errorDetails);
+  }
+
+  @Test
+  public void shouldReadContentStartingWithMagicBytes() {
+    // given
+    byte[] compressed = ByteArrayCompression.compress(createCompressibleBytes(1024));
+    byte[] content = Arrays.copyOf(compressed, 20);
+
+    // when
+    byte[] result = ByteArrayCompression.decompress(content);
+
+    // then
+    assertThat(ByteArrayCompression.isCompressed(content)).isTrue();
+    assertThat(result).isSameAs(content);
+  }
+
+  protected void executeFailingJob(Job job) {
+    try {
+      managementService.executeJob(job.getId());
+    } catch (Exception e) {
+      // expected
+    }
+  }
+
+  protected String getByteArrayId(ProcessInstance processInstance, String variableName) {
+    VariableInstanceEntity variable = (VariableInstanceEntity) runtimeService.createVariableInstanceQuery()
+        .processInstanceIdIn(processInstance.getId())
+        .variableName(variableName)
+        .singleResult();
+    return variable.getByteArrayValueId();
+  }
+
+  protected byte[] selectPersistedBytes(String byteArrayId) throws SQLException {
+    try (Connection connection = configuration.getDataSource().getConnection();
+         PreparedStatement statement = connection.prepareStatement("select BYTES_ from ACT_GE_BYTEARRAY where ID_ = ?")) {
+      statement.setString(1, byteArrayId);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        resultSet.next();
+        return resultSet.getBytes(1);
+      }
+    }
+  }
+
+  protected int selectRevision(String byteArrayId) throws SQLException {
+    try (Connection connection = configuration.getDataSource().getConnection();
+         PreparedStatement statement = connection.prepareStatement("select REV_ from ACT_GE_BYTEARRAY where ID_ = ?")) {
+      statement.setString(1, byteArrayId);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        resultSet.next();
+        return resultSet.getInt(1);
+      }
+    }
+  }
+
+  protected byte[] createCompressibleBytes(int length) {
+    byte[] bytes = new byte[length];
+    for (int i = 0; i < length; i++) {
+      bytes[i] = (byte) ('a' + i % 8);
+    }
+    return bytes;
+  }
+
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.cfg;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.deploy.cache.DeploymentCache;
+import org.camunda.bpm.engine.impl.persistence.deploy.cache.DeploymentCacheInvalidationPoller;
+import org.camunda.bpm.engine.impl.persistence.deploy.cache.DeploymentCacheWarmUp;
+import org.camunda.bpm.engine.impl.persistence.entity.CacheEventEntity;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.camunda.bpm.engine.repository.ProcessDefinition;
+import org.camunda.bpm.engine.test.util.ProcessEngineBootstrapRule;
+import org.camunda.bpm.engine.test.util.ProvidedProcessEngineRule;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+public class DeploymentCacheInvalidationTest {
+
+  protected static final BpmnModelInstance PROCESS = Bpmn.createExecutableProcess("process")
+      .startEvent()
+      .userTask()
+      .endEvent()
+      .done();
+
+  @ClassRule
+  public static ProcessEngineBootstrapRule bootstrapRule = new ProcessEngineBootstrapRule() {
+    @Override
+    public ProcessEngineConfiguration configureEngine(ProcessEngineConfigurationImpl configuration) {
+      configuration.setDeploymentCacheInvalidationEnabled(true);
+      // poll manually
+      configuration.setDeploymentCacheInvalidationPollInterval(Long.MAX_VALUE / 2);
+      return configuration;
+    }
+  };
+
+  public ProvidedProcessEngineRule engineRule = new ProvidedProcessEngineRule(bootstrapRule);
+
+  @Rule
+  public RuleChain ruleChain = RuleChain.outerRule(engineRule);
+
+  protected ProcessEngineConfigurationImpl processEngineConfiguration;
+  protected DeploymentCache deploymentCache;
+  protected List<String> deploymentIds = new ArrayList<String>();
+
+  @Before
+  public void init() {
+    processEngineConfiguration = engineRule.getProcessEngineConfiguration();
+    deploymentCache = processEngineConfiguration.getDeploymentCache();
+  }
+
+  @After
+  public void cleanUp() {
+    // delete the deployments before the cache events they cause
+    for (String deploymentId : deploymentIds) {
+      engineRule.getRepositoryService().deleteDeployment(deploymentId, true);
+    }
+
+    processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        commandContext.getCacheEventManager().deleteCacheEventsBefore(Long.MAX_VALUE);
+        return null;
+      }
+    });
+  }
+
+  @Test
+  public void shouldRecordEventWhenDefinitionIsRemoved() {
+    // given
+    String deploymentId = deploy(PROCESS);
+    String processDefinitionId = getProcessDefinition().getId();
+
+    // when
+    engineRule.getRepositoryService().deleteDeployment(deploymentId, true);
+    deploymentIds.remove(deploymentId);
+
+    // then
+    List<CacheEventEntity> events = findCacheEvents();
+    assertThat(events).hasSize(1);
+    assertThat(events.get(0).getType()).isEqualTo(CacheEventEntity.PROCESS_DEFINITION);
+    assertThat(events.get(0).getDefinitionId()).isEqualTo(processDefinitionId);
+  }
+
+  @Test
+  public void shouldEvictDefinitionRemovedByOtherEngine() {
+    // given
+    deploy(PROCESS);
+    deploy(Bpmn.createExecutableProcess("otherProcess").startEvent().endEvent().done());
+    final String processDefinitionId = getProcessDefinition().getId();
+    engineRule.getRuntimeService().startProcessInstanceByKey("process");
+    assertThat(deploymentCache.findProcessDefinitionFromCache(processDefinitionId)).isNotNull();
+
+    // another engine removes the definition
+    processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        commandContext.getCacheEventManager()
+          .addDefinitionRemovedEvent(CacheEventEntity.PROCESS_DEFINITION, processDefinitionId);
+        return null;
+      }
+    });
+
+    // when
+    DeploymentCacheInvalidationPoller poller = processEngineConfiguration.getDeploymentCacheInvalidationPoller();
+    poller.poll();
+
+    // then
+    assertThat(deploymentCache.findProcessDefinitionFromCache(processDefinitionId)).isNull();
+    assertThat(deploymentCache.getProcessDefinitionCache().size()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldEvictDefinitionOfEventWithOldTimestamp() {
+    // given
+    deploy(PROCESS);
+    final String processDefinitionId = getProcessDefinition().getId();
+    engineRule.getRuntimeService().startProcessInstanceByKey("process");
+
+    DeploymentCacheInvalidationPoller poller = processEngineConfiguration.getDeploymentCacheInvalidationPoller();
+    poller.poll();
+
+    // another engine with a clock behind ours commits the event late
+    final long eventTime = ClockUtil.getCurrentTime().getTime() - 5 * 60 * 1000;
+    processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        commandContext.getDbEntityManager()
+          .insert(new CacheEventEntity(CacheEventEntity.PROCESS_DEFINITION, processDefinitionId, eventTime));
+        return null;
+      }
+    });
+
+    // when
+    poller.poll();
+
+    // then
+    assertThat(deploymentCache.findProcessDefinitionFromCache(processDefinitionId)).isNull();
+  }
+
+  @Test
+  public void shouldProcessEventOnlyOnce() {
+    // given
+    deploy(PROCESS);
+    final String processDefinitionId = getProcessDefinition().getId();
+
+    processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        commandContext.getCacheEventManager()
+          .addDefinitionRemovedEvent(CacheEventEntity.PROCESS_DEFINITION, processDefinitionId);
+        return null;
+      }
+    });
+
+    DeploymentCacheInvalidationPoller poller = processEngineConfiguration.getDeploymentCacheInvalidationPoller();
+    poller.poll();
+    engineRule.getRuntimeService().startProcessInstanceByKey("process");
+
+    // when
+    poller.poll();
+
+    // then
+    assertThat(deploymentCache.findProcessDefinitionFromCache(processDefinitionId)).isNotNull();
+  }
+
+  @Test
+  public void shouldWarmUpLatestDefinitions() {
+    // given
+    deploy(PROCESS);
+    deploy(PROCESS);
+    deploymentIds.add(engineRule.getRepositoryService()
+        .createDeployment()
+        .addClasspathResource("org/camunda/bpm/engine/test/api/dmn/Example.dmn")
+        .deploy()
+        .getId());
+    deploymentCache.discardProcessDefinitionCache();
+    deploymentCache.discardDecisionDefinitionCache();
+
+    // when
+    new DeploymentCacheWarmUp(processEngineConfiguration, 2).warmUp();
+
+    // then
+    String latestProcessDefinitionId = getProcessDefinition().getId();
+    assertThat(deploymentCache.getProcessDefinitionCache().keySet()).containsExactly(latestProcessDefinitionId);
+    assertThat(deploymentCache.getDecisionDefinitionCache().size()).isEqualTo(1);
+  }
+
+  protected String deploy(BpmnModelInstance modelInstance) {
+    String deploymentId = engineRule.getRepositoryService()
+        .createDeployment()
+        .addModelInstance("process.bpmn", modelInstance)
+        .deploy()
+        .getId();
+    deploymentIds.add(deploymentId);
+    return deploymentId;
+  }
+
+  protected ProcessDefinition getProcessDefinition() {
+    return engineRule.getRepositoryService()
+        .createProcessDefinitionQuery()
+        .processDefinitionKey("process")
+        .latestVersion()
+        .singleResult();
+  }
+
+  protected List<CacheEventEntity> findCacheEvents() {
+    return processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<List<CacheEventEntity>>() {
+      public List<CacheEventEntity> execute(CommandContext commandContext) {
+        return commandContext.getCacheEventManager().findCacheEvents();
+      }
+    });
+  }
+
+}
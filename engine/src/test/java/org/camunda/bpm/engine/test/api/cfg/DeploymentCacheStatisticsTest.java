@@ -0,0 +1,112 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.cfg;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.persistence.deploy.cache.CachePurgeReport;
+import org.camunda.bpm.engine.impl.persistence.deploy.cache.TinyLfuCache;
+import org.camunda.bpm.engine.impl.persistence.deploy.cache.TinyLfuCacheFactory;
+import org.camunda.bpm.engine.management.DeploymentCacheStatistics;
+import org.camunda.bpm.engine.repository.ProcessDefinition;
+import org.camunda.bpm.engine.test.util.ProcessEngineBootstrapRule;
+import org.camunda.bpm.engine.test.util.ProcessEngineTestRule;
+import org.camunda.bpm.engine.test.util.ProvidedProcessEngineRule;
+import org.camunda.bpm.engine.variable.Variables;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+public class DeploymentCacheStatisticsTest {
+
+  @ClassRule
+  public static ProcessEngineBootstrapRule bootstrapRule = new ProcessEngineBootstrapRule() {
+    @Override
+    public ProcessEngineConfiguration configureEngine(ProcessEngineConfigurationImpl configuration) {
+      configuration.setCacheFactory(new TinyLfuCacheFactory());
+      return configuration;
+    }
+  };
+
+  public ProvidedProcessEngineRule engineRule = new ProvidedProcessEngineRule(bootstrapRule);
+  public ProcessEngineTestRule testRule = new ProcessEngineTestRule(engineRule);
+
+  @Rule
+  public RuleChain ruleChain = RuleChain.outerRule(engineRule).around(testRule);
+
+  @Test
+  public void shouldUseTinyLfuCache() {
+    assertThat(engineRule.getProcessEngineConfiguration()
+        .getDeploymentCache()
+        .getProcessDefinitionCache()).isInstanceOf(TinyLfuCache.class);
+  }
+
+  @Test
+  public void shouldReportDeploymentCacheStatistics() {
+    // given
+    testRule.deploy(Bpmn.createExecutableProcess("process").startEvent().userTask().endEvent().done());
+    testRule.deploy("org/camunda/bpm/engine/test/api/dmn/Example.dmn");
+
+    ProcessDefinition processDefinition = engineRule.getRepositoryService()
+        .createProcessDefinitionQuery()
+        .singleResult();
+    engineRule.getProcessEngineConfiguration().getDeploymentCache().discardProcessDefinitionCache();
+
+    // when
+    engineRule.getRuntimeService().startProcessInstanceByKey("process");
+    engineRule.getRuntimeService().startProcessInstanceByKey("process");
+    engineRule.getRepositoryService().getBpmnModelInstance(processDefinition.getId());
+    engineRule.getDecisionService()
+      .evaluateDecisionTableByKey("decision", Variables.createVariables().putValue("status", "silver").putValue("sum", 100));
+
+    // then
+    Map<String, DeploymentCacheStatistics> statistics = statisticsByName(
+        engineRule.getManagementService().getDeploymentCacheStatistics());
+
+    DeploymentCacheStatistics processDefinitionCache = statistics.get(CachePurgeReport.PROCESS_DEF_CACHE);
+    assertThat(processDefinitionCache.getSize()).isEqualTo(1);
+    assertThat(processDefinitionCache.getMissCount()).isGreaterThan(0);
+    assertThat(processDefinitionCache.getHitCount()).isGreaterThan(0);
+    assertThat(processDefinitionCache.getWeightedSize()).isGreaterThan(1);
+
+    DeploymentCacheStatistics bpmnModelInstanceCache = statistics.get(CachePurgeReport.BPMN_MODEL_INST_CACHE);
+    assertThat(bpmnModelInstanceCache.getSize()).isEqualTo(1);
+    assertThat(bpmnModelInstanceCache.getMissCount()).isGreaterThan(0);
+
+    DeploymentCacheStatistics decisionDefinitionCache = statistics.get(CachePurgeReport.DMN_DEF_CACHE);
+    assertThat(decisionDefinitionCache.getSize()).isEqualTo(1);
+    assertThat(decisionDefinitionCache.getHitCount()).isGreaterThan(0);
+    assertThat(decisionDefinitionCache.getEvictionCount()).isEqualTo(0);
+  }
+
+  protected Map<String, DeploymentCacheStatistics> statisticsByName(List<DeploymentCacheStatistics> statistics) {
+    Map<String, DeploymentCacheStatistics> result = new HashMap<String, DeploymentCacheStatistics>();
+    for (DeploymentCacheStatistics cacheStatistics : statistics) {
+      result.put(cacheStatistics.getCacheName(), cacheStatistics);
+    }
+    return result;
+  }
+
+}
@@ -0,0 +1,410 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.cfg;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.beans.Introspector;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.List;
+
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.el.ExpressionManager;
+import org.camunda.bpm.engine.impl.javax.el.ELContext;
+import org.camunda.bpm.engine.impl.javax.el.ELException;
+import org.camunda.bpm.engine.impl.javax.el.ValueExpression;
+import org.camunda.bpm.engine.impl.juel.CompilingExpressionFactory;
+import org.camunda.bpm.engine.impl.juel.CompilingValueExpression;
+import org.camunda.bpm.engine.impl.juel.ExpressionFactoryImpl;
+import org.camunda.bpm.engine.impl.util.IoUtil;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.test.util.ProcessEngineBootstrapRule;
+import org.camunda.bpm.engine.test.util.ProcessEngineTestRule;
+import org.camunda.bpm.engine.test.util.ProvidedProcessEngineRule;
+import org.camunda.bpm.engine.variable.Variables;
+import org.camunda.bpm.engine.variable.context.VariableContext;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+public class ExpressionCompilationTest {
+
+  protected static final int THRESHOLD = 2;
+
+  @ClassRule
+  public static ProcessEngineBootstrapRule bootstrapRule = new ProcessEngineBootstrapRule() {
+    @Override
+    public ProcessEngineConfiguration configureEngine(ProcessEngineConfigurationImpl configuration) {
+      configuration.setExpressionCompilationEnabled(true);
+      configuration.setExpressionCompilationThreshold(THRESHOLD);
+      return configuration;
+    }
+  };
+
+  protected ProvidedProcessEngineRule engineRule = new ProvidedProcessEngineRule(bootstrapRule);
+  protected ProcessEngineTestRule testRule = new ProcessEngineTestRule(engineRule);
+
+  @Rule
+  public RuleChain ruleChain = RuleChain.outerRule(engineRule).around(testRule);
+
+  protected ExpressionManager expressionManager;
+  protected ExpressionFactoryImpl interpretingFactory;
+  protected RuntimeService runtimeService;
+
+  @Before
+  public void setUp() {
+    expressionManager = engineRule.getProcessEngineConfiguration().getExpressionManager();
+    interpretingFactory = new ExpressionFactoryImpl();
+    runtimeService = engineRule.getRuntimeService();
+  }
+
+  @Test
+  public void shouldUseCompilingExpressionFactory() {
+    assertThat(expressionManager.getExpressionFactory()).isInstanceOf(CompilingExpressionFactory.class);
+    assertThat(expressionManager.createValueExpression("${a + b}")).isInstanceOf(CompilingValueExpression.class);
+  }
+
+  @Test
+  public void shouldCompileAfterThreshold() {
+    // given
+    CompilingValueExpression expression = (CompilingValueExpression) expressionManager.createValueExpression("${a + b}");
+    ELContext context = createContext(new Customer("Ann", 10));
+
+    // when
+    for (int i = 0; i < THRESHOLD; i++) {
+      assertThat(expression.getValue(context)).isEqualTo(3L);
+    }
+
+    // then
+    assertThat(expression.isCompiled()).isFalse();
+    assertThat(expression.getValue(context)).isEqualTo(3L);
+    assertThat(expression.isCompiled()).isTrue();
+  }
+
+  @Test
+  public void shouldEvaluateLikeInterpreter() {
+    List<String> expressions = Arrays.asList(
+        "${a + b * 2 - 1}",
+        "${b / a}",
+        "${b mod a}",
+        "${-a}",
+        "${not (a > b)}",
+        "${empty name}",
+        "${empty missing}",
+        "${a == 1 && b >= 2 || false}",
+        "${a > 1 ? 'big' : 'small'}",
+        "${1 + 2 * 3}",
+        "${'prefix' == 'prefix'}",
+        "Hello ${name}, you are ${customer.age} years old",
+        "${customer.name}",
+        "${customer['name']}",
+        "${customer.address.city}",
+        "${customer.noAddress.city}",
+        "${customer.greet(name)}",
+        "${customer.add(a, '5')}",
+        "${customer.name.toUpperCase()}",
+        "${customer.name.substring(a, b)}",
+        "${customer[propertyName]}",
+        "${customer.vip}",
+        "${name.length() > 2 and customer.age < 100}");
+
+    for (String expressionString : expressions) {
+      ValueExpression compiledExpression = expressionManager.createValueExpression(expressionString);
+      ValueExpression interpretedExpression = createInterpretedExpression(expressionString);
+
+      for (int i = 0; i <= THRESHOLD + 1; i++) {
+        // a new customer on every evaluation to use cached bean methods with other bases
+        Customer customer = new Customer("Ann" + i, 20 + i);
+        Object compiled = compiledExpression.getValue(createContext(customer));
+        Object interpreted = interpretedExpression.getValue(createContext(customer));
+
+        assertThat(compiled).as(expressionString).isEqualTo(interpreted);
+      }
+
+      assertThat(((CompilingValueExpression) compiledExpression).isCompiled()).as(expressionString).isTrue();
+    }
+  }
+
+  @Test
+  public void shouldResolveBasesOfOtherClasses() {
+    // given
+    ValueExpression expression = expressionManager.createValueExpression("${customer.name}");
+    for (int i = 0; i <= THRESHOLD; i++) {
+      expression.getValue(createContext(new Customer("Ann", 20)));
+    }
+
+    // when
+    Object value = expression.getValue(createContext(new PremiumCustomer("Bob", 30)));
+
+    // then
+    assertThat(value).isEqualTo("Premium Bob");
+  }
+
+  @Test
+  public void shouldCacheBeanMethodsOfSeveralClasses() {
+    // given
+    ValueExpression expression = expressionManager.createValueExpression("${customer.name}");
+    Customer[] customers = {new Customer("Ann", 20), new PremiumCustomer("Bob", 30), new Customer("Cid", 40)};
+
+    for (int i = 0; i <= THRESHOLD + 2 * customers.length; i++) {
+      Customer customer = customers[i % customers.length];
+
+      // when
+      Object value = expression.getValue(createContext(customer));
+
+      // then
+      assertThat(value).isEqualTo(customer.getName());
+    }
+  }
+
+  @Test
+  public void shouldNotPreventClassesFromBeingUnloaded() throws Exception {
+    // given
+    ValueExpression expression = expressionManager.createValueExpression("${customer.name}");
+    WeakReference<ClassLoader> classLoaderReference = evaluateWithBeanOfOwnClassLoader(expression);
+
+    // when
+    for (int i = 0; i < 10 && classLoaderReference.get() != null; i++) {
+      System.gc();
+      Thread.sleep(50);
+    }
+
+    // then
+    assertThat(classLoaderReference.get()).isNull();
+    assertThat(expression.getValue(createContext(new Customer("Ann", 20)))).isEqualTo("Ann");
+  }
+
+  @Test
+  public void shouldWrapExceptionsOfBeanMethods() {
+    // given
+    ValueExpression expression = expressionManager.createValueExpression("${customer.fail(name)}");
+
+    for (int i = 0; i <= THRESHOLD + 1; i++) {
+      try {
+        // when
+        expression.getValue(createContext(new Customer("Ann", 20)));
+        fail("exception expected");
+
+      } catch (ELException e) {
+        // then
+        assertThat(e.getCause()).isInstanceOf(IllegalStateException.class).hasMessage("Ann");
+      }
+    }
+  }
+
+  @Test
+  public void shouldEvaluateFunctions() {
+    // given
+    ValueExpression expression = expressionManager.createValueExpression("${dateTime().getYear() > 2000}");
+    ELContext context = createContext(new Customer("Ann", 20));
+
+    for (int i = 0; i <= THRESHOLD + 1; i++) {
+      // when
+      Object value = expression.getValue(context);
+
+      // then
+      assertThat(value).isEqualTo(true);
+    }
+  }
+
+  @Test
+  public void shouldEvaluateConditions() {
+    // given
+    BpmnModelInstance process = Bpmn.createExecutableProcess("process")
+      .startEvent()
+      .exclusiveGateway()
+        .condition("vip", "${amount > 100 && customer.startsWith('A')}")
+        .userTask("vip")
+        .endEvent()
+      .moveToLastGateway()
+        .condition("regular", "${amount <= 100 || !customer.startsWith('A')}")
+        .userTask("regular")
+        .endEvent()
+      .done();
+    testRule.deploy(process);
+
+    for (int i = 0; i < 3 * THRESHOLD; i++) {
+      boolean vip = i % 2 == 0;
+
+      // when
+      ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("process", Variables.createVariables()
+          .putValue("amount", vip ? 200 : 50)
+          .putValue("customer", "Ann"));
+
+      // then
+      assertThat(runtimeService.getActiveActivityIds(processInstance.getId())).containsExactly(vip ? "vip" : "regular");
+    }
+  }
+
+  protected WeakReference<ClassLoader> evaluateWithBeanOfOwnClassLoader(ValueExpression expression) throws Exception {
+    ClassLoader classLoader = new BeanClassLoader(getClass().getClassLoader());
+    Class<?> beanClass = classLoader.loadClass(NamedBean.class.getName());
+    assertThat(beanClass).isNotSameAs(NamedBean.class);
+
+    ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+    Thread.currentThread().setContextClassLoader(classLoader);
+    try {
+      for (int i = 0; i <= THRESHOLD + 1; i++) {
+        VariableContext variables = Variables.createVariables()
+          .putValue("customer", beanClass.newInstance())
+          .asVariableContext();
+        assertThat(expression.getValue(expressionManager.createElContext(variables))).isEqualTo("named");
+      }
+    } finally {
+      Thread.currentThread().setContextClassLoader(contextClassLoader);
+    }
+    assertThat(((CompilingValueExpression) expression).isCompiled()).isTrue();
+
+    Introspector.flushFromCaches(beanClass);
+    return new WeakReference<ClassLoader>(classLoader);
+  }
+
+  protected ValueExpression createInterpretedExpression(String expression) {
+    CompilingExpressionFactory factory = (CompilingExpressionFactory) expressionManager.getExpressionFactory();
+    expressionManager.setExpressionFactory(interpretingFactory);
+    try {
+      return expressionManager.createValueExpression(expression);
+    } finally {
+      expressionManager.setExpressionFactory(factory);
+    }
+  }
+
+  protected ELContext createContext(Customer customer) {
+    VariableContext variables = Variables.createVariables()
+      .putValue("a", 1)
+      .putValue("b", 2)
+      .putValue("name", "Ann")
+      .putValue("missing", null)
+      .putValue("propertyName", "age")
+      .putValue("customer", customer)
+      .asVariableContext();
+    return expressionManager.createElContext(variables);
+  }
+
+  public static class Customer {
+
+    protected String name;
+    protected int age;
+
+    public Customer(String name, int age) {
+      this.name = name;
+      this.age = age;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public int getAge() {
+      return age;
+    }
+
+    public boolean isVip() {
+      return age > 21;
+    }
+
+    public Address getAddress() {
+      return new Address(name + " Street");
+    }
+
+    public Address getNoAddress() {
+      return null;
+    }
+
+    public String greet(String other) {
+      return "Hello " + other + ", I am " + name;
+    }
+
+    public long add(long first, int second) {
+      return first + second + age;
+    }
+
+    public String fail(String message) {
+      throw new IllegalStateException(message);
+    }
+  }
+
+  public static class PremiumCustomer extends Customer {
+
+    public PremiumCustomer(String name, int age) {
+      super(name, age);
+    }
+
+    @Override
+    public String getName() {
+      return "Premium " + name;
+    }
+  }
+
+  public static class NamedBean {
+
+    public String getName() {
+      return "named";
+    }
+  }
+
+  /**
+   * Defines its own copy of the {@link NamedBean} class.
+   */
+  protected static class BeanClassLoader extends ClassLoader {
+
+    public BeanClassLoader(ClassLoader parent) {
+      super(parent);
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+      if (!NamedBean.class.getName().equals(name)) {
+        return super.loadClass(name, resolve);
+      }
+      synchronized (getClassLoadingLock(name)) {
+        Class<?> loadedClass = findLoadedClass(name);
+        if (loadedClass == null) {
+          String resource = name.replace('.', '/') + ".class";
+          try {
+            byte[] bytes = IoUtil.readInputStream(getParent().getResourceAsStream(resource), resource);
+            loadedClass = defineClass(name, bytes, 0, bytes.length);
+          } catch (RuntimeException e) {
+            throw new ClassNotFoundException(name, e);
+          }
+        }
+        return loadedClass;
+      }
+    }
+  }
+
+  public static class Address {
+
+    protected String city;
+
+    public Address(String city) {
+      this.city = city;
+    }
+
+    public String getCity() {
+      return city;
+    }
+  }
+}
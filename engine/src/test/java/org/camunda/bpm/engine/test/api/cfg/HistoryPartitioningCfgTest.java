@@ -0,0 +1,98 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.cfg;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.db.DbSchemaCreate;
+import org.camunda.bpm.engine.impl.db.sql.DbSqlSession;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HistoryPartitioningCfgTest {
+
+  protected ProcessEngineConfigurationImpl configuration;
+  protected ProcessEngine processEngine;
+
+  @Before
+  public void setUp() {
+    configuration = (ProcessEngineConfigurationImpl) ProcessEngineConfiguration
+        .createStandaloneInMemProcessEngineConfiguration();
+
+    configuration
+        .setJdbcUrl("jdbc:h2:mem:camunda" + getClass().getSimpleName())
+        .setProcessEngineName(getClass().getSimpleName());
+  }
+
+  @After
+  public void tearDown() {
+    if (processEngine != null) {
+      processEngine.close();
+      processEngine = null;
+    }
+  }
+
+  @Test
+  public void shouldEnableHistoryPartitioningWithArgument() {
+    // when
+    DbSchemaCreate.configure(configuration, new String[] { DbSchemaCreate.PARTITIONED_HISTORY_ARGUMENT });
+
+    // then
+    assertThat(configuration.getDatabaseSchemaUpdate()).isEqualTo(ProcessEngineConfigurationImpl.DB_SCHEMA_UPDATE_CREATE);
+    assertThat(configuration.isHistoryPartitioningEnabled()).isTrue();
+  }
+
+  @Test
+  public void shouldNotEnableHistoryPartitioningWithoutArgument() {
+    // when
+    DbSchemaCreate.configure(configuration, new String[0]);
+
+    // then
+    assertThat(configuration.getDatabaseSchemaUpdate()).isEqualTo(ProcessEngineConfigurationImpl.DB_SCHEMA_UPDATE_CREATE);
+    assertThat(configuration.isHistoryPartitioningEnabled()).isFalse();
+  }
+
+  @Test
+  public void shouldIgnoreHistoryPartitioningOnH2() {
+    // given
+    DbSchemaCreate.configure(configuration, new String[] { DbSchemaCreate.PARTITIONED_HISTORY_ARGUMENT });
+    configuration.setDatabaseSchemaUpdate(ProcessEngineConfigurationImpl.DB_SCHEMA_UPDATE_CREATE_DROP);
+
+    // when
+    processEngine = configuration.buildProcessEngine();
+
+    // then
+    assertThat(configuration.isHistoryPartitioningEnabled()).isFalse();
+    assertThat(configuration.getDbSqlSessionFactory().isHistoryPartitioningEnabled()).isFalse();
+
+    // the regular history schema has been created
+    boolean historyTablePresent = configuration.getCommandExecutorTxRequired().execute(new Command<Boolean>() {
+      public Boolean execute(CommandContext commandContext) {
+        return commandContext.getSession(DbSqlSession.class).isHistoryTablePresent();
+      }
+    });
+    assertThat(historyTablePresent).isTrue();
+    assertThat(processEngine.getHistoryService().createHistoricProcessInstanceQuery().count()).isEqualTo(0);
+  }
+
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.cfg;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.Date;
+
+import org.camunda.bpm.engine.IdentityService;
+import org.camunda.bpm.engine.OptimisticLockingException;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.identity.Tenant;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.TenantEntity;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.camunda.bpm.engine.test.util.ProcessEngineBootstrapRule;
+import org.camunda.bpm.engine.test.util.ProvidedProcessEngineRule;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class SecondLevelEntityCacheTest {
+
+  protected static final String TENANT_ID = "tenant";
+
+  @ClassRule
+  public static ProcessEngineBootstrapRule bootstrapRule = new ProcessEngineBootstrapRule() {
+    @Override
+    public ProcessEngineConfiguration configureEngine(ProcessEngineConfigurationImpl configuration) {
+      configuration.setSecondLevelEntityCacheEnabled(true);
+      configuration.setSecondLevelEntityCacheTimeToLive(60000);
+      return configuration;
+    }
+  };
+
+  @Rule
+  public ProvidedProcessEngineRule engineRule = new ProvidedProcessEngineRule(bootstrapRule);
+
+  protected ProcessEngineConfigurationImpl processEngineConfiguration;
+  protected IdentityService identityService;
+
+  @Before
+  public void setUp() {
+    processEngineConfiguration = engineRule.getProcessEngineConfiguration();
+    identityService = engineRule.getIdentityService();
+
+    Tenant tenant = identityService.newTenant(TENANT_ID);
+    tenant.setName("name");
+    identityService.saveTenant(tenant);
+  }
+
+  @After
+  public void tearDown() {
+    identityService.deleteTenant(TENANT_ID);
+    processEngineConfiguration.getSecondLevelEntityCache().clear();
+    ClockUtil.reset();
+  }
+
+  @Test
+  public void shouldReadCachedEntityUntilTimeToLiveHasPassed() {
+    // given
+    selectTenant();
+    updateTenantInDatabase("changed", 2);
+
+    // when
+    TenantEntity cachedTenant = selectTenant();
+
+    // then
+    assertThat(cachedTenant.getName()).isEqualTo("name");
+
+    // when
+    ClockUtil.setCurrentTime(new Date(ClockUtil.getCurrentTime().getTime() + 60001));
+    TenantEntity tenant = selectTenant();
+
+    // then
+    assertThat(tenant.getName()).isEqualTo("changed");
+  }
+
+  @Test
+  public void shouldReturnCopyForEveryCommand() {
+    // given
+    TenantEntity tenant = selectTenant();
+
+    // when
+    TenantEntity firstCopy = selectTenant();
+    TenantEntity secondCopy = selectTenant();
+
+    // then
+    assertThat(firstCopy).isNotSameAs(tenant).isNotSameAs(secondCopy);
+    assertThat(firstCopy.getName()).isEqualTo(secondCopy.getName()).isEqualTo("name");
+  }
+
+  @Test
+  public void shouldInvalidateOnWrite() {
+    // given
+    selectTenant();
+    Tenant tenant = identityService.createTenantQuery().tenantId(TENANT_ID).singleResult();
+    tenant.setName("changed");
+
+    // when
+    identityService.saveTenant(tenant);
+
+    // then
+    assertThat(selectTenant().getName()).isEqualTo("changed");
+  }
+
+  @Test
+  public void shouldFailToUpdateStaleEntity() {
+    // given
+    selectTenant();
+    updateTenantInDatabase("changed", 2);
+
+    try {
+      // when
+      processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Void>() {
+        public Void execute(CommandContext commandContext) {
+          TenantEntity tenant = commandContext.getDbEntityManager().selectById(TenantEntity.class, TENANT_ID);
+          tenant.setName("other");
+          return null;
+        }
+      });
+      fail("exception expected");
+
+    } catch (OptimisticLockingException e) {
+      // then the revision check detects the stale entity
+    }
+
+    // and the entity is not cached any longer
+    assertThat(selectTenant().getName()).isEqualTo("changed");
+  }
+
+  @Test
+  public void shouldNotCacheEntityUpdatedByInterleavedCommand() {
+    // given a command which reads the tenant before another command commits an update of it
+    processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        commandContext.getDbEntityManager().selectById(TenantEntity.class, TENANT_ID);
+
+        processEngineConfiguration.getCommandExecutorTxRequiresNew().execute(new Command<Void>() {
+          public Void execute(CommandContext commandContext) {
+            TenantEntity tenant = commandContext.getDbEntityManager().selectById(TenantEntity.class, TENANT_ID);
+            tenant.setName("changed");
+            return null;
+          }
+        });
+
+        return null;
+      }
+    });
+
+    // when
+    TenantEntity tenant = selectTenant();
+
+    // then the first command has not put the previous state into the cache
+    assertThat(tenant.getName()).isEqualTo("changed");
+    assertThat(tenant.getRevision()).isEqualTo(2);
+  }
+
+  protected TenantEntity selectTenant() {
+    return processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<TenantEntity>() {
+      public TenantEntity execute(CommandContext commandContext) {
+        return commandContext.getDbEntityManager().selectById(TenantEntity.class, TENANT_ID);
+      }
+    });
+  }
+
+  /**
+   * Updates the tenant bypassing the process engine, like another cluster node would.
+   */
+  protected void updateTenantInDatabase(final String name, final int revision) {
+    processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        try {
+          Connection connection = commandContext.getDbSqlSession().getSqlSession().getConnection();
+          PreparedStatement statement = connection.prepareStatement("update ACT_ID_TENANT set NAME_ = ?, REV_ = ? where ID_ = ?");
+          statement.setString(1, name);
+          statement.setInt(2, revision);
+          statement.setString(3, TENANT_ID);
+          statement.executeUpdate();
+          statement.close();
+          return null;
+
+        } catch (Exception e) {
+          throw new RuntimeException(e);
+        }
+      }
+    });
+  }
+
+}
@@ -0,0 +1,299 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.cfg;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.camunda.bpm.engine.ExternalTaskService;
+import org.camunda.bpm.engine.ManagementService;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.externaltask.LockedExternalTask;
+import org.camunda.bpm.engine.impl.Page;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.db.sql.DbSqlSessionFactory;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.AcquirableJobEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.JobEntity;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.camunda.bpm.engine.runtime.Job;
+import org.camunda.bpm.engine.test.util.ProcessEngineBootstrapRule;
+import org.camunda.bpm.engine.test.util.ProcessEngineTestRule;
+import org.camunda.bpm.engine.test.util.ProvidedProcessEngineRule;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+public class SkipLockedAcquisitionTest {
+
+  protected static final BpmnModelInstance ASYNC_PROCESS = Bpmn
+      .createExecutableProcess("asyncProcess")
+      .startEvent()
+      .serviceTask()
+        .camundaAsyncBefore()
+        .camundaExpression("${true}")
+      .endEvent()
+      .done();
+
+  protected static final BpmnModelInstance EXTERNAL_TASK_PROCESS = Bpmn
+      .createExecutableProcess("externalTaskProcess")
+      .startEvent()
+      .serviceTask()
+        .camundaExternalTask("topic")
+      .endEvent()
+      .done();
+
+  @ClassRule
+  public static ProcessEngineBootstrapRule bootstrapRule = new ProcessEngineBootstrapRule() {
+    @Override
+    public ProcessEngineConfiguration configureEngine(ProcessEngineConfigurationImpl configuration) {
+      configuration.setSkipLockedAcquisitionEnabled(true);
+      return configuration;
+    }
+  };
+
+  public ProvidedProcessEngineRule engineRule = new ProvidedProcessEngineRule(bootstrapRule);
+  public ProcessEngineTestRule testRule = new ProcessEngineTestRule(engineRule);
+
+  @Rule
+  public RuleChain ruleChain = RuleChain.outerRule(engineRule).around(testRule);
+
+  protected RuntimeService runtimeService;
+  protected ManagementService managementService;
+  protected ExternalTaskService externalTaskService;
+
+  @Before
+  public void init() {
+    runtimeService = engineRule.getRuntimeService();
+    managementService = engineRule.getManagementService();
+    externalTaskService = engineRule.getExternalTaskService();
+  }
+
+  @Test
+  public void shouldAcquireJobs() {
+    // given
+    testRule.deploy(ASYNC_PROCESS);
+    runtimeService.startProcessInstanceByKey("asyncProcess");
+    runtimeService.startProcessInstanceByKey("asyncProcess");
+
+    // when
+    List<AcquirableJobEntity> jobs = findAcquirableJobs();
+
+    // then
+    ProcessEngineConfigurationImpl configuration = engineRule.getProcessEngineConfiguration();
+    assertThat(configuration.isSkipLockedAcquisitionEnabled())
+      .isEqualTo(DbSqlSessionFactory.isSkipLockedSupported(configuration.getDatabaseType()));
+    assertThat(jobs).hasSize(2);
+  }
+
+  @Test
+  public void shouldNotAcquireLockedJobs() {
+    // given
+    testRule.deploy(ASYNC_PROCESS);
+    runtimeService.startProcessInstanceByKey("asyncProcess");
+    runtimeService.startProcessInstanceByKey("asyncProcess");
+
+    final Job lockedJob = managementService.createJobQuery().list().get(0);
+    lockJob(lockedJob.getId());
+
+    // when
+    List<AcquirableJobEntity> jobs = findAcquirableJobs();
+
+    // then
+    assertThat(jobs).hasSize(1);
+    assertThat(jobs.get(0).getId()).isNotEqualTo(lockedJob.getId());
+  }
+
+  @Test
+  public void shouldFetchAndLockExternalTasks() {
+    // given
+    testRule.deploy(EXTERNAL_TASK_PROCESS);
+    runtimeService.startProcessInstanceByKey("externalTaskProcess");
+    runtimeService.startProcessInstanceByKey("externalTaskProcess");
+
+    // when
+    List<LockedExternalTask> firstFetch = externalTaskService.fetchAndLock(1, "worker1")
+      .topic("topic", 1000L)
+      .execute();
+    List<LockedExternalTask> secondFetch = externalTaskService.fetchAndLock(5, "worker2")
+      .topic("topic", 1000L)
+      .execute();
+
+    // then
+    assertThat(firstFetch).hasSize(1);
+    assertThat(secondFetch).hasSize(1);
+    assertThat(secondFetch.get(0).getId()).isNotEqualTo(firstFetch.get(0).getId());
+    assertThat(externalTaskService.fetchAndLock(5, "worker3")
+      .topic("topic", 1000L)
+      .execute()).isEmpty();
+  }
+
+  @Test
+  public void shouldAcquireDisjointJobsConcurrently() throws Exception {
+    // given a database which can skip locked rows
+    ProcessEngineConfigurationImpl configuration = engineRule.getProcessEngineConfiguration();
+    Assume.assumeTrue(isSkipLockedSupportedByDatabase());
+    assertThat(configuration.isSkipLockedAcquisitionEnabled()).isTrue();
+
+    testRule.deploy(ASYNC_PROCESS);
+    runtimeService.startProcessInstanceByKey("asyncProcess");
+    runtimeService.startProcessInstanceByKey("asyncProcess");
+
+    // when a second acquisition runs while the first one holds the locks of its rows
+    final List<AcquirableJobEntity> firstJobs = new CopyOnWriteArrayList<>();
+    List<AcquirableJobEntity> secondJobs = executeWhileTransactionIsOpen(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        firstJobs.addAll(commandContext.getJobManager().findNextJobsToExecute(new Page(0, 1)));
+        return null;
+      }
+    }, new Callable<List<AcquirableJobEntity>>() {
+      public List<AcquirableJobEntity> call() {
+        return findAcquirableJobs();
+      }
+    });
+
+    // then
+    assertThat(firstJobs).hasSize(1);
+    assertThat(secondJobs).hasSize(1);
+    assertThat(secondJobs.get(0).getId()).isNotEqualTo(firstJobs.get(0).getId());
+  }
+
+  @Test
+  public void shouldFetchAndLockDisjointExternalTasksConcurrently() throws Exception {
+    // given a database which can skip locked rows
+    ProcessEngineConfigurationImpl configuration = engineRule.getProcessEngineConfiguration();
+    Assume.assumeTrue(isSkipLockedSupportedByDatabase());
+    assertThat(configuration.isSkipLockedAcquisitionEnabled()).isTrue();
+
+    testRule.deploy(EXTERNAL_TASK_PROCESS);
+    runtimeService.startProcessInstanceByKey("externalTaskProcess");
+    runtimeService.startProcessInstanceByKey("externalTaskProcess");
+
+    // when a second fetch runs while the first one holds the locks of its rows
+    final List<LockedExternalTask> firstFetch = new CopyOnWriteArrayList<>();
+    List<LockedExternalTask> secondFetch = executeWhileTransactionIsOpen(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        firstFetch.addAll(externalTaskService.fetchAndLock(1, "worker1").topic("topic", 1000L).execute());
+        return null;
+      }
+    }, new Callable<List<LockedExternalTask>>() {
+      public List<LockedExternalTask> call() {
+        return externalTaskService.fetchAndLock(5, "worker2").topic("topic", 1000L).execute();
+      }
+    });
+
+    // then
+    assertThat(firstFetch).hasSize(1);
+    assertThat(secondFetch).hasSize(1);
+    assertThat(secondFetch.get(0).getId()).isNotEqualTo(firstFetch.get(0).getId());
+  }
+
+  @Test
+  public void shouldNotSupportSkipLockedOnH2() {
+    assertThat(DbSqlSessionFactory.isSkipLockedSupported(DbSqlSessionFactory.H2)).isFalse();
+  }
+
+  @Test
+  public void shouldSupportSkipLockedOnlyFromMySql8() {
+    assertThat(DbSqlSessionFactory.isSkipLockedSupported(DbSqlSessionFactory.MYSQL, 5)).isFalse();
+    assertThat(DbSqlSessionFactory.isSkipLockedSupported(DbSqlSessionFactory.MYSQL, 8)).isTrue();
+    assertThat(DbSqlSessionFactory.isSkipLockedSupported(DbSqlSessionFactory.MARIADB, 10)).isFalse();
+    assertThat(DbSqlSessionFactory.isSkipLockedSupported(DbSqlSessionFactory.POSTGRES, 9)).isTrue();
+  }
+
+  /**
+   * Executes the given command in a new transaction on another thread and calls the given
+   * callable while the transaction of the command is still open.
+   */
+  protected <T> T executeWhileTransactionIsOpen(final Command<Void> command, Callable<T> callable) throws Exception {
+    final CountDownLatch commandExecuted = new CountDownLatch(1);
+    final CountDownLatch transactionCompletable = new CountDownLatch(1);
+
+    Thread thread = new Thread(new Runnable() {
+      public void run() {
+        engineRule.getProcessEngineConfiguration().getCommandExecutorTxRequiresNew()
+          .execute(new Command<Void>() {
+            public Void execute(CommandContext commandContext) {
+              command.execute(commandContext);
+              commandExecuted.countDown();
+              try {
+                transactionCompletable.await(30, TimeUnit.SECONDS);
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+              return null;
+            }
+          });
+      }
+    });
+    thread.start();
+
+    try {
+      assertThat(commandExecuted.await(30, TimeUnit.SECONDS)).isTrue();
+      return callable.call();
+    }
+    finally {
+      transactionCompletable.countDown();
+      thread.join();
+    }
+  }
+
+  protected boolean isSkipLockedSupportedByDatabase() throws SQLException {
+    ProcessEngineConfigurationImpl configuration = engineRule.getProcessEngineConfiguration();
+    try (Connection connection = configuration.getDataSource().getConnection()) {
+      int databaseMajorVersion = connection.getMetaData().getDatabaseMajorVersion();
+      return DbSqlSessionFactory.isSkipLockedSupported(configuration.getDatabaseType(), databaseMajorVersion);
+    }
+  }
+
+  protected List<AcquirableJobEntity> findAcquirableJobs() {
+    return engineRule.getProcessEngineConfiguration().getCommandExecutorTxRequired()
+      .execute(new Command<List<AcquirableJobEntity>>() {
+        public List<AcquirableJobEntity> execute(CommandContext commandContext) {
+          return commandContext.getJobManager().findNextJobsToExecute(new Page(0, 100));
+        }
+      });
+  }
+
+  protected void lockJob(final String jobId) {
+    engineRule.getProcessEngineConfiguration().getCommandExecutorTxRequired()
+      .execute(new Command<Void>() {
+        public Void execute(CommandContext commandContext) {
+          JobEntity job = commandContext.getJobManager().findJobById(jobId);
+          job.setLockOwner("otherAcquisition");
+          job.setLockExpirationTime(new Date(ClockUtil.getCurrentTime().getTime() + 60000L));
+          return null;
+        }
+      });
+  }
+
+}
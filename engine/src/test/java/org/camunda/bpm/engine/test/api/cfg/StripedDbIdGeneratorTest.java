@@ -0,0 +1,126 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.cfg;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.impl.cfg.IdGenerator;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.db.StripedDbIdGenerator;
+import org.camunda.bpm.engine.management.Metrics;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.test.util.ProcessEngineBootstrapRule;
+import org.camunda.bpm.engine.test.util.ProcessEngineTestRule;
+import org.camunda.bpm.engine.test.util.ProvidedProcessEngineRule;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+public class StripedDbIdGeneratorTest {
+
+  @ClassRule
+  public static ProcessEngineBootstrapRule bootstrapRule = new ProcessEngineBootstrapRule() {
+    @Override
+    public ProcessEngineConfiguration configureEngine(ProcessEngineConfigurationImpl configuration) {
+      configuration.setIdGeneratorStripes(4);
+      configuration.setIdBlockSize(10);
+      return configuration;
+    }
+  };
+
+  public ProvidedProcessEngineRule engineRule = new ProvidedProcessEngineRule(bootstrapRule);
+  public ProcessEngineTestRule testRule = new ProcessEngineTestRule(engineRule);
+
+  @Rule
+  public RuleChain ruleChain = RuleChain.outerRule(engineRule).around(testRule);
+
+  @Test
+  public void shouldUseStripedIdGenerator() {
+    // given
+    testRule.deploy(Bpmn.createExecutableProcess("process").startEvent().userTask().endEvent().done());
+
+    // when
+    ProcessInstance processInstance = engineRule.getRuntimeService().startProcessInstanceByKey("process");
+
+    // then
+    IdGenerator idGenerator = engineRule.getProcessEngineConfiguration().getIdGenerator();
+    assertThat(idGenerator).isInstanceOf(StripedDbIdGenerator.class);
+    assertThat(engineRule.getRuntimeService().createProcessInstanceQuery()
+        .processInstanceId(processInstance.getId())
+        .count()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldGenerateUniqueIdsConcurrently() throws Exception {
+    // given
+    final IdGenerator idGenerator = engineRule.getProcessEngineConfiguration().getIdGenerator();
+    final Set<String> ids = Collections.synchronizedSet(new HashSet<String>());
+    final int idsPerThread = 500;
+
+    List<Thread> threads = new ArrayList<Thread>();
+    for (int i = 0; i < 8; i++) {
+      threads.add(new Thread() {
+        public void run() {
+          for (int j = 0; j < idsPerThread; j++) {
+            ids.add(idGenerator.getNextId());
+          }
+        }
+      });
+    }
+
+    // when
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    // then
+    assertThat(ids).hasSize(8 * idsPerThread);
+    assertThat(engineRule.getProcessEngineConfiguration()
+        .getMetricsRegistry()
+        .getMeterByName(Metrics.ID_BLOCK_FETCH)
+        .get()).isGreaterThan(0);
+  }
+
+  @Test
+  public void shouldGenerateIncreasingIdsPerThread() {
+    // given
+    IdGenerator idGenerator = engineRule.getProcessEngineConfiguration().getIdGenerator();
+    long previousId = Long.parseLong(idGenerator.getNextId());
+
+    for (int i = 0; i < 100; i++) {
+      // when
+      long id = Long.parseLong(idGenerator.getNextId());
+
+      // then
+      assertThat(id).isGreaterThan(previousId);
+      previousId = id;
+    }
+  }
+
+}
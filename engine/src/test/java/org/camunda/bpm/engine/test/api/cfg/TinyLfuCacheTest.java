@@ -0,0 +1,183 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.cfg;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.camunda.bpm.engine.impl.persistence.deploy.cache.CacheEntryWeigher;
+import org.camunda.bpm.engine.impl.persistence.deploy.cache.TinyLfuCache;
+import org.junit.Test;
+
+public class TinyLfuCacheTest {
+
+  protected static final CacheEntryWeigher UNIT_WEIGHER = new CacheEntryWeigher() {
+    public int weigh(Object value) {
+      return 1;
+    }
+  };
+
+  protected static final CacheEntryWeigher LENGTH_WEIGHER = new CacheEntryWeigher() {
+    public int weigh(Object value) {
+      return ((String) value).length();
+    }
+  };
+
+  @Test
+  public void shouldKeepFrequentlyUsedEntriesDuringScan() {
+    // given
+    TinyLfuCache<String, String> cache = new TinyLfuCache<String, String>(100, 100, UNIT_WEIGHER);
+    for (int i = 0; i < 50; i++) {
+      cache.put("hot" + i, "value");
+    }
+    for (int access = 0; access < 5; access++) {
+      for (int i = 0; i < 50; i++) {
+        cache.get("hot" + i);
+      }
+    }
+
+    // when
+    for (int i = 0; i < 1000; i++) {
+      cache.put("scan" + i, "value");
+    }
+
+    // then
+    for (int i = 0; i < 50; i++) {
+      assertThat(cache.get("hot" + i)).isNotNull();
+    }
+    assertThat(cache.size()).isLessThanOrEqualTo(100);
+    assertThat(cache.getEvictionCount()).isGreaterThan(0);
+  }
+
+  @Test
+  public void shouldNotExceedMaximumWeight() {
+    // given
+    TinyLfuCache<String, String> cache = new TinyLfuCache<String, String>(100, 10, LENGTH_WEIGHER);
+
+    // when
+    for (int i = 0; i < 100; i++) {
+      cache.put("key" + i, "0123456789");
+    }
+
+    // then
+    assertThat(cache.getWeightedSize()).isLessThanOrEqualTo(100);
+    assertThat(cache.size()).isLessThanOrEqualTo(10);
+  }
+
+  @Test
+  public void shouldRetainMostRecentlyAddedEntry() {
+    // given
+    TinyLfuCache<String, String> cache = new TinyLfuCache<String, String>(10, 10, LENGTH_WEIGHER);
+    cache.put("small", "1");
+
+    // when
+    cache.put("large", "012345678901234567890");
+
+    // then
+    assertThat(cache.get("large")).isNotNull();
+    assertThat(cache.get("small")).isNull();
+  }
+
+  @Test
+  public void shouldRecordHitsAndMisses() {
+    // given
+    TinyLfuCache<String, String> cache = new TinyLfuCache<String, String>(10, 10, UNIT_WEIGHER);
+    cache.put("key", "value");
+
+    // when
+    cache.get("key");
+    cache.get("key");
+    cache.get("unknown");
+
+    // then
+    assertThat(cache.getHitCount()).isEqualTo(2);
+    assertThat(cache.getMissCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldUpdateWeightOnReplace() {
+    // given
+    TinyLfuCache<String, String> cache = new TinyLfuCache<String, String>(100, 10, LENGTH_WEIGHER);
+    cache.put("key", "01234");
+
+    // when
+    cache.put("key", "0123456789");
+
+    // then
+    assertThat(cache.get("key")).isEqualTo("0123456789");
+    assertThat(cache.getWeightedSize()).isEqualTo(10);
+
+    // when
+    cache.remove("key");
+
+    // then
+    assertThat(cache.isEmpty()).isTrue();
+    assertThat(cache.getWeightedSize()).isEqualTo(0);
+  }
+
+  @Test
+  public void shouldNotBlockReadsAndWritesWhileWeighing() throws Exception {
+    // given
+    final CountDownLatch weighing = new CountDownLatch(1);
+    final CountDownLatch releaseWeigher = new CountDownLatch(1);
+
+    final TinyLfuCache<String, String> cache = new TinyLfuCache<String, String>(100, 10, new CacheEntryWeigher() {
+      public int weigh(Object value) {
+        if ("slow".equals(value)) {
+          weighing.countDown();
+          try {
+            releaseWeigher.await(10, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+        return 1;
+      }
+    });
+    cache.put("key", "value");
+
+    Thread writer = new Thread() {
+      public void run() {
+        cache.put("slowKey", "slow");
+      }
+    };
+    writer.start();
+    assertThat(weighing.await(10, TimeUnit.SECONDS)).isTrue();
+
+    try {
+      // when
+      for (int i = 0; i < 100; i++) {
+        cache.get("key");
+      }
+      cache.put("otherKey", "value");
+
+      // then
+      assertThat(cache.get("key")).isEqualTo("value");
+      assertThat(cache.get("otherKey")).isEqualTo("value");
+      assertThat(cache.get("slowKey")).isNull();
+
+    } finally {
+      releaseWeigher.countDown();
+      writer.join();
+    }
+
+    assertThat(cache.get("slowKey")).isEqualTo("slow");
+  }
+
+}
@@ -20,8 +20,13 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verify;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
 import org.camunda.bpm.engine.externaltask.LockedExternalTask;
 import org.camunda.bpm.engine.impl.ProcessEngineImpl;
+import org.camunda.bpm.engine.impl.externaltask.ExternalTaskAvailabilityListener;
 import org.camunda.bpm.engine.impl.util.SingleConsumerCondition;
 import org.camunda.bpm.engine.test.ProcessEngineRule;
 import org.camunda.bpm.engine.test.util.ProvidedProcessEngineRule;
@@ -45,6 +50,9 @@ public class ExternalTaskConditionsTest {
   @Mock
   public SingleConsumerCondition condition;
 
+  @Mock
+  public ExternalTaskAvailabilityListener availabilityListener;
+
   private String deploymentId;
 
   private final BpmnModelInstance testProcess = Bpmn.createExecutableProcess("theProcess")
@@ -59,6 +67,7 @@ public class ExternalTaskConditionsTest {
     MockitoAnnotations.initMocks(this);
 
     ProcessEngineImpl.EXT_TASK_CONDITIONS.addConsumer(condition);
+    ProcessEngineImpl.EXT_TASK_AVAILABILITY_NOTIFIER.addListener(availabilityListener);
 
     deploymentId = rule.getRepositoryService()
         .createDeployment()
@@ -71,6 +80,7 @@ public class ExternalTaskConditionsTest {
   public void tearDown() {
 
     ProcessEngineImpl.EXT_TASK_CONDITIONS.removeConsumer(condition);
+    ProcessEngineImpl.EXT_TASK_AVAILABILITY_NOTIFIER.removeListener(availabilityListener);
 
     if (deploymentId != null) {
       rule.getRepositoryService().deleteDeployment(deploymentId, true);
@@ -123,4 +133,70 @@ public class ExternalTaskConditionsTest {
     verify(condition, times(1)).signal();
   }
 
+  @Test
+  public void shouldNotifyListenerWithTopicOnTaskCreate() {
+
+    // when
+    rule.getRuntimeService()
+      .startProcessInstanceByKey("theProcess");
+
+    // then
+    verify(availabilityListener, times(1)).externalTasksAvailable(Collections.singleton("theTopic"));
+  }
+
+  @Test
+  public void shouldNotifyListenerWithTopicOnUnlock() {
+
+    // given
+    rule.getRuntimeService()
+      .startProcessInstanceByKey("theProcess");
+
+    reset(availabilityListener); // clear notification for create
+
+    LockedExternalTask lockedTask = rule.getExternalTaskService().fetchAndLock(1, "theWorker")
+      .topic("theTopic", 10000)
+      .execute()
+      .get(0);
+
+    // when
+    rule.getExternalTaskService().unlock(lockedTask.getId());
+
+    // then
+    verify(availabilityListener, times(1)).externalTasksAvailable(Collections.singleton("theTopic"));
+  }
+
+  @Test
+  public void shouldNotifyListenerOncePerTransaction() {
+
+    // given
+    BpmnModelInstance parallelProcess = Bpmn.createExecutableProcess("parallelProcess")
+      .startEvent()
+      .parallelGateway("fork")
+        .serviceTask()
+          .camundaExternalTask("theTopic")
+      .moveToNode("fork")
+        .serviceTask()
+          .camundaExternalTask("anotherTopic")
+      .done();
+
+    String parallelDeploymentId = rule.getRepositoryService()
+        .createDeployment()
+        .addModelInstance("parallelProcess.bpmn", parallelProcess)
+        .deploy()
+        .getId();
+
+    try {
+      // when
+      rule.getRuntimeService()
+        .startProcessInstanceByKey("parallelProcess");
+
+      // then
+      verify(condition, times(1)).signal();
+      verify(availabilityListener, times(1)).externalTasksAvailable(new HashSet<String>(Arrays.asList("theTopic", "anotherTopic")));
+    }
+    finally {
+      rule.getRepositoryService().deleteDeployment(parallelDeploymentId, true);
+    }
+  }
+
 }
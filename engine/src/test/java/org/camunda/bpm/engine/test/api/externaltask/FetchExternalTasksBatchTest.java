@@ -0,0 +1,99 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.externaltask;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.camunda.bpm.engine.ExternalTaskService;
+import org.camunda.bpm.engine.externaltask.LockedExternalTask;
+import org.camunda.bpm.engine.impl.cmd.FetchExternalTasksBatchCmd;
+import org.camunda.bpm.engine.impl.externaltask.TopicFetchInstruction;
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.engine.test.ProcessEngineRule;
+import org.camunda.bpm.engine.test.util.ProcessEngineTestRule;
+import org.camunda.bpm.engine.test.util.ProvidedProcessEngineRule;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+public class FetchExternalTasksBatchTest {
+
+  protected static final String TOPIC_NAME = "externalTaskTopic";
+
+  public ProcessEngineRule engineRule = new ProvidedProcessEngineRule();
+  public ProcessEngineTestRule testRule = new ProcessEngineTestRule(engineRule);
+
+  @Rule
+  public RuleChain ruleChain = RuleChain.outerRule(engineRule).around(testRule);
+
+  protected ExternalTaskService externalTaskService;
+
+  @Before
+  public void init() {
+    externalTaskService = engineRule.getExternalTaskService();
+  }
+
+  @Test
+  @Deployment(resources = "org/camunda/bpm/engine/test/api/externaltask/oneExternalTaskProcess.bpmn20.xml")
+  public void shouldDistributeTasksToWorkers() {
+    // given
+    for (int i = 0; i < 4; i++) {
+      engineRule.getRuntimeService().startProcessInstanceByKey("oneExternalTaskProcess");
+    }
+
+    // when
+    List<List<LockedExternalTask>> results = fetchAndLock(Arrays.asList("worker1", "worker2", "worker3"), Arrays.asList(1, 2, 3));
+
+    // then
+    assertThat(results).hasSize(3);
+    assertThat(results.get(0)).hasSize(1);
+    assertThat(results.get(1)).hasSize(2);
+    assertThat(results.get(2)).hasSize(1);
+
+    assertThat(results.get(0).get(0).getWorkerId()).isEqualTo("worker1");
+    assertThat(results.get(1).get(1).getWorkerId()).isEqualTo("worker2");
+    assertThat(externalTaskService.createExternalTaskQuery().workerId("worker3").count()).isEqualTo(1);
+    assertThat(externalTaskService.createExternalTaskQuery().notLocked().count()).isEqualTo(0);
+  }
+
+  @Test
+  @Deployment(resources = "org/camunda/bpm/engine/test/api/externaltask/oneExternalTaskProcess.bpmn20.xml")
+  public void shouldReturnEmptyResultsWhenNoTasksAvailable() {
+    // when
+    List<List<LockedExternalTask>> results = fetchAndLock(Arrays.asList("worker1", "worker2"), Arrays.asList(5, 5));
+
+    // then
+    assertThat(results).hasSize(2);
+    assertThat(results.get(0)).isEmpty();
+    assertThat(results.get(1)).isEmpty();
+  }
+
+  protected List<List<LockedExternalTask>> fetchAndLock(List<String> workerIds, List<Integer> maxResults) {
+    Map<String, TopicFetchInstruction> instructions = Collections.singletonMap(TOPIC_NAME, new TopicFetchInstruction(TOPIC_NAME, 10000L));
+
+    return engineRule.getProcessEngineConfiguration()
+        .getCommandExecutorTxRequired()
+        .execute(new FetchExternalTasksBatchCmd(workerIds, maxResults, instructions, false));
+  }
+
+}
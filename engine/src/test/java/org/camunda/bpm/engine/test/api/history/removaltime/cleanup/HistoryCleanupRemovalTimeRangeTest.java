@@ -0,0 +1,361 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.history.removaltime.cleanup;
+
+import static org.apache.commons.lang3.time.DateUtils.addDays;
+import static org.apache.commons.lang3.time.DateUtils.addMinutes;
+import static org.camunda.bpm.engine.ProcessEngineConfiguration.HISTORY_CLEANUP_STRATEGY_REMOVAL_TIME_BASED;
+import static org.camunda.bpm.engine.ProcessEngineConfiguration.HISTORY_FULL;
+import static org.camunda.bpm.engine.ProcessEngineConfiguration.HISTORY_REMOVAL_TIME_STRATEGY_END;
+import static org.camunda.bpm.engine.impl.jobexecutor.historycleanup.HistoryCleanupHandler.MAX_BATCH_SIZE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.camunda.bpm.engine.HistoryService;
+import org.camunda.bpm.engine.ManagementService;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.history.DefaultHistoryRemovalTimeProvider;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.jobexecutor.historycleanup.HistoryCleanupRemovalTimeRange;
+import org.camunda.bpm.engine.impl.persistence.entity.JobEntity;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.camunda.bpm.engine.management.Metrics;
+import org.camunda.bpm.engine.runtime.Job;
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.engine.test.ProcessEngineRule;
+import org.camunda.bpm.engine.test.RequiredHistoryLevel;
+import org.camunda.bpm.engine.test.util.ProcessEngineTestRule;
+import org.camunda.bpm.engine.test.util.ProvidedProcessEngineRule;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+@RequiredHistoryLevel(HISTORY_FULL)
+public class HistoryCleanupRemovalTimeRangeTest {
+
+  protected ProcessEngineRule engineRule = new ProvidedProcessEngineRule();
+  protected ProcessEngineTestRule testRule = new ProcessEngineTestRule(engineRule);
+
+  @Rule
+  public RuleChain ruleChain = RuleChain.outerRule(engineRule).around(testRule);
+
+  protected RuntimeService runtimeService;
+  protected HistoryService historyService;
+  protected TaskService taskService;
+  protected ManagementService managementService;
+
+  protected static ProcessEngineConfigurationImpl engineConfiguration;
+
+  protected Set<String> jobIds;
+
+  protected final String PROCESS_KEY = "process";
+  protected final BpmnModelInstance PROCESS = Bpmn.createExecutableProcess(PROCESS_KEY)
+    .camundaHistoryTimeToLive(5)
+    .startEvent()
+      .userTask("userTask").name("userTask")
+    .endEvent().done();
+
+  protected final Date END_DATE = new Date(1363608000000L);
+
+  @Before
+  public void init() {
+    runtimeService = engineRule.getRuntimeService();
+    historyService = engineRule.getHistoryService();
+    taskService = engineRule.getTaskService();
+    managementService = engineRule.getManagementService();
+
+    engineConfiguration = engineRule.getProcessEngineConfiguration();
+
+    engineConfiguration
+      .setHistoryRemovalTimeStrategy(HISTORY_REMOVAL_TIME_STRATEGY_END)
+      .setHistoryRemovalTimeProvider(new DefaultHistoryRemovalTimeProvider())
+      .initHistoryRemovalTime();
+
+    engineConfiguration.setHistoryCleanupStrategy(HISTORY_CLEANUP_STRATEGY_REMOVAL_TIME_BASED);
+    engineConfiguration.setHistoryCleanupRangeDeleteEnabled(true);
+
+    engineConfiguration.setHistoryCleanupBatchSize(MAX_BATCH_SIZE);
+    engineConfiguration.setHistoryCleanupBatchWindowStartTime(null);
+    engineConfiguration.setHistoryCleanupDegreeOfParallelism(1);
+
+    engineConfiguration.initHistoryCleanup();
+
+    jobIds = new HashSet<>();
+  }
+
+  @After
+  public void tearDown() {
+    clearMeterLog();
+
+    for (String jobId : jobIds) {
+      clearJobLog(jobId);
+      clearJob(jobId);
+    }
+
+    ClockUtil.reset();
+  }
+
+  @AfterClass
+  public static void tearDownAfterAll() {
+    if (engineConfiguration != null) {
+      engineConfiguration
+        .setHistoryRemovalTimeProvider(null)
+        .setHistoryRemovalTimeStrategy(null)
+        .initHistoryRemovalTime();
+
+      engineConfiguration.setHistoryCleanupRangeDeleteEnabled(false);
+
+      engineConfiguration.setHistoryCleanupBatchSize(MAX_BATCH_SIZE);
+      engineConfiguration.setHistoryCleanupDegreeOfParallelism(1);
+
+      engineConfiguration.initHistoryCleanup();
+    }
+
+    ClockUtil.reset();
+  }
+
+  @Test
+  public void shouldCleanupByRemovalTimeRange() {
+    // given
+    testRule.deploy(PROCESS);
+
+    completeProcessInstances(3);
+
+    ClockUtil.setCurrentTime(addDays(END_DATE, 6));
+
+    // assume
+    assertThat(historyService.createHistoricProcessInstanceQuery().count()).isEqualTo(3);
+
+    // when
+    runHistoryCleanup();
+
+    // then
+    assertThat(historyService.createHistoricProcessInstanceQuery().count()).isEqualTo(0);
+    assertThat(historyService.createHistoricActivityInstanceQuery().count()).isEqualTo(0);
+    assertThat(historyService.createHistoricTaskInstanceQuery().count()).isEqualTo(0);
+  }
+
+  @Test
+  public void shouldNotCleanupBeforeRemovalTime() {
+    // given
+    testRule.deploy(PROCESS);
+
+    completeProcessInstances(3);
+
+    ClockUtil.setCurrentTime(addDays(END_DATE, 4));
+
+    // when
+    runHistoryCleanup();
+
+    // then
+    assertThat(historyService.createHistoricProcessInstanceQuery().count()).isEqualTo(3);
+  }
+
+  @Test
+  public void shouldDeleteRangeUpToBatchSize() {
+    // given
+    engineConfiguration.setHistoryCleanupBatchSize(2);
+    engineConfiguration.initHistoryCleanup();
+
+    testRule.deploy(PROCESS);
+
+    completeProcessInstances(3);
+
+    ClockUtil.setCurrentTime(addDays(END_DATE, 6));
+
+    // when
+    runHistoryCleanup();
+
+    // then
+    assertThat(historyService.createHistoricProcessInstanceQuery().count()).isEqualTo(1);
+    assertThat(historyService.createHistoricActivityInstanceQuery().count()).isEqualTo(7);
+
+    // when
+    runHistoryCleanup();
+
+    // then
+    assertThat(historyService.createHistoricProcessInstanceQuery().count()).isEqualTo(0);
+    assertThat(historyService.createHistoricActivityInstanceQuery().count()).isEqualTo(5);
+
+    // when
+    runHistoryCleanup();
+    runHistoryCleanup();
+    runHistoryCleanup();
+
+    // then
+    assertThat(historyService.createHistoricActivityInstanceQuery().count()).isEqualTo(0);
+  }
+
+  @Test
+  public void shouldNotExceedBatchSizeOnSameRemovalTime() {
+    // given
+    engineConfiguration.setHistoryCleanupBatchSize(2);
+    engineConfiguration.initHistoryCleanup();
+
+    testRule.deploy(PROCESS);
+
+    // all rows share the same removal time
+    ClockUtil.setCurrentTime(END_DATE);
+    for (int i = 0; i < 3; i++) {
+      runtimeService.startProcessInstanceByKey(PROCESS_KEY);
+    }
+    for (Task task : taskService.createTaskQuery().list()) {
+      taskService.complete(task.getId());
+    }
+
+    ClockUtil.setCurrentTime(addDays(END_DATE, 6));
+
+    // assume
+    assertThat(historyService.createHistoricActivityInstanceQuery().count()).isEqualTo(9);
+
+    // when
+    runHistoryCleanup();
+
+    // then
+    assertThat(historyService.createHistoricProcessInstanceQuery().count()).isEqualTo(1);
+    assertThat(historyService.createHistoricActivityInstanceQuery().count()).isEqualTo(7);
+    assertThat(sumOfMetric(HistoryCleanupRemovalTimeRange.getRemovedRowsMetricName("ACT_HI_ACTINST"))).isEqualTo(2);
+
+    // when
+    runHistoryCleanup();
+    runHistoryCleanup();
+    runHistoryCleanup();
+    runHistoryCleanup();
+
+    // then
+    assertThat(historyService.createHistoricProcessInstanceQuery().count()).isEqualTo(0);
+    assertThat(historyService.createHistoricActivityInstanceQuery().count()).isEqualTo(0);
+  }
+
+  @Test
+  public void shouldReportRemovedRowsPerTable() {
+    // given
+    testRule.deploy(PROCESS);
+
+    completeProcessInstances(3);
+
+    ClockUtil.setCurrentTime(addDays(END_DATE, 6));
+
+    // when
+    runHistoryCleanup();
+
+    // then
+    assertThat(sumOfMetric(Metrics.HISTORY_CLEANUP_REMOVED_PROCESS_INSTANCES)).isEqualTo(3);
+    assertThat(sumOfMetric(HistoryCleanupRemovalTimeRange.getRemovedRowsMetricName("ACT_HI_PROCINST"))).isEqualTo(3);
+    assertThat(sumOfMetric(HistoryCleanupRemovalTimeRange.getRemovedRowsMetricName("ACT_HI_TASKINST"))).isEqualTo(3);
+    assertThat(sumOfMetric(HistoryCleanupRemovalTimeRange.getRemovedRowsMetricName("ACT_HI_ACTINST"))).isEqualTo(9);
+  }
+
+  @Test
+  public void shouldDistributeTablesAmongJobs() {
+    // given
+    engineConfiguration.setHistoryCleanupDegreeOfParallelism(3);
+    engineConfiguration.initHistoryCleanup();
+
+    testRule.deploy(PROCESS);
+
+    completeProcessInstances(3);
+
+    ClockUtil.setCurrentTime(addDays(END_DATE, 6));
+
+    // when
+    List<Job> jobs = runHistoryCleanup();
+
+    // then
+    assertThat(jobs).hasSize(3);
+    assertThat(historyService.createHistoricProcessInstanceQuery().count()).isEqualTo(0);
+    assertThat(historyService.createHistoricActivityInstanceQuery().count()).isEqualTo(0);
+    assertThat(historyService.createHistoricTaskInstanceQuery().count()).isEqualTo(0);
+  }
+
+  // helper /////////////////////////////////////////////////////////////////
+
+  protected void completeProcessInstances(int count) {
+    for (int i = 0; i < count; i++) {
+      // distinct end times lead to distinct removal times
+      ClockUtil.setCurrentTime(addMinutes(END_DATE, i));
+
+      runtimeService.startProcessInstanceByKey(PROCESS_KEY);
+      String taskId = taskService.createTaskQuery().singleResult().getId();
+      taskService.complete(taskId);
+    }
+  }
+
+  protected long sumOfMetric(String name) {
+    return managementService.createMetricsQuery()
+      .name(name)
+      .sum();
+  }
+
+  protected List<Job> runHistoryCleanup() {
+    historyService.cleanUpHistoryAsync(true);
+
+    List<Job> jobs = historyService.findHistoryCleanupJobs();
+    for (Job job : jobs) {
+      jobIds.add(job.getId());
+      managementService.executeJob(job.getId());
+    }
+
+    return jobs;
+  }
+
+  protected void clearJobLog(final String jobId) {
+    engineConfiguration.getCommandExecutorTxRequired()
+      .execute(new Command<Object>() {
+      public Object execute(CommandContext commandContext) {
+        commandContext.getHistoricJobLogManager().deleteHistoricJobLogByJobId(jobId);
+        return null;
+      }
+    });
+  }
+
+  protected void clearJob(final String jobId) {
+    engineConfiguration.getCommandExecutorTxRequired()
+      .execute(new Command<Object>() {
+      public Object execute(CommandContext commandContext) {
+        JobEntity job = commandContext.getJobManager().findJobById(jobId);
+        if (job != null) {
+          commandContext.getJobManager().delete(job);
+        }
+        return null;
+      }
+    });
+  }
+
+  protected void clearMeterLog() {
+    engineConfiguration.getCommandExecutorTxRequired()
+      .execute(new Command<Object>() {
+      public Object execute(CommandContext commandContext) {
+        commandContext.getMeterLogManager().deleteAll();
+        return null;
+      }
+    });
+  }
+
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.mgmt.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+
+import org.camunda.bpm.engine.AuthorizationException;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.cmd.StartProcessInstanceCmd;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.metrics.CommandStatistics;
+import org.camunda.bpm.engine.impl.metrics.MetricsRegistry;
+import org.camunda.bpm.engine.management.CommandExecutionStatistics;
+import org.camunda.bpm.engine.test.util.ProcessEngineBootstrapRule;
+import org.camunda.bpm.engine.test.util.ProcessEngineTestRule;
+import org.camunda.bpm.engine.test.util.ProvidedProcessEngineRule;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+public class CommandProfilingTest {
+
+  @ClassRule
+  public static ProcessEngineBootstrapRule bootstrapRule = new ProcessEngineBootstrapRule() {
+    @Override
+    public ProcessEngineConfiguration configureEngine(ProcessEngineConfigurationImpl configuration) {
+      configuration.setCommandProfilingEnabled(true);
+      configuration.setCommandProfilingSampleRate(1.0);
+      return configuration;
+    }
+  };
+
+  public ProvidedProcessEngineRule engineRule = new ProvidedProcessEngineRule(bootstrapRule);
+  public ProcessEngineTestRule testRule = new ProcessEngineTestRule(engineRule);
+
+  @Rule
+  public RuleChain ruleChain = RuleChain.outerRule(engineRule).around(testRule);
+
+  protected RuntimeService runtimeService;
+  protected MetricsRegistry metricsRegistry;
+
+  @Before
+  public void init() {
+    runtimeService = engineRule.getRuntimeService();
+    metricsRegistry = engineRule.getProcessEngineConfiguration().getMetricsRegistry();
+    testRule.deploy(Bpmn.createExecutableProcess("process").startEvent().userTask().endEvent().done());
+    clearStatistics();
+  }
+
+  @After
+  public void clearStatistics() {
+    metricsRegistry.clearCommandStatistics();
+  }
+
+  @Test
+  public void shouldProfileCommand() {
+    // when
+    runtimeService.startProcessInstanceByKey("process");
+
+    // then
+    CommandStatistics statistics = metricsRegistry.getCommandStatistics().get(StartProcessInstanceCmd.class.getName());
+    assertThat(statistics).isNotNull();
+    assertThat(statistics.getDuration().getCount()).isEqualTo(1);
+    assertThat(statistics.getDuration().getMax()).isGreaterThan(0);
+    assertThat(statistics.getDbOperations()).isGreaterThan(0);
+    assertThat(statistics.getSqlStatements()).isGreaterThanOrEqualTo(statistics.getDbOperations());
+  }
+
+  @Test
+  public void shouldAggregateExecutionsOfSameCommand() {
+    // when
+    runtimeService.startProcessInstanceByKey("process");
+    runtimeService.startProcessInstanceByKey("process");
+    runtimeService.startProcessInstanceByKey("process");
+
+    // then
+    CommandStatistics statistics = metricsRegistry.getCommandStatistics().get(StartProcessInstanceCmd.class.getName());
+    assertThat(statistics.getDuration().getCount()).isEqualTo(3);
+  }
+
+  @Test
+  public void shouldCountQueriesOfReadOnlyCommand() {
+    // when
+    engineRule.getRepositoryService().createProcessDefinitionQuery().list();
+
+    // then
+    CommandStatistics statistics = metricsRegistry.getCommandStatistics().values().iterator().next();
+    assertThat(metricsRegistry.getCommandStatistics()).hasSize(1);
+    assertThat(statistics.getDbOperations()).isEqualTo(0);
+    assertThat(statistics.getSqlStatements()).isGreaterThan(0);
+  }
+
+  @Test
+  public void shouldProvideCommandExecutionStatistics() {
+    // given
+    runtimeService.startProcessInstanceByKey("process");
+    runtimeService.startProcessInstanceByKey("process");
+
+    // when
+    List<CommandExecutionStatistics> statistics = engineRule.getManagementService().getCommandExecutionStatistics();
+
+    // then
+    assertThat(statistics).extracting("commandName").contains(StartProcessInstanceCmd.class.getName());
+    for (int i = 1; i < statistics.size(); i++) {
+      assertThat(statistics.get(i - 1).getTotalDuration()).isGreaterThanOrEqualTo(statistics.get(i).getTotalDuration());
+    }
+
+    CommandExecutionStatistics startStatistics = null;
+    for (CommandExecutionStatistics commandStatistics : statistics) {
+      if (StartProcessInstanceCmd.class.getName().equals(commandStatistics.getCommandName())) {
+        startStatistics = commandStatistics;
+      }
+    }
+    assertThat(startStatistics.getCount()).isEqualTo(2);
+    assertThat(startStatistics.getMaxDuration()).isGreaterThan(0);
+    assertThat(startStatistics.getDbOperations()).isGreaterThan(0);
+  }
+
+  @Test
+  public void shouldRequireCamundaAdminForCommandExecutionStatistics() {
+    // given
+    ProcessEngineConfigurationImpl configuration = engineRule.getProcessEngineConfiguration();
+    configuration.setAuthorizationEnabled(true);
+    engineRule.getIdentityService().setAuthenticatedUserId("user");
+
+    try {
+      // when
+      engineRule.getManagementService().getCommandExecutionStatistics();
+      fail("expected exception");
+
+    } catch (AuthorizationException e) {
+      // then
+      assertThat(e.getMessage()).contains("Required admin authenticated group or user");
+
+    } finally {
+      engineRule.getIdentityService().clearAuthentication();
+      configuration.setAuthorizationEnabled(false);
+    }
+  }
+
+  @Test
+  public void shouldNotProfileWhenNotSampled() {
+    // given
+    ProcessEngineConfigurationImpl configuration = engineRule.getProcessEngineConfiguration();
+    configuration.setCommandProfilingSampleRate(0);
+
+    try {
+      // when
+      runtimeService.startProcessInstanceByKey("process");
+
+      // then
+      assertThat(metricsRegistry.getCommandStatistics()).isEmpty();
+    }
+    finally {
+      configuration.setCommandProfilingSampleRate(1.0);
+    }
+  }
+
+  @Test
+  public void shouldNotProfileNestedCommandOfUnsampledCommand() {
+    // given
+    final ProcessEngineConfigurationImpl configuration = engineRule.getProcessEngineConfiguration();
+    configuration.setCommandProfilingSampleRate(0);
+
+    try {
+      // when the outer command is not sampled, but the nested one would be
+      configuration.getCommandExecutorTxRequired().execute(new Command<Void>() {
+        public Void execute(CommandContext commandContext) {
+          configuration.setCommandProfilingSampleRate(1.0);
+          runtimeService.startProcessInstanceByKey("process");
+          return null;
+        }
+      });
+
+      // then
+      assertThat(metricsRegistry.getCommandStatistics()).isEmpty();
+    }
+    finally {
+      configuration.setCommandProfilingSampleRate(1.0);
+    }
+  }
+
+}
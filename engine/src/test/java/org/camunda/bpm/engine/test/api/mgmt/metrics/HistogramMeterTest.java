@@ -0,0 +1,104 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.mgmt.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.camunda.bpm.engine.impl.metrics.HistogramMeter;
+import org.camunda.bpm.engine.impl.metrics.HistogramSnapshot;
+import org.junit.Test;
+
+public class HistogramMeterTest {
+
+  @Test
+  public void shouldRecordSmallValuesExactly() {
+    // given
+    HistogramMeter histogram = new HistogramMeter("test");
+
+    // when
+    for (int i = 1; i <= 10; i++) {
+      histogram.record(i);
+    }
+
+    // then
+    HistogramSnapshot snapshot = histogram.get();
+    assertThat(snapshot.getCount()).isEqualTo(10);
+    assertThat(snapshot.getSum()).isEqualTo(55);
+    assertThat(snapshot.getMax()).isEqualTo(10);
+    assertThat(snapshot.getValueAtPercentile(50)).isEqualTo(5);
+    assertThat(snapshot.getValueAtPercentile(100)).isEqualTo(10);
+  }
+
+  @Test
+  public void shouldRecordLargeValuesWithBoundedError() {
+    // given
+    HistogramMeter histogram = new HistogramMeter("test");
+
+    // when
+    for (long i = 1; i <= 100000; i++) {
+      histogram.record(i);
+    }
+
+    // then
+    HistogramSnapshot snapshot = histogram.get();
+    assertThat(snapshot.getValueAtPercentile(50)).isBetween(50000L, 50000L + 50000L / 16);
+    assertThat(snapshot.getValueAtPercentile(99)).isBetween(99000L, 100000L);
+    assertThat(snapshot.getMax()).isEqualTo(100000L);
+  }
+
+  @Test
+  public void shouldClear() {
+    // given
+    HistogramMeter histogram = new HistogramMeter("test");
+    histogram.record(42);
+
+    // when
+    HistogramSnapshot snapshot = histogram.getAndClear();
+
+    // then
+    assertThat(snapshot.getCount()).isEqualTo(1);
+    assertThat(snapshot.getValueAtPercentile(99)).isEqualTo(42);
+    assertThat(histogram.get().getCount()).isEqualTo(0);
+    assertThat(histogram.get().getValueAtPercentile(99)).isEqualTo(0);
+  }
+
+  @Test
+  public void shouldRecordNegativeValuesAsZero() {
+    // given
+    HistogramMeter histogram = new HistogramMeter("test");
+
+    // when
+    histogram.record(-5);
+
+    // then
+    assertThat(histogram.get().getMax()).isEqualTo(0);
+    assertThat(histogram.get().getCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldRecordMaximumValue() {
+    // given
+    HistogramMeter histogram = new HistogramMeter("test");
+
+    // when
+    histogram.record(Long.MAX_VALUE);
+
+    // then
+    assertThat(histogram.get().getValueAtPercentile(50)).isEqualTo(Long.MAX_VALUE);
+  }
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.mgmt.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.camunda.bpm.engine.ManagementService;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.metrics.HistogramMeter;
+import org.camunda.bpm.engine.impl.metrics.Meter;
+import org.camunda.bpm.engine.impl.metrics.MetricsRegistry;
+import org.camunda.bpm.engine.management.Metrics;
+import org.camunda.bpm.engine.test.util.ProcessEngineBootstrapRule;
+import org.camunda.bpm.engine.test.util.ProcessEngineTestRule;
+import org.camunda.bpm.engine.test.util.ProvidedProcessEngineRule;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+public class HistogramMetricsTest {
+
+  @ClassRule
+  public static ProcessEngineBootstrapRule bootstrapRule = new ProcessEngineBootstrapRule() {
+    @Override
+    public ProcessEngineConfiguration configureEngine(ProcessEngineConfigurationImpl configuration) {
+      configuration.setMetricsHistogramsEnabled(true);
+      return configuration;
+    }
+  };
+
+  public ProvidedProcessEngineRule engineRule = new ProvidedProcessEngineRule(bootstrapRule);
+  public ProcessEngineTestRule testRule = new ProcessEngineTestRule(engineRule);
+
+  @Rule
+  public RuleChain ruleChain = RuleChain.outerRule(engineRule).around(testRule);
+
+  protected ProcessEngineConfigurationImpl processEngineConfiguration;
+  protected ManagementService managementService;
+  protected MetricsRegistry metricsRegistry;
+
+  @Before
+  public void init() {
+    processEngineConfiguration = engineRule.getProcessEngineConfiguration();
+    managementService = engineRule.getManagementService();
+    metricsRegistry = processEngineConfiguration.getMetricsRegistry();
+    clearMetrics();
+  }
+
+  @After
+  public void clearMetrics() {
+    for (Meter meter : metricsRegistry.getMeters().values()) {
+      meter.getAndClear();
+    }
+    for (HistogramMeter histogram : metricsRegistry.getHistograms().values()) {
+      histogram.getAndClear();
+    }
+    managementService.deleteMetrics(null);
+  }
+
+  @Test
+  public void shouldRecordJobExecutionDuration() {
+    // given
+    testRule.deploy(Bpmn.createExecutableProcess("process")
+        .startEvent()
+        .serviceTask()
+          .camundaAsyncBefore()
+          .camundaExpression("${true}")
+        .endEvent()
+        .done());
+    engineRule.getRuntimeService().startProcessInstanceByKey("process");
+
+    // when
+    testRule.waitForJobExecutorToProcessAllJobs(10000L);
+
+    // then
+    assertThat(metricsRegistry.getHistogramByName(Metrics.JOB_EXECUTION_DURATION).get().getCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldRecordCommandExecutionDuration() {
+    // when
+    managementService.createJobQuery().count();
+
+    // then
+    assertThat(metricsRegistry.getHistogramByName(Metrics.COMMAND_EXECUTION_DURATION).get().getCount()).isGreaterThan(0);
+  }
+
+  @Test
+  public void shouldRecordExecutedDecisionElementsPerEvaluation() {
+    // given
+    testRule.deploy(ExecutedDecisionElementsMetricsTest.DMN_FILE);
+
+    // when
+    engineRule.getDecisionService().evaluateDecisionTableByKey("decision", ExecutedDecisionElementsMetricsTest.VARIABLES);
+
+    // then
+    HistogramMeter histogram = metricsRegistry.getHistogramByName(Metrics.EXECUTED_DECISION_ELEMENTS_PER_EVALUATION);
+    assertThat(histogram.get().getCount()).isEqualTo(1);
+    assertThat(histogram.get().getMax()).isEqualTo(16);
+  }
+
+  @Test
+  public void shouldReportHistogramAggregates() {
+    // given
+    HistogramMeter histogram = metricsRegistry.getHistogramByName(Metrics.EXECUTED_DECISION_ELEMENTS_PER_EVALUATION);
+    for (int i = 1; i <= 100; i++) {
+      histogram.record(i);
+    }
+
+    // when
+    processEngineConfiguration.getDbMetricsReporter().reportNow();
+
+    // then
+    String name = Metrics.EXECUTED_DECISION_ELEMENTS_PER_EVALUATION;
+    assertThat(getMetric(name + Metrics.HISTOGRAM_COUNT_SUFFIX)).isEqualTo(100);
+    assertThat(getMetric(name + Metrics.HISTOGRAM_P50_SUFFIX)).isBetween(50L, 53L);
+    assertThat(getMetric(name + Metrics.HISTOGRAM_P95_SUFFIX)).isBetween(95L, 99L);
+    assertThat(getMetric(name + Metrics.HISTOGRAM_P99_SUFFIX)).isBetween(99L, 100L);
+    assertThat(getMetric(name + Metrics.HISTOGRAM_MAX_SUFFIX)).isEqualTo(100);
+
+    // and the histogram is cleared
+    assertThat(histogram.get().getCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void shouldNotReportEmptyHistogram() {
+    // when
+    processEngineConfiguration.getDbMetricsReporter().reportNow();
+
+    // then
+    assertThat(managementService.createMetricsQuery()
+        .name(Metrics.JOB_EXECUTION_DURATION + Metrics.HISTOGRAM_COUNT_SUFFIX)
+        .sum()).isEqualTo(0);
+  }
+
+  protected long getMetric(String name) {
+    return managementService.createMetricsQuery().name(name).sum();
+  }
+
+}
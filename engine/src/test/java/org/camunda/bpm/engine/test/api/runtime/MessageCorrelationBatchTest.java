@@ -0,0 +1,301 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.camunda.bpm.engine.BadUserRequestException;
+import org.camunda.bpm.engine.MismatchingMessageCorrelationException;
+import org.camunda.bpm.engine.OptimisticLockingException;
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.camunda.bpm.engine.delegate.JavaDelegate;
+import org.camunda.bpm.engine.impl.MessageCorrelationBuilderImpl;
+import org.camunda.bpm.engine.impl.cmd.CorrelateMessageBatchCmd;
+import org.camunda.bpm.engine.runtime.MessageCorrelationBatchResult;
+import org.camunda.bpm.engine.runtime.MessageCorrelationResultType;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.test.ProcessEngineRule;
+import org.camunda.bpm.engine.test.util.ProcessEngineTestRule;
+import org.camunda.bpm.engine.test.util.ProvidedProcessEngineRule;
+import org.camunda.bpm.engine.variable.Variables;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.RuleChain;
+
+public class MessageCorrelationBatchTest {
+
+  protected static final BpmnModelInstance PROCESS = Bpmn.createExecutableProcess("process")
+      .startEvent()
+      .intermediateCatchEvent().message("first")
+      .serviceTask().camundaClass(FailingDelegate.class)
+      .intermediateCatchEvent().message("second")
+      .userTask("task")
+      .endEvent()
+      .done();
+
+  protected static final BpmnModelInstance START_PROCESS = Bpmn.createExecutableProcess("startProcess")
+      .startEvent().message("start")
+      .userTask("task")
+      .endEvent()
+      .done();
+
+  protected ProcessEngineRule engineRule = new ProvidedProcessEngineRule();
+  protected ProcessEngineTestRule testRule = new ProcessEngineTestRule(engineRule);
+
+  @Rule
+  public RuleChain ruleChain = RuleChain.outerRule(engineRule).around(testRule);
+
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  protected RuntimeService runtimeService;
+  protected TaskService taskService;
+
+  @Before
+  public void init() {
+    runtimeService = engineRule.getRuntimeService();
+    taskService = engineRule.getTaskService();
+
+    testRule.deploy(PROCESS, START_PROCESS);
+  }
+
+  @Test
+  public void shouldCorrelateMessages() {
+    // given
+    ProcessInstance processInstance1 = runtimeService.startProcessInstanceByKey("process", "key-1");
+    ProcessInstance processInstance2 = runtimeService.startProcessInstanceByKey("process", "key-2");
+
+    // when
+    List<MessageCorrelationBatchResult> results = runtimeService.createMessageCorrelationBatch()
+      .correlation(runtimeService.createMessageCorrelation("first").processInstanceBusinessKey("key-1"))
+      .correlation(runtimeService.createMessageCorrelation("first").processInstanceBusinessKey("key-2"))
+      .correlation(runtimeService.createMessageCorrelation("start").processInstanceBusinessKey("key-3"))
+      .correlate();
+
+    // then
+    assertThat(results).hasSize(3);
+    assertThat(results).extracting("successful").containsOnly(true);
+
+    assertThat(results.get(0).getMessageName()).isEqualTo("first");
+    assertThat(results.get(0).getCorrelationResult().getResultType()).isEqualTo(MessageCorrelationResultType.Execution);
+    assertThat(results.get(0).getCorrelationResult().getExecution().getProcessInstanceId()).isEqualTo(processInstance1.getId());
+    assertThat(results.get(1).getCorrelationResult().getExecution().getProcessInstanceId()).isEqualTo(processInstance2.getId());
+
+    assertThat(results.get(2).getMessageName()).isEqualTo("start");
+    assertThat(results.get(2).getCorrelationResult().getResultType()).isEqualTo(MessageCorrelationResultType.ProcessDefinition);
+    ProcessInstance startedProcessInstance = results.get(2).getCorrelationResult().getProcessInstance();
+    assertThat(startedProcessInstance.getBusinessKey()).isEqualTo("key-3");
+
+    assertThat(runtimeService.createEventSubscriptionQuery().eventName("second").count()).isEqualTo(2);
+    assertThat(taskService.createTaskQuery().processInstanceId(startedProcessInstance.getId()).count()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldReportMismatchingMessage() {
+    // given
+    runtimeService.startProcessInstanceByKey("process", "key-1");
+    runtimeService.startProcessInstanceByKey("process", "key-2");
+
+    // when
+    List<MessageCorrelationBatchResult> results = runtimeService.createMessageCorrelationBatch()
+      .correlation(runtimeService.createMessageCorrelation("first").processInstanceBusinessKey("key-1"))
+      .correlation(runtimeService.createMessageCorrelation("first").processInstanceBusinessKey("unknown"))
+      .correlation(runtimeService.createMessageCorrelation("first").processInstanceBusinessKey("key-2"))
+      .correlate();
+
+    // then
+    assertThat(results.get(0).isSuccessful()).isTrue();
+    assertThat(results.get(1).isSuccessful()).isFalse();
+    assertThat(results.get(1).getCorrelationResult()).isNull();
+    assertThat(results.get(1).getException()).isInstanceOf(MismatchingMessageCorrelationException.class);
+    assertThat(results.get(2).isSuccessful()).isTrue();
+
+    assertThat(runtimeService.createEventSubscriptionQuery().eventName("second").count()).isEqualTo(2);
+  }
+
+  @Test
+  public void shouldReportInvalidCorrelation() {
+    // given
+    runtimeService.startProcessInstanceByKey("process", "key-1");
+
+    // when
+    List<MessageCorrelationBatchResult> results = runtimeService.createMessageCorrelationBatch()
+      .correlation(runtimeService.createMessageCorrelation("first").processDefinitionId("aProcessDefinitionId"))
+      .correlation(runtimeService.createMessageCorrelation("first").processInstanceBusinessKey("key-1"))
+      .correlate();
+
+    // then
+    assertThat(results.get(0).isSuccessful()).isFalse();
+    assertThat(results.get(0).getException()).isInstanceOf(BadUserRequestException.class);
+    assertThat(results.get(1).isSuccessful()).isTrue();
+  }
+
+  @Test
+  public void shouldSeePreviousMessagesOfTheSameTransaction() {
+    // given
+    runtimeService.startProcessInstanceByKey("process", "key-1");
+
+    // when
+    List<MessageCorrelationBatchResult> results = runtimeService.createMessageCorrelationBatch()
+      .correlation(runtimeService.createMessageCorrelation("first").processInstanceBusinessKey("key-1"))
+      .correlation(runtimeService.createMessageCorrelation("first").processInstanceBusinessKey("key-1"))
+      .correlation(runtimeService.createMessageCorrelation("second").processInstanceBusinessKey("key-1"))
+      .correlate();
+
+    // then
+    assertThat(results.get(0).isSuccessful()).isTrue();
+    assertThat(results.get(1).isSuccessful()).isFalse();
+    assertThat(results.get(1).getException()).isInstanceOf(MismatchingMessageCorrelationException.class);
+    assertThat(results.get(2).isSuccessful()).isTrue();
+
+    assertThat(taskService.createTaskQuery().processInstanceBusinessKey("key-1").count()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldIsolateOptimisticLockingException() {
+    // given
+    runtimeService.startProcessInstanceByKey("process", "key-1");
+    runtimeService.startProcessInstanceByKey("process", "key-2", Variables.createVariables().putValue("fail", true));
+    runtimeService.startProcessInstanceByKey("process", "key-3");
+
+    // when
+    List<MessageCorrelationBatchResult> results = runtimeService.createMessageCorrelationBatch()
+      .correlations(Arrays.asList(
+          runtimeService.createMessageCorrelation("first").processInstanceBusinessKey("key-1"),
+          runtimeService.createMessageCorrelation("first").processInstanceBusinessKey("key-2"),
+          runtimeService.createMessageCorrelation("first").processInstanceBusinessKey("key-3")))
+      .correlate();
+
+    // then
+    assertThat(results.get(0).isSuccessful()).isTrue();
+    assertThat(results.get(1).isSuccessful()).isFalse();
+    assertThat(results.get(1).getException()).isInstanceOf(OptimisticLockingException.class);
+    assertThat(results.get(2).isSuccessful()).isTrue();
+
+    assertThat(runtimeService.createEventSubscriptionQuery().eventName("first").count()).isEqualTo(1);
+    assertThat(runtimeService.createEventSubscriptionQuery().eventName("second").count()).isEqualTo(2);
+  }
+
+  @Test
+  public void shouldNotIsolateMismatchingCorrelationThrownWhileTriggering() {
+    // given
+    runtimeService.startProcessInstanceByKey("process", "key-1");
+    runtimeService.startProcessInstanceByKey("process", "key-2", Variables.createVariables().putValue("mismatch", true));
+    runtimeService.startProcessInstanceByKey("process", "key-3");
+
+    // when
+    List<MessageCorrelationBatchResult> results = runtimeService.createMessageCorrelationBatch()
+      .correlation(runtimeService.createMessageCorrelation("first").processInstanceBusinessKey("key-1"))
+      .correlation(runtimeService.createMessageCorrelation("first").processInstanceBusinessKey("key-2"))
+      .correlation(runtimeService.createMessageCorrelation("first").processInstanceBusinessKey("key-3"))
+      .correlate();
+
+    // then
+    assertThat(results.get(0).isSuccessful()).isTrue();
+    assertThat(results.get(1).isSuccessful()).isFalse();
+    assertThat(results.get(1).getException()).isInstanceOf(MismatchingMessageCorrelationException.class);
+    assertThat(results.get(2).isSuccessful()).isTrue();
+
+    // the partially triggered instance has been rolled back
+    assertThat(runtimeService.createEventSubscriptionQuery().eventName("first").count()).isEqualTo(1);
+    assertThat(runtimeService.createEventSubscriptionQuery().eventName("second").count()).isEqualTo(2);
+    assertThat(runtimeService.createProcessInstanceQuery().processInstanceBusinessKey("key-2").count()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldFailTransactionForMismatchingCorrelationThrownWhileTriggering() {
+    // given
+    runtimeService.startProcessInstanceByKey("process", "key-1");
+    runtimeService.startProcessInstanceByKey("process", "key-2", Variables.createVariables().putValue("mismatch", true));
+
+    final CorrelateMessageBatchCmd command = new CorrelateMessageBatchCmd(Arrays.asList(
+        ((MessageCorrelationBuilderImpl) runtimeService.createMessageCorrelation("first").processInstanceBusinessKey("key-1")).createCorrelateMessageCmd(),
+        ((MessageCorrelationBuilderImpl) runtimeService.createMessageCorrelation("first").processInstanceBusinessKey("key-2")).createCorrelateMessageCmd()));
+
+    // then
+    thrown.expect(MismatchingMessageCorrelationException.class);
+    thrown.expectMessage("thrown by delegate");
+
+    // when
+    engineRule.getProcessEngineConfiguration().getCommandExecutorTxRequired().execute(command);
+  }
+
+  @Test
+  public void shouldCorrelateInSeveralTransactions() {
+    // given
+    for (int i = 0; i < 5; i++) {
+      runtimeService.startProcessInstanceByKey("process", "key-" + i);
+    }
+
+    // when
+    List<MessageCorrelationBatchResult> results = runtimeService.createMessageCorrelationBatch()
+      .correlation(runtimeService.createMessageCorrelation("first").processInstanceBusinessKey("key-0"))
+      .correlation(runtimeService.createMessageCorrelation("first").processInstanceBusinessKey("key-1"))
+      .correlation(runtimeService.createMessageCorrelation("first").processInstanceBusinessKey("unknown"))
+      .correlation(runtimeService.createMessageCorrelation("first").processInstanceBusinessKey("key-3"))
+      .correlation(runtimeService.createMessageCorrelation("first").processInstanceBusinessKey("key-4"))
+      .correlationsPerTransaction(2)
+      .correlate();
+
+    // then
+    assertThat(results).extracting("successful").containsExactly(true, true, false, true, true);
+    assertThat(runtimeService.createEventSubscriptionQuery().eventName("second").count()).isEqualTo(4);
+  }
+
+  @Test
+  public void shouldReturnEmptyResultForEmptyBatch() {
+    // when
+    List<MessageCorrelationBatchResult> results = runtimeService.createMessageCorrelationBatch().correlate();
+
+    // then
+    assertThat(results).isEmpty();
+  }
+
+  @Test
+  public void shouldFailForNonPositiveCorrelationsPerTransaction() {
+    // then
+    thrown.expect(ProcessEngineException.class);
+    thrown.expectMessage("correlationsPerTransaction");
+
+    // when
+    runtimeService.createMessageCorrelationBatch().correlationsPerTransaction(0);
+  }
+
+  public static class FailingDelegate implements JavaDelegate {
+
+    @Override
+    public void execute(DelegateExecution execution) throws Exception {
+      if (Boolean.TRUE.equals(execution.getVariable("fail"))) {
+        throw new OptimisticLockingException("concurrent modification");
+      }
+      if (Boolean.TRUE.equals(execution.getVariable("mismatch"))) {
+        throw new MismatchingMessageCorrelationException("thrown by delegate");
+      }
+    }
+  }
+
+}
@@ -0,0 +1,392 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.engine.impl.BootstrapEngineCommand;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.CorrelationKeyEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.CorrelationKeyManager;
+import org.camunda.bpm.engine.impl.persistence.entity.PropertyEntity;
+import org.camunda.bpm.engine.runtime.MessageCorrelationResult;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.engine.test.util.ProcessEngineBootstrapRule;
+import org.camunda.bpm.engine.test.util.ProcessEngineTestRule;
+import org.camunda.bpm.engine.test.util.ProvidedProcessEngineRule;
+import org.camunda.bpm.engine.variable.Variables;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+public class MessageCorrelationIndexTest {
+
+  protected static final String MESSAGE_NAME = "orderShipped";
+
+  protected static final BpmnModelInstance PROCESS = Bpmn.createExecutableProcess("process")
+      .startEvent()
+      .intermediateCatchEvent("catch").message(MESSAGE_NAME)
+      .userTask("task")
+      .endEvent()
+      .done();
+
+  protected static final Set<String> CORRELATION_INDEX_VARIABLE_NAMES = new HashSet<String>(Arrays.asList("orderId"));
+
+  @ClassRule
+  public static ProcessEngineBootstrapRule bootstrapRule = new ProcessEngineBootstrapRule() {
+    @Override
+    public ProcessEngineConfiguration configureEngine(ProcessEngineConfigurationImpl configuration) {
+      configuration.setCorrelationIndexVariableNames(new HashSet<String>(CORRELATION_INDEX_VARIABLE_NAMES));
+      return configuration;
+    }
+  };
+
+  public ProvidedProcessEngineRule engineRule = new ProvidedProcessEngineRule(bootstrapRule);
+  public ProcessEngineTestRule testRule = new ProcessEngineTestRule(engineRule);
+
+  @Rule
+  public RuleChain ruleChain = RuleChain.outerRule(engineRule).around(testRule);
+
+  protected ProcessEngineConfigurationImpl processEngineConfiguration;
+  protected RuntimeService runtimeService;
+  protected TaskService taskService;
+
+  @Before
+  public void init() {
+    processEngineConfiguration = engineRule.getProcessEngineConfiguration();
+    runtimeService = engineRule.getRuntimeService();
+    taskService = engineRule.getTaskService();
+
+    testRule.deploy(PROCESS);
+  }
+
+  @AfterClass
+  public static void removeCorrelationIndex() {
+    ProcessEngineConfigurationImpl configuration = (ProcessEngineConfigurationImpl) bootstrapRule.getProcessEngine().getProcessEngineConfiguration();
+    configuration.setCorrelationIndexVariableNames(new HashSet<String>());
+    configuration.getCommandExecutorTxRequired().execute(new BootstrapEngineCommand());
+  }
+
+  @Test
+  public void shouldIndexCorrelationKey() {
+    // when
+    ProcessInstance processInstance = startProcessInstance("order-1");
+
+    // then
+    CorrelationKeyEntity correlationKey = findCorrelationKey(processInstance.getId());
+    assertThat(correlationKey).isNotNull();
+    assertThat(correlationKey.getName()).isEqualTo("orderId");
+    assertThat(correlationKey.getValue()).isEqualTo("order-1");
+    assertThat(correlationKey.getProcessInstanceId()).isEqualTo(processInstance.getId());
+  }
+
+  @Test
+  public void shouldCorrelateMessageByIndexedVariable() {
+    // given
+    startProcessInstance("order-1");
+    ProcessInstance processInstance = startProcessInstance("order-2");
+
+    // when
+    runtimeService.createMessageCorrelation(MESSAGE_NAME)
+      .processInstanceVariableEquals("orderId", "order-2")
+      .correlate();
+
+    // then
+    Task task = taskService.createTaskQuery().singleResult();
+    assertThat(task.getProcessInstanceId()).isEqualTo(processInstance.getId());
+  }
+
+  @Test
+  public void shouldLookUpProcessInstanceInIndex() {
+    // given
+    startProcessInstance("order-1");
+
+    processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        commandContext.getDbEntityManager().delete(CorrelationKeyEntity.class, CorrelationKeyManager.DELETE_ALL_CORRELATION_KEYS, null);
+        return null;
+      }
+    });
+
+    // when
+    List<MessageCorrelationResult> results = runtimeService.createMessageCorrelation(MESSAGE_NAME)
+        .processInstanceVariableEquals("orderId", "order-1")
+        .correlateAllWithResult();
+
+    // then
+    assertThat(results).isEmpty();
+  }
+
+  @Test
+  public void shouldCorrelateMessageByIndexedAndNotIndexedVariables() {
+    // given
+    startProcessInstance("order-1", "customer-1");
+    ProcessInstance processInstance = startProcessInstance("order-1", "customer-2");
+
+    // when
+    runtimeService.createMessageCorrelation(MESSAGE_NAME)
+      .processInstanceVariableEquals("orderId", "order-1")
+      .processInstanceVariableEquals("customerId", "customer-2")
+      .correlate();
+
+    // then
+    Task task = taskService.createTaskQuery().singleResult();
+    assertThat(task.getProcessInstanceId()).isEqualTo(processInstance.getId());
+  }
+
+  @Test
+  public void shouldCorrelateMessageCaseSensitive() {
+    // given
+    startProcessInstance("order-1");
+
+    // when
+    List<MessageCorrelationResult> results = runtimeService.createMessageCorrelation(MESSAGE_NAME)
+        .processInstanceVariableEquals("orderId", "ORDER-1")
+        .correlateAllWithResult();
+
+    // then
+    assertThat(results).isEmpty();
+  }
+
+  @Test
+  public void shouldUpdateCorrelationKeyWhenVariableIsUpdated() {
+    // given
+    ProcessInstance processInstance = startProcessInstance("order-1");
+
+    // when
+    runtimeService.setVariable(processInstance.getId(), "orderId", "order-2");
+
+    // then
+    assertThat(findCorrelationKey(processInstance.getId()).getValue()).isEqualTo("order-2");
+    assertThat(runtimeService.createMessageCorrelation(MESSAGE_NAME)
+        .processInstanceVariableEquals("orderId", "order-1")
+        .correlateAllWithResult())
+      .isEmpty();
+
+    runtimeService.createMessageCorrelation(MESSAGE_NAME)
+      .processInstanceVariableEquals("orderId", "order-2")
+      .correlate();
+    assertThat(taskService.createTaskQuery().processInstanceId(processInstance.getId()).count()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldRemoveCorrelationKeyWhenValueIsNotIndexed() {
+    // given
+    ProcessInstance processInstance = startProcessInstance("order-1");
+
+    // when
+    runtimeService.setVariable(processInstance.getId(), "orderId", 42);
+
+    // then
+    assertThat(findCorrelationKey(processInstance.getId())).isNull();
+
+    runtimeService.createMessageCorrelation(MESSAGE_NAME)
+      .processInstanceVariableEquals("orderId", 42)
+      .correlate();
+    assertThat(taskService.createTaskQuery().processInstanceId(processInstance.getId()).count()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldNotIndexLongValue() {
+    // given
+    String value = repeat("a", CorrelationKeyManager.MAX_VALUE_LENGTH + 1);
+
+    // when
+    ProcessInstance processInstance = startProcessInstance(value);
+
+    // then
+    assertThat(findCorrelationKey(processInstance.getId())).isNull();
+
+    runtimeService.createMessageCorrelation(MESSAGE_NAME)
+      .processInstanceVariableEquals("orderId", value)
+      .correlate();
+    assertThat(taskService.createTaskQuery().processInstanceId(processInstance.getId()).count()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldRemoveCorrelationKeyWhenVariableIsRemoved() {
+    // given
+    ProcessInstance processInstance = startProcessInstance("order-1");
+    String variableId = getOrderIdVariableId(processInstance.getId());
+
+    // when
+    runtimeService.removeVariable(processInstance.getId(), "orderId");
+
+    // then
+    assertThat(findCorrelationKeyById(variableId)).isNull();
+  }
+
+  @Test
+  public void shouldRemoveCorrelationKeyWhenProcessInstanceIsDeleted() {
+    // given
+    ProcessInstance processInstance = startProcessInstance("order-1");
+
+    // when
+    runtimeService.deleteProcessInstance(processInstance.getId(), null);
+
+    // then
+    assertThat(getCorrelationKeyCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void shouldRemoveCorrelationKeyWhenProcessInstanceEnds() {
+    // given
+    startProcessInstance("order-1");
+    runtimeService.correlateMessage(MESSAGE_NAME);
+
+    // when
+    taskService.complete(taskService.createTaskQuery().singleResult().getId());
+
+    // then
+    assertThat(getCorrelationKeyCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void shouldNotIndexTaskVariable() {
+    // given
+    ProcessInstance processInstance = startProcessInstance("order-1");
+    String variableId = getOrderIdVariableId(processInstance.getId());
+    runtimeService.correlateMessage(MESSAGE_NAME);
+    Task task = taskService.createTaskQuery().singleResult();
+
+    // when
+    taskService.setVariableLocal(task.getId(), "orderId", "order-2");
+
+    // then
+    assertThat(findCorrelationKeyById(variableId).getValue()).isEqualTo("order-1");
+    assertThat(getCorrelationKeyCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldRebuildIndexWhenVariableNamesChange() {
+    // given
+    ProcessInstance processInstance = startProcessInstance("order-1", "customer-1");
+
+    // when
+    processEngineConfiguration.setCorrelationIndexVariableNames(new HashSet<String>(Arrays.asList("orderId", "customerId")));
+    try {
+      processEngineConfiguration.getCommandExecutorTxRequired().execute(new BootstrapEngineCommand());
+
+      // then
+      assertThat(getCorrelationKeyCount()).isEqualTo(2);
+      assertThat(getCorrelationIndexProperty()).isEqualTo("customerId,orderId");
+
+      runtimeService.createMessageCorrelation(MESSAGE_NAME)
+        .processInstanceVariableEquals("customerId", "customer-1")
+        .correlate();
+      assertThat(taskService.createTaskQuery().processInstanceId(processInstance.getId()).count()).isEqualTo(1);
+    }
+    finally {
+      processEngineConfiguration.setCorrelationIndexVariableNames(new HashSet<String>(CORRELATION_INDEX_VARIABLE_NAMES));
+      processEngineConfiguration.getCommandExecutorTxRequired().execute(new BootstrapEngineCommand());
+    }
+
+    assertThat(getCorrelationKeyCount()).isEqualTo(1);
+    assertThat(getCorrelationIndexProperty()).isEqualTo("orderId");
+  }
+
+  @Test
+  public void shouldRemoveIndexWhenNoVariableNamesAreConfigured() {
+    // given
+    startProcessInstance("order-1");
+
+    // when
+    processEngineConfiguration.setCorrelationIndexVariableNames(new HashSet<String>());
+    try {
+      processEngineConfiguration.getCommandExecutorTxRequired().execute(new BootstrapEngineCommand());
+
+      // then
+      assertThat(getCorrelationKeyCount()).isEqualTo(0);
+      assertThat(getCorrelationIndexProperty()).isNull();
+    }
+    finally {
+      processEngineConfiguration.setCorrelationIndexVariableNames(new HashSet<String>(CORRELATION_INDEX_VARIABLE_NAMES));
+      processEngineConfiguration.getCommandExecutorTxRequired().execute(new BootstrapEngineCommand());
+    }
+
+    assertThat(getCorrelationKeyCount()).isEqualTo(1);
+  }
+
+  protected ProcessInstance startProcessInstance(String orderId) {
+    return runtimeService.startProcessInstanceByKey("process", Variables.createVariables()
+        .putValue("orderId", orderId));
+  }
+
+  protected ProcessInstance startProcessInstance(String orderId, String customerId) {
+    return runtimeService.startProcessInstanceByKey("process", Variables.createVariables()
+        .putValue("orderId", orderId)
+        .putValue("customerId", customerId));
+  }
+
+  protected CorrelationKeyEntity findCorrelationKey(String processInstanceId) {
+    return findCorrelationKeyById(getOrderIdVariableId(processInstanceId));
+  }
+
+  protected String getOrderIdVariableId(String processInstanceId) {
+    return runtimeService.createVariableInstanceQuery()
+        .executionIdIn(processInstanceId)
+        .variableName("orderId")
+        .singleResult()
+        .getId();
+  }
+
+  protected CorrelationKeyEntity findCorrelationKeyById(final String variableId) {
+    return processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<CorrelationKeyEntity>() {
+      public CorrelationKeyEntity execute(CommandContext commandContext) {
+        return commandContext.getDbEntityManager().selectById(CorrelationKeyEntity.class, variableId);
+      }
+    });
+  }
+
+  protected long getCorrelationKeyCount() {
+    return engineRule.getManagementService().getTableCount().get("ACT_RU_CORRELATION_KEY");
+  }
+
+  protected String getCorrelationIndexProperty() {
+    return processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<String>() {
+      public String execute(CommandContext commandContext) {
+        PropertyEntity property = commandContext.getPropertyManager().findPropertyById(CorrelationKeyManager.CORRELATION_INDEX_PROPERTY);
+        return property != null ? property.getValue() : null;
+      }
+    });
+  }
+
+  protected static String repeat(String value, int times) {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < times; i++) {
+      builder.append(value);
+    }
+    return builder.toString();
+  }
+
+}
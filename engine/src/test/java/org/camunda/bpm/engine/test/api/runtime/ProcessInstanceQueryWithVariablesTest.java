@@ -0,0 +1,105 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.engine.test.util.ProcessEngineTestRule;
+import org.camunda.bpm.engine.test.util.ProvidedProcessEngineRule;
+import org.camunda.bpm.engine.variable.Variables;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+public class ProcessInstanceQueryWithVariablesTest {
+
+  public ProvidedProcessEngineRule engineRule = new ProvidedProcessEngineRule();
+  public ProcessEngineTestRule testRule = new ProcessEngineTestRule(engineRule);
+
+  @Rule
+  public RuleChain ruleChain = RuleChain.outerRule(engineRule).around(testRule);
+
+  protected RuntimeService runtimeService;
+  protected TaskService taskService;
+
+  @Before
+  public void init() {
+    runtimeService = engineRule.getRuntimeService();
+    taskService = engineRule.getTaskService();
+
+    testRule.deploy(Bpmn.createExecutableProcess("process").startEvent().userTask("task").endEvent().done());
+  }
+
+  @Test
+  public void shouldFetchRequestedVariables() {
+    // given
+    runtimeService.startProcessInstanceByKey("process", Variables.createVariables()
+        .putValue("foo", "bar")
+        .putValue("ignored", true));
+
+    // when
+    ProcessInstance processInstance = runtimeService.createProcessInstanceQuery().withVariables("foo").singleResult();
+
+    // then
+    assertThat(processInstance.getFetchedVariables()).hasSize(1);
+    assertThat(processInstance.getFetchedVariables().get("foo")).isEqualTo("bar");
+  }
+
+  @Test
+  public void shouldNotFetchTaskLocalVariables() {
+    // given
+    runtimeService.startProcessInstanceByKey("process", Variables.createVariables().putValue("foo", "process"));
+    Task task = taskService.createTaskQuery().singleResult();
+    taskService.setVariableLocal(task.getId(), "foo", "task");
+    taskService.setVariableLocal(task.getId(), "local", "task");
+
+    // when
+    ProcessInstance processInstance = runtimeService.createProcessInstanceQuery().withVariables().singleResult();
+
+    // then
+    assertThat(processInstance.getFetchedVariables()).containsOnlyKeys("foo");
+    assertThat(processInstance.getFetchedVariables().get("foo")).isEqualTo("process");
+  }
+
+  @Test
+  public void shouldFetchVariablesOfPage() {
+    // given
+    for (int i = 0; i < 5; i++) {
+      runtimeService.startProcessInstanceByKey("process", Variables.createVariables().putValue("index", i));
+    }
+
+    // when
+    List<ProcessInstance> processInstances = runtimeService.createProcessInstanceQuery()
+        .withVariables("index")
+        .listPage(0, 3);
+
+    // then
+    assertThat(processInstances).hasSize(3);
+    for (ProcessInstance processInstance : processInstances) {
+      assertThat(processInstance.getFetchedVariables()).containsKey("index");
+    }
+  }
+
+}
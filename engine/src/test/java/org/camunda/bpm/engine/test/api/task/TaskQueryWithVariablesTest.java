@@ -0,0 +1,250 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.task;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.util.List;
+
+import org.camunda.bpm.engine.BadUserRequestException;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.engine.impl.TaskQueryImpl;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.metrics.CommandStatistics;
+import org.camunda.bpm.engine.impl.metrics.MetricsRegistry;
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.engine.test.util.ProcessEngineBootstrapRule;
+import org.camunda.bpm.engine.test.util.ProcessEngineTestRule;
+import org.camunda.bpm.engine.test.util.ProvidedProcessEngineRule;
+import org.camunda.bpm.engine.variable.VariableMap;
+import org.camunda.bpm.engine.variable.Variables;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+public class TaskQueryWithVariablesTest {
+
+  @ClassRule
+  public static ProcessEngineBootstrapRule bootstrapRule = new ProcessEngineBootstrapRule() {
+    @Override
+    public ProcessEngineConfiguration configureEngine(ProcessEngineConfigurationImpl configuration) {
+      // count the statements of the query command
+      configuration.setCommandProfilingEnabled(true);
+      configuration.setCommandProfilingSampleRate(1.0);
+      return configuration;
+    }
+  };
+
+  public ProvidedProcessEngineRule engineRule = new ProvidedProcessEngineRule(bootstrapRule);
+  public ProcessEngineTestRule testRule = new ProcessEngineTestRule(engineRule);
+
+  @Rule
+  public RuleChain ruleChain = RuleChain.outerRule(engineRule).around(testRule);
+
+  protected RuntimeService runtimeService;
+  protected TaskService taskService;
+
+  @Before
+  public void init() {
+    runtimeService = engineRule.getRuntimeService();
+    taskService = engineRule.getTaskService();
+
+    testRule.deploy(Bpmn.createExecutableProcess("process").startEvent().userTask("task").endEvent().done());
+  }
+
+  @Test
+  public void shouldFetchRequestedVariables() {
+    // given
+    runtimeService.startProcessInstanceByKey("process", Variables.createVariables()
+        .putValue("foo", "bar")
+        .putValue("count", 42)
+        .putValue("ignored", true));
+
+    // when
+    Task task = taskService.createTaskQuery().withVariables("foo", "count").singleResult();
+
+    // then
+    VariableMap variables = task.getFetchedVariables();
+    assertThat(variables).hasSize(2);
+    assertThat(variables.get("foo")).isEqualTo("bar");
+    assertThat(variables.get("count")).isEqualTo(42);
+  }
+
+  @Test
+  public void shouldFetchAllVariablesIfNoNamesGiven() {
+    // given
+    runtimeService.startProcessInstanceByKey("process", Variables.createVariables()
+        .putValue("foo", "bar")
+        .putValue("count", 42));
+
+    // when
+    Task task = taskService.createTaskQuery().withVariables().singleResult();
+
+    // then
+    assertThat(task.getFetchedVariables()).containsOnlyKeys("foo", "count");
+  }
+
+  @Test
+  public void shouldPreferTaskLocalVariables() {
+    // given
+    runtimeService.startProcessInstanceByKey("process", Variables.createVariables().putValue("foo", "process"));
+    Task task = taskService.createTaskQuery().singleResult();
+    taskService.setVariableLocal(task.getId(), "foo", "task");
+
+    // when
+    task = taskService.createTaskQuery().withVariables("foo").singleResult();
+
+    // then
+    assertThat(task.getFetchedVariables().get("foo")).isEqualTo("task");
+  }
+
+  @Test
+  public void shouldFetchVariablesOfIntermediateSubProcessScope() {
+    // given a task in an inner subprocess and a variable of the outer subprocess
+    testRule.deploy(Bpmn.createExecutableProcess("subProcess")
+        .startEvent()
+        .subProcess()
+          .camundaInputParameter("foo", "outerSubProcess")
+          .embeddedSubProcess()
+            .startEvent()
+            .subProcess()
+              .embeddedSubProcess()
+                .startEvent()
+                .userTask("subProcessTask")
+                .endEvent()
+            .subProcessDone()
+            .endEvent()
+        .subProcessDone()
+        .endEvent()
+        .done());
+    runtimeService.startProcessInstanceByKey("subProcess", Variables.createVariables()
+        .putValue("foo", "process")
+        .putValue("bar", "process"));
+
+    // when
+    Task task = taskService.createTaskQuery().taskDefinitionKey("subProcessTask").withVariables().singleResult();
+
+    // then
+    VariableMap variables = task.getFetchedVariables();
+    assertThat(variables).containsOnlyKeys("foo", "bar");
+    assertThat(variables.get("foo")).isEqualTo("outerSubProcess");
+    assertThat(variables.get("bar")).isEqualTo("process");
+  }
+
+  @Test
+  public void shouldSelectScopesOfAllTasksAtOnce() {
+    // given five tasks of the same process instance, each with its own execution
+    testRule.deploy(Bpmn.createExecutableProcess("multiInstance")
+        .startEvent()
+        .userTask("multiInstanceTask")
+          .multiInstance().parallel().cardinality("5").multiInstanceDone()
+        .endEvent()
+        .done());
+    runtimeService.startProcessInstanceByKey("multiInstance", Variables.createVariables().putValue("foo", "bar"));
+
+    MetricsRegistry metricsRegistry = engineRule.getProcessEngineConfiguration().getMetricsRegistry();
+    metricsRegistry.clearCommandStatistics();
+
+    // when
+    List<Task> tasks = taskService.createTaskQuery().taskDefinitionKey("multiInstanceTask").withVariables().list();
+
+    // then one statement each selects the tasks, their executions and the variables
+    assertThat(tasks).hasSize(5);
+    for (Task task : tasks) {
+      assertThat(task.getFetchedVariables().get("foo")).isEqualTo("bar");
+    }
+    CommandStatistics statistics = metricsRegistry.getCommandStatistics().get(TaskQueryImpl.class.getName());
+    assertThat(statistics.getSqlStatements()).isEqualTo(3);
+  }
+
+  @Test
+  public void shouldFetchVariablesOfEachTask() {
+    // given
+    runtimeService.startProcessInstanceByKey("process", Variables.createVariables().putValue("index", 1));
+    runtimeService.startProcessInstanceByKey("process", Variables.createVariables().putValue("index", 2));
+    runtimeService.startProcessInstanceByKey("process");
+
+    // when
+    List<Task> tasks = taskService.createTaskQuery().withVariables("index").list();
+
+    // then
+    int sum = 0;
+    int tasksWithoutVariable = 0;
+    for (Task task : tasks) {
+      Integer index = (Integer) task.getFetchedVariables().get("index");
+      if (index != null) {
+        sum += index;
+      } else {
+        tasksWithoutVariable++;
+      }
+    }
+    assertThat(tasks).hasSize(3);
+    assertThat(sum).isEqualTo(3);
+    assertThat(tasksWithoutVariable).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldReadByteArrayValuesAfterQuery() {
+    // given
+    byte[] bytes = "someBytes".getBytes();
+    runtimeService.startProcessInstanceByKey("process", Variables.createVariables().putValue("bytes", bytes));
+
+    // when
+    Task task = taskService.createTaskQuery().withVariables("bytes").singleResult();
+
+    // then the value is read outside of the query command
+    assertThat((byte[]) task.getFetchedVariables().get("bytes")).isEqualTo(bytes);
+  }
+
+  @Test
+  public void shouldFailIfVariablesAreNotFetched() {
+    // given
+    runtimeService.startProcessInstanceByKey("process", Variables.createVariables().putValue("foo", "bar"));
+    Task task = taskService.createTaskQuery().singleResult();
+
+    try {
+      // when
+      task.getFetchedVariables();
+      fail("exception expected");
+    }
+    catch (BadUserRequestException e) {
+      // then
+      assertThat(e.getMessage()).contains("withVariables()");
+    }
+  }
+
+  @Test
+  public void shouldFailWithinOrQuery() {
+    try {
+      // when
+      taskService.createTaskQuery().or().withVariables("foo");
+      fail("exception expected");
+    }
+    catch (ProcessEngineException e) {
+      // then
+      assertThat(e.getMessage()).contains("cannot set withVariables() within 'or' query");
+    }
+  }
+
+}
@@ -0,0 +1,315 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.variables;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.camunda.bpm.engine.variable.Variables.objectValue;
+import static org.camunda.bpm.engine.variable.Variables.serializedObjectValue;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.impl.digest._apacheCommonsCodec.Base64;
+import org.camunda.bpm.engine.impl.variable.serializer.CompactBinaryFormat;
+import org.camunda.bpm.engine.impl.variable.serializer.CompactBinaryObjectSerializer;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.engine.test.ProcessEngineRule;
+import org.camunda.bpm.engine.test.util.ProcessEngineTestRule;
+import org.camunda.bpm.engine.test.util.ProvidedProcessEngineRule;
+import org.camunda.bpm.engine.variable.value.ObjectValue;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+import com.google.gson.Gson;
+
+public class CompactBinarySerializationTest {
+
+  protected static final String ONE_TASK_PROCESS = "org/camunda/bpm/engine/test/api/variables/oneTaskProcess.bpmn20.xml";
+
+  protected static final String DATA_FORMAT = CompactBinaryObjectSerializer.DATA_FORMAT;
+
+  protected ProcessEngineRule engineRule = new ProvidedProcessEngineRule();
+  protected ProcessEngineTestRule testRule = new ProcessEngineTestRule(engineRule);
+
+  @Rule
+  public RuleChain ruleChain = RuleChain.outerRule(engineRule).around(testRule);
+
+  protected RuntimeService runtimeService;
+
+  @Before
+  public void init() {
+    runtimeService = engineRule.getRuntimeService();
+  }
+
+  @Test
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void shouldSerializeMapAsCompactBinary() {
+    // given
+    ProcessInstance instance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+    Map<String, Object> customer = createCustomer(3);
+
+    // when
+    runtimeService.setVariable(instance.getId(), "customer",
+        objectValue(customer).serializationDataFormat(DATA_FORMAT).create());
+
+    // then
+    ObjectValue typedValue = runtimeService.getVariableTyped(instance.getId(), "customer");
+    assertThat(typedValue.getSerializationDataFormat()).isEqualTo(DATA_FORMAT);
+    assertThat(typedValue.getObjectTypeName()).isEqualTo(LinkedHashMap.class.getName());
+    assertThat(typedValue.getValue()).isEqualTo(customer);
+  }
+
+  @Test
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void shouldReadSerializedValueWithoutDeserialization() {
+    // given
+    ProcessInstance instance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+    runtimeService.setVariable(instance.getId(), "customer",
+        objectValue(createCustomer(1)).serializationDataFormat(DATA_FORMAT).create());
+
+    // when
+    ObjectValue serializedValue = runtimeService.getVariableTyped(instance.getId(), "customer", false);
+
+    // then
+    assertThat(serializedValue.isDeserialized()).isFalse();
+    byte[] bytes = Base64.decodeBase64(serializedValue.getValueSerialized().getBytes(StandardCharsets.UTF_8));
+    assertThat(bytes[0]).isEqualTo(CompactBinaryFormat.FORMAT_VERSION);
+  }
+
+  @Test
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void shouldSetSerializedCompactBinaryValue() throws Exception {
+    // given
+    ProcessInstance instance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+    List<Object> list = new ArrayList<>(Arrays.asList("a", 1, true, null));
+    byte[] bytes = new CompactBinaryFormat(-1).encode(list);
+    String serializedValue = new String(Base64.encodeBase64(bytes), StandardCharsets.UTF_8);
+
+    // when
+    runtimeService.setVariable(instance.getId(), "list",
+        serializedObjectValue(serializedValue)
+          .serializationDataFormat(DATA_FORMAT)
+          .objectTypeName(ArrayList.class.getName())
+          .create());
+
+    // then
+    assertThat(runtimeService.getVariable(instance.getId(), "list")).isEqualTo(list);
+  }
+
+  @Test
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void shouldCompressLargeValues() {
+    // given
+    ProcessInstance instance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+    Map<String, Object> customer = createCustomer(200);
+
+    // when
+    runtimeService.setVariable(instance.getId(), "customer",
+        objectValue(customer).serializationDataFormat(DATA_FORMAT).create());
+
+    // then
+    ObjectValue serializedValue = runtimeService.getVariableTyped(instance.getId(), "customer", false);
+    byte[] bytes = Base64.decodeBase64(serializedValue.getValueSerialized().getBytes(StandardCharsets.UTF_8));
+    assertThat(CompactBinaryFormat.isCompressed(bytes)).isTrue();
+    assertThat(runtimeService.getVariable(instance.getId(), "customer")).isEqualTo(customer);
+  }
+
+  @Test
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void shouldFailForUnsupportedValue() {
+    // given
+    ProcessInstance instance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+
+    // when
+    try {
+      runtimeService.setVariable(instance.getId(), "bean",
+          objectValue(new JavaSerializable("foo")).serializationDataFormat(DATA_FORMAT).create());
+
+      // then
+      fail("exception expected");
+    } catch (ProcessEngineException e) {
+      assertThat(e.getMessage()).contains("Cannot find serializer");
+    }
+  }
+
+  @Test
+  public void shouldEncodeSmallerThanJson() throws Exception {
+    // given
+    Map<String, Object> customer = createCustomer(20);
+    CompactBinaryFormat format = new CompactBinaryFormat(-1);
+
+    // when
+    byte[] compact = format.encode(customer);
+    byte[] json = new Gson().toJson(customer).getBytes(StandardCharsets.UTF_8);
+
+    // then
+    assertThat(compact.length).isLessThan(json.length);
+  }
+
+  @Test
+  public void shouldRoundTripAllSupportedTypes() throws Exception {
+    // given
+    Map<String, Object> value = new LinkedHashMap<>();
+    value.put("null", null);
+    value.put("boolean", false);
+    value.put("int", -24);
+    value.put("long", Long.MAX_VALUE);
+    value.put("minLong", Long.MIN_VALUE);
+    value.put("double", 1.5d);
+    value.put("string", "äöü");
+    value.put("date", new Date(1234567890123L));
+    value.put("list", new ArrayList<>(Arrays.asList(1, "two", new ArrayList<>(Arrays.asList(3)))));
+    value.put("map", new HashMap<String, Object>());
+    CompactBinaryFormat format = new CompactBinaryFormat(0);
+
+    // when
+    Map<?, ?> result = (Map<?, ?>) format.decode(format.encode(value));
+
+    // then
+    assertThat(result).isEqualTo(value);
+  }
+
+  @Test
+  public void shouldRoundTripSmallLong() throws Exception {
+    // given
+    CompactBinaryFormat format = new CompactBinaryFormat(-1);
+
+    // when
+    Object result = format.decode(format.encode(42L));
+
+    // then
+    assertThat(result).isInstanceOf(Long.class).isEqualTo(42L);
+    assertThat(format.decode(format.encode(-42L))).isInstanceOf(Long.class).isEqualTo(-42L);
+    assertThat(format.decode(format.encode(42))).isInstanceOf(Integer.class).isEqualTo(42);
+  }
+
+  @Test
+  public void shouldRoundTripShortAndByte() throws Exception {
+    // given
+    CompactBinaryFormat format = new CompactBinaryFormat(-1);
+
+    // when
+    Object shortResult = format.decode(format.encode((short) -300));
+    Object byteResult = format.decode(format.encode((byte) 7));
+
+    // then
+    assertThat(shortResult).isInstanceOf(Short.class).isEqualTo((short) -300);
+    assertThat(byteResult).isInstanceOf(Byte.class).isEqualTo((byte) 7);
+  }
+
+  @Test
+  public void shouldRoundTripFloat() throws Exception {
+    // given
+    CompactBinaryFormat format = new CompactBinaryFormat(-1);
+
+    // when
+    Object result = format.decode(format.encode(0.1f));
+
+    // then
+    assertThat(result).isInstanceOf(Float.class).isEqualTo(0.1f);
+  }
+
+  @Test
+  public void shouldRoundTripHashSet() throws Exception {
+    // given
+    Set<Object> set = new HashSet<>(Arrays.asList("a", 1, 2L));
+    CompactBinaryFormat format = new CompactBinaryFormat(-1);
+
+    // when
+    Object result = format.decode(format.encode(set));
+
+    // then
+    assertThat(result).isInstanceOf(HashSet.class).isEqualTo(set);
+  }
+
+  @Test
+  public void shouldRoundTripCollectionAndMapTypes() throws Exception {
+    // given
+    Map<String, Object> value = new HashMap<>();
+    value.put("linkedList", new LinkedList<>(Arrays.asList(1, 2)));
+    value.put("linkedHashSet", new LinkedHashSet<>(Arrays.asList("b", "a")));
+    value.put("treeSet", new TreeSet<>(Arrays.asList("b", "a")));
+    value.put("treeMap", new TreeMap<>(Collections.singletonMap("key", (Object) "value")));
+    value.put("linkedHashMap", new LinkedHashMap<String, Object>());
+    CompactBinaryFormat format = new CompactBinaryFormat(-1);
+
+    // when
+    Map<?, ?> result = (Map<?, ?>) format.decode(format.encode(value));
+
+    // then
+    assertThat(result).isInstanceOf(HashMap.class).isEqualTo(value);
+    for (Map.Entry<String, Object> entry : value.entrySet()) {
+      assertThat(result.get(entry.getKey())).isExactlyInstanceOf(entry.getValue().getClass());
+    }
+    assertThat(new ArrayList<>((Set<?>) result.get("linkedHashSet"))).isEqualTo(Arrays.asList("b", "a"));
+  }
+
+  @Test
+  public void shouldNotEncodeValuesWhichDoNotRoundTrip() {
+    // given
+    CompactBinaryFormat format = new CompactBinaryFormat(-1);
+
+    // then
+    assertThat(format.canEncode(Arrays.asList(1, 2))).isFalse();
+    assertThat(format.canEncode(Collections.unmodifiableMap(new HashMap<String, Object>()))).isFalse();
+    assertThat(format.canEncode(new TreeSet<>(Collections.reverseOrder()))).isFalse();
+    assertThat(format.canEncode(new Timestamp(0))).isFalse();
+    assertThat(format.canEncode(new ArrayList<>(Arrays.asList(new Timestamp(0))))).isFalse();
+    assertThat(format.canEncode(new HashSet<>(Arrays.asList(1, 2)))).isTrue();
+  }
+
+  protected Map<String, Object> createCustomer(int orders) {
+    Map<String, Object> customer = new LinkedHashMap<>();
+    customer.put("id", 4711);
+    customer.put("name", "Jane Doe");
+    customer.put("active", true);
+    customer.put("rating", 4.5d);
+
+    List<Object> orderList = new ArrayList<>();
+    for (int i = 0; i < orders; i++) {
+      Map<String, Object> order = new LinkedHashMap<>();
+      order.put("orderId", 100000 + i);
+      order.put("item", "item-" + i);
+      order.put("quantity", i % 7);
+      orderList.add(order);
+    }
+    customer.put("orders", orderList);
+
+    return customer;
+  }
+
+}
@@ -0,0 +1,308 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.variables;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+
+import org.camunda.bpm.engine.HistoryService;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.history.HistoricDetail;
+import org.camunda.bpm.engine.history.HistoricVariableInstance;
+import org.camunda.bpm.engine.history.HistoricVariableUpdate;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.util.IoUtil;
+import org.camunda.bpm.engine.impl.variable.serializer.LazyFileValueImpl;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.engine.test.RequiredHistoryLevel;
+import org.camunda.bpm.engine.test.util.ProcessEngineBootstrapRule;
+import org.camunda.bpm.engine.test.util.ProcessEngineTestRule;
+import org.camunda.bpm.engine.test.util.ProvidedProcessEngineRule;
+import org.camunda.bpm.engine.variable.Variables;
+import org.camunda.bpm.engine.variable.impl.value.FileValueImpl;
+import org.camunda.bpm.engine.variable.value.FileValue;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+public class FileValueStreamingTest {
+
+  protected static final String ONE_TASK_PROCESS = "org/camunda/bpm/engine/test/api/variables/oneTaskProcess.bpmn20.xml";
+
+  @ClassRule
+  public static ProcessEngineBootstrapRule bootstrapRule = new ProcessEngineBootstrapRule() {
+    @Override
+    public ProcessEngineConfiguration configureEngine(ProcessEngineConfigurationImpl configuration) {
+      configuration.setFileValueStreamingEnabled(true);
+      return configuration;
+    }
+  };
+
+  public ProvidedProcessEngineRule engineRule = new ProvidedProcessEngineRule(bootstrapRule);
+  public ProcessEngineTestRule testRule = new ProcessEngineTestRule(engineRule);
+
+  @Rule
+  public RuleChain ruleChain = RuleChain.outerRule(engineRule).around(testRule);
+
+  protected RuntimeService runtimeService;
+  protected HistoryService historyService;
+
+  @Before
+  public void init() {
+    runtimeService = engineRule.getRuntimeService();
+    historyService = engineRule.getHistoryService();
+  }
+
+  @Test
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void shouldStreamFileValueContent() {
+    // given
+    byte[] content = createContent(100 * 1024);
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess",
+        Variables.createVariables().putValue("file", Variables.fileValue("data.bin").file(content).mimeType("application/octet-stream").create()));
+
+    // when
+    FileValue fileValue = runtimeService.getVariableTyped(processInstance.getId(), "file");
+
+    // then
+    assertThat(fileValue).isInstanceOf(LazyFileValueImpl.class);
+    assertThat(fileValue.getFilename()).isEqualTo("data.bin");
+    assertThat(fileValue.getMimeType()).isEqualTo("application/octet-stream");
+    assertThat(readFully(fileValue.getValue())).isEqualTo(content);
+    // the content can be read more than once
+    assertThat(readFully(fileValue.getValue())).isEqualTo(content);
+  }
+
+  @Test
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void shouldWriteFileValueFromStream() {
+    // given
+    byte[] content = "streamed content".getBytes(StandardCharsets.UTF_8);
+    FileValue streamedValue = Variables.fileValue("data.txt")
+        .stream(new ByteArrayInputStream(content))
+        .encoding(StandardCharsets.UTF_8)
+        .create();
+
+    // when
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess",
+        Variables.createVariables().putValue("file", streamedValue));
+
+    // then
+    FileValue fileValue = runtimeService.getVariableTyped(processInstance.getId(), "file");
+    assertThat(fileValue.getEncoding()).isEqualTo("UTF-8");
+    assertThat(readFully(fileValue.getValue())).isEqualTo(content);
+  }
+
+  @Test
+  @Deployment(resources = ONE_TASK_PROCESS)
+  @RequiredHistoryLevel(ProcessEngineConfiguration.HISTORY_FULL)
+  public void shouldCopyStreamedFileValueToHistory() {
+    // given
+    byte[] content = createContent(10 * 1024);
+
+    // when
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess",
+        Variables.createVariables().putValue("file", Variables.fileValue("data.bin").stream(new ByteArrayInputStream(content)).create()));
+
+    // then
+    HistoricVariableInstance historicVariable = historyService.createHistoricVariableInstanceQuery()
+        .processInstanceId(processInstance.getId())
+        .singleResult();
+    assertThat(readFully(((FileValue) historicVariable.getTypedValue()).getValue())).isEqualTo(content);
+
+    HistoricVariableUpdate historicDetail = (HistoricVariableUpdate) historyService.createHistoricDetailQuery()
+        .processInstanceId(processInstance.getId())
+        .variableUpdates()
+        .singleResult();
+    assertThat(readFully(((FileValue) historicDetail.getTypedValue()).getValue())).isEqualTo(content);
+  }
+
+  @Test
+  @Deployment(resources = ONE_TASK_PROCESS)
+  @RequiredHistoryLevel(ProcessEngineConfiguration.HISTORY_FULL)
+  public void shouldRoundTripStreamedFileValueAndHistoricCopies() {
+    // given
+    byte[] content = createContent(20 * 1024);
+    byte[] updatedContent = "updated".getBytes(StandardCharsets.UTF_8);
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess",
+        Variables.createVariables().putValue("file", Variables.fileValue("data.bin").stream(new ByteArrayInputStream(content)).create()));
+
+    // when
+    runtimeService.setVariable(processInstance.getId(), "file",
+        Variables.fileValue("data.txt").stream(new ByteArrayInputStream(updatedContent)).create());
+
+    // then
+    FileValue fileValue = runtimeService.getVariableTyped(processInstance.getId(), "file");
+    assertThat(fileValue.getFilename()).isEqualTo("data.txt");
+    assertThat(readFully(fileValue.getValue())).isEqualTo(updatedContent);
+
+    HistoricVariableInstance historicVariable = historyService.createHistoricVariableInstanceQuery()
+        .processInstanceId(processInstance.getId())
+        .singleResult();
+    assertThat(readFully(((FileValue) historicVariable.getTypedValue()).getValue())).isEqualTo(updatedContent);
+
+    List<HistoricDetail> historicDetails = historyService.createHistoricDetailQuery()
+        .processInstanceId(processInstance.getId())
+        .variableUpdates()
+        .orderPartiallyByOccurrence()
+        .asc()
+        .list();
+    assertThat(historicDetails).hasSize(2);
+    assertThat(readFully(((FileValue) ((HistoricVariableUpdate) historicDetails.get(0)).getTypedValue()).getValue())).isEqualTo(content);
+    assertThat(readFully(((FileValue) ((HistoricVariableUpdate) historicDetails.get(1)).getTypedValue()).getValue())).isEqualTo(updatedContent);
+  }
+
+  @Test
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void shouldStreamLargeValueOutsideOfCommand() throws Exception {
+    // given
+    byte[] content = createContent(4 * 1024 * 1024);
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess",
+        Variables.createVariables().putValue("file", Variables.fileValue("data.bin").file(content).create()));
+    FileValue fileValue = runtimeService.getVariableTyped(processInstance.getId(), "file");
+
+    PooledDataSource dataSource = getDataSource();
+    int activeConnections = dataSource.getPoolState().getActiveConnectionCount();
+
+    // when
+    InputStream stream = fileValue.getValue();
+    byte[] buffer = new byte[8 * 1024];
+    ByteArrayOutputStream readContent = new ByteArrayOutputStream(content.length);
+    int count = stream.read(buffer);
+    readContent.write(buffer, 0, count);
+
+    // then the content is read from the result set of a connection of the stream's own
+    assertThat(dataSource.getPoolState().getActiveConnectionCount()).isEqualTo(activeConnections + 1);
+
+    while ((count = stream.read(buffer)) != -1) {
+      readContent.write(buffer, 0, count);
+    }
+    assertThat(readContent.toByteArray()).isEqualTo(content);
+    // which is released at the end of the stream
+    assertThat(dataSource.getPoolState().getActiveConnectionCount()).isEqualTo(activeConnections);
+  }
+
+  @Test
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void shouldReleaseConnectionOfClosedStream() throws Exception {
+    // given
+    byte[] content = createContent(10 * 1024);
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess",
+        Variables.createVariables().putValue("file", Variables.fileValue("data.bin").file(content).create()));
+    FileValue fileValue = runtimeService.getVariableTyped(processInstance.getId(), "file");
+
+    PooledDataSource dataSource = getDataSource();
+    int activeConnections = dataSource.getPoolState().getActiveConnectionCount();
+
+    InputStream stream = fileValue.getValue();
+    assertThat(stream.read()).isEqualTo(content[0]);
+
+    // when
+    stream.close();
+
+    // then
+    assertThat(dataSource.getPoolState().getActiveConnectionCount()).isEqualTo(activeConnections);
+  }
+
+  @Test
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void shouldReleaseConnectionOfUnreachableStream() throws Exception {
+    // given
+    byte[] content = createContent(10 * 1024);
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess",
+        Variables.createVariables().putValue("file", Variables.fileValue("data.bin").file(content).create()));
+
+    PooledDataSource dataSource = getDataSource();
+    int activeConnections = dataSource.getPoolState().getActiveConnectionCount();
+
+    // when a partially read stream is neither read to its end nor closed
+    readFirstByte(processInstance.getId());
+
+    // then
+    long timeout = System.currentTimeMillis() + 10000;
+    while (dataSource.getPoolState().getActiveConnectionCount() > activeConnections && System.currentTimeMillis() < timeout) {
+      System.gc();
+      Thread.sleep(50);
+    }
+    assertThat(dataSource.getPoolState().getActiveConnectionCount()).isEqualTo(activeConnections);
+  }
+
+  protected void readFirstByte(String processInstanceId) throws Exception {
+    FileValue fileValue = runtimeService.getVariableTyped(processInstanceId, "file");
+    fileValue.getValue().read();
+  }
+
+  protected PooledDataSource getDataSource() {
+    return (PooledDataSource) engineRule.getProcessEngineConfiguration().getDataSource();
+  }
+
+  @Test
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void shouldSerializeStreamedFileValueWithContent() throws Exception {
+    // given
+    byte[] content = createContent(1024);
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess",
+        Variables.createVariables().putValue("file", Variables.fileValue("data.bin").file(content).create()));
+    FileValue fileValue = runtimeService.getVariableTyped(processInstance.getId(), "file");
+
+    // when
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (ObjectOutputStream objectOut = new ObjectOutputStream(out)) {
+      objectOut.writeObject(fileValue);
+    }
+    Object deserializedValue;
+    try (ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+      deserializedValue = objectIn.readObject();
+    }
+
+    // then
+    assertThat(deserializedValue).isExactlyInstanceOf(FileValueImpl.class);
+    assertThat(((FileValueImpl) deserializedValue).getFilename()).isEqualTo("data.bin");
+    assertThat(((FileValueImpl) deserializedValue).getByteArray()).isEqualTo(content);
+  }
+
+  protected byte[] createContent(int length) {
+    byte[] content = new byte[length];
+    for (int i = 0; i < length; i++) {
+      content[i] = (byte) (i % 251);
+    }
+    return content;
+  }
+
+  protected byte[] readFully(InputStream stream) {
+    try {
+      return IoUtil.readInputStream(stream, "file");
+    }
+    finally {
+      IoUtil.closeSilently(stream);
+    }
+  }
+
+}
@@ -0,0 +1,371 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.history;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.camunda.bpm.engine.HistoryService;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.engine.history.HistoricActivityInstance;
+import org.camunda.bpm.engine.history.HistoricProcessInstance;
+import org.camunda.bpm.engine.history.HistoricVariableInstance;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.cfg.TransactionListener;
+import org.camunda.bpm.engine.impl.cfg.TransactionState;
+import org.camunda.bpm.engine.impl.history.event.HistoricProcessInstanceEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.history.event.HistoryEventTypes;
+import org.camunda.bpm.engine.impl.history.handler.AsyncHistoryEventWriter;
+import org.camunda.bpm.engine.impl.history.handler.HistoryEventStagingSession;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.management.Metrics;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.test.RequiredHistoryLevel;
+import org.camunda.bpm.engine.test.util.ProcessEngineBootstrapRule;
+import org.camunda.bpm.engine.test.util.ProcessEngineTestRule;
+import org.camunda.bpm.engine.test.util.ProvidedProcessEngineRule;
+import org.camunda.bpm.engine.variable.Variables;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+@RequiredHistoryLevel(ProcessEngineConfiguration.HISTORY_FULL)
+public class AsyncHistoryEventHandlingTest {
+
+  protected static final BpmnModelInstance USER_TASK_PROCESS = Bpmn.createExecutableProcess("process")
+      .camundaHistoryTimeToLive(5)
+      .startEvent("start")
+      .userTask("task")
+      .endEvent("end")
+      .done();
+
+  protected static final BpmnModelInstance STRAIGHT_THROUGH_PROCESS = Bpmn.createExecutableProcess("process")
+      .startEvent("start")
+      .endEvent("end")
+      .done();
+
+  @ClassRule
+  public static ProcessEngineBootstrapRule bootstrapRule = new ProcessEngineBootstrapRule() {
+    @Override
+    public ProcessEngineConfiguration configureEngine(ProcessEngineConfigurationImpl configuration) {
+      configuration.setAsyncHistoryEventHandlingEnabled(true);
+      configuration.setAsyncHistoryWriterThreads(2);
+      configuration.setHistoryRemovalTimeStrategy(ProcessEngineConfiguration.HISTORY_REMOVAL_TIME_STRATEGY_END);
+      return configuration;
+    }
+  };
+
+  public ProvidedProcessEngineRule engineRule = new ProvidedProcessEngineRule(bootstrapRule);
+  public ProcessEngineTestRule testRule = new ProcessEngineTestRule(engineRule);
+
+  @Rule
+  public RuleChain ruleChain = RuleChain.outerRule(engineRule).around(testRule);
+
+  protected RuntimeService runtimeService;
+  protected TaskService taskService;
+  protected HistoryService historyService;
+  protected AsyncHistoryEventWriter historyEventWriter;
+
+  @Before
+  public void init() {
+    runtimeService = engineRule.getRuntimeService();
+    taskService = engineRule.getTaskService();
+    historyService = engineRule.getHistoryService();
+    historyEventWriter = engineRule.getProcessEngineConfiguration().getAsyncHistoryEventWriter();
+  }
+
+  @Test
+  public void shouldWriteHistoryOfProcessInstance() {
+    // given
+    testRule.deploy(USER_TASK_PROCESS);
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("process");
+
+    // when
+    taskService.complete(taskService.createTaskQuery().singleResult().getId());
+    waitForHistory();
+
+    // then
+    HistoricProcessInstance historicProcessInstance = historyService.createHistoricProcessInstanceQuery().singleResult();
+    assertThat(historicProcessInstance.getId()).isEqualTo(processInstance.getId());
+    assertThat(historicProcessInstance.getState()).isEqualTo(HistoricProcessInstance.STATE_COMPLETED);
+    assertThat(historicProcessInstance.getStartTime()).isNotNull();
+    assertThat(historicProcessInstance.getEndTime()).isNotNull();
+
+    List<HistoricActivityInstance> activityInstances = historyService.createHistoricActivityInstanceQuery().list();
+    assertThat(activityInstances).hasSize(3);
+    for (HistoricActivityInstance activityInstance : activityInstances) {
+      assertThat(activityInstance.getStartTime()).isNotNull();
+      assertThat(activityInstance.getEndTime()).isNotNull();
+    }
+
+    assertThat(historyService.createHistoricTaskInstanceQuery().finished().count()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldCombineEventsOfSameTransaction() {
+    // given
+    testRule.deploy(STRAIGHT_THROUGH_PROCESS);
+
+    // when
+    runtimeService.startProcessInstanceByKey("process");
+    waitForHistory();
+
+    // then
+    HistoricProcessInstance historicProcessInstance = historyService.createHistoricProcessInstanceQuery().singleResult();
+    assertThat(historicProcessInstance.getStartTime()).isNotNull();
+    assertThat(historicProcessInstance.getEndTime()).isNotNull();
+    assertThat(historicProcessInstance.getEndActivityId()).isEqualTo("end");
+
+    assertThat(historyService.createHistoricActivityInstanceQuery().finished().count()).isEqualTo(2);
+  }
+
+  @Test
+  public void shouldWriteVariableUpdatesInOrder() {
+    // given
+    testRule.deploy(USER_TASK_PROCESS);
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("process",
+        Variables.createVariables().putValue("foo", "bar"));
+
+    // when
+    runtimeService.setVariable(processInstance.getId(), "foo", "baz");
+    runtimeService.setVariable(processInstance.getId(), "foo", "qux");
+    waitForHistory();
+
+    // then
+    HistoricVariableInstance variableInstance = historyService.createHistoricVariableInstanceQuery().singleResult();
+    assertThat(variableInstance.getValue()).isEqualTo("qux");
+    assertThat(historyService.createHistoricDetailQuery().variableUpdates().count()).isEqualTo(3);
+  }
+
+  @Test
+  public void shouldDiscardEventsOfRolledBackTransaction() {
+    // given
+    testRule.deploy(Bpmn.createExecutableProcess("process")
+        .startEvent()
+        .serviceTask().camundaExpression("${unknownBean.fail()}")
+        .endEvent()
+        .done());
+
+    // when
+    try {
+      runtimeService.startProcessInstanceByKey("process");
+      fail("exception expected");
+    } catch (ProcessEngineException e) {
+      // expected
+    }
+    waitForHistory();
+
+    // then
+    assertThat(historyService.createHistoricProcessInstanceQuery().count()).isZero();
+    assertThat(historyService.createHistoricActivityInstanceQuery().count()).isZero();
+    assertThat(historyEventWriter.getPendingEventCount()).isZero();
+  }
+
+  @Test
+  public void shouldWriteEventsStagedAfterCommit() {
+    // given
+    final String processDefinitionId = testRule.deployAndGetDefinition(USER_TASK_PROCESS).getId();
+
+    // when an event is staged once the transaction is committed
+    engineRule.getProcessEngineConfiguration().getCommandExecutorTxRequired().execute(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        final HistoryEventStagingSession stagingSession = commandContext.getSession(HistoryEventStagingSession.class);
+        commandContext.getTransactionContext().addTransactionListener(TransactionState.COMMITTED, new TransactionListener() {
+          public void execute(CommandContext commandContext) {
+            stagingSession.stage(createProcessInstanceStartEvent("lateProcessInstance", processDefinitionId));
+          }
+        });
+        return null;
+      }
+    });
+
+    // then it is written without waiting for the writer
+    HistoricProcessInstance historicProcessInstance = historyService.createHistoricProcessInstanceQuery()
+        .processInstanceId("lateProcessInstance")
+        .singleResult();
+    assertThat(historicProcessInstance).isNotNull();
+    assertThat(historyEventWriter.getPendingEventCount()).isZero();
+  }
+
+  @Test
+  public void shouldSetRemovalTimeToHistoryWrittenAfterEnd() {
+    // given
+    testRule.deploy(USER_TASK_PROCESS);
+    runtimeService.startProcessInstanceByKey("process");
+
+    // when
+    taskService.complete(taskService.createTaskQuery().singleResult().getId());
+    waitForHistory();
+
+    // then
+    HistoricProcessInstance historicProcessInstance = historyService.createHistoricProcessInstanceQuery().singleResult();
+    assertThat(historicProcessInstance.getRemovalTime()).isNotNull();
+
+    for (HistoricActivityInstance activityInstance : historyService.createHistoricActivityInstanceQuery().list()) {
+      assertThat(activityInstance.getRemovalTime()).isEqualTo(historicProcessInstance.getRemovalTime());
+    }
+  }
+
+  @Test
+  public void shouldCountWrittenEvents() {
+    // given
+    testRule.deploy(STRAIGHT_THROUGH_PROCESS);
+    long writtenEvents = getWrittenEvents();
+
+    // when
+    runtimeService.startProcessInstanceByKey("process");
+    waitForHistory();
+
+    // then
+    assertThat(getWrittenEvents()).isGreaterThan(writtenEvents);
+  }
+
+  @Test
+  public void shouldRetryEventsWhichCannotBeWritten() throws Exception {
+    // given
+    FailingHistoryEventWriter writer = new FailingHistoryEventWriter(engineRule.getProcessEngineConfiguration(), 2);
+
+    try {
+      // when
+      writer.handOff(writer.reserve(createHistoryEvents("event1", "event2")));
+
+      // then
+      assertThat(writer.awaitWritten(10, TimeUnit.SECONDS)).isTrue();
+      assertThat(writer.attempts.get()).isEqualTo(3);
+      assertThat(writer.writtenEvents).extracting("id").containsExactly("event1", "event2");
+
+    } finally {
+      writer.close();
+    }
+  }
+
+  @Test
+  public void shouldDiscardEventsWhichCannotBeWrittenOnClose() throws Exception {
+    // given
+    FailingHistoryEventWriter writer = new FailingHistoryEventWriter(engineRule.getProcessEngineConfiguration(), Integer.MAX_VALUE);
+    writer.handOff(writer.reserve(createHistoryEvents("event1")));
+
+    // when the writer is closed while retrying
+    while (writer.attempts.get() < 2) {
+      Thread.sleep(10);
+    }
+    writer.close();
+
+    // then
+    assertThat(writer.getPendingEventCount()).isEqualTo(0);
+    assertThat(writer.writtenEvents).isEmpty();
+  }
+
+  @Test
+  public void shouldNotRetryEventsWhichFailForOtherReasonsThanTheDatabase() throws Exception {
+    // given
+    FailingHistoryEventWriter writer = new FailingHistoryEventWriter(engineRule.getProcessEngineConfiguration(), 1);
+    writer.failure = new ProcessEngineException("no deployed process definition found");
+
+    try {
+      // when
+      writer.handOff(writer.reserve(createHistoryEvents("event1")));
+
+      // then
+      assertThat(writer.awaitWritten(10, TimeUnit.SECONDS)).isTrue();
+      assertThat(writer.attempts.get()).isEqualTo(1);
+      assertThat(writer.writtenEvents).isEmpty();
+
+    } finally {
+      writer.close();
+    }
+  }
+
+  protected List<HistoryEvent> createHistoryEvents(String... ids) {
+    List<HistoryEvent> historyEvents = new ArrayList<>();
+    for (String id : ids) {
+      HistoryEvent historyEvent = new HistoryEvent();
+      historyEvent.setId(id);
+      historyEvent.setProcessInstanceId("processInstance");
+      historyEvents.add(historyEvent);
+    }
+    return historyEvents;
+  }
+
+  protected HistoryEvent createProcessInstanceStartEvent(String processInstanceId, String processDefinitionId) {
+    HistoricProcessInstanceEventEntity historyEvent = new HistoricProcessInstanceEventEntity();
+    historyEvent.setId(processInstanceId);
+    historyEvent.setProcessInstanceId(processInstanceId);
+    historyEvent.setRootProcessInstanceId(processInstanceId);
+    historyEvent.setProcessDefinitionId(processDefinitionId);
+    historyEvent.setProcessDefinitionKey("process");
+    historyEvent.setStartTime(new Date());
+    historyEvent.setEventType(HistoryEventTypes.PROCESS_INSTANCE_START.getEventName());
+    return historyEvent;
+  }
+
+  protected long getWrittenEvents() {
+    return engineRule.getProcessEngineConfiguration()
+        .getMetricsRegistry()
+        .getMeterByName(Metrics.HISTORY_EVENTS_WRITTEN)
+        .get();
+  }
+
+  protected void waitForHistory() {
+    try {
+      assertThat(historyEventWriter.awaitWritten(10, TimeUnit.SECONDS)).isTrue();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      fail("interrupted while waiting for the history to be written");
+    }
+  }
+
+  protected static class FailingHistoryEventWriter extends AsyncHistoryEventWriter {
+
+    protected int failures;
+    protected ProcessEngineException failure =
+        new ProcessEngineException("expected failure", new SQLException("connection reset"));
+    protected AtomicInteger attempts = new AtomicInteger();
+    protected List<HistoryEvent> writtenEvents = new CopyOnWriteArrayList<>();
+
+    public FailingHistoryEventWriter(ProcessEngineConfigurationImpl processEngineConfiguration, int failures) {
+      super(processEngineConfiguration);
+      this.failures = failures;
+    }
+
+    @Override
+    protected void execute(List<HistoryEvent> historyEvents) {
+      if (attempts.incrementAndGet() <= failures) {
+        throw failure;
+      }
+      writtenEvents.addAll(historyEvents);
+    }
+  }
+
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.history.eventlog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.camunda.bpm.engine.HistoryService;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.engine.history.HistoricProcessInstance;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.history.event.HistoryEventTypes;
+import org.camunda.bpm.engine.impl.history.eventlog.HistoryEventLog;
+import org.camunda.bpm.engine.impl.history.eventlog.HistoryEventLogReader;
+import org.camunda.bpm.engine.impl.history.eventlog.HistoryEventLogRecord;
+import org.camunda.bpm.engine.impl.history.eventlog.HistoryEventLogReplay;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.test.RequiredHistoryLevel;
+import org.camunda.bpm.engine.test.util.ProcessEngineBootstrapRule;
+import org.camunda.bpm.engine.test.util.ProcessEngineTestRule;
+import org.camunda.bpm.engine.test.util.ProvidedProcessEngineRule;
+import org.camunda.bpm.engine.variable.Variables;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+@RequiredHistoryLevel(ProcessEngineConfiguration.HISTORY_FULL)
+public class HistoryEventLogHandlerTest {
+
+  protected static final BpmnModelInstance PROCESS = Bpmn.createExecutableProcess("process")
+      .startEvent()
+      .userTask()
+      .endEvent()
+      .done();
+
+  @ClassRule
+  public static ProcessEngineBootstrapRule bootstrapRule = new ProcessEngineBootstrapRule() {
+    @Override
+    public ProcessEngineConfiguration configureEngine(ProcessEngineConfigurationImpl configuration) {
+      try {
+        File directory = Files.createTempDirectory("history-event-log").toFile();
+        directory.deleteOnExit();
+        configuration.setHistoryEventLogDirectory(directory.getPath());
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+      return configuration;
+    }
+  };
+
+  public ProvidedProcessEngineRule engineRule = new ProvidedProcessEngineRule(bootstrapRule);
+  public ProcessEngineTestRule testRule = new ProcessEngineTestRule(engineRule);
+
+  @Rule
+  public RuleChain ruleChain = RuleChain.outerRule(engineRule).around(testRule);
+
+  protected ProcessEngineConfigurationImpl processEngineConfiguration;
+  protected RuntimeService runtimeService;
+  protected TaskService taskService;
+  protected HistoryService historyService;
+  protected HistoryEventLog historyEventLog;
+
+  @Before
+  public void init() {
+    processEngineConfiguration = engineRule.getProcessEngineConfiguration();
+    runtimeService = engineRule.getRuntimeService();
+    taskService = engineRule.getTaskService();
+    historyService = engineRule.getHistoryService();
+    historyEventLog = processEngineConfiguration.getHistoryEventLog();
+  }
+
+  @Test
+  public void shouldAppendEventsOfCommittedTransactions() {
+    // given
+    testRule.deploy(PROCESS);
+    long sequence = historyEventLog.getNextSequence();
+
+    // when
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("process");
+
+    // then
+    List<HistoryEventLogRecord> records = readRecords(sequence);
+    assertThat(records).isNotEmpty();
+
+    HistoryEvent firstEvent = records.get(0).getHistoryEvent();
+    assertThat(firstEvent.getId()).isEqualTo(processInstance.getId());
+    assertThat(firstEvent.isEventOfType(HistoryEventTypes.PROCESS_INSTANCE_START)).isTrue();
+  }
+
+  @Test
+  public void shouldNotAppendEventsOfRolledBackTransactions() {
+    // given
+    testRule.deploy(Bpmn.createExecutableProcess("process")
+        .startEvent()
+        .serviceTask().camundaExpression("${unknownBean.fail()}")
+        .endEvent()
+        .done());
+    long sequence = historyEventLog.getNextSequence();
+
+    // when
+    try {
+      runtimeService.startProcessInstanceByKey("process");
+    } catch (ProcessEngineException e) {
+      // expected
+    }
+
+    // then
+    assertThat(historyEventLog.getNextSequence()).isEqualTo(sequence);
+  }
+
+  @Test
+  public void shouldRebuildHistoryByReplay() {
+    // given
+    testRule.deploy(PROCESS);
+    long sequence = historyEventLog.getNextSequence();
+
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("process",
+        Variables.createVariables().putValue("foo", "bar"));
+    taskService.complete(taskService.createTaskQuery().singleResult().getId());
+
+    historyService.deleteHistoricProcessInstance(processInstance.getId());
+    assertThat(historyService.createHistoricProcessInstanceQuery().count()).isZero();
+
+    // when
+    long nextSequence = new HistoryEventLogReplay(processEngineConfiguration, historyEventLog.getDirectory())
+        .replay(sequence);
+
+    // then
+    assertThat(nextSequence).isEqualTo(historyEventLog.getNextSequence());
+
+    HistoricProcessInstance historicProcessInstance = historyService.createHistoricProcessInstanceQuery().singleResult();
+    assertThat(historicProcessInstance.getId()).isEqualTo(processInstance.getId());
+    assertThat(historicProcessInstance.getState()).isEqualTo(HistoricProcessInstance.STATE_COMPLETED);
+    assertThat(historicProcessInstance.getStartTime()).isNotNull();
+    assertThat(historicProcessInstance.getEndTime()).isNotNull();
+
+    assertThat(historyService.createHistoricActivityInstanceQuery().finished().count()).isEqualTo(3);
+    assertThat(historyService.createHistoricTaskInstanceQuery().finished().count()).isEqualTo(1);
+    assertThat(historyService.createHistoricVariableInstanceQuery().singleResult().getValue()).isEqualTo("bar");
+  }
+
+  protected List<HistoryEventLogRecord> readRecords(long fromSequence) {
+    File directory = historyEventLog.getDirectory();
+    return new HistoryEventLogReader(directory).read(fromSequence, Integer.MAX_VALUE);
+  }
+
+}
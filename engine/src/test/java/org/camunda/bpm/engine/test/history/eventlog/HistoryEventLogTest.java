@@ -0,0 +1,275 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.history.eventlog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.history.HistoricDecisionInputInstance;
+import org.camunda.bpm.engine.impl.history.event.HistoricActivityInstanceEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoricDecisionInputInstanceEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoricDecisionInstanceEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoricVariableUpdateEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.history.event.HistoryEventTypes;
+import org.camunda.bpm.engine.impl.history.eventlog.HistoryEventCodec;
+import org.camunda.bpm.engine.impl.history.eventlog.HistoryEventLog;
+import org.camunda.bpm.engine.impl.history.eventlog.HistoryEventLogReader;
+import org.camunda.bpm.engine.impl.history.eventlog.HistoryEventLogRecord;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class HistoryEventLogTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  protected static boolean notAHistoryEventInitialized = false;
+
+  protected HistoryEventCodec codec = new HistoryEventCodec();
+
+  @Test
+  public void shouldEncodeAndDecodeEvent() {
+    // given
+    HistoricActivityInstanceEventEntity event = new HistoricActivityInstanceEventEntity();
+    event.setId("activityInstanceId");
+    event.setProcessInstanceId("processInstanceId");
+    event.setEventType(HistoryEventTypes.ACTIVITY_INSTANCE_END.getEventName());
+    event.setStartTime(new Date(1000));
+    event.setEndTime(new Date(3000));
+    event.setDurationInMillis(2000L);
+    event.setSequenceCounter(-7);
+    event.setActivityInstanceState(4);
+
+    // when
+    HistoricActivityInstanceEventEntity decoded = (HistoricActivityInstanceEventEntity) codec.decode(codec.encode(event));
+
+    // then
+    assertThat(decoded.getId()).isEqualTo("activityInstanceId");
+    assertThat(decoded.getProcessInstanceId()).isEqualTo("processInstanceId");
+    assertThat(decoded.getEventType()).isEqualTo("end");
+    assertThat(decoded.getStartTime()).isEqualTo(new Date(1000));
+    assertThat(decoded.getEndTime()).isEqualTo(new Date(3000));
+    assertThat(decoded.getDurationInMillis()).isEqualTo(2000L);
+    assertThat(decoded.getSequenceCounter()).isEqualTo(-7);
+    assertThat(decoded.getActivityInstanceState()).isEqualTo(4);
+    assertThat(decoded.getExecutionId()).isNull();
+  }
+
+  @Test
+  public void shouldEncodeByteValuesAndNestedEvents() {
+    // given
+    HistoricVariableUpdateEventEntity variableUpdate = new HistoricVariableUpdateEventEntity();
+    variableUpdate.setId("detailId");
+    variableUpdate.setByteValue(new byte[] {1, 2, 3});
+
+    HistoricDecisionInputInstanceEntity input = new HistoricDecisionInputInstanceEntity();
+    input.setId("inputId");
+    input.setTextValue("input");
+    HistoricDecisionInstanceEntity decisionInstance = new HistoricDecisionInstanceEntity();
+    decisionInstance.setId("decisionInstanceId");
+    decisionInstance.setInputs(new ArrayList<HistoricDecisionInputInstance>());
+    decisionInstance.addInput(input);
+
+    // when
+    HistoricVariableUpdateEventEntity decodedVariableUpdate = (HistoricVariableUpdateEventEntity) codec.decode(codec.encode(variableUpdate));
+    HistoricDecisionInstanceEntity decodedDecisionInstance = (HistoricDecisionInstanceEntity) codec.decode(codec.encode(decisionInstance));
+
+    // then
+    assertThat(decodedVariableUpdate.getByteValue()).containsExactly(1, 2, 3);
+    assertThat(decodedDecisionInstance.getInputs()).hasSize(1);
+    assertThat(decodedDecisionInstance.getInputs().get(0).getId()).isEqualTo("inputId");
+    assertThat(((HistoricDecisionInputInstanceEntity) decodedDecisionInstance.getInputs().get(0)).getTextValue()).isEqualTo("input");
+  }
+
+  @Test
+  public void shouldAppendAndReadEvents() {
+    // given
+    File directory = temporaryFolder.getRoot();
+    HistoryEventLog log = new HistoryEventLog(directory, 1024, true);
+
+    // when
+    log.append(encode("event1", "event2"));
+    long sequence = log.append(encode("event3"));
+    log.close();
+
+    // then
+    assertThat(sequence).isEqualTo(2);
+    assertThat(readIds(directory, 0, 10)).containsExactly("event1", "event2", "event3");
+    assertThat(readIds(directory, 1, 1)).containsExactly("event2");
+  }
+
+  @Test
+  public void shouldRollSegments() {
+    // given
+    File directory = temporaryFolder.getRoot();
+    HistoryEventLog log = new HistoryEventLog(directory, 256, false);
+
+    // when
+    List<String> ids = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      ids.add("event" + i);
+      log.append(encode("event" + i));
+    }
+    log.close();
+
+    // then
+    assertThat(directory.list().length).isGreaterThan(1);
+    assertThat(readIds(directory, 0, 100)).containsExactlyElementsOf(ids);
+    assertThat(readIds(directory, 42, 100)).containsExactlyElementsOf(ids.subList(42, 50));
+  }
+
+  @Test
+  public void shouldContinueAfterReopening() {
+    // given
+    File directory = temporaryFolder.getRoot();
+    HistoryEventLog log = new HistoryEventLog(directory, 1024, true);
+    log.append(encode("event1", "event2"));
+    log.close();
+
+    // when
+    log = new HistoryEventLog(directory, 1024, true);
+    long sequence = log.append(encode("event3"));
+    log.close();
+
+    // then
+    assertThat(sequence).isEqualTo(2);
+    assertThat(readIds(directory, 0, 10)).containsExactly("event1", "event2", "event3");
+  }
+
+  @Test
+  public void shouldTruncateIncompleteRecordWhenReopening() throws IOException {
+    // given
+    File directory = temporaryFolder.getRoot();
+    HistoryEventLog log = new HistoryEventLog(directory, 1024, true);
+    log.append(encode("event1", "event2"));
+    log.close();
+
+    File segment = directory.listFiles()[0];
+    try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+      file.setLength(file.length() - 3);
+    }
+
+    // when
+    log = new HistoryEventLog(directory, 1024, true);
+    log.append(encode("event3"));
+    log.close();
+
+    // then
+    assertThat(readIds(directory, 0, 10)).containsExactly("event1", "event3");
+  }
+
+  @Test
+  public void shouldContinueReadingWhereLastReadStopped() {
+    // given
+    File directory = temporaryFolder.getRoot();
+    HistoryEventLog log = new HistoryEventLog(directory, 512, false);
+    List<String> ids = new ArrayList<>();
+    for (int i = 0; i < 30; i++) {
+      ids.add("event" + i);
+      log.append(encode("event" + i));
+    }
+    HistoryEventLogReader reader = new HistoryEventLogReader(directory);
+
+    // when
+    List<String> readIds = new ArrayList<>();
+    long nextSequence = 0;
+    List<HistoryEventLogRecord> records = reader.read(nextSequence, 7);
+    while (!records.isEmpty()) {
+      for (HistoryEventLogRecord record : records) {
+        readIds.add(record.getHistoryEvent().getId());
+        nextSequence = record.getSequence() + 1;
+      }
+      if (nextSequence == 20) {
+        // appended while reading
+        for (int i = 30; i < 40; i++) {
+          ids.add("event" + i);
+          log.append(encode("event" + i));
+        }
+      }
+      records = reader.read(nextSequence, 7);
+    }
+    log.close();
+
+    // then
+    assertThat(readIds).containsExactlyElementsOf(ids);
+    assertThat(getIds(reader.read(3, 2))).containsExactly("event3", "event4");
+  }
+
+  @Test
+  public void shouldNotDecodeClassWhichIsNotAHistoryEvent() throws IOException {
+    // given
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeUTF(NotAHistoryEvent.class.getName());
+    out.writeUTF("");
+    out.flush();
+
+    try {
+      // when
+      codec.decode(bytes.toByteArray());
+      fail("exception expected");
+
+    } catch (ProcessEngineException e) {
+      // then
+      assertThat(e.getMessage()).contains("is not a history event");
+      assertThat(notAHistoryEventInitialized).isFalse();
+    }
+  }
+
+  protected List<byte[]> encode(String... ids) {
+    List<byte[]> payloads = new ArrayList<>();
+    for (String id : ids) {
+      HistoryEvent event = new HistoryEvent();
+      event.setId(id);
+      payloads.add(codec.encode(event));
+    }
+    return payloads;
+  }
+
+  protected List<String> readIds(File directory, long fromSequence, int maxRecords) {
+    return getIds(new HistoryEventLogReader(directory).read(fromSequence, maxRecords));
+  }
+
+  protected List<String> getIds(List<HistoryEventLogRecord> records) {
+    List<String> ids = new ArrayList<>();
+    for (HistoryEventLogRecord record : records) {
+      ids.add(record.getHistoryEvent().getId());
+    }
+    return ids;
+  }
+
+  public static class NotAHistoryEvent {
+
+    static {
+      notAHistoryEventInitialized = true;
+    }
+
+  }
+
+}
@@ -161,6 +161,42 @@ public class BackoffJobAcquisitionStrategyTest {
     Assert.assertEquals(BackoffJobAcquisitionStrategy.DEFAULT_EXECUTION_SATURATION_WAIT_TIME, strategy.getWaitTime());
   }
 
+  @Test
+  public void testAcquireJobsUpToAvailableExecutionCapacity() {
+    // given a job acquisition strategy and a job acquisition context
+    // with acquired jobs and a job executor with little execution capacity left
+    JobAcquisitionContext context = new JobAcquisitionContext();
+
+    context.submitAcquiredJobs(ENGINE_NAME, buildAcquiredJobs(NUM_JOBS_TO_ACQUIRE, NUM_JOBS_TO_ACQUIRE, 0));
+    context.setAvailableExecutionCapacity(4);
+
+    // when reconfiguring the strategy
+    strategy.reconfigure(context);
+
+    // then the strategy only attempts to acquire as many jobs as can be executed
+    Assert.assertEquals(4, strategy.getNumJobsToAcquire(ENGINE_NAME));
+
+    // without a timeout
+    Assert.assertEquals(0, strategy.getWaitTime());
+  }
+
+  @Test
+  public void testWaitTimeWithoutExecutionCapacity() {
+    // given a job acquisition strategy and a job acquisition context
+    // with acquired jobs and a job executor without execution capacity left
+    JobAcquisitionContext context = new JobAcquisitionContext();
+
+    context.submitAcquiredJobs(ENGINE_NAME, buildAcquiredJobs(NUM_JOBS_TO_ACQUIRE, NUM_JOBS_TO_ACQUIRE, 0));
+    context.setAvailableExecutionCapacity(0);
+
+    // when reconfiguring the strategy
+    strategy.reconfigure(context);
+
+    // then no jobs are acquired and there is a slight wait time
+    Assert.assertEquals(0, strategy.getNumJobsToAcquire(ENGINE_NAME));
+    Assert.assertEquals(BackoffJobAcquisitionStrategy.DEFAULT_EXECUTION_SATURATION_WAIT_TIME, strategy.getWaitTime());
+  }
+
   /**
    * numJobsToAcquire >= numJobsAcquired >= numJobsFailedToLock must hold
    */
@@ -0,0 +1,200 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.jobexecutor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.camunda.bpm.engine.delegate.JavaDelegate;
+import org.camunda.bpm.engine.impl.ProcessEngineImpl;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
+import org.camunda.bpm.engine.impl.jobexecutor.RejectedJobsHandler;
+import org.camunda.bpm.engine.impl.jobexecutor.VirtualThreadJobExecutor;
+import org.camunda.bpm.engine.test.util.ProcessEngineBootstrapRule;
+import org.camunda.bpm.engine.test.util.ProcessEngineTestRule;
+import org.camunda.bpm.engine.test.util.ProvidedProcessEngineRule;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+public class VirtualThreadJobExecutorTest {
+
+  protected static final int MAX_CONCURRENT_JOBS = 2;
+
+  protected static final BpmnModelInstance ASYNC_PROCESS = Bpmn.createExecutableProcess("process")
+      .startEvent()
+      .serviceTask()
+        .camundaClass(ConcurrencyRecordingDelegate.class.getName())
+        .camundaAsyncBefore()
+      .endEvent()
+      .done();
+
+  @ClassRule
+  public static ProcessEngineBootstrapRule bootstrapRule = new ProcessEngineBootstrapRule() {
+    @Override
+    public ProcessEngineConfiguration configureEngine(ProcessEngineConfigurationImpl configuration) {
+      VirtualThreadJobExecutor jobExecutor = new VirtualThreadJobExecutor();
+      jobExecutor.setMaxConcurrentJobs(MAX_CONCURRENT_JOBS);
+      jobExecutor.setMaxJobsPerAcquisition(5);
+      jobExecutor.setWaitTimeInMillis(50);
+      return configuration.setJobExecutor(jobExecutor);
+    }
+  };
+
+  public ProvidedProcessEngineRule engineRule = new ProvidedProcessEngineRule(bootstrapRule);
+  public ProcessEngineTestRule testRule = new ProcessEngineTestRule(engineRule);
+
+  @Rule
+  public RuleChain ruleChain = RuleChain.outerRule(engineRule).around(testRule);
+
+  @Before
+  public void resetDelegate() {
+    ConcurrencyRecordingDelegate.reset();
+  }
+
+  @Test
+  public void shouldExecuteJobs() {
+    // given
+    testRule.deploy(ASYNC_PROCESS);
+    for (int i = 0; i < 10; i++) {
+      engineRule.getRuntimeService().startProcessInstanceByKey("process");
+    }
+
+    // when
+    testRule.waitForJobExecutorToProcessAllJobs(20000L);
+
+    // then
+    assertThat(engineRule.getManagementService().createJobQuery().count()).isEqualTo(0);
+    assertThat(ConcurrencyRecordingDelegate.EXECUTIONS.get()).isEqualTo(10);
+  }
+
+  @Test
+  public void shouldNotExceedMaxConcurrentJobs() {
+    // given
+    testRule.deploy(ASYNC_PROCESS);
+    for (int i = 0; i < 6; i++) {
+      engineRule.getRuntimeService().startProcessInstanceByKey("process");
+    }
+
+    // when
+    testRule.waitForJobExecutorToProcessAllJobs(20000L);
+
+    // then
+    assertThat(ConcurrencyRecordingDelegate.MAX_CONCURRENT_EXECUTIONS.get()).isLessThanOrEqualTo(MAX_CONCURRENT_JOBS);
+    assertThat(ConcurrencyRecordingDelegate.EXECUTIONS.get()).isEqualTo(6);
+  }
+
+  @Test
+  public void shouldProvideAvailableExecutionCapacity() {
+    // given
+    VirtualThreadJobExecutor jobExecutor = (VirtualThreadJobExecutor) engineRule.getProcessEngineConfiguration().getJobExecutor();
+
+    // then
+    assertThat(jobExecutor.getAvailableExecutionCapacity()).isEqualTo(MAX_CONCURRENT_JOBS);
+  }
+
+  @Test
+  public void shouldTakeOnePermitPerJobWithInjectedExecutorService() throws Exception {
+    // given
+    final CountDownLatch executorBlocked = new CountDownLatch(1);
+    ExecutorService executorService = Executors.newSingleThreadExecutor();
+    executorService.execute(new Runnable() {
+      public void run() {
+        try {
+          executorBlocked.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    });
+
+    final List<List<String>> rejectedJobs = new ArrayList<>();
+    VirtualThreadJobExecutor jobExecutor = new VirtualThreadJobExecutor();
+    jobExecutor.setMaxConcurrentJobs(4);
+    jobExecutor.setExecutorService(executorService);
+    jobExecutor.setRejectedJobsHandler(new RejectedJobsHandler() {
+      public void jobsRejected(List<String> jobIds, ProcessEngineImpl processEngine, JobExecutor jobExecutor) {
+        rejectedJobs.add(jobIds);
+      }
+    });
+    ProcessEngineImpl processEngine = (ProcessEngineImpl) engineRule.getProcessEngine();
+
+    jobExecutor.start();
+    try {
+      // when
+      jobExecutor.executeJobs(Arrays.asList("job1", "job2", "job3"), processEngine);
+
+      // then
+      assertThat(jobExecutor.getAvailableExecutionCapacity()).isEqualTo(1);
+
+      // when
+      jobExecutor.executeJobs(Arrays.asList("job4", "job5"), processEngine);
+
+      // then
+      assertThat(rejectedJobs).containsExactly(Arrays.asList("job4", "job5"));
+      assertThat(jobExecutor.getAvailableExecutionCapacity()).isEqualTo(1);
+
+    } finally {
+      // drops the queued batch without executing it
+      executorService.shutdownNow();
+      jobExecutor.shutdown();
+    }
+  }
+
+  public static class ConcurrencyRecordingDelegate implements JavaDelegate {
+
+    public static final AtomicInteger EXECUTIONS = new AtomicInteger();
+    public static final AtomicInteger CONCURRENT_EXECUTIONS = new AtomicInteger();
+    public static final AtomicInteger MAX_CONCURRENT_EXECUTIONS = new AtomicInteger();
+
+    public static void reset() {
+      EXECUTIONS.set(0);
+      CONCURRENT_EXECUTIONS.set(0);
+      MAX_CONCURRENT_EXECUTIONS.set(0);
+    }
+
+    public void execute(DelegateExecution execution) throws Exception {
+      int concurrentExecutions = CONCURRENT_EXECUTIONS.incrementAndGet();
+      try {
+        int maxConcurrentExecutions = MAX_CONCURRENT_EXECUTIONS.get();
+        while (concurrentExecutions > maxConcurrentExecutions
+            && !MAX_CONCURRENT_EXECUTIONS.compareAndSet(maxConcurrentExecutions, concurrentExecutions)) {
+          maxConcurrentExecutions = MAX_CONCURRENT_EXECUTIONS.get();
+        }
+        Thread.sleep(50L);
+        EXECUTIONS.incrementAndGet();
+      } finally {
+        CONCURRENT_EXECUTIONS.decrementAndGet();
+      }
+    }
+  }
+
+}
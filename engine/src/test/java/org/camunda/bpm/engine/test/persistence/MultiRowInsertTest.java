@@ -0,0 +1,228 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.camunda.bpm.engine.HistoryService;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.history.HistoricVariableInstance;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.persistence.entity.HistoricVariableInstanceEntity;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.test.RequiredHistoryLevel;
+import org.camunda.bpm.engine.test.util.ProcessEngineBootstrapRule;
+import org.camunda.bpm.engine.test.util.ProcessEngineTestRule;
+import org.camunda.bpm.engine.test.util.ProvidedProcessEngineRule;
+import org.camunda.bpm.engine.variable.VariableMap;
+import org.camunda.bpm.engine.variable.Variables;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+@RequiredHistoryLevel(ProcessEngineConfiguration.HISTORY_FULL)
+public class MultiRowInsertTest {
+
+  protected static final BpmnModelInstance SEQUENCE_PROCESS = Bpmn
+      .createExecutableProcess("process")
+      .startEvent()
+      .manualTask()
+      .manualTask()
+      .manualTask()
+      .manualTask()
+      .userTask()
+      .endEvent()
+      .done();
+
+  @ClassRule
+  public static ProcessEngineBootstrapRule bootstrapRule = new ProcessEngineBootstrapRule() {
+    @Override
+    public ProcessEngineConfiguration configureEngine(ProcessEngineConfigurationImpl configuration) {
+      configuration.setJdbcMultiRowInsertEnabled(true);
+      return configuration;
+    }
+  };
+
+  public ProvidedProcessEngineRule engineRule = new ProvidedProcessEngineRule(bootstrapRule);
+  public ProcessEngineTestRule testRule = new ProcessEngineTestRule(engineRule);
+
+  @Rule
+  public RuleChain ruleChain = RuleChain.outerRule(engineRule).around(testRule);
+
+  protected static StatementRecorder statementRecorder = new StatementRecorder();
+
+  protected RuntimeService runtimeService;
+  protected HistoryService historyService;
+
+  @BeforeClass
+  public static void registerStatementRecorder() {
+    ProcessEngineConfigurationImpl configuration = (ProcessEngineConfigurationImpl) bootstrapRule.getProcessEngine()
+        .getProcessEngineConfiguration();
+    configuration.getSqlSessionFactory().getConfiguration().addInterceptor(statementRecorder);
+  }
+
+  @Before
+  public void init() {
+    runtimeService = engineRule.getRuntimeService();
+    historyService = engineRule.getHistoryService();
+  }
+
+  @Test
+  public void shouldInsertHistoryInMultiRowStatements() {
+    // given
+    testRule.deploy(SEQUENCE_PROCESS);
+
+    VariableMap variables = Variables.createVariables();
+    for (int i = 0; i < 10; i++) {
+      variables.putValue("var" + i, "value" + i);
+    }
+
+    // when
+    statementRecorder.clear();
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("process", variables);
+
+    // then
+    assertThat(statementRecorder.getStatements("insertHistoricActivityInstanceEvent")).isEmpty();
+    assertThat(statementRecorder.getStatements("bulkInsertHistoricActivityInstanceEvent")).hasSize(1);
+    assertThat(statementRecorder.getStatements("insertHistoricVariableInstance")).isEmpty();
+    assertThat(statementRecorder.getStatements("bulkInsertHistoricVariableInstance")).hasSize(1);
+    assertThat(statementRecorder.getStatements("bulkInsertHistoricVariableUpdateEvent")).hasSize(1);
+
+    assertThat(historyService.createHistoricActivityInstanceQuery()
+        .processInstanceId(processInstance.getId())
+        .count()).isEqualTo(6);
+
+    List<HistoricVariableInstance> historicVariables = historyService.createHistoricVariableInstanceQuery()
+        .processInstanceId(processInstance.getId())
+        .orderByVariableName()
+        .asc()
+        .list();
+    assertThat(historicVariables).hasSize(10);
+    assertThat(historicVariables.get(3).getName()).isEqualTo("var3");
+    assertThat(historicVariables.get(3).getValue()).isEqualTo("value3");
+
+    assertThat(historyService.createHistoricDetailQuery()
+        .processInstanceId(processInstance.getId())
+        .variableUpdates()
+        .count()).isEqualTo(10);
+  }
+
+  @Test
+  public void shouldSplitMultiRowStatementsAtParameterLimit() {
+    // given
+    ProcessEngineConfigurationImpl configuration = engineRule.getProcessEngineConfiguration();
+    int limit = configuration.getDbSqlSessionFactory()
+        .getMultiRowInsertLimit(new HistoricVariableInstanceEntity());
+    assertThat(limit).isGreaterThan(1);
+
+    testRule.deploy(SEQUENCE_PROCESS);
+
+    VariableMap variables = Variables.createVariables();
+    // a single remaining row is inserted with the single-row statement
+    for (int i = 0; i < limit + 2; i++) {
+      variables.putValue("var" + i, i);
+    }
+
+    // when
+    statementRecorder.clear();
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("process", variables);
+
+    // then
+    List<Object> statements = statementRecorder.getStatements("bulkInsertHistoricVariableInstance");
+    assertThat(statements).hasSize(2);
+    assertThat((List<?>) statements.get(0)).hasSize(limit);
+    assertThat((List<?>) statements.get(1)).hasSize(2);
+    assertThat(statementRecorder.getStatements("insertHistoricVariableInstance")).isEmpty();
+
+    assertThat(historyService.createHistoricVariableInstanceQuery()
+        .processInstanceId(processInstance.getId())
+        .count()).isEqualTo(limit + 2);
+  }
+
+  /**
+   * Records the parameters of the insert statements passed to the MyBatis executor.
+   */
+  @Intercepts({
+    @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class})
+  })
+  public static class StatementRecorder implements Interceptor {
+
+    protected List<String> statementIds = Collections.synchronizedList(new ArrayList<String>());
+    protected List<Object> parameters = Collections.synchronizedList(new ArrayList<Object>());
+
+    public Object intercept(Invocation invocation) throws Throwable {
+      MappedStatement mappedStatement = (MappedStatement) invocation.getArgs()[0];
+      statementIds.add(mappedStatement.getId());
+      Object parameter = invocation.getArgs()[1];
+      if (parameter instanceof Map && ((Map<?, ?>) parameter).containsKey("list")) {
+        // MyBatis wraps list parameters
+        parameter = ((Map<?, ?>) parameter).get("list");
+      }
+      parameters.add(parameter);
+      return invocation.proceed();
+    }
+
+    public Object plugin(Object target) {
+      return Plugin.wrap(target, this);
+    }
+
+    public void setProperties(Properties properties) {
+      // no properties
+    }
+
+    public void clear() {
+      statementIds.clear();
+      parameters.clear();
+    }
+
+    /**
+     * @return the parameters of the recorded executions of the statement with the given id
+     *   or a database specific variant of it
+     */
+    public List<Object> getStatements(String statementId) {
+      List<Object> result = new ArrayList<Object>();
+      for (int i = 0; i < statementIds.size(); i++) {
+        String id = statementIds.get(i);
+        String shortId = id.substring(id.lastIndexOf('.') + 1);
+        if (shortId.equals(statementId) || shortId.startsWith(statementId + "_")) {
+          result.add(parameters.get(i));
+        }
+      }
+      return result;
+    }
+  }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.standalone.db.entitymanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.db.entitymanager.cache.CachedDbEntity;
+import org.camunda.bpm.engine.impl.db.entitymanager.cache.DbEntityCache;
+import org.camunda.bpm.engine.impl.persistence.entity.ByteArrayEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.VariableInstanceEntity;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DbEntityCacheTest {
+
+  protected DbEntityCache cache;
+
+  @Before
+  public void setUp() {
+    cache = new DbEntityCache();
+  }
+
+  @Test
+  public void shouldSeparateEntitiesOfDifferentTypesWithSameId() {
+    // given
+    ByteArrayEntity byteArray = byteArray("1");
+    VariableInstanceEntity variable = new VariableInstanceEntity();
+    variable.setId("1");
+
+    // when
+    cache.putTransient(byteArray);
+    cache.putTransient(variable);
+
+    // then
+    assertSame(byteArray, cache.get(ByteArrayEntity.class, "1"));
+    assertSame(variable, cache.get(VariableInstanceEntity.class, "1"));
+    assertEquals(2, cache.getCachedEntities().size());
+  }
+
+  @Test
+  public void shouldFindEntitiesAfterRemovalOfCollidingIds() {
+    // given "Aa" and "BB" have the same hash code, so all ids collide
+    String[] ids = new String[] {"AaAa", "AaBB", "BBAa", "BBBB"};
+    for (String id : ids) {
+      cache.putTransient(byteArray(id));
+    }
+
+    // when
+    assertTrue(cache.remove(cache.get(ByteArrayEntity.class, "AaBB")));
+
+    // then
+    assertNull(cache.get(ByteArrayEntity.class, "AaBB"));
+    assertEquals("AaAa", cache.get(ByteArrayEntity.class, "AaAa").getId());
+    assertEquals("BBAa", cache.get(ByteArrayEntity.class, "BBAa").getId());
+    assertEquals("BBBB", cache.get(ByteArrayEntity.class, "BBBB").getId());
+  }
+
+  @Test
+  public void shouldKeepInsertionOrderWhenGrowing() {
+    // given
+    for (int i = 0; i < 1000; i++) {
+      cache.putTransient(byteArray(String.valueOf(i)));
+    }
+
+    // when
+    for (int i = 0; i < 1000; i += 2) {
+      assertTrue(cache.remove(byteArray(String.valueOf(i))));
+    }
+    for (int i = 1000; i < 1100; i++) {
+      cache.putTransient(byteArray(String.valueOf(i)));
+    }
+
+    // then
+    List<String> expectedIds = new ArrayList<String>();
+    for (int i = 1; i < 1000; i += 2) {
+      expectedIds.add(String.valueOf(i));
+    }
+    for (int i = 1000; i < 1100; i++) {
+      expectedIds.add(String.valueOf(i));
+    }
+    assertEquals(expectedIds, cachedIds());
+
+    for (String id : expectedIds) {
+      assertEquals(id, cache.get(ByteArrayEntity.class, id).getId());
+    }
+    assertNull(cache.get(ByteArrayEntity.class, "0"));
+  }
+
+  @Test
+  public void shouldReplacePersistentEntityInPlace() {
+    // given
+    cache.putPersistent(byteArray("1"));
+    cache.putPersistent(byteArray("2"));
+    ByteArrayEntity replacement = byteArray("1");
+
+    // when
+    cache.putPersistent(replacement);
+
+    // then
+    assertSame(replacement, cache.get(ByteArrayEntity.class, "1"));
+    assertEquals(2, cache.getCachedEntities().size());
+  }
+
+  @Test
+  public void shouldBeEmptyAfterClear() {
+    // given
+    for (int i = 0; i < 100; i++) {
+      cache.putTransient(byteArray(String.valueOf(i)));
+    }
+
+    // when
+    cache.clear();
+
+    // then
+    assertTrue(cache.getCachedEntities().isEmpty());
+    assertFalse(cache.contains(byteArray("1")));
+
+    // and the cache can be used again
+    cache.putTransient(byteArray("1"));
+    assertTrue(cache.isTransient(byteArray("1")));
+  }
+
+  protected List<String> cachedIds() {
+    List<String> ids = new ArrayList<String>();
+    for (CachedDbEntity cachedEntity : cache.getCachedEntities()) {
+      ids.add(cachedEntity.getEntity().getId());
+    }
+    return ids;
+  }
+
+  protected ByteArrayEntity byteArray(String id) {
+    ByteArrayEntity byteArray = new ByteArrayEntity();
+    byteArray.setId(id);
+    return byteArray;
+  }
+
+}
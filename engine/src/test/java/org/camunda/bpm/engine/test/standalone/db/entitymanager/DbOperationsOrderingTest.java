@@ -27,6 +27,7 @@ import org.camunda.bpm.engine.impl.db.PersistenceSession;
 import org.camunda.bpm.engine.impl.db.entitymanager.DbEntityManager;
 import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbEntityOperation;
 import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbOperation;
+import org.camunda.bpm.engine.impl.persistence.entity.ByteArrayEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.TaskEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.VariableInstanceEntity;
@@ -217,6 +218,26 @@ public class DbOperationsOrderingTest {
     assertHappensBefore(execution1, execution2, deleteOperations);
   }
 
+  @Test
+  public void testInsertByteArrayCopyAfterSource() {
+    // given a copy whose id is ordered before the id of its source
+    ByteArrayEntity source = new ByteArrayEntity("source", new byte[] { 1 });
+    source.setId("2");
+    ByteArrayEntity copy = new ByteArrayEntity("copy", null);
+    copy.setId("10");
+    copy.setSourceByteArrayId(source.getId());
+
+    entityManager.insert(copy);
+    entityManager.insert(source);
+
+    // when
+    entityManager.flushEntityCache();
+
+    // then the copy is inserted after its source
+    List<DbOperation> flush = entityManager.getDbOperationManager().calculateFlush();
+    assertHappensAfter(copy, source, flush);
+  }
+
   protected void assertHappensAfter(DbEntity entity1, DbEntity entity2, List<DbOperation> operations) {
     int idx1 = indexOfEntity(entity1, operations);
     int idx2 = indexOfEntity(entity2, operations);
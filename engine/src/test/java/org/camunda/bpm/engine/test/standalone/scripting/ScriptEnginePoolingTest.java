@@ -0,0 +1,384 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.standalone.scripting;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.script.AbstractScriptEngine;
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import javax.script.ScriptException;
+import javax.script.SimpleBindings;
+
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.scripting.engine.ScriptEnginePool;
+import org.camunda.bpm.engine.impl.scripting.engine.ScriptingEngines;
+import org.camunda.bpm.engine.management.Metrics;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.test.util.ProcessEngineBootstrapRule;
+import org.camunda.bpm.engine.test.util.ProcessEngineTestRule;
+import org.camunda.bpm.engine.test.util.ProvidedProcessEngineRule;
+import org.camunda.bpm.engine.variable.Variables;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+public class ScriptEnginePoolingTest {
+
+  protected static final String PROCESS_KEY = "process";
+
+  protected static final AtomicInteger LANGUAGE_COUNTER = new AtomicInteger();
+
+  @ClassRule
+  public static ProcessEngineBootstrapRule bootstrapRule = new ProcessEngineBootstrapRule() {
+    @Override
+    public ProcessEngineConfiguration configureEngine(ProcessEngineConfigurationImpl configuration) {
+      configuration.setEnableScriptEnginePooling(true);
+      return configuration;
+    }
+  };
+
+  protected ProvidedProcessEngineRule engineRule = new ProvidedProcessEngineRule(bootstrapRule);
+  protected ProcessEngineTestRule testRule = new ProcessEngineTestRule(engineRule);
+
+  @Rule
+  public RuleChain ruleChain = RuleChain.outerRule(engineRule).around(testRule);
+
+  protected ProcessEngineConfigurationImpl processEngineConfiguration;
+  protected RuntimeService runtimeService;
+  protected ScriptingEngines scriptingEngines;
+
+  protected PoolingTestScriptEngineFactory scriptEngineFactory;
+
+  @Before
+  public void setUp() {
+    processEngineConfiguration = engineRule.getProcessEngineConfiguration();
+    runtimeService = engineRule.getRuntimeService();
+    scriptingEngines = processEngineConfiguration.getScriptingEngines();
+
+    // every test uses its own language, so that it uses a new pool
+    scriptEngineFactory = new PoolingTestScriptEngineFactory("pooling-test-" + LANGUAGE_COUNTER.incrementAndGet());
+    scriptingEngines.addScriptEngineFactory(scriptEngineFactory);
+  }
+
+  @After
+  public void resetConfiguration() {
+    scriptingEngines.setScriptEnginePoolSize(processEngineConfiguration.getScriptEnginePoolSize());
+    scriptingEngines.setScriptEnginePoolMaxWait(processEngineConfiguration.getScriptEnginePoolMaxWait());
+  }
+
+  @Test
+  public void shouldWarmUpPoolOnDeployment() {
+    // when
+    deployScriptTaskProcess();
+
+    // then
+    assertThat(scriptEngineFactory.createdScriptEngines.get()).isEqualTo(1);
+    assertThat(scriptEngineFactory.compilations.get()).isEqualTo(1);
+    assertThat(getScriptEnginePool().getIdleSize()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldReuseScriptEngineAndCompiledScript() {
+    // given
+    deployScriptTaskProcess();
+
+    for (int i = 0; i < 5; i++) {
+      // when
+      ProcessInstance processInstance = startProcessInstance("value" + i);
+
+      // then
+      assertThat(runtimeService.getVariable(processInstance.getId(), "result")).isEqualTo("value" + i);
+    }
+
+    assertThat(scriptEngineFactory.createdScriptEngines.get()).isEqualTo(1);
+    assertThat(scriptEngineFactory.compilations.get()).isEqualTo(1);
+    assertThat(scriptEngineFactory.compiledEvaluations.get()).isEqualTo(5);
+  }
+
+  @Test
+  public void shouldNotUseScriptEngineConcurrently() throws Exception {
+    // given
+    scriptingEngines.setScriptEnginePoolSize(2);
+    scriptingEngines.setScriptEnginePoolMaxWait(10000);
+    deployScriptTaskProcess();
+    scriptEngineFactory.evaluationMillis = 100;
+
+    long waits = getPoolWaits();
+
+    // when
+    List<Object> results = startProcessInstancesConcurrently(6);
+
+    // then
+    assertThat(results).containsOnly("value0", "value1", "value2", "value3", "value4", "value5");
+    assertThat(scriptEngineFactory.concurrentUse.get()).isFalse();
+    assertThat(scriptEngineFactory.createdScriptEngines.get()).isEqualTo(2);
+    assertThat(getScriptEnginePool().getIdleSize()).isEqualTo(2);
+    assertThat(getPoolWaits()).isGreaterThan(waits);
+  }
+
+  @Test
+  public void shouldUseUnpooledScriptEngineIfPoolIsExhausted() throws Exception {
+    // given
+    scriptingEngines.setScriptEnginePoolSize(1);
+    scriptingEngines.setScriptEnginePoolMaxWait(0);
+    deployScriptTaskProcess();
+    scriptEngineFactory.evaluationMillis = 100;
+
+    // when
+    List<Object> results = startProcessInstancesConcurrently(3);
+
+    // then
+    assertThat(results).containsOnly("value0", "value1", "value2");
+    assertThat(scriptEngineFactory.concurrentUse.get()).isFalse();
+    assertThat(scriptEngineFactory.createdScriptEngines.get()).isGreaterThan(1);
+    assertThat(getScriptEnginePool().getSize()).isEqualTo(1);
+    assertThat(getScriptEnginePool().getIdleSize()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldNotPoolCachableScriptEngines() {
+    // when
+    ScriptEnginePool pool = getScriptEnginePool(ScriptingEngines.GROOVY_SCRIPTING_LANGUAGE);
+
+    // then
+    assertThat(pool).isNull();
+  }
+
+  protected void deployScriptTaskProcess() {
+    BpmnModelInstance process = Bpmn.createExecutableProcess(PROCESS_KEY)
+      .startEvent()
+      .scriptTask()
+        .scriptFormat(scriptEngineFactory.getEngineName())
+        .scriptText("input")
+        .camundaResultVariable("result")
+      .userTask()
+      .endEvent()
+      .done();
+
+    testRule.deploy(process);
+  }
+
+  protected ProcessInstance startProcessInstance(String input) {
+    return runtimeService.startProcessInstanceByKey(PROCESS_KEY, Variables.createVariables().putValue("input", input));
+  }
+
+  protected List<Object> startProcessInstancesConcurrently(int instances) throws Exception {
+    ExecutorService executorService = Executors.newFixedThreadPool(instances);
+    try {
+      final CountDownLatch start = new CountDownLatch(1);
+      List<Future<Object>> futures = new ArrayList<Future<Object>>();
+
+      for (int i = 0; i < instances; i++) {
+        final String input = "value" + i;
+        futures.add(executorService.submit(new Callable<Object>() {
+          public Object call() throws Exception {
+            start.await();
+            ProcessInstance processInstance = startProcessInstance(input);
+            return runtimeService.getVariable(processInstance.getId(), "result");
+          }
+        }));
+      }
+
+      start.countDown();
+
+      List<Object> results = new ArrayList<Object>();
+      for (Future<Object> future : futures) {
+        results.add(future.get(30, TimeUnit.SECONDS));
+      }
+      return results;
+    }
+    finally {
+      executorService.shutdownNow();
+    }
+  }
+
+  protected ScriptEnginePool getScriptEnginePool() {
+    return getScriptEnginePool(scriptEngineFactory.getEngineName());
+  }
+
+  protected ScriptEnginePool getScriptEnginePool(final String language) {
+    return processEngineConfiguration.getCommandExecutorTxRequired()
+      .execute(new Command<ScriptEnginePool>() {
+        public ScriptEnginePool execute(CommandContext commandContext) {
+          return scriptingEngines.getScriptEnginePool(language);
+        }
+      });
+  }
+
+  protected long getPoolWaits() {
+    return processEngineConfiguration.getMetricsRegistry().getMeterByName(Metrics.SCRIPT_ENGINE_POOL_WAITS).get();
+  }
+
+  /**
+   * Creates script engines which are not thread-safe. A script is the name of a
+   * variable and evaluates to the value of the variable.
+   */
+  public static class PoolingTestScriptEngineFactory implements ScriptEngineFactory {
+
+    protected final String name;
+
+    protected volatile long evaluationMillis = 0;
+
+    protected final AtomicInteger createdScriptEngines = new AtomicInteger();
+    protected final AtomicInteger compilations = new AtomicInteger();
+    protected final AtomicInteger compiledEvaluations = new AtomicInteger();
+    protected final AtomicBoolean concurrentUse = new AtomicBoolean();
+
+    public PoolingTestScriptEngineFactory(String name) {
+      this.name = name;
+    }
+
+    public String getEngineName() {
+      return name;
+    }
+
+    public String getEngineVersion() {
+      return "1.0";
+    }
+
+    public List<String> getExtensions() {
+      return Collections.emptyList();
+    }
+
+    public List<String> getMimeTypes() {
+      return Collections.emptyList();
+    }
+
+    public List<String> getNames() {
+      return Collections.singletonList(name);
+    }
+
+    public String getLanguageName() {
+      return name;
+    }
+
+    public String getLanguageVersion() {
+      return "1.0";
+    }
+
+    public Object getParameter(String key) {
+      if (ScriptEngine.NAME.equals(key) || ScriptEngine.ENGINE.equals(key) || ScriptEngine.LANGUAGE.equals(key)) {
+        return name;
+      }
+      // the script engines are not thread-safe
+      return null;
+    }
+
+    public String getMethodCallSyntax(String obj, String m, String... args) {
+      throw new UnsupportedOperationException();
+    }
+
+    public String getOutputStatement(String toDisplay) {
+      throw new UnsupportedOperationException();
+    }
+
+    public String getProgram(String... statements) {
+      throw new UnsupportedOperationException();
+    }
+
+    public ScriptEngine getScriptEngine() {
+      createdScriptEngines.incrementAndGet();
+      return new PoolingTestScriptEngine(this);
+    }
+  }
+
+  public static class PoolingTestScriptEngine extends AbstractScriptEngine implements Compilable {
+
+    protected final PoolingTestScriptEngineFactory factory;
+    protected final AtomicBoolean inUse = new AtomicBoolean();
+
+    public PoolingTestScriptEngine(PoolingTestScriptEngineFactory factory) {
+      this.factory = factory;
+    }
+
+    public Object eval(String script, ScriptContext context) throws ScriptException {
+      if (!inUse.compareAndSet(false, true)) {
+        factory.concurrentUse.set(true);
+      }
+      try {
+        if (factory.evaluationMillis > 0) {
+          Thread.sleep(factory.evaluationMillis);
+        }
+        return context.getAttribute(script.trim());
+      }
+      catch (InterruptedException e) {
+        throw new ScriptException(e);
+      }
+      finally {
+        inUse.set(false);
+      }
+    }
+
+    public Object eval(Reader reader, ScriptContext context) {
+      throw new UnsupportedOperationException();
+    }
+
+    public CompiledScript compile(final String script) {
+      factory.compilations.incrementAndGet();
+      return new CompiledScript() {
+        public Object eval(ScriptContext context) throws ScriptException {
+          factory.compiledEvaluations.incrementAndGet();
+          return PoolingTestScriptEngine.this.eval(script, context);
+        }
+
+        public ScriptEngine getEngine() {
+          return PoolingTestScriptEngine.this;
+        }
+      };
+    }
+
+    public CompiledScript compile(Reader script) {
+      throw new UnsupportedOperationException();
+    }
+
+    public Bindings createBindings() {
+      return new SimpleBindings();
+    }
+
+    public ScriptEngineFactory getFactory() {
+      return factory;
+    }
+  }
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.allocation;
+
+import java.lang.management.ManagementFactory;
+
+import org.camunda.bpm.qa.performance.engine.framework.PerfTest;
+import org.camunda.bpm.qa.performance.engine.framework.PerfTestException;
+import org.camunda.bpm.qa.performance.engine.framework.PerfTestPass;
+import org.camunda.bpm.qa.performance.engine.framework.PerfTestRun;
+import org.camunda.bpm.qa.performance.engine.framework.PerfTestStep;
+import org.camunda.bpm.qa.performance.engine.framework.PerfTestWatcher;
+
+/**
+ * {@link PerfTestWatcher} logging the number of bytes allocated by each step
+ * as the step result. Requires a JVM supporting thread allocation measurement.
+ */
+public class AllocationPerfTestWatcher implements PerfTestWatcher {
+
+  protected static final ThreadLocal<Long> ALLOCATED_BYTES_BEFORE_STEP = new ThreadLocal<Long>();
+
+  protected final com.sun.management.ThreadMXBean threadMXBean;
+
+  public AllocationPerfTestWatcher() {
+    java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+      throw new PerfTestException("Thread allocation measurement is not supported by this JVM");
+    }
+    threadMXBean = (com.sun.management.ThreadMXBean) bean;
+    threadMXBean.setThreadAllocatedMemoryEnabled(true);
+  }
+
+  public void beforePass(PerfTestPass pass) {
+    // nothing to do
+  }
+
+  public void beforeRun(PerfTest test, PerfTestRun run) {
+    // nothing to do
+  }
+
+  public void beforeStep(PerfTestStep step, PerfTestRun run) {
+    ALLOCATED_BYTES_BEFORE_STEP.set(currentThreadAllocatedBytes());
+  }
+
+  public void afterStep(PerfTestStep step, PerfTestRun run) {
+    long allocatedBytes = currentThreadAllocatedBytes() - ALLOCATED_BYTES_BEFORE_STEP.get();
+    ALLOCATED_BYTES_BEFORE_STEP.remove();
+    run.logStepResult(allocatedBytes);
+  }
+
+  public void afterRun(PerfTest test, PerfTestRun run) {
+    // nothing to do
+  }
+
+  public void afterPass(PerfTestPass pass) {
+    // nothing to do
+  }
+
+  protected long currentThreadAllocatedBytes() {
+    return threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+}
@@ -18,8 +18,10 @@ package org.camunda.bpm.qa.performance.engine.junit;
 
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 
 import org.apache.tomcat.jdbc.pool.DataSource;
 import org.apache.tomcat.jdbc.pool.PoolProperties;
@@ -28,6 +30,7 @@ import org.camunda.bpm.engine.ProcessEngineConfiguration;
 import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
 import org.camunda.bpm.engine.impl.cfg.ProcessEnginePlugin;
 import org.camunda.bpm.engine.impl.cfg.StandaloneProcessEngineConfiguration;
+import org.camunda.bpm.engine.impl.jobexecutor.VirtualThreadJobExecutor;
 import org.camunda.bpm.engine.impl.util.IoUtil;
 import org.camunda.bpm.engine.impl.util.ReflectUtil;
 import org.camunda.bpm.qa.performance.engine.framework.PerfTestException;
@@ -63,6 +66,24 @@ public class PerfTestProcessEngine {
     processEngineConfiguration.setHistory(properties.getProperty("historyLevel"));
 
     processEngineConfiguration.setJdbcBatchProcessing(Boolean.valueOf(properties.getProperty("jdbcBatchProcessing")));
+    processEngineConfiguration.setJdbcMultiRowInsertEnabled(Boolean.valueOf(properties.getProperty("jdbcMultiRowInsert")));
+    processEngineConfiguration.setSkipLockedAcquisitionEnabled(Boolean.valueOf(properties.getProperty("skipLockedAcquisition")));
+    processEngineConfiguration.setDbEntityCachePoolSize(Integer.parseInt(properties.getProperty("dbEntityCachePoolSize", "0")));
+    processEngineConfiguration.setAuthorizationCacheEnabled(Boolean.valueOf(properties.getProperty("authorizationCache")));
+    processEngineConfiguration.setExpressionCompilationEnabled(Boolean.valueOf(properties.getProperty("expressionCompilation")));
+    processEngineConfiguration.setEnableScriptEnginePooling(Boolean.valueOf(properties.getProperty("scriptEnginePooling")));
+
+    Set<String> correlationIndexVariableNames = new HashSet<String>();
+    for (String variableName : properties.getProperty("correlationIndexVariableNames", "").split(",")) {
+      if (!variableName.trim().isEmpty()) {
+        correlationIndexVariableNames.add(variableName.trim());
+      }
+    }
+    processEngineConfiguration.setCorrelationIndexVariableNames(correlationIndexVariableNames);
+
+    if (Boolean.valueOf(properties.getProperty("virtualThreadJobExecutor"))) {
+      processEngineConfiguration.setJobExecutor(new VirtualThreadJobExecutor());
+    }
 
     // load plugins
     String processEnginePlugins = properties.getProperty("processEnginePlugins", "");
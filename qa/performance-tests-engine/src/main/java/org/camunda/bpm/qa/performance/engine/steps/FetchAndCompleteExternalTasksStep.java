@@ -0,0 +1,56 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.steps;
+
+import java.util.List;
+
+import org.camunda.bpm.engine.ExternalTaskService;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.externaltask.LockedExternalTask;
+import org.camunda.bpm.qa.performance.engine.framework.PerfTestRunContext;
+
+/**
+ * Fetches and locks external tasks of a topic and completes them. Concurrent runs
+ * of this step compete for the same tasks.
+ */
+public class FetchAndCompleteExternalTasksStep extends ProcessEngineAwareStep {
+
+  protected ExternalTaskService externalTaskService;
+  protected String topicName;
+  protected int maxTasks;
+
+  public FetchAndCompleteExternalTasksStep(ProcessEngine processEngine, String topicName, int maxTasks) {
+    super(processEngine);
+    this.externalTaskService = processEngine.getExternalTaskService();
+    this.topicName = topicName;
+    this.maxTasks = maxTasks;
+  }
+
+  @Override
+  public void execute(PerfTestRunContext context) {
+    String workerId = Thread.currentThread().getName();
+
+    List<LockedExternalTask> externalTasks = externalTaskService.fetchAndLock(maxTasks, workerId)
+      .topic(topicName, 10000L)
+      .execute();
+
+    for (LockedExternalTask externalTask : externalTasks) {
+      externalTaskService.complete(externalTask.getId(), workerId);
+    }
+  }
+
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.bpmn;
+
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.qa.performance.engine.junit.ProcessEnginePerformanceTestCase;
+import org.camunda.bpm.qa.performance.engine.steps.FetchAndCompleteExternalTasksStep;
+import org.camunda.bpm.qa.performance.engine.steps.StartProcessInstanceStep;
+import org.junit.Test;
+
+/**
+ * <p>Lets all threads of a run start external tasks and fetch them from the same
+ * topic. Compare runs with and without the <code>cfgSkipLockedAcquisitionOn</code>
+ * profile on a database supporting <code>SKIP LOCKED</code> to see the effect on
+ * concurrent acquisition.</p>
+ */
+public class ExternalTaskAcquisitionPerformanceTest extends ProcessEnginePerformanceTestCase {
+
+  @Test
+  @Deployment(resources =
+    {"org/camunda/bpm/qa/performance/engine/bpmn/ExternalTaskAcquisitionPerformanceTest.externalTask.bpmn"})
+  public void fetchAndCompleteSingleTask() {
+    performanceTest()
+      .step(new StartProcessInstanceStep(engine, "process"))
+      .step(new FetchAndCompleteExternalTasksStep(engine, "topic", 1))
+    .run();
+  }
+
+  @Test
+  @Deployment(resources =
+    {"org/camunda/bpm/qa/performance/engine/bpmn/ExternalTaskAcquisitionPerformanceTest.externalTask.bpmn"})
+  public void fetchAndComplete10Tasks() {
+    performanceTest()
+      .step(new StartProcessInstanceStep(engine, "process"))
+      .step(new FetchAndCompleteExternalTasksStep(engine, "topic", 10))
+    .run();
+  }
+
+}
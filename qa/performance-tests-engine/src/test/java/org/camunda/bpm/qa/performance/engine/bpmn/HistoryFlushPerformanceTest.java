@@ -0,0 +1,69 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.bpmn;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.qa.performance.engine.junit.ProcessEnginePerformanceTestCase;
+import org.camunda.bpm.qa.performance.engine.steps.StartProcessInstanceStep;
+import org.junit.Test;
+
+/**
+ * <p>Commits a large number of history rows per transaction. Compare runs with and
+ * without the <code>cfgJdbcMultiRowInsertOn</code> profile to see the effect of
+ * multi-row inserts on the number of statements and the latency per commit.</p>
+ */
+public class HistoryFlushPerformanceTest extends ProcessEnginePerformanceTestCase {
+
+  @Test
+  @Deployment(resources =
+    {"org/camunda/bpm/qa/performance/engine/bpmn/SequencePerformanceTest.syncSequence15Steps.bpmn"})
+  public void syncSequence15Steps() {
+    performanceTest()
+      .step(new StartProcessInstanceStep(engine, "process"))
+    .run();
+  }
+
+  @Test
+  @Deployment(resources =
+    {"org/camunda/bpm/qa/performance/engine/bpmn/SequencePerformanceTest.syncSequence15Steps.bpmn"})
+  public void syncSequence15Steps20Vars() {
+    performanceTest()
+      .step(new StartProcessInstanceStep(engine, "process", createVariables(20)))
+    .run();
+  }
+
+  @Test
+  @Deployment(resources =
+    {"org/camunda/bpm/qa/performance/engine/bpmn/StartEventPerformanceTest.noneStartEvent.bpmn"})
+  public void noneStartEvent50Vars() {
+    performanceTest()
+      .step(new StartProcessInstanceStep(engine, "process", createVariables(50)))
+    .run();
+  }
+
+  protected Map<String, Object> createVariables(int numberOfVariables) {
+    Map<String, Object> variables = new HashMap<String, Object>();
+    for (int i = 0; i < numberOfVariables; i++) {
+      variables.put("variable" + i, "someValue" + i);
+    }
+    return variables;
+  }
+
+}
@@ -20,6 +20,7 @@ import static org.camunda.bpm.qa.performance.engine.steps.PerfTestConstants.*;
 
 import org.camunda.bpm.engine.test.Deployment;
 import org.camunda.bpm.qa.performance.engine.junit.ProcessEnginePerformanceTestCase;
+import org.camunda.bpm.qa.performance.engine.steps.CorrelateMessageByVariableStep;
 import org.camunda.bpm.qa.performance.engine.steps.CorrelateMessageStep;
 import org.camunda.bpm.qa.performance.engine.steps.StartProcessInstanceStep;
 import org.junit.Test;
@@ -38,4 +39,13 @@ public class IntermediateCatchPerformanceTest extends ProcessEnginePerformanceTe
       .step(new CorrelateMessageStep(engine, "message", PROCESS_INSTANCE_ID))
     .run();
   }
+
+  @Test
+  @Deployment(resources = "org/camunda/bpm/qa/performance/engine/bpmn/IntermediateCatchPerformanceTest.singleMessage.bpmn")
+  public void singleMessageCorrelatedByVariable() {
+    performanceTest()
+      .step(new StartProcessInstanceStep(engine, "process"))
+      .step(new CorrelateMessageByVariableStep(engine, "message", RUN_ID))
+    .run();
+  }
 }
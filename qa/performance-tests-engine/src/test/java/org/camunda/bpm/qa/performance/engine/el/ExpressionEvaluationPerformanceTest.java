@@ -0,0 +1,159 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.el;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.camunda.bpm.engine.impl.el.ExpressionManager;
+import org.camunda.bpm.engine.impl.javax.el.ELContext;
+import org.camunda.bpm.engine.impl.javax.el.ValueExpression;
+import org.camunda.bpm.engine.impl.juel.CompilingExpressionFactory;
+import org.camunda.bpm.engine.variable.Variables;
+import org.camunda.bpm.engine.variable.context.VariableContext;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.camunda.bpm.qa.performance.engine.framework.PerfTestRunContext;
+import org.camunda.bpm.qa.performance.engine.framework.PerfTestStepBehavior;
+import org.camunda.bpm.qa.performance.engine.junit.ProcessEnginePerformanceTestCase;
+import org.camunda.bpm.qa.performance.engine.steps.StartProcessInstanceStep;
+import org.junit.Test;
+
+/**
+ * Compares interpreting expressions with evaluating compiled expressions. Each step
+ * evaluates an expression {@link #EVALUATIONS_PER_STEP} times.
+ */
+public class ExpressionEvaluationPerformanceTest extends ProcessEnginePerformanceTestCase {
+
+  protected static final int EVALUATIONS_PER_STEP = 1000;
+
+  protected static final String CONDITION = "${amount > 100 && customer.vip}";
+  protected static final String METHOD_CALL = "${customer.discount(amount, 'GOLD')}";
+  protected static final String TEMPLATE = "Dear ${customer.name}, your ${amount} items ship ${amount > 10 ? 'free' : 'paid'}";
+
+  protected static final ExpressionManager INTERPRETING_EXPRESSION_MANAGER = new ExpressionManager();
+  protected static final ExpressionManager COMPILING_EXPRESSION_MANAGER = new ExpressionManager();
+
+  static {
+    COMPILING_EXPRESSION_MANAGER.setExpressionFactory(new CompilingExpressionFactory(0));
+  }
+
+  @Test
+  public void interpretCondition() {
+    evaluate(INTERPRETING_EXPRESSION_MANAGER, CONDITION);
+  }
+
+  @Test
+  public void compileCondition() {
+    evaluate(COMPILING_EXPRESSION_MANAGER, CONDITION);
+  }
+
+  @Test
+  public void interpretMethodCall() {
+    evaluate(INTERPRETING_EXPRESSION_MANAGER, METHOD_CALL);
+  }
+
+  @Test
+  public void compileMethodCall() {
+    evaluate(COMPILING_EXPRESSION_MANAGER, METHOD_CALL);
+  }
+
+  @Test
+  public void interpretTemplate() {
+    evaluate(INTERPRETING_EXPRESSION_MANAGER, TEMPLATE);
+  }
+
+  @Test
+  public void compileTemplate() {
+    evaluate(COMPILING_EXPRESSION_MANAGER, TEMPLATE);
+  }
+
+  /**
+   * Uses the expression manager of the process engine, i.e. compiles the conditions
+   * if the engine is configured with the <code>cfgExpressionCompilationOn</code> profile.
+   */
+  @Test
+  public void exclusiveGatewayConditions() {
+    BpmnModelInstance process = Bpmn.createExecutableProcess("process")
+      .startEvent()
+      .exclusiveGateway("decision")
+        .condition("large", "${amount > 100 && customer.startsWith('A')}")
+        .endEvent()
+      .moveToLastGateway()
+        .condition("medium", "${amount > 10 && amount <= 100}")
+        .endEvent()
+      .moveToLastGateway()
+        .condition("small", "${amount <= 10 || !customer.startsWith('A')}")
+        .endEvent()
+      .done();
+
+    repositoryService.createDeployment()
+      .addModelInstance("process.bpmn", process)
+      .deploy();
+
+    Map<String, Object> variables = new HashMap<String, Object>();
+    variables.put("amount", 50);
+    variables.put("customer", "Ann");
+
+    performanceTest()
+      .step(new StartProcessInstanceStep(engine, "process", variables))
+    .run();
+  }
+
+  protected void evaluate(final ExpressionManager expressionManager, String expressionString) {
+    final ValueExpression expression = expressionManager.createValueExpression(expressionString);
+
+    performanceTest()
+      .step(new PerfTestStepBehavior() {
+        public void execute(PerfTestRunContext context) {
+          VariableContext variables = Variables.createVariables()
+            .putValue("amount", 150)
+            .putValue("customer", new Customer("Ann"))
+            .asVariableContext();
+          ELContext elContext = expressionManager.createElContext(variables);
+
+          Object value = null;
+          for (int i = 0; i < EVALUATIONS_PER_STEP; i++) {
+            value = expression.getValue(elContext);
+          }
+          context.setVariable("value", value);
+        }
+      })
+    .run();
+  }
+
+  public static class Customer {
+
+    protected String name;
+
+    public Customer(String name) {
+      this.name = name;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public boolean isVip() {
+      return name.startsWith("A");
+    }
+
+    public double discount(int amount, String level) {
+      return "GOLD".equals(level) ? amount * 0.1 : 0;
+    }
+  }
+}
@@ -177,4 +177,17 @@ public class HistoryAuthorizationQueryPerformanceTest extends AuthorizationPerfo
     }).run();
   }
 
+  @Test
+  public void checkAuthorization() {
+    performanceTest().step(new PerfTestStepBehavior() {
+      public void execute(PerfTestRunContext context) {
+        // without an authenticated user no check is performed
+        if (authentication.getUserId() != null) {
+          engine.getAuthorizationService()
+            .isUserAuthorized(authentication.getUserId(), authentication.getGroupIds(), permissions[0], resource);
+        }
+      }
+    }).run();
+  }
+
 }
@@ -188,4 +188,17 @@ public class RuntimeAuthorizationQueryPerformanceTest extends AuthorizationPerfo
     }).run();
   }
 
+  @Test
+  public void checkAuthorization() {
+    performanceTest().step(new PerfTestStepBehavior() {
+      public void execute(PerfTestRunContext context) {
+        // without an authenticated user no check is performed
+        if (authentication.getUserId() != null) {
+          engine.getAuthorizationService()
+            .isUserAuthorized(authentication.getUserId(), authentication.getGroupIds(), permissions[0], resource);
+        }
+      }
+    }).run();
+  }
+
 }
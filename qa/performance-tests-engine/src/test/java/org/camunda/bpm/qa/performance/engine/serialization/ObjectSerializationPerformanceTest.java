@@ -0,0 +1,157 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information regarding copyright
+ * ownership. Camunda licenses this file to you under the Apache License,
+ * Version 2.0; you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.serialization;
+
+import static org.camunda.bpm.qa.performance.engine.steps.PerfTestConstants.VARIABLE1;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.camunda.bpm.engine.impl.variable.serializer.CompactBinaryFormat;
+import org.camunda.bpm.engine.impl.variable.serializer.CompactBinaryObjectSerializer;
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.engine.variable.Variables;
+import org.camunda.bpm.qa.performance.engine.framework.PerfTestException;
+import org.camunda.bpm.qa.performance.engine.framework.PerfTestRunContext;
+import org.camunda.bpm.qa.performance.engine.framework.PerfTestStepBehavior;
+import org.camunda.bpm.qa.performance.engine.junit.ProcessEnginePerformanceTestCase;
+import org.camunda.bpm.qa.performance.engine.steps.StartProcessInstanceStep;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.junit.Test;
+
+/**
+ * Compares the compact binary object serialization with JSON serialization
+ * of the same object tree.
+ */
+public class ObjectSerializationPerformanceTest extends ProcessEnginePerformanceTestCase {
+
+  protected static final int NUMBER_OF_ORDERS = 50;
+
+  protected static final Map<String, Object> PAYLOAD = createPayload(NUMBER_OF_ORDERS);
+
+  protected static final CompactBinaryFormat COMPACT_BINARY_FORMAT = new CompactBinaryFormat(1024);
+  protected static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  protected static final byte[] COMPACT_BINARY_PAYLOAD = encodeCompactBinary(PAYLOAD);
+  protected static final byte[] JSON_PAYLOAD = encodeJson(PAYLOAD);
+
+  @Test
+  public void compactBinarySerialize() {
+    performanceTest()
+      .step(new PerfTestStepBehavior() {
+        public void execute(PerfTestRunContext context) {
+          context.setVariable("size", encodeCompactBinary(PAYLOAD).length);
+        }
+      })
+    .run();
+  }
+
+  @Test
+  public void jsonSerialize() {
+    performanceTest()
+      .step(new PerfTestStepBehavior() {
+        public void execute(PerfTestRunContext context) {
+          context.setVariable("size", encodeJson(PAYLOAD).length);
+        }
+      })
+    .run();
+  }
+
+  @Test
+  public void compactBinaryDeserialize() {
+    performanceTest()
+      .step(new PerfTestStepBehavior() {
+        public void execute(PerfTestRunContext context) {
+          try {
+            context.setVariable("value", COMPACT_BINARY_FORMAT.decode(COMPACT_BINARY_PAYLOAD));
+          } catch (Exception e) {
+            throw new PerfTestException("Cannot deserialize compact binary payload", e);
+          }
+        }
+      })
+    .run();
+  }
+
+  @Test
+  public void jsonDeserialize() {
+    performanceTest()
+      .step(new PerfTestStepBehavior() {
+        public void execute(PerfTestRunContext context) {
+          try {
+            context.setVariable("value", OBJECT_MAPPER.readValue(JSON_PAYLOAD, Map.class));
+          } catch (Exception e) {
+            throw new PerfTestException("Cannot deserialize json payload", e);
+          }
+        }
+      })
+    .run();
+  }
+
+  @Test
+  @Deployment(resources =
+    {"org/camunda/bpm/qa/performance/engine/bpmn/StartEventPerformanceTest.noneStartEvent.bpmn"})
+  public void noneStartEventCompactBinaryObjectVar() {
+    HashMap<String, Object> variables = new HashMap<String, Object>();
+    variables.put(VARIABLE1, Variables.objectValue(PAYLOAD)
+        .serializationDataFormat(CompactBinaryObjectSerializer.DATA_FORMAT)
+        .create());
+
+    performanceTest()
+      .step(new StartProcessInstanceStep(engine, "process", variables))
+    .run();
+  }
+
+  protected static byte[] encodeCompactBinary(Object value) {
+    try {
+      return COMPACT_BINARY_FORMAT.encode(value);
+    } catch (Exception e) {
+      throw new PerfTestException("Cannot serialize compact binary payload", e);
+    }
+  }
+
+  protected static byte[] encodeJson(Object value) {
+    try {
+      return OBJECT_MAPPER.writeValueAsBytes(value);
+    } catch (Exception e) {
+      throw new PerfTestException("Cannot serialize json payload", e);
+    }
+  }
+
+  protected static Map<String, Object> createPayload(int orders) {
+    Map<String, Object> customer = new LinkedHashMap<String, Object>();
+    customer.put("id", 4711);
+    customer.put("name", "Jane Doe");
+    customer.put("active", true);
+    customer.put("rating", 4.5d);
+
+    List<Object> orderList = new ArrayList<Object>();
+    for (int i = 0; i < orders; i++) {
+      Map<String, Object> order = new LinkedHashMap<String, Object>();
+      order.put("orderId", 100000 + i);
+      order.put("item", "item-" + i);
+      order.put("quantity", i % 7);
+      orderList.add(order);
+    }
+    customer.put("orders", orderList);
+
+    return customer;
+  }
+
+}
@@ -38,6 +38,7 @@ public class FileValueImpl implements FileValue {
   protected FileValueType type;
   protected String encoding;
   protected boolean isTransient;
+  protected transient InputStream stream;
 
   public FileValueImpl(byte[] value, FileValueType type, String filename, String mimeType, String encoding) {
     this.value = value;
@@ -69,10 +70,22 @@ public class FileValueImpl implements FileValue {
     this.value = bytes;
   }
 
+  /**
+   * Sets a stream which provides the content of this value instead of a byte
+   * array. It is consumed once, when the value is persisted.
+   */
+  public void setStream(InputStream stream) {
+    this.stream = stream;
+  }
+
+  public InputStream getStream() {
+    return stream;
+  }
+
   @Override
   public InputStream getValue() {
     if (value == null) {
-      return null;
+      return stream;
     }
     return new ByteArrayInputStream(value);
   }
@@ -71,6 +71,12 @@ public class FileValueBuilderImpl implements FileValueBuilder {
 	  }
   }
 
+  @Override
+  public FileValueBuilder stream(InputStream stream) {
+    fileValue.setStream(stream);
+    return this;
+  }
+
   @Override
   public FileValueBuilder file(byte[] bytes) {
     fileValue.setValue(bytes);
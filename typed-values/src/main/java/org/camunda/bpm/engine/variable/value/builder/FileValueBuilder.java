@@ -53,6 +53,15 @@ public interface FileValueBuilder extends TypedValueBuilder<FileValue> {
    */
   FileValueBuilder file(InputStream stream);
 
+  /**
+   * Sets the value to the content of the specified {@link InputStream} without
+   * reading it into memory. The stream is consumed once, when the value is
+   * persisted.
+   *
+   * @see #file(InputStream)
+   */
+  FileValueBuilder stream(InputStream stream);
+
   /**
    * Sets the value to the specified {@link Byte} array
    *